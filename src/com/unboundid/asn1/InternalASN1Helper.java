@@ -82,4 +82,22 @@ public final class InternalASN1Helper
   {
     asn1StreamReader.setSASLClient(saslClient);
   }
+
+
+
+  /**
+   * Retrieves the total number of bytes read so far by the provided ASN.1
+   * stream reader.
+   *
+   * @param  asn1StreamReader  The ASN.1 stream reader for which to retrieve
+   *                           the total number of bytes read.
+   *
+   * @return  The total number of bytes read so far by the provided ASN.1
+   *          stream reader.
+   */
+  @InternalUseOnly()
+  public static long getTotalBytesRead(final ASN1StreamReader asn1StreamReader)
+  {
+    return asn1StreamReader.getTotalBytesRead();
+  }
 }
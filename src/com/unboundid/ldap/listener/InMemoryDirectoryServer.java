@@ -344,6 +344,12 @@ public final class InMemoryDirectoryServer
            config.getOperationInterceptors(), requestHandler);
     }
 
+    if (config.getMetrics() != null)
+    {
+      requestHandler = new MetricsRequestHandler(requestHandler,
+           config.getMetrics());
+    }
+
 
     final List<InMemoryListenerConfig> listenerConfigs =
          config.getListenerConfigs();
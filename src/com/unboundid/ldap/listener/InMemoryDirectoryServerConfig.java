@@ -146,6 +146,10 @@ public class InMemoryDirectoryServerConfig
   // messages about operations processed by the server.
   private Handler jsonAccessLogHandler;
 
+  // The metrics object that should be updated with information about
+  // operations processed by the server.
+  private LDAPListenerMetrics metrics;
+
   // The log handler that should be used to record detailed protocol-level
   // messages about LDAP operations processed by the server.
   private Handler ldapDebugLogHandler;
@@ -274,6 +278,7 @@ public class InMemoryDirectoryServerConfig
          new LinkedHashMap<>(StaticUtils.computeMapCapacity(1));
     accessLogHandler                     = null;
     jsonAccessLogHandler                 = null;
+    metrics                              = null;
     ldapDebugLogHandler                  = null;
     enforceAttributeSyntaxCompliance     = true;
     enforceSingleStructuralObjectClass   = true;
@@ -355,6 +360,7 @@ public class InMemoryDirectoryServerConfig
     generateOperationalAttributes      = cfg.generateOperationalAttributes;
     accessLogHandler                   = cfg.accessLogHandler;
     jsonAccessLogHandler               = cfg.jsonAccessLogHandler;
+    metrics                            = cfg.metrics;
     ldapDebugLogHandler                = cfg.ldapDebugLogHandler;
     maxChangeLogEntries                = cfg.maxChangeLogEntries;
     maxConnections                     = cfg.maxConnections;
@@ -906,6 +912,39 @@ public class InMemoryDirectoryServerConfig
 
 
 
+  /**
+   * Retrieves the metrics object that should be updated with aggregate
+   * information about operations processed by the server, if any.
+   *
+   * @return  The metrics object that should be updated with aggregate
+   *          information about operations processed by the server, or
+   *          {@code null} if no metrics should be collected.
+   */
+  public LDAPListenerMetrics getMetrics()
+  {
+    return metrics;
+  }
+
+
+
+  /**
+   * Specifies the metrics object that should be updated with aggregate
+   * information about operations processed by the server.  Collecting metrics
+   * is much less expensive than access logging, and may be used to measure
+   * the throughput and latency of the server under load.
+   *
+   * @param  metrics  The metrics object that should be updated with aggregate
+   *                  information about operations processed by the server.
+   *                  It may be {@code null} if no metrics should be
+   *                  collected.
+   */
+  public void setMetrics(final LDAPListenerMetrics metrics)
+  {
+    this.metrics = metrics;
+  }
+
+
+
   /**
    * Retrieves the log handler that should be used to record detailed messages
    * about LDAP communication to and from the server, which may be useful for
@@ -1991,6 +2030,11 @@ public class InMemoryDirectoryServerConfig
       buffer.append('\'');
     }
 
+    if (metrics != null)
+    {
+      buffer.append(", metricsEnabled=true");
+    }
+
     if (ldapDebugLogHandler != null)
     {
       buffer.append(", ldapDebugLogHandlerClass='");
@@ -87,6 +87,7 @@ import com.unboundid.ldap.sdk.BindResult;
 import com.unboundid.ldap.sdk.ChangeLogEntry;
 import com.unboundid.ldap.sdk.Control;
 import com.unboundid.ldap.sdk.DN;
+import com.unboundid.ldap.sdk.DNCache;
 import com.unboundid.ldap.sdk.DeleteRequest;
 import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.EntrySorter;
@@ -1387,7 +1388,7 @@ public final class InMemoryRequestHandler
       final DN bindDN;
       try
       {
-        bindDN = new DN(request.getBindDN(), schemaRef.get());
+        bindDN = DNCache.parse(request.getBindDN(), schemaRef.get());
       }
       catch (final LDAPException le)
       {
@@ -1650,7 +1651,7 @@ public final class InMemoryRequestHandler
       final DN dn;
       try
       {
-        dn = new DN(request.getDN(), schemaRef.get());
+        dn = DNCache.parse(request.getDN(), schemaRef.get());
       }
       catch (final LDAPException le)
       {
@@ -1883,7 +1884,7 @@ public final class InMemoryRequestHandler
       final DN dn;
       try
       {
-        dn = new DN(request.getDN(), schemaRef.get());
+        dn = DNCache.parse(request.getDN(), schemaRef.get());
       }
       catch (final LDAPException le)
       {
@@ -2322,7 +2323,7 @@ public final class InMemoryRequestHandler
       final Schema schema = schemaRef.get();
       try
       {
-        dn = new DN(request.getDN(), schema);
+        dn = DNCache.parse(request.getDN(), schema);
       }
       catch (final LDAPException le)
       {
@@ -3003,7 +3004,7 @@ public final class InMemoryRequestHandler
       final Schema schema = schemaRef.get();
       try
       {
-        dn = new DN(request.getDN(), schema);
+        dn = DNCache.parse(request.getDN(), schema);
       }
       catch (final LDAPException le)
       {
@@ -3040,7 +3041,7 @@ public final class InMemoryRequestHandler
       {
         try
         {
-          newSuperiorDN = new DN(newSuperiorString, schema);
+          newSuperiorDN = DNCache.parse(newSuperiorString, schema);
         }
         catch (final LDAPException le)
         {
@@ -3633,7 +3634,7 @@ public final class InMemoryRequestHandler
       final Schema schema = schemaRef.get();
       try
       {
-        baseDN = new DN(request.getBaseDN(), schema);
+        baseDN = DNCache.parse(request.getBaseDN(), schema);
       }
       catch (final LDAPException le)
       {
@@ -5120,7 +5121,7 @@ findEntriesAndRefs:
   public ReadOnlyEntry getEntry(final String dn)
          throws LDAPException
   {
-    return getEntry(new DN(dn, schemaRef.get()));
+    return getEntry(DNCache.parse(dn, schemaRef.get()));
   }
 
 
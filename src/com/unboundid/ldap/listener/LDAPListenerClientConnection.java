@@ -50,6 +50,7 @@ import javax.net.ssl.SSLSocketFactory;
 
 import com.unboundid.asn1.ASN1Buffer;
 import com.unboundid.asn1.ASN1StreamReader;
+import com.unboundid.asn1.InternalASN1Helper;
 import com.unboundid.ldap.protocol.AddResponseProtocolOp;
 import com.unboundid.ldap.protocol.BindResponseProtocolOp;
 import com.unboundid.ldap.protocol.CompareResponseProtocolOp;
@@ -136,6 +137,14 @@ public final class LDAPListenerClientConnection
   // The connection ID assigned to this connection.
   private final long connectionID;
 
+  // The total number of bytes read from the client.  It will only be updated
+  // by the thread reading requests from the client.
+  private volatile long totalBytesRead;
+
+  // The total number of bytes written to the client.  It will only be updated
+  // while holding the lock on this connection.
+  private volatile long totalBytesWritten;
+
   // The output stream used to write responses to the client.
   private volatile OutputStream outputStream;
 
@@ -188,6 +197,8 @@ public final class LDAPListenerClientConnection
 
     asn1Buffer           = new ASN1Buffer();
     suppressNextResponse = new AtomicBoolean(false);
+    totalBytesRead       = 0L;
+    totalBytesWritten    = 0L;
 
     intermediateResponseTransformers = new CopyOnWriteArrayList<>();
     searchEntryTransformers = new CopyOnWriteArrayList<>();
@@ -421,9 +432,14 @@ public final class LDAPListenerClientConnection
       while (true)
       {
         final LDAPMessage requestMessage;
+        final ASN1StreamReader reader = asn1Reader;
+        final long bytesReadBefore =
+             InternalASN1Helper.getTotalBytesRead(reader);
         try
         {
-          requestMessage = LDAPMessage.readFrom(asn1Reader, false);
+          requestMessage = LDAPMessage.readFrom(reader, false);
+          totalBytesRead += InternalASN1Helper.getTotalBytesRead(reader) -
+               bytesReadBefore;
           if (requestMessage == null)
           {
             // This indicates that the client has closed the connection without
@@ -692,6 +708,7 @@ public final class LDAPListenerClientConnection
     try
     {
       asn1Buffer.writeTo(outputStream);
+      totalBytesWritten += asn1Buffer.length();
     }
     catch (final IOException ioe)
     {
@@ -1054,10 +1071,22 @@ public final class LDAPListenerClientConnection
 
     try
     {
-      synchronized (f)
+      // The listener configuration will indicate whether the socket factory
+      // is known to be safe for concurrent use.  The handshake itself will be
+      // performed lazily on the first read or write and does not require any
+      // synchronization on the socket factory.
+      if ((listener == null) ||
+          listener.getConfig().allowConcurrentSocketFactoryUse())
       {
         socket = f.createSocket(socket, hostname, port, true);
       }
+      else
+      {
+        synchronized (f)
+        {
+          socket = f.createSocket(socket, hostname, port, true);
+        }
+      }
       ((SSLSocket) socket).setUseClientMode(false);
       outputStream = socket.getOutputStream();
       asn1Reader = new ASN1StreamReader(socket.getInputStream());
@@ -1096,6 +1125,35 @@ public final class LDAPListenerClientConnection
 
 
 
+  /**
+   * Retrieves the total number of bytes that have been read from the client
+   * over this connection.  Only bytes that make up complete LDAP messages will
+   * be included.
+   *
+   * @return  The total number of bytes that have been read from the client
+   *          over this connection.
+   */
+  public long getTotalBytesRead()
+  {
+    return totalBytesRead;
+  }
+
+
+
+  /**
+   * Retrieves the total number of bytes that have been written to the client
+   * over this connection.
+   *
+   * @return  The total number of bytes that have been written to the client
+   *          over this connection.
+   */
+  public long getTotalBytesWritten()
+  {
+    return totalBytesWritten;
+  }
+
+
+
   /**
    * Adds the provided search entry transformer to this client connection.
    *
@@ -59,6 +59,10 @@ import com.unboundid.util.Validator;
 @ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
 public final class LDAPListenerConfig
 {
+  // Indicates whether to allow an SSL socket factory used to convert client
+  // connections to use TLS to be used by multiple threads at once.
+  private boolean allowConcurrentSocketFactoryUse;
+
   // Indicates whether to use the SO_KEEPALIVE socket option for sockets
   // accepted by the listener.
   private boolean useKeepAlive;
@@ -136,6 +140,7 @@ public final class LDAPListenerConfig
     sendBufferSize      = 0;
     exceptionHandler    = null;
     serverSocketFactory = ServerSocketFactory.getDefault();
+    allowConcurrentSocketFactoryUse = true;
   }
 
 
@@ -520,6 +525,46 @@ public final class LDAPListenerConfig
 
 
 
+  /**
+   * Indicates whether to allow an SSL socket factory that is used to convert
+   * client connections to use TLS (for example, in the course of processing
+   * StartTLS extended operations) to be used by multiple threads at once.
+   * Socket factories obtained from an {@code SSLContext} are threadsafe, and
+   * the TLS handshake for a connection does not require any synchronization,
+   * so allowing concurrent use prevents clients that are negotiating TLS at
+   * the same time from having to wait for each other.  Concurrent use should
+   * only be disabled for socket factory implementations that are not
+   * threadsafe.
+   *
+   * @return  {@code true} if multiple threads should be able to concurrently
+   *          use the same SSL socket factory instance, or {@code false} if
+   *          Java synchronization should be used to ensure that no more than
+   *          one thread is allowed to use a socket factory at any given time.
+   */
+  public boolean allowConcurrentSocketFactoryUse()
+  {
+    return allowConcurrentSocketFactoryUse;
+  }
+
+
+
+  /**
+   * Specifies whether to allow an SSL socket factory that is used to convert
+   * client connections to use TLS (for example, in the course of processing
+   * StartTLS extended operations) to be used by multiple threads at once.
+   *
+   * @param  allowConcurrentSocketFactoryUse  Indicates whether to allow an SSL
+   *                                          socket factory to be used by
+   *                                          multiple threads at once.
+   */
+  public void setAllowConcurrentSocketFactoryUse(
+                   final boolean allowConcurrentSocketFactoryUse)
+  {
+    this.allowConcurrentSocketFactoryUse = allowConcurrentSocketFactoryUse;
+  }
+
+
+
   /**
    * Retrieves the factory that will be used to create the server socket that
    * will listen for client connections.
@@ -583,6 +628,7 @@ public final class LDAPListenerConfig
     copy.sendBufferSize      = sendBufferSize;
     copy.exceptionHandler    = exceptionHandler;
     copy.serverSocketFactory = serverSocketFactory;
+    copy.allowConcurrentSocketFactoryUse = allowConcurrentSocketFactoryUse;
 
     return copy;
   }
@@ -663,6 +709,8 @@ public final class LDAPListenerConfig
     buffer.append(receiveBufferSize);
     buffer.append(", sendBufferSize=");
     buffer.append(sendBufferSize);
+    buffer.append(", allowConcurrentSocketFactoryUse=");
+    buffer.append(allowConcurrentSocketFactoryUse);
     buffer.append(')');
   }
 }
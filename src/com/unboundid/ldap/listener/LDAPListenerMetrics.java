@@ -0,0 +1,384 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.listener;
+
+
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import com.unboundid.ldap.sdk.OperationType;
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.LatencyHistogramSnapshot;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.StripedCounter;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a data structure that may be used to collect aggregate
+ * metrics about the requests processed by an {@link LDAPListener} (including
+ * the listener used by an {@link InMemoryDirectoryServer}).  Metrics are
+ * collected by a {@link MetricsRequestHandler}, and include:
+ * <UL>
+ *   <LI>The number of client connections currently established, and the
+ *       total number of connections established.</LI>
+ *   <LI>The number of operations currently in progress.</LI>
+ *   <LI>The total number of bytes read from and written to clients.</LI>
+ *   <LI>The number of requests of each type that have been received.</LI>
+ *   <LI>A histogram of the processing times for each type of operation
+ *       (other than abandon and unbind).</LI>
+ * </UL>
+ * All counters are striped so that they may be updated by many client
+ * connection threads without contention, and updating them does not require
+ * any memory allocation.  The current values may be obtained as a
+ * {@link LDAPListenerMetricsSnapshot}, and they may also be periodically
+ * written as JSON objects to a log handler.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for collecting metrics for
+ * an in-memory directory server:
+ * <PRE>
+ *   LDAPListenerMetrics metrics = new LDAPListenerMetrics();
+ *   InMemoryDirectoryServerConfig config =
+ *        new InMemoryDirectoryServerConfig("dc=example,dc=com");
+ *   config.setMetrics(metrics);
+ *
+ *   InMemoryDirectoryServer ds = new InMemoryDirectoryServer(config);
+ *   ds.startListening();
+ *
+ *   // Process some operations.
+ *
+ *   LDAPListenerMetricsSnapshot snapshot = metrics.getSnapshot();
+ *   long searchCount = snapshot.getRequestCount(OperationType.SEARCH);
+ *   long searchP99Nanos = snapshot.getProcessingTimeHistogram(
+ *        OperationType.SEARCH).get99thPercentileNanos();
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LDAPListenerMetrics
+{
+  // The number of client connections currently established.
+  private final StripedCounter activeConnections;
+
+  // The total number of bytes read from clients.
+  private final StripedCounter bytesRead;
+
+  // The total number of bytes written to clients.
+  private final StripedCounter bytesWritten;
+
+  // The number of operations currently in progress.
+  private final StripedCounter operationsInProgress;
+
+  // The total number of client connections established.
+  private final StripedCounter totalConnections;
+
+  // The number of requests received of each type, indexed by the ordinal of
+  // the operation type.
+  private final StripedCounter[] requestCounts;
+
+  // The processing time histograms for each type of operation, indexed by the
+  // ordinal of the operation type.  Elements for abandon and unbind operations
+  // will be null.
+  private final LatencyHistogram[] processingTimes;
+
+  // The time that this metrics object was created or last reset.
+  private volatile long resetTime;
+
+  // The timer used to periodically write metrics to a log handler, if any.
+  private Timer dumpTimer;
+
+
+
+  /**
+   * Creates a new, empty set of listener metrics.
+   */
+  public LDAPListenerMetrics()
+  {
+    activeConnections    = new StripedCounter();
+    bytesRead            = new StripedCounter();
+    bytesWritten         = new StripedCounter();
+    operationsInProgress = new StripedCounter();
+    totalConnections     = new StripedCounter();
+
+    final OperationType[] operationTypes = OperationType.values();
+    requestCounts = new StripedCounter[operationTypes.length];
+    processingTimes = new LatencyHistogram[operationTypes.length];
+    for (final OperationType t : operationTypes)
+    {
+      requestCounts[t.ordinal()] = new StripedCounter();
+      if (hasResponse(t))
+      {
+        processingTimes[t.ordinal()] = new LatencyHistogram();
+      }
+    }
+
+    resetTime = System.currentTimeMillis();
+    dumpTimer = null;
+  }
+
+
+
+  /**
+   * Indicates whether operations of the specified type have a response.
+   *
+   * @param  operationType  The operation type for which to make the
+   *                        determination.
+   *
+   * @return  {@code true} if operations of the specified type have a response,
+   *          or {@code false} if not.
+   */
+  static boolean hasResponse(final OperationType operationType)
+  {
+    return ((operationType != OperationType.ABANDON) &&
+         (operationType != OperationType.UNBIND));
+  }
+
+
+
+  /**
+   * Indicates that a new client connection has been established.
+   */
+  void connectionEstablished()
+  {
+    activeConnections.increment();
+    totalConnections.increment();
+  }
+
+
+
+  /**
+   * Indicates that a client connection has been closed.
+   */
+  void connectionClosed()
+  {
+    activeConnections.decrement();
+  }
+
+
+
+  /**
+   * Indicates that processing has started for an operation of the specified
+   * type.
+   *
+   * @param  operationType  The type of operation that has started.
+   */
+  void operationStarted(final OperationType operationType)
+  {
+    requestCounts[operationType.ordinal()].increment();
+    operationsInProgress.increment();
+  }
+
+
+
+  /**
+   * Indicates that processing has completed for an operation of the specified
+   * type.
+   *
+   * @param  operationType       The type of operation that has completed.
+   * @param  processingTimeNanos The length of time in nanoseconds required to
+   *                             process the operation.  It will be ignored for
+   *                             abandon and unbind operations.
+   */
+  void operationCompleted(final OperationType operationType,
+                          final long processingTimeNanos)
+  {
+    operationsInProgress.decrement();
+
+    final LatencyHistogram histogram = processingTimes[operationType.ordinal()];
+    if (histogram != null)
+    {
+      histogram.record(processingTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * Adds the provided numbers of bytes to the total numbers of bytes read and
+   * written.
+   *
+   * @param  numBytesRead     The number of additional bytes read.
+   * @param  numBytesWritten  The number of additional bytes written.
+   */
+  void addBytes(final long numBytesRead, final long numBytesWritten)
+  {
+    if (numBytesRead != 0L)
+    {
+      bytesRead.add(numBytesRead);
+    }
+
+    if (numBytesWritten != 0L)
+    {
+      bytesWritten.add(numBytesWritten);
+    }
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the current metrics.  Because metrics may be
+   * updated while the snapshot is being created, it may not reflect a single
+   * point in time.
+   *
+   * @return  A snapshot of the current metrics.
+   */
+  public LDAPListenerMetricsSnapshot getSnapshot()
+  {
+    final long[] counts = new long[requestCounts.length];
+    final LatencyHistogramSnapshot[] histograms =
+         new LatencyHistogramSnapshot[processingTimes.length];
+    for (int i=0; i < counts.length; i++)
+    {
+      counts[i] = requestCounts[i].get();
+      if (processingTimes[i] != null)
+      {
+        histograms[i] = processingTimes[i].getSnapshot();
+      }
+    }
+
+    return new LDAPListenerMetricsSnapshot(resetTime,
+         System.currentTimeMillis(), activeConnections.get(),
+         totalConnections.get(), operationsInProgress.get(), bytesRead.get(),
+         bytesWritten.get(), counts, histograms);
+  }
+
+
+
+  /**
+   * Resets the cumulative metrics (the total number of connections
+   * established, the numbers of bytes read and written, and the request counts
+   * and processing time histograms).  The numbers of connections currently
+   * established and operations currently in progress will not be affected.
+   */
+  public void reset()
+  {
+    resetTime = System.currentTimeMillis();
+    totalConnections.reset();
+    bytesRead.reset();
+    bytesWritten.reset();
+
+    for (int i=0; i < requestCounts.length; i++)
+    {
+      requestCounts[i].reset();
+      if (processingTimes[i] != null)
+      {
+        processingTimes[i].reset();
+      }
+    }
+  }
+
+
+
+  /**
+   * Starts periodically writing a snapshot of the current metrics to the
+   * provided log handler.  Each snapshot will be written as a single-line JSON
+   * object in a log record with a level of {@code INFO}.  If snapshots are
+   * already being written, then the existing periodic writer will be stopped
+   * and replaced.
+   *
+   * @param  logHandler      The log handler to which the snapshots should be
+   *                         written.  It must not be {@code null}.  It will
+   *                         not be closed when the periodic writer is
+   *                         stopped.
+   * @param  intervalMillis  The length of time in milliseconds between
+   *                         snapshots.  It must be greater than zero.
+   */
+  public synchronized void startPeriodicJSONDump(final Handler logHandler,
+                                                 final long intervalMillis)
+  {
+    Validator.ensureNotNull(logHandler);
+    Validator.ensureTrue((intervalMillis > 0L),
+         "LDAPListenerMetrics.intervalMillis must be greater than zero.");
+
+    stopPeriodicJSONDump();
+
+    dumpTimer = new Timer("LDAPListenerMetrics Periodic JSON Dump", true);
+    dumpTimer.scheduleAtFixedRate(new TimerTask()
+    {
+      @Override()
+      public void run()
+      {
+        try
+        {
+          logHandler.publish(new LogRecord(Level.INFO,
+               getSnapshot().toJSONObject().toSingleLineString()));
+          logHandler.flush();
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+        }
+      }
+    }, intervalMillis, intervalMillis);
+  }
+
+
+
+  /**
+   * Stops periodically writing snapshots of the current metrics.  This will
+   * have no effect if snapshots are not being written.
+   */
+  public synchronized void stopPeriodicJSONDump()
+  {
+    if (dumpTimer != null)
+    {
+      dumpTimer.cancel();
+      dumpTimer = null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of the current metrics.
+   *
+   * @return  A string representation of the current metrics.
+   */
+  @Override()
+  public String toString()
+  {
+    return getSnapshot().toString();
+  }
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.listener;
+
+
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.unboundid.ldap.sdk.OperationType;
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.LatencyHistogramSnapshot;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.json.JSONBuffer;
+import com.unboundid.util.json.JSONException;
+import com.unboundid.util.json.JSONObject;
+
+
+
+/**
+ * This class provides a data structure with a snapshot of the metrics
+ * collected in an {@link LDAPListenerMetrics} object.
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LDAPListenerMetricsSnapshot
+       implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -6620937411256081487L;
+
+
+
+  // The number of client connections established at the time of the snapshot.
+  private final long activeConnections;
+
+  // The total number of bytes read from clients.
+  private final long bytesRead;
+
+  // The total number of bytes written to clients.
+  private final long bytesWritten;
+
+  // The number of operations in progress at the time of the snapshot.
+  private final long operationsInProgress;
+
+  // The time that metrics collection started or was last reset.
+  private final long resetTime;
+
+  // The time that the snapshot was created.
+  private final long snapshotTime;
+
+  // The total number of client connections established.
+  private final long totalConnections;
+
+  // The number of requests of each type, indexed by the ordinal of the
+  // operation type.
+  private final long[] requestCounts;
+
+  // The processing time histograms for each type of operation, indexed by the
+  // ordinal of the operation type.  Elements for abandon and unbind operations
+  // will be null.
+  private final LatencyHistogramSnapshot[] processingTimes;
+
+
+
+  /**
+   * Creates a new listener metrics snapshot with the provided information.
+   *
+   * @param  resetTime             The time that metrics collection started or
+   *                               was last reset.
+   * @param  snapshotTime          The time that the snapshot was created.
+   * @param  activeConnections     The number of client connections established
+   *                               at the time of the snapshot.
+   * @param  totalConnections      The total number of client connections
+   *                               established.
+   * @param  operationsInProgress  The number of operations in progress at the
+   *                               time of the snapshot.
+   * @param  bytesRead             The total number of bytes read from clients.
+   * @param  bytesWritten          The total number of bytes written to
+   *                               clients.
+   * @param  requestCounts         The number of requests of each type, indexed
+   *                               by the ordinal of the operation type.
+   * @param  processingTimes       The processing time histograms for each type
+   *                               of operation, indexed by the ordinal of the
+   *                               operation type.
+   */
+  LDAPListenerMetricsSnapshot(final long resetTime, final long snapshotTime,
+                              final long activeConnections,
+                              final long totalConnections,
+                              final long operationsInProgress,
+                              final long bytesRead, final long bytesWritten,
+                              final long[] requestCounts,
+                              final LatencyHistogramSnapshot[] processingTimes)
+  {
+    this.resetTime            = resetTime;
+    this.snapshotTime         = snapshotTime;
+    this.activeConnections    = activeConnections;
+    this.totalConnections     = totalConnections;
+    this.operationsInProgress = operationsInProgress;
+    this.bytesRead            = bytesRead;
+    this.bytesWritten         = bytesWritten;
+    this.requestCounts        = requestCounts;
+    this.processingTimes      = processingTimes;
+  }
+
+
+
+  /**
+   * Retrieves the time that metrics collection started or the metrics were
+   * last reset.
+   *
+   * @return  The time that metrics collection started or the metrics were last
+   *          reset.
+   */
+  public Date getResetTime()
+  {
+    return new Date(resetTime);
+  }
+
+
+
+  /**
+   * Retrieves the time that this snapshot was created.
+   *
+   * @return  The time that this snapshot was created.
+   */
+  public Date getSnapshotTime()
+  {
+    return new Date(snapshotTime);
+  }
+
+
+
+  /**
+   * Retrieves the number of client connections that were established at the
+   * time this snapshot was created.
+   *
+   * @return  The number of client connections that were established at the
+   *          time this snapshot was created.
+   */
+  public long getActiveConnections()
+  {
+    return activeConnections;
+  }
+
+
+
+  /**
+   * Retrieves the total number of client connections that have been
+   * established since metrics collection started or was last reset.
+   *
+   * @return  The total number of client connections that have been
+   *          established.
+   */
+  public long getTotalConnections()
+  {
+    return totalConnections;
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that were in progress at the time this
+   * snapshot was created.
+   *
+   * @return  The number of operations that were in progress at the time this
+   *          snapshot was created.
+   */
+  public long getOperationsInProgress()
+  {
+    return operationsInProgress;
+  }
+
+
+
+  /**
+   * Retrieves the total number of bytes read from clients since metrics
+   * collection started or was last reset.  The byte counts for a connection
+   * are updated after each request is processed, so they may not reflect the
+   * last few messages exchanged on connections that are still established.
+   *
+   * @return  The total number of bytes read from clients.
+   */
+  public long getBytesRead()
+  {
+    return bytesRead;
+  }
+
+
+
+  /**
+   * Retrieves the total number of bytes written to clients since metrics
+   * collection started or was last reset.  The byte counts for a connection
+   * are updated after each request is processed, so they may not reflect the
+   * last few messages exchanged on connections that are still established.
+   *
+   * @return  The total number of bytes written to clients.
+   */
+  public long getBytesWritten()
+  {
+    return bytesWritten;
+  }
+
+
+
+  /**
+   * Retrieves the number of requests of the specified type that have been
+   * received since metrics collection started or was last reset.
+   *
+   * @param  operationType  The operation type for which to retrieve the
+   *                        request count.  It must not be {@code null}.
+   *
+   * @return  The number of requests of the specified type that have been
+   *          received.
+   */
+  public long getRequestCount(final OperationType operationType)
+  {
+    return requestCounts[operationType.ordinal()];
+  }
+
+
+
+  /**
+   * Retrieves the total number of requests of all types that have been
+   * received since metrics collection started or was last reset.
+   *
+   * @return  The total number of requests of all types that have been
+   *          received.
+   */
+  public long getTotalRequestCount()
+  {
+    long total = 0L;
+    for (final long count : requestCounts)
+    {
+      total += count;
+    }
+
+    return total;
+  }
+
+
+
+  /**
+   * Retrieves the histogram of processing times for operations of the
+   * specified type.  Processing times are not tracked for abandon or unbind
+   * operations, and an empty histogram will be returned for those types.
+   *
+   * @param  operationType  The operation type for which to retrieve the
+   *                        histogram.  It must not be {@code null}.
+   *
+   * @return  The histogram of processing times for operations of the
+   *          specified type.
+   */
+  public LatencyHistogramSnapshot getProcessingTimeHistogram(
+                                       final OperationType operationType)
+  {
+    final LatencyHistogramSnapshot s = processingTimes[operationType.ordinal()];
+    if (s == null)
+    {
+      return new LatencyHistogram(1).getSnapshot();
+    }
+    else
+    {
+      return s;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a JSON object with the information in this snapshot.
+   *
+   * @return  A JSON object with the information in this snapshot.
+   */
+  public JSONObject toJSONObject()
+  {
+    final JSONBuffer buffer = new JSONBuffer();
+    appendToJSONBuffer(buffer, null);
+
+    try
+    {
+      return buffer.toJSONObject();
+    }
+    catch (final JSONException e)
+    {
+      // This should never happen, since the buffer will always contain a
+      // valid JSON object.
+      Debug.debugException(e);
+      throw new RuntimeException(e.getMessage(), e);
+    }
+  }
+
+
+
+  /**
+   * Appends a JSON object with the information in this snapshot to the
+   * provided buffer.
+   *
+   * @param  buffer     The buffer to which the object should be appended.
+   * @param  fieldName  The name of the field to use for the object.  It may be
+   *                    {@code null} if the object should not be a named field
+   *                    of an enclosing object.
+   */
+  public void appendToJSONBuffer(final JSONBuffer buffer,
+                                 final String fieldName)
+  {
+    if (fieldName == null)
+    {
+      buffer.beginObject();
+    }
+    else
+    {
+      buffer.beginObject(fieldName);
+    }
+
+    buffer.appendString("resetTime",
+         StaticUtils.encodeRFC3339Time(resetTime));
+    buffer.appendString("snapshotTime",
+         StaticUtils.encodeRFC3339Time(snapshotTime));
+    buffer.appendNumber("activeConnections", activeConnections);
+    buffer.appendNumber("totalConnections", totalConnections);
+    buffer.appendNumber("operationsInProgress", operationsInProgress);
+    buffer.appendNumber("bytesRead", bytesRead);
+    buffer.appendNumber("bytesWritten", bytesWritten);
+    buffer.appendNumber("totalRequests", getTotalRequestCount());
+
+    buffer.beginObject("operations");
+    for (final OperationType t : OperationType.values())
+    {
+      buffer.beginObject(getOperationTypeName(t));
+      buffer.appendNumber("requests", requestCounts[t.ordinal()]);
+
+      final LatencyHistogramSnapshot s = processingTimes[t.ordinal()];
+      if ((s != null) && (s.getCount() > 0L))
+      {
+        buffer.appendNumber("averageNanos", Math.round(s.getAverageNanos()));
+        buffer.appendNumber("p50Nanos", s.get50thPercentileNanos());
+        buffer.appendNumber("p95Nanos", s.get95thPercentileNanos());
+        buffer.appendNumber("p99Nanos", s.get99thPercentileNanos());
+        buffer.appendNumber("maximumNanos", s.getMaximumNanos());
+      }
+
+      buffer.endObject();
+    }
+    buffer.endObject();
+
+    buffer.endObject();
+  }
+
+
+
+  /**
+   * Retrieves the name that should be used for the provided operation type in
+   * the JSON representation of this snapshot.
+   *
+   * @param  operationType  The operation type for which to retrieve the name.
+   *
+   * @return  The name that should be used for the provided operation type.
+   */
+  private static String getOperationTypeName(final OperationType operationType)
+  {
+    switch (operationType)
+    {
+      case MODIFY_DN:
+        return "modify-dn";
+      default:
+        return StaticUtils.toLowerCase(operationType.name());
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this snapshot.
+   *
+   * @return  A string representation of this snapshot.
+   */
+  @Override()
+  public String toString()
+  {
+    return toJSONObject().toSingleLineString();
+  }
+}
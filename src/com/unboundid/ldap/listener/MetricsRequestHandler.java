@@ -0,0 +1,482 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.listener;
+
+
+
+import java.util.List;
+
+import com.unboundid.ldap.protocol.AbandonRequestProtocolOp;
+import com.unboundid.ldap.protocol.AddRequestProtocolOp;
+import com.unboundid.ldap.protocol.BindRequestProtocolOp;
+import com.unboundid.ldap.protocol.CompareRequestProtocolOp;
+import com.unboundid.ldap.protocol.DeleteRequestProtocolOp;
+import com.unboundid.ldap.protocol.ExtendedRequestProtocolOp;
+import com.unboundid.ldap.protocol.LDAPMessage;
+import com.unboundid.ldap.protocol.ModifyRequestProtocolOp;
+import com.unboundid.ldap.protocol.ModifyDNRequestProtocolOp;
+import com.unboundid.ldap.protocol.SearchRequestProtocolOp;
+import com.unboundid.ldap.protocol.UnbindRequestProtocolOp;
+import com.unboundid.ldap.sdk.Control;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.OperationType;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a request handler that may be used to collect aggregate
+ * metrics about the requests processed by a listener, including the number of
+ * requests of each type, the processing time for each type of operation, the
+ * number of established connections and operations in progress, and the
+ * numbers of bytes read from and written to clients.  The metrics will be
+ * maintained in an {@link LDAPListenerMetrics} object, which may be shared
+ * across multiple listeners.  This request handler will be associated with
+ * another request handler that will actually be used to process the requests.
+ * <BR><BR>
+ * Collecting metrics is much less expensive than access logging, since it
+ * does not require any formatting or I/O for each request, and updating the
+ * metrics does not require any memory allocation or locking.  This makes it
+ * suitable for measuring the capacity of a server under load.
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class MetricsRequestHandler
+       extends LDAPListenerRequestHandler
+{
+  // The client connection with which this request handler is associated.
+  private final LDAPListenerClientConnection clientConnection;
+
+  // The request handler that will actually be used to process any requests
+  // received.
+  private final LDAPListenerRequestHandler downstreamRequestHandler;
+
+  // The metrics that will be updated.
+  private final LDAPListenerMetrics metrics;
+
+  // The number of bytes read from the client connection the last time the
+  // metrics were updated.  It will only be accessed by the thread processing
+  // requests for the connection.
+  private long lastBytesRead;
+
+  // The number of bytes written to the client connection the last time the
+  // metrics were updated.  It will only be accessed by the thread processing
+  // requests for the connection.
+  private long lastBytesWritten;
+
+
+
+  /**
+   * Creates a new metrics request handler that will update the provided
+   * metrics and will process client requests using the provided request
+   * handler.
+   *
+   * @param  downstreamRequestHandler  The request handler that will actually
+   *                                   be used to process any requests
+   *                                   received.  It must not be
+   *                                   {@code null}.
+   * @param  metrics                   The metrics that will be updated with
+   *                                   information about the requests
+   *                                   processed.  It must not be
+   *                                   {@code null}.
+   */
+  public MetricsRequestHandler(
+              final LDAPListenerRequestHandler downstreamRequestHandler,
+              final LDAPListenerMetrics metrics)
+  {
+    this(downstreamRequestHandler, metrics, null);
+  }
+
+
+
+  /**
+   * Creates a new metrics request handler that will update the provided
+   * metrics and will process client requests using the provided request
+   * handler.
+   *
+   * @param  downstreamRequestHandler  The request handler that will actually
+   *                                   be used to process any requests
+   *                                   received.  It must not be
+   *                                   {@code null}.
+   * @param  metrics                   The metrics that will be updated with
+   *                                   information about the requests
+   *                                   processed.  It must not be
+   *                                   {@code null}.
+   * @param  clientConnection          The client connection with which this
+   *                                   instance is associated.  It may be
+   *                                   {@code null} if this instance is not
+   *                                   associated with a client connection.
+   */
+  private MetricsRequestHandler(
+               final LDAPListenerRequestHandler downstreamRequestHandler,
+               final LDAPListenerMetrics metrics,
+               final LDAPListenerClientConnection clientConnection)
+  {
+    Validator.ensureNotNull(downstreamRequestHandler, metrics);
+
+    this.downstreamRequestHandler = downstreamRequestHandler;
+    this.metrics = metrics;
+    this.clientConnection = clientConnection;
+
+    lastBytesRead = 0L;
+    lastBytesWritten = 0L;
+  }
+
+
+
+  /**
+   * Retrieves the metrics that are updated by this request handler.
+   *
+   * @return  The metrics that are updated by this request handler.
+   */
+  public LDAPListenerMetrics getMetrics()
+  {
+    return metrics;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public MetricsRequestHandler newInstance(
+              final LDAPListenerClientConnection connection)
+         throws LDAPException
+  {
+    final MetricsRequestHandler h = new MetricsRequestHandler(
+         downstreamRequestHandler.newInstance(connection), metrics,
+         connection);
+    metrics.connectionEstablished();
+    return h;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void closeInstance()
+  {
+    try
+    {
+      downstreamRequestHandler.closeInstance();
+    }
+    finally
+    {
+      updateByteCounts();
+      metrics.connectionClosed();
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void processAbandonRequest(final int messageID,
+                                    final AbandonRequestProtocolOp request,
+                                    final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.ABANDON);
+    try
+    {
+      downstreamRequestHandler.processAbandonRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.ABANDON, startTimeNanos);
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processAddRequest(final int messageID,
+                                       final AddRequestProtocolOp request,
+                                       final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.ADD);
+    try
+    {
+      return downstreamRequestHandler.processAddRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.ADD, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processBindRequest(final int messageID,
+                                        final BindRequestProtocolOp request,
+                                        final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.BIND);
+    try
+    {
+      return downstreamRequestHandler.processBindRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.BIND, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processCompareRequest(final int messageID,
+                          final CompareRequestProtocolOp request,
+                          final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.COMPARE);
+    try
+    {
+      return downstreamRequestHandler.processCompareRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.COMPARE, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processDeleteRequest(final int messageID,
+                                          final DeleteRequestProtocolOp request,
+                                          final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.DELETE);
+    try
+    {
+      return downstreamRequestHandler.processDeleteRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.DELETE, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processExtendedRequest(final int messageID,
+                          final ExtendedRequestProtocolOp request,
+                          final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.EXTENDED);
+    try
+    {
+      return downstreamRequestHandler.processExtendedRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.EXTENDED, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processModifyRequest(final int messageID,
+                                          final ModifyRequestProtocolOp request,
+                                          final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.MODIFY);
+    try
+    {
+      return downstreamRequestHandler.processModifyRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.MODIFY, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processModifyDNRequest(final int messageID,
+                          final ModifyDNRequestProtocolOp request,
+                          final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.MODIFY_DN);
+    try
+    {
+      return downstreamRequestHandler.processModifyDNRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.MODIFY_DN, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPMessage processSearchRequest(final int messageID,
+                                          final SearchRequestProtocolOp request,
+                                          final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.SEARCH);
+    try
+    {
+      return downstreamRequestHandler.processSearchRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.SEARCH, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void processUnbindRequest(final int messageID,
+                                   final UnbindRequestProtocolOp request,
+                                   final List<Control> controls)
+  {
+    final long startTimeNanos = operationStarted(OperationType.UNBIND);
+    try
+    {
+      downstreamRequestHandler.processUnbindRequest(messageID, request,
+           controls);
+    }
+    finally
+    {
+      operationCompleted(OperationType.UNBIND, startTimeNanos);
+    }
+  }
+
+
+
+  /**
+   * Updates the metrics to indicate that processing has started for an
+   * operation of the specified type.
+   *
+   * @param  operationType  The type of operation that has started.
+   *
+   * @return  The {@code System.nanoTime} value at the time processing started.
+   */
+  private long operationStarted(final OperationType operationType)
+  {
+    metrics.operationStarted(operationType);
+    return System.nanoTime();
+  }
+
+
+
+  /**
+   * Updates the metrics to indicate that processing has completed for an
+   * operation of the specified type.
+   *
+   * @param  operationType   The type of operation that has completed.
+   * @param  startTimeNanos  The {@code System.nanoTime} value at the time
+   *                         processing started.
+   */
+  private void operationCompleted(final OperationType operationType,
+                                  final long startTimeNanos)
+  {
+    metrics.operationCompleted(operationType,
+         System.nanoTime() - startTimeNanos);
+    updateByteCounts();
+  }
+
+
+
+  /**
+   * Updates the metrics with the numbers of bytes read from and written to the
+   * associated client connection since the last update.
+   */
+  private void updateByteCounts()
+  {
+    if (clientConnection == null)
+    {
+      return;
+    }
+
+    final long bytesRead = clientConnection.getTotalBytesRead();
+    final long bytesWritten = clientConnection.getTotalBytesWritten();
+    metrics.addBytes((bytesRead - lastBytesRead),
+         (bytesWritten - lastBytesWritten));
+    lastBytesRead = bytesRead;
+    lastBytesWritten = bytesWritten;
+  }
+}
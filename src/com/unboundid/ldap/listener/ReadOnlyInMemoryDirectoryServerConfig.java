@@ -399,6 +399,22 @@ public final class ReadOnlyInMemoryDirectoryServerConfig
 
 
 
+  /**
+   * {@inheritDoc}  This method will always throw an
+   * {@code UnsupportedOperationException}.
+   *
+   * @throws  UnsupportedOperationException  To indicate that this object cannot
+   *                                         be altered.
+   */
+  @Override()
+  public void setMetrics(final LDAPListenerMetrics metrics)
+         throws UnsupportedOperationException
+  {
+    throw new UnsupportedOperationException();
+  }
+
+
+
   /**
    * {@inheritDoc}  The returned list will not be modifiable.
    */
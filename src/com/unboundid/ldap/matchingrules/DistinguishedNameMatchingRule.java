@@ -37,6 +37,8 @@ package com.unboundid.ldap.matchingrules;
 
 
 
+import java.util.Arrays;
+
 import com.unboundid.asn1.ASN1OctetString;
 import com.unboundid.ldap.sdk.DN;
 import com.unboundid.ldap.sdk.LDAPException;
@@ -197,7 +199,7 @@ public final class DistinguishedNameMatchingRule
     final DN dn1;
     try
     {
-      dn1 = new DN(value1.stringValue());
+      dn1 = DN.decode(value1.getValue(), null);
     }
     catch (final LDAPException le)
     {
@@ -206,10 +208,17 @@ public final class DistinguishedNameMatchingRule
                               le.getMessage(), le);
     }
 
+    // If the values are byte-for-byte identical, then there is no need to
+    // decode the second value.
+    if (Arrays.equals(value1.getValue(), value2.getValue()))
+    {
+      return true;
+    }
+
     final DN dn2;
     try
     {
-      dn2 = new DN(value2.stringValue());
+      dn2 = DN.decode(value2.getValue(), null);
     }
     catch (final LDAPException le)
     {
@@ -240,7 +249,7 @@ public final class DistinguishedNameMatchingRule
     final DN assertionValueDN;
     try
     {
-      assertionValueDN = new DN(assertionValue.stringValue());
+      assertionValueDN = DN.decode(assertionValue.getValue(), null);
     }
     catch (final LDAPException le)
     {
@@ -253,7 +262,7 @@ public final class DistinguishedNameMatchingRule
     {
       try
       {
-        if (assertionValueDN.equals(new DN(attributeValue.stringValue())))
+        if (assertionValueDN.equals(DN.decode(attributeValue.getValue(), null)))
         {
           return true;
         }
@@ -308,7 +317,7 @@ public final class DistinguishedNameMatchingRule
   {
     try
     {
-      final DN dn = new DN(value.stringValue());
+      final DN dn = DN.decode(value.getValue(), null);
       return new ASN1OctetString(dn.toNormalizedString());
     }
     catch (final LDAPException le)
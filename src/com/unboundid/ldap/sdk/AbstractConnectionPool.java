@@ -952,6 +952,12 @@ public abstract class AbstractConnectionPool
   public final CompareResult compare(final CompareRequest compareRequest)
          throws LDAPException
   {
+    final CompareResult hedgedResult = processHedgedCompare(compareRequest);
+    if (hedgedResult != null)
+    {
+      return hedgedResult;
+    }
+
     final LDAPConnection conn = getConnection();
 
     try
@@ -2055,6 +2061,12 @@ public abstract class AbstractConnectionPool
   public final SearchResult search(final SearchRequest searchRequest)
          throws LDAPSearchException
   {
+    final SearchResult hedgedResult = processHedgedSearch(searchRequest);
+    if (hedgedResult != null)
+    {
+      return hedgedResult;
+    }
+
     final LDAPConnection conn;
     try
     {
@@ -2987,6 +2999,50 @@ requestLoop:
 
 
 
+  /**
+   * Processes the provided search request with request hedging, if this pool
+   * supports it and hedging is enabled.
+   *
+   * @param  searchRequest  The search request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  The result of processing the search, or {@code null} if the
+   *          request was not processed with hedging and should be processed
+   *          in the usual way.
+   *
+   * @throws  LDAPSearchException  If the hedged search does not complete
+   *                               successfully.
+   */
+  SearchResult processHedgedSearch(final SearchRequest searchRequest)
+               throws LDAPSearchException
+  {
+    return null;
+  }
+
+
+
+  /**
+   * Processes the provided compare request with request hedging, if this pool
+   * supports it and hedging is enabled.
+   *
+   * @param  compareRequest  The compare request to be processed.  It must not
+   *                         be {@code null}.
+   *
+   * @return  The result of processing the compare, or {@code null} if the
+   *          request was not processed with hedging and should be processed
+   *          in the usual way.
+   *
+   * @throws  LDAPException  If the hedged compare does not complete
+   *                         successfully.
+   */
+  CompareResult processHedgedCompare(final CompareRequest compareRequest)
+                throws LDAPException
+  {
+    return null;
+  }
+
+
+
   /**
    * Handles the provided {@code Throwable} object by ensuring that the provided
    * connection is released to the pool and throwing an appropriate
@@ -46,6 +46,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.unboundid.util.Debug;
+import com.unboundid.util.HashedWheelTimeout;
 import com.unboundid.util.NotMutable;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
@@ -107,8 +108,11 @@ public final class AsyncRequestID
   // The connection used to process the asynchronous operation.
   private final LDAPConnection connection;
 
-  // The timer task that will allow the associated request to be cancelled.
-  private volatile AsyncTimeoutTimerTask timerTask;
+  // Indicates whether the result for the associated operation has been set.
+  private volatile boolean resultSet;
+
+  // The timeout that will allow the associated request to be cancelled.
+  private volatile HashedWheelTimeout timeout;
 
 
 
@@ -127,7 +131,8 @@ public final class AsyncRequestID
     resultQueue     = new ArrayBlockingQueue<>(1);
     cancelRequested = new AtomicBoolean(false);
     result          = new AtomicReference<>();
-    timerTask       = null;
+    resultSet       = false;
+    timeout         = null;
   }
 
 
@@ -179,6 +184,13 @@ public final class AsyncRequestID
                 INFO_ASYNC_REQUEST_USER_CANCELED.get(), null,
                 StaticUtils.NO_STRINGS, StaticUtils.NO_CONTROLS));
 
+      final HashedWheelTimeout t = timeout;
+      if (t != null)
+      {
+        t.cancel();
+        timeout = null;
+      }
+
       connection.abandon(this);
     }
     catch (final Exception e)
@@ -333,16 +345,25 @@ public final class AsyncRequestID
 
 
   /**
-   * Sets the timer task that may be used to cancel this result after a period
-   * of time.
+   * Sets the timeout that may be used to cancel this result after a period of
+   * time.
    *
-   * @param  timerTask  The timer task that may be used to cancel this result
-   *                    after a period of time.  It may be {@code null} if no
-   *                    timer task should be used.
+   * @param  timeout  The timeout that may be used to cancel this result after
+   *                  a period of time.  It may be {@code null} if no timeout
+   *                  should be used.
    */
-  void setTimerTask(final AsyncTimeoutTimerTask timerTask)
+  void setTimeout(final HashedWheelTimeout timeout)
   {
-    this.timerTask = timerTask;
+    this.timeout = timeout;
+
+    // The response may have been received, or the request may have been
+    // cancelled, before the timeout was scheduled, in which case the timeout
+    // will not have been cancelled at that time.
+    if ((resultSet || cancelRequested.get()) && (timeout != null))
+    {
+      timeout.cancel();
+      this.timeout = null;
+    }
   }
 
 
@@ -355,15 +376,16 @@ public final class AsyncRequestID
    */
   void setResult(final LDAPResult result)
   {
-    resultQueue.offer(result);
+    resultSet = true;
 
-    final AsyncTimeoutTimerTask t = timerTask;
+    final HashedWheelTimeout t = timeout;
     if (t != null)
     {
       t.cancel();
-      connection.getTimer().purge();
-      timerTask = null;
+      timeout = null;
     }
+
+    resultQueue.offer(result);
   }
 
 
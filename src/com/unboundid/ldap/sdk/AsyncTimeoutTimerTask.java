@@ -37,8 +37,6 @@ package com.unboundid.ldap.sdk;
 
 
 
-import java.util.TimerTask;
-
 import com.unboundid.ldap.protocol.LDAPResponse;
 import com.unboundid.util.Debug;
 import com.unboundid.util.StaticUtils;
@@ -49,10 +47,12 @@ import static com.unboundid.ldap.sdk.LDAPMessages.*;
 
 /**
  * This class provides a timer task that can be used to ensure that operation
- * timeouts for asynchronous operations are properly respected.
+ * timeouts for asynchronous operations are properly respected.  It is
+ * scheduled with the {@code HashedWheelTimer} shared by the connection on
+ * which the operation is processed.
  */
 final class AsyncTimeoutTimerTask
-      extends TimerTask
+       implements Runnable
 {
   // The async helper with which this task is associated.
   private final CommonAsyncHelper helper;
@@ -46,11 +46,13 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import com.unboundid.asn1.ASN1Buffer;
 import com.unboundid.asn1.ASN1BufferSequence;
 import com.unboundid.asn1.ASN1BufferSet;
+import com.unboundid.asn1.ASN1Constants;
 import com.unboundid.asn1.ASN1Element;
 import com.unboundid.asn1.ASN1Exception;
 import com.unboundid.asn1.ASN1OctetString;
@@ -140,6 +142,94 @@ public final class Attribute
 
 
 
+  /**
+   * The name of a system property that can be used to enable caching of
+   * normalized attribute values by default.  If it is set to "true", then
+   * normalized value caching will be enabled when this class is loaded.
+   */
+  public static final String PROPERTY_CACHE_NORMALIZED_VALUES =
+       Attribute.class.getName() + ".cacheNormalizedValues";
+
+
+
+  /**
+   * The name of a system property that can be used to override the default
+   * maximum estimated size, in bytes, of the normalized value cache for a
+   * single attribute.
+   */
+  public static final String PROPERTY_MAX_NORMALIZED_VALUE_CACHE_BYTES =
+       Attribute.class.getName() + ".maxNormalizedValueCacheBytes";
+
+
+
+  /**
+   * The default maximum estimated size, in bytes, of the normalized value
+   * cache for a single attribute.
+   */
+  static final long DEFAULT_MAX_NORMALIZED_VALUE_CACHE_BYTES = 1_048_576L;
+
+
+
+  /**
+   * The minimum number of values that an attribute must have for its
+   * normalized value cache to include a hash set for value lookups.
+   */
+  static final int NORMALIZED_VALUE_HASH_THRESHOLD = 16;
+
+
+
+  /**
+   * The name of a system property that can be used to override the default
+   * minimum number of values that an attribute must have for its normalized
+   * values to be indexed even if normalized value caching is disabled.
+   */
+  public static final String PROPERTY_VALUE_INDEX_THRESHOLD =
+       Attribute.class.getName() + ".valueIndexThreshold";
+
+
+
+  /**
+   * The default minimum number of values that an attribute must have for its
+   * normalized values to be indexed even if normalized value caching is
+   * disabled.
+   */
+  static final int DEFAULT_VALUE_INDEX_THRESHOLD = 1000;
+
+
+
+  /**
+   * The estimated per-value overhead, in bytes, of caching a normalized value.
+   */
+  private static final int NORMALIZED_VALUE_OVERHEAD_BYTES = 64;
+
+
+
+  /**
+   * A normalized value cache that indicates that an attribute has too much
+   * data for its normalized values to be cached.
+   */
+  private static final NormalizedValueCache UNCACHEABLE =
+       new NormalizedValueCache(null);
+
+
+
+  // Indicates whether normalized attribute values should be cached.
+  private static volatile boolean cacheNormalizedValues =
+       Boolean.parseBoolean(StaticUtils.getSystemProperty(
+            PROPERTY_CACHE_NORMALIZED_VALUES, "false"));
+
+  // The maximum estimated size, in bytes, of the normalized value cache for a
+  // single attribute.
+  private static volatile long maxNormalizedValueCacheBytes =
+       getDefaultMaxNormalizedValueCacheBytes();
+
+  // The minimum number of values that an attribute must have for its
+  // normalized values to be indexed even if caching is disabled.
+  private static volatile int valueIndexThreshold =
+       getDefaultValueIndexThreshold();
+
+
+
   // The set of values for this attribute.
   private final ASN1OctetString[] values;
 
@@ -152,6 +242,9 @@ public final class Attribute
   // The attribute description for this attribute.
   private final String name;
 
+  // The lazily-created cache of normalized values for this attribute.
+  private transient volatile NormalizedValueCache normalizedValueCache;
+
 
 
   /**
@@ -462,6 +555,30 @@ public final class Attribute
 
 
 
+  /**
+   * Creates a new LDAP attribute with the specified name and set of values,
+   * and with the provided normalized value cache.
+   *
+   * @param  name                  The name for this attribute.
+   * @param  matchingRule          The matching rule for this attribute.
+   * @param  values                The set of values for this attribute.
+   * @param  normalizedValueCache  The normalized value cache for this
+   *                               attribute.  It must contain the values
+   *                               normalized with the provided matching rule,
+   *                               in the same order as the provided values.
+   */
+  private Attribute(final String name, final MatchingRule matchingRule,
+                    final ASN1OctetString[] values,
+                    final NormalizedValueCache normalizedValueCache)
+  {
+    this.name                 = name;
+    this.matchingRule         = matchingRule;
+    this.values               = values;
+    this.normalizedValueCache = normalizedValueCache;
+  }
+
+
+
   /**
    * Creates a new LDAP attribute with the specified name and set of values.
    *
@@ -613,7 +730,25 @@ public final class Attribute
       mergedValues = newMergedValues;
     }
 
-    return new Attribute(name, mr, mergedValues);
+    // If the normalized values of the first attribute are cached, then carry
+    // them over to the merged attribute so that they do not need to be
+    // computed again, along with its hash set of normalized values.
+    final NormalizedValueCache cache1 = attr1.getNormalizedValueCache(mr);
+    if (cache1 == null)
+    {
+      return new Attribute(name, mr, mergedValues);
+    }
+
+    final ASN1OctetString[] normalizedValues1 = cache1.normalizedValues;
+    final ASN1OctetString[] mergedNormalizedValues =
+         Arrays.copyOf(normalizedValues1, mergedValues.length);
+    for (int i=normalizedValues1.length; i < mergedValues.length; i++)
+    {
+      mergedNormalizedValues[i] = normalizeForCache(mr, mergedValues[i]);
+    }
+
+    return new Attribute(name, mr, mergedValues,
+         cache1.withAddedValues(mergedNormalizedValues));
   }
 
 
@@ -680,23 +815,83 @@ public final class Attribute
       mr = matchingRule;
     }
 
-    final ArrayList<ASN1OctetString> newValues =
-         new ArrayList<>(Arrays.asList(attr1.values));
+    // If the normalized values of the first attribute are cached, then use
+    // them to avoid normalizing each of its values, and carry them over to the
+    // new attribute along with its hash set of normalized values.
+    final NormalizedValueCache cache1 = attr1.getNormalizedValueCache(mr);
+    if (cache1 == null)
+    {
+      final ArrayList<ASN1OctetString> newValues =
+           new ArrayList<>(Arrays.asList(attr1.values));
+
+      final Iterator<ASN1OctetString> iterator = newValues.iterator();
+      while (iterator.hasNext())
+      {
+        if (attr2.hasValue(iterator.next(), mr))
+        {
+          iterator.remove();
+        }
+      }
 
-    final Iterator<ASN1OctetString> iterator = newValues.iterator();
-    while (iterator.hasNext())
+      final ASN1OctetString[] newValueArray =
+           new ASN1OctetString[newValues.size()];
+      newValues.toArray(newValueArray);
+
+      return new Attribute(name, mr, newValueArray);
+    }
+
+    HashSet<ASN1OctetString> normalizedValues2 = null;
+    if (CompiledFilter.supportsNormalizedBytes(mr,
+         Filter.FILTER_TYPE_EQUALITY))
     {
-      if (attr2.hasValue(iterator.next(), mr))
+      normalizedValues2 =
+           new HashSet<>(StaticUtils.computeMapCapacity(attr2.values.length));
+      for (final ASN1OctetString attr2Value : attr2.values)
       {
-        iterator.remove();
+        final ASN1OctetString normalizedValue =
+             normalizeForCache(mr, attr2Value);
+        if (normalizedValue != null)
+        {
+          normalizedValues2.add(normalizedValue);
+        }
       }
     }
 
-    final ASN1OctetString[] newValueArray =
-         new ASN1OctetString[newValues.size()];
-    newValues.toArray(newValueArray);
+    final ASN1OctetString[] normalizedValues1 = cache1.normalizedValues;
+    final ASN1OctetString[] newValues =
+         new ASN1OctetString[attr1.values.length];
+    final ASN1OctetString[] newNormalizedValues =
+         new ASN1OctetString[attr1.values.length];
+    final ArrayList<ASN1OctetString> removedNormalizedValues =
+         new ArrayList<>(10);
+    int pos = 0;
+    for (int i=0; i < attr1.values.length; i++)
+    {
+      final boolean remove;
+      if ((normalizedValues2 != null) && (normalizedValues1[i] != null))
+      {
+        remove = normalizedValues2.contains(normalizedValues1[i]);
+      }
+      else
+      {
+        remove = attr2.hasValue(attr1.values[i], mr);
+      }
+
+      if (remove)
+      {
+        removedNormalizedValues.add(normalizedValues1[i]);
+      }
+      else
+      {
+        newValues[pos] = attr1.values[i];
+        newNormalizedValues[pos] = normalizedValues1[i];
+        pos++;
+      }
+    }
 
-    return new Attribute(name, mr, newValueArray);
+    return new Attribute(name, mr, Arrays.copyOf(newValues, pos),
+         cache1.withRemovedValues(Arrays.copyOf(newNormalizedValues, pos),
+              removedNormalizedValues));
   }
 
 
@@ -1379,7 +1574,7 @@ public final class Attribute
   {
     try
     {
-      return matchingRule.matchesAnyValue(value, values);
+      return matchesAnyValue(value, matchingRule);
     }
     catch (final LDAPException le)
     {
@@ -1401,6 +1596,445 @@ public final class Attribute
 
 
 
+  /**
+   * Indicates whether any of the values of this attribute matches the provided
+   * assertion value using the given matching rule.  This will yield the same
+   * result as the {@link MatchingRule#matchesAnyValue} method, but it will use
+   * the normalized value cache if it is available.
+   *
+   * @param  assertionValue  The assertion value for which to make the
+   *                         determination.
+   * @param  matchingRule    The matching rule to use when making the
+   *                         determination.
+   *
+   * @return  {@code true} if any of the values of this attribute matches the
+   *          provided assertion value, or {@code false} if not.
+   *
+   * @throws  LDAPException  If a problem occurs while making the
+   *                         determination.
+   */
+  boolean matchesAnyValue(final ASN1OctetString assertionValue,
+                          final MatchingRule matchingRule)
+          throws LDAPException
+  {
+    if (CompiledFilter.supportsNormalizedBytes(matchingRule,
+         Filter.FILTER_TYPE_EQUALITY))
+    {
+      final NormalizedValueCache cache =
+           getNormalizedValueCache(matchingRule);
+      if (cache != null)
+      {
+        return cache.contains(matchingRule.normalize(assertionValue));
+      }
+    }
+
+    return matchingRule.matchesAnyValue(assertionValue, values);
+  }
+
+
+
+  /**
+   * Indicates whether this attribute has a value whose normalized
+   * representation, as determined by the provided matching rule, is equal to
+   * the given normalized value.  Any values that cannot be normalized will be
+   * ignored.  This should only be used for matching rules that compare values
+   * byte-for-byte after normalization.
+   *
+   * @param  normalizedValue  The normalized value for which to make the
+   *                          determination.
+   * @param  matchingRule     The matching rule used to normalize the value.
+   *
+   * @return  {@code true} if this attribute has a value with the provided
+   *          normalized representation, or {@code false} if not.
+   */
+  boolean hasNormalizedValue(final ASN1OctetString normalizedValue,
+                             final MatchingRule matchingRule)
+  {
+    final NormalizedValueCache cache = getNormalizedValueCache(matchingRule);
+    if (cache != null)
+    {
+      return cache.contains(normalizedValue);
+    }
+
+    for (final ASN1OctetString value : values)
+    {
+      try
+      {
+        if (normalizedValue.equalsIgnoreType(matchingRule.normalize(value)))
+        {
+          return true;
+        }
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+      }
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Retrieves the cached normalized representations of the values of this
+   * attribute, as determined by the provided matching rule.  The elements of
+   * the returned array will correspond to the elements of the array returned
+   * by {@link #getRawValues}, with a {@code null} element for any value that
+   * could not be normalized.  The returned array must not be altered.
+   *
+   * @param  matchingRule  The matching rule for which to retrieve the
+   *                       normalized values.
+   *
+   * @return  The cached normalized values for this attribute, or {@code null}
+   *          if normalized values are not cached for this attribute and the
+   *          provided matching rule.
+   */
+  ASN1OctetString[] getNormalizedValues(final MatchingRule matchingRule)
+  {
+    final NormalizedValueCache cache = getNormalizedValueCache(matchingRule);
+    if (cache == null)
+    {
+      return null;
+    }
+
+    return cache.normalizedValues;
+  }
+
+
+
+  /**
+   * Retrieves the normalized value cache for this attribute, creating it if
+   * necessary.
+   *
+   * @param  matchingRule  The matching rule that will be used to interact with
+   *                       the normalized values.  The cache will only be used
+   *                       if it is the same type of matching rule as the one
+   *                       associated with this attribute.
+   *
+   * @return  The normalized value cache for this attribute, or {@code null} if
+   *          normalized values are not cached for this attribute and the
+   *          provided matching rule.
+   */
+  private NormalizedValueCache getNormalizedValueCache(
+                                    final MatchingRule matchingRule)
+  {
+    if (matchingRule.getClass() != this.matchingRule.getClass())
+    {
+      return null;
+    }
+
+    NormalizedValueCache cache = normalizedValueCache;
+    if (cache == null)
+    {
+      // Attributes with a large number of values will always have their
+      // normalized values cached, without regard to the size limit, so that
+      // value lookups do not require a linear scan.
+      final boolean indexValues = (values.length >= valueIndexThreshold);
+      if (! (cacheNormalizedValues || indexValues))
+      {
+        return null;
+      }
+
+      cache = createNormalizedValueCache(! indexValues);
+      normalizedValueCache = cache;
+    }
+
+    if (cache == UNCACHEABLE)
+    {
+      return null;
+    }
+
+    return cache;
+  }
+
+
+
+  /**
+   * Creates a normalized value cache for this attribute.
+   *
+   * @param  enforceSizeLimit  Indicates whether to enforce the configured
+   *                           maximum normalized value cache size.
+   *
+   * @return  The normalized value cache that was created, or
+   *          {@link #UNCACHEABLE} if the estimated size of the cache would
+   *          exceed the configured maximum.
+   */
+  private NormalizedValueCache createNormalizedValueCache(
+                                    final boolean enforceSizeLimit)
+  {
+    if (enforceSizeLimit)
+    {
+      final long maxBytes = maxNormalizedValueCacheBytes;
+      long estimatedBytes = 0L;
+      for (final ASN1OctetString value : values)
+      {
+        estimatedBytes +=
+             value.getValueLength() + NORMALIZED_VALUE_OVERHEAD_BYTES;
+        if (estimatedBytes > maxBytes)
+        {
+          return UNCACHEABLE;
+        }
+      }
+    }
+
+    final ASN1OctetString[] normalizedValues =
+         new ASN1OctetString[values.length];
+    for (int i=0; i < values.length; i++)
+    {
+      normalizedValues[i] = normalizeForCache(matchingRule, values[i]);
+    }
+
+    return new NormalizedValueCache(normalizedValues);
+  }
+
+
+
+  /**
+   * Normalizes the provided value for inclusion in a normalized value cache.
+   *
+   * @param  matchingRule  The matching rule to use to normalize the value.
+   * @param  value         The value to normalize.
+   *
+   * @return  The normalized value, or {@code null} if it could not be
+   *          normalized.
+   */
+  private static ASN1OctetString normalizeForCache(
+                                      final MatchingRule matchingRule,
+                                      final ASN1OctetString value)
+  {
+    try
+    {
+      return toUniversalOctetString(matchingRule.normalize(value));
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves an octet string with the same value as the provided octet string
+   * but the universal octet string BER type, so that it can be used as a hash
+   * key.
+   *
+   * @param  s  The octet string to convert.
+   *
+   * @return  An octet string with the same value as the provided octet string
+   *          but the universal octet string BER type.
+   */
+  private static ASN1OctetString toUniversalOctetString(final ASN1OctetString s)
+  {
+    if (s.getType() == ASN1Constants.UNIVERSAL_OCTET_STRING_TYPE)
+    {
+      return s;
+    }
+
+    return new ASN1OctetString(s.getValue());
+  }
+
+
+
+  /**
+   * Indicates whether normalized attribute values will be cached.  If so,
+   * then the first time that an attribute's values are normalized for an
+   * equality, substring, or ordering comparison (for example, in the
+   * {@link #hasValue(String)}, {@link Entry#hasAttributeValue(String,String)},
+   * {@link Filter#matchesEntry(Entry)}, and {@link EntrySorter#compare}
+   * methods), the normalized representations of all of its values will be
+   * computed and retained with the attribute, so that they do not need to be
+   * computed again for subsequent comparisons.  For attributes with a large
+   * number of values, a hash set of the normalized values will also be
+   * maintained so that determining whether the attribute has a given value
+   * does not require examining every value.  Because attributes are
+   * immutable, the cached values will never need to be invalidated.
+   * <BR><BR>
+   * Normalized value caching is disabled by default, but it may be enabled
+   * by setting the {@link #PROPERTY_CACHE_NORMALIZED_VALUES} system property
+   * to "true", or by calling the
+   * {@link #setCacheNormalizedValues} method.  It is most beneficial for
+   * applications that repeatedly compare or match the same entries, at the
+   * cost of additional memory for each attribute that is compared.
+   *
+   * @return  {@code true} if normalized attribute values will be cached, or
+   *          {@code false} if not.
+   */
+  public static boolean cacheNormalizedValues()
+  {
+    return cacheNormalizedValues;
+  }
+
+
+
+  /**
+   * Specifies whether normalized attribute values should be cached.  Changing
+   * this setting will not affect attributes whose normalized values have
+   * already been cached.
+   *
+   * @param  cacheNormalizedValues  Indicates whether normalized attribute
+   *                                values should be cached.
+   */
+  public static void setCacheNormalizedValues(
+                          final boolean cacheNormalizedValues)
+  {
+    Attribute.cacheNormalizedValues = cacheNormalizedValues;
+  }
+
+
+
+  /**
+   * Retrieves the maximum estimated size, in bytes, of the normalized value
+   * cache for a single attribute.  The normalized values for attributes whose
+   * values are estimated to require more memory than this will not be cached.
+   *
+   * @return  The maximum estimated size, in bytes, of the normalized value
+   *          cache for a single attribute.
+   */
+  public static long getMaxNormalizedValueCacheBytes()
+  {
+    return maxNormalizedValueCacheBytes;
+  }
+
+
+
+  /**
+   * Specifies the maximum estimated size, in bytes, of the normalized value
+   * cache for a single attribute.  Changing this setting will not affect
+   * attributes whose normalized values have already been cached (or that have
+   * already been determined to be too large to cache).
+   *
+   * @param  maxNormalizedValueCacheBytes  The maximum estimated size, in
+   *                                       bytes, of the normalized value cache
+   *                                       for a single attribute.  It must be
+   *                                       greater than or equal to zero.
+   */
+  public static void setMaxNormalizedValueCacheBytes(
+                          final long maxNormalizedValueCacheBytes)
+  {
+    Validator.ensureTrue((maxNormalizedValueCacheBytes >= 0L),
+         "Attribute.maxNormalizedValueCacheBytes must be greater than or " +
+              "equal to zero.");
+
+    Attribute.maxNormalizedValueCacheBytes = maxNormalizedValueCacheBytes;
+  }
+
+
+
+  /**
+   * Retrieves the minimum number of values that an attribute must have for
+   * its normalized values to be cached and indexed in a hash set even if
+   * normalized value caching is disabled.  This ensures that determining
+   * whether a very large attribute (for example, the member attribute of a
+   * static group with many members) has a given value, and adding values to
+   * or removing values from such an attribute, does not require normalizing
+   * all of its values each time.  The normalized values for attributes with
+   * at least this many values will be cached regardless of the value of the
+   * {@link #getMaxNormalizedValueCacheBytes} setting.
+   *
+   * @return  The minimum number of values that an attribute must have for its
+   *          normalized values to be indexed even if normalized value caching
+   *          is disabled.
+   */
+  public static int getValueIndexThreshold()
+  {
+    return valueIndexThreshold;
+  }
+
+
+
+  /**
+   * Specifies the minimum number of values that an attribute must have for
+   * its normalized values to be cached and indexed in a hash set even if
+   * normalized value caching is disabled.  Changing this setting will not
+   * affect attributes whose normalized values have already been cached.
+   *
+   * @param  valueIndexThreshold  The minimum number of values that an
+   *                              attribute must have for its normalized values
+   *                              to be indexed.  A value that is less than or
+   *                              equal to zero indicates that normalized
+   *                              values should only be cached if normalized
+   *                              value caching is enabled.
+   */
+  public static void setValueIndexThreshold(final int valueIndexThreshold)
+  {
+    if (valueIndexThreshold <= 0)
+    {
+      Attribute.valueIndexThreshold = Integer.MAX_VALUE;
+    }
+    else
+    {
+      Attribute.valueIndexThreshold = valueIndexThreshold;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the default minimum number of values that an attribute must
+   * have for its normalized values to be indexed even if normalized value
+   * caching is disabled.
+   *
+   * @return  The default minimum number of values that an attribute must have
+   *          for its normalized values to be indexed.
+   */
+  private static int getDefaultValueIndexThreshold()
+  {
+    final String propertyValue =
+         StaticUtils.getSystemProperty(PROPERTY_VALUE_INDEX_THRESHOLD);
+    if (propertyValue != null)
+    {
+      try
+      {
+        final int threshold = Integer.parseInt(propertyValue);
+        if (threshold <= 0)
+        {
+          return Integer.MAX_VALUE;
+        }
+
+        return threshold;
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    return DEFAULT_VALUE_INDEX_THRESHOLD;
+  }
+
+
+
+  /**
+   * Retrieves the default maximum estimated size, in bytes, of the normalized
+   * value cache for a single attribute.
+   *
+   * @return  The default maximum estimated size, in bytes, of the normalized
+   *          value cache for a single attribute.
+   */
+  private static long getDefaultMaxNormalizedValueCacheBytes()
+  {
+    final String propertyValue = StaticUtils.getSystemProperty(
+         PROPERTY_MAX_NORMALIZED_VALUE_CACHE_BYTES);
+    if (propertyValue != null)
+    {
+      try
+      {
+        return Long.parseLong(propertyValue);
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    return DEFAULT_MAX_NORMALIZED_VALUE_CACHE_BYTES;
+  }
+
+
+
   /**
    * Retrieves the number of values for this attribute.
    *
@@ -1679,16 +2313,24 @@ public final class Attribute
     {
       int c = StaticUtils.toLowerCase(name).hashCode();
 
-      for (final ASN1OctetString value : values)
+      final ASN1OctetString[] normalizedValues =
+           getNormalizedValues(matchingRule);
+      for (int i=0; i < values.length; i++)
       {
+        if ((normalizedValues != null) && (normalizedValues[i] != null))
+        {
+          c += normalizedValues[i].hashCode();
+          continue;
+        }
+
         try
         {
-          c += matchingRule.normalize(value).hashCode();
+          c += matchingRule.normalize(values[i]).hashCode();
         }
         catch (final LDAPException le)
         {
           Debug.debugException(le);
-          c += value.hashCode();
+          c += values[i].hashCode();
         }
       }
 
@@ -1745,7 +2387,19 @@ public final class Attribute
     // efficient approach.
     if (values.length > 10)
     {
-      // First, create a hash set containing the un-normalized values of the
+      // If both attributes have cached sets of normalized values, and every
+      // value was normalized into a distinct element, then we can just compare
+      // those sets.
+      final NormalizedValueCache cache1 = getNormalizedValueCache(matchingRule);
+      final NormalizedValueCache cache2 =
+           a.getNormalizedValueCache(matchingRule);
+      if ((cache1 != null) && (cache2 != null) && cache1.isComplete() &&
+          cache2.isComplete())
+      {
+        return cache1.containsAll(cache2);
+      }
+
+      // Otherwise, create a hash set containing the un-normalized values of the
       // first attribute.
       final HashSet<ASN1OctetString> unNormalizedValues =
            StaticUtils.hashSetOf(values);
@@ -1885,4 +2539,408 @@ public final class Attribute
 
     buffer.append("})");
   }
+
+
+
+  /**
+   * This class provides a data structure that holds the cached normalized
+   * values for an attribute.
+   */
+  private static final class NormalizedValueCache
+  {
+    // The normalized values, in the same order as the raw values.  Any value
+    // that could not be normalized will be null.
+    private final ASN1OctetString[] normalizedValues;
+
+    // A hash set of the normalized values.  It will be created the first time
+    // it is needed if the attribute has enough values to warrant one, unless
+    // it was derived from the set of the attribute this one was created from.
+    private volatile NormalizedValueSet normalizedValueSet;
+
+
+
+    /**
+     * Creates a new normalized value cache with the provided normalized
+     * values.
+     *
+     * @param  normalizedValues  The normalized values, in the same order as
+     *                           the raw values.  Any value that could not be
+     *                           normalized should be {@code null}.
+     */
+    private NormalizedValueCache(final ASN1OctetString[] normalizedValues)
+    {
+      this(normalizedValues, null);
+    }
+
+
+
+    /**
+     * Creates a new normalized value cache with the provided normalized
+     * values and hash set.
+     *
+     * @param  normalizedValues    The normalized values, in the same order as
+     *                             the raw values.  Any value that could not be
+     *                             normalized should be {@code null}.
+     * @param  normalizedValueSet  A hash set that contains exactly the
+     *                             provided normalized values.  It may be
+     *                             {@code null} if the set should be created
+     *                             when it is needed.
+     */
+    private NormalizedValueCache(final ASN1OctetString[] normalizedValues,
+                                 final NormalizedValueSet normalizedValueSet)
+    {
+      this.normalizedValues = normalizedValues;
+      this.normalizedValueSet = normalizedValueSet;
+    }
+
+
+
+    /**
+     * Creates a new normalized value cache for an attribute that contains all
+     * of the values of the attribute with this cache, followed by one or more
+     * additional values.  If this cache already has a complete hash set of its
+     * normalized values, then the new cache will extend that set with the
+     * added values rather than building a new set from scratch.
+     *
+     * @param  newNormalizedValues  The normalized values for the new cache.
+     *                              It must start with all of the normalized
+     *                              values for this cache, in the same order.
+     *
+     * @return  The new normalized value cache.
+     */
+    private NormalizedValueCache withAddedValues(
+                 final ASN1OctetString[] newNormalizedValues)
+    {
+      final NormalizedValueSet set = normalizedValueSet;
+      if ((set == null) || (set.size() != normalizedValues.length))
+      {
+        return new NormalizedValueCache(newNormalizedValues);
+      }
+
+      final int numAdded = newNormalizedValues.length - normalizedValues.length;
+      final HashSet<ASN1OctetString> addedValues =
+           new HashSet<>(StaticUtils.computeMapCapacity(numAdded));
+      for (int i=normalizedValues.length; i < newNormalizedValues.length; i++)
+      {
+        final ASN1OctetString v = newNormalizedValues[i];
+        if ((v == null) || set.contains(v) || (! addedValues.add(v)))
+        {
+          return new NormalizedValueCache(newNormalizedValues);
+        }
+      }
+
+      return new NormalizedValueCache(newNormalizedValues,
+           set.derive(addedValues, null));
+    }
+
+
+
+    /**
+     * Creates a new normalized value cache for an attribute that contains the
+     * values of the attribute with this cache, except for the values that
+     * have been removed.  If this cache already has a complete hash set of its
+     * normalized values, then the new cache will derive its set from that one
+     * rather than building a new set from scratch.
+     *
+     * @param  newNormalizedValues      The normalized values for the new
+     *                                  cache.
+     * @param  removedNormalizedValues  The normalized values for this cache
+     *                                  that are not included in the new
+     *                                  cache.
+     *
+     * @return  The new normalized value cache.
+     */
+    private NormalizedValueCache withRemovedValues(
+                 final ASN1OctetString[] newNormalizedValues,
+                 final List<ASN1OctetString> removedNormalizedValues)
+    {
+      final NormalizedValueSet set = normalizedValueSet;
+      if ((set == null) || (set.size() != normalizedValues.length))
+      {
+        return new NormalizedValueCache(newNormalizedValues);
+      }
+
+      final HashSet<ASN1OctetString> removedValues = new HashSet<>(
+           StaticUtils.computeMapCapacity(removedNormalizedValues.size()));
+      for (final ASN1OctetString v : removedNormalizedValues)
+      {
+        if (v == null)
+        {
+          return new NormalizedValueCache(newNormalizedValues);
+        }
+
+        removedValues.add(v);
+      }
+
+      return new NormalizedValueCache(newNormalizedValues,
+           set.derive(null, removedValues));
+    }
+
+
+
+    /**
+     * Retrieves a hash set of the normalized values, creating it if
+     * necessary.
+     *
+     * @return  A hash set of the normalized values, or {@code null} if the
+     *          attribute does not have enough values to warrant one.
+     */
+    private NormalizedValueSet getNormalizedValueSet()
+    {
+      if (normalizedValues.length < NORMALIZED_VALUE_HASH_THRESHOLD)
+      {
+        return null;
+      }
+
+      NormalizedValueSet set = normalizedValueSet;
+      if (set == null)
+      {
+        final HashSet<ASN1OctetString> hashSet = new HashSet<>(
+             StaticUtils.computeMapCapacity(normalizedValues.length));
+        for (final ASN1OctetString normalizedValue : normalizedValues)
+        {
+          if (normalizedValue != null)
+          {
+            hashSet.add(normalizedValue);
+          }
+        }
+
+        set = new NormalizedValueSet(hashSet);
+        normalizedValueSet = set;
+      }
+
+      return set;
+    }
+
+
+
+    /**
+     * Indicates whether this cache has a hash set that includes a distinct
+     * normalized representation for every value of the attribute.
+     *
+     * @return  {@code true} if this cache has a complete hash set of the
+     *          normalized values, or {@code false} if not.
+     */
+    private boolean isComplete()
+    {
+      final NormalizedValueSet set = getNormalizedValueSet();
+      return ((set != null) && (set.size() == normalizedValues.length));
+    }
+
+
+
+    /**
+     * Indicates whether this cache contains the provided normalized value.
+     *
+     * @param  normalizedValue  The normalized value for which to make the
+     *                          determination.
+     *
+     * @return  {@code true} if this cache contains the provided normalized
+     *          value, or {@code false} if not.
+     */
+    private boolean contains(final ASN1OctetString normalizedValue)
+    {
+      final NormalizedValueSet set = getNormalizedValueSet();
+      if (set != null)
+      {
+        return set.contains(toUniversalOctetString(normalizedValue));
+      }
+
+      for (final ASN1OctetString v : normalizedValues)
+      {
+        if ((v != null) && normalizedValue.equalsIgnoreType(v))
+        {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+
+
+    /**
+     * Indicates whether this cache contains all of the normalized values in
+     * the provided cache.  Both caches should be complete.
+     *
+     * @param  cache  The cache whose values should be checked.
+     *
+     * @return  {@code true} if this cache contains all of the normalized
+     *          values in the provided cache, or {@code false} if not.
+     */
+    private boolean containsAll(final NormalizedValueCache cache)
+    {
+      final NormalizedValueSet set = getNormalizedValueSet();
+      for (final ASN1OctetString v : cache.normalizedValues)
+      {
+        if ((v == null) || (! set.contains(v)))
+        {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+
+
+  /**
+   * This class provides an immutable set of normalized values.  A set can be
+   * derived from another set by adding or removing values, in which case the
+   * new set only holds the values that changed and refers to the original set
+   * for the rest.  This allows a large attribute to be modified without
+   * rebuilding the hash set of its normalized values each time.  Once a chain
+   * of derived sets reaches {@link #MAX_DEPTH}, the next attribute will build
+   * a new set when it is needed, so that lookups stay fast.
+   */
+  private static final class NormalizedValueSet
+  {
+    /**
+     * The maximum number of derived sets that may be chained together.
+     */
+    private static final int MAX_DEPTH = 8;
+
+
+
+    // The number of sets in the chain that ends with this set.
+    private final int depth;
+
+    // The number of values in this set.
+    private final int size;
+
+    // The values added to the parent set, or all of the values if there is no
+    // parent set.  It will be null if values were removed from the parent.
+    private final HashSet<ASN1OctetString> addedValues;
+
+    // The values removed from the parent set.  It will be null if values were
+    // added to the parent, or if there is no parent.
+    private final HashSet<ASN1OctetString> removedValues;
+
+    // The set from which this set was derived, if any.
+    private final NormalizedValueSet parent;
+
+
+
+    /**
+     * Creates a new normalized value set with the provided values.
+     *
+     * @param  values  The values to include in the set.  It must not be
+     *                 altered after the set has been created.
+     */
+    private NormalizedValueSet(final HashSet<ASN1OctetString> values)
+    {
+      this(null, values, null, values.size());
+    }
+
+
+
+    /**
+     * Creates a new normalized value set with the provided information.
+     *
+     * @param  parent         The set from which this set is derived.  It may
+     *                        be {@code null} if this set is not derived.
+     * @param  addedValues    The values added to the parent set, or all of
+     *                        the values if there is no parent.
+     * @param  removedValues  The values removed from the parent set.
+     * @param  size           The number of values in this set.
+     */
+    private NormalizedValueSet(final NormalizedValueSet parent,
+                               final HashSet<ASN1OctetString> addedValues,
+                               final HashSet<ASN1OctetString> removedValues,
+                               final int size)
+    {
+      this.parent = parent;
+      this.addedValues = addedValues;
+      this.removedValues = removedValues;
+      this.size = size;
+
+      if (parent == null)
+      {
+        depth = 1;
+      }
+      else
+      {
+        depth = parent.depth + 1;
+      }
+    }
+
+
+
+    /**
+     * Creates a new set derived from this one.  Exactly one of the provided
+     * sets of values must be non-{@code null}.
+     *
+     * @param  added    The values to add.  None of them may already be in
+     *                  this set.
+     * @param  removed  The values to remove.  All of them must be in this
+     *                  set.
+     *
+     * @return  The derived set, or {@code null} if the chain of derived sets
+     *          is already as long as it is allowed to be.
+     */
+    private NormalizedValueSet derive(final HashSet<ASN1OctetString> added,
+                                      final HashSet<ASN1OctetString> removed)
+    {
+      if (depth >= MAX_DEPTH)
+      {
+        return null;
+      }
+
+      if (added != null)
+      {
+        return new NormalizedValueSet(this, added, null, size + added.size());
+      }
+      else
+      {
+        return new NormalizedValueSet(this, null, removed,
+             size - removed.size());
+      }
+    }
+
+
+
+    /**
+     * Retrieves the number of values in this set.
+     *
+     * @return  The number of values in this set.
+     */
+    private int size()
+    {
+      return size;
+    }
+
+
+
+    /**
+     * Indicates whether this set contains the provided value.
+     *
+     * @param  value  The value for which to make the determination.
+     *
+     * @return  {@code true} if this set contains the provided value, or
+     *          {@code false} if not.
+     */
+    private boolean contains(final ASN1OctetString value)
+    {
+      NormalizedValueSet set = this;
+      while (set != null)
+      {
+        if (set.addedValues != null)
+        {
+          if (set.addedValues.contains(value))
+          {
+            return true;
+          }
+        }
+        else if (set.removedValues.contains(value))
+        {
+          return false;
+        }
+
+        set = set.parent;
+      }
+
+      return false;
+    }
+  }
 }
@@ -39,24 +39,57 @@ package com.unboundid.ldap.sdk;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
 import com.unboundid.util.ObjectPair;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadLocalRandom;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
 
 
 
 /**
  * This class provides an implementation of a {@code NameResolver} that will
  * cache lookups to potentially improve performance and provide a degree of
- * resiliency against name service outages.
+ * resiliency against name service outages.  Cached records are held in
+ * concurrent maps, so lookups that can be satisfied from the cache will not
+ * block other threads.  In addition to caching successful lookups, this
+ * resolver provides the following features:
+ * <UL>
+ *   <LI>Forward lookups that fail, and reverse lookups that do not yield a
+ *       name, may be cached for a separate (and typically much shorter)
+ *       period of time, so that repeated attempts to resolve a name that does
+ *       not exist will not each need to wait on the name service.</LI>
+ *   <LI>If a cached record is accessed shortly before it expires, then it may
+ *       be re-resolved by a background thread so that records that are in
+ *       active use can be kept current without making the thread that needs
+ *       the record wait on the name service.</LI>
+ *   <LI>The number of records held in each cache may be limited, in which case
+ *       the least recently used record will be discarded to make room for a
+ *       new one.</LI>
+ * </UL>
+ * These features are only enabled when they are requested through the
+ * {@link #CachingNameResolver(NameResolver,int,int,int,int)} constructor.
+ * Lookups are performed by an underlying name resolver, which is the
+ * {@link DefaultNameResolver} unless another resolver is provided when the
+ * caching resolver is created.
  */
 @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
 public final class CachingNameResolver
@@ -69,29 +102,115 @@ public final class CachingNameResolver
 
 
 
+  /**
+   * The maximum number of the oldest records in a cache that will be examined
+   * to select a record to evict when the cache is full.
+   */
+  private static final int EVICTION_SAMPLE_SIZE = 8;
+
+
+
+  /**
+   * The executor that will be used to refresh cached records in the
+   * background.  It is shared by all caching name resolvers, and its threads
+   * will exit when they have been idle for a minute.
+   */
+  private static final ThreadPoolExecutor REFRESH_EXECUTOR;
+  static
+  {
+    REFRESH_EXECUTOR = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+         new LinkedBlockingQueue<Runnable>(),
+         new LDAPSDKThreadFactory("CachingNameResolver Refresh Thread", true));
+    REFRESH_EXECUTOR.allowCoreThreadTimeOut(true);
+  }
+
+
+
+  // A counter used to order cache record accesses so that the least recently
+  // used record can be identified when a cache is full.
+  private final AtomicLong accessCounter;
+
+  // The number of cached records that have been refreshed in the background.
+  private final AtomicLong numBackgroundRefreshes;
+
+  // The number of lookups that were satisfied by an unexpired cached record.
+  private final AtomicLong numCacheHits;
+
+  // The number of lookups that required a call to the underlying resolver.
+  private final AtomicLong numCacheMisses;
+
+  // The number of records that have been discarded to keep a cache from
+  // exceeding its maximum size.
+  private final AtomicLong numEvictions;
+
+  // The number of lookups that were satisfied by a cached failure.
+  private final AtomicLong numNegativeCacheHits;
+
   // A cached version of the address of the local host system.
   private final AtomicReference<ObjectPair<Long,InetAddress>> localHostAddress;
 
   // A cached version of the loopback address.
   private final AtomicReference<ObjectPair<Long,InetAddress>> loopbackAddress;
 
-  // A map that associates IP addresses with their canonical host names.  The
-  // key will be the IP address, and the value will be an object pair that
-  // associates the time that the cache record expires with the cached canonical
-  // host name for the IP address.
-  private final Map<InetAddress,ObjectPair<Long,String>> addressToNameMap;
+  // The maximum number of records to hold in each cache.
+  private final int maxCacheSize;
 
-  // A map that associates host names with the set of all associated IP
-  // addresses.  The key will be an all-lowercase representation of the host
-  // name, and the value will be an object pair that associates the time that
-  // the cache record expires with the cached set of IP addresses for the host
-  // name.
-  private final Map<String,ObjectPair<Long,InetAddress[]>> nameToAddressMap;
+  // The length of time, in milliseconds, that failed lookups should be cached.
+  private final long negativeTimeoutMillis;
+
+  // The length of time, in milliseconds, before a cached record expires during
+  // which an access to that record will trigger a background refresh.
+  private final long refreshAheadMillis;
 
   // The length of time, in milliseconds, that a cached record should be
   // considered valid.
   private final long timeoutMillis;
 
+  // A map that associates IP addresses with their canonical host names.  The
+  // key will be the IP address, and the value will be a cache record holding
+  // the canonical host name for the IP address.
+  private final ConcurrentMap<InetAddress,CacheRecord<String>>
+       addressToNameMap;
+
+  // The keys of the records in the address-to-name map, in the order that
+  // they were added or last moved during eviction.  The value for each key is
+  // the access sequence of the record at that time.  The eviction queues are
+  // only maintained if the cache size is limited, and they are also used as
+  // the locks that protect updates to the associated maps in that case.
+  private final LinkedHashMap<InetAddress,Long> addressToNameEvictionQueue;
+
+  // A map that associates host names with the set of all associated IP
+  // addresses.  The key will be an all-lowercase representation of the host
+  // name, and the value will be a cache record holding the set of IP addresses
+  // for the host name.
+  private final ConcurrentMap<String,CacheRecord<InetAddress[]>>
+       nameToAddressMap;
+
+  // The keys of the records in the name-to-address map, in eviction order.
+  private final LinkedHashMap<String,Long> nameToAddressEvictionQueue;
+
+  // A map of IP addresses for which a reverse lookup did not yield a name.
+  // The value will be a cache record holding the textual representation of the
+  // IP address.
+  private final ConcurrentMap<InetAddress,CacheRecord<String>>
+       unresolvableAddressMap;
+
+  // The keys of the records in the unresolvable address map, in eviction
+  // order.
+  private final LinkedHashMap<InetAddress,Long>
+       unresolvableAddressEvictionQueue;
+
+  // A map of host names for which a forward lookup failed.  The key will be an
+  // all-lowercase representation of the host name, and the value will be a
+  // cache record holding the message from the resulting exception.
+  private final ConcurrentMap<String,CacheRecord<String>> unresolvableNameMap;
+
+  // The keys of the records in the unresolvable name map, in eviction order.
+  private final LinkedHashMap<String,Long> unresolvableNameEvictionQueue;
+
+  // The name resolver that will be used to perform lookups.
+  private final NameResolver resolver;
+
 
 
   /**
@@ -107,7 +226,9 @@ public final class CachingNameResolver
 
   /**
    * Creates a new instance of this caching name resolver that will use the
-   * specified timeout.
+   * specified timeout.  Failed lookups will not be cached, records will not be
+   * refreshed in the background, and the number of cached records will not be
+   * limited.
    *
    * @param  timeoutMillis  The length of time, in milliseconds, that cache
    *                        records should be considered valid.  It must be
@@ -122,11 +243,104 @@ public final class CachingNameResolver
    */
   public CachingNameResolver(final int timeoutMillis)
   {
+    this(DefaultNameResolver.getInstance(), timeoutMillis, 0, 0, 0);
+  }
+
+
+
+  /**
+   * Creates a new instance of this caching name resolver with the provided
+   * settings.
+   *
+   * @param  resolver               The name resolver that will be used to
+   *                                perform lookups that cannot be satisfied
+   *                                from the cache.  It must not be
+   *                                {@code null}.
+   * @param  timeoutMillis          The length of time, in milliseconds, that
+   *                                cache records should be considered valid.
+   *                                It must be greater than zero.  If a cached
+   *                                record has expired, then it will only be
+   *                                used if it is not possible to get an
+   *                                updated version of the record from the
+   *                                name service.
+   * @param  negativeTimeoutMillis  The length of time, in milliseconds, that
+   *                                failed lookups should be cached.  It must
+   *                                not be negative, and a value of zero
+   *                                indicates that failed lookups should not be
+   *                                cached.
+   * @param  refreshAheadMillis     The length of time, in milliseconds,
+   *                                before a cached record expires during which
+   *                                an access to that record will cause it to
+   *                                be refreshed in the background.  It must
+   *                                not be negative and must be less than the
+   *                                timeout, and a value of zero indicates that
+   *                                records should not be refreshed in the
+   *                                background.
+   * @param  maxCacheSize           The maximum number of records to hold in
+   *                                each cache.  A value that is less than or
+   *                                equal to zero indicates that there should
+   *                                be no limit.
+   */
+  public CachingNameResolver(final NameResolver resolver,
+                             final int timeoutMillis,
+                             final int negativeTimeoutMillis,
+                             final int refreshAheadMillis,
+                             final int maxCacheSize)
+  {
+    Validator.ensureNotNull(resolver);
+    Validator.ensureTrue((timeoutMillis > 0),
+         "CachingNameResolver.timeoutMillis must be greater than zero.");
+    Validator.ensureTrue((negativeTimeoutMillis >= 0),
+         "CachingNameResolver.negativeTimeoutMillis must not be negative.");
+    Validator.ensureTrue(
+         ((refreshAheadMillis >= 0) && (refreshAheadMillis < timeoutMillis)),
+         "CachingNameResolver.refreshAheadMillis must not be negative and " +
+              "must be less than timeoutMillis.");
+
+    this.resolver = resolver;
     this.timeoutMillis = timeoutMillis;
+    this.negativeTimeoutMillis = negativeTimeoutMillis;
+    this.refreshAheadMillis = refreshAheadMillis;
+
+    if (maxCacheSize > 0)
+    {
+      this.maxCacheSize = maxCacheSize;
+    }
+    else
+    {
+      this.maxCacheSize = Integer.MAX_VALUE;
+    }
+
+    accessCounter = new AtomicLong(0L);
+    numBackgroundRefreshes = new AtomicLong(0L);
+    numCacheHits = new AtomicLong(0L);
+    numCacheMisses = new AtomicLong(0L);
+    numEvictions = new AtomicLong(0L);
+    numNegativeCacheHits = new AtomicLong(0L);
     localHostAddress = new AtomicReference<>();
     loopbackAddress = new AtomicReference<>();
     addressToNameMap = new ConcurrentHashMap<>(20);
     nameToAddressMap = new ConcurrentHashMap<>(20);
+    unresolvableAddressMap = new ConcurrentHashMap<>(20);
+    unresolvableNameMap = new ConcurrentHashMap<>(20);
+    addressToNameEvictionQueue = new LinkedHashMap<>(20);
+    nameToAddressEvictionQueue = new LinkedHashMap<>(20);
+    unresolvableAddressEvictionQueue = new LinkedHashMap<>(20);
+    unresolvableNameEvictionQueue = new LinkedHashMap<>(20);
+  }
+
+
+
+  /**
+   * Retrieves the name resolver that will be used to perform lookups that
+   * cannot be satisfied from the cache.
+   *
+   * @return  The name resolver that will be used to perform lookups that
+   *          cannot be satisfied from the cache.
+   */
+  public NameResolver getResolver()
+  {
+    return resolver;
   }
 
 
@@ -149,6 +363,121 @@ public final class CachingNameResolver
 
 
 
+  /**
+   * Retrieves the length of time, in milliseconds, that failed lookups should
+   * be cached.
+   *
+   * @return  The length of time, in milliseconds, that failed lookups should be
+   *          cached, or zero if failed lookups should not be cached.
+   */
+  public int getNegativeTimeoutMillis()
+  {
+    return (int) negativeTimeoutMillis;
+  }
+
+
+
+  /**
+   * Retrieves the length of time, in milliseconds, before a cached record
+   * expires during which an access to that record will cause it to be
+   * refreshed in the background.
+   *
+   * @return  The length of time, in milliseconds, before a cached record
+   *          expires during which an access to that record will cause it to
+   *          be refreshed in the background, or zero if records should not be
+   *          refreshed in the background.
+   */
+  public int getRefreshAheadMillis()
+  {
+    return (int) refreshAheadMillis;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of records to hold in each cache.
+   *
+   * @return  The maximum number of records to hold in each cache, or
+   *          {@code Integer.MAX_VALUE} if there is no limit.
+   */
+  public int getMaxCacheSize()
+  {
+    return maxCacheSize;
+  }
+
+
+
+  /**
+   * Retrieves the number of forward or reverse lookups that were satisfied by
+   * an unexpired cached record.
+   *
+   * @return  The number of forward or reverse lookups that were satisfied by
+   *          an unexpired cached record.
+   */
+  public long getNumCacheHits()
+  {
+    return numCacheHits.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of forward or reverse lookups that could not be
+   * satisfied by an unexpired cached record and required a call to the
+   * underlying name resolver.
+   *
+   * @return  The number of forward or reverse lookups that required a call to
+   *          the underlying name resolver.
+   */
+  public long getNumCacheMisses()
+  {
+    return numCacheMisses.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of forward or reverse lookups that were satisfied by
+   * a cached failure.
+   *
+   * @return  The number of forward or reverse lookups that were satisfied by a
+   *          cached failure.
+   */
+  public long getNumNegativeCacheHits()
+  {
+    return numNegativeCacheHits.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of cached records that have been successfully
+   * refreshed in the background.
+   *
+   * @return  The number of cached records that have been successfully
+   *          refreshed in the background.
+   */
+  public long getNumBackgroundRefreshes()
+  {
+    return numBackgroundRefreshes.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of records that have been discarded to keep a cache
+   * from exceeding its maximum size.
+   *
+   * @return  The number of records that have been discarded to keep a cache
+   *          from exceeding its maximum size.
+   */
+  public long getNumEvictions()
+  {
+    return numEvictions.get();
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -226,20 +555,84 @@ public final class CachingNameResolver
 
 
     // Get the appropriate record from the cache.  If there isn't a cached
-    // then do perform a name service lookup and cache the result before
-    // returning it.
-    final ObjectPair<Long,InetAddress[]> cachedRecord =
+    // record, then see if there is a cached failure for the name.  If not, then
+    // perform a name service lookup and cache the result before returning it.
+    final long currentTime = System.currentTimeMillis();
+    final CacheRecord<InetAddress[]> cachedRecord =
          nameToAddressMap.get(lowerHost);
     if (cachedRecord == null)
     {
-      return lookUpAndCache(host, lowerHost);
+      final CacheRecord<String> failureRecord =
+           unresolvableNameMap.get(lowerHost);
+      if (failureRecord != null)
+      {
+        if (currentTime <= failureRecord.getExpirationTime())
+        {
+          numNegativeCacheHits.incrementAndGet();
+          failureRecord.setLastAccessSequence(
+               accessCounter.incrementAndGet());
+          throw new UnknownHostException(failureRecord.getValue());
+        }
+
+        removeRecord(unresolvableNameMap, unresolvableNameEvictionQueue,
+             lowerHost, failureRecord);
+      }
+
+      numCacheMisses.incrementAndGet();
+      try
+      {
+        return lookUpAndCache(host, lowerHost);
+      }
+      catch (final UnknownHostException e)
+      {
+        Debug.debugException(e);
+        if (negativeTimeoutMillis > 0L)
+        {
+          String message = e.getMessage();
+          if (message == null)
+          {
+            message = host;
+          }
+
+          putRecord(unresolvableNameMap, unresolvableNameEvictionQueue,
+               lowerHost, new CacheRecord<String>((System.currentTimeMillis() +
+                    negativeTimeoutMillis), message));
+        }
+
+        throw e;
+      }
     }
 
 
     // If the cached record is not expired, then return its set of addresses.
-    if (System.currentTimeMillis() <= cachedRecord.getFirst())
+    // If the record is close to expiring, then refresh it in the background.
+    if (currentTime <= cachedRecord.getExpirationTime())
     {
-      return cachedRecord.getSecond();
+      numCacheHits.incrementAndGet();
+      cachedRecord.setLastAccessSequence(accessCounter.incrementAndGet());
+      if (shouldRefresh(cachedRecord, currentTime))
+      {
+        REFRESH_EXECUTOR.execute(new Runnable()
+        {
+          @Override()
+          public void run()
+          {
+            try
+            {
+              lookUpAndCache(host, lowerHost);
+              numBackgroundRefreshes.incrementAndGet();
+            }
+            catch (final Exception e)
+            {
+              // The cached record will remain in use until it expires, at
+              // which point another lookup will be attempted.
+              Debug.debugException(e);
+            }
+          }
+        });
+      }
+
+      return cachedRecord.getValue();
     }
 
 
@@ -247,6 +640,7 @@ public final class CachingNameResolver
     // service, and if that attempt succeeds, then cache the result before
     // returning it.  If the name service lookup fails, then fall back to using
     // the cached addresses even though they're expired.
+    numCacheMisses.incrementAndGet();
     try
     {
       return lookUpAndCache(host, lowerHost);
@@ -254,7 +648,8 @@ public final class CachingNameResolver
     catch (final Exception e)
     {
       Debug.debugException(e);
-      return cachedRecord.getSecond();
+      cachedRecord.setLastAccessSequence(accessCounter.incrementAndGet());
+      return cachedRecord.getValue();
     }
   }
 
@@ -291,12 +686,12 @@ public final class CachingNameResolver
                                        final String lowerHost)
          throws UnknownHostException, SecurityException
   {
-    final InetAddress[] addresses = InetAddress.getAllByName(host);
+    final InetAddress[] addresses = resolver.getAllByName(host);
     final long cacheRecordExpirationTime =
          System.currentTimeMillis() + timeoutMillis;
-    final ObjectPair<Long,InetAddress[]> cacheRecord =
-         new ObjectPair<>(cacheRecordExpirationTime, addresses);
-    nameToAddressMap.put(lowerHost, cacheRecord);
+    putRecord(nameToAddressMap, nameToAddressEvictionQueue, lowerHost,
+         new CacheRecord<InetAddress[]>(cacheRecordExpirationTime,
+              addresses));
     return addresses;
   }
 
@@ -337,20 +732,57 @@ public final class CachingNameResolver
   public String getCanonicalHostName(final InetAddress inetAddress)
   {
     // Get the appropriate record from the cache.  If there isn't a cached
-    // then do perform a name service lookup and cache the result before
-    // returning it.
-    final ObjectPair<Long,String> cachedRecord =
-         addressToNameMap.get(inetAddress);
+    // record, then see if there is a cached failure for the address.  If not,
+    // then perform a name service lookup and cache the result before returning
+    // it.
+    final long currentTime = System.currentTimeMillis();
+    final CacheRecord<String> cachedRecord = addressToNameMap.get(inetAddress);
     if (cachedRecord == null)
     {
+      final CacheRecord<String> failureRecord =
+           unresolvableAddressMap.get(inetAddress);
+      if (failureRecord != null)
+      {
+        if (currentTime <= failureRecord.getExpirationTime())
+        {
+          numNegativeCacheHits.incrementAndGet();
+          failureRecord.setLastAccessSequence(
+               accessCounter.incrementAndGet());
+          return failureRecord.getValue();
+        }
+
+        removeRecord(unresolvableAddressMap, unresolvableAddressEvictionQueue,
+             inetAddress, failureRecord);
+      }
+
+      numCacheMisses.incrementAndGet();
       return lookUpAndCache(inetAddress, null);
     }
 
 
     // If the cached record is not expired, then return its canonical host name.
-    if (System.currentTimeMillis() <= cachedRecord.getFirst())
+    // If the record is close to expiring, then refresh it in the background.
+    if (currentTime <= cachedRecord.getExpirationTime())
     {
-      return cachedRecord.getSecond();
+      numCacheHits.incrementAndGet();
+      cachedRecord.setLastAccessSequence(accessCounter.incrementAndGet());
+      if (shouldRefresh(cachedRecord, currentTime))
+      {
+        REFRESH_EXECUTOR.execute(new Runnable()
+        {
+          @Override()
+          public void run()
+          {
+            lookUpAndCache(inetAddress, cachedRecord.getValue());
+            if (addressToNameMap.get(inetAddress) != cachedRecord)
+            {
+              numBackgroundRefreshes.incrementAndGet();
+            }
+          }
+        });
+      }
+
+      return cachedRecord.getValue();
     }
 
 
@@ -358,7 +790,9 @@ public final class CachingNameResolver
     // service, and if that attempt succeeds, then cache the result before
     // returning it.  If the name service lookup fails, then fall back to using
     // the cached canonical host name even though it's expired.
-    return lookUpAndCache(inetAddress, cachedRecord.getSecond());
+    numCacheMisses.incrementAndGet();
+    cachedRecord.setLastAccessSequence(accessCounter.incrementAndGet());
+    return lookUpAndCache(inetAddress, cachedRecord.getValue());
   }
 
 
@@ -370,7 +804,8 @@ public final class CachingNameResolver
    * indicated by the returned name matching the textual representation of the
    * IP address for the provided {@code InetAddress} object) and the provided
    * cached result is not {@code null}, then the cached name will be returned,
-   * but the cache will not be updated.
+   * but the cache will not be updated.  If the lookup fails and there is no
+   * cached name, then the failure may be cached.
    *
    * @param  inetAddress  The address to use when performing the name service
    *                      lookup to retrieve the canonical name.  It must not be
@@ -387,7 +822,8 @@ public final class CachingNameResolver
   private String lookUpAndCache(final InetAddress inetAddress,
                                 final String cachedName)
   {
-    final String canonicalHostName = inetAddress.getCanonicalHostName();
+    final String canonicalHostName =
+         resolver.getCanonicalHostName(inetAddress);
     if (canonicalHostName.equals(inetAddress.getHostAddress()))
     {
       // The name that we got back is a textual representation of the IP
@@ -395,9 +831,18 @@ public final class CachingNameResolver
       // of a problem while communicating with the name service, or that the
       // IP address is not mapped to a name.  If a cached name was provided,
       // then we'll return that.  Otherwise, we'll fall back to returning the
-      // textual address.  In either case, we won't alter the cache.
+      // textual address, and we'll remember the failure if failed lookups
+      // should be cached.
       if (cachedName == null)
       {
+        if (negativeTimeoutMillis > 0L)
+        {
+          putRecord(unresolvableAddressMap,
+               unresolvableAddressEvictionQueue, inetAddress,
+               new CacheRecord<String>((System.currentTimeMillis() +
+                    negativeTimeoutMillis), canonicalHostName));
+        }
+
         return canonicalHostName;
       }
       else
@@ -411,15 +856,173 @@ public final class CachingNameResolver
       // it.
       final long cacheRecordExpirationTime =
            System.currentTimeMillis() + timeoutMillis;
-      final ObjectPair<Long,String> cacheRecord =
-           new ObjectPair<>(cacheRecordExpirationTime, canonicalHostName);
-      addressToNameMap.put(inetAddress, cacheRecord);
+      putRecord(addressToNameMap, addressToNameEvictionQueue, inetAddress,
+           new CacheRecord<String>(cacheRecordExpirationTime,
+                canonicalHostName));
       return canonicalHostName;
     }
   }
 
 
 
+  /**
+   * Indicates whether the provided cached record should be refreshed in the
+   * background.  If this method returns {@code true}, then the caller must
+   * perform the refresh, and this method will return {@code false} for all
+   * subsequent calls for the same record.
+   *
+   * @param  cachedRecord  The unexpired cached record that has been accessed.
+   * @param  currentTime   The time that the record was accessed.
+   *
+   * @return  {@code true} if the caller should refresh the record in the
+   *          background, or {@code false} if not.
+   */
+  private boolean shouldRefresh(final CacheRecord<?> cachedRecord,
+                                final long currentTime)
+  {
+    if (refreshAheadMillis <= 0L)
+    {
+      return false;
+    }
+
+    if (currentTime < (cachedRecord.getExpirationTime() - refreshAheadMillis))
+    {
+      return false;
+    }
+
+    return cachedRecord.startRefresh();
+  }
+
+
+
+  /**
+   * Adds the provided record to the given cache.  If this causes the cache to
+   * exceed its maximum size, then the least recently used of the oldest few
+   * records in the eviction queue will be removed from it.  Records in that
+   * sample that have been used since they were queued will be moved to the end
+   * of the queue, so that records in active use will not keep being examined.
+   *
+   * @param  <K>            The type of key for the cache.
+   * @param  <V>            The type of value held in the cache records.
+   * @param  cache          The cache to which the record should be added.
+   * @param  evictionQueue  The eviction queue for the cache.
+   * @param  key            The key for the record to add.
+   * @param  record         The record to add.
+   */
+  private <K,V> void putRecord(final ConcurrentMap<K,CacheRecord<V>> cache,
+                               final LinkedHashMap<K,Long> evictionQueue,
+                               final K key, final CacheRecord<V> record)
+  {
+    final long sequence = accessCounter.incrementAndGet();
+    record.setLastAccessSequence(sequence);
+    if (maxCacheSize == Integer.MAX_VALUE)
+    {
+      cache.put(key, record);
+      return;
+    }
+
+    synchronized (evictionQueue)
+    {
+      cache.put(key, record);
+      evictionQueue.remove(key);
+      evictionQueue.put(key, sequence);
+
+      final List<K> recentlyUsedKeys = new ArrayList<>(EVICTION_SAMPLE_SIZE);
+      while ((cache.size() > maxCacheSize) && (! evictionQueue.isEmpty()))
+      {
+        K lruKey = null;
+        CacheRecord<V> lruRecord = null;
+        recentlyUsedKeys.clear();
+
+        final Iterator<Map.Entry<K,Long>> iterator =
+             evictionQueue.entrySet().iterator();
+        for (int i=0; (i < EVICTION_SAMPLE_SIZE) && iterator.hasNext(); i++)
+        {
+          final Map.Entry<K,Long> e = iterator.next();
+          final CacheRecord<V> r = cache.get(e.getKey());
+          if (r == null)
+          {
+            iterator.remove();
+            continue;
+          }
+
+          if ((lruRecord == null) ||
+               (r.getLastAccessSequence() < lruRecord.getLastAccessSequence()))
+          {
+            if ((lruRecord != null) &&
+                 (lruRecord.getLastAccessSequence() >
+                      evictionQueue.get(lruKey)))
+            {
+              recentlyUsedKeys.add(lruKey);
+            }
+
+            lruKey = e.getKey();
+            lruRecord = r;
+          }
+          else if (r.getLastAccessSequence() > e.getValue())
+          {
+            recentlyUsedKeys.add(e.getKey());
+          }
+        }
+
+        if (lruRecord == null)
+        {
+          continue;
+        }
+
+        evictionQueue.remove(lruKey);
+        if (cache.remove(lruKey, lruRecord))
+        {
+          numEvictions.incrementAndGet();
+        }
+
+        for (final K k : recentlyUsedKeys)
+        {
+          final CacheRecord<V> r = cache.get(k);
+          evictionQueue.remove(k);
+          if (r != null)
+          {
+            evictionQueue.put(k, r.getLastAccessSequence());
+          }
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Removes the provided record from the given cache if it is still the record
+   * associated with the specified key.
+   *
+   * @param  <K>            The type of key for the cache.
+   * @param  <V>            The type of value held in the cache records.
+   * @param  cache          The cache from which the record should be removed.
+   * @param  evictionQueue  The eviction queue for the cache.
+   * @param  key            The key for the record to remove.
+   * @param  record         The record to remove.
+   */
+  private <K,V> void removeRecord(final ConcurrentMap<K,CacheRecord<V>> cache,
+                                  final LinkedHashMap<K,Long> evictionQueue,
+                                  final K key, final CacheRecord<V> record)
+  {
+    if (maxCacheSize == Integer.MAX_VALUE)
+    {
+      cache.remove(key, record);
+      return;
+    }
+
+    synchronized (evictionQueue)
+    {
+      if (cache.remove(key, record))
+      {
+        evictionQueue.remove(key);
+      }
+    }
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -433,7 +1036,7 @@ public final class CachingNameResolver
     final ObjectPair<Long,InetAddress> cachedAddress = localHostAddress.get();
     if (cachedAddress == null)
     {
-      final InetAddress localHost = InetAddress.getLocalHost();
+      final InetAddress localHost = resolver.getLocalHost();
       final long expirationTime =
            System.currentTimeMillis() + timeoutMillis;
       localHostAddress.set(new ObjectPair<Long,InetAddress>(expirationTime,
@@ -455,7 +1058,7 @@ public final class CachingNameResolver
     // return the cached version even though it's expired.
     try
     {
-      final InetAddress localHost = InetAddress.getLocalHost();
+      final InetAddress localHost = resolver.getLocalHost();
       final long expirationTime =
            System.currentTimeMillis() + timeoutMillis;
       localHostAddress.set(new ObjectPair<Long,InetAddress>(expirationTime,
@@ -483,7 +1086,7 @@ public final class CachingNameResolver
     final ObjectPair<Long,InetAddress> cachedAddress = loopbackAddress.get();
     if (cachedAddress == null)
     {
-      final InetAddress address = InetAddress.getLoopbackAddress();
+      final InetAddress address = resolver.getLoopbackAddress();
       final long expirationTime =
            System.currentTimeMillis() + timeoutMillis;
       loopbackAddress.set(new ObjectPair<Long,InetAddress>(expirationTime,
@@ -505,7 +1108,7 @@ public final class CachingNameResolver
     // return the cached version even though it's expired.
     try
     {
-      final InetAddress address = InetAddress.getLoopbackAddress();
+      final InetAddress address = resolver.getLoopbackAddress();
       final long expirationTime =
            System.currentTimeMillis() + timeoutMillis;
       loopbackAddress.set(new ObjectPair<Long,InetAddress>(expirationTime,
@@ -522,14 +1125,38 @@ public final class CachingNameResolver
 
 
   /**
-   * Clears all information from the name resolver cache.
+   * Clears all information from the name resolver cache, including any cached
+   * failures.
    */
   public void clearCache()
   {
     localHostAddress.set(null);
     loopbackAddress.set(null);
-    addressToNameMap.clear();
-    nameToAddressMap.clear();
+    clearCache(addressToNameMap, addressToNameEvictionQueue);
+    clearCache(nameToAddressMap, nameToAddressEvictionQueue);
+    clearCache(unresolvableAddressMap, unresolvableAddressEvictionQueue);
+    clearCache(unresolvableNameMap, unresolvableNameEvictionQueue);
+  }
+
+
+
+  /**
+   * Clears all records from the provided cache and its eviction queue.
+   *
+   * @param  <K>            The type of key for the cache.
+   * @param  <V>            The type of value held in the cache records.
+   * @param  cache          The cache to clear.
+   * @param  evictionQueue  The eviction queue for the cache.
+   */
+  private static <K,V> void clearCache(
+                                final ConcurrentMap<K,CacheRecord<V>> cache,
+                                final LinkedHashMap<K,Long> evictionQueue)
+  {
+    synchronized (evictionQueue)
+    {
+      cache.clear();
+      evictionQueue.clear();
+    }
   }
 
 
@@ -540,7 +1167,7 @@ public final class CachingNameResolver
    *
    * @return  A handle to the address-to-name map.
    */
-  Map<InetAddress,ObjectPair<Long,String>> getAddressToNameMap()
+  Map<InetAddress,CacheRecord<String>> getAddressToNameMap()
   {
     return addressToNameMap;
   }
@@ -553,13 +1180,39 @@ public final class CachingNameResolver
    *
    * @return  A handle to the name-to-address map.
    */
-  Map<String,ObjectPair<Long,InetAddress[]>> getNameToAddressMap()
+  Map<String,CacheRecord<InetAddress[]>> getNameToAddressMap()
   {
     return nameToAddressMap;
   }
 
 
 
+  /**
+   * Retrieves a handle to the map used to cache failed address-to-name
+   * lookups.  This method should only be used for unit testing.
+   *
+   * @return  A handle to the map of unresolvable addresses.
+   */
+  Map<InetAddress,CacheRecord<String>> getUnresolvableAddressMap()
+  {
+    return unresolvableAddressMap;
+  }
+
+
+
+  /**
+   * Retrieves a handle to the map used to cache failed name-to-address
+   * lookups.  This method should only be used for unit testing.
+   *
+   * @return  A handle to the map of unresolvable names.
+   */
+  Map<String,CacheRecord<String>> getUnresolvableNameMap()
+  {
+    return unresolvableNameMap;
+  }
+
+
+
   /**
    * Retrieves a handle to the {@code AtomicReference} used to cache the local
    * host address.  This should only be used for testing.
@@ -596,6 +1249,120 @@ public final class CachingNameResolver
   {
     buffer.append("CachingNameResolver(timeoutMillis=");
     buffer.append(timeoutMillis);
+    buffer.append(", negativeTimeoutMillis=");
+    buffer.append(negativeTimeoutMillis);
+    buffer.append(", refreshAheadMillis=");
+    buffer.append(refreshAheadMillis);
+    buffer.append(", maxCacheSize=");
+    buffer.append(maxCacheSize);
+    buffer.append(", resolver=");
+    resolver.toString(buffer);
     buffer.append(')');
   }
+
+
+
+  /**
+   * This class provides a data structure that holds a value in one of the
+   * name resolver caches, along with the time that it expires and information
+   * about how recently it has been used.
+   *
+   * @param  <T>  The type of value held in the record.
+   */
+  static final class CacheRecord<T>
+  {
+    // Indicates whether a background refresh has been started for this record.
+    private final AtomicBoolean refreshStarted;
+
+    // The time that this record expires.
+    private final long expirationTime;
+
+    // The value of the access counter when this record was last used.
+    private volatile long lastAccessSequence;
+
+    // The cached value.
+    private final T value;
+
+
+
+    /**
+     * Creates a new cache record with the provided information.
+     *
+     * @param  expirationTime  The time that the record expires.
+     * @param  value           The cached value.
+     */
+    CacheRecord(final long expirationTime, final T value)
+    {
+      this.expirationTime = expirationTime;
+      this.value = value;
+
+      refreshStarted = new AtomicBoolean(false);
+      lastAccessSequence = 0L;
+    }
+
+
+
+    /**
+     * Retrieves the time that this record expires.
+     *
+     * @return  The time that this record expires.
+     */
+    long getExpirationTime()
+    {
+      return expirationTime;
+    }
+
+
+
+    /**
+     * Retrieves the cached value.
+     *
+     * @return  The cached value.
+     */
+    T getValue()
+    {
+      return value;
+    }
+
+
+
+    /**
+     * Retrieves the value of the access counter when this record was last
+     * used.
+     *
+     * @return  The value of the access counter when this record was last used.
+     */
+    long getLastAccessSequence()
+    {
+      return lastAccessSequence;
+    }
+
+
+
+    /**
+     * Specifies the value of the access counter when this record was last
+     * used.
+     *
+     * @param  lastAccessSequence  The value of the access counter when this
+     *                             record was last used.
+     */
+    void setLastAccessSequence(final long lastAccessSequence)
+    {
+      this.lastAccessSequence = lastAccessSequence;
+    }
+
+
+
+    /**
+     * Attempts to claim responsibility for refreshing this record in the
+     * background.
+     *
+     * @return  {@code true} if the caller should refresh this record, or
+     *          {@code false} if a refresh has already been started.
+     */
+    boolean startRefresh()
+    {
+      return refreshStarted.compareAndSet(false, true);
+    }
+  }
 }
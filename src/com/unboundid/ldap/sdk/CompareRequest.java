@@ -39,7 +39,6 @@ package com.unboundid.ldap.sdk;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -688,11 +687,8 @@ public final class CompareRequest
 
       if (timeout > 0L)
       {
-        final Timer timer = connection.getTimer();
-        final AsyncTimeoutTimerTask timerTask =
-             new AsyncTimeoutTimerTask(compareHelper);
-        timer.schedule(timerTask, timeout);
-        asyncRequestID.setTimerTask(timerTask);
+        asyncRequestID.setTimeout(connection.getAsyncTimeoutTimer().schedule(
+             new AsyncTimeoutTimerTask(compareHelper), timeout));
       }
     }
 
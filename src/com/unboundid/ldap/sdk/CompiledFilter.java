@@ -0,0 +1,1063 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.AcceptAllSimpleMatchingRule;
+import com.unboundid.ldap.matchingrules.DistinguishedNameMatchingRule;
+import com.unboundid.ldap.matchingrules.MatchingRule;
+import com.unboundid.ldap.matchingrules.NumericStringMatchingRule;
+import com.unboundid.ldap.matchingrules.TelephoneNumberMatchingRule;
+import com.unboundid.ldap.sdk.schema.AttributeTypeDefinition;
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.Debug;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+import static com.unboundid.ldap.sdk.LDAPMessages.*;
+
+
+
+/**
+ * This class provides a compiled representation of a search filter that can
+ * be used to efficiently determine whether the filter matches any number of
+ * entries.  It is created using the {@link Filter#compile(Schema)} method, and
+ * yields the same results as the {@link Filter#matchesEntry(Entry,Schema)}
+ * method with the same schema, but it performs as much work as possible up
+ * front rather than each time an entry is evaluated:
+ * <UL>
+ *   <LI>The equality, substring, and ordering matching rules for each
+ *       attribute are selected once, when the filter is compiled.</LI>
+ *   <LI>For matching rules that compare values byte-for-byte after
+ *       normalization (like the case-ignore string, case-exact string, octet
+ *       string, and numeric string rules), the assertion value and all
+ *       substring components are normalized once, so that only attribute
+ *       values need to be normalized during evaluation.</LI>
+ *   <LI>All of the names by which each attribute may be referenced in an
+ *       entry (based on the schema) are determined once, so that attribute
+ *       lookups do not require any string manipulation.</LI>
+ *   <LI>The components of AND and OR filters are re-ordered based on an
+ *       estimate of how expensive they are to evaluate, so that presence and
+ *       equality components are evaluated before ordering and substring
+ *       components, which are in turn evaluated before nested AND, OR, and NOT
+ *       components.  Because evaluation stops as soon as the result of an AND
+ *       or OR filter is known, this can avoid evaluating the most expensive
+ *       components altogether.</LI>
+ * </UL>
+ * Evaluating a compiled filter does not allocate any memory other than what
+ * may be needed by a matching rule to normalize the attribute values being
+ * compared.  If normalized value caching is enabled (as described in the
+ * {@link Attribute#cacheNormalizedValues} method), then the values of each
+ * attribute will only be normalized once, regardless of how many times they
+ * are compared.
+ * <BR><BR>
+ * As with the {@code Filter.matchesEntry} method, neither approximate matching
+ * nor extensible matching is supported, and an exception will be thrown when
+ * attempting to compile a filter that contains either type of component.
+ * <BR><BR>
+ * Compiled filters are immutable and may be safely used to evaluate entries
+ * concurrently in multiple threads.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for compiling a filter and
+ * using it to identify the matching entries in a list:
+ * <PRE>
+ *   CompiledFilter compiledFilter =
+ *        Filter.create("(&amp;(objectClass=person)(sn=Doe))").compile(schema);
+ *
+ *   List&lt;Entry&gt; matchingEntries = new ArrayList&lt;&gt;();
+ *   for (Entry e : entries)
+ *   {
+ *     if (compiledFilter.matchesEntry(e))
+ *     {
+ *       matchingEntries.add(e);
+ *     }
+ *   }
+ * </PRE>
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class CompiledFilter
+{
+  /**
+   * The estimated cost of evaluating a presence component.
+   */
+  static final int COST_PRESENCE = 1;
+
+
+
+  /**
+   * The estimated cost of evaluating an equality component.
+   */
+  static final int COST_EQUALITY = 2;
+
+
+
+  /**
+   * The estimated cost of evaluating an equality component that targets the
+   * objectClass attribute.  Because objectClass equality components are
+   * generally not very selective, they are ordered after other equality
+   * components.
+   */
+  static final int COST_OBJECT_CLASS_EQUALITY = 3;
+
+
+
+  /**
+   * The estimated cost of evaluating a greater-or-equal or less-or-equal
+   * component.
+   */
+  static final int COST_ORDERING = 4;
+
+
+
+  /**
+   * The estimated cost of evaluating a substring component.
+   */
+  static final int COST_SUBSTRING = 5;
+
+
+
+  /**
+   * The comparator that will be used to order the components of AND and OR
+   * filters by their estimated cost.
+   */
+  private static final Comparator<CompiledFilter> COST_COMPARATOR =
+       new Comparator<CompiledFilter>()
+       {
+         @Override()
+         public int compare(final CompiledFilter f1, final CompiledFilter f2)
+         {
+           return Integer.compare(f1.estimatedCost, f2.estimatedCost);
+         }
+       };
+
+
+
+  // The raw assertion value for equality and ordering components.
+  private final ASN1OctetString assertionValue;
+
+  // The raw subFinal value for substring components.
+  private final ASN1OctetString subFinal;
+
+  // The raw subInitial value for substring components.
+  private final ASN1OctetString subInitial;
+
+  // The raw subAny values for substring components.
+  private final ASN1OctetString[] subAny;
+
+  // The normalized assertion value for equality and ordering components.  It
+  // will be null if values should be compared using the matching rule
+  // methods rather than by comparing normalized bytes.
+  private final ASN1OctetString normalizedAssertionValue;
+
+  // The normalized subFinal value for substring components.
+  private final byte[] normalizedSubFinal;
+
+  // The normalized subInitial value for substring components.
+  private final byte[] normalizedSubInitial;
+
+  // The normalized subAny values for substring components.
+  private final byte[][] normalizedSubAny;
+
+  // The filter type for this compiled filter.
+  private final byte filterType;
+
+  // The compiled components for AND and OR filters, in evaluation order.
+  private final CompiledFilter[] components;
+
+  // The compiled component for NOT filters.
+  private final CompiledFilter notComponent;
+
+  // The filter from which this compiled filter was created.
+  private final Filter filter;
+
+  // The estimated cost of evaluating this compiled filter.
+  private final int estimatedCost;
+
+  // Indicates whether values should be compared using normalized bytes rather
+  // than by calling the matching rule methods.
+  private final boolean useNormalizedBytes;
+
+  // The matching rule to use for equality, substring, and ordering
+  // components.
+  private final MatchingRule matchingRule;
+
+  // The schema that was used to compile this filter.
+  private final Schema schema;
+
+  // The attribute name for attribute-based components.
+  private final String attributeName;
+
+  // The lowercase names with which the target attribute may be stored in an
+  // entry.
+  private final String[] attributeKeys;
+
+
+
+  /**
+   * Creates a new compiled representation of the provided filter.
+   *
+   * @param  filter  The filter to be compiled.  It must not be {@code null}.
+   * @param  schema  The schema to use to select matching rules and determine
+   *                 alternate attribute names.  It may be {@code null} if no
+   *                 schema is available.
+   *
+   * @throws  LDAPException  If the filter contains a component that cannot be
+   *                         compiled.
+   */
+  CompiledFilter(final Filter filter, final Schema schema)
+       throws LDAPException
+  {
+    Validator.ensureNotNull(filter);
+
+    this.filter = filter;
+    this.schema = schema;
+
+    filterType = filter.getFilterType();
+
+    ASN1OctetString tmpAssertion = null;
+    ASN1OctetString tmpSubInitial = null;
+    ASN1OctetString[] tmpSubAny = null;
+    ASN1OctetString tmpSubFinal = null;
+    ASN1OctetString tmpNormAssertion = null;
+    byte[] tmpNormSubInitial = null;
+    byte[][] tmpNormSubAny = null;
+    byte[] tmpNormSubFinal = null;
+    CompiledFilter[] tmpComponents = null;
+    CompiledFilter tmpNOT = null;
+    MatchingRule tmpRule = null;
+    String tmpAttrName = null;
+    String[] tmpAttrKeys = null;
+    boolean tmpUseNormalized = false;
+    final int tmpCost;
+
+    switch (filterType)
+    {
+      case Filter.FILTER_TYPE_AND:
+      case Filter.FILTER_TYPE_OR:
+        final Filter[] filterComps = filter.getComponents();
+        tmpComponents = new CompiledFilter[filterComps.length];
+        int costSum = 0;
+        for (int i=0; i < filterComps.length; i++)
+        {
+          tmpComponents[i] = new CompiledFilter(filterComps[i], schema);
+          costSum += tmpComponents[i].estimatedCost;
+        }
+        Arrays.sort(tmpComponents, COST_COMPARATOR);
+        tmpCost = COST_SUBSTRING + costSum;
+        break;
+
+      case Filter.FILTER_TYPE_NOT:
+        tmpNOT = new CompiledFilter(filter.getNOTComponent(), schema);
+        tmpCost = COST_SUBSTRING + tmpNOT.estimatedCost;
+        break;
+
+      case Filter.FILTER_TYPE_EQUALITY:
+        tmpAttrName = filter.getAttributeName();
+        tmpAttrKeys = getAttributeKeys(tmpAttrName, schema);
+        tmpAssertion = filter.getRawAssertionValue();
+        tmpRule = MatchingRule.selectEqualityMatchingRule(tmpAttrName, schema);
+        if (supportsNormalizedBytes(tmpRule, filterType))
+        {
+          final byte[] normalizedBytes = normalize(tmpRule, tmpAssertion);
+          if (normalizedBytes != null)
+          {
+            tmpNormAssertion = new ASN1OctetString(normalizedBytes);
+            tmpUseNormalized = true;
+          }
+        }
+
+        if (StaticUtils.toLowerCase(tmpAttrName).equals("objectclass"))
+        {
+          tmpCost = COST_OBJECT_CLASS_EQUALITY;
+        }
+        else
+        {
+          tmpCost = COST_EQUALITY;
+        }
+        break;
+
+      case Filter.FILTER_TYPE_SUBSTRING:
+        tmpAttrName = filter.getAttributeName();
+        tmpAttrKeys = getAttributeKeys(tmpAttrName, schema);
+        tmpSubInitial = filter.getRawSubInitialValue();
+        tmpSubAny = filter.getRawSubAnyValues();
+        tmpSubFinal = filter.getRawSubFinalValue();
+        tmpRule =
+             MatchingRule.selectSubstringMatchingRule(tmpAttrName, schema);
+        if (supportsNormalizedBytes(tmpRule, filterType))
+        {
+          tmpUseNormalized = true;
+          if (tmpSubInitial != null)
+          {
+            tmpNormSubInitial = normalizeSubstring(tmpRule, tmpSubInitial,
+                 MatchingRule.SUBSTRING_TYPE_SUBINITIAL);
+            tmpUseNormalized = (tmpNormSubInitial != null);
+          }
+
+          if (tmpSubAny != null)
+          {
+            tmpNormSubAny = new byte[tmpSubAny.length][];
+            for (int i=0; i < tmpSubAny.length; i++)
+            {
+              tmpNormSubAny[i] = normalizeSubstring(tmpRule, tmpSubAny[i],
+                   MatchingRule.SUBSTRING_TYPE_SUBANY);
+              tmpUseNormalized &= (tmpNormSubAny[i] != null);
+            }
+          }
+
+          if (tmpSubFinal != null)
+          {
+            tmpNormSubFinal = normalizeSubstring(tmpRule, tmpSubFinal,
+                 MatchingRule.SUBSTRING_TYPE_SUBFINAL);
+            tmpUseNormalized &= (tmpNormSubFinal != null);
+          }
+        }
+        tmpCost = COST_SUBSTRING;
+        break;
+
+      case Filter.FILTER_TYPE_GREATER_OR_EQUAL:
+      case Filter.FILTER_TYPE_LESS_OR_EQUAL:
+        tmpAttrName = filter.getAttributeName();
+        tmpAttrKeys = getAttributeKeys(tmpAttrName, schema);
+        tmpAssertion = filter.getRawAssertionValue();
+        tmpRule = MatchingRule.selectOrderingMatchingRule(tmpAttrName, schema);
+        if (supportsNormalizedBytes(tmpRule, filterType))
+        {
+          final byte[] normalizedBytes = normalize(tmpRule, tmpAssertion);
+          if (normalizedBytes != null)
+          {
+            tmpNormAssertion = new ASN1OctetString(normalizedBytes);
+            tmpUseNormalized = true;
+          }
+        }
+        tmpCost = COST_ORDERING;
+        break;
+
+      case Filter.FILTER_TYPE_PRESENCE:
+        tmpAttrName = filter.getAttributeName();
+        tmpAttrKeys = getAttributeKeys(tmpAttrName, schema);
+        tmpCost = COST_PRESENCE;
+        break;
+
+      case Filter.FILTER_TYPE_APPROXIMATE_MATCH:
+        throw new LDAPException(ResultCode.NOT_SUPPORTED,
+             ERR_FILTER_APPROXIMATE_MATCHING_NOT_SUPPORTED.get());
+
+      case Filter.FILTER_TYPE_EXTENSIBLE_MATCH:
+        throw new LDAPException(ResultCode.NOT_SUPPORTED,
+             ERR_FILTER_EXTENSIBLE_MATCHING_NOT_SUPPORTED.get());
+
+      default:
+        throw new LDAPException(ResultCode.PARAM_ERROR,
+             ERR_FILTER_INVALID_TYPE.get());
+    }
+
+    assertionValue = tmpAssertion;
+    subInitial = tmpSubInitial;
+    subAny = tmpSubAny;
+    subFinal = tmpSubFinal;
+    normalizedAssertionValue = tmpNormAssertion;
+    normalizedSubInitial = tmpNormSubInitial;
+    normalizedSubAny = tmpNormSubAny;
+    normalizedSubFinal = tmpNormSubFinal;
+    components = tmpComponents;
+    notComponent = tmpNOT;
+    matchingRule = tmpRule;
+    attributeName = tmpAttrName;
+    attributeKeys = tmpAttrKeys;
+    useNormalizedBytes = tmpUseNormalized;
+    estimatedCost = tmpCost;
+  }
+
+
+
+  /**
+   * Retrieves the lowercase names that may be used to reference the specified
+   * attribute in an entry.  This mirrors the logic used by the
+   * {@link Entry#getAttribute(String,Schema)} method.
+   *
+   * @param  attributeName  The attribute name as provided in the filter.
+   * @param  schema         The schema to use to identify alternate names for
+   *                        the attribute.  It may be {@code null} if no schema
+   *                        is available.
+   *
+   * @return  The lowercase names that may be used to reference the specified
+   *          attribute in an entry.
+   */
+  private static String[] getAttributeKeys(final String attributeName,
+                                           final Schema schema)
+  {
+    final List<String> keys = new ArrayList<>(5);
+    keys.add(StaticUtils.toLowerCase(attributeName));
+
+    if (schema != null)
+    {
+      final String baseName;
+      final String options;
+      final int semicolonPos = attributeName.indexOf(';');
+      if (semicolonPos > 0)
+      {
+        baseName = attributeName.substring(0, semicolonPos);
+        options =
+             StaticUtils.toLowerCase(attributeName.substring(semicolonPos));
+      }
+      else
+      {
+        baseName = attributeName;
+        options  = "";
+      }
+
+      final AttributeTypeDefinition at = schema.getAttributeType(baseName);
+      if (at != null)
+      {
+        final String oidKey = StaticUtils.toLowerCase(at.getOID() + options);
+        if (! keys.contains(oidKey))
+        {
+          keys.add(oidKey);
+        }
+
+        for (final String name : at.getNames())
+        {
+          final String nameKey = StaticUtils.toLowerCase(name) + options;
+          if (! keys.contains(nameKey))
+          {
+            keys.add(nameKey);
+          }
+        }
+      }
+    }
+
+    return keys.toArray(StaticUtils.NO_STRINGS);
+  }
+
+
+
+  /**
+   * Indicates whether the provided matching rule is one for which matching
+   * for the specified type of filter may be performed by comparing the bytes
+   * of normalized values.
+   *
+   * @param  matchingRule  The matching rule to examine.
+   * @param  filterType    The type of filter component being compiled.
+   *
+   * @return  {@code true} if matching may be performed by comparing the bytes
+   *          of normalized values, or {@code false} if the matching rule
+   *          methods must be used.
+   */
+  static boolean supportsNormalizedBytes(final MatchingRule matchingRule,
+                                         final byte filterType)
+  {
+    if ((matchingRule instanceof AcceptAllSimpleMatchingRule) ||
+        (matchingRule instanceof NumericStringMatchingRule))
+    {
+      return true;
+    }
+
+    // Distinguished names are considered equal if their normalized
+    // representations are equal, but the distinguished name matching rule does
+    // not support substring or ordering matching.
+    if (matchingRule instanceof DistinguishedNameMatchingRule)
+    {
+      return (filterType == Filter.FILTER_TYPE_EQUALITY);
+    }
+
+    // The telephone number matching rule does not support ordering matching.
+    return ((matchingRule instanceof TelephoneNumberMatchingRule) &&
+         (filterType != Filter.FILTER_TYPE_GREATER_OR_EQUAL) &&
+         (filterType != Filter.FILTER_TYPE_LESS_OR_EQUAL));
+  }
+
+
+
+  /**
+   * Normalizes the provided value using the given matching rule.
+   *
+   * @param  matchingRule  The matching rule to use.
+   * @param  value         The value to normalize.
+   *
+   * @return  The bytes that comprise the normalized value, or {@code null} if
+   *          the value could not be normalized.
+   */
+  static byte[] normalize(final MatchingRule matchingRule,
+                          final ASN1OctetString value)
+  {
+    try
+    {
+      return matchingRule.normalize(value).getValue();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Normalizes the provided substring value using the given matching rule.
+   *
+   * @param  matchingRule   The matching rule to use.
+   * @param  value          The substring value to normalize.
+   * @param  substringType  The substring type for the value.
+   *
+   * @return  The bytes that comprise the normalized value, or {@code null} if
+   *          the value could not be normalized.
+   */
+  static byte[] normalizeSubstring(final MatchingRule matchingRule,
+                                   final ASN1OctetString value,
+                                   final byte substringType)
+  {
+    try
+    {
+      return matchingRule.normalizeSubstring(value, substringType).getValue();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the filter from which this compiled filter was created.
+   *
+   * @return  The filter from which this compiled filter was created.
+   */
+  public Filter getFilter()
+  {
+    return filter;
+  }
+
+
+
+  /**
+   * Retrieves the schema that was used to compile this filter.
+   *
+   * @return  The schema that was used to compile this filter, or {@code null}
+   *          if no schema was used.
+   */
+  public Schema getSchema()
+  {
+    return schema;
+  }
+
+
+
+  /**
+   * Retrieves the compiled components for an AND or OR filter, in the order
+   * in which they will be evaluated.
+   *
+   * @return  The compiled components for an AND or OR filter, or {@code null}
+   *          if this is not an AND or OR filter.
+   */
+  CompiledFilter[] getComponents()
+  {
+    return components;
+  }
+
+
+
+  /**
+   * Retrieves the estimated cost of evaluating this compiled filter.
+   *
+   * @return  The estimated cost of evaluating this compiled filter.
+   */
+  int getEstimatedCost()
+  {
+    return estimatedCost;
+  }
+
+
+
+  /**
+   * Indicates whether this compiled filter matches the provided entry.  The
+   * result will be the same as that of the
+   * {@link Filter#matchesEntry(Entry,Schema)} method for the same filter and
+   * schema.
+   *
+   * @param  entry  The entry for which to make the determination.  It must not
+   *                be {@code null}.
+   *
+   * @return  {@code true} if this filter appears to match the provided entry,
+   *          or {@code false} if not.
+   *
+   * @throws  LDAPException  If a problem occurs while trying to make the
+   *                         determination.
+   */
+  public boolean matchesEntry(final Entry entry)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(entry);
+
+    switch (filterType)
+    {
+      case Filter.FILTER_TYPE_AND:
+        for (final CompiledFilter f : components)
+        {
+          if (! f.matchesEntry(entry))
+          {
+            return false;
+          }
+        }
+        return true;
+
+      case Filter.FILTER_TYPE_OR:
+        for (final CompiledFilter f : components)
+        {
+          if (f.matchesEntry(entry))
+          {
+            return true;
+          }
+        }
+        return false;
+
+      case Filter.FILTER_TYPE_NOT:
+        return (! notComponent.matchesEntry(entry));
+
+      case Filter.FILTER_TYPE_EQUALITY:
+        Attribute a = getAttribute(entry);
+        if (a == null)
+        {
+          return false;
+        }
+
+        if (! useNormalizedBytes)
+        {
+          return matchingRule.matchesAnyValue(assertionValue,
+               a.getRawValues());
+        }
+
+        return a.hasNormalizedValue(normalizedAssertionValue, matchingRule);
+
+      case Filter.FILTER_TYPE_SUBSTRING:
+        a = getAttribute(entry);
+        if (a == null)
+        {
+          return false;
+        }
+
+        ASN1OctetString[] rawValues = a.getRawValues();
+        ASN1OctetString[] cachedValues = getCachedNormalizedValues(a);
+        for (int i=0; i < rawValues.length; i++)
+        {
+          final byte[] normalizedValue =
+               getNormalizedValue(rawValues, cachedValues, i);
+          if (normalizedValue == null)
+          {
+            if (matchingRule.matchesSubstring(rawValues[i], subInitial, subAny,
+                 subFinal))
+            {
+              return true;
+            }
+          }
+          else if (matchesSubstring(normalizedValue))
+          {
+            return true;
+          }
+        }
+        return false;
+
+      case Filter.FILTER_TYPE_GREATER_OR_EQUAL:
+        a = getAttribute(entry);
+        if (a == null)
+        {
+          return false;
+        }
+
+        rawValues = a.getRawValues();
+        cachedValues = getCachedNormalizedValues(a);
+        for (int i=0; i < rawValues.length; i++)
+        {
+          if (compareToAssertionValue(rawValues, cachedValues, i) >= 0)
+          {
+            return true;
+          }
+        }
+        return false;
+
+      case Filter.FILTER_TYPE_LESS_OR_EQUAL:
+        a = getAttribute(entry);
+        if (a == null)
+        {
+          return false;
+        }
+
+        rawValues = a.getRawValues();
+        cachedValues = getCachedNormalizedValues(a);
+        for (int i=0; i < rawValues.length; i++)
+        {
+          if (compareToAssertionValue(rawValues, cachedValues, i) <= 0)
+          {
+            return true;
+          }
+        }
+        return false;
+
+      case Filter.FILTER_TYPE_PRESENCE:
+        for (final String key : attributeKeys)
+        {
+          if (entry.getAttributeForLowerCaseName(key) != null)
+          {
+            return true;
+          }
+        }
+
+        // The filter evaluation logic checks for presence using the entry's
+        // own schema, so fall back to that if it's different from the schema
+        // used to compile this filter.
+        final Schema entrySchema = entry.getSchema();
+        if ((entrySchema != null) && (entrySchema != schema))
+        {
+          return entry.hasAttribute(attributeName);
+        }
+        return false;
+
+      default:
+        // This should never happen, since the constructor rejects all other
+        // filter types.
+        throw new LDAPException(ResultCode.PARAM_ERROR,
+             ERR_FILTER_INVALID_TYPE.get());
+    }
+  }
+
+
+
+  /**
+   * Retrieves the target attribute from the provided entry.
+   *
+   * @param  entry  The entry from which to retrieve the attribute.
+   *
+   * @return  The target attribute from the provided entry, or {@code null} if
+   *          the entry does not contain that attribute.
+   */
+  private Attribute getAttribute(final Entry entry)
+  {
+    for (final String key : attributeKeys)
+    {
+      final Attribute a = entry.getAttributeForLowerCaseName(key);
+      if (a != null)
+      {
+        return a;
+      }
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Retrieves the cached normalized values for the provided attribute, if
+   * they are available and values should be compared using normalized bytes.
+   *
+   * @param  attribute  The attribute for which to retrieve the cached
+   *                    normalized values.
+   *
+   * @return  The cached normalized values for the provided attribute, or
+   *          {@code null} if they are not available or should not be used.
+   */
+  private ASN1OctetString[] getCachedNormalizedValues(
+                                 final Attribute attribute)
+  {
+    if (useNormalizedBytes)
+    {
+      return attribute.getNormalizedValues(matchingRule);
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Retrieves the normalized bytes for the specified attribute value.
+   *
+   * @param  rawValues     The raw values for the attribute.
+   * @param  cachedValues  The cached normalized values for the attribute, or
+   *                       {@code null} if they are not available.
+   * @param  index         The index of the value to retrieve.
+   *
+   * @return  The normalized bytes for the specified attribute value, or
+   *          {@code null} if values should not be compared using normalized
+   *          bytes or the value could not be normalized.
+   */
+  private byte[] getNormalizedValue(final ASN1OctetString[] rawValues,
+                                    final ASN1OctetString[] cachedValues,
+                                    final int index)
+  {
+    if (! useNormalizedBytes)
+    {
+      return null;
+    }
+
+    if (cachedValues != null)
+    {
+      final ASN1OctetString cachedValue = cachedValues[index];
+      if (cachedValue == null)
+      {
+        return null;
+      }
+
+      return cachedValue.getValue();
+    }
+
+    return normalize(matchingRule, rawValues[index]);
+  }
+
+
+
+  /**
+   * Compares the specified attribute value with the assertion value for an
+   * ordering component.
+   *
+   * @param  rawValues     The raw values for the attribute.
+   * @param  cachedValues  The cached normalized values for the attribute, or
+   *                       {@code null} if they are not available.
+   * @param  index         The index of the value to compare.
+   *
+   * @return  A negative value if the attribute value should be ordered before
+   *          the assertion value, a positive value if the attribute value
+   *          should be ordered after the assertion value, or zero if they are
+   *          equivalent.
+   *
+   * @throws  LDAPException  If a problem occurs while making the comparison.
+   */
+  private int compareToAssertionValue(final ASN1OctetString[] rawValues,
+                                      final ASN1OctetString[] cachedValues,
+                                      final int index)
+          throws LDAPException
+  {
+    final byte[] normalizedValue =
+         getNormalizedValue(rawValues, cachedValues, index);
+    if (normalizedValue == null)
+    {
+      return matchingRule.compareValues(rawValues[index], assertionValue);
+    }
+
+    return compareNormalizedValues(normalizedValue,
+         normalizedAssertionValue.getValue());
+  }
+
+
+
+  /**
+   * Compares the provided normalized values byte-for-byte, in the same manner
+   * as the {@code compareValues} method of matching rules that compare values
+   * byte-for-byte after normalization.
+   *
+   * @param  value1  The first normalized value to compare.
+   * @param  value2  The second normalized value to compare.
+   *
+   * @return  A negative value if the first value should be ordered before the
+   *          second, a positive value if the first value should be ordered
+   *          after the second, or zero if they are equivalent.
+   */
+  static int compareNormalizedValues(final byte[] value1, final byte[] value2)
+  {
+    final int minLength = Math.min(value1.length, value2.length);
+    for (int i=0; i < minLength; i++)
+    {
+      final int b1 = value1[i] & 0xFF;
+      final int b2 = value2[i] & 0xFF;
+      if (b1 != b2)
+      {
+        return (b1 - b2);
+      }
+    }
+
+    return (value1.length - value2.length);
+  }
+
+
+
+  /**
+   * Indicates whether the provided normalized value matches the pre-normalized
+   * substring components.
+   *
+   * @param  normValue  The normalized value to examine.
+   *
+   * @return  {@code true} if the value matches the substring components, or
+   *          {@code false} if not.
+   */
+  private boolean matchesSubstring(final byte[] normValue)
+  {
+    int pos = 0;
+    if (normalizedSubInitial != null)
+    {
+      if (normValue.length < normalizedSubInitial.length)
+      {
+        return false;
+      }
+
+      for (int i=0; i < normalizedSubInitial.length; i++)
+      {
+        if (normValue[i] != normalizedSubInitial[i])
+        {
+          return false;
+        }
+      }
+
+      pos = normalizedSubInitial.length;
+    }
+
+    if (normalizedSubAny != null)
+    {
+      for (final byte[] b : normalizedSubAny)
+      {
+        if (b.length == 0)
+        {
+          continue;
+        }
+
+        boolean match = false;
+        final int subEndLength = normValue.length - b.length;
+        while (pos <= subEndLength)
+        {
+          match = true;
+          for (int i=0; i < b.length; i++)
+          {
+            if (normValue[pos+i] != b[i])
+            {
+              match = false;
+              break;
+            }
+          }
+
+          if (match)
+          {
+            pos += b.length;
+            break;
+          }
+          else
+          {
+            pos++;
+          }
+        }
+
+        if (! match)
+        {
+          return false;
+        }
+      }
+    }
+
+    if (normalizedSubFinal != null)
+    {
+      int finalStartPos = normValue.length - normalizedSubFinal.length;
+      if (finalStartPos < pos)
+      {
+        return false;
+      }
+
+      for (int i=0; i < normalizedSubFinal.length; i++,finalStartPos++)
+      {
+        if (normValue[finalStartPos] != normalizedSubFinal[i])
+        {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this compiled filter.  The filter
+   * components will be listed in the order in which they will be evaluated.
+   *
+   * @return  A string representation of this compiled filter.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this compiled filter to the provided
+   * buffer.  The filter components will be listed in the order in which they
+   * will be evaluated.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    switch (filterType)
+    {
+      case Filter.FILTER_TYPE_AND:
+      case Filter.FILTER_TYPE_OR:
+        buffer.append('(');
+        buffer.append((filterType == Filter.FILTER_TYPE_AND) ? '&' : '|');
+        for (final CompiledFilter f : components)
+        {
+          f.toString(buffer);
+        }
+        buffer.append(')');
+        break;
+
+      case Filter.FILTER_TYPE_NOT:
+        buffer.append("(!");
+        notComponent.toString(buffer);
+        buffer.append(')');
+        break;
+
+      default:
+        filter.toString(buffer);
+        break;
+    }
+  }
+}
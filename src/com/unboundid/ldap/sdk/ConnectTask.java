@@ -41,12 +41,16 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.net.SocketFactory;
 import javax.net.ssl.SSLSocket;
 
 import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
 import com.unboundid.util.StaticUtils;
 
 import static com.unboundid.ldap.sdk.LDAPMessages.*;
@@ -54,7 +58,7 @@ import static com.unboundid.ldap.sdk.LDAPMessages.*;
 
 
 /**
- * This class provides a thread that may be used to create an establish a
+ * This class provides a task that may be used to create an establish a
  * socket using a provided socket factory with a specified timeout.  This
  * provides a more reliable mechanism for attempting to establish a connection
  * with a timeout than using the {@code Socket.connect} method that takes a
@@ -62,26 +66,43 @@ import static com.unboundid.ldap.sdk.LDAPMessages.*;
  * SSL socket factories), and that method is also not reliable for hung servers
  * which are listening for connections but are not responsive.  The
  * {@link #getConnectedSocket} method should be called immediately after
- * starting the thread to wait for the connection to be established, or to fail
+ * starting the task to wait for the connection to be established, or to fail
  * if it cannot be successfully established within the given timeout period.
+ * <BR><BR>
+ * Tasks are processed by a shared pool of daemon threads that are created as
+ * needed and reused for subsequent connection attempts, so that a burst of
+ * connection attempts (for example, when connection pools fail over after a
+ * server is restarted) does not require a new thread for every attempt.
  */
-final class ConnectThread
-      extends Thread
+final class ConnectTask
+      implements Runnable
 {
+  /**
+   * The executor that will be used to process connect tasks.  Idle threads
+   * will be allowed to exit after one minute.
+   */
+  private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(0,
+       Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+       new SynchronousQueue<Runnable>(),
+       new LDAPSDKThreadFactory("LDAP Connect Thread", true));
+
+
+
   // Indicates whether the connection has been successfully established.
   private final AtomicBoolean connected;
 
   // The socket used for the connection.
   private final AtomicReference<Socket> socket;
 
-  // The thread being used to establish the connection.
+  // The thread being used to establish the connection.  It will only be set
+  // while this task is running.
   private final AtomicReference<Thread> thread;
 
   // The exception caught while trying to establish the connection.
   private final AtomicReference<Throwable> exception;
 
-  // A latch that will be used to indicate that the thread has actually started.
-  private final CountDownLatch startLatch;
+  // A latch that will be used to indicate that the task has completed.
+  private final CountDownLatch doneLatch;
 
   // The maximum length of time in milliseconds that the connection attempt
   // should be allowed to block.
@@ -90,6 +111,10 @@ final class ConnectThread
   // The port to which the connection should be established.
   private final int port;
 
+  // The statistics for the connection being established, which will be
+  // updated with information about any TLS handshake that is performed.
+  private final LDAPConnectionStatistics connectionStatistics;
+
   // The socket factory that will be used to create the connection.
   private final SocketFactory socketFactory;
 
@@ -99,7 +124,7 @@ final class ConnectThread
 
 
   /**
-   * Creates a new instance of this connect thread with the provided
+   * Creates a new instance of this connect task with the provided
    * information.
    *
    * @param  socketFactory         The socket factory to use to create the
@@ -111,23 +136,34 @@ final class ConnectThread
    * @param  connectTimeoutMillis  The maximum length of time in milliseconds
    *                               that the connection attempt should be allowed
    *                               to block.
+   * @param  connectionStatistics  The statistics for the connection being
+   *                               established.  It must not be {@code null}.
    */
-  ConnectThread(final SocketFactory socketFactory, final InetAddress address,
-                final int port, final int connectTimeoutMillis)
+  ConnectTask(final SocketFactory socketFactory, final InetAddress address,
+              final int port, final int connectTimeoutMillis,
+              final LDAPConnectionStatistics connectionStatistics)
   {
-    super("Background connect thread for " + address + ':' + port);
-    setDaemon(true);
-
     this.socketFactory        = socketFactory;
     this.address              = address;
     this.port                 = port;
     this.connectTimeoutMillis = connectTimeoutMillis;
+    this.connectionStatistics = connectionStatistics;
 
     connected  = new AtomicBoolean(false);
     socket     = new AtomicReference<>();
     thread     = new AtomicReference<>();
     exception  = new AtomicReference<>();
-    startLatch = new CountDownLatch(1);
+    doneLatch  = new CountDownLatch(1);
+  }
+
+
+
+  /**
+   * Submits this task to be processed by a thread from the shared pool.
+   */
+  void start()
+  {
+    EXECUTOR.execute(this);
   }
 
 
@@ -139,7 +175,6 @@ final class ConnectThread
   public void run()
   {
     thread.set(Thread.currentThread());
-    startLatch.countDown();
 
     try
     {
@@ -168,7 +203,12 @@ final class ConnectThread
       {
         try
         {
-          ((SSLSocket) s).startHandshake();
+          final SSLSocket sslSocket = (SSLSocket) s;
+          final long startTimeMillis = System.currentTimeMillis();
+          final long startTimeNanos = System.nanoTime();
+          sslSocket.startHandshake();
+          connectionStatistics.recordTLSHandshake(sslSocket, startTimeMillis,
+               System.nanoTime() - startTimeNanos);
         }
         catch (final Exception e)
         {
@@ -187,7 +227,15 @@ final class ConnectThread
     }
     finally
     {
-      thread.set(null);
+      // Clear the thread reference while holding the lock so that a caller
+      // that has timed out cannot interrupt the pooled thread after it has
+      // moved on to another task.
+      synchronized (this)
+      {
+        thread.set(null);
+      }
+
+      doneLatch.countDown();
     }
   }
 
@@ -195,7 +243,7 @@ final class ConnectThread
 
   /**
    * Gets the connection after it has been established.  This should be called
-   * immediately after starting the thread.
+   * immediately after starting the task.
    *
    * @return  The socket that has been connected to the target server.
    *
@@ -206,40 +254,25 @@ final class ConnectThread
   Socket getConnectedSocket()
          throws LDAPException
   {
-    while (startLatch.getCount() > 0L)
+    try
     {
-      try
+      if (connectTimeoutMillis > 0)
       {
-        startLatch.await();
-        break;
+        doneLatch.await(connectTimeoutMillis, TimeUnit.MILLISECONDS);
       }
-      catch (final InterruptedException ie)
+      else
       {
-        Debug.debugException(ie);
-        Thread.currentThread().interrupt();
-        throw new LDAPException(ResultCode.LOCAL_ERROR,
-             ERR_CONNECT_THREAD_INTERRUPTED.get(address.getHostAddress(), port,
-                  StaticUtils.getExceptionMessage(ie)),
-             ie);
+        doneLatch.await();
       }
     }
-
-    final Thread t = thread.get();
-    if (t != null)
+    catch (final InterruptedException ie)
     {
-      try
-      {
-        t.join(connectTimeoutMillis);
-      }
-      catch (final InterruptedException ie)
-      {
-        Debug.debugException(ie);
-        Thread.currentThread().interrupt();
-        throw new LDAPException(ResultCode.LOCAL_ERROR,
-             ERR_CONNECT_THREAD_INTERRUPTED.get(address.getHostAddress(), port,
-                  StaticUtils.getExceptionMessage(ie)),
-             ie);
-      }
+      Debug.debugException(ie);
+      Thread.currentThread().interrupt();
+      throw new LDAPException(ResultCode.LOCAL_ERROR,
+           ERR_CONNECT_THREAD_INTERRUPTED.get(address.getHostAddress(), port,
+                StaticUtils.getExceptionMessage(ie)),
+           ie);
     }
 
     if (connected.get())
@@ -249,9 +282,13 @@ final class ConnectThread
 
     try
     {
-      if (t != null)
+      synchronized (this)
       {
-        t.interrupt();
+        final Thread t = thread.get();
+        if (t != null)
+        {
+          t.interrupt();
+        }
       }
     }
     catch (final Exception e)
@@ -39,6 +39,7 @@ package com.unboundid.ldap.sdk;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -162,6 +163,9 @@ public final class DN
   // The normalized string representation of this DN.
   private volatile String normalizedString;
 
+  // The parent for this DN, if it has been determined.
+  private transient volatile DN cachedParent;
+
 
 
   /**
@@ -285,6 +289,41 @@ public final class DN
 
 
 
+  /**
+   * Creates a new DN with the provided string representation, set of RDNs, and
+   * parent DN.  This is intended for use by the {@link DNCache} class, which
+   * allows DNs to share the RDNs and parent of an equivalent cached parent DN.
+   *
+   * @param  dnString  The string representation for this DN.  It must not be
+   *                   {@code null}.
+   * @param  schema    The schema to use to generate the normalized string
+   *                   representation of this DN.  It may be {@code null} if no
+   *                   schema is available.
+   * @param  rdns      The RDN components for this DN.  It must not be
+   *                   {@code null} and must have been obtained by parsing the
+   *                   provided string representation.
+   * @param  parentDN  The parent for this DN.  It may be {@code null} if the
+   *                   parent should be determined from the RDN components if it
+   *                   is needed.  If it is non-{@code null}, then its RDN
+   *                   components must be all but the first of the provided
+   *                   RDN components.
+   */
+  DN(final String dnString, final Schema schema, final RDN[] rdns,
+     final DN parentDN)
+  {
+    this.dnString = dnString;
+    this.schema   = schema;
+    this.rdns     = rdns;
+    cachedParent  = parentDN;
+
+    if (rdns.length == 0)
+    {
+      normalizedString = "";
+    }
+  }
+
+
+
   /**
    * Creates a new DN from the provided string representation.
    *
@@ -723,6 +762,201 @@ rdnLoop:
 
 
 
+  /**
+   * Decodes the provided UTF-8 bytes as a DN.
+   *
+   * @param  dnBytes  The UTF-8 bytes that comprise the string representation
+   *                  of the DN.  It must not be {@code null}.
+   * @param  schema   The schema to use to generate the normalized string
+   *                  representation of the DN.  It may be {@code null} if no
+   *                  schema is available.
+   *
+   * @return  The decoded DN.
+   *
+   * @throws  LDAPException  If the provided bytes cannot be parsed as a valid
+   *                         DN.
+   */
+  public static DN decode(final byte[] dnBytes, final Schema schema)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(dnBytes);
+    return decode(dnBytes, 0, dnBytes.length, schema);
+  }
+
+
+
+  /**
+   * Decodes the specified portion of the provided array of UTF-8 bytes as a
+   * DN.  DNs that only contain printable ASCII characters, and that do not
+   * contain any escaped or quoted characters, multivalued RDNs, or spaces
+   * around the RDN separators, will be decoded directly from the bytes without
+   * the intermediate objects used when parsing a DN from its string
+   * representation.  Any other DN will be decoded in the same way as with the
+   * {@link #DN(String,Schema)} constructor.
+   *
+   * @param  dnBytes  The array containing the UTF-8 bytes that comprise the
+   *                  string representation of the DN.  It must not be
+   *                  {@code null}.
+   * @param  offset   The position in the array at which the DN starts.
+   * @param  length   The number of bytes in the DN.
+   * @param  schema   The schema to use to generate the normalized string
+   *                  representation of the DN.  It may be {@code null} if no
+   *                  schema is available.
+   *
+   * @return  The decoded DN.
+   *
+   * @throws  LDAPException  If the provided bytes cannot be parsed as a valid
+   *                         DN.
+   */
+  public static DN decode(final byte[] dnBytes, final int offset,
+                          final int length, final Schema schema)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(dnBytes);
+    Validator.ensureTrue(((offset >= 0) && (length >= 0) &&
+         ((offset + length) <= dnBytes.length)),
+         "DN.decode offset and length must be within the bounds of the array.");
+
+    final DN dn = decodeSimpleDN(dnBytes, offset, length, schema);
+    if (dn == null)
+    {
+      return new DN(StaticUtils.toUTF8String(dnBytes, offset, length), schema);
+    }
+    else
+    {
+      return dn;
+    }
+  }
+
+
+
+  /**
+   * Attempts to decode the specified portion of the provided array as a DN
+   * that only contains printable ASCII characters and does not contain any
+   * escaped or quoted characters, multivalued RDNs, leading or trailing spaces
+   * in any RDN component, or attribute values that start with an octothorpe.
+   *
+   * @param  b       The array containing the bytes to decode.
+   * @param  offset  The position in the array at which the DN starts.
+   * @param  length  The number of bytes in the DN.
+   * @param  schema  The schema to use to generate the normalized string
+   *                 representation of the DN.
+   *
+   * @return  The decoded DN, or {@code null} if the bytes do not represent a
+   *          DN in the expected form and must be decoded using the full DN
+   *          parser.
+   */
+  private static DN decodeSimpleDN(final byte[] b, final int offset,
+                                   final int length, final Schema schema)
+  {
+    if (length == 0)
+    {
+      return null;
+    }
+
+    // Make sure that there aren't any bytes that would require special
+    // handling, and count the number of RDN components.
+    final int end = offset + length;
+    int numRDNs = 1;
+    for (int i=offset; i < end; i++)
+    {
+      switch (b[i])
+      {
+        case ',':
+          numRDNs++;
+          break;
+
+        case '\\':
+        case '"':
+        case '+':
+        case ';':
+          return null;
+
+        default:
+          if ((b[i] < ' ') || (b[i] > '~'))
+          {
+            return null;
+          }
+          break;
+      }
+    }
+
+    final String dnString = StaticUtils.toUTF8String(b, offset, length);
+    final RDN[] rdns = new RDN[numRDNs];
+    int pos = 0;
+    for (int i=0; i < numRDNs; i++)
+    {
+      // Read the attribute name, which must be immediately followed by an
+      // equal sign.
+      final int rdnStartPos = pos;
+      while ((pos < length) && (b[offset+pos] != '='))
+      {
+        if (! isSimpleAttributeNameCharacter(b[offset+pos]))
+        {
+          return null;
+        }
+
+        pos++;
+      }
+
+      if ((pos == rdnStartPos) || (pos >= length))
+      {
+        return null;
+      }
+
+      final int nameEndPos = pos++;
+
+
+      // Read the value, which must not be empty, must not start with an
+      // octothorpe, and must not start or end with a space.
+      final int valueStartPos = pos;
+      while ((pos < length) && (b[offset+pos] != ','))
+      {
+        pos++;
+      }
+
+      final int valueEndPos = pos;
+      if ((valueEndPos == valueStartPos) ||
+          (b[offset+valueStartPos] == ' ') ||
+          (b[offset+valueStartPos] == '#') ||
+          (b[offset+valueEndPos-1] == ' '))
+      {
+        return null;
+      }
+
+      rdns[i] = new RDN(dnString.substring(rdnStartPos, nameEndPos),
+           new ASN1OctetString(Arrays.copyOfRange(b, (offset+valueStartPos),
+                (offset+valueEndPos))),
+           schema, dnString.substring(rdnStartPos, valueEndPos));
+
+      // Skip over the comma, if there is one.
+      pos++;
+    }
+
+    return new DN(dnString, schema, rdns, null);
+  }
+
+
+
+  /**
+   * Indicates whether the provided byte may be used in an attribute name in a
+   * DN decoded by the {@link #decodeSimpleDN} method.
+   *
+   * @param  b  The byte for which to make the determination.
+   *
+   * @return  {@code true} if the provided byte may be used in an attribute
+   *          name, or {@code false} if not.
+   */
+  private static boolean isSimpleAttributeNameCharacter(final byte b)
+  {
+    return (((b >= 'a') && (b <= 'z')) ||
+         ((b >= 'A') && (b <= 'Z')) ||
+         ((b >= '0') && (b <= '9')) ||
+         (b == '-') || (b == '.') || (b == '_'));
+  }
+
+
+
   /**
    * Retrieves a trimmed version of the string representation of the RDN in the
    * specified portion of the provided DN string.  Only non-escaped trailing
@@ -869,6 +1103,20 @@ rdnLoop:
 
 
 
+  /**
+   * Retrieves the schema that will be used to generate the normalized string
+   * representation of this DN, if any.
+   *
+   * @return  The schema that will be used to generate the normalized string
+   *          representation of this DN, or {@code null} if none was provided.
+   */
+  Schema getSchema()
+  {
+    return schema;
+  }
+
+
+
   /**
    * Retrieves the set of RDNs that comprise this DN.
    *
@@ -964,6 +1212,13 @@ rdnLoop:
    */
   public DN getParent()
   {
+    final DN cachedParentDN = cachedParent;
+    if (cachedParentDN != null)
+    {
+      return cachedParentDN;
+    }
+
+    final DN parent;
     switch (rdns.length)
     {
       case 0:
@@ -971,22 +1226,30 @@ rdnLoop:
         return null;
 
       case 2:
-        return new DN(rdns[1]);
+        parent = new DN(rdns[1]);
+        break;
 
       case 3:
-        return new DN(rdns[1], rdns[2]);
+        parent = new DN(rdns[1], rdns[2]);
+        break;
 
       case 4:
-        return new DN(rdns[1], rdns[2], rdns[3]);
+        parent = new DN(rdns[1], rdns[2], rdns[3]);
+        break;
 
       case 5:
-        return new DN(rdns[1], rdns[2], rdns[3], rdns[4]);
+        parent = new DN(rdns[1], rdns[2], rdns[3], rdns[4]);
+        break;
 
       default:
         final RDN[] parentRDNs = new RDN[rdns.length - 1];
         System.arraycopy(rdns, 1, parentRDNs, 0, parentRDNs.length);
-        return new DN(parentRDNs);
+        parent = new DN(parentRDNs);
+        break;
     }
+
+    cachedParent = parent;
+    return parent;
   }
 
 
@@ -1562,6 +1825,17 @@ rdnLoop:
    */
   public void toNormalizedString(final StringBuilder buffer)
   {
+    // If the parent DN is already available, then use its normalized
+    // representation, which may have already been computed.
+    final DN parent = cachedParent;
+    if (parent != null)
+    {
+      buffer.append(rdns[0].toNormalizedString());
+      buffer.append(',');
+      buffer.append(parent.toNormalizedString());
+      return;
+    }
+
     for (int i=0; i < rdns.length; i++)
     {
       if (i > 0)
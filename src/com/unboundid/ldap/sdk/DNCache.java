@@ -0,0 +1,645 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.Debug;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a bounded, thread-safe cache of parsed {@link DN}
+ * objects, which can help reduce the processing and memory overhead of
+ * applications that repeatedly parse the same DN strings.  DNs retrieved from
+ * the cache have their normalized representations pre-computed, and DNs whose
+ * parent DN strings are the same will share the same parent {@code DN} and
+ * {@link RDN} instances, so that the common suffixes of a large number of DNs
+ * only need to be parsed, normalized, and held in memory once.
+ * <BR><BR>
+ * DNs are cached by their string representations, so the DNs returned from
+ * the cache will have exactly the same string representation as the strings
+ * that were provided.  The cache also provides an {@link #intern} method that
+ * can be used to obtain a canonical instance for any DNs that are equal to each
+ * other, regardless of their string representations.
+ * <BR><BR>
+ * Each cache has a maximum number of DNs that it will hold.  When that limit
+ * is reached, the least recently used DNs will be discarded in bulk, so
+ * the number of DNs actually held in the cache may temporarily be less than
+ * the maximum size.
+ * <BR><BR>
+ * A global cache may be configured with the {@link #setGlobalCache} method, or
+ * by setting the {@link #PROPERTY_GLOBAL_CACHE_MAX_SIZE} system property to a
+ * positive value.  If a global cache is configured, then it will be used by
+ * the {@link #parse} method, which is in turn used when parsing entry DNs and
+ * the target DNs of requests processed by the in-memory directory server.  By
+ * default, no global cache is configured.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class DNCache
+{
+  /**
+   * The name of a system property that can be used to specify the maximum
+   * number of DNs to hold in a global DN cache.  If this is set to a positive
+   * value, then a global cache with that maximum size will be created when
+   * this class is loaded.
+   */
+  public static final String PROPERTY_GLOBAL_CACHE_MAX_SIZE =
+       DNCache.class.getName() + ".globalCacheMaxSize";
+
+
+
+  // The global DN cache, if one has been configured.
+  private static volatile DNCache globalCache = createDefaultGlobalCache();
+
+
+
+  // The number of times that a requested DN was found in the cache.
+  private final AtomicLong numHits;
+
+  // The number of times that a requested DN was not found in the cache.
+  private final AtomicLong numMisses;
+
+  // The maximum number of DNs to hold in the cache.
+  private final int maxSize;
+
+  // The DNs cached by their string representations.
+  private final Generations dnsByString;
+
+  // The interned DNs, keyed by their normalized string representations.
+  private final Generations dnsByNormalizedString;
+
+
+
+  /**
+   * Creates a new DN cache with the specified maximum size.
+   *
+   * @param  maxSize  The maximum number of DNs to hold in the cache.  It must
+   *                  be greater than zero.  Cached DNs and interned DNs are
+   *                  counted separately.
+   */
+  public DNCache(final int maxSize)
+  {
+    Validator.ensureTrue((maxSize > 0),
+         "DNCache.maxSize must be greater than zero.");
+
+    this.maxSize = maxSize;
+
+    numHits = new AtomicLong(0L);
+    numMisses = new AtomicLong(0L);
+    dnsByString = new Generations(maxSize);
+    dnsByNormalizedString = new Generations(maxSize);
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of DNs to hold in the cache.
+   *
+   * @return  The maximum number of DNs to hold in the cache.
+   */
+  public int getMaxSize()
+  {
+    return maxSize;
+  }
+
+
+
+  /**
+   * Retrieves the number of DNs currently held in the cache, not including
+   * interned DNs.  This may include parent DNs that were cached as a side
+   * effect of caching their descendants.
+   *
+   * @return  The number of DNs currently held in the cache.
+   */
+  public int size()
+  {
+    return dnsByString.size();
+  }
+
+
+
+  /**
+   * Retrieves the number of times that a DN requested from the
+   * {@link #getDN(String,Schema)} method was found in the cache.
+   *
+   * @return  The number of cache hits.
+   */
+  public long getNumHits()
+  {
+    return numHits.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of times that a DN requested from the
+   * {@link #getDN(String,Schema)} method was not found in the cache and had to
+   * be parsed.
+   *
+   * @return  The number of cache misses.
+   */
+  public long getNumMisses()
+  {
+    return numMisses.get();
+  }
+
+
+
+  /**
+   * Retrieves a DN with the provided string representation, using a cached
+   * instance if one is available.
+   *
+   * @param  dnString  The string representation of the DN to retrieve.  It
+   *                   must not be {@code null}.
+   *
+   * @return  The DN with the provided string representation.
+   *
+   * @throws  LDAPException  If the provided string cannot be parsed as a valid
+   *                         DN.
+   */
+  public DN getDN(final String dnString)
+         throws LDAPException
+  {
+    return getDN(dnString, null);
+  }
+
+
+
+  /**
+   * Retrieves a DN with the provided string representation, using a cached
+   * instance if one is available.  A cached DN will only be used if it was
+   * created with the same schema.
+   *
+   * @param  dnString  The string representation of the DN to retrieve.  It
+   *                   must not be {@code null}.
+   * @param  schema    The schema to use to generate the normalized string
+   *                   representation of the DN.  It may be {@code null} if no
+   *                   schema is available.
+   *
+   * @return  The DN with the provided string representation.
+   *
+   * @throws  LDAPException  If the provided string cannot be parsed as a valid
+   *                         DN.
+   */
+  public DN getDN(final String dnString, final Schema schema)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(dnString);
+
+    final DN cachedDN = dnsByString.get(dnString);
+    if ((cachedDN != null) && (cachedDN.getSchema() == schema))
+    {
+      numHits.incrementAndGet();
+      return cachedDN;
+    }
+
+    numMisses.incrementAndGet();
+    final DN dn = new DN(dnString, schema);
+    return cache(dnString, schema, dn.getRDNs(), dn);
+  }
+
+
+
+  /**
+   * Caches a DN with the provided string representation and RDN components.
+   * If the DN has a parent, then the parent will also be cached (or retrieved
+   * from the cache) so that it can be shared by the new DN.
+   *
+   * @param  dnString  The string representation for the DN to cache.
+   * @param  schema    The schema to use to generate the normalized string
+   *                   representation of the DN.
+   * @param  rdns      The RDN components obtained by parsing the provided
+   *                   string representation.
+   * @param  parsedDN  The DN that was parsed from the provided string, or
+   *                   {@code null} if it has not been created.
+   *
+   * @return  The DN that was cached.
+   */
+  private DN cache(final String dnString, final Schema schema,
+                   final RDN[] rdns, final DN parsedDN)
+  {
+    DN dn = parsedDN;
+    if (rdns.length > 1)
+    {
+      final int parentStartPos = getParentStartPosition(dnString);
+      if (parentStartPos > 0)
+      {
+        final String parentString = dnString.substring(parentStartPos);
+        DN parentDN = dnsByString.get(parentString);
+        if ((parentDN == null) || (parentDN.getSchema() != schema))
+        {
+          parentDN = cache(parentString, schema,
+               Arrays.copyOfRange(rdns, 1, rdns.length), null);
+        }
+
+        final RDN[] parentRDNs = parentDN.getRDNs();
+        if (parentRDNs.length == (rdns.length - 1))
+        {
+          final RDN[] sharedRDNs = new RDN[rdns.length];
+          sharedRDNs[0] = rdns[0];
+          System.arraycopy(parentRDNs, 0, sharedRDNs, 1, parentRDNs.length);
+          dn = new DN(dnString, schema, sharedRDNs, parentDN);
+        }
+      }
+    }
+
+    if (dn == null)
+    {
+      dn = new DN(dnString, schema, rdns, null);
+    }
+
+    dn.toNormalizedString();
+    dnsByString.put(dnString, dn);
+    return dn;
+  }
+
+
+
+  /**
+   * Retrieves the position in the provided DN string at which the string
+   * representation of the parent DN starts, skipping over any spaces that
+   * follow the RDN separator.
+   *
+   * @param  dnString  The string representation of a valid DN.
+   *
+   * @return  The position at which the string representation of the parent DN
+   *          starts, or -1 if the DN does not have a parent.
+   */
+  static int getParentStartPosition(final String dnString)
+  {
+    final int length = dnString.length();
+    boolean inQuotes = false;
+    for (int i=0; i < length; i++)
+    {
+      final char c = dnString.charAt(i);
+      if (c == '\\')
+      {
+        // Skip over the escaped character.
+        i++;
+      }
+      else if (c == '"')
+      {
+        inQuotes = (! inQuotes);
+      }
+      else if ((! inQuotes) && ((c == ',') || (c == ';')))
+      {
+        int pos = i + 1;
+        while ((pos < length) && (dnString.charAt(pos) == ' '))
+        {
+          pos++;
+        }
+
+        if (pos < length)
+        {
+          return pos;
+        }
+        else
+        {
+          return -1;
+        }
+      }
+    }
+
+    return -1;
+  }
+
+
+
+  /**
+   * Retrieves a canonical instance of the provided DN.  If an equal DN with
+   * the same schema has already been interned, then that DN will be returned.
+   * Otherwise, the provided DN will be interned and returned.
+   *
+   * @param  dn  The DN to intern.  It must not be {@code null}.
+   *
+   * @return  The canonical instance of the provided DN.  Note that its string
+   *          representation may differ from that of the provided DN.
+   */
+  public DN intern(final DN dn)
+  {
+    Validator.ensureNotNull(dn);
+
+    final String normalizedString = dn.toNormalizedString();
+    final DN internedDN = dnsByNormalizedString.get(normalizedString);
+    if ((internedDN != null) && (internedDN.getSchema() == dn.getSchema()))
+    {
+      return internedDN;
+    }
+
+    dnsByNormalizedString.put(normalizedString, dn);
+    return dn;
+  }
+
+
+
+  /**
+   * Removes all DNs from the cache, including interned DNs.
+   */
+  public void clear()
+  {
+    dnsByString.clear();
+    dnsByNormalizedString.clear();
+  }
+
+
+
+  /**
+   * Retrieves the global DN cache, if one has been configured.
+   *
+   * @return  The global DN cache, or {@code null} if no global cache has been
+   *          configured.
+   */
+  public static DNCache getGlobalCache()
+  {
+    return globalCache;
+  }
+
+
+
+  /**
+   * Specifies the global DN cache to use.
+   *
+   * @param  cache  The global DN cache to use.  It may be {@code null} if no
+   *                global cache should be used.
+   */
+  public static void setGlobalCache(final DNCache cache)
+  {
+    globalCache = cache;
+  }
+
+
+
+  /**
+   * Parses the provided string as a DN, using the global DN cache if one has
+   * been configured.
+   *
+   * @param  dnString  The string representation of the DN to parse.  It must
+   *                   not be {@code null}.
+   * @param  schema    The schema to use to generate the normalized string
+   *                   representation of the DN.  It may be {@code null} if no
+   *                   schema is available.
+   *
+   * @return  The parsed DN.
+   *
+   * @throws  LDAPException  If the provided string cannot be parsed as a valid
+   *                         DN.
+   */
+  public static DN parse(final String dnString, final Schema schema)
+         throws LDAPException
+  {
+    final DNCache cache = globalCache;
+    if (cache == null)
+    {
+      return new DN(dnString, schema);
+    }
+    else
+    {
+      return cache.getDN(dnString, schema);
+    }
+  }
+
+
+
+  /**
+   * Creates the global DN cache that should be used by default, based on the
+   * value of the {@link #PROPERTY_GLOBAL_CACHE_MAX_SIZE} system property.
+   *
+   * @return  The global DN cache that should be used by default, or
+   *          {@code null} if no global cache should be used by default.
+   */
+  private static DNCache createDefaultGlobalCache()
+  {
+    final String propertyValue =
+         StaticUtils.getSystemProperty(PROPERTY_GLOBAL_CACHE_MAX_SIZE);
+    if (propertyValue != null)
+    {
+      try
+      {
+        final int maxSize = Integer.parseInt(propertyValue);
+        if (maxSize > 0)
+        {
+          return new DNCache(maxSize);
+        }
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this DN cache.
+   *
+   * @return  A string representation of this DN cache.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this DN cache to the provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("DNCache(maxSize=");
+    buffer.append(maxSize);
+    buffer.append(", size=");
+    buffer.append(size());
+    buffer.append(", numHits=");
+    buffer.append(numHits.get());
+    buffer.append(", numMisses=");
+    buffer.append(numMisses.get());
+    buffer.append(')');
+  }
+
+
+
+  /**
+   * This class provides a bounded map of DNs that is divided into two
+   * generations.  New DNs are added to the current generation, and when it
+   * becomes full, it replaces the previous generation (discarding any DNs in
+   * the previous generation that have not been accessed since the last time
+   * that happened).  DNs accessed in the previous generation are promoted to
+   * the current generation.
+   */
+  @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+  private static final class Generations
+  {
+    // The maximum number of DNs to hold in each generation.
+    private final int generationSize;
+
+    // The current generation.
+    private volatile ConcurrentHashMap<String,DN> currentGeneration;
+
+    // The previous generation.
+    private volatile ConcurrentHashMap<String,DN> previousGeneration;
+
+
+
+    /**
+     * Creates a new bounded map with the specified maximum size.
+     *
+     * @param  maxSize  The maximum number of DNs to hold in the map.
+     */
+    private Generations(final int maxSize)
+    {
+      generationSize = Math.max(1, (maxSize / 2));
+      currentGeneration = newGeneration();
+      previousGeneration = newGeneration();
+    }
+
+
+
+    /**
+     * Creates a new, empty generation.
+     *
+     * @return  The new generation.
+     */
+    private ConcurrentHashMap<String,DN> newGeneration()
+    {
+      return new ConcurrentHashMap<>(
+           StaticUtils.computeMapCapacity(Math.min(generationSize, 1024)));
+    }
+
+
+
+    /**
+     * Retrieves the DN with the specified key.
+     *
+     * @param  key  The key for the DN to retrieve.
+     *
+     * @return  The DN with the specified key, or {@code null} if there is no
+     *          such DN.
+     */
+    private DN get(final String key)
+    {
+      final DN dn = currentGeneration.get(key);
+      if (dn != null)
+      {
+        return dn;
+      }
+
+      final DN previousDN = previousGeneration.get(key);
+      if (previousDN != null)
+      {
+        put(key, previousDN);
+      }
+
+      return previousDN;
+    }
+
+
+
+    /**
+     * Adds the provided DN with the specified key.
+     *
+     * @param  key  The key for the DN to add.
+     * @param  dn   The DN to add.
+     */
+    private void put(final String key, final DN dn)
+    {
+      final ConcurrentHashMap<String,DN> current = currentGeneration;
+      current.put(key, dn);
+      if (current.size() >= generationSize)
+      {
+        synchronized (this)
+        {
+          if (currentGeneration == current)
+          {
+            previousGeneration = current;
+            currentGeneration = newGeneration();
+          }
+        }
+      }
+    }
+
+
+
+    /**
+     * Retrieves the number of distinct keys held in this map.
+     *
+     * @return  The number of distinct keys held in this map.
+     */
+    private int size()
+    {
+      final ConcurrentHashMap<String,DN> current = currentGeneration;
+      int size = current.size();
+      for (final String key : previousGeneration.keySet())
+      {
+        if (! current.containsKey(key))
+        {
+          size++;
+        }
+      }
+
+      return size;
+    }
+
+
+
+    /**
+     * Removes all DNs from this map.
+     */
+    private synchronized void clear()
+    {
+      previousGeneration = newGeneration();
+      currentGeneration = newGeneration();
+    }
+  }
+}
@@ -38,7 +38,6 @@ package com.unboundid.ldap.sdk;
 
 
 import java.util.List;
-import java.util.Timer;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -372,11 +371,8 @@ public final class DeleteRequest
 
       if (timeout > 0L)
       {
-        final Timer timer = connection.getTimer();
-        final AsyncTimeoutTimerTask timerTask =
-             new AsyncTimeoutTimerTask(helper);
-        timer.schedule(timerTask, timeout);
-        asyncRequestID.setTimerTask(timerTask);
+        asyncRequestID.setTimeout(connection.getAsyncTimeoutTimer().schedule(
+             new AsyncTimeoutTimerTask(helper), timeout));
       }
     }
 
@@ -514,7 +514,7 @@ public class Entry
   {
     if (parsedDN == null)
     {
-      parsedDN = new DN(dn, schema);
+      parsedDN = DNCache.parse(dn, schema);
     }
 
     return parsedDN;
@@ -550,7 +550,7 @@ public class Entry
   {
     if (parsedDN == null)
     {
-      parsedDN = new DN(dn, schema);
+      parsedDN = DNCache.parse(dn, schema);
     }
 
     return parsedDN.getParent();
@@ -571,7 +571,7 @@ public class Entry
   {
     if (parsedDN == null)
     {
-      parsedDN = new DN(dn, schema);
+      parsedDN = DNCache.parse(dn, schema);
     }
 
     final DN parentDN = parsedDN.getParent();
@@ -912,6 +912,23 @@ public class Entry
 
 
 
+  /**
+   * Retrieves the attribute stored in this entry with the provided lowercase
+   * name, without any alternate name resolution.
+   *
+   * @param  lowerName  The lowercase name (including any options) for the
+   *                    attribute to retrieve.  It must not be {@code null}.
+   *
+   * @return  The requested attribute from this entry, or {@code null} if this
+   *          entry does not contain an attribute with the specified name.
+   */
+  final Attribute getAttributeForLowerCaseName(final String lowerName)
+  {
+    return attributes.get(lowerName);
+  }
+
+
+
   /**
    * Retrieves the list of attributes with the given base name and all of the
    * specified options.
@@ -2399,6 +2416,62 @@ public class Entry
             {
               errors.add(ERR_ENTRY_APPLY_MODS_ADD_NO_VALUES.get(name));
             }
+            else if (values.length > 1)
+            {
+              final Attribute existingAttr = e.getAttributeForLowerCaseName(
+                   StaticUtils.toLowerCase(name));
+              final MatchingRule mr;
+              if (existingAttr == null)
+              {
+                mr = MatchingRule.selectEqualityMatchingRule(name, e.schema);
+              }
+              else
+              {
+                mr = existingAttr.getMatchingRule();
+              }
+
+              final ASN1OctetString[] normalizedValues =
+                   normalizeModificationValues(mr, values);
+              if (normalizedValues != null)
+              {
+                // Use the normalized values to identify duplicates so that
+                // the values can be added all at once, rather than merging
+                // each of them into the existing attribute separately.
+                final HashSet<ASN1OctetString> addedValues = new HashSet<>(
+                     StaticUtils.computeMapCapacity(values.length));
+                final ArrayList<byte[]> valuesToAdd =
+                     new ArrayList<>(values.length);
+                for (int i=0; i < values.length; i++)
+                {
+                  final boolean exists = addedValues.contains(
+                       normalizedValues[i]) ||
+                       ((existingAttr != null) &&
+                        existingAttr.hasValue(values[i], mr));
+                  if (exists)
+                  {
+                    if (resultCode == null)
+                    {
+                      resultCode = ResultCode.ATTRIBUTE_OR_VALUE_EXISTS;
+                    }
+                    errors.add(ERR_ENTRY_APPLY_MODS_ADD_EXISTING.get(
+                         m.getValues()[i], name));
+                  }
+                  else
+                  {
+                    addedValues.add(normalizedValues[i]);
+                    valuesToAdd.add(values[i]);
+                  }
+                }
+
+                if (! valuesToAdd.isEmpty())
+                {
+                  final byte[][] valueArray = new byte[valuesToAdd.size()][];
+                  e.addAttribute(new Attribute(name, e.schema,
+                       valuesToAdd.toArray(valueArray)));
+                }
+                break;
+              }
+            }
 
             for (int i=0; i < values.length; i++)
             {
@@ -2429,8 +2502,58 @@ public class Entry
                    name));
             }
           }
+          else if (lenient && (values.length > 1))
+          {
+            e.removeAttributeValues(name, values);
+          }
           else
           {
+            final Attribute existingAttr = e.getAttribute(name, e.schema);
+            if ((existingAttr != null) && (values.length > 1))
+            {
+              final MatchingRule mr = existingAttr.getMatchingRule();
+              final ASN1OctetString[] normalizedValues =
+                   normalizeModificationValues(mr, values);
+              if (normalizedValues != null)
+              {
+                // Use the normalized values to identify values that have
+                // already been removed so that all of the values can be
+                // removed at once, rather than rebuilding the attribute for
+                // each of them.
+                final HashSet<ASN1OctetString> removedValues = new HashSet<>(
+                     StaticUtils.computeMapCapacity(values.length));
+                final ArrayList<byte[]> valuesToRemove =
+                     new ArrayList<>(values.length);
+                for (int i=0; i < values.length; i++)
+                {
+                  if ((! removedValues.contains(normalizedValues[i])) &&
+                       existingAttr.hasValue(values[i], mr))
+                  {
+                    removedValues.add(normalizedValues[i]);
+                    valuesToRemove.add(values[i]);
+                  }
+                  else
+                  {
+                    if (resultCode == null)
+                    {
+                      resultCode = ResultCode.NO_SUCH_ATTRIBUTE;
+                    }
+                    errors.add(
+                         ERR_ENTRY_APPLY_MODS_DELETE_NONEXISTENT_VALUE.get(
+                              m.getValues()[i], name));
+                  }
+                }
+
+                if (! valuesToRemove.isEmpty())
+                {
+                  final byte[][] valueArray = new byte[valuesToRemove.size()][];
+                  e.removeAttributeValues(name,
+                       valuesToRemove.toArray(valueArray));
+                }
+                break;
+              }
+            }
+
             for (int i=0; i < values.length; i++)
             {
               final boolean removed = e.removeAttributeValue(name, values[i]);
@@ -2578,6 +2701,48 @@ public class Entry
 
 
 
+  /**
+   * Normalizes the provided set of modification values so that they can be
+   * compared using hash lookups.
+   *
+   * @param  matchingRule  The matching rule to use to normalize the values.
+   * @param  values        The values to be normalized.
+   *
+   * @return  The normalized representations of the provided values, in the
+   *          same order as the provided values, or {@code null} if the
+   *          provided matching rule does not allow values to be compared
+   *          using their normalized representations or if any of the values
+   *          cannot be normalized.
+   */
+  private static ASN1OctetString[] normalizeModificationValues(
+                                        final MatchingRule matchingRule,
+                                        final byte[][] values)
+  {
+    if (! CompiledFilter.supportsNormalizedBytes(matchingRule,
+         Filter.FILTER_TYPE_EQUALITY))
+    {
+      return null;
+    }
+
+    final ASN1OctetString[] normalizedValues =
+         new ASN1OctetString[values.length];
+    for (int i=0; i < values.length; i++)
+    {
+      final byte[] normalizedValue = CompiledFilter.normalize(matchingRule,
+           new ASN1OctetString(values[i]));
+      if (normalizedValue == null)
+      {
+        return null;
+      }
+
+      normalizedValues[i] = new ASN1OctetString(normalizedValue);
+    }
+
+    return normalizedValues;
+  }
+
+
+
   /**
    * Creates a duplicate of the provided entry with the appropriate changes for
    * a modify DN operation.  Any corresponding changes to the set of attribute
@@ -37,6 +37,8 @@ package com.unboundid.ldap.sdk;
 
 
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -47,15 +49,22 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.unboundid.asn1.ASN1OctetString;
 import com.unboundid.ldap.matchingrules.MatchingRule;
 import com.unboundid.ldap.sdk.controls.SortKey;
 import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.ldif.LDIFException;
+import com.unboundid.ldif.LDIFWriter;
 import com.unboundid.util.Debug;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
 
 
 
@@ -80,6 +89,17 @@ import com.unboundid.util.ThreadSafetyLevel;
  * If no {@code Schema} object is provided, then all ordering will be performed
  * using case-ignore string matching.
  * <BR><BR>
+ * For larger sets of entries, the {@link #sortToList} method may be used to
+ * sort entries with multiple threads, and the
+ * {@link #sort(EntrySource,int,File,int)} method may be used to sort entries
+ * from an {@link EntrySource} that may not all fit in memory at the same time.
+ * Both of these methods parse the DN and select and normalize the sort key
+ * values for each entry only once, rather than for each comparison.  They
+ * order any sort key value that cannot be normalized with the ordering
+ * matching rule (for example, a value that is not an integer when using
+ * integer ordering) after all other values, so that the ordering remains
+ * consistent.
+ * <BR><BR>
  * <H2>Example</H2>
  * The following example may be used to obtain a sorted set of search result
  * entries, ordered first by sn and then by givenName, without consideration for
@@ -105,6 +125,16 @@ public final class EntrySorter
 
 
 
+  /**
+   * The minimum number of entries that each thread should sort when sorting
+   * entries in parallel.  Smaller sets of entries will be sorted by a single
+   * thread, since the cost of coordinating multiple threads would outweigh
+   * the benefit.
+   */
+  private static final int MIN_ENTRIES_PER_SORT_THREAD = 4096;
+
+
+
   // Indicates whether entries should be sorted based on hierarchy.
   private final boolean sortByHierarchy;
 
@@ -235,6 +265,391 @@ public final class EntrySorter
 
 
 
+  /**
+   * Sorts the provided collection of entries according to the criteria defined
+   * in this entry sorter, using up to the specified number of threads.  Unlike
+   * the {@link #sort(Collection)} method, the list that is returned will
+   * include all of the provided entries, even if multiple entries have the
+   * same DN, and entries with an equivalent order will appear in the same
+   * relative order as in the provided collection.
+   *
+   * @param  entries     The collection of entries to be sorted.  It must not
+   *                     be {@code null}.
+   * @param  numThreads  The maximum number of threads to use to sort the
+   *                     entries.  A value less than or equal to one indicates
+   *                     that the entries should be sorted by the calling
+   *                     thread.
+   *
+   * @return  A list containing the sorted entries.
+   */
+  public List<Entry> sortToList(final Collection<? extends Entry> entries,
+                                final int numThreads)
+  {
+    Validator.ensureNotNull(entries);
+
+    final SortableEntryComparator comparator =
+         new SortableEntryComparator(sortByHierarchy, schema, sortKeys);
+    final SortableEntry[] sortableEntries = new SortableEntry[entries.size()];
+
+    int i = 0;
+    for (final Entry e : entries)
+    {
+      sortableEntries[i++] = comparator.createSortableEntry(e);
+    }
+
+    sortRun(sortableEntries, comparator, numThreads);
+
+    final ArrayList<Entry> sortedEntries = new ArrayList<>(i);
+    for (final SortableEntry e : sortableEntries)
+    {
+      sortedEntries.add(e.getEntry());
+    }
+
+    return sortedEntries;
+  }
+
+
+
+  /**
+   * Sorts the entries read from the provided entry source according to the
+   * criteria defined in this entry sorter.  All entries will be read from the
+   * provided entry source before this method returns, and that entry source
+   * will be closed.  Whenever the number of entries held in memory reaches
+   * the specified limit, those entries will be sorted and written to a
+   * temporary LDIF file, and the entry source that is returned will merge the
+   * sorted entries from each of those files.  Those files will be deleted
+   * when the returned entry source is closed, which will happen automatically
+   * once all entries have been read from it.
+   * <BR><BR>
+   * All of the entries read from the provided entry source will be returned,
+   * even if multiple entries have the same DN, and entries with an equivalent
+   * order will be returned in the same relative order as they were read.  Any
+   * entries that had to be written to a temporary file will be returned as
+   * {@link Entry} objects read from that file, so any additional information
+   * associated with them (for example, the controls in a
+   * {@link SearchResultEntry}) will not be preserved.
+   *
+   * @param  source              The entry source from which to read the
+   *                             entries to sort.  It must not be
+   *                             {@code null}.
+   * @param  maxEntriesInMemory  The maximum number of entries to hold in
+   *                             memory at any time while sorting.  It must be
+   *                             greater than zero.
+   * @param  tempDirectory       The directory in which to create temporary
+   *                             files.  It may be {@code null} if the default
+   *                             temporary directory should be used.
+   * @param  numThreads          The maximum number of threads to use to sort
+   *                             each set of entries held in memory.  A value
+   *                             less than or equal to one indicates that the
+   *                             entries should be sorted by the calling
+   *                             thread.
+   *
+   * @return  An entry source that may be used to retrieve the sorted entries.
+   *
+   * @throws  EntrySourceException  If a problem occurs while reading entries
+   *                                from the provided entry source, or while
+   *                                writing or reading any temporary files.
+   */
+  public EntrySource sort(final EntrySource source,
+                          final int maxEntriesInMemory,
+                          final File tempDirectory, final int numThreads)
+         throws EntrySourceException
+  {
+    Validator.ensureNotNull(source);
+    Validator.ensureTrue((maxEntriesInMemory > 0),
+         "EntrySorter.sort.maxEntriesInMemory must be greater than zero.");
+
+    final SortableEntryComparator comparator =
+         new SortableEntryComparator(sortByHierarchy, schema, sortKeys);
+    final List<File> runFiles = new ArrayList<>(10);
+    final ArrayList<SortableEntry> buffer =
+         new ArrayList<>(Math.min(maxEntriesInMemory, 10_000));
+
+    boolean successful = false;
+    try
+    {
+      while (true)
+      {
+        final Entry e;
+        try
+        {
+          e = source.nextEntry();
+        }
+        catch (final EntrySourceException ese)
+        {
+          Debug.debugException(ese);
+          if (ese.mayContinueReading())
+          {
+            // The provided entry source will be closed, so it will not be
+            // possible to continue reading from it.
+            throw new EntrySourceException(false, ese.getMessage(), ese);
+          }
+
+          throw ese;
+        }
+
+        if (e == null)
+        {
+          break;
+        }
+
+        buffer.add(comparator.createSortableEntry(e));
+        if (buffer.size() >= maxEntriesInMemory)
+        {
+          final SortableEntry[] run = new SortableEntry[buffer.size()];
+          buffer.toArray(run);
+          buffer.clear();
+
+          sortRun(run, comparator, numThreads);
+          runFiles.add(writeRun(run, tempDirectory));
+        }
+      }
+
+      final SortableEntry[] memoryRun = new SortableEntry[buffer.size()];
+      buffer.toArray(memoryRun);
+      buffer.clear();
+      sortRun(memoryRun, comparator, numThreads);
+
+      final SortedEntrySource sortedSource =
+           new SortedEntrySource(comparator, schema, runFiles, memoryRun);
+      successful = true;
+      return sortedSource;
+    }
+    catch (final IOException | LDIFException e)
+    {
+      Debug.debugException(e);
+      throw new EntrySourceException(false, e);
+    }
+    finally
+    {
+      source.close();
+
+      if (! successful)
+      {
+        for (final File f : runFiles)
+        {
+          if (f.exists() && (! f.delete()))
+          {
+            f.deleteOnExit();
+          }
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Writes the provided sorted run of entries to a new temporary LDIF file.
+   *
+   * @param  run            The sorted run of entries to write.
+   * @param  tempDirectory  The directory in which to create the file.  It may
+   *                        be {@code null} if the default temporary directory
+   *                        should be used.
+   *
+   * @return  The file to which the entries were written.
+   *
+   * @throws  IOException  If a problem occurs while writing the file.
+   */
+  private static File writeRun(final SortableEntry[] run,
+                               final File tempDirectory)
+          throws IOException
+  {
+    final File runFile =
+         File.createTempFile("ldapsdk-entry-sorter-", ".ldif", tempDirectory);
+
+    boolean successful = false;
+    try (LDIFWriter ldifWriter = new LDIFWriter(runFile))
+    {
+      for (int i=0; i < run.length; i++)
+      {
+        ldifWriter.writeEntry(run[i].getEntry());
+        run[i] = null;
+      }
+
+      successful = true;
+    }
+    finally
+    {
+      if ((! successful) && runFile.exists() && (! runFile.delete()))
+      {
+        runFile.deleteOnExit();
+      }
+    }
+
+    return runFile;
+  }
+
+
+
+  /**
+   * Sorts the provided array of entries in place.  If multiple threads may be
+   * used and there are enough entries, then separate portions of the array
+   * will be sorted concurrently and then merged, with pairs of portions merged
+   * concurrently until the entire array has been sorted.  The sort is stable,
+   * so entries with an equivalent order will retain their relative positions.
+   *
+   * @param  entries     The entries to be sorted.
+   * @param  comparator  The comparator to use to order the entries.
+   * @param  numThreads  The maximum number of threads to use.
+   */
+  private static void sortRun(final SortableEntry[] entries,
+                              final SortableEntryComparator comparator,
+                              final int numThreads)
+  {
+    final int numChunks = Math.min(numThreads,
+         (entries.length / MIN_ENTRIES_PER_SORT_THREAD));
+    if (numChunks <= 1)
+    {
+      Arrays.sort(entries, comparator);
+      return;
+    }
+
+    int[] bounds = new int[numChunks + 1];
+    for (int i=0; i <= numChunks; i++)
+    {
+      bounds[i] = (int) (((long) entries.length * i) / numChunks);
+    }
+
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(numChunks,
+         numChunks, 0L, TimeUnit.MILLISECONDS,
+         new LinkedBlockingQueue<Runnable>());
+    SortableEntry[] source = entries;
+    try
+    {
+      final List<Future<?>> futures = new ArrayList<>(numChunks);
+      for (int i=0; i < numChunks; i++)
+      {
+        final int from = bounds[i];
+        final int to = bounds[i+1];
+        futures.add(executor.submit(new Runnable()
+        {
+          @Override()
+          public void run()
+          {
+            Arrays.sort(entries, from, to, comparator);
+          }
+        }));
+      }
+      waitForAll(futures);
+
+      SortableEntry[] target = new SortableEntry[entries.length];
+      while ((bounds.length - 1) > 1)
+      {
+        final int numRuns = bounds.length - 1;
+        final int[] newBounds = new int[((numRuns + 1) / 2) + 1];
+        futures.clear();
+        for (int i=0; i < numRuns; i += 2)
+        {
+          final SortableEntry[] src = source;
+          final SortableEntry[] dest = target;
+          final int from = bounds[i];
+          final int mid = bounds[i+1];
+          final int to = bounds[Math.min(i+2, numRuns)];
+          newBounds[i/2] = from;
+          futures.add(executor.submit(new Runnable()
+          {
+            @Override()
+            public void run()
+            {
+              merge(src, from, mid, to, dest, comparator);
+            }
+          }));
+        }
+        newBounds[newBounds.length - 1] = entries.length;
+        waitForAll(futures);
+
+        bounds = newBounds;
+        final SortableEntry[] tmp = source;
+        source = target;
+        target = tmp;
+      }
+    }
+    catch (final Exception e)
+    {
+      // This should only happen if the thread was interrupted or there was an
+      // unexpected problem in one of the sort threads.  The source array will
+      // always hold all of the entries, so fall back to sorting it serially.
+      Debug.debugException(e);
+      if (e instanceof InterruptedException)
+      {
+        Thread.currentThread().interrupt();
+      }
+
+      Arrays.sort(source, comparator);
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    if (source != entries)
+    {
+      System.arraycopy(source, 0, entries, 0, entries.length);
+    }
+  }
+
+
+
+  /**
+   * Waits for all of the provided futures to complete.
+   *
+   * @param  futures  The futures for which to wait.
+   *
+   * @throws  Exception  If the thread is interrupted while waiting, or if any
+   *                     of the tasks failed.
+   */
+  private static void waitForAll(final List<Future<?>> futures)
+          throws Exception
+  {
+    for (final Future<?> f : futures)
+    {
+      f.get();
+    }
+  }
+
+
+
+  /**
+   * Merges two adjacent sorted ranges of the source array into the same
+   * positions of the target array.  If the second range is empty, then the
+   * first range will simply be copied.
+   *
+   * @param  source      The array containing the ranges to merge.
+   * @param  from        The index of the first element of the first range.
+   * @param  mid         The index of the first element of the second range.
+   * @param  to          The index after the last element of the second range.
+   * @param  target      The array into which the merged entries will be
+   *                     written.
+   * @param  comparator  The comparator to use to order the entries.
+   */
+  private static void merge(final SortableEntry[] source, final int from,
+                            final int mid, final int to,
+                            final SortableEntry[] target,
+                            final SortableEntryComparator comparator)
+  {
+    int left = from;
+    int right = mid;
+    int pos = from;
+    while ((left < mid) && (right < to))
+    {
+      if (comparator.compare(source[right], source[left]) < 0)
+      {
+        target[pos++] = source[right++];
+      }
+      else
+      {
+        target[pos++] = source[left++];
+      }
+    }
+
+    System.arraycopy(source, left, target, pos, (mid - left));
+    pos += (mid - left);
+    System.arraycopy(source, right, target, pos, (to - right));
+  }
+
+
+
   /**
    * Compares the provided entries to determine the order in which they should
    * be placed in a sorted list.
@@ -309,6 +724,33 @@ public final class EntrySorter
 
       final MatchingRule matchingRule = MatchingRule.selectOrderingMatchingRule(
            attrName, k.getMatchingRuleID(), schema);
+
+      // If the normalized values for both attributes are cached and the
+      // matching rule compares normalized values byte-for-byte, then use the
+      // cached values rather than normalizing values for each comparison.
+      final byte[] n1 =
+           selectNormalizedValue(a1, matchingRule, k.reverseOrder());
+      final byte[] n2 = (n1 == null) ? null :
+           selectNormalizedValue(a2, matchingRule, k.reverseOrder());
+      if (n2 != null)
+      {
+        final int value;
+        if (k.reverseOrder())
+        {
+          value = CompiledFilter.compareNormalizedValues(n2, n1);
+        }
+        else
+        {
+          value = CompiledFilter.compareNormalizedValues(n1, n2);
+        }
+
+        if (value != 0)
+        {
+          return value;
+        }
+        continue;
+      }
+
       if (k.reverseOrder())
       {
         // Find the largest value for each attribute, and pick the larger of the
@@ -465,6 +907,65 @@ public final class EntrySorter
 
 
 
+  /**
+   * Selects the smallest or largest cached normalized value for the provided
+   * attribute.
+   *
+   * @param  attribute     The attribute for which to select the value.
+   * @param  matchingRule  The ordering matching rule to use.
+   * @param  largest       Indicates whether to select the largest value rather
+   *                       than the smallest.
+   *
+   * @return  The selected normalized value, or {@code null} if normalized
+   *          values are not cached for the attribute, if any of the values
+   *          could not be normalized, or if the matching rule does not compare
+   *          normalized values byte-for-byte.
+   */
+  private static byte[] selectNormalizedValue(final Attribute attribute,
+                                              final MatchingRule matchingRule,
+                                              final boolean largest)
+  {
+    if (! CompiledFilter.supportsNormalizedBytes(matchingRule,
+         Filter.FILTER_TYPE_GREATER_OR_EQUAL))
+    {
+      return null;
+    }
+
+    final ASN1OctetString[] normalizedValues =
+         attribute.getNormalizedValues(matchingRule);
+    if (normalizedValues == null)
+    {
+      return null;
+    }
+
+    byte[] selectedValue = null;
+    for (final ASN1OctetString normalizedValue : normalizedValues)
+    {
+      if (normalizedValue == null)
+      {
+        return null;
+      }
+
+      final byte[] b = normalizedValue.getValue();
+      if (selectedValue == null)
+      {
+        selectedValue = b;
+      }
+      else
+      {
+        final int c = CompiledFilter.compareNormalizedValues(b, selectedValue);
+        if ((largest && (c > 0)) || ((! largest) && (c < 0)))
+        {
+          selectedValue = b;
+        }
+      }
+    }
+
+    return selectedValue;
+  }
+
+
+
   /**
    * Retrieves a hash code for this entry sorter.
    *
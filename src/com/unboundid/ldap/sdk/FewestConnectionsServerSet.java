@@ -667,11 +667,9 @@ public final class FewestConnectionsServerSet
 
 
   /**
-   * Retrieves the blacklist manager for this server set.
-   *
-   * @return  The blacklist manager for this server set, or {@code null} if no
-   *          blacklist will be maintained.
+   * {@inheritDoc}
    */
+  @Override()
   public ServerSetBlacklistManager getBlacklistManager()
   {
     return blacklistManager;
@@ -3356,7 +3356,7 @@ attrNameLoop:
 
         MatchingRule matchingRule =
              MatchingRule.selectEqualityMatchingRule(attrName, schema);
-        return matchingRule.matchesAnyValue(assertionValue, a.getRawValues());
+        return a.matchesAnyValue(assertionValue, matchingRule);
 
       case FILTER_TYPE_SUBSTRING:
         a = entry.getAttribute(attrName, schema);
@@ -3431,6 +3431,33 @@ attrNameLoop:
 
 
 
+  /**
+   * Creates a compiled representation of this filter that can be used to
+   * efficiently evaluate it against any number of entries.  The matching rules
+   * for each component are selected once, assertion values and substring
+   * components are normalized once where possible, and the components of AND
+   * and OR filters are re-ordered so that the least expensive components are
+   * evaluated first.  The compiled filter will yield the same results as the
+   * {@link #matchesEntry(Entry,Schema)} method with the same schema.
+   *
+   * @param  schema  The schema to use when evaluating the filter.  If this is
+   *                 {@code null}, then all matching will be performed using a
+   *                 case-ignore matching rule.
+   *
+   * @return  The compiled representation of this filter.
+   *
+   * @throws  LDAPException  If this filter contains an approximate or
+   *                         extensible match component, since neither type of
+   *                         matching is supported.
+   */
+  public CompiledFilter compile(final Schema schema)
+         throws LDAPException
+  {
+    return new CompiledFilter(this, schema);
+  }
+
+
+
   /**
    * Attempts to simplify the provided filter to allow it to be more efficiently
    * processed by the server.  The simplifications it will make include:
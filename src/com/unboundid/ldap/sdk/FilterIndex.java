@@ -0,0 +1,1244 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.MatchingRule;
+import com.unboundid.ldap.sdk.schema.AttributeTypeDefinition;
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.Debug;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a data structure that can be used to efficiently
+ * determine which of a potentially large set of filters match a given entry.
+ * Rather than evaluating every filter against every entry, each filter is
+ * decomposed into a set of simple predicates, at least one of which must be
+ * satisfied by any entry that the filter matches:
+ * <UL>
+ *   <LI>An equality component yields a predicate on the normalized assertion
+ *       value for the target attribute.</LI>
+ *   <LI>A substring component with a subInitial element yields a predicate on
+ *       the first few bytes of the normalized subInitial value for the target
+ *       attribute.</LI>
+ *   <LI>Presence, ordering, and other substring components yield a predicate
+ *       on the presence of the target attribute.</LI>
+ *   <LI>An AND filter yields the predicates of whichever of its components is
+ *       expected to be the most selective.</LI>
+ *   <LI>An OR filter yields the predicates of all of its components.</LI>
+ * </UL>
+ * These predicates are stored in inverted lookup tables, keyed by attribute
+ * type and normalized value, that map to the filters that could match.  When
+ * looking for the filters that match an entry, only the attributes and values
+ * contained in that entry are used to look up candidate filters, and only
+ * those candidates are evaluated, so the cost of processing an entry is
+ * generally proportional to the size of the entry and the number of filters
+ * that could plausibly match it, rather than the total number of filters in
+ * the index.  Filters that cannot be decomposed into any predicate (for
+ * example, a NOT filter, or an OR filter that includes a NOT component) will
+ * be evaluated against every entry.
+ * <BR><BR>
+ * Each filter is compiled with the {@link Filter#compile(Schema)} method when
+ * it is added to the index, using the schema provided when the index was
+ * created, and candidate filters are evaluated using the resulting
+ * {@link CompiledFilter}.  That schema is also used to determine the alternate
+ * names for each attribute.  Filters may be added to and removed from the
+ * index at any time, and the index may be safely used concurrently by multiple
+ * threads.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for using a filter index to
+ * route entries to the subscribers whose filters match them:
+ * <PRE>
+ *   FilterIndex filterIndex = new FilterIndex(schema);
+ *   for (Filter subscriptionFilter : subscriptions.keySet())
+ *   {
+ *     filterIndex.addFilter(subscriptionFilter);
+ *   }
+ *
+ *   for (Filter matchingFilter : filterIndex.getMatchingFilters(entry))
+ *   {
+ *     subscriptions.get(matchingFilter).notify(entry);
+ *   }
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class FilterIndex
+{
+  /**
+   * The maximum number of bytes from the normalized subInitial value that will
+   * be used to index substring components.
+   */
+  static final int SUBINITIAL_PREFIX_LENGTH = 3;
+
+
+
+  /**
+   * The predicate type used for attribute presence.
+   */
+  private static final int PREDICATE_TYPE_PRESENCE = 0;
+
+
+
+  /**
+   * The predicate type used for equality with a normalized value.
+   */
+  private static final int PREDICATE_TYPE_EQUALITY = 1;
+
+
+
+  /**
+   * The predicate type used for a normalized subInitial prefix.
+   */
+  private static final int PREDICATE_TYPE_SUBINITIAL = 2;
+
+
+
+  /**
+   * The comparator used to order matching filters in the order in which they
+   * were added to the index.
+   */
+  private static final Comparator<IndexedFilter> ORDER_COMPARATOR =
+       new Comparator<IndexedFilter>()
+       {
+         @Override()
+         public int compare(final IndexedFilter f1, final IndexedFilter f2)
+         {
+           return Long.compare(f1.sequenceNumber, f2.sequenceNumber);
+         }
+       };
+
+
+
+  // A cache that maps the names of attributes in entries to the canonical
+  // names used in the index.
+  private final ConcurrentHashMap<String,String> canonicalNames;
+
+  // The indexed filters, mapped from the filter to the indexed
+  // representation.
+  private final Map<Filter,IndexedFilter> filters;
+
+  // The filters that could not be decomposed into any predicate and must be
+  // evaluated against every entry.
+  private final Set<IndexedFilter> unindexedFilters;
+
+  // The per-attribute lookup tables, keyed by canonical attribute name.
+  private final Map<String,AttributeIndex> attributeIndexes;
+
+  // The sequence number to assign to the next filter added to the index.
+  private long nextSequenceNumber;
+
+  // The lock used to protect the index.
+  private final ReentrantReadWriteLock lock;
+
+  // The schema used to compile filters and resolve attribute names.
+  private final Schema schema;
+
+
+
+  /**
+   * Creates a new, empty filter index.
+   *
+   * @param  schema  The schema to use when compiling filters and resolving
+   *                 alternate attribute names.  It may be {@code null} if no
+   *                 schema is available, in which case all matching will be
+   *                 performed using a case-ignore matching rule.
+   */
+  public FilterIndex(final Schema schema)
+  {
+    this.schema = schema;
+
+    canonicalNames = new ConcurrentHashMap<>(StaticUtils.computeMapCapacity(
+         100));
+    filters = new LinkedHashMap<>(StaticUtils.computeMapCapacity(100));
+    unindexedFilters = new LinkedHashSet<>(StaticUtils.computeMapCapacity(10));
+    attributeIndexes = new HashMap<>(StaticUtils.computeMapCapacity(20));
+    nextSequenceNumber = 0L;
+    lock = new ReentrantReadWriteLock();
+  }
+
+
+
+  /**
+   * Retrieves the schema used to compile filters and resolve attribute names.
+   *
+   * @return  The schema used to compile filters and resolve attribute names,
+   *          or {@code null} if no schema is used.
+   */
+  public Schema getSchema()
+  {
+    return schema;
+  }
+
+
+
+  /**
+   * Adds the provided filter to this index.
+   *
+   * @param  filter  The filter to add.  It must not be {@code null}.
+   *
+   * @return  {@code true} if the filter was added, or {@code false} if the
+   *          index already contained an equivalent filter.
+   *
+   * @throws  LDAPException  If the filter cannot be compiled (for example,
+   *                         because it contains an approximate or extensible
+   *                         match component).
+   */
+  public boolean addFilter(final Filter filter)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(filter);
+
+    final CompiledFilter compiledFilter = filter.compile(schema);
+    final List<Predicate> predicates = getPredicates(filter);
+
+    lock.writeLock().lock();
+    try
+    {
+      if (filters.containsKey(filter))
+      {
+        return false;
+      }
+
+      final IndexedFilter indexedFilter = new IndexedFilter(compiledFilter,
+           predicates, nextSequenceNumber++);
+      filters.put(filter, indexedFilter);
+
+      if (predicates == null)
+      {
+        unindexedFilters.add(indexedFilter);
+      }
+      else
+      {
+        for (final Predicate p : predicates)
+        {
+          AttributeIndex attributeIndex =
+               attributeIndexes.get(p.attributeName);
+          if (attributeIndex == null)
+          {
+            attributeIndex = new AttributeIndex(p.equalityMatchingRule,
+                 p.substringMatchingRule);
+            attributeIndexes.put(p.attributeName, attributeIndex);
+          }
+
+          attributeIndex.add(p, indexedFilter);
+        }
+      }
+
+      return true;
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Removes the provided filter from this index.
+   *
+   * @param  filter  The filter to remove.  It must not be {@code null}.
+   *
+   * @return  {@code true} if the filter was removed, or {@code false} if the
+   *          index did not contain the filter.
+   */
+  public boolean removeFilter(final Filter filter)
+  {
+    Validator.ensureNotNull(filter);
+
+    lock.writeLock().lock();
+    try
+    {
+      final IndexedFilter indexedFilter = filters.remove(filter);
+      if (indexedFilter == null)
+      {
+        return false;
+      }
+
+      if (indexedFilter.predicates == null)
+      {
+        unindexedFilters.remove(indexedFilter);
+      }
+      else
+      {
+        for (final Predicate p : indexedFilter.predicates)
+        {
+          final AttributeIndex attributeIndex =
+               attributeIndexes.get(p.attributeName);
+          if (attributeIndex != null)
+          {
+            attributeIndex.remove(p, indexedFilter);
+            if (attributeIndex.isEmpty())
+            {
+              attributeIndexes.remove(p.attributeName);
+            }
+          }
+        }
+      }
+
+      return true;
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Indicates whether this index contains the provided filter.
+   *
+   * @param  filter  The filter for which to make the determination.  It must
+   *                 not be {@code null}.
+   *
+   * @return  {@code true} if this index contains the provided filter, or
+   *          {@code false} if not.
+   */
+  public boolean containsFilter(final Filter filter)
+  {
+    Validator.ensureNotNull(filter);
+
+    lock.readLock().lock();
+    try
+    {
+      return filters.containsKey(filter);
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the filters contained in this index, in the order in which they
+   * were added.
+   *
+   * @return  The filters contained in this index.
+   */
+  public List<Filter> getFilters()
+  {
+    lock.readLock().lock();
+    try
+    {
+      return Collections.unmodifiableList(new ArrayList<>(filters.keySet()));
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of filters contained in this index.
+   *
+   * @return  The number of filters contained in this index.
+   */
+  public int size()
+  {
+    lock.readLock().lock();
+    try
+    {
+      return filters.size();
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of filters in this index that could not be
+   * decomposed into any predicate and will therefore be evaluated against
+   * every entry.
+   *
+   * @return  The number of filters in this index that will be evaluated
+   *          against every entry.
+   */
+  public int getNumUnindexedFilters()
+  {
+    lock.readLock().lock();
+    try
+    {
+      return unindexedFilters.size();
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Removes all filters from this index.
+   */
+  public void clear()
+  {
+    lock.writeLock().lock();
+    try
+    {
+      filters.clear();
+      unindexedFilters.clear();
+      attributeIndexes.clear();
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the filters in this index that match the provided entry, in the
+   * order in which they were added to the index.  If an error occurs while
+   * evaluating a filter against the entry, then that filter will not be
+   * considered a match.
+   *
+   * @param  entry  The entry for which to retrieve the matching filters.  It
+   *                must not be {@code null}.
+   *
+   * @return  The filters in this index that match the provided entry.  It may
+   *          be empty but will not be {@code null}.
+   */
+  public List<Filter> getMatchingFilters(final Entry entry)
+  {
+    Validator.ensureNotNull(entry);
+
+    lock.readLock().lock();
+    try
+    {
+      final Set<IndexedFilter> candidates = getCandidates(entry);
+      if (candidates.isEmpty())
+      {
+        return Collections.emptyList();
+      }
+
+      final List<IndexedFilter> matchingFilters =
+           new ArrayList<>(candidates.size());
+      for (final IndexedFilter f : candidates)
+      {
+        try
+        {
+          if (f.compiledFilter.matchesEntry(entry))
+          {
+            matchingFilters.add(f);
+          }
+        }
+        catch (final LDAPException le)
+        {
+          Debug.debugException(le);
+        }
+      }
+
+      Collections.sort(matchingFilters, ORDER_COMPARATOR);
+
+      final List<Filter> matches = new ArrayList<>(matchingFilters.size());
+      for (final IndexedFilter f : matchingFilters)
+      {
+        matches.add(f.compiledFilter.getFilter());
+      }
+      return Collections.unmodifiableList(matches);
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the set of filters that could potentially match the provided
+   * entry.  The caller must hold the read lock.
+   *
+   * @param  entry  The entry for which to retrieve the candidate filters.
+   *
+   * @return  The set of filters that could potentially match the provided
+   *          entry.
+   */
+  private Set<IndexedFilter> getCandidates(final Entry entry)
+  {
+    final Set<IndexedFilter> candidates = new HashSet<>(unindexedFilters);
+    if (attributeIndexes.isEmpty())
+    {
+      return candidates;
+    }
+
+    for (final Attribute a : entry.getAttributes())
+    {
+      final AttributeIndex attributeIndex =
+           attributeIndexes.get(getCanonicalName(a.getName()));
+      if (attributeIndex != null)
+      {
+        attributeIndex.addCandidates(a, candidates);
+      }
+    }
+
+    return candidates;
+  }
+
+
+
+  /**
+   * Retrieves the canonical name that will be used in the index for the
+   * attribute with the provided name.  The canonical name is the lowercase OID
+   * of the attribute type if it is defined in the schema, or the lowercase
+   * name otherwise, followed by any attribute options.
+   *
+   * @param  attributeName  The attribute name for which to retrieve the
+   *                        canonical name.
+   *
+   * @return  The canonical name for the provided attribute name.
+   */
+  private String getCanonicalName(final String attributeName)
+  {
+    String canonicalName = canonicalNames.get(attributeName);
+    if (canonicalName != null)
+    {
+      return canonicalName;
+    }
+
+    final String baseName;
+    final String options;
+    final int semicolonPos = attributeName.indexOf(';');
+    if (semicolonPos > 0)
+    {
+      baseName = attributeName.substring(0, semicolonPos);
+      options = StaticUtils.toLowerCase(attributeName.substring(semicolonPos));
+    }
+    else
+    {
+      baseName = attributeName;
+      options = "";
+    }
+
+    AttributeTypeDefinition at = null;
+    if (schema != null)
+    {
+      at = schema.getAttributeType(baseName);
+    }
+
+    if (at == null)
+    {
+      canonicalName = StaticUtils.toLowerCase(baseName) + options;
+    }
+    else
+    {
+      canonicalName = StaticUtils.toLowerCase(at.getOID()) + options;
+    }
+
+    canonicalNames.putIfAbsent(attributeName, canonicalName);
+    return canonicalName;
+  }
+
+
+
+  /**
+   * Decomposes the provided filter into a list of predicates, at least one of
+   * which must be satisfied by any entry matched by the filter.
+   *
+   * @param  filter  The filter to decompose.
+   *
+   * @return  The list of predicates for the filter (which will be empty for a
+   *          filter that cannot match any entry), or {@code null} if the filter
+   *          cannot be decomposed into any predicate.
+   */
+  private List<Predicate> getPredicates(final Filter filter)
+  {
+    switch (filter.getFilterType())
+    {
+      case Filter.FILTER_TYPE_AND:
+        List<Predicate> bestPredicates = null;
+        int bestWeight = Integer.MAX_VALUE;
+        for (final Filter f : filter.getComponents())
+        {
+          final List<Predicate> predicates = getPredicates(f);
+          if (predicates == null)
+          {
+            continue;
+          }
+
+          int weight = 0;
+          for (final Predicate p : predicates)
+          {
+            weight += p.getWeight();
+          }
+
+          if (weight < bestWeight)
+          {
+            bestPredicates = predicates;
+            bestWeight = weight;
+          }
+        }
+        return bestPredicates;
+
+      case Filter.FILTER_TYPE_OR:
+        final List<Predicate> orPredicates = new ArrayList<>();
+        for (final Filter f : filter.getComponents())
+        {
+          final List<Predicate> predicates = getPredicates(f);
+          if (predicates == null)
+          {
+            return null;
+          }
+
+          for (final Predicate p : predicates)
+          {
+            if (! orPredicates.contains(p))
+            {
+              orPredicates.add(p);
+            }
+          }
+        }
+        return orPredicates;
+
+      case Filter.FILTER_TYPE_EQUALITY:
+        final String eqAttrName = filter.getAttributeName();
+        final MatchingRule eqRule =
+             MatchingRule.selectEqualityMatchingRule(eqAttrName, schema);
+        final MatchingRule eqSubRule =
+             MatchingRule.selectSubstringMatchingRule(eqAttrName, schema);
+        if (CompiledFilter.supportsNormalizedBytes(eqRule,
+             Filter.FILTER_TYPE_EQUALITY))
+        {
+          final byte[] normalizedValue = CompiledFilter.normalize(eqRule,
+               filter.getRawAssertionValue());
+          if (normalizedValue != null)
+          {
+            return Collections.singletonList(new Predicate(
+                 getCanonicalName(eqAttrName), PREDICATE_TYPE_EQUALITY,
+                 normalizedValue, eqRule, eqSubRule));
+          }
+        }
+        return Collections.singletonList(new Predicate(
+             getCanonicalName(eqAttrName), PREDICATE_TYPE_PRESENCE, null,
+             eqRule, eqSubRule));
+
+      case Filter.FILTER_TYPE_SUBSTRING:
+        final String subAttrName = filter.getAttributeName();
+        final MatchingRule subEqRule =
+             MatchingRule.selectEqualityMatchingRule(subAttrName, schema);
+        final MatchingRule subRule =
+             MatchingRule.selectSubstringMatchingRule(subAttrName, schema);
+        final ASN1OctetString subInitial = filter.getRawSubInitialValue();
+        if ((subInitial != null) &&
+            CompiledFilter.supportsNormalizedBytes(subRule,
+                 Filter.FILTER_TYPE_SUBSTRING))
+        {
+          final byte[] normalizedValue = CompiledFilter.normalizeSubstring(
+               subRule, subInitial, MatchingRule.SUBSTRING_TYPE_SUBINITIAL);
+          if ((normalizedValue != null) && (normalizedValue.length > 0))
+          {
+            final byte[] prefix = Arrays.copyOf(normalizedValue,
+                 Math.min(normalizedValue.length, SUBINITIAL_PREFIX_LENGTH));
+            return Collections.singletonList(new Predicate(
+                 getCanonicalName(subAttrName), PREDICATE_TYPE_SUBINITIAL,
+                 prefix, subEqRule, subRule));
+          }
+        }
+        return Collections.singletonList(new Predicate(
+             getCanonicalName(subAttrName), PREDICATE_TYPE_PRESENCE, null,
+             subEqRule, subRule));
+
+      case Filter.FILTER_TYPE_PRESENCE:
+      case Filter.FILTER_TYPE_GREATER_OR_EQUAL:
+      case Filter.FILTER_TYPE_LESS_OR_EQUAL:
+        final String attrName = filter.getAttributeName();
+        return Collections.singletonList(new Predicate(
+             getCanonicalName(attrName), PREDICATE_TYPE_PRESENCE, null,
+             MatchingRule.selectEqualityMatchingRule(attrName, schema),
+             MatchingRule.selectSubstringMatchingRule(attrName, schema)));
+
+      case Filter.FILTER_TYPE_NOT:
+      default:
+        return null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this filter index.
+   *
+   * @return  A string representation of this filter index.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this filter index to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    lock.readLock().lock();
+    try
+    {
+      buffer.append("FilterIndex(numFilters=");
+      buffer.append(filters.size());
+      buffer.append(", numUnindexedFilters=");
+      buffer.append(unindexedFilters.size());
+      buffer.append(", numIndexedAttributes=");
+      buffer.append(attributeIndexes.size());
+      buffer.append(')');
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+
+
+  /**
+   * This class provides a data structure that holds information about a
+   * filter in the index.
+   */
+  private static final class IndexedFilter
+  {
+    // The compiled representation of the filter.
+    private final CompiledFilter compiledFilter;
+
+    // The predicates for the filter, or null if it is unindexed.
+    private final List<Predicate> predicates;
+
+    // The sequence number assigned to the filter when it was added.
+    private final long sequenceNumber;
+
+
+
+    /**
+     * Creates a new indexed filter with the provided information.
+     *
+     * @param  compiledFilter  The compiled representation of the filter.
+     * @param  predicates      The predicates for the filter, or {@code null}
+     *                         if it is unindexed.
+     * @param  sequenceNumber  The sequence number assigned to the filter.
+     */
+    private IndexedFilter(final CompiledFilter compiledFilter,
+                          final List<Predicate> predicates,
+                          final long sequenceNumber)
+    {
+      this.compiledFilter = compiledFilter;
+      this.predicates = predicates;
+      this.sequenceNumber = sequenceNumber;
+    }
+  }
+
+
+
+  /**
+   * This class provides a data structure that represents a simple predicate
+   * on an attribute.
+   */
+  private static final class Predicate
+  {
+    // The normalized value for equality and subInitial predicates.
+    private final ValueKey value;
+
+    // The predicate type.
+    private final int predicateType;
+
+    // The matching rule to use to normalize values for equality predicates.
+    private final MatchingRule equalityMatchingRule;
+
+    // The matching rule to use to normalize values for subInitial predicates.
+    private final MatchingRule substringMatchingRule;
+
+    // The canonical name of the target attribute.
+    private final String attributeName;
+
+
+
+    /**
+     * Creates a new predicate with the provided information.
+     *
+     * @param  attributeName          The canonical name of the target
+     *                                attribute.
+     * @param  predicateType          The predicate type.
+     * @param  value                  The normalized value for equality and
+     *                                subInitial predicates.
+     * @param  equalityMatchingRule   The equality matching rule for the
+     *                                attribute.
+     * @param  substringMatchingRule  The substring matching rule for the
+     *                                attribute.
+     */
+    private Predicate(final String attributeName, final int predicateType,
+                      final byte[] value,
+                      final MatchingRule equalityMatchingRule,
+                      final MatchingRule substringMatchingRule)
+    {
+      this.attributeName = attributeName;
+      this.predicateType = predicateType;
+      this.equalityMatchingRule = equalityMatchingRule;
+      this.substringMatchingRule = substringMatchingRule;
+
+      if (value == null)
+      {
+        this.value = null;
+      }
+      else
+      {
+        this.value = new ValueKey(value, value.length);
+      }
+    }
+
+
+
+    /**
+     * Retrieves a weight for this predicate that reflects how many entries it
+     * is likely to match, with a smaller weight indicating a more selective
+     * predicate.
+     *
+     * @return  The weight for this predicate.
+     */
+    private int getWeight()
+    {
+      switch (predicateType)
+      {
+        case PREDICATE_TYPE_EQUALITY:
+          return 1;
+        case PREDICATE_TYPE_SUBINITIAL:
+          return 2;
+        case PREDICATE_TYPE_PRESENCE:
+        default:
+          return 4;
+      }
+    }
+
+
+
+    /**
+     * Retrieves a hash code for this predicate.
+     *
+     * @return  A hash code for this predicate.
+     */
+    @Override()
+    public int hashCode()
+    {
+      int hashCode = attributeName.hashCode() + predicateType;
+      if (value != null)
+      {
+        hashCode += value.hashCode();
+      }
+      return hashCode;
+    }
+
+
+
+    /**
+     * Indicates whether the provided object is equal to this predicate.
+     *
+     * @param  o  The object for which to make the determination.
+     *
+     * @return  {@code true} if the provided object is equal to this predicate,
+     *          or {@code false} if not.
+     */
+    @Override()
+    public boolean equals(final Object o)
+    {
+      if (o == this)
+      {
+        return true;
+      }
+
+      if (! (o instanceof Predicate))
+      {
+        return false;
+      }
+
+      final Predicate p = (Predicate) o;
+      if ((predicateType != p.predicateType) ||
+          (! attributeName.equals(p.attributeName)))
+      {
+        return false;
+      }
+
+      if (value == null)
+      {
+        return (p.value == null);
+      }
+      else
+      {
+        return value.equals(p.value);
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides the lookup tables for a single attribute type.
+   */
+  private static final class AttributeIndex
+  {
+    // The filters with a presence predicate on the attribute.
+    private final Set<IndexedFilter> presenceFilters;
+
+    // The filters with an equality predicate on the attribute, keyed by
+    // normalized value.
+    private final Map<ValueKey,Set<IndexedFilter>> equalityFilters;
+
+    // The filters with a subInitial predicate on the attribute, keyed by
+    // normalized prefix.
+    private final Map<ValueKey,Set<IndexedFilter>> subInitialFilters;
+
+    // The matching rule to use to normalize values for equality lookups.
+    private final MatchingRule equalityMatchingRule;
+
+    // The matching rule to use to normalize values for subInitial lookups.
+    private final MatchingRule substringMatchingRule;
+
+
+
+    /**
+     * Creates a new, empty attribute index.
+     *
+     * @param  equalityMatchingRule   The equality matching rule for the
+     *                                attribute.
+     * @param  substringMatchingRule  The substring matching rule for the
+     *                                attribute.
+     */
+    private AttributeIndex(final MatchingRule equalityMatchingRule,
+                           final MatchingRule substringMatchingRule)
+    {
+      this.equalityMatchingRule = equalityMatchingRule;
+      this.substringMatchingRule = substringMatchingRule;
+
+      presenceFilters = new HashSet<>(StaticUtils.computeMapCapacity(10));
+      equalityFilters = new HashMap<>(StaticUtils.computeMapCapacity(10));
+      subInitialFilters = new HashMap<>(StaticUtils.computeMapCapacity(10));
+    }
+
+
+
+    /**
+     * Adds the provided filter to this index for the given predicate.
+     *
+     * @param  predicate  The predicate for which to add the filter.
+     * @param  filter     The filter to add.
+     */
+    private void add(final Predicate predicate, final IndexedFilter filter)
+    {
+      switch (predicate.predicateType)
+      {
+        case PREDICATE_TYPE_EQUALITY:
+          add(equalityFilters, predicate.value, filter);
+          break;
+        case PREDICATE_TYPE_SUBINITIAL:
+          add(subInitialFilters, predicate.value, filter);
+          break;
+        case PREDICATE_TYPE_PRESENCE:
+        default:
+          presenceFilters.add(filter);
+          break;
+      }
+    }
+
+
+
+    /**
+     * Adds the provided filter to the given map.
+     *
+     * @param  map     The map to update.
+     * @param  key     The key with which to associate the filter.
+     * @param  filter  The filter to add.
+     */
+    private static void add(final Map<ValueKey,Set<IndexedFilter>> map,
+                            final ValueKey key, final IndexedFilter filter)
+    {
+      Set<IndexedFilter> filterSet = map.get(key);
+      if (filterSet == null)
+      {
+        filterSet = new HashSet<>(StaticUtils.computeMapCapacity(5));
+        map.put(key, filterSet);
+      }
+
+      filterSet.add(filter);
+    }
+
+
+
+    /**
+     * Removes the provided filter from this index for the given predicate.
+     *
+     * @param  predicate  The predicate for which to remove the filter.
+     * @param  filter     The filter to remove.
+     */
+    private void remove(final Predicate predicate, final IndexedFilter filter)
+    {
+      switch (predicate.predicateType)
+      {
+        case PREDICATE_TYPE_EQUALITY:
+          remove(equalityFilters, predicate.value, filter);
+          break;
+        case PREDICATE_TYPE_SUBINITIAL:
+          remove(subInitialFilters, predicate.value, filter);
+          break;
+        case PREDICATE_TYPE_PRESENCE:
+        default:
+          presenceFilters.remove(filter);
+          break;
+      }
+    }
+
+
+
+    /**
+     * Removes the provided filter from the given map.
+     *
+     * @param  map     The map to update.
+     * @param  key     The key with which the filter is associated.
+     * @param  filter  The filter to remove.
+     */
+    private static void remove(final Map<ValueKey,Set<IndexedFilter>> map,
+                               final ValueKey key, final IndexedFilter filter)
+    {
+      final Set<IndexedFilter> filterSet = map.get(key);
+      if (filterSet != null)
+      {
+        filterSet.remove(filter);
+        if (filterSet.isEmpty())
+        {
+          map.remove(key);
+        }
+      }
+    }
+
+
+
+    /**
+     * Indicates whether this attribute index is empty.
+     *
+     * @return  {@code true} if this attribute index is empty, or
+     *          {@code false} if not.
+     */
+    private boolean isEmpty()
+    {
+      return (presenceFilters.isEmpty() && equalityFilters.isEmpty() &&
+           subInitialFilters.isEmpty());
+    }
+
+
+
+    /**
+     * Adds the filters in this index that could match the provided attribute
+     * to the given set.
+     *
+     * @param  attribute   The attribute to examine.
+     * @param  candidates  The set to which the candidates should be added.
+     */
+    private void addCandidates(final Attribute attribute,
+                               final Set<IndexedFilter> candidates)
+    {
+      candidates.addAll(presenceFilters);
+
+      if (! equalityFilters.isEmpty())
+      {
+        for (final ASN1OctetString v : attribute.getRawValues())
+        {
+          final byte[] normalizedValue =
+               CompiledFilter.normalize(equalityMatchingRule, v);
+          if (normalizedValue != null)
+          {
+            final Set<IndexedFilter> filterSet = equalityFilters.get(
+                 new ValueKey(normalizedValue, normalizedValue.length));
+            if (filterSet != null)
+            {
+              candidates.addAll(filterSet);
+            }
+          }
+        }
+      }
+
+      if (! subInitialFilters.isEmpty())
+      {
+        for (final ASN1OctetString v : attribute.getRawValues())
+        {
+          final byte[] normalizedValue =
+               CompiledFilter.normalize(substringMatchingRule, v);
+          if (normalizedValue != null)
+          {
+            final int maxLength =
+                 Math.min(normalizedValue.length, SUBINITIAL_PREFIX_LENGTH);
+            for (int length=1; length <= maxLength; length++)
+            {
+              final Set<IndexedFilter> filterSet = subInitialFilters.get(
+                   new ValueKey(normalizedValue, length));
+              if (filterSet != null)
+              {
+                candidates.addAll(filterSet);
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a hash key for a prefix of a byte array.
+   */
+  private static final class ValueKey
+  {
+    // The byte array.
+    private final byte[] bytes;
+
+    // The hash code for this key.
+    private final int hashCode;
+
+    // The number of bytes from the array to include in the key.
+    private final int length;
+
+
+
+    /**
+     * Creates a new value key with the provided information.
+     *
+     * @param  bytes   The byte array.
+     * @param  length  The number of bytes from the array to include in the
+     *                 key.
+     */
+    private ValueKey(final byte[] bytes, final int length)
+    {
+      this.bytes = bytes;
+      this.length = length;
+
+      int h = 1;
+      for (int i=0; i < length; i++)
+      {
+        h = (31 * h) + bytes[i];
+      }
+      hashCode = h;
+    }
+
+
+
+    /**
+     * Retrieves a hash code for this key.
+     *
+     * @return  A hash code for this key.
+     */
+    @Override()
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+
+
+    /**
+     * Indicates whether the provided object is equal to this key.
+     *
+     * @param  o  The object for which to make the determination.
+     *
+     * @return  {@code true} if the provided object is equal to this key, or
+     *          {@code false} if not.
+     */
+    @Override()
+    public boolean equals(final Object o)
+    {
+      if (o == this)
+      {
+        return true;
+      }
+
+      if (! (o instanceof ValueKey))
+      {
+        return false;
+      }
+
+      final ValueKey k = (ValueKey) o;
+      if ((length != k.length) || (hashCode != k.hashCode))
+      {
+        return false;
+      }
+
+      for (int i=0; i < length; i++)
+      {
+        if (bytes[i] != k.bytes[i])
+        {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.LatencyHistogramSnapshot;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides an {@link LDAPOperationTracer} implementation that
+ * aggregates the durations of each phase of operation processing into
+ * in-memory latency histograms.  A histogram is maintained for each
+ * {@link OperationTracePhase} across all types of operations, and a separate
+ * histogram is maintained for each combination of phase and operation type.
+ * These histograms can be used to determine how much of the overall response
+ * time (and in particular, how much of the tail latency) is attributable to
+ * each layer of processing.
+ * <BR><BR>
+ * A single instance of this class may be shared across any number of
+ * connections and connection pools.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for using an in-memory
+ * operation tracer to determine the 99th percentile time spent waiting for
+ * responses to search requests:
+ * <PRE>
+ *   InMemoryLDAPOperationTracer tracer = new InMemoryLDAPOperationTracer();
+ *   LDAPConnectionOptions options = new LDAPConnectionOptions();
+ *   options.setOperationTracer(tracer);
+ *   LDAPConnection connection =
+ *        new LDAPConnection(options, "ldap.example.com", 389);
+ *
+ *   // Process some operations.
+ *
+ *   long p99WaitNanos = tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+ *        OperationType.SEARCH).get99thPercentileNanos();
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class InMemoryLDAPOperationTracer
+       extends LDAPOperationTracer
+{
+  /**
+   * The number of histograms maintained for each phase:  one for each
+   * operation type, plus one for phases that are not associated with any
+   * operation type.
+   */
+  private static final int HISTOGRAMS_PER_PHASE =
+       OperationType.values().length + 1;
+
+
+
+  // The histograms for each phase across all operation types, indexed by the
+  // ordinal of the phase.
+  private final LatencyHistogram[] phaseHistograms;
+
+  // The histograms for each combination of phase and operation type.  They
+  // will be created the first time a duration is recorded for that
+  // combination.
+  private final AtomicReferenceArray<LatencyHistogram>
+       phaseOperationHistograms;
+
+
+
+  /**
+   * Creates a new in-memory operation tracer.
+   */
+  public InMemoryLDAPOperationTracer()
+  {
+    final OperationTracePhase[] phases = OperationTracePhase.values();
+    phaseHistograms = new LatencyHistogram[phases.length];
+    for (int i=0; i < phaseHistograms.length; i++)
+    {
+      phaseHistograms[i] = new LatencyHistogram();
+    }
+
+    phaseOperationHistograms = new AtomicReferenceArray<>(
+         phases.length * HISTOGRAMS_PER_PHASE);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void phaseCompleted(final LDAPConnectionInfo connectionInfo,
+                             final OperationType operationType,
+                             final int messageID,
+                             final OperationTracePhase phase,
+                             final long startNanos, final long endNanos)
+  {
+    final long durationNanos = endNanos - startNanos;
+    phaseHistograms[phase.ordinal()].record(durationNanos);
+
+    final int index = getIndex(phase, operationType);
+    LatencyHistogram histogram = phaseOperationHistograms.get(index);
+    if (histogram == null)
+    {
+      histogram = new LatencyHistogram();
+      if (! phaseOperationHistograms.compareAndSet(index, null, histogram))
+      {
+        histogram = phaseOperationHistograms.get(index);
+      }
+    }
+
+    histogram.record(durationNanos);
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the histogram of durations for the specified phase
+   * across all types of operations.
+   *
+   * @param  phase  The phase for which to retrieve the histogram.  It must not
+   *                be {@code null}.
+   *
+   * @return  A snapshot of the histogram of durations for the specified phase.
+   */
+  public LatencyHistogramSnapshot getHistogram(final OperationTracePhase phase)
+  {
+    return phaseHistograms[phase.ordinal()].getSnapshot();
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the histogram of durations for the specified phase
+   * of the specified type of operation.
+   *
+   * @param  phase          The phase for which to retrieve the histogram.  It
+   *                        must not be {@code null}.
+   * @param  operationType  The operation type for which to retrieve the
+   *                        histogram.  It may be {@code null} to retrieve the
+   *                        histogram for phases that were not associated with
+   *                        any operation type (for example, connection
+   *                        checkouts).
+   *
+   * @return  A snapshot of the histogram of durations for the specified phase
+   *          of the specified type of operation.
+   */
+  public LatencyHistogramSnapshot getHistogram(final OperationTracePhase phase,
+                                       final OperationType operationType)
+  {
+    final LatencyHistogram histogram =
+         phaseOperationHistograms.get(getIndex(phase, operationType));
+    if (histogram == null)
+    {
+      return new LatencyHistogram(1).getSnapshot();
+    }
+    else
+    {
+      return histogram.getSnapshot();
+    }
+  }
+
+
+
+  /**
+   * Clears all of the durations recorded by this tracer.  Any durations
+   * recorded while the reset is in progress may or may not be retained.
+   */
+  public void reset()
+  {
+    for (final LatencyHistogram h : phaseHistograms)
+    {
+      h.reset();
+    }
+
+    for (int i=0; i < phaseOperationHistograms.length(); i++)
+    {
+      final LatencyHistogram h = phaseOperationHistograms.get(i);
+      if (h != null)
+      {
+        h.reset();
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the index into the phase and operation histogram array for the
+   * provided phase and operation type.
+   *
+   * @param  phase          The phase for which to retrieve the index.
+   * @param  operationType  The operation type for which to retrieve the index.
+   *                        It may be {@code null}.
+   *
+   * @return  The index into the phase and operation histogram array.
+   */
+  private static int getIndex(final OperationTracePhase phase,
+                              final OperationType operationType)
+  {
+    final int base = phase.ordinal() * HISTOGRAMS_PER_PHASE;
+    if (operationType == null)
+    {
+      return base;
+    }
+    else
+    {
+      return base + operationType.ordinal() + 1;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this in-memory operation tracer,
+   * which includes a summary of the durations recorded for each phase.
+   *
+   * @return  A string representation of this in-memory operation tracer.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this in-memory operation tracer, which
+   * includes a summary of the durations recorded for each phase, to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("InMemoryLDAPOperationTracer(");
+
+    final OperationTracePhase[] phases = OperationTracePhase.values();
+    for (int i=0; i < phases.length; i++)
+    {
+      if (i > 0)
+      {
+        buffer.append(", ");
+      }
+
+      buffer.append(phases[i].getName());
+      buffer.append('=');
+      phaseHistograms[i].getSnapshot().toString(buffer);
+    }
+
+    buffer.append(')');
+  }
+}
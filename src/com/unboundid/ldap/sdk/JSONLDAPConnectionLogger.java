@@ -68,6 +68,20 @@ import com.unboundid.util.json.JSONBuffer;
 /**
  * This class provides an implementation of an LDAP connection access logger
  * that records messages as JSON objects.
+ * <BR><BR>
+ * By default, messages are formatted and written to the log handler by the
+ * thread that generates them.  The logger may also be configured (using the
+ * {@link JSONLDAPConnectionLoggerProperties#setAsynchronousQueueSize} method)
+ * to hand formatted messages off to a background thread that writes them to
+ * the handler in batches, which can substantially reduce the latency that
+ * logging adds to each operation.  If messages are written asynchronously,
+ * then the {@link #close} method should be called when the logger is no longer
+ * needed.
+ * <BR><BR>
+ * The logger may also be configured to log only a sample of operations of a
+ * given type (using the
+ * {@link JSONLDAPConnectionLoggerProperties#setOperationSampleRate} method),
+ * which can help keep detailed logging enabled under heavy load.
  */
 @NotMutable()
 @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
@@ -91,6 +105,13 @@ public final class JSONLDAPConnectionLogger
 
 
 
+  /**
+   * The number of distinct values used when making sampling decisions.
+   */
+  private static final int SAMPLE_RESOLUTION = 65_536;
+
+
+
   // Indicates whether to flush the handler after logging information about each
   // successful for failed connection attempt.
   private final boolean flushAfterConnectMessages;
@@ -162,9 +183,34 @@ public final class JSONLDAPConnectionLogger
   // Indicates whether to log search result references.
   private final boolean logSearchReferences;
 
+  // The fraction of operations of each type that should be logged, indexed by
+  // the ordinal of the operation type.
+  private final double[] operationSampleRates;
+
+  // The maximum number of messages to write to the log handler in a single
+  // batch when writing asynchronously.
+  private final int asynchronousBatchSize;
+
+  // The maximum number of messages that may be queued for writing by a
+  // background thread, or zero if messages are written synchronously.
+  private final int asynchronousQueueSize;
+
+  // The thresholds used to make sampling decisions for each type of operation,
+  // indexed by the ordinal of the operation type.
+  private final int[] sampleThresholds;
+
   // The log handler that will be used to actually log the messages.
   private final Handler logHandler;
 
+  // The background thread that will be used to write messages
+  // asynchronously, if appropriate.
+  private final JSONLDAPConnectionLoggerBackgroundWriter backgroundWriter;
+
+  // The behavior to exhibit when the queue of messages to write asynchronously
+  // is full.
+  private final JSONLDAPConnectionLoggerQueueFullBehavior
+       asynchronousQueueFullBehavior;
+
   // The schema to use for identifying alternate attribute type names.
   private final Schema schema;
 
@@ -225,8 +271,23 @@ public final class JSONLDAPConnectionLogger
     logFinalResults = properties.logFinalResults();
     logSearchEntries = properties.logSearchEntries();
     logSearchReferences = properties.logSearchReferences();
+    asynchronousBatchSize = properties.getAsynchronousBatchSize();
+    asynchronousQueueSize = properties.getAsynchronousQueueSize();
+    asynchronousQueueFullBehavior =
+         properties.getAsynchronousQueueFullBehavior();
     schema = properties.getSchema();
 
+    final OperationType[] allOpTypes = OperationType.values();
+    operationSampleRates = new double[allOpTypes.length];
+    sampleThresholds = new int[allOpTypes.length];
+    for (final OperationType t : allOpTypes)
+    {
+      final double rate = properties.getOperationSampleRate(t);
+      operationSampleRates[t.ordinal()] = rate;
+      sampleThresholds[t.ordinal()] =
+           (int) Math.round(rate * SAMPLE_RESOLUTION);
+    }
+
     attributesToRedact = Collections.unmodifiableSet(new LinkedHashSet<>(
          properties.getAttributesToRedact()));
 
@@ -257,6 +318,17 @@ public final class JSONLDAPConnectionLogger
     }
 
     fullAttributesToRedact = Collections.unmodifiableSet(fullAttrsToRedact);
+
+    if (asynchronousQueueSize > 0)
+    {
+      backgroundWriter = new JSONLDAPConnectionLoggerBackgroundWriter(
+           logHandler, asynchronousQueueSize, asynchronousBatchSize,
+           asynchronousQueueFullBehavior);
+    }
+    else
+    {
+      backgroundWriter = null;
+    }
   }
 
 
@@ -609,6 +681,127 @@ public final class JSONLDAPConnectionLogger
 
 
 
+  /**
+   * Retrieves the fraction of operations of the specified type for which
+   * messages will be logged.  Sampling decisions are made per operation, so
+   * either all or none of the messages for a given operation will be logged.
+   * All operations will be logged by default.
+   *
+   * @param  operationType  The operation type for which to retrieve the sample
+   *                        rate.  It must not be {@code null}.
+   *
+   * @return  The fraction of operations of the specified type for which
+   *          messages will be logged, as a value between 0.0 and 1.0.
+   */
+  public double getOperationSampleRate(final OperationType operationType)
+  {
+    return operationSampleRates[operationType.ordinal()];
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of messages that may be held in a queue to be
+   * written to the log handler by a background thread.  Messages will be
+   * written synchronously by default.
+   *
+   * @return  The maximum number of messages that may be held in a queue to be
+   *          written by a background thread, or zero if messages are written
+   *          synchronously.
+   */
+  public int getAsynchronousQueueSize()
+  {
+    return asynchronousQueueSize;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of messages that the background thread will
+   * write to the log handler before flushing it.  This will only be used if
+   * messages are written asynchronously.
+   *
+   * @return  The maximum number of messages that the background thread will
+   *          write to the log handler in a single batch.
+   */
+  public int getAsynchronousBatchSize()
+  {
+    return asynchronousBatchSize;
+  }
+
+
+
+  /**
+   * Retrieves the behavior that the logger will exhibit if messages are
+   * written asynchronously and the queue is full.
+   *
+   * @return  The behavior that the logger will exhibit if messages are written
+   *          asynchronously and the queue is full.
+   */
+  public JSONLDAPConnectionLoggerQueueFullBehavior
+              getAsynchronousQueueFullBehavior()
+  {
+    return asynchronousQueueFullBehavior;
+  }
+
+
+
+  /**
+   * Retrieves the number of messages that have been dropped because they were
+   * to be written asynchronously, the queue was full, and the queue full
+   * behavior is {@code DROP}.
+   *
+   * @return  The number of messages that have been dropped.
+   */
+  public long getNumDroppedMessages()
+  {
+    if (backgroundWriter == null)
+    {
+      return 0L;
+    }
+    else
+    {
+      return backgroundWriter.getNumDroppedMessages();
+    }
+  }
+
+
+
+  /**
+   * Stops the background thread used to write messages asynchronously, after
+   * waiting for it to write any messages that have already been queued.  Any
+   * messages logged after this method has been called will be written
+   * synchronously.  This method has no effect if messages are written
+   * synchronously.  It does not close the log handler.
+   */
+  public void close()
+  {
+    if (backgroundWriter != null)
+    {
+      backgroundWriter.stopRunning();
+      logHandler.flush();
+    }
+  }
+
+
+
+  /**
+   * Stops the background thread used to write messages asynchronously in the
+   * event that this logger becomes unreferenced without having been closed.
+   *
+   * @throws  Throwable  If an unexpected problem occurs.
+   */
+  @Override()
+  protected void finalize()
+            throws Throwable
+  {
+    super.finalize();
+
+    close();
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -703,7 +896,8 @@ public final class JSONLDAPConnectionLogger
                                 final int messageIDToAbandon,
                                 final List<Control> requestControls)
   {
-    if (logRequests && operationTypes.contains(OperationType.ABANDON))
+    if (logRequests && shouldLog(OperationType.ABANDON, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.ABANDON, connectionInfo, messageID);
@@ -725,7 +919,8 @@ public final class JSONLDAPConnectionLogger
                             final int messageID,
                             final ReadOnlyAddRequest addRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.ADD))
+    if (logRequests && shouldLog(OperationType.ADD, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.ADD, connectionInfo, messageID);
@@ -768,7 +963,8 @@ public final class JSONLDAPConnectionLogger
                              final int messageID,
                              final SimpleBindRequest bindRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.BIND))
+    if (logRequests && shouldLog(OperationType.BIND, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.BIND, connectionInfo, messageID);
@@ -792,7 +988,8 @@ public final class JSONLDAPConnectionLogger
                              final int messageID,
                              final SASLBindRequest bindRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.BIND))
+    if (logRequests && shouldLog(OperationType.BIND, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.BIND, connectionInfo, messageID);
@@ -830,7 +1027,8 @@ public final class JSONLDAPConnectionLogger
                                 final int messageID,
                                 final ReadOnlyCompareRequest compareRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.COMPARE))
+    if (logRequests && shouldLog(OperationType.COMPARE, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.COMPARE, connectionInfo, messageID);
@@ -880,7 +1078,8 @@ public final class JSONLDAPConnectionLogger
                                final int messageID,
                                final ReadOnlyDeleteRequest deleteRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.DELETE))
+    if (logRequests && shouldLog(OperationType.DELETE, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.DELETE, connectionInfo, messageID);
@@ -916,7 +1115,8 @@ public final class JSONLDAPConnectionLogger
                                  final int messageID,
                                  final ExtendedRequest extendedRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.EXTENDED))
+    if (logRequests && shouldLog(OperationType.EXTENDED, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.EXTENDED, connectionInfo, messageID);
@@ -954,7 +1154,8 @@ public final class JSONLDAPConnectionLogger
                                final int messageID,
                                final ReadOnlyModifyRequest modifyRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.MODIFY))
+    if (logRequests && shouldLog(OperationType.MODIFY, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.MODIFY, connectionInfo, messageID);
@@ -1055,7 +1256,8 @@ public final class JSONLDAPConnectionLogger
                                  final int messageID,
                                  final ReadOnlyModifyDNRequest modifyDNRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.MODIFY_DN))
+    if (logRequests && shouldLog(OperationType.MODIFY_DN, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.MODIFY_DN, connectionInfo, messageID);
@@ -1100,7 +1302,8 @@ public final class JSONLDAPConnectionLogger
                                final int messageID,
                                final ReadOnlySearchRequest searchRequest)
   {
-    if (logRequests && operationTypes.contains(OperationType.SEARCH))
+    if (logRequests && shouldLog(OperationType.SEARCH, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.SEARCH, connectionInfo, messageID);
@@ -1140,7 +1343,8 @@ public final class JSONLDAPConnectionLogger
                              final int requestMessageID,
                              final SearchResultEntry searchEntry)
   {
-    if (logSearchEntries && operationTypes.contains(OperationType.SEARCH))
+    if (logSearchEntries && shouldLog(OperationType.SEARCH, connectionInfo,
+         requestMessageID))
     {
       final JSONBuffer buffer = startLogMessage("search-entry",
            OperationType.SEARCH, connectionInfo, requestMessageID);
@@ -1170,7 +1374,8 @@ public final class JSONLDAPConnectionLogger
                                  final int requestMessageID,
                                  final SearchResultReference searchReference)
   {
-    if (logSearchReferences && operationTypes.contains(OperationType.SEARCH))
+    if (logSearchReferences && shouldLog(OperationType.SEARCH, connectionInfo,
+         requestMessageID))
     {
       final JSONBuffer buffer = startLogMessage("search-reference",
            OperationType.SEARCH, connectionInfo, requestMessageID);
@@ -1212,7 +1417,8 @@ public final class JSONLDAPConnectionLogger
                                final int messageID,
                                final List<Control> requestControls)
   {
-    if (logRequests && operationTypes.contains(OperationType.UNBIND))
+    if (logRequests && shouldLog(OperationType.UNBIND, connectionInfo,
+         messageID))
     {
       final JSONBuffer buffer = startLogMessage("request",
            OperationType.UNBIND, connectionInfo, messageID);
@@ -1752,7 +1958,8 @@ public final class JSONLDAPConnectionLogger
                              final OperationType operationType,
                              final int messageID, final LDAPResult result)
   {
-    if (logFinalResults && operationTypes.contains(operationType))
+    if (logFinalResults &&
+        shouldLog(operationType, connectionInfo, messageID))
     {
       final JSONBuffer buffer = startLogMessage("result", operationType,
            connectionInfo, messageID);
@@ -1812,9 +2019,58 @@ public final class JSONLDAPConnectionLogger
 
 
 
+  /**
+   * Indicates whether messages should be logged for the specified operation.
+   * The operation type must be included in the set of operation types to log,
+   * and the operation must be selected by the sample rate for that type.  The
+   * sampling decision is based on a hash of the connection ID and message ID,
+   * so that the same decision will be made for every message associated with
+   * the operation.
+   *
+   * @param  operationType   The operation type for the operation.  It must not
+   *                         be {@code null}.
+   * @param  connectionInfo  Information about the connection on which the
+   *                         operation is processed.  It must not be
+   *                         {@code null}.
+   * @param  messageID       The message ID for the operation.
+   *
+   * @return  {@code true} if messages should be logged for the specified
+   *          operation, or {@code false} if not.
+   */
+  private boolean shouldLog(final OperationType operationType,
+                            final LDAPConnectionInfo connectionInfo,
+                            final int messageID)
+  {
+    if (! operationTypes.contains(operationType))
+    {
+      return false;
+    }
+
+    final int threshold = sampleThresholds[operationType.ordinal()];
+    if (threshold >= SAMPLE_RESOLUTION)
+    {
+      return true;
+    }
+    else if (threshold <= 0)
+    {
+      return false;
+    }
+
+    long hash = (connectionInfo.getConnectionID() * 0x9E3779B97F4A7C15L) ^
+         (messageID * 0xC2B2AE3D27D4EB4FL);
+    hash ^= (hash >>> 29);
+    hash *= 0xBF58476D1CE4E5B9L;
+    hash ^= (hash >>> 32);
+    return ((hash & (SAMPLE_RESOLUTION - 1)) < threshold);
+  }
+
+
+
   /**
    * Finalizes the message and writes it to the log handler, optionally flushing
-   * the handler after the message has been written.
+   * the handler after the message has been written.  If messages are written
+   * asynchronously, then the message will be queued for the background thread
+   * to write.
    *
    * @param  buffer        The buffer containing the message to be written.
    * @param  flushHandler  Indicates whether to flush the handler after the
@@ -1824,7 +2080,14 @@ public final class JSONLDAPConnectionLogger
   {
     buffer.endObject();
 
-    logHandler.publish(new LogRecord(Level.INFO, buffer.toString()));
+    final String message = buffer.toString();
+    if ((backgroundWriter != null) &&
+        backgroundWriter.enqueue(message, flushHandler))
+    {
+      return;
+    }
+
+    logHandler.publish(new LogRecord(Level.INFO, message));
 
     if (flushHandler)
     {
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import com.unboundid.util.Debug;
+
+
+
+/**
+ * This class defines a background thread that will be used by a
+ * {@link JSONLDAPConnectionLogger} to write messages to its log handler
+ * asynchronously.  Threads logging messages add them to a bounded,
+ * array-based ring buffer that does not require any locking, and this thread
+ * removes them from the buffer and writes them to the handler in batches,
+ * flushing the handler at most once per batch.
+ * <BR><BR>
+ * The ring buffer uses a per-slot sequence number to coordinate between any
+ * number of producers and the single consumer.  A producer claims a slot by
+ * advancing the enqueue position, stores its message, and then publishes the
+ * slot by updating its sequence number.  The consumer only reads a slot after
+ * it has been published, and releases it for reuse by advancing its sequence
+ * number by the capacity of the buffer.
+ * <BR><BR>
+ * The thread is started when the first message is added to the queue.  When
+ * it is stopped, any thread that is in the process of adding a message is
+ * allowed to finish, and every message that was added to the queue is written
+ * before the stop completes.  Messages logged after that are written
+ * synchronously by the threads that log them.
+ */
+final class JSONLDAPConnectionLoggerBackgroundWriter
+      extends Thread
+{
+  /**
+   * The maximum length of time in nanoseconds that the writer will sleep when
+   * there are no messages to write.
+   */
+  private static final long IDLE_SLEEP_NANOS =
+       TimeUnit.MILLISECONDS.toNanos(100L);
+
+
+
+  /**
+   * The length of time in nanoseconds that a thread will sleep before trying
+   * again to add a message to a full queue when the queue full behavior is
+   * {@code BLOCK}.
+   */
+  private static final long BLOCKED_SLEEP_NANOS =
+       TimeUnit.MICROSECONDS.toNanos(100L);
+
+
+
+  // Indicates whether a flush has been requested for a message that has been
+  // added to the queue since the handler was last flushed.
+  private final AtomicBoolean flushRequested;
+
+  // Indicates whether the thread has been started.
+  private final AtomicBoolean started;
+
+  // The number of threads that are currently in the process of adding a
+  // message to the queue.
+  private final AtomicInteger numActiveProducers;
+
+  // The position at which the next message will be added to the queue.
+  private final AtomicLong enqueuePosition;
+
+  // The number of messages that have been dropped because the queue was full.
+  private final AtomicLong numDroppedMessages;
+
+  // The sequence numbers for each of the slots in the queue.
+  private final AtomicLongArray sequences;
+
+  // The slots used to hold the messages in the queue.
+  private final AtomicReferenceArray<String> slots;
+
+  // Indicates whether the writer is sleeping because the queue is empty.
+  private volatile boolean sleeping;
+
+  // Indicates whether a request has been made to stop the writer.
+  private volatile boolean stopRequested;
+
+  // The log handler to which messages will be written.
+  private final Handler logHandler;
+
+  // The lock used to ensure that only one thread at a time attempts to stop
+  // the writer.
+  private final Object stopLock;
+
+  // The maximum number of messages to write before flushing the handler.
+  private final int batchSize;
+
+  // The mask used to map a position to a slot in the queue.
+  private final int mask;
+
+  // The behavior to exhibit if the queue is full.
+  private final JSONLDAPConnectionLoggerQueueFullBehavior queueFullBehavior;
+
+  // The position from which the next message will be removed from the queue.
+  // It is only accessed by the writer thread.
+  private long dequeuePosition;
+
+
+
+  /**
+   * Creates a new background writer with the provided settings.  The thread
+   * will not be started until the first message is added to the queue.
+   *
+   * @param  logHandler         The log handler to which messages will be
+   *                            written.  It must not be {@code null}.
+   * @param  queueSize          The maximum number of messages that may be held
+   *                            in the queue.  It must be greater than zero,
+   *                            and it will be rounded up to the next power of
+   *                            two.
+   * @param  batchSize          The maximum number of messages to write before
+   *                            flushing the handler.  It must be greater than
+   *                            zero.
+   * @param  queueFullBehavior  The behavior to exhibit if the queue is full.
+   *                            It must not be {@code null}.
+   */
+  JSONLDAPConnectionLoggerBackgroundWriter(final Handler logHandler,
+       final int queueSize, final int batchSize,
+       final JSONLDAPConnectionLoggerQueueFullBehavior queueFullBehavior)
+  {
+    setName("JSONLDAPConnectionLogger Background Writer");
+    setDaemon(true);
+
+    this.logHandler = logHandler;
+    this.batchSize = batchSize;
+    this.queueFullBehavior = queueFullBehavior;
+
+    int capacity = 1;
+    while (capacity < queueSize)
+    {
+      capacity <<= 1;
+    }
+
+    mask = capacity - 1;
+    slots = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i=0; i < capacity; i++)
+    {
+      sequences.set(i, i);
+    }
+
+    flushRequested = new AtomicBoolean(false);
+    started = new AtomicBoolean(false);
+    stopLock = new Object();
+    numActiveProducers = new AtomicInteger(0);
+    enqueuePosition = new AtomicLong(0L);
+    numDroppedMessages = new AtomicLong(0L);
+    dequeuePosition = 0L;
+    sleeping = false;
+    stopRequested = false;
+  }
+
+
+
+  /**
+   * Adds the provided message to the queue so that it will be written by this
+   * thread, starting the thread if necessary.  If the queue is full, then the
+   * message will either be dropped or this method will wait for space to
+   * become available, based on the configured queue full behavior.
+   *
+   * @param  message  The message to be written.  It must not be {@code null}.
+   * @param  flush    Indicates whether the handler should be flushed after the
+   *                  message has been written.
+   *
+   * @return  {@code true} if the message was added to the queue or dropped, or
+   *          {@code false} if this writer has been stopped and the caller
+   *          should write the message itself.
+   */
+  boolean enqueue(final String message, final boolean flush)
+  {
+    // Register as an active producer before checking for a stop request.  The
+    // stopRunning method sets the flag before waiting for active producers to
+    // finish, so either this thread will see the request, or the stopping
+    // thread will wait for this message to be published.
+    numActiveProducers.incrementAndGet();
+    try
+    {
+      if (stopRequested)
+      {
+        return false;
+      }
+
+      if ((! started.get()) && started.compareAndSet(false, true))
+      {
+        start();
+      }
+
+      while (! offer(message))
+      {
+        if (stopRequested)
+        {
+          return false;
+        }
+
+        if (queueFullBehavior ==
+             JSONLDAPConnectionLoggerQueueFullBehavior.DROP)
+        {
+          numDroppedMessages.incrementAndGet();
+          return true;
+        }
+
+        LockSupport.parkNanos(BLOCKED_SLEEP_NANOS);
+      }
+
+      // Set the flush flag only after the message has been added so that the
+      // writer cannot flush before writing it and then clear the flag.
+      if (flush && (! flushRequested.get()))
+      {
+        flushRequested.set(true);
+      }
+
+      if (sleeping)
+      {
+        LockSupport.unpark(this);
+      }
+
+      return true;
+    }
+    finally
+    {
+      numActiveProducers.decrementAndGet();
+    }
+  }
+
+
+
+  /**
+   * Attempts to add the provided message to the queue without waiting.
+   *
+   * @param  message  The message to be added.
+   *
+   * @return  {@code true} if the message was added, or {@code false} if the
+   *          queue was full.
+   */
+  private boolean offer(final String message)
+  {
+    long position = enqueuePosition.get();
+    while (true)
+    {
+      final int index = (int) (position & mask);
+      final long difference = sequences.get(index) - position;
+      if (difference == 0L)
+      {
+        if (enqueuePosition.compareAndSet(position, (position + 1L)))
+        {
+          slots.set(index, message);
+          sequences.set(index, (position + 1L));
+          return true;
+        }
+
+        position = enqueuePosition.get();
+      }
+      else if (difference < 0L)
+      {
+        return false;
+      }
+      else
+      {
+        position = enqueuePosition.get();
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves the next message from the queue without waiting.  This must only
+   * be called by the writer thread.
+   *
+   * @return  The next message from the queue, or {@code null} if the queue is
+   *          empty.
+   */
+  private String poll()
+  {
+    final int index = (int) (dequeuePosition & mask);
+    if (sequences.get(index) != (dequeuePosition + 1L))
+    {
+      return null;
+    }
+
+    final String message = slots.get(index);
+    slots.set(index, null);
+    sequences.set(index, (dequeuePosition + mask + 1L));
+    dequeuePosition++;
+    return message;
+  }
+
+
+
+  /**
+   * Writes messages from the queue to the log handler until a request is made
+   * to stop and all messages have been written.
+   */
+  @Override()
+  public void run()
+  {
+    while (true)
+    {
+      if (writeBatch() == 0)
+      {
+        if (stopRequested)
+        {
+          return;
+        }
+
+        sleeping = true;
+        final int index = (int) (dequeuePosition & mask);
+        if (sequences.get(index) != (dequeuePosition + 1L))
+        {
+          LockSupport.parkNanos(this, IDLE_SLEEP_NANOS);
+        }
+        sleeping = false;
+      }
+    }
+  }
+
+
+
+  /**
+   * Writes up to one batch of messages from the queue to the log handler, and
+   * flushes the handler if that has been requested.
+   *
+   * @return  The number of messages that were written.
+   */
+  private int writeBatch()
+  {
+    int numWritten = 0;
+    while (numWritten < batchSize)
+    {
+      final String message = poll();
+      if (message == null)
+      {
+        break;
+      }
+
+      try
+      {
+        logHandler.publish(new LogRecord(Level.INFO, message));
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+
+      numWritten++;
+    }
+
+    if (flushRequested.get())
+    {
+      flushRequested.set(false);
+
+      try
+      {
+        logHandler.flush();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    return numWritten;
+  }
+
+
+
+  /**
+   * Retrieves the number of messages that have been dropped because the queue
+   * was full.
+   *
+   * @return  The number of messages that have been dropped because the queue
+   *          was full.
+   */
+  long getNumDroppedMessages()
+  {
+    return numDroppedMessages.get();
+  }
+
+
+
+  /**
+   * Indicates that this writer should stop running once it has written all
+   * messages that have already been added to the queue, and waits for it to
+   * stop.  Any subsequent attempts to add messages will be rejected so that
+   * the caller can write them directly.
+   */
+  void stopRunning()
+  {
+    synchronized (stopLock)
+    {
+      stopRequested = true;
+      LockSupport.unpark(this);
+
+      // Wait for any threads that were adding messages when the stop was
+      // requested.  Once they are done, every slot that has been claimed has
+      // also been published, and no more slots will be claimed.
+      while (numActiveProducers.get() > 0)
+      {
+        LockSupport.parkNanos(BLOCKED_SLEEP_NANOS);
+      }
+
+      try
+      {
+        join();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+
+        if (e instanceof InterruptedException)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      // Write any messages that the writer thread did not get to, up to the
+      // last claimed position.  Now that the writer thread has exited (or was
+      // never started), it is safe for this thread to act as the consumer.
+      if (! isAlive())
+      {
+        final long claimedPosition = enqueuePosition.get();
+        while (dequeuePosition < claimedPosition)
+        {
+          if (writeBatch() == 0)
+          {
+            LockSupport.parkNanos(BLOCKED_SLEEP_NANOS);
+          }
+        }
+      }
+    }
+  }
+}
@@ -40,9 +40,11 @@ package com.unboundid.ldap.sdk;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import com.unboundid.ldap.sdk.schema.Schema;
@@ -51,6 +53,7 @@ import com.unboundid.util.Mutable;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
 
 
 
@@ -141,6 +144,23 @@ public final class JSONLDAPConnectionLoggerProperties
   // Indicates whether to log search result references.
   private boolean logSearchReferences;
 
+  // The maximum number of messages to write to the log handler in a single
+  // batch when writing asynchronously.
+  private int asynchronousBatchSize;
+
+  // The maximum number of messages that may be queued for writing by a
+  // background thread, or zero if messages should be written synchronously.
+  private int asynchronousQueueSize;
+
+  // The behavior to exhibit when the queue of messages to write asynchronously
+  // is full.
+  private JSONLDAPConnectionLoggerQueueFullBehavior
+       asynchronousQueueFullBehavior;
+
+  // The fraction of operations of each type that should be logged.  Operation
+  // types that are not included in the map will always be logged.
+  private final Map<OperationType,Double> operationSampleRates;
+
   // The schema to use for identifying alternate attribute type names.
   private Schema schema;
 
@@ -177,7 +197,12 @@ public final class JSONLDAPConnectionLoggerProperties
     logFinalResults = true;
     logSearchEntries = false;
     logSearchReferences = false;
+    asynchronousBatchSize = 100;
+    asynchronousQueueSize = 0;
+    asynchronousQueueFullBehavior =
+         JSONLDAPConnectionLoggerQueueFullBehavior.BLOCK;
     operationTypes = EnumSet.allOf(OperationType.class);
+    operationSampleRates = new EnumMap<>(OperationType.class);
 
     try
     {
@@ -231,11 +256,17 @@ public final class JSONLDAPConnectionLoggerProperties
     logFinalResults = properties.logFinalResults;
     logSearchEntries = properties.logSearchEntries;
     logSearchReferences = properties.logSearchReferences;
+    asynchronousBatchSize = properties.asynchronousBatchSize;
+    asynchronousQueueSize = properties.asynchronousQueueSize;
+    asynchronousQueueFullBehavior = properties.asynchronousQueueFullBehavior;
     schema = properties.schema;
     attributesToRedact = new LinkedHashSet<>(properties.attributesToRedact);
 
     operationTypes = EnumSet.noneOf(OperationType.class);
     operationTypes.addAll(properties.operationTypes);
+
+    operationSampleRates = new EnumMap<>(OperationType.class);
+    operationSampleRates.putAll(properties.operationSampleRates);
   }
 
 
@@ -272,11 +303,24 @@ public final class JSONLDAPConnectionLoggerProperties
     logFinalResults = logger.logFinalResults();
     logSearchEntries = logger.logSearchEntries();
     logSearchReferences = logger.logSearchReferences();
+    asynchronousBatchSize = logger.getAsynchronousBatchSize();
+    asynchronousQueueSize = logger.getAsynchronousQueueSize();
+    asynchronousQueueFullBehavior = logger.getAsynchronousQueueFullBehavior();
     schema = logger.getSchema();
     attributesToRedact = new LinkedHashSet<>(logger.getAttributesToRedact());
 
     operationTypes = EnumSet.noneOf(OperationType.class);
     operationTypes.addAll(logger.getOperationTypes());
+
+    operationSampleRates = new EnumMap<>(OperationType.class);
+    for (final OperationType t : OperationType.values())
+    {
+      final double rate = logger.getOperationSampleRate(t);
+      if (rate < 1.0d)
+      {
+        operationSampleRates.put(t, rate);
+      }
+    }
   }
 
 
@@ -992,6 +1036,188 @@ public final class JSONLDAPConnectionLoggerProperties
 
 
 
+  /**
+   * Retrieves the fraction of operations of the specified type for which
+   * messages should be logged.  Sampling decisions are made per operation, so
+   * either all or none of the messages for a given operation (the request, any
+   * search result entries or references, and the final result) will be logged.
+   * Connect and disconnect messages are not subject to sampling.  All
+   * operations will be logged by default.
+   *
+   * @param  operationType  The operation type for which to retrieve the sample
+   *                        rate.  It must not be {@code null}.
+   *
+   * @return  The fraction of operations of the specified type for which
+   *          messages should be logged, as a value between 0.0 and 1.0.
+   */
+  public double getOperationSampleRate(final OperationType operationType)
+  {
+    final Double rate = operationSampleRates.get(operationType);
+    if (rate == null)
+    {
+      return 1.0d;
+    }
+    else
+    {
+      return rate;
+    }
+  }
+
+
+
+  /**
+   * Specifies the fraction of operations of the specified type for which
+   * messages should be logged.  This will only be used for operation types
+   * included in the set returned by the {@link #getOperationTypes} method.
+   *
+   * @param  operationType  The operation type for which to set the sample
+   *                        rate.  It must not be {@code null}.
+   * @param  sampleRate     The fraction of operations of the specified type
+   *                        for which messages should be logged.  It must be
+   *                        between 0.0 and 1.0, inclusive.  A value of 1.0
+   *                        indicates that all operations of that type should
+   *                        be logged.
+   */
+  public void setOperationSampleRate(final OperationType operationType,
+                                     final double sampleRate)
+  {
+    Validator.ensureNotNull(operationType);
+    Validator.ensureTrue(((sampleRate >= 0.0d) && (sampleRate <= 1.0d)),
+         "JSONLDAPConnectionLoggerProperties.sampleRate must be between 0.0 " +
+              "and 1.0.");
+
+    if (sampleRate >= 1.0d)
+    {
+      operationSampleRates.remove(operationType);
+    }
+    else
+    {
+      operationSampleRates.put(operationType, sampleRate);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of messages that may be held in a queue to be
+   * written to the log handler by a background thread.  A value of zero
+   * indicates that messages will be written synchronously by the thread that
+   * generates them, which is the default behavior.
+   * <BR><BR>
+   * When messages are written asynchronously, they will still be formatted by
+   * the thread that generates them (so that they accurately reflect the state
+   * of the connection and operation at the time), but the work of writing them
+   * to the handler and flushing it will be performed by a background thread.
+   * The background thread will write messages in batches and will flush the
+   * handler at most once per batch.  The logger's {@code close} method should
+   * be called when it is no longer needed so that the background thread can
+   * be stopped.
+   *
+   * @return  The maximum number of messages that may be held in a queue to be
+   *          written by a background thread, or zero if messages should be
+   *          written synchronously.
+   */
+  public int getAsynchronousQueueSize()
+  {
+    return asynchronousQueueSize;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of messages that may be held in a queue to be
+   * written to the log handler by a background thread.
+   *
+   * @param  asynchronousQueueSize  The maximum number of messages that may be
+   *                                held in a queue to be written by a
+   *                                background thread.  A value of zero
+   *                                indicates that messages should be written
+   *                                synchronously.  It must not be negative,
+   *                                and a positive value will be rounded up to
+   *                                the next power of two.
+   */
+  public void setAsynchronousQueueSize(final int asynchronousQueueSize)
+  {
+    Validator.ensureTrue((asynchronousQueueSize >= 0),
+         "JSONLDAPConnectionLoggerProperties.asynchronousQueueSize must not " +
+              "be negative.");
+
+    this.asynchronousQueueSize = asynchronousQueueSize;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of messages that the background thread will
+   * write to the log handler before flushing it (if any of those messages
+   * should cause a flush).  This will only be used if messages are written
+   * asynchronously.  The default batch size is 100.
+   *
+   * @return  The maximum number of messages that the background thread will
+   *          write to the log handler in a single batch.
+   */
+  public int getAsynchronousBatchSize()
+  {
+    return asynchronousBatchSize;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of messages that the background thread will
+   * write to the log handler before flushing it.
+   *
+   * @param  asynchronousBatchSize  The maximum number of messages that the
+   *                                background thread will write to the log
+   *                                handler in a single batch.  It must be
+   *                                greater than zero.
+   */
+  public void setAsynchronousBatchSize(final int asynchronousBatchSize)
+  {
+    Validator.ensureTrue((asynchronousBatchSize > 0),
+         "JSONLDAPConnectionLoggerProperties.asynchronousBatchSize must be " +
+              "greater than zero.");
+
+    this.asynchronousBatchSize = asynchronousBatchSize;
+  }
+
+
+
+  /**
+   * Retrieves the behavior that the logger will exhibit if messages are
+   * written asynchronously and the queue is full.  By default, threads will
+   * block until space is available in the queue.
+   *
+   * @return  The behavior that the logger will exhibit if messages are written
+   *          asynchronously and the queue is full.
+   */
+  public JSONLDAPConnectionLoggerQueueFullBehavior
+              getAsynchronousQueueFullBehavior()
+  {
+    return asynchronousQueueFullBehavior;
+  }
+
+
+
+  /**
+   * Specifies the behavior that the logger will exhibit if messages are
+   * written asynchronously and the queue is full.
+   *
+   * @param  asynchronousQueueFullBehavior  The behavior that the logger will
+   *                                        exhibit if the queue is full.  It
+   *                                        must not be {@code null}.
+   */
+  public void setAsynchronousQueueFullBehavior(
+       final JSONLDAPConnectionLoggerQueueFullBehavior
+            asynchronousQueueFullBehavior)
+  {
+    Validator.ensureNotNull(asynchronousQueueFullBehavior);
+
+    this.asynchronousQueueFullBehavior = asynchronousQueueFullBehavior;
+  }
+
+
+
   /**
    * Retrieves the schema that will be used to identify alternate names and OIDs
    * for attributes whose values should be redacted.  The LDAP SDK's default
@@ -1117,6 +1343,40 @@ public final class JSONLDAPConnectionLoggerProperties
     buffer.append(flushAfterFinalResultMessages);
     buffer.append(", flushAfterNonFinalResultMessages");
     buffer.append(flushAfterNonFinalResultMessages);
+
+    if (! operationSampleRates.isEmpty())
+    {
+      buffer.append(", operationSampleRates={");
+
+      final Iterator<Map.Entry<OperationType,Double>> sampleRateIterator =
+           operationSampleRates.entrySet().iterator();
+      while (sampleRateIterator.hasNext())
+      {
+        final Map.Entry<OperationType,Double> e = sampleRateIterator.next();
+        buffer.append(e.getKey().toString());
+        buffer.append('=');
+        buffer.append(e.getValue());
+
+        if (sampleRateIterator.hasNext())
+        {
+          buffer.append(',');
+        }
+      }
+
+      buffer.append('}');
+    }
+
+    buffer.append(", asynchronousQueueSize=");
+    buffer.append(asynchronousQueueSize);
+
+    if (asynchronousQueueSize > 0)
+    {
+      buffer.append(", asynchronousBatchSize=");
+      buffer.append(asynchronousBatchSize);
+      buffer.append(", asynchronousQueueFullBehavior=");
+      buffer.append(asynchronousQueueFullBehavior.getName());
+    }
+
     buffer.append(')');
   }
 }
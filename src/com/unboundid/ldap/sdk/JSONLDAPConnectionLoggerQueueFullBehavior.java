@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This enum defines the behaviors that a {@link JSONLDAPConnectionLogger} may
+ * exhibit when it is configured to write messages asynchronously and its queue
+ * of messages waiting to be written is full.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public enum JSONLDAPConnectionLoggerQueueFullBehavior
+{
+  /**
+   * Indicates that the message should be discarded so that the thread
+   * attempting to log it is not delayed.  The logger will keep a count of the
+   * number of messages that have been dropped.
+   */
+  DROP("drop"),
+
+
+
+  /**
+   * Indicates that the thread attempting to log the message should wait until
+   * space becomes available in the queue.  No messages will be lost, but
+   * operation processing may be delayed if messages are logged faster than
+   * they can be written.
+   */
+  BLOCK("block");
+
+
+
+  // The name for this queue full behavior.
+  private final String name;
+
+
+
+  /**
+   * Creates a new queue full behavior with the provided name.
+   *
+   * @param  name  The name for this queue full behavior.
+   */
+  JSONLDAPConnectionLoggerQueueFullBehavior(final String name)
+  {
+    this.name = name;
+  }
+
+
+
+  /**
+   * Retrieves the name for this queue full behavior.
+   *
+   * @return  The name for this queue full behavior.
+   */
+  public String getName()
+  {
+    return name;
+  }
+
+
+
+  /**
+   * Retrieves the queue full behavior with the specified name.
+   *
+   * @param  name  The name of the queue full behavior to retrieve.  It must
+   *               not be {@code null}.
+   *
+   * @return  The requested queue full behavior, or {@code null} if no such
+   *          behavior is defined.
+   */
+  public static JSONLDAPConnectionLoggerQueueFullBehavior forName(
+                     final String name)
+  {
+    switch (StaticUtils.toLowerCase(name))
+    {
+      case "drop":
+        return DROP;
+      case "block":
+        return BLOCK;
+      default:
+        return null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this queue full behavior.
+   *
+   * @return  A string representation of this queue full behavior.
+   */
+  @Override()
+  public String toString()
+  {
+    return name;
+  }
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.FixedRateBarrier;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadLocalRandom;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+import static com.unboundid.ldap.sdk.LDAPMessages.*;
+
+
+
+/**
+ * This class provides a mechanism for limiting the rate at which connections
+ * are established, which can help prevent a storm of connection attempts when
+ * a large number of connections need to be re-established at the same time
+ * (for example, when connection pools fail over after a directory server is
+ * restarted).  It provides two kinds of protection:
+ * <UL>
+ *   <LI>A limit on the total number of connection attempts that may be made
+ *       per second.  Attempts that would exceed this limit will be delayed
+ *       until they are allowed.</LI>
+ *   <LI>An exponential backoff with random jitter for each server.  After a
+ *       failed attempt to establish a connection to a server, subsequent
+ *       attempts to connect to that server will be delayed for a period of
+ *       time that grows with the number of consecutive failures, and a
+ *       successful attempt resets the backoff.  The random jitter prevents
+ *       many clients from retrying at the same instant.  If the remaining
+ *       backoff for a server is longer than the connect timeout, then the
+ *       attempt will fail immediately so that a server set can move on to
+ *       another server.</LI>
+ * </UL>
+ * A throttle is associated with connections through the
+ * {@link LDAPConnectionOptions#setConnectThrottle} method.  To limit the rate
+ * of connection attempts across an entire application, the same throttle
+ * instance should be used in all of the connection options that the
+ * application uses.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for creating a connection
+ * pool whose connections will be established at a rate of no more than 50 per
+ * second:
+ * <PRE>
+ * LDAPConnectThrottle throttle = new LDAPConnectThrottle(50);
+ * LDAPConnectionOptions options = new LDAPConnectionOptions();
+ * options.setConnectThrottle(throttle);
+ *
+ * RoundRobinServerSet serverSet =
+ *      new RoundRobinServerSet(addresses, ports, options);
+ * LDAPConnectionPool pool = new LDAPConnectionPool(serverSet, bindRequest,
+ *      100);
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LDAPConnectThrottle
+       implements Serializable
+{
+  /**
+   * The default length of time, in milliseconds, that attempts to connect to a
+   * server will be delayed after the first failed attempt.
+   */
+  public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 100L;
+
+
+
+  /**
+   * The default maximum length of time, in milliseconds, that attempts to
+   * connect to a server will be delayed after a failed attempt.
+   */
+  public static final long DEFAULT_MAX_BACKOFF_MILLIS = 30_000L;
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 5309870361645823194L;
+
+
+
+  // The number of connection attempts that have been allowed.
+  private final AtomicLong numConnectAttempts;
+
+  // The number of connection attempts that were delayed because of the backoff
+  // for the target server.
+  private final AtomicLong numConnectAttemptsDelayed;
+
+  // The number of connection attempts that were rejected because the backoff
+  // for the target server was longer than the connect timeout.
+  private final AtomicLong numConnectAttemptsRejected;
+
+  // The backoff state for servers with at least one recent failed connection
+  // attempt, keyed by the host and port of the server.
+  private final ConcurrentHashMap<String,ServerBackoff> backoffs;
+
+  // The barrier used to limit the rate of connection attempts.  It will be
+  // null if no rate limit should be enforced.
+  private final FixedRateBarrier rateBarrier;
+
+  // The maximum number of connection attempts that may be made per second.
+  private final int maxConnectAttemptsPerSecond;
+
+  // The length of time, in milliseconds, that attempts to connect to a server
+  // will be delayed after the first failed attempt.
+  private final long initialBackoffMillis;
+
+  // The maximum length of time, in milliseconds, that attempts to connect to a
+  // server will be delayed after a failed attempt.
+  private final long maxBackoffMillis;
+
+
+
+  /**
+   * Creates a new connect throttle with the provided rate limit and the
+   * default backoff settings.
+   *
+   * @param  maxConnectAttemptsPerSecond  The maximum number of connection
+   *                                      attempts that may be made per second.
+   *                                      A value less than or equal to zero
+   *                                      indicates that no rate limit should
+   *                                      be enforced.
+   */
+  public LDAPConnectThrottle(final int maxConnectAttemptsPerSecond)
+  {
+    this(maxConnectAttemptsPerSecond, DEFAULT_INITIAL_BACKOFF_MILLIS,
+         DEFAULT_MAX_BACKOFF_MILLIS);
+  }
+
+
+
+  /**
+   * Creates a new connect throttle with the provided settings.
+   *
+   * @param  maxConnectAttemptsPerSecond  The maximum number of connection
+   *                                      attempts that may be made per second.
+   *                                      A value less than or equal to zero
+   *                                      indicates that no rate limit should
+   *                                      be enforced.
+   * @param  initialBackoffMillis         The length of time, in milliseconds,
+   *                                      that attempts to connect to a server
+   *                                      will be delayed after the first
+   *                                      failed attempt.  The delay will be
+   *                                      doubled after each subsequent
+   *                                      consecutive failure.  A value less
+   *                                      than or equal to zero indicates that
+   *                                      no backoff should be used.
+   * @param  maxBackoffMillis             The maximum length of time, in
+   *                                      milliseconds, that attempts to
+   *                                      connect to a server will be delayed
+   *                                      after a failed attempt.  It must not
+   *                                      be less than the initial backoff.
+   */
+  public LDAPConnectThrottle(final int maxConnectAttemptsPerSecond,
+                             final long initialBackoffMillis,
+                             final long maxBackoffMillis)
+  {
+    Validator.ensureTrue((maxBackoffMillis >= initialBackoffMillis),
+         "LDAPConnectThrottle.maxBackoffMillis must not be less than " +
+              "initialBackoffMillis.");
+
+    this.maxConnectAttemptsPerSecond = Math.max(0, maxConnectAttemptsPerSecond);
+    this.initialBackoffMillis = Math.max(0L, initialBackoffMillis);
+    this.maxBackoffMillis = Math.max(0L, maxBackoffMillis);
+
+    if (maxConnectAttemptsPerSecond > 0)
+    {
+      rateBarrier = new FixedRateBarrier(1000L, maxConnectAttemptsPerSecond);
+    }
+    else
+    {
+      rateBarrier = null;
+    }
+
+    backoffs = new ConcurrentHashMap<>(StaticUtils.computeMapCapacity(10));
+    numConnectAttempts = new AtomicLong(0L);
+    numConnectAttemptsDelayed = new AtomicLong(0L);
+    numConnectAttemptsRejected = new AtomicLong(0L);
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of connection attempts that may be made per
+   * second.
+   *
+   * @return  The maximum number of connection attempts that may be made per
+   *          second, or zero if no rate limit will be enforced.
+   */
+  public int getMaxConnectAttemptsPerSecond()
+  {
+    return maxConnectAttemptsPerSecond;
+  }
+
+
+
+  /**
+   * Retrieves the length of time, in milliseconds, that attempts to connect to
+   * a server will be delayed after the first failed attempt.
+   *
+   * @return  The length of time, in milliseconds, that attempts to connect to
+   *          a server will be delayed after the first failed attempt, or zero
+   *          if no backoff will be used.
+   */
+  public long getInitialBackoffMillis()
+  {
+    return initialBackoffMillis;
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time, in milliseconds, that attempts to
+   * connect to a server will be delayed after a failed attempt.
+   *
+   * @return  The maximum length of time, in milliseconds, that attempts to
+   *          connect to a server will be delayed after a failed attempt.
+   */
+  public long getMaxBackoffMillis()
+  {
+    return maxBackoffMillis;
+  }
+
+
+
+  /**
+   * Retrieves the number of connection attempts that have been allowed by this
+   * throttle.
+   *
+   * @return  The number of connection attempts that have been allowed by this
+   *          throttle.
+   */
+  public long getNumConnectAttempts()
+  {
+    return numConnectAttempts.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of connection attempts that were delayed because of
+   * the backoff for the target server.
+   *
+   * @return  The number of connection attempts that were delayed because of
+   *          the backoff for the target server.
+   */
+  public long getNumConnectAttemptsDelayed()
+  {
+    return numConnectAttemptsDelayed.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of connection attempts that were rejected because the
+   * remaining backoff for the target server was longer than the connect
+   * timeout.
+   *
+   * @return  The number of connection attempts that were rejected because the
+   *          remaining backoff for the target server was longer than the
+   *          connect timeout.
+   */
+  public long getNumConnectAttemptsRejected()
+  {
+    return numConnectAttemptsRejected.get();
+  }
+
+
+
+  /**
+   * Retrieves the length of time, in milliseconds, that the next attempt to
+   * connect to the specified server will be delayed.
+   *
+   * @param  host  The address of the server.
+   * @param  port  The port of the server.
+   *
+   * @return  The length of time, in milliseconds, that the next attempt to
+   *          connect to the specified server will be delayed, or zero if it
+   *          will not be delayed.
+   */
+  public long getRemainingBackoffMillis(final String host, final int port)
+  {
+    final ServerBackoff backoff = backoffs.get(getKey(host, port));
+    if (backoff == null)
+    {
+      return 0L;
+    }
+
+    return backoff.getRemainingMillis(System.currentTimeMillis());
+  }
+
+
+
+  /**
+   * Resets the backoff for all servers, so that subsequent connection attempts
+   * will only be subject to the rate limit.
+   */
+  public void resetBackoff()
+  {
+    backoffs.clear();
+  }
+
+
+
+  /**
+   * Waits until an attempt to connect to the specified server is allowed.
+   *
+   * @param  host                  The address of the server.
+   * @param  port                  The port of the server.
+   * @param  connectTimeoutMillis  The connect timeout for the attempt, in
+   *                               milliseconds.  A value less than or equal to
+   *                               zero indicates that there is no timeout.
+   *
+   * @throws  LDAPException  If the remaining backoff for the server is longer
+   *                         than the connect timeout, or if the thread is
+   *                         interrupted while waiting.
+   */
+  void awaitConnectPermit(final String host, final int port,
+                          final long connectTimeoutMillis)
+       throws LDAPException
+  {
+    final ServerBackoff backoff = backoffs.get(getKey(host, port));
+    if (backoff != null)
+    {
+      final long remainingMillis =
+           backoff.getRemainingMillis(System.currentTimeMillis());
+      if (remainingMillis > 0L)
+      {
+        if ((connectTimeoutMillis > 0L) &&
+             (remainingMillis >= connectTimeoutMillis))
+        {
+          numConnectAttemptsRejected.incrementAndGet();
+          throw new LDAPException(ResultCode.CONNECT_ERROR,
+               ERR_CONNECT_THROTTLE_BACKOFF.get(host, port, remainingMillis,
+                    backoff.getConsecutiveFailures()));
+        }
+
+        numConnectAttemptsDelayed.incrementAndGet();
+        try
+        {
+          Thread.sleep(remainingMillis);
+        }
+        catch (final InterruptedException ie)
+        {
+          Debug.debugException(ie);
+          Thread.currentThread().interrupt();
+          throw new LDAPException(ResultCode.LOCAL_ERROR,
+               ERR_CONNECT_THROTTLE_INTERRUPTED.get(host, port,
+                    StaticUtils.getExceptionMessage(ie)),
+               ie);
+        }
+      }
+    }
+
+    if (rateBarrier != null)
+    {
+      rateBarrier.await();
+    }
+
+    numConnectAttempts.incrementAndGet();
+  }
+
+
+
+  /**
+   * Indicates that an attempt to connect to the specified server was
+   * successful, so that the backoff for that server will be reset.
+   *
+   * @param  host  The address of the server.
+   * @param  port  The port of the server.
+   */
+  void connectSucceeded(final String host, final int port)
+  {
+    if (! backoffs.isEmpty())
+    {
+      backoffs.remove(getKey(host, port));
+    }
+  }
+
+
+
+  /**
+   * Indicates that an attempt to connect to the specified server failed, so
+   * that subsequent attempts to connect to that server will be delayed.
+   *
+   * @param  host  The address of the server.
+   * @param  port  The port of the server.
+   */
+  void connectFailed(final String host, final int port)
+  {
+    if (initialBackoffMillis <= 0L)
+    {
+      return;
+    }
+
+    final String key = getKey(host, port);
+    ServerBackoff backoff = backoffs.get(key);
+    if (backoff == null)
+    {
+      backoff = new ServerBackoff();
+      final ServerBackoff existingBackoff = backoffs.putIfAbsent(key, backoff);
+      if (existingBackoff != null)
+      {
+        backoff = existingBackoff;
+      }
+    }
+
+    backoff.failed(System.currentTimeMillis(), initialBackoffMillis,
+         maxBackoffMillis);
+  }
+
+
+
+  /**
+   * Retrieves the key to use for the specified server.
+   *
+   * @param  host  The address of the server.
+   * @param  port  The port of the server.
+   *
+   * @return  The key to use for the specified server.
+   */
+  private static String getKey(final String host, final int port)
+  {
+    return StaticUtils.toLowerCase(host) + ':' + port;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this connect throttle.
+   *
+   * @return  A string representation of this connect throttle.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this connect throttle to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LDAPConnectThrottle(maxConnectAttemptsPerSecond=");
+    buffer.append(maxConnectAttemptsPerSecond);
+    buffer.append(", initialBackoffMillis=");
+    buffer.append(initialBackoffMillis);
+    buffer.append(", maxBackoffMillis=");
+    buffer.append(maxBackoffMillis);
+    buffer.append(", numConnectAttempts=");
+    buffer.append(numConnectAttempts.get());
+    buffer.append(", numConnectAttemptsDelayed=");
+    buffer.append(numConnectAttemptsDelayed.get());
+    buffer.append(", numConnectAttemptsRejected=");
+    buffer.append(numConnectAttemptsRejected.get());
+    buffer.append(')');
+  }
+
+
+
+  /**
+   * This class holds the backoff state for a single server.
+   */
+  private static final class ServerBackoff
+          implements Serializable
+  {
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = -2846318830524079463L;
+
+
+
+
+    // The number of consecutive failed attempts to connect to the server.
+    private int consecutiveFailures;
+
+    // The time before which attempts to connect to the server will be delayed.
+    private long nextAttemptTime;
+
+
+
+    /**
+     * Creates a new backoff state with no failures.
+     */
+    private ServerBackoff()
+    {
+      consecutiveFailures = 0;
+      nextAttemptTime = 0L;
+    }
+
+
+
+    /**
+     * Retrieves the number of consecutive failed attempts to connect to the
+     * server.
+     *
+     * @return  The number of consecutive failed attempts to connect to the
+     *          server.
+     */
+    private synchronized int getConsecutiveFailures()
+    {
+      return consecutiveFailures;
+    }
+
+
+
+    /**
+     * Retrieves the length of time, in milliseconds, that the next attempt to
+     * connect to the server should be delayed.
+     *
+     * @param  currentTime  The current time.
+     *
+     * @return  The length of time, in milliseconds, that the next attempt to
+     *          connect to the server should be delayed, or zero if it should
+     *          not be delayed.
+     */
+    private synchronized long getRemainingMillis(final long currentTime)
+    {
+      return Math.max(0L, (nextAttemptTime - currentTime));
+    }
+
+
+
+    /**
+     * Records a failed attempt to connect to the server and computes the time
+     * before which subsequent attempts will be delayed.  The delay doubles
+     * with each consecutive failure up to the maximum, and a random value of
+     * up to half the delay is subtracted from it.
+     *
+     * @param  currentTime           The current time.
+     * @param  initialBackoffMillis  The delay after the first failure.
+     * @param  maxBackoffMillis      The maximum delay.
+     */
+    private synchronized void failed(final long currentTime,
+                                     final long initialBackoffMillis,
+                                     final long maxBackoffMillis)
+    {
+      if (consecutiveFailures < Integer.MAX_VALUE)
+      {
+        consecutiveFailures++;
+      }
+
+      final int shift = Math.min(30, (consecutiveFailures - 1));
+      final long backoffMillis =
+           Math.min(maxBackoffMillis, (initialBackoffMillis << shift));
+      final long jitterMillis = (long)
+           (ThreadLocalRandom.get().nextDouble() * (backoffMillis / 2L));
+      nextAttemptTime = currentTime + backoffMillis - jitterMillis;
+    }
+  }
+}
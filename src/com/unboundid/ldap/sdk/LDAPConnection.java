@@ -46,7 +46,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -68,6 +67,7 @@ import com.unboundid.ldap.sdk.unboundidds.controls.RetainIdentityRequestControl;
 import com.unboundid.ldif.LDIFException;
 import com.unboundid.util.Debug;
 import com.unboundid.util.DebugType;
+import com.unboundid.util.HashedWheelTimer;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.SynchronizedSocketFactory;
 import com.unboundid.util.SynchronizedSSLSocketFactory;
@@ -218,6 +218,34 @@ public final class LDAPConnection
        implements FullLDAPInterface, LDAPConnectionInfo, ReferralConnector,
                   Closeable
 {
+  /**
+   * The name of a system property that can be used to specify the number of
+   * timers that will be shared by all connections to enforce response
+   * timeouts for asynchronous operations.  If this is not set, then the
+   * number of timers will be the number of available processors, up to a
+   * maximum of four.
+   */
+  public static final String PROPERTY_ASYNC_TIMEOUT_TIMER_COUNT =
+       LDAPConnection.class.getName() + ".asyncTimeoutTimerCount";
+
+
+
+  /**
+   * The duration, in milliseconds, of each tick for the timers used to enforce
+   * response timeouts for asynchronous operations.
+   */
+  private static final long ASYNC_TIMEOUT_TIMER_TICK_DURATION_MILLIS = 10L;
+
+
+
+  /**
+   * The number of buckets in the wheel for each of the timers used to enforce
+   * response timeouts for asynchronous operations.
+   */
+  private static final int ASYNC_TIMEOUT_TIMER_TICKS_PER_WHEEL = 512;
+
+
+
   /**
    * The counter that will be used when assigning connection IDs to connections.
    */
@@ -225,6 +253,17 @@ public final class LDAPConnection
 
 
 
+  /**
+   * The timers that will be shared by all connections to enforce response
+   * timeouts for asynchronous operations.  Each connection will always use
+   * the same timer, and the worker thread for a timer will not be started
+   * until a timeout is scheduled with it.
+   */
+  private static final HashedWheelTimer[] ASYNC_TIMEOUT_TIMERS =
+       createAsyncTimeoutTimers();
+
+
+
   /**
    * The default socket factory that will be used if no alternate factory is
    * provided.
@@ -246,6 +285,10 @@ public final class LDAPConnection
   // applicable.
   private AbstractConnectionPool connectionPool;
 
+  // Indicates whether this connection is currently checked out of the
+  // connection pool with which it is associated.
+  private final AtomicBoolean checkedOutFromPool;
+
   // Indicates whether to perform a reconnect before the next write.
   private final AtomicBoolean needsReconnect;
 
@@ -327,9 +370,6 @@ public final class LDAPConnection
   // The address of the server to which a connection should be re-established.
   private String reconnectAddress;
 
-  // A timer that may be used to enforce timeouts for asynchronous operations.
-  private Timer timer;
-
 
 
   /**
@@ -390,6 +430,7 @@ public final class LDAPConnection
                         final LDAPConnectionOptions connectionOptions)
   {
     needsReconnect = new AtomicBoolean(false);
+    checkedOutFromPool = new AtomicBoolean(false);
     disconnectInfo = new AtomicReference<>();
     lastCommunicationTime = -1L;
 
@@ -436,7 +477,6 @@ public final class LDAPConnection
     connectionName       = null;
     connectionPoolName   = null;
     cachedSchema         = null;
-    timer                = null;
     serverSet            = null;
 
     referralConnector = this.connectionOptions.getReferralConnector();
@@ -1702,6 +1742,33 @@ public final class LDAPConnection
   void setConnectionPool(final AbstractConnectionPool connectionPool)
   {
     this.connectionPool = connectionPool;
+
+    if (connectionPool == null)
+    {
+      connectionStatistics.setConnectionPoolStatistics(null);
+    }
+    else
+    {
+      connectionStatistics.setConnectionPoolStatistics(
+           connectionPool.getConnectionPoolStatistics());
+    }
+  }
+
+
+
+  /**
+   * Specifies whether this connection is currently checked out of the
+   * connection pool with which it is associated.
+   *
+   * @param  checkedOut  Indicates whether this connection is currently checked
+   *                     out of its connection pool.
+   *
+   * @return  {@code true} if the checked out state for this connection was
+   *          changed, or {@code false} if it already had the specified state.
+   */
+  boolean setCheckedOutFromPool(final boolean checkedOut)
+  {
+    return checkedOutFromPool.compareAndSet((! checkedOut), checkedOut);
   }
 
 
@@ -1744,7 +1811,7 @@ public final class LDAPConnection
   public Schema getSchema()
          throws LDAPException
   {
-    return Schema.getSchema(this, "");
+    return Schema.getSchemaUsingGlobalCache(this, "");
   }
 
 
@@ -1772,7 +1839,7 @@ public final class LDAPConnection
   public Schema getSchema(final String entryDN)
          throws LDAPException
   {
-    return Schema.getSchema(this, entryDN);
+    return Schema.getSchemaUsingGlobalCache(this, entryDN);
   }
 
 
@@ -4691,17 +4758,6 @@ public final class LDAPConnection
 
     cachedSchema = null;
     lastCommunicationTime = -1L;
-
-    synchronized (this)
-    {
-      final Timer t = timer;
-      timer = null;
-
-      if (t != null)
-      {
-        t.cancel();
-      }
-    }
   }
 
 
@@ -4757,18 +4813,79 @@ public final class LDAPConnection
 
 
   /**
-   * Retrieves a timer for use with this connection, creating one if necessary.
+   * Retrieves the timer that should be used to enforce response timeouts for
+   * asynchronous operations processed on this connection.  The timer is
+   * shared with other connections.
+   *
+   * @return  The timer that should be used to enforce response timeouts for
+   *          asynchronous operations processed on this connection.
+   */
+  HashedWheelTimer getAsyncTimeoutTimer()
+  {
+    return ASYNC_TIMEOUT_TIMERS[
+         (int) (connectionID % ASYNC_TIMEOUT_TIMERS.length)];
+  }
+
+
+
+  /**
+   * Retrieves the number of response timeouts for asynchronous operations
+   * that are currently pending across all connections, meaning that they have
+   * been scheduled but have not yet been cancelled (because a response was
+   * received) or expired.
+   *
+   * @return  The number of response timeouts for asynchronous operations that
+   *          are currently pending across all connections.
+   */
+  public static long getNumPendingAsyncTimeouts()
+  {
+    long numPending = 0L;
+    for (final HashedWheelTimer t : ASYNC_TIMEOUT_TIMERS)
+    {
+      numPending += t.getNumPendingTimeouts();
+    }
+
+    return numPending;
+  }
+
+
+
+  /**
+   * Creates the timers that will be shared by all connections to enforce
+   * response timeouts for asynchronous operations, based on the value of the
+   * {@link #PROPERTY_ASYNC_TIMEOUT_TIMER_COUNT} system property.
    *
-   * @return  A timer for use with this connection.
+   * @return  The timers that were created.
    */
-  synchronized Timer getTimer()
+  private static HashedWheelTimer[] createAsyncTimeoutTimers()
   {
-    if (timer == null)
+    int numTimers =
+         Math.min(4, Runtime.getRuntime().availableProcessors());
+    final String propertyValue =
+         StaticUtils.getSystemProperty(PROPERTY_ASYNC_TIMEOUT_TIMER_COUNT);
+    if (propertyValue != null)
+    {
+      try
+      {
+        numTimers = Integer.parseInt(propertyValue);
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    final HashedWheelTimer[] timers =
+         new HashedWheelTimer[Math.max(1, numTimers)];
+    for (int i=0; i < timers.length; i++)
     {
-      timer = new Timer("Timer thread for " + toString(), true);
+      timers[i] = new HashedWheelTimer(
+           "LDAP Asynchronous Operation Timeout Timer " + i,
+           ASYNC_TIMEOUT_TIMER_TICK_DURATION_MILLIS,
+           ASYNC_TIMEOUT_TIMER_TICKS_PER_WHEEL);
     }
 
-    return timer;
+    return timers;
   }
 
 
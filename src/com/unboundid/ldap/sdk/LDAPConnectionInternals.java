@@ -43,6 +43,8 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.util.logging.Level;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -116,6 +118,13 @@ final class LDAPConnectionInternals
   // The socket used to communicate with the directory server.
   private volatile Socket socket;
 
+  // Indicates whether a thread has started closing this connection.
+  private final AtomicBoolean closeStarted;
+
+  // A latch that will be released when the thread that started closing this
+  // connection has finished.
+  private final CountDownLatch closeCompleteLatch;
+
   // The address of the server to which the connection is established.
   private final String host;
 
@@ -171,14 +180,42 @@ final class LDAPConnectionInternals
     saslClient      = null;
     socket          = null;
 
+    closeStarted       = new AtomicBoolean(false);
+    closeCompleteLatch = new CountDownLatch(1);
+
     writeTimeoutHandler = new WriteTimeoutHandler(connection);
 
+    final LDAPConnectThrottle connectThrottle = options.getConnectThrottle();
     try
     {
-      final ConnectThread connectThread =
-           new ConnectThread(socketFactory, inetAddress, port, timeout);
-      connectThread.start();
-      socket = connectThread.getConnectedSocket();
+      if (connectThrottle != null)
+      {
+        connectThrottle.awaitConnectPermit(host, port, timeout);
+      }
+
+      final ConnectTask connectTask =
+           new ConnectTask(socketFactory, inetAddress, port, timeout,
+                connection.getConnectionStatistics());
+      connectTask.start();
+      try
+      {
+        socket = connectTask.getConnectedSocket();
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        if (connectThrottle != null)
+        {
+          connectThrottle.connectFailed(host, port);
+        }
+
+        throw le;
+      }
+
+      if (connectThrottle != null)
+      {
+        connectThrottle.connectSucceeded(host, port);
+      }
 
       if (socket instanceof SSLSocket)
       {
@@ -555,6 +592,18 @@ final class LDAPConnectionInternals
       ASN1_BUFFERS.get().set(buffer);
     }
 
+    final LDAPOperationTracer tracer =
+         connection.getConnectionOptions().getOperationTracer();
+    final long encodeStartNanos;
+    if (tracer == null)
+    {
+      encodeStartNanos = 0L;
+    }
+    else
+    {
+      encodeStartNanos = System.nanoTime();
+    }
+
     buffer.clear();
     try
     {
@@ -566,6 +615,31 @@ final class LDAPConnectionInternals
       lre.throwLDAPException();
     }
 
+    final OperationType operationType;
+    final long writeStartNanos;
+    if (tracer == null)
+    {
+      operationType = null;
+      writeStartNanos = 0L;
+    }
+    else
+    {
+      operationType = getOperationType(message.getProtocolOpType());
+      writeStartNanos = System.nanoTime();
+      tracer.phaseCompleted(connection, operationType, message.getMessageID(),
+           OperationTracePhase.REQUEST_ENCODE, encodeStartNanos,
+           writeStartNanos);
+
+      // Record the time that the write started before actually writing the
+      // request so that it will be available even if the response arrives
+      // before we can update it with the time the write completed.
+      if (expectsResponse(operationType))
+      {
+        connectionReader.setRequestSentTime(message.getMessageID(),
+             writeStartNanos, false);
+      }
+    }
+
 
     try
     {
@@ -618,6 +692,19 @@ final class LDAPConnectionInternals
         os.write(saslBytes);
       }
       os.flush();
+
+      if (tracer != null)
+      {
+        final long writeEndNanos = System.nanoTime();
+        tracer.phaseCompleted(connection, operationType,
+             message.getMessageID(), OperationTracePhase.REQUEST_WRITE,
+             writeStartNanos, writeEndNanos);
+        if (expectsResponse(operationType))
+        {
+          connectionReader.setRequestSentTime(message.getMessageID(),
+               writeEndNanos, true);
+        }
+      }
     }
     catch (final IOException ioe)
     {
@@ -678,9 +765,107 @@ final class LDAPConnectionInternals
 
 
   /**
-   * Closes the connection associated with this connection internals.
+   * Retrieves the operation type for the request with the provided protocol op
+   * type.
+   *
+   * @param  protocolOpType  The BER type of the protocol op for the request.
+   *
+   * @return  The operation type for the request, or {@code null} if the
+   *          protocol op type does not correspond to a known request type.
+   */
+  private static OperationType getOperationType(final byte protocolOpType)
+  {
+    switch (protocolOpType)
+    {
+      case LDAPMessage.PROTOCOL_OP_TYPE_ABANDON_REQUEST:
+        return OperationType.ABANDON;
+      case LDAPMessage.PROTOCOL_OP_TYPE_ADD_REQUEST:
+        return OperationType.ADD;
+      case LDAPMessage.PROTOCOL_OP_TYPE_BIND_REQUEST:
+        return OperationType.BIND;
+      case LDAPMessage.PROTOCOL_OP_TYPE_COMPARE_REQUEST:
+        return OperationType.COMPARE;
+      case LDAPMessage.PROTOCOL_OP_TYPE_DELETE_REQUEST:
+        return OperationType.DELETE;
+      case LDAPMessage.PROTOCOL_OP_TYPE_EXTENDED_REQUEST:
+        return OperationType.EXTENDED;
+      case LDAPMessage.PROTOCOL_OP_TYPE_MODIFY_REQUEST:
+        return OperationType.MODIFY;
+      case LDAPMessage.PROTOCOL_OP_TYPE_MODIFY_DN_REQUEST:
+        return OperationType.MODIFY_DN;
+      case LDAPMessage.PROTOCOL_OP_TYPE_SEARCH_REQUEST:
+        return OperationType.SEARCH;
+      case LDAPMessage.PROTOCOL_OP_TYPE_UNBIND_REQUEST:
+        return OperationType.UNBIND;
+      default:
+        return null;
+    }
+  }
+
+
+
+  /**
+   * Indicates whether a request of the specified type is expected to receive
+   * a response from the server.
+   *
+   * @param  operationType  The operation type for the request.  It may be
+   *                        {@code null} if the operation type is not known.
+   *
+   * @return  {@code true} if a request of the specified type is expected to
+   *          receive a response, or {@code false} if not.
+   */
+  private static boolean expectsResponse(final OperationType operationType)
+  {
+    return ((operationType != null) &&
+         (operationType != OperationType.ABANDON) &&
+         (operationType != OperationType.UNBIND));
+  }
+
+
+
+  /**
+   * Closes the connection associated with this connection internals.  If
+   * another thread is already closing the connection, then this method will
+   * wait for it to finish (unless it is called by the connection reader)
+   * rather than closing it again, so that the disconnect is only logged once
+   * and has been logged before any caller returns.
    */
   void close()
+  {
+    if (closeStarted.compareAndSet(false, true))
+    {
+      try
+      {
+        closeInternal();
+      }
+      finally
+      {
+        closeCompleteLatch.countDown();
+      }
+    }
+    else if (! connectionReader.isReaderThread())
+    {
+      // The thread closing the connection may be waiting for the connection
+      // reader to exit, so only other threads wait for it to finish.
+      try
+      {
+        closeCompleteLatch.await();
+      }
+      catch (final InterruptedException e)
+      {
+        Debug.debugException(e);
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+
+
+  /**
+   * Performs the processing needed to close the connection associated with
+   * this connection internals.  It must only be invoked once.
+   */
+  private void closeInternal()
   {
     DisconnectInfo disconnectInfo = connection.getDisconnectInfo();
     if (disconnectInfo == null)
@@ -0,0 +1,2742 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.ldif.LDIFException;
+import com.unboundid.util.Debug;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+import static com.unboundid.ldap.sdk.LDAPMessages.*;
+
+
+
+/**
+ * This class provides an {@link LDAPInterface} implementation that allows any
+ * number of threads to process operations concurrently over a small number of
+ * shared connections.  Unlike an {@link LDAPConnectionPool}, which gives each
+ * connection to a single thread at a time, a connection multiplexer takes
+ * advantage of the ability of LDAP to have many outstanding operations on the
+ * same connection, each identified by its own message ID.  This can allow an
+ * application with a very large number of threads to use an order of
+ * magnitude fewer connections to the directory server.
+ * <BR><BR>
+ * Each operation is processed on the connection with the fewest outstanding
+ * operations, and no more than a configurable number of operations will be
+ * outstanding on any connection at the same time.  If all connections are at
+ * that limit, then threads will wait for one of them to be able to accept
+ * another operation, and waiting threads will be served in the order in which
+ * they started waiting.  If an operation fails in a way that indicates that
+ * its connection is no longer usable, then that connection will be replaced
+ * with a newly-established connection from the server set, and the operation
+ * may be retried on another connection.
+ * <BR><BR>
+ * All connections are authenticated with the same bind request when they are
+ * established, so this class does not provide any way to process bind
+ * operations or extended operations (like StartTLS) that could alter the state
+ * of a connection that other threads are also using.  Connections must not
+ * be configured to operate in synchronous mode.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for creating a connection
+ * multiplexer that uses four connections, each of which may have up to 100
+ * outstanding operations at the same time:
+ * <PRE>
+ * LDAPConnectionMultiplexer multiplexer = new LDAPConnectionMultiplexer(
+ *      new SingleServerSet(serverAddress, serverPort),
+ *      new SimpleBindRequest(bindDN, password), 4, 100);
+ * SearchResultEntry entry = multiplexer.getEntry("dc=example,dc=com");
+ * multiplexer.close();
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LDAPConnectionMultiplexer
+       implements LDAPInterface, Closeable
+{
+  /**
+   * The default maximum number of operations that may be outstanding on each
+   * connection at the same time.
+   */
+  public static final int DEFAULT_MAX_OPERATIONS_PER_CONNECTION = 100;
+
+
+
+  /**
+   * The default maximum length of time in milliseconds to wait for a
+   * connection to be able to accept another operation.
+   */
+  public static final long DEFAULT_MAX_WAIT_TIME_MILLIS = 30_000L;
+
+
+
+  // The number of operations that have been retried on a different connection.
+  private final AtomicLong numOperationsRetried;
+
+  // The number of connections that have been replaced because they were no
+  // longer valid.
+  private final AtomicLong numConnectionsReplaced;
+
+  // The bind request to use to authenticate new connections.
+  private final BindRequest bindRequest;
+
+  // The condition used to wait for a connection to be able to accept another
+  // operation.
+  private final Condition capacityAvailable;
+
+  // The maximum number of operations that may be outstanding on each
+  // connection at the same time.
+  private final int maxOperationsPerConnection;
+
+  // The slots holding the connections in use by this multiplexer.
+  private final MultiplexedConnection[] slots;
+
+  // The lock used to select connections for operations.  It is fair so that
+  // threads waiting for capacity will be served in order.
+  private final ReentrantLock lock;
+
+  // The server set used to establish connections.
+  private final ServerSet serverSet;
+
+  // Indicates whether this multiplexer has been closed.
+  private volatile boolean closed;
+
+  // The index of the slot at which to start looking for a connection, which is
+  // used to spread operations across connections with the same load.
+  private int nextSlotIndex;
+
+  // The maximum length of time in milliseconds to wait for a connection to be
+  // able to accept another operation.
+  private volatile long maxWaitTimeMillis;
+
+  // The types of operations that should be retried if they fail on a
+  // connection that is no longer valid.
+  private volatile Set<OperationType> retryOperationTypes;
+
+
+
+  /**
+   * Creates a new connection multiplexer that will establish the specified
+   * number of connections, each of which may have up to
+   * {@link #DEFAULT_MAX_OPERATIONS_PER_CONNECTION} outstanding operations at
+   * the same time.
+   *
+   * @param  serverSet       The server set to use to establish connections.
+   *                         It must not be {@code null}.
+   * @param  bindRequest     The bind request to use to authenticate each
+   *                         connection.  It may be {@code null} if the
+   *                         connections should not be authenticated, or if
+   *                         the server set already authenticates them.
+   * @param  numConnections  The number of connections to establish.  It must
+   *                         be greater than zero.
+   *
+   * @throws  LDAPException  If a problem occurs while establishing any of the
+   *                         connections.
+   */
+  public LDAPConnectionMultiplexer(final ServerSet serverSet,
+                                   final BindRequest bindRequest,
+                                   final int numConnections)
+         throws LDAPException
+  {
+    this(serverSet, bindRequest, numConnections,
+         DEFAULT_MAX_OPERATIONS_PER_CONNECTION);
+  }
+
+
+
+  /**
+   * Creates a new connection multiplexer with the provided settings.
+   *
+   * @param  serverSet                   The server set to use to establish
+   *                                     connections.  It must not be
+   *                                     {@code null}.
+   * @param  bindRequest                 The bind request to use to
+   *                                     authenticate each connection.  It may
+   *                                     be {@code null} if the connections
+   *                                     should not be authenticated, or if the
+   *                                     server set already authenticates them.
+   * @param  numConnections              The number of connections to
+   *                                     establish.  It must be greater than
+   *                                     zero.
+   * @param  maxOperationsPerConnection  The maximum number of operations that
+   *                                     may be outstanding on each connection
+   *                                     at the same time.  It must be greater
+   *                                     than zero.
+   *
+   * @throws  LDAPException  If a problem occurs while establishing any of the
+   *                         connections.
+   */
+  public LDAPConnectionMultiplexer(final ServerSet serverSet,
+                                   final BindRequest bindRequest,
+                                   final int numConnections,
+                                   final int maxOperationsPerConnection)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(serverSet);
+    Validator.ensureTrue((numConnections > 0),
+         "LDAPConnectionMultiplexer.numConnections must be greater than zero.");
+    Validator.ensureTrue((maxOperationsPerConnection > 0),
+         "LDAPConnectionMultiplexer.maxOperationsPerConnection must be " +
+              "greater than zero.");
+
+    this.serverSet = serverSet;
+    this.bindRequest = bindRequest;
+    this.maxOperationsPerConnection = maxOperationsPerConnection;
+
+    numOperationsRetried = new AtomicLong(0L);
+    numConnectionsReplaced = new AtomicLong(0L);
+    lock = new ReentrantLock(true);
+    capacityAvailable = lock.newCondition();
+    nextSlotIndex = 0;
+    maxWaitTimeMillis = DEFAULT_MAX_WAIT_TIME_MILLIS;
+    retryOperationTypes = Collections.unmodifiableSet(
+         EnumSet.of(OperationType.COMPARE, OperationType.SEARCH));
+    closed = false;
+
+    slots = new MultiplexedConnection[numConnections];
+    for (int i=0; i < numConnections; i++)
+    {
+      try
+      {
+        slots[i] = new MultiplexedConnection(createConnection());
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        for (int j=0; j < i; j++)
+        {
+          slots[j].getConnection().setDisconnectInfo(
+               DisconnectType.POOL_CREATION_FAILURE, null, le);
+          slots[j].getConnection().setClosed();
+        }
+        throw le;
+      }
+    }
+  }
+
+
+
+  /**
+   * Establishes and authenticates a new connection for use by this
+   * multiplexer.
+   *
+   * @return  The connection that was established.
+   *
+   * @throws  LDAPException  If a problem occurs while establishing or
+   *                         authenticating the connection.
+   */
+  @SuppressWarnings("deprecation")
+  private LDAPConnection createConnection()
+          throws LDAPException
+  {
+    final LDAPConnection conn = serverSet.getConnection();
+
+    try
+    {
+      if (conn.synchronousMode())
+      {
+        throw new LDAPException(ResultCode.PARAM_ERROR,
+             ERR_MULTIPLEXER_SYNCHRONOUS_MODE.get());
+      }
+
+      // Auto-reconnect must be disabled, since it could silently lose the
+      // outstanding operations of other threads.
+      LDAPConnectionOptions opts = conn.getConnectionOptions();
+      if (opts.autoReconnect())
+      {
+        opts = opts.duplicate();
+        opts.setAutoReconnect(false);
+        conn.setConnectionOptions(opts);
+      }
+
+      if ((bindRequest != null) && (! serverSet.includesAuthentication()))
+      {
+        conn.bind(bindRequest.duplicate());
+      }
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      conn.setDisconnectInfo(DisconnectType.BIND_FAILED, null, le);
+      conn.setClosed();
+      throw le;
+    }
+
+    return conn;
+  }
+
+
+
+  /**
+   * Retrieves the number of connections maintained by this multiplexer.
+   *
+   * @return  The number of connections maintained by this multiplexer.
+   */
+  public int getNumConnections()
+  {
+    return slots.length;
+  }
+
+
+
+  /**
+   * Retrieves the number of connections maintained by this multiplexer that
+   * are currently established.  This method should only be used for unit
+   * testing.
+   *
+   * @return  The number of connections maintained by this multiplexer that
+   *          are currently established.
+   */
+  int getNumConnectedConnections()
+  {
+    int numConnected = 0;
+    for (final MultiplexedConnection slot : slots)
+    {
+      final LDAPConnection conn = slot.getConnection();
+      if ((conn != null) && conn.isConnected())
+      {
+        numConnected++;
+      }
+    }
+
+    return numConnected;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of operations that may be outstanding on each
+   * connection at the same time.
+   *
+   * @return  The maximum number of operations that may be outstanding on each
+   *          connection at the same time.
+   */
+  public int getMaxOperationsPerConnection()
+  {
+    return maxOperationsPerConnection;
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that are currently outstanding across
+   * all connections in this multiplexer.
+   *
+   * @return  The number of operations that are currently outstanding across
+   *          all connections in this multiplexer.
+   */
+  public int getNumOutstandingOperations()
+  {
+    lock.lock();
+    try
+    {
+      int numOutstanding = 0;
+      for (final MultiplexedConnection slot : slots)
+      {
+        numOutstanding += slot.getNumOutstandingOperations();
+      }
+      return numOutstanding;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been replaced because they
+   * were found to no longer be valid.
+   *
+   * @return  The number of connections that have been replaced because they
+   *          were found to no longer be valid.
+   */
+  public long getNumConnectionsReplaced()
+  {
+    return numConnectionsReplaced.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that have been retried on another
+   * connection because they failed on a connection that was no longer valid.
+   *
+   * @return  The number of operations that have been retried on another
+   *          connection.
+   */
+  public long getNumOperationsRetried()
+  {
+    return numOperationsRetried.get();
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time in milliseconds that a thread should
+   * wait for a connection to be able to accept another operation.
+   *
+   * @return  The maximum length of time in milliseconds that a thread should
+   *          wait for a connection to be able to accept another operation, or
+   *          zero if it should not wait.
+   */
+  public long getMaxWaitTimeMillis()
+  {
+    return maxWaitTimeMillis;
+  }
+
+
+
+  /**
+   * Specifies the maximum length of time in milliseconds that a thread should
+   * wait for a connection to be able to accept another operation.  If no
+   * connection can accept the operation within this time, then an exception
+   * will be thrown.
+   *
+   * @param  maxWaitTimeMillis  The maximum length of time in milliseconds that
+   *                            a thread should wait for a connection to be
+   *                            able to accept another operation.  A value that
+   *                            is less than or equal to zero indicates that
+   *                            the thread should not wait.
+   */
+  public void setMaxWaitTimeMillis(final long maxWaitTimeMillis)
+  {
+    this.maxWaitTimeMillis = Math.max(0L, maxWaitTimeMillis);
+  }
+
+
+
+  /**
+   * Retrieves the types of operations that will be retried on another
+   * connection if they fail on a connection that is no longer valid.  By
+   * default, only compare and search operations (including the
+   * {@code getEntry}, {@code getRootDSE}, and {@code getSchema} methods) will
+   * be retried, since retrying an update that may have been processed by the
+   * server could cause it to be applied twice.
+   *
+   * @return  The types of operations that will be retried on another
+   *          connection if they fail on a connection that is no longer valid.
+   */
+  public Set<OperationType> getOperationTypesToRetryDueToInvalidConnections()
+  {
+    return retryOperationTypes;
+  }
+
+
+
+  /**
+   * Specifies the types of operations that will be retried on another
+   * connection if they fail on a connection that is no longer valid.
+   *
+   * @param  operationTypes  The types of operations that will be retried on
+   *                         another connection if they fail on a connection
+   *                         that is no longer valid.  It may be {@code null}
+   *                         or empty if no operations should be retried.
+   */
+  public void setRetryFailedOperationsDueToInvalidConnections(
+                   final Set<OperationType> operationTypes)
+  {
+    if ((operationTypes == null) || operationTypes.isEmpty())
+    {
+      retryOperationTypes =
+           Collections.unmodifiableSet(EnumSet.noneOf(OperationType.class));
+    }
+    else
+    {
+      retryOperationTypes =
+           Collections.unmodifiableSet(EnumSet.copyOf(operationTypes));
+    }
+  }
+
+
+
+  /**
+   * Indicates whether this multiplexer has been closed.
+   *
+   * @return  {@code true} if this multiplexer has been closed, or
+   *          {@code false} if not.
+   */
+  public boolean isClosed()
+  {
+    return closed;
+  }
+
+
+
+  /**
+   * Closes all connections in this multiplexer.  Any operations that are still
+   * outstanding will be abandoned when their connections are closed.
+   */
+  @Override()
+  public void close()
+  {
+    lock.lock();
+    try
+    {
+      if (closed)
+      {
+        return;
+      }
+
+      closed = true;
+      capacityAvailable.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+
+    for (final MultiplexedConnection slot : slots)
+    {
+      final LDAPConnection conn = slot.getConnection();
+      if (conn != null)
+      {
+        conn.setDisconnectInfo(DisconnectType.POOL_CLOSED, null, null);
+        conn.terminate(null);
+      }
+    }
+  }
+
+
+
+
+  /**
+   * Retrieves the directory server root DSE using a connection from this
+   * multiplexer.
+   *
+   * @return  The directory server root DSE, or {@code null} if it is not
+   *          available.
+   *
+   * @throws  LDAPException  If a problem occurs while attempting to retrieve
+   *                         the server root DSE.
+   */
+  @Override()
+  public RootDSE getRootDSE()
+         throws LDAPException
+  {
+    return execute(OperationType.SEARCH,
+         new MultiplexedOperation<RootDSE>()
+         {
+           @Override()
+           RootDSE process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.getRootDSE();
+           }
+         });
+  }
+
+
+
+  /**
+   * Retrieves the directory server schema definitions using a connection from
+   * this multiplexer, using the subschema subentry DN contained in the server's
+   * root DSE.  For directory servers containing a single schema, this should be
+   * sufficient for all purposes.  For servers with multiple schemas, it may be
+   * necessary to specify the DN of the target entry for which to obtain the
+   * associated schema.
+   *
+   * @return  The directory server schema definitions, or {@code null} if the
+   *          schema information could not be retrieved (e.g, the client does
+   *          not have permission to read the server schema).
+   *
+   * @throws  LDAPException  If a problem occurs while attempting to retrieve
+   *                         the server schema.
+   */
+  @Override()
+  public Schema getSchema()
+         throws LDAPException
+  {
+    return getSchema("");
+  }
+
+
+
+  /**
+   * Retrieves the directory server schema definitions that govern the specified
+   * entry using a connection from this multiplexer.  The subschemaSubentry
+   * attribute will be retrieved from the target entry, and then the appropriate
+   * schema definitions will be loaded from the entry referenced by that
+   * attribute.  This may be necessary to ensure correct behavior in servers
+   * that support multiple schemas.
+   *
+   * @param  entryDN  The DN of the entry for which to retrieve the associated
+   *                  schema definitions.  It may be {@code null} or an empty
+   *                  string if the subschemaSubentry attribute should be
+   *                  retrieved from the server's root DSE.
+   *
+   * @return  The directory server schema definitions, or {@code null} if the
+   *          schema information could not be retrieved (e.g, the client does
+   *          not have permission to read the server schema).
+   *
+   * @throws  LDAPException  If a problem occurs while attempting to retrieve
+   *                         the server schema.
+   */
+  @Override()
+  public Schema getSchema(final String entryDN)
+         throws LDAPException
+  {
+    return execute(OperationType.SEARCH,
+         new MultiplexedOperation<Schema>()
+         {
+           @Override()
+           Schema process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.getSchema(entryDN);
+           }
+         });
+  }
+
+
+
+  /**
+   * Retrieves the entry with the specified DN using a connection from this
+   * multiplexer.  All user attributes will be requested in the entry to return.
+   *
+   * @param  dn  The DN of the entry to retrieve.  It must not be {@code null}.
+   *
+   * @return  The requested entry, or {@code null} if the target entry does not
+   *          exist or no entry was returned (e.g., if the authenticated user
+   *          does not have permission to read the target entry).
+   *
+   * @throws  LDAPException  If a problem occurs while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public SearchResultEntry getEntry(final String dn)
+         throws LDAPException
+  {
+    return getEntry(dn, StaticUtils.NO_STRINGS);
+  }
+
+
+
+  /**
+   * Retrieves the entry with the specified DN using a connection from this
+   * multiplexer.
+   *
+   * @param  dn          The DN of the entry to retrieve.  It must not be
+   *                     {@code null}.
+   * @param  attributes  The set of attributes to request for the target entry.
+   *                     If it is {@code null}, then all user attributes will be
+   *                     requested.
+   *
+   * @return  The requested entry, or {@code null} if the target entry does not
+   *          exist or no entry was returned (e.g., if the authenticated user
+   *          does not have permission to read the target entry).
+   *
+   * @throws  LDAPException  If a problem occurs while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public SearchResultEntry getEntry(final String dn,
+                                    final String... attributes)
+         throws LDAPException
+  {
+    return execute(OperationType.SEARCH,
+         new MultiplexedOperation<SearchResultEntry>()
+         {
+           @Override()
+           SearchResultEntry process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.getEntry(dn, attributes);
+           }
+         });
+  }
+
+
+
+  /**
+   * Processes an add operation with the provided information using a connection
+   * from this multiplexer.
+   *
+   * @param  dn          The DN of the entry to add.  It must not be
+   *                     {@code null}.
+   * @param  attributes  The set of attributes to include in the entry to add.
+   *                     It must not be {@code null}.
+   *
+   * @return  The result of processing the add operation.
+   *
+   * @throws  LDAPException  If the server rejects the add request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult add(final String dn, final Attribute... attributes)
+         throws LDAPException
+  {
+    return add(new AddRequest(dn, attributes));
+  }
+
+
+
+  /**
+   * Processes an add operation with the provided information using a connection
+   * from this multiplexer.
+   *
+   * @param  dn          The DN of the entry to add.  It must not be
+   *                     {@code null}.
+   * @param  attributes  The set of attributes to include in the entry to add.
+   *                     It must not be {@code null}.
+   *
+   * @return  The result of processing the add operation.
+   *
+   * @throws  LDAPException  If the server rejects the add request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult add(final String dn,
+                        final Collection<Attribute> attributes)
+         throws LDAPException
+  {
+    return add(new AddRequest(dn, attributes));
+  }
+
+
+
+  /**
+   * Processes an add operation with the provided information using a connection
+   * from this multiplexer.
+   *
+   * @param  entry  The entry to add.  It must not be {@code null}.
+   *
+   * @return  The result of processing the add operation.
+   *
+   * @throws  LDAPException  If the server rejects the add request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult add(final Entry entry)
+         throws LDAPException
+  {
+    return add(new AddRequest(entry));
+  }
+
+
+
+  /**
+   * Processes an add operation with the provided information using a connection
+   * from this multiplexer.
+   *
+   * @param  ldifLines  The lines that comprise an LDIF representation of the
+   *                    entry to add.  It must not be empty or {@code null}.
+   *
+   * @return  The result of processing the add operation.
+   *
+   * @throws  LDIFException  If the provided entry lines cannot be decoded as an
+   *                         entry in LDIF form.
+   *
+   * @throws  LDAPException  If the server rejects the add request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult add(final String... ldifLines)
+         throws LDIFException, LDAPException
+  {
+    return add(new AddRequest(ldifLines));
+  }
+
+
+
+  /**
+   * Processes the provided add request using a connection from this
+   * multiplexer.
+   *
+   * @param  addRequest  The add request to be processed.  It must not be
+   *                     {@code null}.
+   *
+   * @return  The result of processing the add operation.
+   *
+   * @throws  LDAPException  If the server rejects the add request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult add(final AddRequest addRequest)
+         throws LDAPException
+  {
+    return execute(OperationType.ADD,
+         new MultiplexedOperation<LDAPResult>()
+         {
+           @Override()
+           LDAPResult process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.add(addRequest);
+           }
+         });
+  }
+
+
+
+  /**
+   * Processes the provided add request using a connection from this
+   * multiplexer.
+   *
+   * @param  addRequest  The add request to be processed.  It must not be
+   *                     {@code null}.
+   *
+   * @return  The result of processing the add operation.
+   *
+   * @throws  LDAPException  If the server rejects the add request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult add(final ReadOnlyAddRequest addRequest)
+         throws LDAPException
+  {
+    return add((AddRequest) addRequest);
+  }
+
+
+
+  /**
+   * Processes a compare operation with the provided information using a
+   * connection from this multiplexer.
+   *
+   * @param  dn              The DN of the entry in which to make the
+   *                         comparison.  It must not be {@code null}.
+   * @param  attributeName   The attribute name for which to make the
+   *                         comparison.  It must not be {@code null}.
+   * @param  assertionValue  The assertion value to verify in the target entry.
+   *                         It must not be {@code null}.
+   *
+   * @return  The result of processing the compare operation.
+   *
+   * @throws  LDAPException  If the server rejects the compare request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public CompareResult compare(final String dn,
+                               final String attributeName,
+                               final String assertionValue)
+         throws LDAPException
+  {
+    return compare(new CompareRequest(dn, attributeName, assertionValue));
+  }
+
+
+
+  /**
+   * Processes the provided compare request using a connection from this
+   * multiplexer.
+   *
+   * @param  compareRequest  The compare request to be processed.  It must not
+   *                         be {@code null}.
+   *
+   * @return  The result of processing the compare operation.
+   *
+   * @throws  LDAPException  If the server rejects the compare request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public CompareResult compare(final CompareRequest compareRequest)
+         throws LDAPException
+  {
+    return execute(OperationType.COMPARE,
+         new MultiplexedOperation<CompareResult>()
+         {
+           @Override()
+           CompareResult process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.compare(compareRequest);
+           }
+         });
+  }
+
+
+
+  /**
+   * Processes the provided compare request using a connection from this
+   * multiplexer.
+   *
+   * @param  compareRequest  The compare request to be processed.  It must not
+   *                         be {@code null}.
+   *
+   * @return  The result of processing the compare operation.
+   *
+   * @throws  LDAPException  If the server rejects the compare request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public CompareResult compare(
+                            final ReadOnlyCompareRequest compareRequest)
+         throws LDAPException
+  {
+    return compare((CompareRequest) compareRequest);
+  }
+
+
+
+  /**
+   * Deletes the entry with the specified DN using a connection from this
+   * multiplexer.
+   *
+   * @param  dn  The DN of the entry to delete.  It must not be {@code null}.
+   *
+   * @return  The result of processing the delete operation.
+   *
+   * @throws  LDAPException  If the server rejects the delete request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult delete(final String dn)
+         throws LDAPException
+  {
+    return delete(new DeleteRequest(dn));
+  }
+
+
+
+  /**
+   * Processes the provided delete request using a connection from this
+   * multiplexer.
+   *
+   * @param  deleteRequest  The delete request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  The result of processing the delete operation.
+   *
+   * @throws  LDAPException  If the server rejects the delete request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult delete(final DeleteRequest deleteRequest)
+         throws LDAPException
+  {
+    return execute(OperationType.DELETE,
+         new MultiplexedOperation<LDAPResult>()
+         {
+           @Override()
+           LDAPResult process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.delete(deleteRequest);
+           }
+         });
+  }
+
+
+
+  /**
+   * Processes the provided delete request using a connection from this
+   * multiplexer.
+   *
+   * @param  deleteRequest  The delete request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  The result of processing the delete operation.
+   *
+   * @throws  LDAPException  If the server rejects the delete request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult delete(final ReadOnlyDeleteRequest deleteRequest)
+         throws LDAPException
+  {
+    return delete((DeleteRequest) deleteRequest);
+  }
+
+
+
+  /**
+   * Applies the provided modification to the specified entry using a connection
+   * from this multiplexer.
+   *
+   * @param  dn   The DN of the entry to modify.  It must not be {@code null}.
+   * @param  mod  The modification to apply to the target entry.  It must not
+   *              be {@code null}.
+   *
+   * @return  The result of processing the modify operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult modify(final String dn, final Modification mod)
+         throws LDAPException
+  {
+    return modify(new ModifyRequest(dn, mod));
+  }
+
+
+
+  /**
+   * Applies the provided set of modifications to the specified entry using a
+   * connection from this multiplexer.
+   *
+   * @param  dn    The DN of the entry to modify.  It must not be {@code null}.
+   * @param  mods  The set of modifications to apply to the target entry.  It
+   *               must not be {@code null} or empty.  *
+   * @return  The result of processing the modify operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult modify(final String dn, final Modification... mods)
+         throws LDAPException
+  {
+    return modify(new ModifyRequest(dn, mods));
+  }
+
+
+
+  /**
+   * Applies the provided set of modifications to the specified entry using a
+   * connection from this multiplexer.
+   *
+   * @param  dn    The DN of the entry to modify.  It must not be {@code null}.
+   * @param  mods  The set of modifications to apply to the target entry.  It
+   *               must not be {@code null} or empty.
+   *
+   * @return  The result of processing the modify operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult modify(final String dn, final List<Modification> mods)
+         throws LDAPException
+  {
+    return modify(new ModifyRequest(dn, mods));
+  }
+
+
+
+  /**
+   * Processes a modify request from the provided LDIF representation of the
+   * changes using a connection from this multiplexer.
+   *
+   * @param  ldifModificationLines  The lines that comprise an LDIF
+   *                                representation of a modify change record.
+   *                                It must not be {@code null} or empty.
+   *
+   * @return  The result of processing the modify operation.
+   *
+   * @throws  LDIFException  If the provided set of lines cannot be parsed as an
+   *                         LDIF modify change record.
+   *
+   * @throws  LDAPException  If the server rejects the modify request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   *
+   */
+  @Override()
+  public LDAPResult modify(final String... ldifModificationLines)
+         throws LDIFException, LDAPException
+  {
+    return modify(new ModifyRequest(ldifModificationLines));
+  }
+
+
+
+  /**
+   * Processes the provided modify request using a connection from this
+   * multiplexer.
+   *
+   * @param  modifyRequest  The modify request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  The result of processing the modify operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult modify(final ModifyRequest modifyRequest)
+         throws LDAPException
+  {
+    return execute(OperationType.MODIFY,
+         new MultiplexedOperation<LDAPResult>()
+         {
+           @Override()
+           LDAPResult process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.modify(modifyRequest);
+           }
+         });
+  }
+
+
+
+  /**
+   * Processes the provided modify request using a connection from this
+   * multiplexer.
+   *
+   * @param  modifyRequest  The modify request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  The result of processing the modify operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify request, or if a
+   *                         problem is encountered while sending the request or
+   *                         reading the response.
+   */
+  @Override()
+  public LDAPResult modify(final ReadOnlyModifyRequest modifyRequest)
+         throws LDAPException
+  {
+    return modify((ModifyRequest) modifyRequest);
+  }
+
+
+
+  /**
+   * Performs a modify DN operation with the provided information using a
+   * connection from this multiplexer.
+   *
+   * @param  dn            The current DN for the entry to rename.  It must not
+   *                       be {@code null}.
+   * @param  newRDN        The new RDN to use for the entry.  It must not be
+   *                       {@code null}.
+   * @param  deleteOldRDN  Indicates whether to delete the current RDN value
+   *                       from the entry.
+   *
+   * @return  The result of processing the modify DN operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify DN request, or if
+   *                         a problem is encountered while sending the request
+   *                         or reading the response.
+   */
+  @Override()
+  public LDAPResult modifyDN(final String dn, final String newRDN,
+                             final boolean deleteOldRDN)
+         throws LDAPException
+  {
+    return modifyDN(new ModifyDNRequest(dn, newRDN, deleteOldRDN));
+  }
+
+
+
+  /**
+   * Performs a modify DN operation with the provided information using a
+   * connection from this multiplexer.
+   *
+   * @param  dn             The current DN for the entry to rename.  It must not
+   *                        be {@code null}.
+   * @param  newRDN         The new RDN to use for the entry.  It must not be
+   *                        {@code null}.
+   * @param  deleteOldRDN   Indicates whether to delete the current RDN value
+   *                        from the entry.
+   * @param  newSuperiorDN  The new superior DN for the entry.  It may be
+   *                        {@code null} if the entry is not to be moved below a
+   *                        new parent.
+   *
+   * @return  The result of processing the modify DN operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify DN request, or if
+   *                         a problem is encountered while sending the request
+   *                         or reading the response.
+   */
+  @Override()
+  public LDAPResult modifyDN(final String dn, final String newRDN,
+                             final boolean deleteOldRDN,
+                             final String newSuperiorDN)
+         throws LDAPException
+  {
+    return modifyDN(new ModifyDNRequest(dn, newRDN, deleteOldRDN,
+         newSuperiorDN));
+  }
+
+
+
+  /**
+   * Processes the provided modify DN request using a connection from this
+   * multiplexer.
+   *
+   * @param  modifyDNRequest  The modify DN request to be processed.  It must
+   *                          not be {@code null}.
+   *
+   * @return  The result of processing the modify DN operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify DN request, or if
+   *                         a problem is encountered while sending the request
+   *                         or reading the response.
+   */
+  @Override()
+  public LDAPResult modifyDN(final ModifyDNRequest modifyDNRequest)
+         throws LDAPException
+  {
+    return execute(OperationType.MODIFY_DN,
+         new MultiplexedOperation<LDAPResult>()
+         {
+           @Override()
+           LDAPResult process(final LDAPConnection conn)
+                throws LDAPException
+           {
+             return conn.modifyDN(modifyDNRequest);
+           }
+         });
+  }
+
+
+
+  /**
+   * Processes the provided modify DN request using a connection from this
+   * multiplexer.
+   *
+   * @param  modifyDNRequest  The modify DN request to be processed.  It must
+   *                          not be {@code null}.
+   *
+   * @return  The result of processing the modify DN operation.
+   *
+   * @throws  LDAPException  If the server rejects the modify DN request, or if
+   *                         a problem is encountered while sending the request
+   *                         or reading the response.
+   */
+  @Override()
+  public LDAPResult modifyDN(
+                         final ReadOnlyModifyDNRequest modifyDNRequest)
+         throws LDAPException
+  {
+    return modifyDN((ModifyDNRequest) modifyDNRequest);
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  The search result entries and references
+   * will be collected internally and included in the {@code SearchResult}
+   * object that is returned.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN      The base DN for the search request.  It must not be
+   *                     {@code null}.
+   * @param  scope       The scope that specifies the range of entries that
+   *                     should be examined for the search.
+   * @param  filter      The string representation of the filter to use to
+   *                     identify matching entries.  It must not be
+   *                     {@code null}.
+   * @param  attributes  The set of attributes that should be returned in
+   *                     matching entries.  It may be {@code null} or empty if
+   *                     the default attribute set (all user attributes) is to
+   *                     be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, including the set of matching entries
+   *          and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while parsing
+   *                               the provided filter string, sending the
+   *                               request, or reading the response.  If one or
+   *                               more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final String filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, parseFilter(filter),
+         attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  The search result entries and references
+   * will be collected internally and included in the {@code SearchResult}
+   * object that is returned.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN      The base DN for the search request.  It must not be
+   *                     {@code null}.
+   * @param  scope       The scope that specifies the range of entries that
+   *                     should be examined for the search.
+   * @param  filter      The filter to use to identify matching entries.  It
+   *                     must not be {@code null}.
+   * @param  attributes  The set of attributes that should be returned in
+   *                     matching entries.  It may be {@code null} or empty if
+   *                     the default attribute set (all user attributes) is to
+   *                     be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, including the set of matching entries
+   *          and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while sending
+   *                               the request or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final Filter filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, filter, attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references (although if a search result listener was provided,
+   * then it will have been used to make any entries and references available,
+   * and they will not be available through the {@code getSearchEntries} and
+   * {@code getSearchReferences} methods).
+   *
+   * @param  searchResultListener  The search result listener that should be
+   *                               used to return results to the client.  It may
+   *                               be {@code null} if the search results should
+   *                               be collected internally and returned in the
+   *                               {@code SearchResult} object.
+   * @param  baseDN                The base DN for the search request.  It must
+   *                               not be {@code null}.
+   * @param  scope                 The scope that specifies the range of entries
+   *                               that should be examined for the search.
+   * @param  filter                The string representation of the filter to
+   *                               use to identify matching entries.  It must
+   *                               not be {@code null}.
+   * @param  attributes            The set of attributes that should be returned
+   *                               in matching entries.  It may be {@code null}
+   *                               or empty if the default attribute set (all
+   *                               user attributes) is to be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, potentially including the set of
+   *          matching entries and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while parsing
+   *                               the provided filter string, sending the
+   *                               request, or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult
+       search(final SearchResultListener searchResultListener,
+              final String baseDN, final SearchScope scope, final String filter,
+              final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         parseFilter(filter), attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references (although if a search result listener was provided,
+   * then it will have been used to make any entries and references available,
+   * and they will not be available through the {@code getSearchEntries} and
+   * {@code getSearchReferences} methods).
+   *
+   * @param  searchResultListener  The search result listener that should be
+   *                               used to return results to the client.  It may
+   *                               be {@code null} if the search results should
+   *                               be collected internally and returned in the
+   *                               {@code SearchResult} object.
+   * @param  baseDN                The base DN for the search request.  It must
+   *                               not be {@code null}.
+   * @param  scope                 The scope that specifies the range of entries
+   *                               that should be examined for the search.
+   * @param  filter                The filter to use to identify matching
+   *                               entries.  It must not be {@code null}.
+   * @param  attributes            The set of attributes that should be returned
+   *                               in matching entries.  It may be {@code null}
+   *                               or empty if the default attribute set (all
+   *                               user attributes) is to be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, potentially including the set of
+   *          matching entries and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while sending
+   *                               the request or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult
+       search(final SearchResultListener searchResultListener,
+              final String baseDN, final SearchScope scope, final Filter filter,
+              final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         filter, attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  The search result entries and references
+   * will be collected internally and included in the {@code SearchResult}
+   * object that is returned.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN       The base DN for the search request.  It must not be
+   *                      {@code null}.
+   * @param  scope        The scope that specifies the range of entries that
+   *                      should be examined for the search.
+   * @param  derefPolicy  The dereference policy the server should use for any
+   *                      aliases encountered while processing the search.
+   * @param  sizeLimit    The maximum number of entries that the server should
+   *                      return for the search.  A value of zero indicates that
+   *                      there should be no limit.
+   * @param  timeLimit    The maximum length of time in seconds that the server
+   *                      should spend processing this search request.  A value
+   *                      of zero indicates that there should be no limit.
+   * @param  typesOnly    Indicates whether to return only attribute names in
+   *                      matching entries, or both attribute names and values.
+   * @param  filter       The string representation of the filter to use to
+   *                      identify matching entries.  It must not be
+   *                      {@code null}.
+   * @param  attributes   The set of attributes that should be returned in
+   *                      matching entries.  It may be {@code null} or empty if
+   *                      the default attribute set (all user attributes) is to
+   *                      be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, including the set of matching entries
+   *          and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while parsing
+   *                               the provided filter string, sending the
+   *                               request, or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final DereferencePolicy derefPolicy,
+                             final int sizeLimit, final int timeLimit,
+                             final boolean typesOnly, final String filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, derefPolicy, sizeLimit,
+         timeLimit, typesOnly, parseFilter(filter), attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  The search result entries and references
+   * will be collected internally and included in the {@code SearchResult}
+   * object that is returned.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN       The base DN for the search request.  It must not be
+   *                      {@code null}.
+   * @param  scope        The scope that specifies the range of entries that
+   *                      should be examined for the search.
+   * @param  derefPolicy  The dereference policy the server should use for any
+   *                      aliases encountered while processing the search.
+   * @param  sizeLimit    The maximum number of entries that the server should
+   *                      return for the search.  A value of zero indicates that
+   *                      there should be no limit.
+   * @param  timeLimit    The maximum length of time in seconds that the server
+   *                      should spend processing this search request.  A value
+   *                      of zero indicates that there should be no limit.
+   * @param  typesOnly    Indicates whether to return only attribute names in
+   *                      matching entries, or both attribute names and values.
+   * @param  filter       The filter to use to identify matching entries.  It
+   *                      must not be {@code null}.
+   * @param  attributes   The set of attributes that should be returned in
+   *                      matching entries.  It may be {@code null} or empty if
+   *                      the default attribute set (all user attributes) is to
+   *                      be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, including the set of matching entries
+   *          and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while sending
+   *                               the request or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult search(final String baseDN, final SearchScope scope,
+                             final DereferencePolicy derefPolicy,
+                             final int sizeLimit, final int timeLimit,
+                             final boolean typesOnly, final Filter filter,
+                             final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(baseDN, scope, derefPolicy, sizeLimit,
+         timeLimit, typesOnly, filter, attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references (although if a search result listener was provided,
+   * then it will have been used to make any entries and references available,
+   * and they will not be available through the {@code getSearchEntries} and
+   * {@code getSearchReferences} methods).
+   *
+   * @param  searchResultListener  The search result listener that should be
+   *                               used to return results to the client.  It may
+   *                               be {@code null} if the search results should
+   *                               be collected internally and returned in the
+   *                               {@code SearchResult} object.
+   * @param  baseDN                The base DN for the search request.  It must
+   *                               not be {@code null}.
+   * @param  scope                 The scope that specifies the range of entries
+   *                               that should be examined for the search.
+   * @param  derefPolicy           The dereference policy the server should use
+   *                               for any aliases encountered while processing
+   *                               the search.
+   * @param  sizeLimit             The maximum number of entries that the server
+   *                               should return for the search.  A value of
+   *                               zero indicates that there should be no limit.
+   * @param  timeLimit             The maximum length of time in seconds that
+   *                               the server should spend processing this
+   *                               search request.  A value of zero indicates
+   *                               that there should be no limit.
+   * @param  typesOnly             Indicates whether to return only attribute
+   *                               names in matching entries, or both attribute
+   *                               names and values.
+   * @param  filter                The string representation of the filter to
+   *                               use to identify matching entries.  It must
+   *                               not be {@code null}.
+   * @param  attributes            The set of attributes that should be returned
+   *                               in matching entries.  It may be {@code null}
+   *                               or empty if the default attribute set (all
+   *                               user attributes) is to be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, potentially including the set of
+   *          matching entries and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while parsing
+   *                               the provided filter string, sending the
+   *                               request, or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult
+       search(final SearchResultListener searchResultListener,
+              final String baseDN, final SearchScope scope,
+              final DereferencePolicy derefPolicy, final int sizeLimit,
+              final int timeLimit, final boolean typesOnly, final String filter,
+              final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         derefPolicy, sizeLimit, timeLimit, typesOnly, parseFilter(filter),
+         attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references (although if a search result listener was provided,
+   * then it will have been used to make any entries and references available,
+   * and they will not be available through the {@code getSearchEntries} and
+   * {@code getSearchReferences} methods).
+   *
+   * @param  searchResultListener  The search result listener that should be
+   *                               used to return results to the client.  It may
+   *                               be {@code null} if the search results should
+   *                               be collected internally and returned in the
+   *                               {@code SearchResult} object.
+   * @param  baseDN                The base DN for the search request.  It must
+   *                               not be {@code null}.
+   * @param  scope                 The scope that specifies the range of entries
+   *                               that should be examined for the search.
+   * @param  derefPolicy           The dereference policy the server should use
+   *                               for any aliases encountered while processing
+   *                               the search.
+   * @param  sizeLimit             The maximum number of entries that the server
+   *                               should return for the search.  A value of
+   *                               zero indicates that there should be no limit.
+   * @param  timeLimit             The maximum length of time in seconds that
+   *                               the server should spend processing this
+   *                               search request.  A value of zero indicates
+   *                               that there should be no limit.
+   * @param  typesOnly             Indicates whether to return only attribute
+   *                               names in matching entries, or both attribute
+   *                               names and values.
+   * @param  filter                The filter to use to identify matching
+   *                               entries.  It must not be {@code null}.
+   * @param  attributes            The set of attributes that should be returned
+   *                               in matching entries.  It may be {@code null}
+   *                               or empty if the default attribute set (all
+   *                               user attributes) is to be requested.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, potentially including the set of
+   *          matching entries and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while sending
+   *                               the request or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult
+        search(final SearchResultListener searchResultListener,
+               final String baseDN, final SearchScope scope,
+               final DereferencePolicy derefPolicy, final int sizeLimit,
+               final int timeLimit, final boolean typesOnly,
+               final Filter filter, final String... attributes)
+         throws LDAPSearchException
+  {
+    return search(new SearchRequest(searchResultListener, baseDN, scope,
+         derefPolicy, sizeLimit, timeLimit, typesOnly, filter, attributes));
+  }
+
+
+
+  /**
+   * Processes the provided search request using a connection from this
+   * multiplexer.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references (although if a search result listener was provided,
+   * then it will have been used to make any entries and references available,
+   * and they will not be available through the {@code getSearchEntries} and
+   * {@code getSearchReferences} methods).
+   *
+   * @param  searchRequest  The search request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, potentially including the set of
+   *          matching entries and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while sending
+   *                               the request or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult search(final SearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    try
+    {
+      return execute(OperationType.SEARCH,
+           new MultiplexedOperation<SearchResult>()
+           {
+             @Override()
+             SearchResult process(final LDAPConnection conn)
+                  throws LDAPException
+             {
+               return conn.search(searchRequest);
+             }
+           });
+    }
+    catch (final LDAPSearchException lse)
+    {
+      Debug.debugException(lse);
+      throw lse;
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw new LDAPSearchException(le);
+    }
+  }
+
+
+
+  /**
+   * Processes the provided search request using a connection from this
+   * multiplexer.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references (although if a search result listener was provided,
+   * then it will have been used to make any entries and references available,
+   * and they will not be available through the {@code getSearchEntries} and
+   * {@code getSearchReferences} methods).
+   *
+   * @param  searchRequest  The search request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  A search result object that provides information about the
+   *          processing of the search, potentially including the set of
+   *          matching entries and search references returned by the server.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               or if a problem is encountered while sending
+   *                               the request or reading the response.  If one
+   *                               or more entries or references were returned
+   *                               before the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResult search(final ReadOnlySearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    return search((SearchRequest) searchRequest);
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  It is expected that at most one entry
+   * will be returned from the search, and that no additional content from the
+   * successful search result (e.g., diagnostic message or response controls)
+   * are needed.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN      The base DN for the search request.  It must not be
+   *                     {@code null}.
+   * @param  scope       The scope that specifies the range of entries that
+   *                     should be examined for the search.
+   * @param  filter      The string representation of the filter to use to
+   *                     identify matching entries.  It must not be
+   *                     {@code null}.
+   * @param  attributes  The set of attributes that should be returned in
+   *                     matching entries.  It may be {@code null} or empty if
+   *                     the default attribute set (all user attributes) is to
+   *                     be requested.
+   *
+   * @return  The entry that was returned from the search, or {@code null} if no
+   *          entry was returned or the base entry does not exist.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               if more than a single entry is returned, or
+   *                               if a problem is encountered while parsing the
+   *                               provided filter string, sending the request,
+   *                               or reading the response.  If one or more
+   *                               entries or references were returned before
+   *                               the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final String baseDN,
+                                          final SearchScope scope,
+                                          final String filter,
+                                          final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope,
+         DereferencePolicy.NEVER, 1, 0, false, parseFilter(filter),
+         attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  It is expected that at most one entry
+   * will be returned from the search, and that no additional content from the
+   * successful search result (e.g., diagnostic message or response controls)
+   * are needed.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN      The base DN for the search request.  It must not be
+   *                     {@code null}.
+   * @param  scope       The scope that specifies the range of entries that
+   *                     should be examined for the search.
+   * @param  filter      The string representation of the filter to use to
+   *                     identify matching entries.  It must not be
+   *                     {@code null}.
+   * @param  attributes  The set of attributes that should be returned in
+   *                     matching entries.  It may be {@code null} or empty if
+   *                     the default attribute set (all user attributes) is to
+   *                     be requested.
+   *
+   * @return  The entry that was returned from the search, or {@code null} if no
+   *          entry was returned or the base entry does not exist.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               if more than a single entry is returned, or
+   *                               if a problem is encountered while parsing the
+   *                               provided filter string, sending the request,
+   *                               or reading the response.  If one or more
+   *                               entries or references were returned before
+   *                               the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(final String baseDN,
+                                          final SearchScope scope,
+                                          final Filter filter,
+                                          final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope,
+         DereferencePolicy.NEVER, 1, 0, false, filter, attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  It is expected that at most one entry
+   * will be returned from the search, and that no additional content from the
+   * successful search result (e.g., diagnostic message or response controls)
+   * are needed.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN       The base DN for the search request.  It must not be
+   *                      {@code null}.
+   * @param  scope        The scope that specifies the range of entries that
+   *                      should be examined for the search.
+   * @param  derefPolicy  The dereference policy the server should use for any
+   *                      aliases encountered while processing the search.
+   * @param  timeLimit    The maximum length of time in seconds that the server
+   *                      should spend processing this search request.  A value
+   *                      of zero indicates that there should be no limit.
+   * @param  typesOnly    Indicates whether to return only attribute names in
+   *                      matching entries, or both attribute names and values.
+   * @param  filter       The string representation of the filter to use to
+   *                      identify matching entries.  It must not be
+   *                      {@code null}.
+   * @param  attributes   The set of attributes that should be returned in
+   *                      matching entries.  It may be {@code null} or empty if
+   *                      the default attribute set (all user attributes) is to
+   *                      be requested.
+   *
+   * @return  The entry that was returned from the search, or {@code null} if no
+   *          entry was returned or the base entry does not exist.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               if more than a single entry is returned, or
+   *                               if a problem is encountered while parsing the
+   *                               provided filter string, sending the request,
+   *                               or reading the response.  If one or more
+   *                               entries or references were returned before
+   *                               the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResultEntry
+       searchForEntry(final String baseDN, final SearchScope scope,
+                final DereferencePolicy derefPolicy, final int timeLimit,
+                final boolean typesOnly, final String filter,
+                final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope, derefPolicy, 1,
+         timeLimit, typesOnly, parseFilter(filter), attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  It is expected that at most one entry
+   * will be returned from the search, and that no additional content from the
+   * successful search result (e.g., diagnostic message or response controls)
+   * are needed.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  baseDN       The base DN for the search request.  It must not be
+   *                      {@code null}.
+   * @param  scope        The scope that specifies the range of entries that
+   *                      should be examined for the search.
+   * @param  derefPolicy  The dereference policy the server should use for any
+   *                      aliases encountered while processing the search.
+   * @param  timeLimit    The maximum length of time in seconds that the server
+   *                      should spend processing this search request.  A value
+   *                      of zero indicates that there should be no limit.
+   * @param  typesOnly    Indicates whether to return only attribute names in
+   *                      matching entries, or both attribute names and values.
+   * @param  filter       The filter to use to identify matching entries.  It
+   *                      must not be {@code null}.
+   * @param  attributes   The set of attributes that should be returned in
+   *                      matching entries.  It may be {@code null} or empty if
+   *                      the default attribute set (all user attributes) is to
+   *                      be requested.
+   *
+   * @return  The entry that was returned from the search, or {@code null} if no
+   *          entry was returned or the base entry does not exist.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               if more than a single entry is returned, or
+   *                               if a problem is encountered while parsing the
+   *                               provided filter string, sending the request,
+   *                               or reading the response.  If one or more
+   *                               entries or references were returned before
+   *                               the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResultEntry
+       searchForEntry(final String baseDN, final SearchScope scope,
+                final DereferencePolicy derefPolicy, final int timeLimit,
+                final boolean typesOnly, final Filter filter,
+                final String... attributes)
+         throws LDAPSearchException
+  {
+    return searchForEntry(new SearchRequest(baseDN, scope, derefPolicy, 1,
+         timeLimit, typesOnly, filter, attributes));
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  It is expected that at most one entry
+   * will be returned from the search, and that no additional content from the
+   * successful search result (e.g., diagnostic message or response controls)
+   * are needed.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  searchRequest  The search request to be processed.  If it is
+   *                        configured with a search result listener or a size
+   *                        limit other than one, then the provided request will
+   *                        be duplicated with the appropriate settings.
+   *
+   * @return  The entry that was returned from the search, or {@code null} if no
+   *          entry was returned or the base entry does not exist.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               if more than a single entry is returned, or
+   *                               if a problem is encountered while parsing the
+   *                               provided filter string, sending the request,
+   *                               or reading the response.  If one or more
+   *                               entries or references were returned before
+   *                               the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(
+                                final SearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    try
+    {
+      return execute(OperationType.SEARCH,
+           new MultiplexedOperation<SearchResultEntry>()
+           {
+             @Override()
+             SearchResultEntry process(final LDAPConnection conn)
+                  throws LDAPException
+             {
+               return conn.searchForEntry(searchRequest);
+             }
+           });
+    }
+    catch (final LDAPSearchException lse)
+    {
+      Debug.debugException(lse);
+      throw lse;
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw new LDAPSearchException(le);
+    }
+  }
+
+
+
+  /**
+   * Processes a search operation with the provided information using a
+   * connection from this multiplexer.  It is expected that at most one entry
+   * will be returned from the search, and that no additional content from the
+   * successful search result (e.g., diagnostic message or response controls)
+   * are needed.
+   * <BR><BR>
+   * Note that if the search does not complete successfully, an
+   * {@code LDAPSearchException} will be thrown  In some cases, one or more
+   * search result entries or references may have been returned before the
+   * failure response is received.  In this case, the
+   * {@code LDAPSearchException} methods like {@code getEntryCount},
+   * {@code getSearchEntries}, {@code getReferenceCount}, and
+   * {@code getSearchReferences} may be used to obtain information about those
+   * entries and references.
+   *
+   * @param  searchRequest  The search request to be processed.  If it is
+   *                        configured with a search result listener or a size
+   *                        limit other than one, then the provided request will
+   *                        be duplicated with the appropriate settings.
+   *
+   * @return  The entry that was returned from the search, or {@code null} if no
+   *          entry was returned or the base entry does not exist.
+   *
+   * @throws  LDAPSearchException  If the search does not complete successfully,
+   *                               if more than a single entry is returned, or
+   *                               if a problem is encountered while parsing the
+   *                               provided filter string, sending the request,
+   *                               or reading the response.  If one or more
+   *                               entries or references were returned before
+   *                               the failure was encountered, then the
+   *                               {@code LDAPSearchException} object may be
+   *                               examined to obtain information about those
+   *                               entries and/or references.
+   */
+  @Override()
+  public SearchResultEntry searchForEntry(
+                                final ReadOnlySearchRequest searchRequest)
+         throws LDAPSearchException
+  {
+    return searchForEntry((SearchRequest) searchRequest);
+  }
+
+
+  /**
+   * Parses the provided string as a {@code Filter} object.
+   *
+   * @param  filterString  The string to parse as a {@code Filter}.
+   *
+   * @return  The parsed {@code Filter}.
+   *
+   * @throws  LDAPSearchException  If the provided string does not represent a
+   *                               valid search filter.
+   */
+  private static Filter parseFilter(final String filterString)
+          throws LDAPSearchException
+  {
+    try
+    {
+      return Filter.create(filterString);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw new LDAPSearchException(le);
+    }
+  }
+
+
+
+  /**
+   * Processes the provided operation on a connection selected from this
+   * multiplexer.  If the operation fails in a way that indicates the
+   * connection is no longer valid, then the connection will be replaced, and
+   * the operation will be retried once on another connection if operations of
+   * that type should be retried.
+   *
+   * @param  <T>            The type of result returned by the operation.
+   * @param  operationType  The type of operation being processed.
+   * @param  operation      The operation to process.
+   *
+   * @return  The result returned by the operation.
+   *
+   * @throws  LDAPException  If a problem occurs while processing the
+   *                         operation.
+   */
+  private <T> T execute(final OperationType operationType,
+                        final MultiplexedOperation<T> operation)
+          throws LDAPException
+  {
+    boolean retried = false;
+    while (true)
+    {
+      final ObjectPair<MultiplexedConnection,LDAPConnection> p =
+           acquireConnection();
+      final MultiplexedConnection slot = p.getFirst();
+      final LDAPConnection conn = p.getSecond();
+
+      try
+      {
+        return operation.process(conn);
+      }
+      catch (final Throwable t)
+      {
+        Debug.debugException(t);
+
+        if (t instanceof LDAPException)
+        {
+          final LDAPException le = (LDAPException) t;
+          if (conn.isConnected() &&
+              ResultCode.isConnectionUsable(le.getResultCode()))
+          {
+            throw le;
+          }
+
+          replaceConnection(slot, conn);
+          if (retried || (! retryOperationTypes.contains(operationType)))
+          {
+            throw le;
+          }
+        }
+        else
+        {
+          replaceConnection(slot, conn);
+          StaticUtils.rethrowIfError(t);
+          throw new LDAPException(ResultCode.LOCAL_ERROR,
+               ERR_POOL_OP_EXCEPTION.get(StaticUtils.getExceptionMessage(t)),
+               t);
+        }
+
+        retried = true;
+        numOperationsRetried.incrementAndGet();
+      }
+      finally
+      {
+        releaseConnection(slot);
+      }
+    }
+  }
+
+
+
+  /**
+   * Selects the connection that should be used to process an operation.  The
+   * established connection with the fewest outstanding operations will be
+   * selected, waiting if necessary for a connection to be able to accept
+   * another operation.
+   *
+   * @return  An object pair with the slot that holds the selected connection
+   *          and the connection itself.
+   *
+   * @throws  LDAPException  If this multiplexer has been closed, if no
+   *                         connection could accept the operation within the
+   *                         maximum wait time, or if no connections are
+   *                         established and none can be re-established.
+   */
+  private ObjectPair<MultiplexedConnection,LDAPConnection> acquireConnection()
+          throws LDAPException
+  {
+    final long stopWaitingNanos = System.nanoTime() +
+         TimeUnit.MILLISECONDS.toNanos(maxWaitTimeMillis);
+    LDAPException reestablishException = null;
+    boolean reestablishAttempted = false;
+
+    while (true)
+    {
+      lock.lock();
+      try
+      {
+        while (true)
+        {
+          if (closed)
+          {
+            throw new LDAPException(ResultCode.CONNECT_ERROR,
+                 ERR_MULTIPLEXER_CLOSED.get());
+          }
+
+          final ObjectPair<MultiplexedConnection,LDAPConnection> p =
+               selectConnection();
+          if (p != null)
+          {
+            return p;
+          }
+
+          // If any of the connections could not be replaced, then try to
+          // re-establish them before waiting.
+          boolean anyEstablished = false;
+          boolean anyUnestablished = false;
+          for (final MultiplexedConnection slot : slots)
+          {
+            if (slot.getConnection() == null)
+            {
+              anyUnestablished = true;
+            }
+            else
+            {
+              anyEstablished = true;
+            }
+          }
+
+          if (anyUnestablished && (! reestablishAttempted))
+          {
+            break;
+          }
+
+          if (! anyEstablished)
+          {
+            if (reestablishException == null)
+            {
+              break;
+            }
+
+            throw new LDAPException(ResultCode.CONNECT_ERROR,
+                 ERR_MULTIPLEXER_NO_CONNECTIONS.get(
+                      reestablishException.getMessage()),
+                 reestablishException);
+          }
+
+          final long remainingNanos = stopWaitingNanos - System.nanoTime();
+          if (remainingNanos <= 0L)
+          {
+            throw new LDAPException(ResultCode.TIMEOUT,
+                 ERR_MULTIPLEXER_WAIT_TIMEOUT.get(maxWaitTimeMillis));
+          }
+
+          try
+          {
+            capacityAvailable.awaitNanos(remainingNanos);
+          }
+          catch (final InterruptedException ie)
+          {
+            Debug.debugException(ie);
+            Thread.currentThread().interrupt();
+            throw new LDAPException(ResultCode.LOCAL_ERROR,
+                 ERR_MULTIPLEXER_WAIT_INTERRUPTED.get(), ie);
+          }
+        }
+      }
+      finally
+      {
+        lock.unlock();
+      }
+
+      reestablishAttempted = true;
+      reestablishException = reestablishConnections();
+    }
+  }
+
+
+
+  /**
+   * Selects the established connection with the fewest outstanding
+   * operations, as long as it is able to accept another operation.  The
+   * caller must hold the lock.
+   *
+   * @return  An object pair with the slot that holds the selected connection
+   *          and the connection itself, or {@code null} if no established
+   *          connection can accept another operation.
+   */
+  private ObjectPair<MultiplexedConnection,LDAPConnection> selectConnection()
+  {
+    MultiplexedConnection selectedSlot = null;
+    LDAPConnection selectedConnection = null;
+    for (int i=0; i < slots.length; i++)
+    {
+      final MultiplexedConnection slot =
+           slots[(nextSlotIndex + i) % slots.length];
+      final LDAPConnection conn = slot.getConnection();
+      final int numOutstanding = slot.getNumOutstandingOperations();
+      if ((conn != null) && (numOutstanding < maxOperationsPerConnection) &&
+          ((selectedSlot == null) ||
+           (numOutstanding < selectedSlot.getNumOutstandingOperations())))
+      {
+        selectedSlot = slot;
+        selectedConnection = conn;
+      }
+    }
+
+    if (selectedSlot == null)
+    {
+      return null;
+    }
+
+    nextSlotIndex = (nextSlotIndex + 1) % slots.length;
+    selectedSlot.operationStarted();
+    return new ObjectPair<>(selectedSlot, selectedConnection);
+  }
+
+
+
+  /**
+   * Indicates that an operation is no longer outstanding on the connection in
+   * the provided slot, and wakes up a thread that may be waiting for a
+   * connection to be able to accept another operation.
+   *
+   * @param  slot  The slot holding the connection on which the operation was
+   *               processed.
+   */
+  private void releaseConnection(final MultiplexedConnection slot)
+  {
+    lock.lock();
+    try
+    {
+      slot.operationCompleted();
+      capacityAvailable.signal();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Closes the provided connection, which is no longer valid, and replaces it
+   * with a newly-established connection.  If another thread has already
+   * replaced the connection, then no action will be taken.  If a new
+   * connection cannot be established, then the slot will be left empty until
+   * a later attempt to re-establish it succeeds.
+   *
+   * @param  slot              The slot holding the connection.
+   * @param  failedConnection  The connection that is no longer valid.
+   */
+  private void replaceConnection(final MultiplexedConnection slot,
+                                 final LDAPConnection failedConnection)
+  {
+    synchronized (slot)
+    {
+      if (slot.getConnection() != failedConnection)
+      {
+        return;
+      }
+
+      failedConnection.setDisconnectInfo(
+           DisconnectType.POOLED_CONNECTION_DEFUNCT, null, null);
+      failedConnection.setClosed();
+      slot.setConnection(null);
+
+      if (closed)
+      {
+        return;
+      }
+
+      try
+      {
+        slot.setConnection(createConnection());
+        numConnectionsReplaced.incrementAndGet();
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        return;
+      }
+    }
+
+    signalCapacityAvailable();
+  }
+
+
+
+  /**
+   * Attempts to establish connections for any slots that do not currently have
+   * an established connection.
+   *
+   * @return  The exception caught while attempting to establish a connection,
+   *          or {@code null} if no problem was encountered.
+   */
+  private LDAPException reestablishConnections()
+  {
+    LDAPException firstException = null;
+    for (final MultiplexedConnection slot : slots)
+    {
+      synchronized (slot)
+      {
+        if (closed || (slot.getConnection() != null))
+        {
+          continue;
+        }
+
+        try
+        {
+          slot.setConnection(createConnection());
+          numConnectionsReplaced.incrementAndGet();
+        }
+        catch (final LDAPException le)
+        {
+          Debug.debugException(le);
+          if (firstException == null)
+          {
+            firstException = le;
+          }
+        }
+      }
+    }
+
+    signalCapacityAvailable();
+    return firstException;
+  }
+
+
+
+  /**
+   * Wakes up all threads that may be waiting for a connection to be able to
+   * accept another operation.
+   */
+  private void signalCapacityAvailable()
+  {
+    lock.lock();
+    try
+    {
+      capacityAvailable.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this connection multiplexer.
+   *
+   * @return  A string representation of this connection multiplexer.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this connection multiplexer to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LDAPConnectionMultiplexer(serverSet=");
+    serverSet.toString(buffer);
+    buffer.append(", numConnections=");
+    buffer.append(slots.length);
+    buffer.append(", maxOperationsPerConnection=");
+    buffer.append(maxOperationsPerConnection);
+    buffer.append(", numOutstandingOperations=");
+    buffer.append(getNumOutstandingOperations());
+    buffer.append(')');
+  }
+
+
+
+  /**
+   * This class holds one of the connections used by a connection multiplexer,
+   * along with the number of operations outstanding on it.  The connection may
+   * only be replaced while synchronized on this object, and the number of
+   * outstanding operations may only be accessed while holding the
+   * multiplexer's lock.
+   */
+  private static final class MultiplexedConnection
+  {
+    // The number of operations currently outstanding on this slot.
+    private int numOutstandingOperations;
+
+    // The connection in this slot, or null if it is not established.
+    private volatile LDAPConnection connection;
+
+
+
+    /**
+     * Creates a new slot with the provided connection.
+     *
+     * @param  connection  The connection to hold in the slot.
+     */
+    private MultiplexedConnection(final LDAPConnection connection)
+    {
+      this.connection = connection;
+      numOutstandingOperations = 0;
+    }
+
+
+
+    /**
+     * Retrieves the connection in this slot.
+     *
+     * @return  The connection in this slot, or {@code null} if it is not
+     *          established.
+     */
+    private LDAPConnection getConnection()
+    {
+      return connection;
+    }
+
+
+
+    /**
+     * Specifies the connection for this slot.
+     *
+     * @param  connection  The connection for this slot.  It may be
+     *                     {@code null} if the slot does not have an
+     *                     established connection.
+     */
+    private void setConnection(final LDAPConnection connection)
+    {
+      this.connection = connection;
+    }
+
+
+
+    /**
+     * Retrieves the number of operations currently outstanding on this slot.
+     *
+     * @return  The number of operations currently outstanding on this slot.
+     */
+    private int getNumOutstandingOperations()
+    {
+      return numOutstandingOperations;
+    }
+
+
+
+    /**
+     * Indicates that an operation has been started on this slot.
+     */
+    private void operationStarted()
+    {
+      numOutstandingOperations++;
+    }
+
+
+
+    /**
+     * Indicates that an operation on this slot has completed.
+     */
+    private void operationCompleted()
+    {
+      numOutstandingOperations--;
+    }
+  }
+
+
+
+  /**
+   * This class defines an operation that may be processed on a connection
+   * selected by a connection multiplexer.
+   *
+   * @param  <T>  The type of result returned by the operation.
+   */
+  private abstract static class MultiplexedOperation<T>
+  {
+    /**
+     * Processes this operation on the provided connection.
+     *
+     * @param  conn  The connection on which to process the operation.
+     *
+     * @return  The result of processing the operation.
+     *
+     * @throws  LDAPException  If a problem occurs while processing the
+     *                         operation.
+     */
+    abstract T process(LDAPConnection conn)
+         throws LDAPException;
+  }
+}
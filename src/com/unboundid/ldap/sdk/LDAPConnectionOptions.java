@@ -149,10 +149,18 @@ import com.unboundid.util.ssl.TrustAllSSLSocketVerifier;
  *       encounters a message that may be larger than the maximum allowed
  *       message size, then the SDK will terminate the connection to the
  *       server.</LI>
+ *   <LI>The {@link LDAPConnectThrottle} that should be used to limit the rate
+ *       at which connections are established and to delay attempts to connect
+ *       to servers for which recent attempts have failed.  By default, no
+ *       {@code LDAPConnectThrottle} will be used.</LI>
  *   <LI>The {@link LDAPConnectionLogger} that should be used to record
  *       information about requests sent and responses received over
  *       connections with this set of options.  By default, no
  *       {@code LDAPConnectionLogger} will be used.</LI>
+ *   <LI>The {@link LDAPOperationTracer} that should be notified about the
+ *       time spent in each phase of processing operations on connections with
+ *       this set of options.  By default, no {@code LDAPOperationTracer} will
+ *       be used, and no timing information will be captured.</LI>
  *   <LI>The {@link DisconnectHandler} that should be used to receive
  *       notification if connection is disconnected for any reason.  By default,
  *       no {@code DisconnectHandler} will be used.</LI>
@@ -1234,11 +1242,19 @@ public final class LDAPConnectionOptions
   // The socket send buffer size to request.
   private int sendBufferSizeBytes;
 
+  // The throttle that should be used to limit the rate at which connections
+  // with this set of options are established.
+  private LDAPConnectThrottle connectThrottle;
+
   // The connection logger that should be used to record information about
   // requests sent and responses received over connections with this set of
   // options.
   private LDAPConnectionLogger connectionLogger;
 
+  // The operation tracer that should be notified about the time spent in each
+  // phase of processing operations on connections with this set of options.
+  private LDAPOperationTracer operationTracer;
+
   // The pooled schema timeout, in milliseconds.
   private long pooledSchemaTimeoutMillis;
 
@@ -1291,7 +1307,9 @@ public final class LDAPConnectionOptions
     responseTimeoutMillis          = DEFAULT_RESPONSE_TIMEOUT_MILLIS;
     receiveBufferSizeBytes         = DEFAULT_RECEIVE_BUFFER_SIZE_BYTES;
     sendBufferSizeBytes            = DEFAULT_SEND_BUFFER_SIZE_BYTES;
+    connectThrottle                = null;
     connectionLogger               = null;
+    operationTracer                = null;
     disconnectHandler              = null;
     referralConnector              = null;
     sslSocketVerifier              = DEFAULT_SSL_SOCKET_VERIFIER;
@@ -1339,7 +1357,9 @@ public final class LDAPConnectionOptions
     o.responseTimeoutMillis           = responseTimeoutMillis;
     o.referralConnector               = referralConnector;
     o.referralHopLimit                = referralHopLimit;
+    o.connectThrottle                 = connectThrottle;
     o.connectionLogger                = connectionLogger;
+    o.operationTracer                 = operationTracer;
     o.disconnectHandler               = disconnectHandler;
     o.unsolicitedNotificationHandler  = unsolicitedNotificationHandler;
     o.receiveBufferSizeBytes          = receiveBufferSizeBytes;
@@ -2241,6 +2261,40 @@ public final class LDAPConnectionOptions
 
 
 
+  /**
+   * Retrieves the throttle that should be used to limit the rate at which
+   * connections with this set of options are established.
+   *
+   * @return  The throttle that should be used to limit the rate at which
+   *          connections with this set of options are established, or
+   *          {@code null} if connection attempts should not be throttled.
+   */
+  public LDAPConnectThrottle getConnectThrottle()
+  {
+    return connectThrottle;
+  }
+
+
+
+  /**
+   * Specifies the throttle that should be used to limit the rate at which
+   * connections with this set of options are established.  To limit the rate
+   * of connection attempts across an entire application, the same throttle
+   * should be provided to all of the connection options that it uses.
+   *
+   * @param  connectThrottle  The throttle that should be used to limit the
+   *                          rate at which connections with this set of
+   *                          options are established.  It may be
+   *                          {@code null} if connection attempts should not
+   *                          be throttled.
+   */
+  public void setConnectThrottle(final LDAPConnectThrottle connectThrottle)
+  {
+    this.connectThrottle = connectThrottle;
+  }
+
+
+
   /**
    * Retrieves the logger that should be used to record information about
    * requests sent and responses received over connections with this set of
@@ -2275,6 +2329,41 @@ public final class LDAPConnectionOptions
 
 
 
+  /**
+   * Retrieves the operation tracer that should be notified about the time
+   * spent in each phase of processing operations on connections with this set
+   * of options.
+   *
+   * @return  The operation tracer that should be notified about the time spent
+   *          in each phase of processing operations on connections with this
+   *          set of options, or {@code null} if no tracing should be
+   *          performed.
+   */
+  public LDAPOperationTracer getOperationTracer()
+  {
+    return operationTracer;
+  }
+
+
+
+  /**
+   * Specifies the operation tracer that should be notified about the time
+   * spent in each phase of processing operations on connections with this set
+   * of options.
+   *
+   * @param  operationTracer  The operation tracer that should be notified
+   *                          about the time spent in each phase of processing
+   *                          operations on connections with this set of
+   *                          options.  It may be {@code null} if no tracing
+   *                          should be performed.
+   */
+  public void setOperationTracer(final LDAPOperationTracer operationTracer)
+  {
+    this.operationTracer = operationTracer;
+  }
+
+
+
   /**
    * Retrieves the disconnect handler to use for associated connections.
    *
@@ -2402,6 +2491,10 @@ public final class LDAPConnectionOptions
    * (which may allow for better and more consistent performance, especially in
    * cases where a connection attempt fails due to a timeout) or prevented
    * (which may be necessary for non-threadsafe socket factory implementations).
+   * This setting also applies to the SSL socket factory used to secure a
+   * connection with the StartTLS extended operation, although the TLS
+   * handshake itself will never be performed while holding a lock on the
+   * socket factory.
    *
    * @return  {@code true} if multiple threads should be able to concurrently
    *          use the same socket factory instance, or {@code false} if Java
@@ -2769,12 +2862,24 @@ public final class LDAPConnectionOptions
     buffer.append(", allowConcurrentSocketFactoryUse=");
     buffer.append(allowConcurrentSocketFactoryUse);
 
+    if (connectThrottle != null)
+    {
+      buffer.append(", connectThrottle=");
+      connectThrottle.toString(buffer);
+    }
+
     if (connectionLogger != null)
     {
       buffer.append(", connectionLoggerClass=");
       buffer.append(connectionLogger.getClass().getName());
     }
 
+    if (operationTracer != null)
+    {
+      buffer.append(", operationTracerClass=");
+      buffer.append(operationTracer.getClass().getName());
+    }
+
     if (disconnectHandler != null)
     {
       buffer.append(", disconnectHandlerClass=");
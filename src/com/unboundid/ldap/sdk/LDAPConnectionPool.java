@@ -41,11 +41,14 @@ import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -53,6 +56,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import com.unboundid.ldap.protocol.LDAPResponse;
 import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
 import com.unboundid.util.ObjectPair;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
@@ -232,6 +236,9 @@ public final class LDAPConnectionPool
   // included in the pool.
   private final AtomicInteger failedReplaceCount;
 
+  // The number of connections that are currently checked out of this pool.
+  private final AtomicInteger numCheckedOutConnections;
+
   // The types of operations that should be retried if they fail in a manner
   // that may be the result of a connection that is no longer valid.
   private final AtomicReference<Set<OperationType>> retryOperationTypes;
@@ -247,6 +254,20 @@ public final class LDAPConnectionPool
   // back to the pool.
   private volatile boolean checkConnectionAgeOnRelease;
 
+  // Indicates whether to consider the response times of the servers to which
+  // available connections are established when checking out connections.
+  private volatile boolean latencyAwareCheckout;
+
+  // Indicates whether any connection created for this pool has an operation
+  // tracer, in which case the time required to check out connections will be
+  // measured so that it can be reported to the tracer.  It is not reset once
+  // set.
+  private volatile boolean traceCheckouts;
+
+  // Indicates whether to keep track of the number of successful checkouts for
+  // each server.
+  private volatile boolean trackCheckoutsByServer;
+
   // Indicates whether health check processing for connections in synchronous
   // mode should include attempting to read with a very short timeout to attempt
   // to detect closures and unsolicited notifications in a more timely manner.
@@ -259,6 +280,19 @@ public final class LDAPConnectionPool
   // The number of connections to be held in this pool.
   private final int numConnections;
 
+  // The maximum number of available connections that should be examined
+  // concurrently during health check processing.
+  private volatile int healthCheckParallelism;
+
+  // The executor that will be used to examine connections in parallel during
+  // health check processing.  It will be created the first time that it is
+  // needed, and will be shut down when the pool is closed.
+  private ThreadPoolExecutor healthCheckExecutor;
+
+  // The maximum number of available connections that should be taken out of
+  // the pool to be examined per second during health check processing.
+  private volatile int maxHealthChecksPerSecond;
+
   // The minimum number of connections that the health check mechanism should
   // try to keep available for immediate use.
   private volatile int minConnectionGoal;
@@ -271,11 +305,20 @@ public final class LDAPConnectionPool
   // for this connection pool.
   private final LDAPConnectionPoolHealthCheckThread healthCheckThread;
 
+  // The thread that will be used to adapt the size of this connection pool to
+  // the demand placed on it, if adaptive sizing is enabled.
+  private volatile LDAPConnectionPoolAdaptiveSizer adaptiveSizer;
+
+  // The hedger that will be used to hedge search and compare requests, if
+  // request hedging is enabled.
+  private volatile LDAPConnectionPoolHedger hedger;
+
   // The statistics for this connection pool.
   private final LDAPConnectionPoolStatistics poolStatistics;
 
-  // The set of connections that are currently available for use.
-  private final LinkedBlockingQueue<LDAPConnection> availableConnections;
+  // The set of connections that are currently available for use, partitioned
+  // by the server to which they are established.
+  private final ServerPartitionedConnectionQueue availableConnections;
 
   // The length of time in milliseconds between periodic health checks against
   // the available connections in this pool.
@@ -653,7 +696,10 @@ public final class LDAPConnectionPool
          Collections.unmodifiableSet(EnumSet.noneOf(OperationType.class)));
     numConnections            = maxConnections;
     minConnectionGoal         = 0;
-    availableConnections      = new LinkedBlockingQueue<>(numConnections);
+    healthCheckParallelism    = 1;
+    maxHealthChecksPerSecond  = 0;
+    availableConnections      =
+         new ServerPartitionedConnectionQueue(numConnections);
 
     if (! connection.isConnected())
     {
@@ -679,6 +725,7 @@ public final class LDAPConnectionPool
                                     postConnectProcessor);
 
     final LDAPConnectionOptions opts = connection.getConnectionOptions();
+    traceCheckouts = (opts.getOperationTracer() != null);
     if (opts.usePooledSchema())
     {
       try
@@ -760,12 +807,17 @@ public final class LDAPConnectionPool
          new AtomicInteger(maxConnections - availableConnections.size());
     createIfNecessary                  = true;
     checkConnectionAgeOnRelease        = false;
+    latencyAwareCheckout               = false;
+    trackCheckoutsByServer             = false;
     maxConnectionAge                   = 0L;
     maxDefunctReplacementConnectionAge = null;
     minDisconnectInterval              = 0L;
     lastExpiredDisconnectTime          = 0L;
     maxWaitTime                        = 0L;
     closed                             = false;
+    numCheckedOutConnections           = new AtomicInteger(0);
+    adaptiveSizer                      = null;
+    hedger                             = null;
 
     healthCheckThread = new LDAPConnectionPoolHealthCheckThread(this);
     healthCheckThread.start();
@@ -1180,8 +1232,11 @@ public final class LDAPConnectionPool
     retryOperationTypes = new AtomicReference<>(
          Collections.unmodifiableSet(EnumSet.noneOf(OperationType.class)));
     minConnectionGoal   = 0;
+    healthCheckParallelism   = 1;
+    maxHealthChecksPerSecond = 0;
     numConnections = maxConnections;
-    availableConnections = new LinkedBlockingQueue<>(numConnections);
+    availableConnections =
+         new ServerPartitionedConnectionQueue(numConnections);
 
     if (healthCheck == null)
     {
@@ -1242,12 +1297,18 @@ public final class LDAPConnectionPool
          new AtomicInteger(maxConnections - availableConnections.size());
     createIfNecessary                  = true;
     checkConnectionAgeOnRelease        = false;
+    latencyAwareCheckout               =
+         (serverSet instanceof LatencyAwareServerSet);
+    trackCheckoutsByServer             = false;
     maxConnectionAge                   = 0L;
     maxDefunctReplacementConnectionAge = null;
     minDisconnectInterval              = 0L;
     lastExpiredDisconnectTime          = 0L;
     maxWaitTime                        = 0L;
     closed                             = false;
+    numCheckedOutConnections           = new AtomicInteger(0);
+    adaptiveSizer                      = null;
+    hedger                             = null;
 
     healthCheckThread = new LDAPConnectionPoolHealthCheckThread(this);
     healthCheckThread.start();
@@ -1318,6 +1379,11 @@ public final class LDAPConnectionPool
       c.setConnectionOptions(opts);
     }
 
+    if ((opts.getOperationTracer() != null) && (! traceCheckouts))
+    {
+      traceCheckouts = true;
+    }
+
 
     // Invoke pre-authentication post-connect processing.
     if (postConnectProcessor != null)
@@ -1505,6 +1571,8 @@ public final class LDAPConnectionPool
     // Finish setting up the connection.
     c.setConnectionPoolName(connectionPoolName);
     poolStatistics.incrementNumSuccessfulConnectionAttempts();
+    poolStatistics.incrementNumSuccessfulConnectionAttempts(
+         ServerPartitionedConnectionQueue.getServerKey(c));
     Debug.debugConnectionPool(Level.INFO, this, c,
          "Successfully created a new pooled connection", null);
 
@@ -1535,6 +1603,13 @@ public final class LDAPConnectionPool
       final boolean healthCheckThreadAlreadySignaled = closed;
       closed = true;
       healthCheckThread.stopRunning(! healthCheckThreadAlreadySignaled);
+      shutDownHealthCheckExecutor();
+
+      final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+      if (sizer != null)
+      {
+        sizer.stopRunning(true);
+      }
 
       if (numThreads > 1)
       {
@@ -1769,6 +1844,139 @@ public final class LDAPConnectionPool
   @Override()
   public LDAPConnection getConnection()
          throws LDAPException
+  {
+    // Only measure the checkout time if something will use it.
+    final LDAPConnectionPoolAdaptiveSizer initialSizer = adaptiveSizer;
+    final boolean measureCheckout =
+         (traceCheckouts || (initialSizer != null));
+    final long checkoutStartNanos;
+    if (measureCheckout)
+    {
+      checkoutStartNanos = System.nanoTime();
+    }
+    else
+    {
+      checkoutStartNanos = 0L;
+    }
+
+    final LDAPConnection conn;
+    try
+    {
+      conn = checkOutConnection();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+
+      final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+      if (sizer != null)
+      {
+        sizer.checkoutFailed();
+      }
+
+      throw le;
+    }
+
+    final long checkoutEndNanos;
+    if (measureCheckout)
+    {
+      checkoutEndNanos = System.nanoTime();
+    }
+    else
+    {
+      checkoutEndNanos = 0L;
+    }
+
+    if (trackCheckoutsByServer)
+    {
+      poolStatistics.incrementNumSuccessfulCheckouts(
+           ServerPartitionedConnectionQueue.getServerKey(conn));
+    }
+
+    final int numCheckedOut = connectionCheckedOut(conn);
+    final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+    if (sizer != null)
+    {
+      sizer.checkoutCompleted((checkoutEndNanos - checkoutStartNanos),
+           numCheckedOut);
+    }
+
+    final LDAPOperationTracer tracer =
+         conn.getConnectionOptions().getOperationTracer();
+    if ((tracer != null) && measureCheckout)
+    {
+      tracer.phaseCompleted(conn, null, -1,
+           OperationTracePhase.CONNECTION_CHECKOUT, checkoutStartNanos,
+           checkoutEndNanos);
+    }
+
+    return conn;
+  }
+
+
+
+  /**
+   * Records that the provided connection has been checked out of this pool.
+   *
+   * @param  connection  The connection that has been checked out.
+   *
+   * @return  The number of connections that are currently checked out of this
+   *          pool.
+   */
+  private int connectionCheckedOut(final LDAPConnection connection)
+  {
+    if (connection.setCheckedOutFromPool(true))
+    {
+      return numCheckedOutConnections.incrementAndGet();
+    }
+    else
+    {
+      return numCheckedOutConnections.get();
+    }
+  }
+
+
+
+  /**
+   * Records that the provided connection is no longer checked out of this pool.
+   * This may safely be called more than once for the same connection.
+   *
+   * @param  connection  The connection that is no longer checked out.
+   */
+  private void connectionReturned(final LDAPConnection connection)
+  {
+    if (connection.setCheckedOutFromPool(false))
+    {
+      numCheckedOutConnections.decrementAndGet();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that are currently checked out of this
+   * pool.
+   *
+   * @return  The number of connections that are currently checked out of this
+   *          pool.
+   */
+  int getNumCheckedOutConnections()
+  {
+    return numCheckedOutConnections.get();
+  }
+
+
+
+  /**
+   * Retrieves a connection from the pool, waiting for one to become available
+   * or creating a new one if necessary.
+   *
+   * @return  A connection from the pool.
+   *
+   * @throws  LDAPException  If no connection could be obtained.
+   */
+  private LDAPConnection checkOutConnection()
+          throws LDAPException
   {
     if (closed)
     {
@@ -1779,7 +1987,7 @@ public final class LDAPConnectionPool
                               ERR_POOL_CLOSED.get());
     }
 
-    LDAPConnection conn = availableConnections.poll();
+    LDAPConnection conn = availableConnections.pollWeighted();
     if (conn != null)
     {
       Exception connException = null;
@@ -1788,6 +1996,11 @@ public final class LDAPConnectionPool
         try
         {
           healthCheck.ensureConnectionValidForCheckout(conn);
+          if (latencyAwareCheckout)
+          {
+            conn = selectLowerLatencyConnection(conn);
+          }
+
           poolStatistics.incrementNumSuccessfulCheckoutsWithoutWaiting();
           Debug.debugConnectionPool(Level.INFO, this, conn,
                "Checked out an immediately available pooled connection", null);
@@ -1807,7 +2020,7 @@ public final class LDAPConnectionPool
       handleDefunctConnection(conn);
       for (int i=0; i < numConnections; i++)
       {
-        conn = availableConnections.poll();
+        conn = availableConnections.pollWeighted();
         if (conn == null)
         {
           break;
@@ -1946,6 +2159,75 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Compares the provided connection with another available connection, if
+   * there is one, and selects the connection that is established to the
+   * server with the lower expected cost for processing another operation.  The
+   * connection that is not selected will be returned to the pool.
+   *
+   * @param  conn  A connection that has been checked out of the pool and is
+   *               known to be valid for checkout.
+   *
+   * @return  The selected connection.
+   */
+  private LDAPConnection selectLowerLatencyConnection(final LDAPConnection conn)
+  {
+    final ServerLatencyTracker tracker =
+         conn.getConnectionStatistics().getServerLatencyTracker();
+    if (tracker == null)
+    {
+      return conn;
+    }
+
+    final LDAPConnection other = availableConnections.poll();
+    if (other == null)
+    {
+      return conn;
+    }
+
+    final ServerLatencyTracker otherTracker =
+         other.getConnectionStatistics().getServerLatencyTracker();
+    if ((otherTracker == null) || (otherTracker == tracker) ||
+         (otherTracker.getScore() >= tracker.getScore()))
+    {
+      if (! availableConnections.offer(other))
+      {
+        discardConnection(other);
+      }
+
+      return conn;
+    }
+
+    Exception connException = null;
+    if (other.isConnected())
+    {
+      try
+      {
+        healthCheck.ensureConnectionValidForCheckout(other);
+        if (! availableConnections.offer(conn))
+        {
+          discardConnection(conn);
+        }
+
+        return other;
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        connException = le;
+      }
+    }
+
+    poolStatistics.incrementNumConnectionsClosedDefunct();
+    Debug.debugConnectionPool(Level.WARNING, this, other,
+         "Closing a defunct connection encountered during checkout",
+         connException);
+    handleDefunctConnection(other);
+    return conn;
+  }
+
+
+
   /**
    * Attempts to retrieve a connection from the pool that is established to the
    * specified server.  Note that this method will only attempt to return an
@@ -2011,6 +2293,19 @@ public final class LDAPConnectionPool
         {
           healthCheck.ensureConnectionValidForCheckout(conn);
           poolStatistics.incrementNumSuccessfulCheckoutsWithoutWaiting();
+          if (trackCheckoutsByServer)
+          {
+            poolStatistics.incrementNumSuccessfulCheckouts(
+                 ServerPartitionedConnectionQueue.getServerKey(conn));
+          }
+
+          final int numCheckedOut = connectionCheckedOut(conn);
+          final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+          if (sizer != null)
+          {
+            sizer.checkoutCompleted(0L, numCheckedOut);
+          }
+
           Debug.debugConnectionPool(Level.INFO, this, conn,
                "Successfully checked out an existing connection to requested " +
                     "server " + host + ':' + port,
@@ -2044,6 +2339,82 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Attempts to retrieve an immediately available connection from this pool
+   * that is established to a server other than the one to which the provided
+   * connection is established.  This method will not wait for a connection to
+   * become available and will not create a new connection.
+   *
+   * @param  connection  The connection whose server should be avoided.  It
+   *                     must not be {@code null}.
+   *
+   * @return  A connection to a different server that has been checked out of
+   *          this pool, or {@code null} if no such connection is immediately
+   *          available.
+   */
+  LDAPConnection getConnectionToOtherServer(final LDAPConnection connection)
+  {
+    if (closed)
+    {
+      return null;
+    }
+
+    final String excludedServerKey =
+         ServerPartitionedConnectionQueue.getServerKey(connection);
+    for (int i=0; i < numConnections; i++)
+    {
+      final LDAPConnection conn =
+           availableConnections.pollFromOtherServer(excludedServerKey);
+      if (conn == null)
+      {
+        return null;
+      }
+
+      Exception connException = null;
+      if (conn.isConnected())
+      {
+        try
+        {
+          healthCheck.ensureConnectionValidForCheckout(conn);
+          poolStatistics.incrementNumSuccessfulCheckoutsWithoutWaiting();
+          if (trackCheckoutsByServer)
+          {
+            poolStatistics.incrementNumSuccessfulCheckouts(
+                 ServerPartitionedConnectionQueue.getServerKey(conn));
+          }
+
+          final int numCheckedOut = connectionCheckedOut(conn);
+          final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+          if (sizer != null)
+          {
+            sizer.checkoutCompleted(0L, numCheckedOut);
+          }
+
+          Debug.debugConnectionPool(Level.INFO, this, conn,
+               "Checked out a connection to a different server for a " +
+                    "hedged request",
+               null);
+          return conn;
+        }
+        catch (final LDAPException le)
+        {
+          Debug.debugException(le);
+          connException = le;
+        }
+      }
+
+      poolStatistics.incrementNumConnectionsClosedDefunct();
+      Debug.debugConnectionPool(Level.WARNING, this, conn,
+           "Closing a defunct connection encountered during checkout",
+           connException);
+      handleDefunctConnection(conn);
+    }
+
+    return null;
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -2055,6 +2426,7 @@ public final class LDAPConnectionPool
       return;
     }
 
+    connectionReturned(connection);
     connection.setConnectionPoolName(connectionPoolName);
     if (checkConnectionAgeOnRelease && connectionIsExpired(connection))
     {
@@ -2143,6 +2515,7 @@ public final class LDAPConnectionPool
       return;
     }
 
+    connectionReturned(connection);
     connection.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
          null, null);
     connection.terminate(null);
@@ -2251,6 +2624,7 @@ public final class LDAPConnectionPool
       return;
     }
 
+    connectionReturned(connection);
     connection.setConnectionPoolName(connectionPoolName);
     poolStatistics.incrementNumConnectionsClosedDefunct();
     Debug.debugConnectionPool(Level.WARNING, this, connection,
@@ -2335,6 +2709,7 @@ public final class LDAPConnectionPool
                              final LDAPConnection connection)
          throws LDAPException
   {
+    connectionReturned(connection);
     poolStatistics.incrementNumConnectionsClosedDefunct();
     Debug.debugConnectionPool(Level.WARNING, this, connection,
          "Releasing a defunct connection that is to be replaced", null);
@@ -2349,7 +2724,9 @@ public final class LDAPConnectionPool
 
     try
     {
-      return createConnection();
+      final LDAPConnection newConnection = createConnection();
+      connectionCheckedOut(newConnection);
+      return newConnection;
     }
     catch (final LDAPException le)
     {
@@ -2537,6 +2914,146 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Indicates whether the connection pool should consider the response times
+   * of the servers to which available connections are established when
+   * checking out connections.  This is enabled by default for pools created
+   * with a {@link LatencyAwareServerSet}.
+   *
+   * @return  {@code true} if the connection pool should consider server
+   *          response times when checking out connections, or {@code false}
+   *          if it should simply return the next available connection.
+   */
+  public boolean getLatencyAwareCheckout()
+  {
+    return latencyAwareCheckout;
+  }
+
+
+
+  /**
+   * Specifies whether the connection pool should consider the response times
+   * of the servers to which available connections are established when
+   * checking out connections.  If this is enabled, then whenever a connection
+   * is checked out and another connection is also immediately available, the
+   * pool will return whichever of the two is established to the server with
+   * the lower expected cost for processing another operation, based on an
+   * average of its recent response times and the number of operations that
+   * are currently outstanding on it.  This only has an effect for connections
+   * created by a {@link LatencyAwareServerSet}, since that server set keeps
+   * track of the information needed to compare servers.
+   *
+   * @param  latencyAwareCheckout  Specifies whether the connection pool should
+   *                               consider server response times when checking
+   *                               out connections.
+   */
+  public void setLatencyAwareCheckout(final boolean latencyAwareCheckout)
+  {
+    this.latencyAwareCheckout = latencyAwareCheckout;
+  }
+
+
+
+  /**
+   * Indicates whether the connection pool should keep track of the number of
+   * successful checkouts for each server, as reported by the
+   * {@link LDAPConnectionPoolStatistics#getNumSuccessfulCheckoutsByServer}
+   * method.  This is disabled by default.
+   *
+   * @return  {@code true} if the connection pool should keep track of the
+   *          number of successful checkouts for each server, or {@code false}
+   *          if not.
+   */
+  public boolean getTrackCheckoutsByServer()
+  {
+    return trackCheckoutsByServer;
+  }
+
+
+
+  /**
+   * Specifies whether the connection pool should keep track of the number of
+   * successful checkouts for each server.  This requires updating a shared map
+   * for every checkout, so it should only be enabled if that information is
+   * needed.  The total number of successful checkouts is always available.
+   *
+   * @param  trackCheckoutsByServer  Specifies whether the connection pool
+   *                                 should keep track of the number of
+   *                                 successful checkouts for each server.
+   */
+  public void setTrackCheckoutsByServer(final boolean trackCheckoutsByServer)
+  {
+    this.trackCheckoutsByServer = trackCheckoutsByServer;
+  }
+
+
+
+  /**
+   * Retrieves the weights that have been configured for servers in this
+   * connection pool.
+   *
+   * @return  A map of the weights that have been configured for servers, keyed
+   *          by the host and port (in the form "host:port") of the server.  It
+   *          will be empty if no server weights have been configured.
+   */
+  public Map<String,Integer> getServerWeights()
+  {
+    return availableConnections.getConfiguredWeights();
+  }
+
+
+
+  /**
+   * Specifies the weight for the specified server.  The connection pool keeps
+   * the available connections for each server in a separate sub-pool, and if
+   * any server weights have been configured, then checkouts will be spread
+   * across the servers with available connections in proportion to their
+   * weights.  Servers that do not have a configured weight will be given a
+   * weight of one.  A server with a weight of zero will only be used if none
+   * of the other servers have any available connections.
+   * <BR><BR>
+   * In addition, whenever background health checking is performed, the pool
+   * will close and replace at most one available connection established to
+   * the server that has the most connections in excess of its weighted share,
+   * so that the connections in the pool are gradually rebalanced across the
+   * servers.  The pool's server set is responsible for choosing the server for
+   * each replacement connection, and the existing connection will only be
+   * closed if the replacement is established to a server that has fewer
+   * connections than its weighted share.  This works best with a server set
+   * (like {@link FewestConnectionsServerSet}) that will choose a server that
+   * has fewer connections.
+   *
+   * @param  host    The address of the server.  It must exactly match the
+   *                 address provided for the initial connection or the
+   *                 {@code ServerSet} used to create the pool.
+   * @param  port    The port of the server.
+   * @param  weight  The weight for the server.  It must be greater than or
+   *                 equal to zero.
+   */
+  public void setServerWeight(final String host, final int port,
+                              final int weight)
+  {
+    Validator.ensureNotNull(host);
+    Validator.ensureTrue((weight >= 0),
+         "LDAPConnectionPool.setServerWeight.weight must be greater than or " +
+              "equal to zero.");
+    availableConnections.setWeight(
+         ServerPartitionedConnectionQueue.getServerKey(host, port), weight);
+  }
+
+
+
+  /**
+   * Removes all configured server weights, so that checkouts will no longer be
+   * weighted across servers and the pool will not be rebalanced.
+   */
+  public void clearServerWeights()
+  {
+    availableConnections.clearWeights();
+  }
+
+
+
   /**
    * Retrieves the maximum length of time in milliseconds to wait for a
    * connection to become available when trying to obtain a connection from the
@@ -2893,18 +3410,297 @@ public final class LDAPConnectionPool
 
 
   /**
-   * {@inheritDoc}
+   * Retrieves the maximum number of available connections that will be
+   * examined concurrently during health check processing.  Connections are
+   * taken out of the pool while they are being examined, so this also bounds
+   * the number of connections that health checking can make unavailable at
+   * any one time.
+   *
+   * @return  The maximum number of available connections that will be
+   *          examined concurrently during health check processing.
    */
-  @Override()
-  protected void doHealthCheck()
+  public int getHealthCheckParallelism()
   {
-    invokeHealthCheck(null, true);
+    return healthCheckParallelism;
   }
 
 
 
   /**
-   * Invokes a synchronous one-time health-check against the connections in this
+   * Specifies the maximum number of available connections that will be
+   * examined concurrently during health check processing.  Using more than
+   * one thread can greatly reduce the time required to examine a large pool
+   * when the health check needs to communicate with a server that is slow to
+   * respond.
+   *
+   * @param  healthCheckParallelism  The maximum number of available
+   *                                 connections that will be examined
+   *                                 concurrently during health check
+   *                                 processing.  A value less than one will be
+   *                                 treated as one, so that connections are
+   *                                 examined one at a time.
+   */
+  public void setHealthCheckParallelism(final int healthCheckParallelism)
+  {
+    this.healthCheckParallelism = Math.max(1, healthCheckParallelism);
+  }
+
+
+
+  /**
+   * Retrieves the executor that should be used to examine connections in
+   * parallel during health check processing, creating it if necessary and
+   * ensuring that it has the specified number of threads.
+   *
+   * @param  numThreads  The number of threads that the executor should have.
+   *
+   * @return  The executor that should be used to examine connections in
+   *          parallel, or {@code null} if this pool has been closed.
+   */
+  synchronized ThreadPoolExecutor getHealthCheckExecutor(final int numThreads)
+  {
+    if (closed)
+    {
+      return null;
+    }
+
+    if (healthCheckExecutor == null)
+    {
+      healthCheckExecutor = new ThreadPoolExecutor(numThreads, numThreads, 0L,
+           TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+           new LDAPSDKThreadFactory("LDAPConnectionPool Health Check Worker",
+                true));
+    }
+    else if (numThreads > healthCheckExecutor.getMaximumPoolSize())
+    {
+      healthCheckExecutor.setMaximumPoolSize(numThreads);
+      healthCheckExecutor.setCorePoolSize(numThreads);
+    }
+    else if (numThreads < healthCheckExecutor.getMaximumPoolSize())
+    {
+      healthCheckExecutor.setCorePoolSize(numThreads);
+      healthCheckExecutor.setMaximumPoolSize(numThreads);
+    }
+
+    return healthCheckExecutor;
+  }
+
+
+
+  /**
+   * Shuts down the executor used to examine connections in parallel during
+   * health check processing, if it has been created.
+   */
+  private synchronized void shutDownHealthCheckExecutor()
+  {
+    if (healthCheckExecutor != null)
+    {
+      healthCheckExecutor.shutdown();
+      healthCheckExecutor = null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of available connections that will be taken
+   * out of the pool to be examined per second during health check processing.
+   *
+   * @return  The maximum number of available connections that will be taken
+   *          out of the pool to be examined per second during health check
+   *          processing, or zero if no limit will be imposed.
+   */
+  public int getMaxHealthChecksPerSecond()
+  {
+    return maxHealthChecksPerSecond;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of available connections that will be taken
+   * out of the pool to be examined per second during health check processing.
+   * Limiting this rate spreads the work of a health check pass over a longer
+   * period of time so that it does not noticeably reduce the number of
+   * connections available to applications using the pool.
+   *
+   * @param  maxHealthChecksPerSecond  The maximum number of available
+   *                                   connections that will be taken out of
+   *                                   the pool to be examined per second
+   *                                   during health check processing.  A
+   *                                   value less than or equal to zero
+   *                                   indicates that no limit will be imposed.
+   */
+  public void setMaxHealthChecksPerSecond(final int maxHealthChecksPerSecond)
+  {
+    this.maxHealthChecksPerSecond = Math.max(0, maxHealthChecksPerSecond);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  protected void doHealthCheck()
+  {
+    invokeHealthCheck(null, true);
+    availableConnections.removeEmptySubPools();
+    rebalanceServerConnections();
+  }
+
+
+
+  /**
+   * Closes and replaces at most one available connection established to the
+   * server that has the most connections in excess of its share, as
+   * determined by the configured server weights.  This will only be done if
+   * server weights have been configured, and only if that server has at least
+   * one full connection more than its share of the available connections.
+   * The replacement connection is obtained from the server set, and if it is
+   * not established to a server that has fewer connections than its share,
+   * then it will be closed and the existing connection will be kept.
+   * Because it is invoked once per health check interval, this causes the pool
+   * to gradually shift its connections toward the configured weights without
+   * disrupting applications that are using it.
+   *
+   * @return  {@code true} if a connection was closed and replaced, or
+   *          {@code false} if not.
+   */
+  boolean rebalanceServerConnections()
+  {
+    if (closed || availableConnections.getConfiguredWeights().isEmpty())
+    {
+      return false;
+    }
+
+
+    // Determine which server has the most connections above its weighted
+    // share.
+    final Map<String,Integer> counts = availableConnections.getSizeByServer();
+    final Map<String,Integer> weights =
+         availableConnections.getEffectiveWeights();
+
+    long totalConnections = 0L;
+    long totalWeight = 0L;
+    for (final Map.Entry<String,Integer> e : counts.entrySet())
+    {
+      totalConnections += e.getValue();
+      totalWeight += weights.get(e.getKey());
+    }
+
+    if ((totalConnections < 2L) || (totalWeight <= 0L))
+    {
+      return false;
+    }
+
+    String mostExcessServer = null;
+    double mostExcess = 0.0d;
+    final Map<String,Double> excessByServer = new HashMap<>(counts.size());
+    for (final Map.Entry<String,Integer> e : counts.entrySet())
+    {
+      final double share = ((double) totalConnections) *
+           weights.get(e.getKey()) / totalWeight;
+      final double excess = e.getValue() - share;
+      excessByServer.put(e.getKey(), excess);
+      if (excess > mostExcess)
+      {
+        mostExcessServer = e.getKey();
+        mostExcess = excess;
+      }
+    }
+
+    if ((mostExcessServer == null) || (mostExcess < 1.0d))
+    {
+      return false;
+    }
+
+
+    // Create the replacement connection before closing the existing one, so
+    // that the pool will not be left with fewer connections if that fails.
+    // The server set is responsible for choosing the server for the new
+    // connection, and there is nothing to be gained unless it chose a server
+    // that has fewer connections than its share.  A server without a sub-pool
+    // does not have any available connections or a configured weight, so it
+    // is always below its share.
+    final LDAPConnection conn =
+         availableConnections.pollFromServer(mostExcessServer);
+    if (conn == null)
+    {
+      return false;
+    }
+
+    final LDAPConnection newConnection;
+    try
+    {
+      newConnection = createConnection();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      if (! availableConnections.offer(conn))
+      {
+        discardConnection(conn);
+      }
+
+      return false;
+    }
+
+    final String newServer =
+         ServerPartitionedConnectionQueue.getServerKey(newConnection);
+    final Double newServerExcess = excessByServer.get(newServer);
+    if ((newServerExcess != null) && (newServerExcess >= 0.0d))
+    {
+      newConnection.setDisconnectInfo(
+           DisconnectType.POOLED_CONNECTION_UNNEEDED, null, null);
+      newConnection.terminate(null);
+      poolStatistics.incrementNumConnectionsClosedUnneeded();
+      Debug.debugConnectionPool(Level.INFO, this, newConnection,
+           "Closing a newly created connection created to rebalance the " +
+                "pool because it was established to " + newServer +
+                ", which already has at least its share of the connections",
+           null);
+      if (! availableConnections.offer(conn))
+      {
+        discardConnection(conn);
+      }
+
+      return false;
+    }
+
+    if (! availableConnections.offer(newConnection))
+    {
+      newConnection.setDisconnectInfo(
+           DisconnectType.POOLED_CONNECTION_UNNEEDED, null, null);
+      newConnection.terminate(null);
+      poolStatistics.incrementNumConnectionsClosedUnneeded();
+      Debug.debugConnectionPool(Level.INFO, this, newConnection,
+           "Closing a newly created connection created to rebalance the " +
+                "pool because the pool is already full",
+           null);
+      if (! availableConnections.offer(conn))
+      {
+        discardConnection(conn);
+      }
+
+      return false;
+    }
+
+    conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED, null,
+         null);
+    conn.terminate(null);
+    poolStatistics.incrementNumConnectionsClosedRebalanced(mostExcessServer);
+    Debug.debugConnectionPool(Level.INFO, this, conn,
+         "Closed a connection to " + mostExcessServer + " to rebalance the " +
+              "pool across servers",
+         null);
+    return true;
+  }
+
+
+
+  /**
+   * Invokes a synchronous one-time health-check against the connections in this
    * pool that are not currently in use.  This will be independent of any
    * background health checking that may be automatically performed by the pool.
    *
@@ -2982,316 +3778,395 @@ public final class LDAPConnectionPool
     }
 
 
-    // Create a set used to hold connections that we've already examined.  If we
-    // encounter the same connection twice, then we know that we don't need to
-    // do any more work.
-    final HashSet<LDAPConnection> examinedConnections =
-         new HashSet<>(StaticUtils.computeMapCapacity(numConnections));
-    int numExamined = 0;
-    int numDefunct = 0;
-    int numExpired = 0;
+    final long startTime = System.nanoTime();
+    final ParallelPoolHealthChecker checker = new ParallelPoolHealthChecker(
+         this, hc, checkForExpiration, numConnections, healthCheckParallelism,
+         maxHealthChecksPerSecond);
+    final LDAPConnectionPoolHealthCheckResult result =
+         checker.checkConnections();
 
-    for (int i=0; i < numConnections; i++)
+    if (checkMinConnectionGoal)
     {
-      LDAPConnection conn = availableConnections.poll();
-      if (conn == null)
-      {
-        break;
-      }
-      else if (examinedConnections.contains(conn))
+      try
       {
-        if (! availableConnections.offer(conn))
+        final int neededConnections =
+             minConnectionGoal - availableConnections.size();
+        for (int i=0; i < neededConnections; i++)
         {
-          conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
-                                 null, null);
-          poolStatistics.incrementNumConnectionsClosedUnneeded();
-          Debug.debugConnectionPool(Level.INFO, this, conn,
-               "Closing a connection that had just been health checked " +
-                    "because the pool is now full", null);
-          conn.terminate(null);
+          final LDAPConnection conn = createConnection(hc);
+          if (! availableConnections.offer(conn))
+          {
+            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
+                                   null, null);
+            poolStatistics.incrementNumConnectionsClosedUnneeded();
+            Debug.debugConnectionPool(Level.INFO, this, conn,
+                 "Closing a new connection that was created during health " +
+                      "check processing in achieve the minimum connection " +
+                      "goal, but the pool had already become full after the " +
+                      "connection was created",
+                 null);
+            conn.terminate(null);
+            break;
+          }
         }
-        break;
       }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    poolStatistics.recordHealthCheckDuration(
+         (System.nanoTime() - startTime) / 1_000_000L);
+    return result;
+  }
+
+
+
+  /**
+   * Takes the next available connection out of this pool so that it can be
+   * examined during health check processing.
+   *
+   * @return  The connection that was taken, or {@code null} if there are no
+   *          connections currently available.
+   */
+  LDAPConnection pollAvailableConnection()
+  {
+    return availableConnections.poll();
+  }
+
+
+
+  /**
+   * Returns a connection that has already been examined during the current
+   * health check pass to this pool, closing it if the pool is already full.
+   *
+   * @param  conn  The connection to return to the pool.
+   */
+  void returnExaminedConnection(final LDAPConnection conn)
+  {
+    if (! availableConnections.offer(conn))
+    {
+      conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
+                             null, null);
+      poolStatistics.incrementNumConnectionsClosedUnneeded();
+      Debug.debugConnectionPool(Level.INFO, this, conn,
+           "Closing a connection that had just been health checked " +
+                "because the pool is now full", null);
+      conn.terminate(null);
+    }
+  }
+
 
-      numExamined++;
-      if (! conn.isConnected())
+
+  /**
+   * Examines the provided connection, which has been taken out of this pool
+   * during health check processing, and either returns it to the pool or
+   * replaces it with a newly-established connection.  The result of the
+   * examination will be reflected in the pool statistics and, if the server
+   * set maintains one, the server set blacklist.
+   *
+   * @param  connection          The connection to examine.
+   * @param  hc                  The health check to use.
+   * @param  checkForExpiration  Indicates whether to check to see if the
+   *                             connection has been established for longer
+   *                             than the maximum connection age.
+   * @param  checker             The health checker for the current pass.
+   */
+  void healthCheckConnection(final LDAPConnection connection,
+                             final LDAPConnectionPoolHealthCheck hc,
+                             final boolean checkForExpiration,
+                             final ParallelPoolHealthChecker checker)
+  {
+    LDAPConnection conn = connection;
+    if (! conn.isConnected())
+    {
+      checker.defunctConnectionFound(conn);
+      poolStatistics.incrementNumConnectionsClosedDefunct();
+      Debug.debugConnectionPool(Level.WARNING, this, conn,
+           "Closing a connection that was identified as not established " +
+                "during health check processing",
+           null);
+      conn = handleDefunctConnection(conn);
+      if (conn != null)
       {
-        numDefunct++;
-        poolStatistics.incrementNumConnectionsClosedDefunct();
-        Debug.debugConnectionPool(Level.WARNING, this, conn,
-             "Closing a connection that was identified as not established " +
-                  "during health check processing",
-             null);
-        conn = handleDefunctConnection(conn);
-        if (conn != null)
+        checker.connectionExamined(conn);
+      }
+    }
+    else
+    {
+      if (checkForExpiration && connectionIsExpired(conn))
+      {
+        checker.expiredConnectionFound();
+
+        try
+        {
+          final LDAPConnection newConnection = createConnection();
+          if (availableConnections.offer(newConnection))
+          {
+            checker.connectionExamined(newConnection);
+            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_EXPIRED,
+                 null, null);
+            conn.terminate(null);
+            poolStatistics.incrementNumConnectionsClosedExpired();
+            Debug.debugConnectionPool(Level.INFO, this, conn,
+                 "Closing a connection that was identified as expired " +
+                      "during health check processing",
+                 null);
+            lastExpiredDisconnectTime = System.currentTimeMillis();
+            return;
+          }
+          else
+          {
+            newConnection.setDisconnectInfo(
+                 DisconnectType.POOLED_CONNECTION_UNNEEDED, null, null);
+            newConnection.terminate(null);
+            poolStatistics.incrementNumConnectionsClosedUnneeded();
+            Debug.debugConnectionPool(Level.INFO, this, newConnection,
+                 "Closing a newly created connection created to replace " +
+                      "an expired connection because the pool is already " +
+                      "full",
+                 null);
+          }
+        }
+        catch (final LDAPException le)
         {
-          examinedConnections.add(conn);
+          Debug.debugException(le);
         }
       }
-      else
+
+
+      // If the connection is operating in synchronous mode, then try to read
+      // a message on it using an extremely short timeout.  This can help
+      // detect a connection closure or unsolicited notification in a more
+      // timely manner than if we had to wait for the client code to try to
+      // use the connection.
+      if (trySynchronousReadDuringHealthCheck && conn.synchronousMode())
       {
-        if (checkForExpiration && connectionIsExpired(conn))
+        int previousTimeout = Integer.MIN_VALUE;
+        Socket s = null;
+        try
         {
-          numExpired++;
+          s = conn.getConnectionInternals(true).getSocket();
+          previousTimeout = s.getSoTimeout();
+          InternalSDKHelper.setSoTimeout(conn, 1);
 
-          try
+          final LDAPResponse response = conn.readResponse(0);
+          if (response instanceof ConnectionClosedResponse)
           {
-            final LDAPConnection newConnection = createConnection();
-            if (availableConnections.offer(newConnection))
+            checker.defunctConnectionFound(conn);
+            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
+                 ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
+            poolStatistics.incrementNumConnectionsClosedDefunct();
+            Debug.debugConnectionPool(Level.WARNING, this, conn,
+                 "Closing existing connection discovered to be " +
+                      "disconnected during health check processing",
+                 null);
+            conn = handleDefunctConnection(conn);
+            if (conn != null)
             {
-              examinedConnections.add(newConnection);
-              conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_EXPIRED,
-                   null, null);
-              conn.terminate(null);
-              poolStatistics.incrementNumConnectionsClosedExpired();
-              Debug.debugConnectionPool(Level.INFO, this, conn,
-                   "Closing a connection that was identified as expired " +
-                        "during health check processing",
-                   null);
-              lastExpiredDisconnectTime = System.currentTimeMillis();
-              continue;
+              checker.connectionExamined(conn);
             }
-            else
+            return;
+          }
+          else if (response instanceof ExtendedResult)
+          {
+            // This means we got an unsolicited response.  It could be a
+            // notice of disconnection, or it could be something else, but in
+            // any case we'll send it to the connection's unsolicited
+            // notification handler (if one is defined).
+            final UnsolicitedNotificationHandler h = conn.
+                 getConnectionOptions().getUnsolicitedNotificationHandler();
+            if (h != null)
             {
-              newConnection.setDisconnectInfo(
-                   DisconnectType.POOLED_CONNECTION_UNNEEDED, null, null);
-              newConnection.terminate(null);
-              poolStatistics.incrementNumConnectionsClosedUnneeded();
-              Debug.debugConnectionPool(Level.INFO, this, newConnection,
-                   "Closing a newly created connection created to replace " +
-                        "an expired connection because the pool is already " +
-                        "full",
-                   null);
+              h.handleUnsolicitedNotification(conn,
+                   (ExtendedResult) response);
             }
           }
-          catch (final LDAPException le)
+          else if (response instanceof LDAPResult)
           {
-            Debug.debugException(le);
-          }
-        }
-
-
-        // If the connection is operating in synchronous mode, then try to read
-        // a message on it using an extremely short timeout.  This can help
-        // detect a connection closure or unsolicited notification in a more
-        // timely manner than if we had to wait for the client code to try to
-        // use the connection.
-        if (trySynchronousReadDuringHealthCheck && conn.synchronousMode())
-        {
-          int previousTimeout = Integer.MIN_VALUE;
-          Socket s = null;
-          try
-          {
-            s = conn.getConnectionInternals(true).getSocket();
-            previousTimeout = s.getSoTimeout();
-            InternalSDKHelper.setSoTimeout(conn, 1);
-
-            final LDAPResponse response = conn.readResponse(0);
-            if (response instanceof ConnectionClosedResponse)
+            final LDAPResult r = (LDAPResult) response;
+            if (r.getResultCode() == ResultCode.SERVER_DOWN)
             {
-              numDefunct++;
+              checker.defunctConnectionFound(conn);
               conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
                    ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
               poolStatistics.incrementNumConnectionsClosedDefunct();
               Debug.debugConnectionPool(Level.WARNING, this, conn,
-                   "Closing existing connection discovered to be " +
-                        "disconnected during health check processing",
+                   "Closing existing connection discovered to be invalid " +
+                        "with result " + r + " during health check " +
+                        "processing",
                    null);
               conn = handleDefunctConnection(conn);
               if (conn != null)
               {
-                examinedConnections.add(conn);
-              }
-              continue;
-            }
-            else if (response instanceof ExtendedResult)
-            {
-              // This means we got an unsolicited response.  It could be a
-              // notice of disconnection, or it could be something else, but in
-              // any case we'll send it to the connection's unsolicited
-              // notification handler (if one is defined).
-              final UnsolicitedNotificationHandler h = conn.
-                   getConnectionOptions().getUnsolicitedNotificationHandler();
-              if (h != null)
-              {
-                h.handleUnsolicitedNotification(conn,
-                     (ExtendedResult) response);
-              }
-            }
-            else if (response instanceof LDAPResult)
-            {
-              final LDAPResult r = (LDAPResult) response;
-              if (r.getResultCode() == ResultCode.SERVER_DOWN)
-              {
-                numDefunct++;
-                conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                     ERR_POOL_HEALTH_CHECK_CONN_CLOSED.get(), null);
-                poolStatistics.incrementNumConnectionsClosedDefunct();
-                Debug.debugConnectionPool(Level.WARNING, this, conn,
-                     "Closing existing connection discovered to be invalid " +
-                          "with result " + r + " during health check " +
-                          "processing",
-                     null);
-                conn = handleDefunctConnection(conn);
-                if (conn != null)
-                {
-                  examinedConnections.add(conn);
-                }
-                continue;
+                checker.connectionExamined(conn);
               }
+              return;
             }
           }
-          catch (final LDAPException le)
+        }
+        catch (final LDAPException le)
+        {
+          if (le.getResultCode() == ResultCode.TIMEOUT)
           {
-            if (le.getResultCode() == ResultCode.TIMEOUT)
-            {
-              Debug.debugException(Level.FINEST, le);
-            }
-            else
-            {
-              Debug.debugException(le);
-              numDefunct++;
-              conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                   ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(
-                        StaticUtils.getExceptionMessage(le)), le);
-              poolStatistics.incrementNumConnectionsClosedDefunct();
-              Debug.debugConnectionPool(Level.WARNING, this, conn,
-                   "Closing existing connection discovered to be invalid " +
-                        "during health check processing",
-                   le);
-              conn = handleDefunctConnection(conn);
-              if (conn != null)
-              {
-                examinedConnections.add(conn);
-              }
-              continue;
-            }
+            Debug.debugException(Level.FINEST, le);
           }
-          catch (final Exception e)
+          else
           {
-            Debug.debugException(e);
-            numDefunct++;
+            Debug.debugException(le);
+            checker.defunctConnectionFound(conn);
             conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
                  ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(
-                      StaticUtils.getExceptionMessage(e)),
-                 e);
+                      StaticUtils.getExceptionMessage(le)), le);
             poolStatistics.incrementNumConnectionsClosedDefunct();
-            Debug.debugConnectionPool(Level.SEVERE, this, conn,
+            Debug.debugConnectionPool(Level.WARNING, this, conn,
                  "Closing existing connection discovered to be invalid " +
-                      "with an unexpected exception type during health check " +
-                      "processing",
-                 e);
+                      "during health check processing",
+                 le);
             conn = handleDefunctConnection(conn);
             if (conn != null)
             {
-              examinedConnections.add(conn);
-            }
-            continue;
-          }
-          finally
-          {
-            if (previousTimeout != Integer.MIN_VALUE)
-            {
-              try
-              {
-                if (s != null)
-                {
-                  InternalSDKHelper.setSoTimeout(conn, previousTimeout);
-                }
-              }
-              catch (final Exception e)
-              {
-                Debug.debugException(e);
-                numDefunct++;
-                conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
-                     null, e);
-                poolStatistics.incrementNumConnectionsClosedDefunct();
-                Debug.debugConnectionPool(Level.SEVERE, this, conn,
-                     "Closing existing connection during health check " +
-                          "processing because an error occurred while " +
-                          "attempting to set the SO_TIMEOUT",
-                     e);
-                conn = handleDefunctConnection(conn);
-                if (conn != null)
-                {
-                  examinedConnections.add(conn);
-                }
-                continue;
-              }
+              checker.connectionExamined(conn);
             }
-          }
-        }
-
-        try
-        {
-          hc.ensureConnectionValidForContinuedUse(conn);
-          if (availableConnections.offer(conn))
-          {
-            examinedConnections.add(conn);
-          }
-          else
-          {
-            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
-                                   null, null);
-            poolStatistics.incrementNumConnectionsClosedUnneeded();
-            Debug.debugConnectionPool(Level.INFO, this, conn,
-                 "Closing existing connection that passed health check " +
-                      "processing because the pool is already full",
-                 null);
-            conn.terminate(null);
+            return;
           }
         }
         catch (final Exception e)
         {
           Debug.debugException(e);
-          numDefunct++;
+          checker.defunctConnectionFound(conn);
+          conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
+               ERR_POOL_HEALTH_CHECK_READ_FAILURE.get(
+                    StaticUtils.getExceptionMessage(e)),
+               e);
           poolStatistics.incrementNumConnectionsClosedDefunct();
-          Debug.debugConnectionPool(Level.WARNING, this, conn,
-               "Closing existing connection that failed health check " +
+          Debug.debugConnectionPool(Level.SEVERE, this, conn,
+               "Closing existing connection discovered to be invalid " +
+                    "with an unexpected exception type during health check " +
                     "processing",
                e);
           conn = handleDefunctConnection(conn);
           if (conn != null)
           {
-            examinedConnections.add(conn);
+            checker.connectionExamined(conn);
+          }
+          return;
+        }
+        finally
+        {
+          if (previousTimeout != Integer.MIN_VALUE)
+          {
+            try
+            {
+              if (s != null)
+              {
+                InternalSDKHelper.setSoTimeout(conn, previousTimeout);
+              }
+            }
+            catch (final Exception e)
+            {
+              Debug.debugException(e);
+              checker.defunctConnectionFound(conn);
+              conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_DEFUNCT,
+                   null, e);
+              poolStatistics.incrementNumConnectionsClosedDefunct();
+              Debug.debugConnectionPool(Level.SEVERE, this, conn,
+                   "Closing existing connection during health check " +
+                        "processing because an error occurred while " +
+                        "attempting to set the SO_TIMEOUT",
+                   e);
+              conn = handleDefunctConnection(conn);
+              if (conn != null)
+              {
+                checker.connectionExamined(conn);
+              }
+              return;
+            }
           }
         }
       }
-    }
 
-    if (checkMinConnectionGoal)
-    {
       try
       {
-        final int neededConnections =
-             minConnectionGoal - availableConnections.size();
-        for (int i=0; i < neededConnections; i++)
+        hc.ensureConnectionValidForContinuedUse(conn);
+        updateServerSetBlacklist(conn, hc, true);
+        if (availableConnections.offer(conn))
         {
-          final LDAPConnection conn = createConnection(hc);
-          if (! availableConnections.offer(conn))
-          {
-            conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
-                                   null, null);
-            poolStatistics.incrementNumConnectionsClosedUnneeded();
-            Debug.debugConnectionPool(Level.INFO, this, conn,
-                 "Closing a new connection that was created during health " +
-                      "check processing in achieve the minimum connection " +
-                      "goal, but the pool had already become full after the " +
-                      "connection was created",
-                 null);
-            conn.terminate(null);
-            break;
-          }
+          checker.connectionExamined(conn);
+        }
+        else
+        {
+          conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED,
+                                 null, null);
+          poolStatistics.incrementNumConnectionsClosedUnneeded();
+          Debug.debugConnectionPool(Level.INFO, this, conn,
+               "Closing existing connection that passed health check " +
+                    "processing because the pool is already full",
+               null);
+          conn.terminate(null);
         }
       }
       catch (final Exception e)
       {
         Debug.debugException(e);
+        checker.defunctConnectionFound(conn);
+        poolStatistics.incrementNumConnectionsClosedDefunct();
+        Debug.debugConnectionPool(Level.WARNING, this, conn,
+             "Closing existing connection that failed health check " +
+                  "processing",
+             e);
+        updateServerSetBlacklist(conn, hc, false);
+        conn = handleDefunctConnection(conn);
+        if (conn != null)
+        {
+          checker.connectionExamined(conn);
+        }
       }
     }
+  }
+
+
+
+  /**
+   * Updates the blacklist maintained by the server set, if any, to reflect the
+   * result of health checking the provided connection.  If the connection
+   * failed the health check, then the server to which it is established will
+   * be added to the blacklist so that the replacement connection will be
+   * established to a different server if possible.  If the connection passed
+   * the health check, then the server will be removed from the blacklist.
+   *
+   * @param  conn   The connection that was examined.
+   * @param  hc     The health check that was used to examine the connection.
+   * @param  valid  Indicates whether the connection passed the health check.
+   */
+  private void updateServerSetBlacklist(final LDAPConnection conn,
+                                        final LDAPConnectionPoolHealthCheck hc,
+                                        final boolean valid)
+  {
+    final ServerSetBlacklistManager blacklistManager =
+         serverSet.getBlacklistManager();
+    if (blacklistManager == null)
+    {
+      return;
+    }
 
-    return new LDAPConnectionPoolHealthCheckResult(numExamined, numExpired,
-         numDefunct);
+    final String host = conn.getConnectedAddress();
+    final int port = conn.getConnectedPort();
+    if ((host == null) || (port <= 0))
+    {
+      return;
+    }
+
+    if (! valid)
+    {
+      blacklistManager.addToBlacklist(host, port, hc);
+    }
+    else if ((! blacklistManager.isEmpty()) &&
+         blacklistManager.isBlacklisted(host, port))
+    {
+      blacklistManager.removeFromBlacklist(host, port);
+    }
   }
 
 
@@ -3307,6 +4182,23 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Retrieves the number of connections that are currently available for use
+   * in this connection pool, broken down by the server to which they are
+   * established.
+   *
+   * @return  A map of the number of connections that are currently available
+   *          for use in this connection pool, keyed by the host and port (in
+   *          the form "host:port") of the server to which they are
+   *          established.
+   */
+  public Map<String,Integer> getCurrentAvailableConnectionsByServer()
+  {
+    return availableConnections.getSizeByServer();
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -3364,6 +4256,321 @@ public final class LDAPConnectionPool
 
 
 
+  /**
+   * Retrieves the policy that controls how this connection pool adapts its
+   * size to the demand placed on it.
+   *
+   * @return  A copy of the policy that controls how this connection pool adapts
+   *          its size to the demand placed on it, or {@code null} if adaptive
+   *          sizing is not enabled.
+   */
+  public LDAPConnectionPoolAdaptiveSizingPolicy getAdaptiveSizingPolicy()
+  {
+    final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+    if (sizer == null)
+    {
+      return null;
+    }
+    else
+    {
+      return sizer.getPolicy().duplicate();
+    }
+  }
+
+
+
+  /**
+   * Specifies the policy that controls how this connection pool adapts its
+   * size to the demand placed on it.  If a policy is provided, then a
+   * background thread will periodically examine checkout wait times,
+   * connection utilization, and server response times, and will grow or
+   * shrink the pool within the bounds defined in the policy.  New connections
+   * will be established in the background before the pool runs out of
+   * available connections, so that applications do not have to wait for
+   * them.  See the {@link LDAPConnectionPoolAdaptiveSizingPolicy} class for
+   * more information.
+   *
+   * @param  policy  The policy that controls how this connection pool adapts
+   *                 its size to the demand placed on it.  It may be
+   *                 {@code null} if adaptive sizing should be disabled.
+   */
+  public synchronized void setAdaptiveSizingPolicy(
+                   final LDAPConnectionPoolAdaptiveSizingPolicy policy)
+  {
+    final LDAPConnectionPoolAdaptiveSizer oldSizer = adaptiveSizer;
+    if (oldSizer != null)
+    {
+      oldSizer.stopRunning(true);
+    }
+
+    if ((policy == null) || closed)
+    {
+      adaptiveSizer = null;
+      return;
+    }
+
+    final LDAPConnectionPoolAdaptiveSizer sizer =
+         new LDAPConnectionPoolAdaptiveSizer(this, policy.duplicate());
+    adaptiveSizer = sizer;
+    sizer.start();
+
+    if (closed)
+    {
+      sizer.stopRunning(false);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the policy that controls how search and compare requests
+   * processed through this connection pool are hedged.
+   *
+   * @return  A copy of the policy that controls how search and compare
+   *          requests are hedged, or {@code null} if request hedging is not
+   *          enabled.
+   */
+  public LDAPConnectionPoolHedgingPolicy getHedgingPolicy()
+  {
+    final LDAPConnectionPoolHedger h = hedger;
+    if (h == null)
+    {
+      return null;
+    }
+    else
+    {
+      return h.getPolicy().duplicate();
+    }
+  }
+
+
+
+  /**
+   * Specifies the policy that controls how search and compare requests
+   * processed through this connection pool are hedged.  If a policy is
+   * provided, then a search or compare request that has not completed within
+   * the hedge delay will be sent again on an available connection established
+   * to a different server, the first usable result will be returned, and the
+   * other request will be abandoned.  See the
+   * {@link LDAPConnectionPoolHedgingPolicy} class for more information.
+   *
+   * @param  policy  The policy that controls how search and compare requests
+   *                 are hedged.  It may be {@code null} if request hedging
+   *                 should be disabled.
+   */
+  public void setHedgingPolicy(final LDAPConnectionPoolHedgingPolicy policy)
+  {
+    if (policy == null)
+    {
+      hedger = null;
+    }
+    else
+    {
+      hedger = new LDAPConnectionPoolHedger(this, policy.duplicate());
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  SearchResult processHedgedSearch(final SearchRequest searchRequest)
+               throws LDAPSearchException
+  {
+    final LDAPConnectionPoolHedger h = hedger;
+    if (h == null)
+    {
+      return null;
+    }
+    else
+    {
+      return h.search(searchRequest);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  CompareResult processHedgedCompare(final CompareRequest compareRequest)
+                throws LDAPException
+  {
+    final LDAPConnectionPoolHedger h = hedger;
+    if (h == null)
+    {
+      return null;
+    }
+    else
+    {
+      return h.compare(compareRequest);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections most recently selected as the target
+   * size for this pool by adaptive sizing.
+   *
+   * @return  The number of connections most recently selected as the target
+   *          size for this pool, or -1 if adaptive sizing is not enabled or
+   *          has not yet selected a target size.
+   */
+  int getAdaptiveTargetPoolSize()
+  {
+    final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+    if (sizer == null)
+    {
+      return -1;
+    }
+    else
+    {
+      return sizer.getTargetPoolSize();
+    }
+  }
+
+
+
+  /**
+   * Immediately evaluates and adjusts the size of this pool using the
+   * configured adaptive sizing policy, rather than waiting for the next
+   * periodic evaluation.
+   *
+   * @return  The number of connections added to the pool (if the result is
+   *          positive) or removed from the pool (if the result is negative).
+   *          It will be zero if adaptive sizing is not enabled.
+   */
+  int evaluateAdaptiveSizing()
+  {
+    final LDAPConnectionPoolAdaptiveSizer sizer = adaptiveSizer;
+    if (sizer == null)
+    {
+      return 0;
+    }
+    else
+    {
+      return sizer.evaluate();
+    }
+  }
+
+
+
+  /**
+   * Establishes new connections in parallel and makes them available in the
+   * pool.  The number of connections created will not exceed the number of
+   * connections that may be added to the pool without it becoming full.
+   *
+   * @param  numConnectionsToAdd  The number of connections to add.
+   * @param  maxConnectThreads    The maximum number of threads to use to
+   *                              establish the connections.
+   *
+   * @return  The number of connections that were actually added to the pool.
+   */
+  int growPool(final int numConnectionsToAdd, final int maxConnectThreads)
+  {
+    final int numToCreate = Math.min(numConnectionsToAdd,
+         availableConnections.remainingCapacity());
+    if (closed || (numToCreate <= 0))
+    {
+      return 0;
+    }
+
+    final List<LDAPConnection> connList = Collections.synchronizedList(
+         new ArrayList<LDAPConnection>(numToCreate));
+    final ParallelPoolConnector connector = new ParallelPoolConnector(this,
+         connList, numToCreate, Math.min(numToCreate, maxConnectThreads),
+         false);
+    try
+    {
+      connector.establishConnections();
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+    }
+
+    int numAdded = 0;
+    for (final LDAPConnection conn : connList)
+    {
+      if ((! closed) && availableConnections.offer(conn))
+      {
+        numAdded++;
+        poolStatistics.incrementNumConnectionsCreatedAdaptiveGrowth();
+        if (failedReplaceCount.get() > 0)
+        {
+          failedReplaceCount.decrementAndGet();
+        }
+
+        Debug.debugConnectionPool(Level.INFO, this, conn,
+             "Added a connection to grow the pool toward its adaptive " +
+                  "target size",
+             null);
+      }
+      else
+      {
+        conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED, null,
+             null);
+        poolStatistics.incrementNumConnectionsClosedUnneeded();
+        Debug.debugConnectionPool(Level.INFO, this, conn,
+             "Closing a new connection that was created to grow the pool, " +
+                  "but the pool had already become full or was closed",
+             null);
+        conn.terminate(null);
+      }
+    }
+
+    return numAdded;
+  }
+
+
+
+  /**
+   * Closes up to the specified number of available connections to shrink the
+   * pool.  The number of available connections will not be reduced below the
+   * minimum available connection goal.
+   *
+   * @param  numConnectionsToClose  The maximum number of connections to close.
+   *
+   * @return  The number of connections that were actually closed.
+   */
+  int shrinkAvailableConnections(final int numConnectionsToClose)
+  {
+    int numClosed = 0;
+    while ((numClosed < numConnectionsToClose) &&
+         (availableConnections.size() > minConnectionGoal))
+    {
+      final LDAPConnection conn = availableConnections.poll();
+      if (conn == null)
+      {
+        break;
+      }
+
+      conn.setDisconnectInfo(DisconnectType.POOLED_CONNECTION_UNNEEDED, null,
+           null);
+      conn.terminate(null);
+      poolStatistics.incrementNumConnectionsClosedAdaptiveShrink();
+      Debug.debugConnectionPool(Level.INFO, this, conn,
+           "Closed an available connection to shrink the pool toward its " +
+                "adaptive target size",
+           null);
+      numClosed++;
+
+      final int newReplaceCount = failedReplaceCount.incrementAndGet();
+      if (newReplaceCount > numConnections)
+      {
+        failedReplaceCount.set(numConnections);
+      }
+    }
+
+    return numClosed;
+  }
+
+
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogramSnapshot;
+
+
+
+/**
+ * This class defines a background thread that will be used to periodically
+ * adjust the number of connections in a connection pool based on the demand
+ * placed on it, as described in the
+ * {@link LDAPConnectionPoolAdaptiveSizingPolicy} class.
+ */
+final class LDAPConnectionPoolAdaptiveSizer
+      extends Thread
+{
+  // Indicates whether a request has been made to shut down this thread.
+  private final AtomicBoolean stopRequested;
+
+  // The number of checkout attempts that failed since the last evaluation.
+  private final AtomicLong numFailedCheckouts;
+
+  // The number of successful checkouts since the last evaluation.
+  private final AtomicLong numSuccessfulCheckouts;
+
+  // The total length of time, in nanoseconds, spent checking out connections
+  // since the last evaluation.
+  private final AtomicLong totalCheckoutNanos;
+
+  // The largest number of connections checked out of the pool at any time
+  // since the last evaluation.
+  private final AtomicInteger peakCheckedOutConnections;
+
+  // The connection pool with which this thread is associated.
+  private final LDAPConnectionPool pool;
+
+  // The policy that controls how the pool will be sized.
+  private final LDAPConnectionPoolAdaptiveSizingPolicy policy;
+
+  // A blocking queue used to control sleeping between evaluations and to wait
+  // for a shutdown signal.
+  private final LinkedBlockingQueue<Object> queue;
+
+  // The number of contended checkouts reported in the pool statistics as of
+  // the last evaluation.
+  private long lastContendedCheckouts;
+
+  // The number of responses reported in the pool statistics as of the last
+  // evaluation.
+  private long lastResponseCount;
+
+  // The total response time reported in the pool statistics as of the last
+  // evaluation.
+  private long lastResponseNanos;
+
+  // The target number of connections selected by the last evaluation.
+  private volatile int targetPoolSize;
+
+  // A reference to the thread used to perform the periodic evaluations.
+  private volatile Thread thread;
+
+
+
+  /**
+   * Creates a new adaptive sizer for the provided pool.
+   *
+   * @param  pool    The connection pool with which this thread will be
+   *                 associated.
+   * @param  policy  The policy that controls how the pool will be sized.  The
+   *                 caller must not alter it after providing it to this
+   *                 constructor.
+   */
+  LDAPConnectionPoolAdaptiveSizer(final LDAPConnectionPool pool,
+       final LDAPConnectionPoolAdaptiveSizingPolicy policy)
+  {
+    setName("Adaptive Sizing Thread for " + pool.toString());
+    setDaemon(true);
+
+    this.pool = pool;
+    this.policy = policy;
+
+    stopRequested = new AtomicBoolean(false);
+    numFailedCheckouts = new AtomicLong(0L);
+    numSuccessfulCheckouts = new AtomicLong(0L);
+    totalCheckoutNanos = new AtomicLong(0L);
+    peakCheckedOutConnections = new AtomicInteger(0);
+    queue = new LinkedBlockingQueue<>(1);
+    targetPoolSize = -1;
+    thread = null;
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    lastContendedCheckouts = getNumContendedCheckouts(stats);
+
+    long responseCount = 0L;
+    long responseNanos = 0L;
+    for (final OperationType t : OperationType.values())
+    {
+      final LatencyHistogramSnapshot s = stats.getResponseTimeHistogram(t);
+      responseCount += s.getCount();
+      responseNanos += s.getTotalNanos();
+    }
+    lastResponseCount = responseCount;
+    lastResponseNanos = responseNanos;
+  }
+
+
+
+  /**
+   * Retrieves the policy that controls how the pool will be sized.
+   *
+   * @return  The policy that controls how the pool will be sized.
+   */
+  LDAPConnectionPoolAdaptiveSizingPolicy getPolicy()
+  {
+    return policy;
+  }
+
+
+
+  /**
+   * Retrieves the target number of connections selected by the most recent
+   * evaluation.
+   *
+   * @return  The target number of connections selected by the most recent
+   *          evaluation, or -1 if no evaluation has been performed yet.
+   */
+  int getTargetPoolSize()
+  {
+    return targetPoolSize;
+  }
+
+
+
+  /**
+   * Indicates that a connection was successfully checked out of the pool.
+   *
+   * @param  checkoutNanos  The length of time, in nanoseconds, required to
+   *                        check out the connection.
+   * @param  numCheckedOut  The number of connections checked out of the pool
+   *                        after the checkout completed.
+   */
+  void checkoutCompleted(final long checkoutNanos, final int numCheckedOut)
+  {
+    numSuccessfulCheckouts.incrementAndGet();
+    totalCheckoutNanos.addAndGet(checkoutNanos);
+
+    while (true)
+    {
+      final int peak = peakCheckedOutConnections.get();
+      if ((numCheckedOut <= peak) ||
+          peakCheckedOutConnections.compareAndSet(peak, numCheckedOut))
+      {
+        return;
+      }
+    }
+  }
+
+
+
+  /**
+   * Indicates that an attempt to check out a connection from the pool failed.
+   */
+  void checkoutFailed()
+  {
+    numFailedCheckouts.incrementAndGet();
+  }
+
+
+
+  /**
+   * Periodically evaluates and adjusts the size of the pool.
+   */
+  @Override()
+  public void run()
+  {
+    thread = Thread.currentThread();
+    long lastEvaluationTime = System.currentTimeMillis();
+
+    while (! stopRequested.get())
+    {
+      final long intervalMillis = policy.getEvaluationIntervalMillis();
+      final long timeSinceLastEvaluation =
+           System.currentTimeMillis() - lastEvaluationTime;
+      if (timeSinceLastEvaluation >= intervalMillis)
+      {
+        try
+        {
+          evaluate();
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+        }
+
+        lastEvaluationTime = System.currentTimeMillis();
+      }
+      else
+      {
+        try
+        {
+          queue.poll((intervalMillis - timeSinceLastEvaluation),
+               TimeUnit.MILLISECONDS);
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+        }
+      }
+    }
+
+    thread = null;
+  }
+
+
+
+  /**
+   * Examines the demand placed on the pool since the last evaluation, selects
+   * a new target number of connections for the pool, and grows or shrinks the
+   * pool toward that target.
+   *
+   * @return  The number of connections added to the pool (if the result is
+   *          positive) or removed from the pool (if the result is negative).
+   */
+  synchronized int evaluate()
+  {
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+
+    final int maxConnections = Math.min(policy.getMaxConnections(),
+         pool.getMaximumAvailableConnections());
+    final int minConnections = Math.min(policy.getMinConnections(),
+         maxConnections);
+
+    final int numCheckedOut = pool.getNumCheckedOutConnections();
+    final int currentSize = numCheckedOut +
+         pool.getCurrentAvailableConnections();
+    final int peakCheckedOut = Math.max(numCheckedOut,
+         peakCheckedOutConnections.getAndSet(numCheckedOut));
+
+
+    // Determine whether checkout attempts had trouble getting connections.
+    // The statistics counters may have been reset since the last evaluation,
+    // in which case only the new values can be used.
+    final long contendedCheckouts = getNumContendedCheckouts(stats);
+    long numContended = contendedCheckouts - lastContendedCheckouts;
+    if (numContended < 0L)
+    {
+      numContended = contendedCheckouts;
+    }
+    lastContendedCheckouts = contendedCheckouts;
+    numContended += numFailedCheckouts.getAndSet(0L);
+
+    final long numCheckouts = numSuccessfulCheckouts.getAndSet(0L);
+    final long checkoutNanos = totalCheckoutNanos.getAndSet(0L);
+    final long maxWaitNanos =
+         TimeUnit.MILLISECONDS.toNanos(policy.getMaxCheckoutWaitTimeMillis());
+    final boolean contended = ((numContended > 0L) ||
+         ((numCheckouts > 0L) &&
+              ((checkoutNanos / numCheckouts) > maxWaitNanos)));
+
+
+    // Determine the average response time for operations processed since the
+    // last evaluation.
+    long responseCount = 0L;
+    long responseNanos = 0L;
+    for (final OperationType t : OperationType.values())
+    {
+      final LatencyHistogramSnapshot s = stats.getResponseTimeHistogram(t);
+      responseCount += s.getCount();
+      responseNanos += s.getTotalNanos();
+    }
+
+    final long averageResponseNanos;
+    if ((responseCount > lastResponseCount) &&
+        (responseNanos >= lastResponseNanos))
+    {
+      averageResponseNanos = (responseNanos - lastResponseNanos) /
+           (responseCount - lastResponseCount);
+    }
+    else
+    {
+      averageResponseNanos = -1L;
+    }
+    lastResponseCount = responseCount;
+    lastResponseNanos = responseNanos;
+
+
+    // Select enough connections to keep the peak demand at the target
+    // utilization.  If checkouts had to wait anyway, then grow the pool by half
+    // of its current size so that it can catch up with the demand quickly.
+    int target = (int) Math.min(maxConnections,
+         Math.ceil(peakCheckedOut / policy.getTargetUtilization()));
+    if (contended)
+    {
+      target = Math.max(target,
+           (int) Math.min(maxConnections,
+                (currentSize + Math.max(1L, currentSize / 2L))));
+    }
+    target = Math.max(target, minConnections);
+
+    final long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+         policy.getResponseTimeThresholdMillis());
+    if ((target > currentSize) && (thresholdNanos > 0L) &&
+        (averageResponseNanos > thresholdNanos))
+    {
+      final int limitedTarget = Math.max(currentSize, minConnections);
+      if (limitedTarget < target)
+      {
+        stats.incrementNumAdaptiveGrowthsSuppressed();
+        Debug.debugConnectionPool(Level.INFO, pool, null,
+             "Not growing the pool to " + target + " connections because " +
+                  "the average response time of " + averageResponseNanos +
+                  "ns exceeds the adaptive sizing threshold",
+             null);
+        target = limitedTarget;
+      }
+    }
+
+    targetPoolSize = target;
+
+
+    // Grow the pool all at once so that the new connections are ready before
+    // demand reaches them, but only shrink it by half of the excess at a time
+    // so that a brief lull in traffic does not cause the pool to close all of
+    // its connections.
+    if (target > currentSize)
+    {
+      return pool.growPool((target - currentSize),
+           policy.getMaxConnectThreads());
+    }
+    else if (target < currentSize)
+    {
+      return -pool.shrinkAvailableConnections(
+           Math.max(1, ((currentSize - target) / 2)));
+    }
+    else
+    {
+      return 0;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of checkouts reflected in the provided statistics
+   * that could not immediately get an existing connection from the pool.
+   *
+   * @param  stats  The statistics to examine.
+   *
+   * @return  The number of checkouts reflected in the provided statistics that
+   *          could not immediately get an existing connection from the pool.
+   */
+  private static long getNumContendedCheckouts(
+                           final LDAPConnectionPoolStatistics stats)
+  {
+    return stats.getNumSuccessfulCheckoutsAfterWaiting() +
+         stats.getNumSuccessfulCheckoutsNewConnection();
+  }
+
+
+
+  /**
+   * Indicates that this thread should stop running.
+   *
+   * @param  wait  Indicates whether to wait for the thread to actually stop
+   *               running before returning.
+   */
+  void stopRunning(final boolean wait)
+  {
+    stopRequested.set(true);
+    queue.offer(new Object());
+
+    if (wait)
+    {
+      final Thread t = thread;
+      if ((t != null) && (t != Thread.currentThread()))
+      {
+        try
+        {
+          t.join();
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+
+          if (e instanceof InterruptedException)
+          {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Serializable;
+
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a set of settings that control how an
+ * {@link LDAPConnectionPool} may adapt its size to the demand placed on it.
+ * When adaptive sizing is enabled for a pool (via the
+ * {@link LDAPConnectionPool#setAdaptiveSizingPolicy} method), a background
+ * thread will periodically examine the following information about the pool
+ * and use it to select a target number of connections for the pool:
+ * <UL>
+ *   <LI>The peak number of connections checked out of the pool since the last
+ *       evaluation, which is used along with the target utilization to
+ *       determine how many connections the pool needs.  If the utilization is
+ *       higher than the target, then the pool will establish new connections
+ *       before they are needed, rather than waiting for checkout attempts to
+ *       be unable to get an available connection.</LI>
+ *   <LI>The average length of time that checkout attempts spent waiting for a
+ *       connection, and the number of checkout attempts that had to wait, had
+ *       to create a new connection, or failed since the last evaluation.  If
+ *       the pool was not able to keep up with the demand, then it will be
+ *       grown more aggressively.</LI>
+ *   <LI>The average response time for operations processed on connections in
+ *       the pool since the last evaluation.  If this exceeds the configured
+ *       threshold, then the servers are assumed to already be saturated and
+ *       the pool will not be grown, since additional connections would only
+ *       increase the load on those servers.</LI>
+ * </UL>
+ * If the pool needs more connections, then they will be established in
+ * parallel in the background and made available in the pool.  If the pool has
+ * more connections than it needs, then available connections will be closed
+ * gradually, so that a brief lull in traffic will not cause the pool to close
+ * all of its connections.  In either case, the size of the pool will be kept
+ * between the configured minimum and maximum number of connections, and the
+ * maximum will never exceed the maximum number of connections that may be
+ * available in the pool.  The decisions that have been made are reflected in
+ * the pool's {@link LDAPConnectionPoolStatistics}.
+ * <BR><BR>
+ * Changes made to a policy will not have any effect on a pool that is already
+ * using it, since the pool will maintain its own copy of the policy.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class LDAPConnectionPoolAdaptiveSizingPolicy
+       implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 7409152835462211590L;
+
+
+
+  /**
+   * The default interval, in milliseconds, between evaluations of the pool
+   * size.
+   */
+  public static final long DEFAULT_EVALUATION_INTERVAL_MILLIS = 1_000L;
+
+
+
+  /**
+   * The default maximum average checkout wait time, in milliseconds, that
+   * will be tolerated before the pool is grown.
+   */
+  public static final long DEFAULT_MAX_CHECKOUT_WAIT_TIME_MILLIS = 5L;
+
+
+
+  /**
+   * The default maximum number of threads that will be used to establish new
+   * connections in parallel.
+   */
+  public static final int DEFAULT_MAX_CONNECT_THREADS = 4;
+
+
+
+  /**
+   * The default target utilization for connections in the pool.
+   */
+  public static final double DEFAULT_TARGET_UTILIZATION = 0.75d;
+
+
+
+  // The target fraction of the connections in the pool that should be checked
+  // out at the peak demand.
+  private double targetUtilization;
+
+  // The maximum number of threads to use to establish connections in
+  // parallel.
+  private int maxConnectThreads;
+
+  // The maximum number of connections that the pool may be grown to include.
+  private int maxConnections;
+
+  // The minimum number of connections that the pool may be shrunk to include.
+  private int minConnections;
+
+  // The interval between evaluations of the pool size.
+  private long evaluationIntervalMillis;
+
+  // The maximum average checkout wait time to tolerate before growing the pool.
+  private long maxCheckoutWaitTimeMillis;
+
+  // The average response time above which the pool will not be grown.
+  private long responseTimeThresholdMillis;
+
+
+
+  /**
+   * Creates a new adaptive sizing policy with the default settings.  The pool
+   * will be allowed to shrink to a single connection and grow to the maximum
+   * number of connections that may be available in the pool, and response
+   * times will not prevent the pool from being grown.
+   */
+  public LDAPConnectionPoolAdaptiveSizingPolicy()
+  {
+    this(1, Integer.MAX_VALUE);
+  }
+
+
+
+  /**
+   * Creates a new adaptive sizing policy with the provided bounds and default
+   * values for all other settings.
+   *
+   * @param  minConnections  The minimum number of connections that the pool
+   *                         may be shrunk to include.  A value that is less
+   *                         than zero will be treated as zero.
+   * @param  maxConnections  The maximum number of connections that the pool
+   *                         may be grown to include.  It will be capped at the
+   *                         maximum number of connections that may be
+   *                         available in the pool, and a value that is less
+   *                         than the minimum will be treated as the minimum.
+   */
+  public LDAPConnectionPoolAdaptiveSizingPolicy(final int minConnections,
+                                                final int maxConnections)
+  {
+    setConnectionBounds(minConnections, maxConnections);
+
+    targetUtilization           = DEFAULT_TARGET_UTILIZATION;
+    maxConnectThreads           = DEFAULT_MAX_CONNECT_THREADS;
+    evaluationIntervalMillis    = DEFAULT_EVALUATION_INTERVAL_MILLIS;
+    maxCheckoutWaitTimeMillis   = DEFAULT_MAX_CHECKOUT_WAIT_TIME_MILLIS;
+    responseTimeThresholdMillis = 0L;
+  }
+
+
+
+  /**
+   * Retrieves the minimum number of connections that the pool may be shrunk to
+   * include.
+   *
+   * @return  The minimum number of connections that the pool may be shrunk to
+   *          include.
+   */
+  public int getMinConnections()
+  {
+    return minConnections;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of connections that the pool may be grown to
+   * include.  The pool will never be grown beyond the maximum number of
+   * connections that may be available in it, even if this value is larger.
+   *
+   * @return  The maximum number of connections that the pool may be grown to
+   *          include.
+   */
+  public int getMaxConnections()
+  {
+    return maxConnections;
+  }
+
+
+
+  /**
+   * Specifies the minimum and maximum number of connections that the pool may
+   * include as a result of adaptive sizing.
+   *
+   * @param  minConnections  The minimum number of connections that the pool
+   *                         may be shrunk to include.  A value that is less
+   *                         than zero will be treated as zero.
+   * @param  maxConnections  The maximum number of connections that the pool
+   *                         may be grown to include.  It will be capped at the
+   *                         maximum number of connections that may be
+   *                         available in the pool, and a value that is less
+   *                         than the minimum will be treated as the minimum.
+   */
+  public void setConnectionBounds(final int minConnections,
+                                  final int maxConnections)
+  {
+    this.minConnections = Math.max(0, minConnections);
+    this.maxConnections = Math.max(this.minConnections, maxConnections);
+  }
+
+
+
+  /**
+   * Retrieves the target utilization for connections in the pool, which is
+   * the fraction of the connections in the pool that should be checked out at
+   * the peak demand observed during an evaluation interval.  A lower target
+   * leaves more connections available to absorb sudden increases in demand.
+   *
+   * @return  The target utilization for connections in the pool.
+   */
+  public double getTargetUtilization()
+  {
+    return targetUtilization;
+  }
+
+
+
+  /**
+   * Specifies the target utilization for connections in the pool.
+   *
+   * @param  targetUtilization  The target utilization for connections in the
+   *                            pool.  It must be greater than zero and less
+   *                            than or equal to one.
+   */
+  public void setTargetUtilization(final double targetUtilization)
+  {
+    Validator.ensureTrue(((targetUtilization > 0.0d) &&
+         (targetUtilization <= 1.0d)),
+         "LDAPConnectionPoolAdaptiveSizingPolicy.targetUtilization must be " +
+              "greater than zero and less than or equal to one.");
+
+    this.targetUtilization = targetUtilization;
+  }
+
+
+
+  /**
+   * Retrieves the interval, in milliseconds, between evaluations of the pool
+   * size.
+   *
+   * @return  The interval, in milliseconds, between evaluations of the pool
+   *          size.
+   */
+  public long getEvaluationIntervalMillis()
+  {
+    return evaluationIntervalMillis;
+  }
+
+
+
+  /**
+   * Specifies the interval, in milliseconds, between evaluations of the pool
+   * size.
+   *
+   * @param  evaluationIntervalMillis  The interval, in milliseconds, between
+   *                                   evaluations of the pool size.  A value
+   *                                   that is less than or equal to zero will
+   *                                   be treated as one millisecond.
+   */
+  public void setEvaluationIntervalMillis(final long evaluationIntervalMillis)
+  {
+    this.evaluationIntervalMillis = Math.max(1L, evaluationIntervalMillis);
+  }
+
+
+
+  /**
+   * Retrieves the maximum average length of time, in milliseconds, that
+   * checkout attempts may spend waiting for a connection during an evaluation
+   * interval before the pool will be grown.
+   *
+   * @return  The maximum average checkout wait time, in milliseconds, that
+   *          will be tolerated before the pool is grown.
+   */
+  public long getMaxCheckoutWaitTimeMillis()
+  {
+    return maxCheckoutWaitTimeMillis;
+  }
+
+
+
+  /**
+   * Specifies the maximum average length of time, in milliseconds, that
+   * checkout attempts may spend waiting for a connection during an evaluation
+   * interval before the pool will be grown.
+   *
+   * @param  maxCheckoutWaitTimeMillis  The maximum average checkout wait time,
+   *                                    in milliseconds, that will be tolerated
+   *                                    before the pool is grown.  A value that
+   *                                    is less than zero will be treated as
+   *                                    zero.
+   */
+  public void setMaxCheckoutWaitTimeMillis(final long maxCheckoutWaitTimeMillis)
+  {
+    this.maxCheckoutWaitTimeMillis = Math.max(0L, maxCheckoutWaitTimeMillis);
+  }
+
+
+
+  /**
+   * Retrieves the average response time, in milliseconds, for operations
+   * processed on connections in the pool above which the pool will not be
+   * grown.
+   *
+   * @return  The average response time, in milliseconds, above which the pool
+   *          will not be grown, or zero if response times will not prevent the
+   *          pool from being grown.
+   */
+  public long getResponseTimeThresholdMillis()
+  {
+    return responseTimeThresholdMillis;
+  }
+
+
+
+  /**
+   * Specifies the average response time, in milliseconds, for operations
+   * processed on connections in the pool above which the pool will not be
+   * grown.  If the servers are already responding slowly, then establishing
+   * more connections to them is likely to make the problem worse.
+   *
+   * @param  responseTimeThresholdMillis  The average response time, in
+   *                                      milliseconds, above which the pool
+   *                                      will not be grown.  A value that is
+   *                                      less than or equal to zero indicates
+   *                                      that response times should not
+   *                                      prevent the pool from being grown.
+   */
+  public void setResponseTimeThresholdMillis(
+                   final long responseTimeThresholdMillis)
+  {
+    this.responseTimeThresholdMillis =
+         Math.max(0L, responseTimeThresholdMillis);
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of threads that will be used to establish
+   * new connections in parallel when the pool is grown.
+   *
+   * @return  The maximum number of threads that will be used to establish new
+   *          connections in parallel when the pool is grown.
+   */
+  public int getMaxConnectThreads()
+  {
+    return maxConnectThreads;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of threads that will be used to establish
+   * new connections in parallel when the pool is grown.
+   *
+   * @param  maxConnectThreads  The maximum number of threads that will be used
+   *                            to establish new connections in parallel.  A
+   *                            value that is less than or equal to zero will
+   *                            be treated as one.
+   */
+  public void setMaxConnectThreads(final int maxConnectThreads)
+  {
+    this.maxConnectThreads = Math.max(1, maxConnectThreads);
+  }
+
+
+
+  /**
+   * Creates a duplicate of this adaptive sizing policy.
+   *
+   * @return  A duplicate of this adaptive sizing policy.
+   */
+  public LDAPConnectionPoolAdaptiveSizingPolicy duplicate()
+  {
+    final LDAPConnectionPoolAdaptiveSizingPolicy p =
+         new LDAPConnectionPoolAdaptiveSizingPolicy(minConnections,
+              maxConnections);
+    p.targetUtilization           = targetUtilization;
+    p.maxConnectThreads           = maxConnectThreads;
+    p.evaluationIntervalMillis    = evaluationIntervalMillis;
+    p.maxCheckoutWaitTimeMillis   = maxCheckoutWaitTimeMillis;
+    p.responseTimeThresholdMillis = responseTimeThresholdMillis;
+    return p;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this adaptive sizing policy.
+   *
+   * @return  A string representation of this adaptive sizing policy.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this adaptive sizing policy to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LDAPConnectionPoolAdaptiveSizingPolicy(minConnections=");
+    buffer.append(minConnections);
+    buffer.append(", maxConnections=");
+    buffer.append(maxConnections);
+    buffer.append(", targetUtilization=");
+    buffer.append(targetUtilization);
+    buffer.append(", evaluationIntervalMillis=");
+    buffer.append(evaluationIntervalMillis);
+    buffer.append(", maxCheckoutWaitTimeMillis=");
+    buffer.append(maxCheckoutWaitTimeMillis);
+    buffer.append(", responseTimeThresholdMillis=");
+    buffer.append(responseTimeThresholdMillis);
+    buffer.append(", maxConnectThreads=");
+    buffer.append(maxConnectThreads);
+    buffer.append(')');
+  }
+}
@@ -0,0 +1,882 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogramSnapshot;
+
+import static com.unboundid.ldap.sdk.LDAPMessages.*;
+
+
+
+/**
+ * This class provides the logic used to hedge search and compare requests
+ * processed through an {@link LDAPConnectionPool}, as described in the
+ * {@link LDAPConnectionPoolHedgingPolicy} class.
+ */
+final class LDAPConnectionPoolHedger
+{
+  /**
+   * The minimum number of response times that must have been recorded for an
+   * operation type before the configured percentile will be used to select
+   * the hedge delay for that type of operation.
+   */
+  static final long MIN_PERCENTILE_SAMPLES = 100L;
+
+
+
+  /**
+   * The interval, in nanoseconds, between evaluations of the hedge delay for
+   * each type of operation.
+   */
+  private static final long DELAY_EVALUATION_INTERVAL_NANOS =
+       TimeUnit.SECONDS.toNanos(1L);
+
+
+
+  /**
+   * The number of budget units that must be spent to send a single hedge.
+   * Fractions of a hedge are earned by each request, so the budget is tracked
+   * in smaller units.
+   */
+  private static final long BUDGET_UNITS_PER_HEDGE = 1_000_000L;
+
+
+
+  // The number of budget units currently available for sending hedges.
+  private final AtomicLong budgetUnits;
+
+  // The time, as reported by System.nanoTime, that the hedge delay for each
+  // type of operation should next be evaluated, indexed by the ordinal of the
+  // operation type.  A value of zero indicates that the delay has not yet been
+  // evaluated.
+  private final AtomicLongArray hedgeDelayEvaluationTimes;
+
+  // The most recently evaluated hedge delay, in nanoseconds, for each type of
+  // operation, indexed by the ordinal of the operation type.
+  private final AtomicLongArray hedgeDelayNanos;
+
+  // The connection pool with which this hedger is associated.
+  private final LDAPConnectionPool pool;
+
+  // The policy that controls how requests will be hedged.
+  private final LDAPConnectionPoolHedgingPolicy policy;
+
+  // The number of budget units earned by each request.
+  private final long budgetUnitsPerRequest;
+
+  // The maximum number of budget units that may accumulate.
+  private final long maxBudgetUnits;
+
+  // The maximum hedge delay, in nanoseconds.
+  private final long maxHedgeDelayNanos;
+
+  // The minimum hedge delay, in nanoseconds.
+  private final long minHedgeDelayNanos;
+
+
+
+  /**
+   * Creates a new hedger for the provided pool.
+   *
+   * @param  pool    The connection pool with which this hedger will be
+   *                 associated.
+   * @param  policy  The policy that controls how requests will be hedged.  The
+   *                 caller must not alter it after providing it to this
+   *                 constructor.
+   */
+  LDAPConnectionPoolHedger(final LDAPConnectionPool pool,
+                           final LDAPConnectionPoolHedgingPolicy policy)
+  {
+    this.pool = pool;
+    this.policy = policy;
+
+    budgetUnitsPerRequest =
+         Math.round(policy.getMaxHedgeRatio() * BUDGET_UNITS_PER_HEDGE);
+    maxBudgetUnits = policy.getMaxHedgeBurst() * BUDGET_UNITS_PER_HEDGE;
+    budgetUnits = new AtomicLong(maxBudgetUnits);
+
+    minHedgeDelayNanos =
+         TimeUnit.MILLISECONDS.toNanos(policy.getMinHedgeDelayMillis());
+    maxHedgeDelayNanos =
+         TimeUnit.MILLISECONDS.toNanos(policy.getMaxHedgeDelayMillis());
+
+    final int numOperationTypes = OperationType.values().length;
+    hedgeDelayEvaluationTimes = new AtomicLongArray(numOperationTypes);
+    hedgeDelayNanos = new AtomicLongArray(numOperationTypes);
+  }
+
+
+
+  /**
+   * Retrieves the policy that controls how requests will be hedged.
+   *
+   * @return  The policy that controls how requests will be hedged.
+   */
+  LDAPConnectionPoolHedgingPolicy getPolicy()
+  {
+    return policy;
+  }
+
+
+
+  /**
+   * Processes the provided search request, hedging it if necessary.
+   *
+   * @param  searchRequest  The search request to be processed.  It must not be
+   *                        {@code null}.
+   *
+   * @return  The result of processing the search, or {@code null} if the
+   *          request could not be processed with hedging and should be
+   *          processed in the usual way.
+   *
+   * @throws  LDAPSearchException  If the search does not complete
+   *                               successfully.
+   */
+  SearchResult search(final SearchRequest searchRequest)
+       throws LDAPSearchException
+  {
+    // Entries and references are collected for each attempt separately, so
+    // requests that provide their own listeners can't be hedged without
+    // delivering duplicate results to them.
+    if ((searchRequest.getSearchResultListener() != null) ||
+        (searchRequest.getIntermediateResponseListener() != null))
+    {
+      return null;
+    }
+
+    final LDAPResult result;
+    try
+    {
+      result = process(OperationType.SEARCH, searchRequest, searchRequest,
+           null);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      throw new LDAPSearchException(le);
+    }
+
+    if (result == null)
+    {
+      return null;
+    }
+
+    final SearchResult searchResult = (SearchResult) result;
+    if (! searchResult.getResultCode().equals(ResultCode.SUCCESS))
+    {
+      throw new LDAPSearchException(searchResult);
+    }
+
+    return searchResult;
+  }
+
+
+
+  /**
+   * Processes the provided compare request, hedging it if necessary.
+   *
+   * @param  compareRequest  The compare request to be processed.  It must not
+   *                         be {@code null}.
+   *
+   * @return  The result of processing the compare, or {@code null} if the
+   *          request could not be processed with hedging and should be
+   *          processed in the usual way.
+   *
+   * @throws  LDAPException  If the compare does not complete successfully.
+   */
+  CompareResult compare(final CompareRequest compareRequest)
+       throws LDAPException
+  {
+    final LDAPResult result =
+         process(OperationType.COMPARE, compareRequest, null, compareRequest);
+    if (result == null)
+    {
+      return null;
+    }
+
+    switch (result.getResultCode().intValue())
+    {
+      case ResultCode.COMPARE_FALSE_INT_VALUE:
+      case ResultCode.COMPARE_TRUE_INT_VALUE:
+        return new CompareResult(result);
+
+      default:
+        throw new LDAPException(result);
+    }
+  }
+
+
+
+  /**
+   * Sends the provided request on a connection from the pool and, if no
+   * response is received within the hedge delay, sends it again on a
+   * connection established to a different server.  The first response that
+   * does not indicate a problem with the connection will be returned, and the
+   * other request will be abandoned.
+   *
+   * @param  operationType   The type of operation to process.
+   * @param  request         The request to process.
+   * @param  searchRequest   The search request to process, or {@code null} if
+   *                         the request is a compare request.
+   * @param  compareRequest  The compare request to process, or {@code null} if
+   *                         the request is a search request.
+   *
+   * @return  The result of processing the request, or {@code null} if the
+   *          request could not be processed with hedging and should be
+   *          processed in the usual way.
+   *
+   * @throws  LDAPException  If a connection could not be obtained, if no
+   *                         response was received within the response timeout,
+   *                         or if the thread was interrupted while waiting for
+   *                         a response.
+   */
+  private LDAPResult process(final OperationType operationType,
+                             final LDAPRequest request,
+                             final SearchRequest searchRequest,
+                             final CompareRequest compareRequest)
+          throws LDAPException
+  {
+    final LDAPConnection primaryConnection = pool.getConnection();
+    if (primaryConnection.getConnectionOptions().useSynchronousMode() ||
+        request.followReferrals(primaryConnection))
+    {
+      // Asynchronous operations can't be used on the connection, or the
+      // result may need to be obtained by following referrals, which is not
+      // supported for asynchronous operations.
+      pool.releaseConnection(primaryConnection);
+      return null;
+    }
+
+    depositBudget();
+
+    final long startNanos = System.nanoTime();
+    final long hedgeNanos = startNanos + getHedgeDelayNanos(operationType);
+    final long timeoutMillis = request.getResponseTimeoutMillis(
+         primaryConnection);
+    final long deadlineNanos =
+         startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+    final LinkedBlockingQueue<HedgedAttempt> completedAttempts =
+         new LinkedBlockingQueue<>();
+    final HedgedAttempt primaryAttempt =
+         new HedgedAttempt(primaryConnection, completedAttempts);
+    try
+    {
+      send(primaryAttempt, searchRequest, compareRequest);
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      pool.releaseConnectionAfterException(primaryConnection, le);
+      return null;
+    }
+
+    HedgedAttempt hedgeAttempt = null;
+    boolean hedgeConsidered = false;
+    int numPending = 1;
+    while (true)
+    {
+      final HedgedAttempt completedAttempt;
+      try
+      {
+        final long now = System.nanoTime();
+        long waitNanos = Long.MAX_VALUE;
+        if (! hedgeConsidered)
+        {
+          waitNanos = hedgeNanos - now;
+        }
+
+        if (timeoutMillis > 0L)
+        {
+          waitNanos = Math.min(waitNanos, (deadlineNanos - now));
+        }
+
+        if (waitNanos == Long.MAX_VALUE)
+        {
+          completedAttempt = completedAttempts.take();
+        }
+        else if (waitNanos <= 0L)
+        {
+          completedAttempt = completedAttempts.poll();
+        }
+        else
+        {
+          completedAttempt =
+               completedAttempts.poll(waitNanos, TimeUnit.NANOSECONDS);
+        }
+      }
+      catch (final InterruptedException ie)
+      {
+        Debug.debugException(ie);
+        Thread.currentThread().interrupt();
+        final LDAPException le = new LDAPException(ResultCode.LOCAL_ERROR,
+             ERR_POOL_HEDGED_REQUEST_INTERRUPTED.get(operationType.name()),
+             ie);
+        abandon(primaryAttempt, le);
+        abandon(hedgeAttempt, le);
+        throw le;
+      }
+
+      if (completedAttempt == null)
+      {
+        final long now = System.nanoTime();
+        if ((timeoutMillis > 0L) && ((now - deadlineNanos) >= 0L))
+        {
+          final LDAPException le = new LDAPException(ResultCode.TIMEOUT,
+               ERR_POOL_HEDGED_REQUEST_TIMEOUT.get(operationType.name(),
+                    timeoutMillis));
+          abandon(primaryAttempt, le);
+          abandon(hedgeAttempt, le);
+          throw le;
+        }
+
+        if ((! hedgeConsidered) && ((now - hedgeNanos) >= 0L))
+        {
+          hedgeConsidered = true;
+          hedgeAttempt = sendHedge(primaryConnection, completedAttempts,
+               searchRequest, compareRequest);
+          if (hedgeAttempt != null)
+          {
+            numPending++;
+          }
+        }
+
+        continue;
+      }
+
+      numPending--;
+      final LDAPResult result = completedAttempt.getResult();
+      if (ResultCode.isConnectionUsable(result.getResultCode()))
+      {
+        final HedgedAttempt otherAttempt;
+        if (completedAttempt == primaryAttempt)
+        {
+          otherAttempt = hedgeAttempt;
+        }
+        else
+        {
+          otherAttempt = primaryAttempt;
+          pool.getConnectionPoolStatistics().incrementNumHedgedRequestsWon();
+        }
+
+        if ((otherAttempt != null) && (! otherAttempt.isReleased()))
+        {
+          otherAttempt.cancel();
+          otherAttempt.setReleased();
+          pool.releaseConnection(otherAttempt.getConnection());
+        }
+
+        completedAttempt.setReleased();
+        pool.releaseConnection(completedAttempt.getConnection());
+        return result;
+      }
+
+
+      // The result suggests that the connection used for the attempt may no
+      // longer be valid.  If the other attempt is still outstanding, then wait
+      // for it.  If a hedge hasn't been sent yet, then send it now rather than
+      // waiting for the hedge delay.
+      completedAttempt.setReleased();
+      pool.releaseConnectionAfterException(completedAttempt.getConnection(),
+           new LDAPException(result));
+      if (numPending > 0)
+      {
+        continue;
+      }
+
+      if (! hedgeConsidered)
+      {
+        hedgeConsidered = true;
+        hedgeAttempt = sendHedge(primaryConnection, completedAttempts,
+             searchRequest, compareRequest);
+        if (hedgeAttempt != null)
+        {
+          numPending++;
+          continue;
+        }
+      }
+
+      if (pool.getOperationTypesToRetryDueToInvalidConnections().contains(
+           operationType))
+      {
+        return null;
+      }
+      else
+      {
+        return result;
+      }
+    }
+  }
+
+
+
+  /**
+   * Attempts to send a hedged copy of a request on a connection established
+   * to a server other than the one used for the original request.
+   *
+   * @param  primaryConnection  The connection used for the original request.
+   * @param  completedAttempts  The queue to which the attempt should be added
+   *                            when its result is received.
+   * @param  searchRequest      The search request to send, or {@code null} if
+   *                            the request is a compare request.
+   * @param  compareRequest     The compare request to send, or {@code null} if
+   *                            the request is a search request.
+   *
+   * @return  The hedged attempt that was sent, or {@code null} if no hedge
+   *          could be sent.
+   */
+  private HedgedAttempt sendHedge(final LDAPConnection primaryConnection,
+               final LinkedBlockingQueue<HedgedAttempt> completedAttempts,
+               final SearchRequest searchRequest,
+               final CompareRequest compareRequest)
+  {
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    if (! withdrawBudget())
+    {
+      stats.incrementNumHedgesSuppressedByBudget();
+      return null;
+    }
+
+    final LDAPConnection connection =
+         pool.getConnectionToOtherServer(primaryConnection);
+    if (connection == null)
+    {
+      refundBudget();
+      stats.incrementNumHedgesSuppressedNoServer();
+      return null;
+    }
+
+    final HedgedAttempt attempt =
+         new HedgedAttempt(connection, completedAttempts);
+    try
+    {
+      send(attempt, searchRequest, compareRequest);
+      stats.incrementNumHedgedRequests();
+      return attempt;
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      pool.releaseConnectionAfterException(connection, le);
+      return null;
+    }
+  }
+
+
+
+  /**
+   * Sends the request for the provided attempt as an asynchronous operation.
+   *
+   * @param  attempt         The attempt for which to send the request.
+   * @param  searchRequest   The search request to send, or {@code null} if the
+   *                         request is a compare request.
+   * @param  compareRequest  The compare request to send, or {@code null} if
+   *                         the request is a search request.
+   *
+   * @throws  LDAPException  If a problem occurs while sending the request.
+   */
+  private static void send(final HedgedAttempt attempt,
+                           final SearchRequest searchRequest,
+                           final CompareRequest compareRequest)
+          throws LDAPException
+  {
+    final LDAPConnection connection = attempt.getConnection();
+    if (searchRequest == null)
+    {
+      attempt.setAsyncRequestID(
+           connection.asyncCompare(compareRequest, attempt));
+    }
+    else
+    {
+      final SearchRequest r = new SearchRequest(attempt,
+           searchRequest.getControls(), searchRequest.getBaseDN(),
+           searchRequest.getScope(), searchRequest.getDereferencePolicy(),
+           searchRequest.getSizeLimit(), searchRequest.getTimeLimitSeconds(),
+           searchRequest.typesOnly(), searchRequest.getFilter(),
+           searchRequest.getAttributes());
+      r.setResponseTimeoutMillis(searchRequest.getResponseTimeoutMillis(null));
+      attempt.setAsyncRequestID(connection.asyncSearch(r));
+    }
+  }
+
+
+
+  /**
+   * Abandons the provided attempt if it is still outstanding, and releases
+   * its connection back to the pool.
+   *
+   * @param  attempt    The attempt to abandon.  It may be {@code null}.
+   * @param  exception  The exception to use to determine whether the
+   *                    connection is still valid.
+   */
+  private void abandon(final HedgedAttempt attempt,
+                       final LDAPException exception)
+  {
+    if ((attempt == null) || attempt.isReleased())
+    {
+      return;
+    }
+
+    attempt.cancel();
+    attempt.setReleased();
+    pool.releaseConnectionAfterException(attempt.getConnection(), exception);
+  }
+
+
+
+  /**
+   * Retrieves the length of time to wait for a response to a request of the
+   * specified type before hedging it.
+   *
+   * @param  operationType  The type of operation for which to retrieve the
+   *                        hedge delay.
+   *
+   * @return  The length of time, in nanoseconds, to wait for a response before
+   *          hedging the request.
+   */
+  long getHedgeDelayNanos(final OperationType operationType)
+  {
+    if (minHedgeDelayNanos == maxHedgeDelayNanos)
+    {
+      return maxHedgeDelayNanos;
+    }
+
+    final int index = operationType.ordinal();
+    final long now = System.nanoTime();
+    final long evaluationTime = hedgeDelayEvaluationTimes.get(index);
+    if ((evaluationTime != 0L) && ((now - evaluationTime) < 0L))
+    {
+      return hedgeDelayNanos.get(index);
+    }
+
+    long delayNanos = maxHedgeDelayNanos;
+    final LatencyHistogramSnapshot snapshot = pool.
+         getConnectionPoolStatistics().getResponseTimeHistogram(operationType);
+    if (snapshot.getCount() >= MIN_PERCENTILE_SAMPLES)
+    {
+      final long percentileNanos =
+           snapshot.getPercentileNanos(policy.getLatencyPercentile());
+      delayNanos = Math.max(minHedgeDelayNanos,
+           Math.min(maxHedgeDelayNanos, percentileNanos));
+    }
+
+    hedgeDelayNanos.set(index, delayNanos);
+    hedgeDelayEvaluationTimes.set(index,
+         (now + DELAY_EVALUATION_INTERVAL_NANOS));
+    return delayNanos;
+  }
+
+
+
+  /**
+   * Adds the budget earned by a single request, without allowing it to exceed
+   * the maximum burst.
+   */
+  private void depositBudget()
+  {
+    if (budgetUnitsPerRequest <= 0L)
+    {
+      return;
+    }
+
+    while (true)
+    {
+      final long current = budgetUnits.get();
+      if (current >= maxBudgetUnits)
+      {
+        return;
+      }
+
+      final long updated =
+           Math.min(maxBudgetUnits, (current + budgetUnitsPerRequest));
+      if (budgetUnits.compareAndSet(current, updated))
+      {
+        return;
+      }
+    }
+  }
+
+
+
+  /**
+   * Attempts to spend the budget required to send a single hedge.
+   *
+   * @return  {@code true} if the budget was available and has been spent, or
+   *          {@code false} if the budget has been exhausted.
+   */
+  private boolean withdrawBudget()
+  {
+    while (true)
+    {
+      final long current = budgetUnits.get();
+      if (current < BUDGET_UNITS_PER_HEDGE)
+      {
+        return false;
+      }
+
+      if (budgetUnits.compareAndSet(current,
+           (current - BUDGET_UNITS_PER_HEDGE)))
+      {
+        return true;
+      }
+    }
+  }
+
+
+
+  /**
+   * Returns the budget for a hedge that was not sent.
+   */
+  private void refundBudget()
+  {
+    while (true)
+    {
+      final long current = budgetUnits.get();
+      final long updated =
+           Math.min(maxBudgetUnits, (current + BUDGET_UNITS_PER_HEDGE));
+      if (budgetUnits.compareAndSet(current, updated))
+      {
+        return;
+      }
+    }
+  }
+
+
+
+  /**
+   * This class holds information about a single attempt to process a hedged
+   * request, and collects the response for that attempt.
+   */
+  private static final class HedgedAttempt
+          implements AsyncSearchResultListener, AsyncCompareResultListener
+  {
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = 6185027386214090951L;
+
+
+
+    // The async request ID for the request sent for this attempt.
+    private volatile AsyncRequestID asyncRequestID;
+
+    // Indicates whether the connection for this attempt has been released
+    // back to the pool.  This will only be accessed by the thread processing
+    // the hedged request.
+    private boolean released;
+
+    // The connection used for this attempt.
+    private final LDAPConnection connection;
+
+    // The queue to which this attempt will be added when its result has been
+    // received.
+    private final LinkedBlockingQueue<HedgedAttempt> completedAttempts;
+
+    // The result received for this attempt.
+    private volatile LDAPResult result;
+
+    // The search result entries returned for this attempt.
+    private final List<SearchResultEntry> searchEntries;
+
+    // The search result references returned for this attempt.
+    private final List<SearchResultReference> searchReferences;
+
+
+
+    /**
+     * Creates a new attempt that will use the provided connection.
+     *
+     * @param  connection         The connection to use for the attempt.
+     * @param  completedAttempts  The queue to which this attempt should be
+     *                            added when its result has been received.
+     */
+    private HedgedAttempt(final LDAPConnection connection,
+                 final LinkedBlockingQueue<HedgedAttempt> completedAttempts)
+    {
+      this.connection = connection;
+      this.completedAttempts = completedAttempts;
+
+      searchEntries = new ArrayList<>(5);
+      searchReferences = new ArrayList<>(5);
+      asyncRequestID = null;
+      result = null;
+      released = false;
+    }
+
+
+
+    /**
+     * Retrieves the connection used for this attempt.
+     *
+     * @return  The connection used for this attempt.
+     */
+    private LDAPConnection getConnection()
+    {
+      return connection;
+    }
+
+
+
+    /**
+     * Specifies the async request ID for the request sent for this attempt.
+     *
+     * @param  asyncRequestID  The async request ID for the request sent for
+     *                         this attempt.
+     */
+    private void setAsyncRequestID(final AsyncRequestID asyncRequestID)
+    {
+      this.asyncRequestID = asyncRequestID;
+    }
+
+
+
+    /**
+     * Retrieves the result received for this attempt.
+     *
+     * @return  The result received for this attempt, or {@code null} if it has
+     *          not yet been received.
+     */
+    private LDAPResult getResult()
+    {
+      return result;
+    }
+
+
+
+    /**
+     * Abandons the request sent for this attempt if its result has not yet
+     * been received.
+     */
+    private void cancel()
+    {
+      final AsyncRequestID id = asyncRequestID;
+      if ((id != null) && (result == null))
+      {
+        id.cancel(true);
+      }
+    }
+
+
+
+    /**
+     * Indicates whether the connection for this attempt has been released
+     * back to the pool.
+     *
+     * @return  {@code true} if the connection for this attempt has been
+     *          released, or {@code false} if not.
+     */
+    private boolean isReleased()
+    {
+      return released;
+    }
+
+
+
+    /**
+     * Indicates that the connection for this attempt has been released back
+     * to the pool.
+     */
+    private void setReleased()
+    {
+      released = true;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void searchEntryReturned(final SearchResultEntry searchEntry)
+    {
+      searchEntries.add(searchEntry);
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void searchReferenceReturned(
+                     final SearchResultReference searchReference)
+    {
+      searchReferences.add(searchReference);
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void searchResultReceived(final AsyncRequestID requestID,
+                                     final SearchResult searchResult)
+    {
+      result = new SearchResult(searchResult.getMessageID(),
+           searchResult.getResultCode(), searchResult.getDiagnosticMessage(),
+           searchResult.getMatchedDN(), searchResult.getReferralURLs(),
+           searchEntries, searchReferences, searchResult.getEntryCount(),
+           searchResult.getReferenceCount(),
+           searchResult.getResponseControls());
+      completedAttempts.offer(this);
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void compareResultReceived(final AsyncRequestID requestID,
+                                      final CompareResult compareResult)
+    {
+      result = compareResult;
+      completedAttempts.offer(this);
+    }
+  }
+}
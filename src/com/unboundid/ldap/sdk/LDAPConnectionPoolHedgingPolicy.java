@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Serializable;
+
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a set of settings that control how an
+ * {@link LDAPConnectionPool} may hedge search and compare requests.  When
+ * hedging is enabled for a pool (via the
+ * {@link LDAPConnectionPool#setHedgingPolicy} method), search and compare
+ * requests processed through the pool will be handled as follows:
+ * <OL>
+ *   <LI>The request will be sent on a connection checked out of the pool in
+ *       the usual way.</LI>
+ *   <LI>If no response has been received within the hedge delay, then the
+ *       same request will be sent on an available connection established to
+ *       a different server, if there is one and the hedging budget allows
+ *       it.</LI>
+ *   <LI>The first response received that does not indicate a problem with the
+ *       connection will be used, and the other request will be abandoned.</LI>
+ * </OL>
+ * The hedge delay is the configured percentile of the response times recorded
+ * in the pool statistics for the type of operation, kept between the
+ * configured minimum and maximum delays.  Until at least 100 response times
+ * have been recorded for an operation type, the maximum delay will be used.
+ * The percentile is re-evaluated at most once per second.
+ * <BR><BR>
+ * To keep hedging from adding too much load to the servers, it is limited by
+ * a budget.  Each search or compare request processed through the pool earns
+ * a fraction of a hedge (the maximum hedge ratio), and each hedged request
+ * spends a whole one.  Unspent hedges accumulate up to the maximum burst size,
+ * so that brief slowdowns can be hedged even if there has not been much recent
+ * traffic, but a sustained slowdown cannot cause more than the maximum hedge
+ * ratio of extra requests.  The numbers of hedged requests, hedged requests
+ * whose response was used, and hedges that could not be sent are reflected in
+ * the pool's {@link LDAPConnectionPoolStatistics}.
+ * <BR><BR>
+ * Hedging is only used for search requests that do not have a search result
+ * listener or intermediate response listener and that are not configured to
+ * follow referrals, and only for pools whose connections do not operate in
+ * synchronous mode.  Other requests will be processed normally.
+ * <BR><BR>
+ * Changes made to a policy will not have any effect on a pool that is already
+ * using it, since the pool will maintain its own copy of the policy.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class LDAPConnectionPoolHedgingPolicy
+       implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 2283540119731935462L;
+
+
+
+  /**
+   * The default response time percentile that will be used as the hedge
+   * delay.
+   */
+  public static final double DEFAULT_LATENCY_PERCENTILE = 95.0d;
+
+
+
+  /**
+   * The default maximum fraction of requests that may be hedged.
+   */
+  public static final double DEFAULT_MAX_HEDGE_RATIO = 0.05d;
+
+
+
+  /**
+   * The default maximum number of unspent hedges that may accumulate.
+   */
+  public static final int DEFAULT_MAX_HEDGE_BURST = 10;
+
+
+
+  /**
+   * The default maximum hedge delay, in milliseconds.
+   */
+  public static final long DEFAULT_MAX_HEDGE_DELAY_MILLIS = 1_000L;
+
+
+
+  /**
+   * The default minimum hedge delay, in milliseconds.
+   */
+  public static final long DEFAULT_MIN_HEDGE_DELAY_MILLIS = 5L;
+
+
+
+  // The response time percentile that will be used as the hedge delay.
+  private double latencyPercentile;
+
+  // The maximum fraction of requests that may be hedged.
+  private double maxHedgeRatio;
+
+  // The maximum number of unspent hedges that may accumulate.
+  private int maxHedgeBurst;
+
+  // The maximum hedge delay, in milliseconds.
+  private long maxHedgeDelayMillis;
+
+  // The minimum hedge delay, in milliseconds.
+  private long minHedgeDelayMillis;
+
+
+
+  /**
+   * Creates a new hedging policy with the default settings.
+   */
+  public LDAPConnectionPoolHedgingPolicy()
+  {
+    latencyPercentile   = DEFAULT_LATENCY_PERCENTILE;
+    maxHedgeRatio       = DEFAULT_MAX_HEDGE_RATIO;
+    maxHedgeBurst       = DEFAULT_MAX_HEDGE_BURST;
+    minHedgeDelayMillis = DEFAULT_MIN_HEDGE_DELAY_MILLIS;
+    maxHedgeDelayMillis = DEFAULT_MAX_HEDGE_DELAY_MILLIS;
+  }
+
+
+
+  /**
+   * Retrieves the response time percentile that will be used as the hedge
+   * delay.
+   *
+   * @return  The response time percentile that will be used as the hedge
+   *          delay.
+   */
+  public double getLatencyPercentile()
+  {
+    return latencyPercentile;
+  }
+
+
+
+  /**
+   * Specifies the response time percentile that will be used as the hedge
+   * delay.  A higher percentile will cause fewer requests to be hedged.
+   *
+   * @param  latencyPercentile  The response time percentile that will be used
+   *                            as the hedge delay.  It must be greater than
+   *                            zero and less than 100.
+   */
+  public void setLatencyPercentile(final double latencyPercentile)
+  {
+    Validator.ensureTrue(((latencyPercentile > 0.0d) &&
+         (latencyPercentile < 100.0d)),
+         "LDAPConnectionPoolHedgingPolicy.latencyPercentile must be greater " +
+              "than zero and less than 100.");
+
+    this.latencyPercentile = latencyPercentile;
+  }
+
+
+
+  /**
+   * Retrieves the minimum length of time, in milliseconds, to wait for a
+   * response before hedging a request.
+   *
+   * @return  The minimum length of time, in milliseconds, to wait for a
+   *          response before hedging a request.
+   */
+  public long getMinHedgeDelayMillis()
+  {
+    return minHedgeDelayMillis;
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time, in milliseconds, to wait for a
+   * response before hedging a request.  This will also be used as the hedge
+   * delay until enough response times have been recorded to estimate the
+   * configured percentile.
+   *
+   * @return  The maximum length of time, in milliseconds, to wait for a
+   *          response before hedging a request.
+   */
+  public long getMaxHedgeDelayMillis()
+  {
+    return maxHedgeDelayMillis;
+  }
+
+
+
+  /**
+   * Specifies the minimum and maximum lengths of time, in milliseconds, to
+   * wait for a response before hedging a request.  If they are the same, then
+   * that delay will always be used, regardless of the recorded response times.
+   *
+   * @param  minHedgeDelayMillis  The minimum length of time, in milliseconds,
+   *                              to wait for a response before hedging a
+   *                              request.  A value that is less than zero will
+   *                              be treated as zero.
+   * @param  maxHedgeDelayMillis  The maximum length of time, in milliseconds,
+   *                              to wait for a response before hedging a
+   *                              request.  A value that is less than the
+   *                              minimum will be treated as the minimum.
+   */
+  public void setHedgeDelayBoundsMillis(final long minHedgeDelayMillis,
+                                        final long maxHedgeDelayMillis)
+  {
+    this.minHedgeDelayMillis = Math.max(0L, minHedgeDelayMillis);
+    this.maxHedgeDelayMillis =
+         Math.max(this.minHedgeDelayMillis, maxHedgeDelayMillis);
+  }
+
+
+
+  /**
+   * Retrieves the maximum fraction of search and compare requests that may be
+   * hedged over time.
+   *
+   * @return  The maximum fraction of search and compare requests that may be
+   *          hedged over time.
+   */
+  public double getMaxHedgeRatio()
+  {
+    return maxHedgeRatio;
+  }
+
+
+
+  /**
+   * Specifies the maximum fraction of search and compare requests that may be
+   * hedged over time.
+   *
+   * @param  maxHedgeRatio  The maximum fraction of search and compare requests
+   *                        that may be hedged over time.  It must be greater
+   *                        than or equal to zero and less than or equal to
+   *                        one.  A value of zero indicates that only the
+   *                        initial burst of hedges may be used.
+   */
+  public void setMaxHedgeRatio(final double maxHedgeRatio)
+  {
+    Validator.ensureTrue(((maxHedgeRatio >= 0.0d) && (maxHedgeRatio <= 1.0d)),
+         "LDAPConnectionPoolHedgingPolicy.maxHedgeRatio must be between " +
+              "zero and one, inclusive.");
+
+    this.maxHedgeRatio = maxHedgeRatio;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of unspent hedges that may accumulate.  This
+   * is also the number of hedges that are available when hedging is first
+   * enabled for a pool.
+   *
+   * @return  The maximum number of unspent hedges that may accumulate.
+   */
+  public int getMaxHedgeBurst()
+  {
+    return maxHedgeBurst;
+  }
+
+
+
+  /**
+   * Specifies the maximum number of unspent hedges that may accumulate.
+   *
+   * @param  maxHedgeBurst  The maximum number of unspent hedges that may
+   *                        accumulate.  A value that is less than one will be
+   *                        treated as one.
+   */
+  public void setMaxHedgeBurst(final int maxHedgeBurst)
+  {
+    this.maxHedgeBurst = Math.max(1, maxHedgeBurst);
+  }
+
+
+
+  /**
+   * Creates a duplicate of this hedging policy.
+   *
+   * @return  A duplicate of this hedging policy.
+   */
+  public LDAPConnectionPoolHedgingPolicy duplicate()
+  {
+    final LDAPConnectionPoolHedgingPolicy p =
+         new LDAPConnectionPoolHedgingPolicy();
+    p.latencyPercentile   = latencyPercentile;
+    p.maxHedgeRatio       = maxHedgeRatio;
+    p.maxHedgeBurst       = maxHedgeBurst;
+    p.minHedgeDelayMillis = minHedgeDelayMillis;
+    p.maxHedgeDelayMillis = maxHedgeDelayMillis;
+    return p;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this hedging policy.
+   *
+   * @return  A string representation of this hedging policy.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this hedging policy to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LDAPConnectionPoolHedgingPolicy(latencyPercentile=");
+    buffer.append(latencyPercentile);
+    buffer.append(", minHedgeDelayMillis=");
+    buffer.append(minHedgeDelayMillis);
+    buffer.append(", maxHedgeDelayMillis=");
+    buffer.append(maxHedgeDelayMillis);
+    buffer.append(", maxHedgeRatio=");
+    buffer.append(maxHedgeRatio);
+    buffer.append(", maxHedgeBurst=");
+    buffer.append(maxHedgeBurst);
+    buffer.append(')');
+  }
+}
@@ -38,8 +38,15 @@ package com.unboundid.ldap.sdk;
 
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.LatencyHistogramSnapshot;
 import com.unboundid.util.Mutable;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
@@ -80,7 +87,27 @@ import com.unboundid.util.ThreadSafetyLevel;
  *       the pool.</LI>
  *   <LI>The number of failed attempts to create a new connection for use in the
  *       pool.</LI>
+ *   <LI>A histogram of the response times for each type of operation
+ *       processed on connections in the pool, which may be used to obtain
+ *       estimates of percentile response times (for example, the 99th
+ *       percentile search response time).</LI>
+ *   <LI>The number of TLS handshakes completed on connections in the pool,
+ *       the number of those that resumed a previously-established session,
+ *       and a histogram of the time required to complete them.</LI>
+ *   <LI>If hedging has been enabled for an {@link LDAPConnectionPool}, the
+ *       number of requests that were hedged by sending them to a second
+ *       server, the number of those for which the second server's response
+ *       was used, and the number of hedges that could not be sent because the
+ *       hedging budget was exhausted or because no connection to another
+ *       server was available.</LI>
  * </UL>
+ * For an {@link LDAPConnectionPool}, some of these statistics are also
+ * available for each server to which the pool has established connections,
+ * along with the number of connections that have been closed to rebalance
+ * the pool across servers according to their weights.  If adaptive sizing has
+ * been enabled for an {@code LDAPConnectionPool}, then the statistics will
+ * also include the target size selected for the pool and the number of
+ * connections that have been established or closed to reach that size.
  */
 @Mutable()
 @ThreadSafety(level=ThreadSafetyLevel.MOSTLY_THREADSAFE)
@@ -104,6 +131,81 @@ public final class LDAPConnectionPoolStatistics
   // needed.
   private final AtomicLong numConnectionsClosedUnneeded;
 
+  // The number of connections that have been closed to shrink the pool as a
+  // result of adaptive sizing.
+  private final AtomicLong numConnectionsClosedAdaptiveShrink;
+
+  // The number of connections that have been established to grow the pool as a
+  // result of adaptive sizing.
+  private final AtomicLong numConnectionsCreatedAdaptiveGrowth;
+
+  // The number of times that adaptive sizing did not grow the pool because
+  // of high response times.
+  private final AtomicLong numAdaptiveGrowthsSuppressed;
+
+  // The number of connections that have been closed to rebalance the pool
+  // across servers.
+  private final AtomicLong numConnectionsClosedRebalanced;
+
+  // The number of connections that have been closed to rebalance the pool,
+  // keyed by the host and port of the server to which they were established.
+  private final ConcurrentHashMap<String,AtomicLong>
+       numConnectionsClosedRebalancedByServer;
+
+  // The number of connections that have failed health check processing.
+  private final AtomicLong numHealthCheckFailures;
+
+  // The number of connections that have failed health check processing, keyed
+  // by the host and port of the server to which they were established.
+  private final ConcurrentHashMap<String,AtomicLong>
+       numHealthCheckFailuresByServer;
+
+  // The number of health check passes that have been completed.
+  private final AtomicLong numHealthCheckPasses;
+
+  // The length of time in milliseconds that the most recently completed health
+  // check pass took to complete.
+  private final AtomicLong lastHealthCheckDurationMillis;
+
+  // The total length of time in milliseconds spent in health check passes.
+  private final AtomicLong totalHealthCheckDurationMillis;
+
+  // The number of TLS handshakes completed on connections in the pool.
+  private final AtomicLong numTLSHandshakes;
+
+  // The number of TLS handshakes completed on connections in the pool that
+  // resumed a previously-established session.
+  private final AtomicLong numResumedTLSHandshakes;
+
+  // The histogram of the time required to complete TLS handshakes on
+  // connections in the pool.
+  private final LatencyHistogram tlsHandshakeHistogram;
+
+  // The number of requests that have been hedged by sending them to a second
+  // server.
+  private final AtomicLong numHedgedRequests;
+
+  // The number of hedged requests for which the response from the second
+  // server was used.
+  private final AtomicLong numHedgedRequestsWon;
+
+  // The number of hedges that were not sent because the budget was exhausted.
+  private final AtomicLong numHedgesSuppressedByBudget;
+
+  // The number of hedges that were not sent because no connection to another
+  // server was available.
+  private final AtomicLong numHedgesSuppressedNoServer;
+
+  // The number of successful checkouts, keyed by the host and port of the
+  // server to which the connection was established.
+  private final ConcurrentHashMap<String,AtomicLong>
+       numSuccessfulCheckoutsByServer;
+
+  // The number of successful attempts to create a connection, keyed by the host
+  // and port of the server to which the connection was established.
+  private final ConcurrentHashMap<String,AtomicLong>
+       numSuccessfulConnectionAttemptsByServer;
+
   // The number of failed attempts to check out a connection from the pool.
   private final AtomicLong numFailedCheckouts;
 
@@ -134,6 +236,11 @@ public final class LDAPConnectionPoolStatistics
   // The connection pool with which these statistics are associated.
   private final AbstractConnectionPool pool;
 
+  // The response time histograms for each type of operation, indexed by the
+  // ordinal of the operation type.  Histograms will be created the first time
+  // a response time is recorded for the associated operation type.
+  private final AtomicReferenceArray<LatencyHistogram> responseTimeHistograms;
+
 
 
   /**
@@ -158,6 +265,29 @@ public final class LDAPConnectionPoolStatistics
     numSuccessfulCheckoutsWithoutWait   = new AtomicLong(0L);
     numFailedCheckouts                  = new AtomicLong(0L);
     numReleasedValid                    = new AtomicLong(0L);
+    numConnectionsClosedRebalanced      = new AtomicLong(0L);
+    numConnectionsClosedAdaptiveShrink  = new AtomicLong(0L);
+    numConnectionsCreatedAdaptiveGrowth = new AtomicLong(0L);
+    numAdaptiveGrowthsSuppressed        = new AtomicLong(0L);
+    numHealthCheckFailures              = new AtomicLong(0L);
+    numHealthCheckPasses                = new AtomicLong(0L);
+    lastHealthCheckDurationMillis       = new AtomicLong(0L);
+    totalHealthCheckDurationMillis      = new AtomicLong(0L);
+    numTLSHandshakes                    = new AtomicLong(0L);
+    numResumedTLSHandshakes             = new AtomicLong(0L);
+    tlsHandshakeHistogram               = new LatencyHistogram(1);
+    numHedgedRequests                   = new AtomicLong(0L);
+    numHedgedRequestsWon                = new AtomicLong(0L);
+    numHedgesSuppressedByBudget         = new AtomicLong(0L);
+    numHedgesSuppressedNoServer         = new AtomicLong(0L);
+    numConnectionsClosedRebalancedByServer =
+         new ConcurrentHashMap<>(10);
+    numSuccessfulCheckoutsByServer      = new ConcurrentHashMap<>(10);
+    numHealthCheckFailuresByServer      = new ConcurrentHashMap<>(10);
+    numSuccessfulConnectionAttemptsByServer =
+         new ConcurrentHashMap<>(10);
+    responseTimeHistograms              =
+         new AtomicReferenceArray<>(OperationType.values().length);
   }
 
 
@@ -178,6 +308,30 @@ public final class LDAPConnectionPoolStatistics
     numSuccessfulCheckoutsWithoutWait.set(0L);
     numFailedCheckouts.set(0L);
     numReleasedValid.set(0L);
+    numConnectionsClosedRebalanced.set(0L);
+    numConnectionsClosedAdaptiveShrink.set(0L);
+    numConnectionsCreatedAdaptiveGrowth.set(0L);
+    numAdaptiveGrowthsSuppressed.set(0L);
+    numHealthCheckFailures.set(0L);
+    numHealthCheckPasses.set(0L);
+    lastHealthCheckDurationMillis.set(0L);
+    totalHealthCheckDurationMillis.set(0L);
+    numTLSHandshakes.set(0L);
+    numResumedTLSHandshakes.set(0L);
+    tlsHandshakeHistogram.reset();
+    numHedgedRequests.set(0L);
+    numHedgedRequestsWon.set(0L);
+    numHedgesSuppressedByBudget.set(0L);
+    numHedgesSuppressedNoServer.set(0L);
+    numConnectionsClosedRebalancedByServer.clear();
+    numSuccessfulCheckoutsByServer.clear();
+    numHealthCheckFailuresByServer.clear();
+    numSuccessfulConnectionAttemptsByServer.clear();
+
+    for (int i=0; i < responseTimeHistograms.length(); i++)
+    {
+      responseTimeHistograms.set(i, null);
+    }
   }
 
 
@@ -451,6 +605,572 @@ public final class LDAPConnectionPoolStatistics
 
 
 
+  /**
+   * Retrieves the number of successful attempts to create a connection for use
+   * in the pool, broken down by the server to which the connection was
+   * established.
+   *
+   * @return  A map of the number of successful attempts to create a connection
+   *          for use in the pool, keyed by the host and port (in the form
+   *          "host:port") of the server to which the connection was
+   *          established.  It will be empty if that information is not
+   *          available for the associated connection pool implementation.
+   */
+  public Map<String,Long> getNumSuccessfulConnectionAttemptsByServer()
+  {
+    return getCounts(numSuccessfulConnectionAttemptsByServer);
+  }
+
+
+
+  /**
+   * Increments the number of successful attempts to create a connection to
+   * the specified server for use in the pool.
+   *
+   * @param  serverKey  The host and port of the server to which the connection
+   *                    was established.
+   */
+  void incrementNumSuccessfulConnectionAttempts(final String serverKey)
+  {
+    increment(numSuccessfulConnectionAttemptsByServer, serverKey);
+  }
+
+
+
+  /**
+   * Retrieves the number of successful attempts to check out a connection from
+   * the pool, broken down by the server to which the connection was
+   * established.
+   *
+   * @return  A map of the number of successful attempts to check out a
+   *          connection from the pool, keyed by the host and port (in the
+   *          form "host:port") of the server to which the connection was
+   *          established.  It will be empty unless that information is
+   *          enabled with the
+   *          {@link LDAPConnectionPool#setTrackCheckoutsByServer} method.
+   */
+  public Map<String,Long> getNumSuccessfulCheckoutsByServer()
+  {
+    return getCounts(numSuccessfulCheckoutsByServer);
+  }
+
+
+
+  /**
+   * Increments the number of successful attempts to check out a connection
+   * established to the specified server.
+   *
+   * @param  serverKey  The host and port of the server to which the connection
+   *                    was established.
+   */
+  void incrementNumSuccessfulCheckouts(final String serverKey)
+  {
+    increment(numSuccessfulCheckoutsByServer, serverKey);
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been closed so that they
+   * could be replaced with connections to other servers in order to rebalance
+   * the pool according to the configured server weights.
+   *
+   * @return  The number of connections that have been closed to rebalance the
+   *          pool.
+   */
+  public long getNumConnectionsClosedRebalanced()
+  {
+    return numConnectionsClosedRebalanced.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been closed to rebalance the
+   * pool, broken down by the server to which the connection was established.
+   *
+   * @return  A map of the number of connections that have been closed to
+   *          rebalance the pool, keyed by the host and port (in the form
+   *          "host:port") of the server to which the connection was
+   *          established.
+   */
+  public Map<String,Long> getNumConnectionsClosedRebalancedByServer()
+  {
+    return getCounts(numConnectionsClosedRebalancedByServer);
+  }
+
+
+
+  /**
+   * Increments the number of connections established to the specified server
+   * that have been closed to rebalance the pool.
+   *
+   * @param  serverKey  The host and port of the server to which the connection
+   *                    was established.
+   */
+  void incrementNumConnectionsClosedRebalanced(final String serverKey)
+  {
+    numConnectionsClosedRebalanced.incrementAndGet();
+    increment(numConnectionsClosedRebalancedByServer, serverKey);
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been established in the
+   * background to grow the pool as a result of adaptive sizing.
+   *
+   * @return  The number of connections that have been established to grow the
+   *          pool as a result of adaptive sizing.
+   */
+  public long getNumConnectionsCreatedAdaptiveGrowth()
+  {
+    return numConnectionsCreatedAdaptiveGrowth.get();
+  }
+
+
+
+  /**
+   * Increments the number of connections that have been established to grow
+   * the pool as a result of adaptive sizing.
+   */
+  void incrementNumConnectionsCreatedAdaptiveGrowth()
+  {
+    numConnectionsCreatedAdaptiveGrowth.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of available connections that have been closed to
+   * shrink the pool as a result of adaptive sizing.
+   *
+   * @return  The number of available connections that have been closed to
+   *          shrink the pool as a result of adaptive sizing.
+   */
+  public long getNumConnectionsClosedAdaptiveShrink()
+  {
+    return numConnectionsClosedAdaptiveShrink.get();
+  }
+
+
+
+  /**
+   * Increments the number of available connections that have been closed to
+   * shrink the pool as a result of adaptive sizing.
+   */
+  void incrementNumConnectionsClosedAdaptiveShrink()
+  {
+    numConnectionsClosedAdaptiveShrink.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of times that adaptive sizing would have grown the
+   * pool but did not because the average response time for operations
+   * processed in the pool exceeded the configured threshold.
+   *
+   * @return  The number of times that adaptive sizing did not grow the pool
+   *          because of high response times.
+   */
+  public long getNumAdaptiveGrowthsSuppressed()
+  {
+    return numAdaptiveGrowthsSuppressed.get();
+  }
+
+
+
+  /**
+   * Increments the number of times that adaptive sizing did not grow the pool
+   * because of high response times.
+   */
+  void incrementNumAdaptiveGrowthsSuppressed()
+  {
+    numAdaptiveGrowthsSuppressed.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been found to be defunct or
+   * to have failed health check processing.
+   *
+   * @return  The number of connections that have been found to be defunct or
+   *          to have failed health check processing.
+   */
+  public long getNumHealthCheckFailures()
+  {
+    return numHealthCheckFailures.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that have been found to be defunct or
+   * to have failed health check processing, broken down by the server to which
+   * the connection was established.
+   *
+   * @return  A map of the number of connections that have failed health check
+   *          processing, keyed by the host and port (in the form "host:port")
+   *          of the server to which the connection was established.
+   */
+  public Map<String,Long> getNumHealthCheckFailuresByServer()
+  {
+    return getCounts(numHealthCheckFailuresByServer);
+  }
+
+
+
+  /**
+   * Increments the number of connections established to the specified server
+   * that have failed health check processing.
+   *
+   * @param  serverKey  The host and port of the server to which the connection
+   *                    was established.
+   */
+  void incrementNumHealthCheckFailures(final String serverKey)
+  {
+    numHealthCheckFailures.incrementAndGet();
+    increment(numHealthCheckFailuresByServer, serverKey);
+  }
+
+
+
+  /**
+   * Retrieves the number of health check passes against the available
+   * connections in the pool that have been completed.
+   *
+   * @return  The number of health check passes that have been completed.
+   */
+  public long getNumHealthCheckPasses()
+  {
+    return numHealthCheckPasses.get();
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds that the most recently
+   * completed health check pass took to complete.
+   *
+   * @return  The length of time in milliseconds that the most recently
+   *          completed health check pass took to complete, or zero if no
+   *          health check pass has been completed.
+   */
+  public long getLastHealthCheckDurationMillis()
+  {
+    return lastHealthCheckDurationMillis.get();
+  }
+
+
+
+  /**
+   * Retrieves the total length of time in milliseconds spent in health check
+   * passes against the available connections in the pool.
+   *
+   * @return  The total length of time in milliseconds spent in health check
+   *          passes.
+   */
+  public long getTotalHealthCheckDurationMillis()
+  {
+    return totalHealthCheckDurationMillis.get();
+  }
+
+
+
+  /**
+   * Records the completion of a health check pass.
+   *
+   * @param  durationMillis  The length of time in milliseconds that the health
+   *                         check pass took to complete.
+   */
+  void recordHealthCheckDuration(final long durationMillis)
+  {
+    numHealthCheckPasses.incrementAndGet();
+    lastHealthCheckDurationMillis.set(durationMillis);
+    totalHealthCheckDurationMillis.addAndGet(durationMillis);
+  }
+
+
+
+  /**
+   * Retrieves the number of TLS handshakes that have been completed on
+   * connections in the pool, including handshakes performed while establishing
+   * connections and while processing StartTLS extended operations.
+   *
+   * @return  The number of TLS handshakes that have been completed on
+   *          connections in the pool.
+   */
+  public long getNumTLSHandshakes()
+  {
+    return numTLSHandshakes.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of TLS handshakes completed on connections in the
+   * pool that resumed a previously-established session rather than performing
+   * a full handshake.  If connections are frequently replaced (for example,
+   * because of a maximum connection age), then a low number of resumed
+   * handshakes may indicate that the pool should be configured with an SSL
+   * socket factory that uses a shared client session cache, like one obtained
+   * from an {@link com.unboundid.util.ssl.SSLClientSessionContext}.
+   *
+   * @return  The number of TLS handshakes completed on connections in the pool
+   *          that resumed a previously-established session.
+   */
+  public long getNumResumedTLSHandshakes()
+  {
+    return numResumedTLSHandshakes.get();
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the histogram of the time required to complete
+   * TLS handshakes on connections in the pool.  The snapshot may be used to
+   * obtain the average handshake time and estimates of percentile handshake
+   * times.
+   *
+   * @return  A snapshot of the histogram of the time required to complete TLS
+   *          handshakes on connections in the pool.  It will not be
+   *          {@code null}, but it will be empty if no handshakes have been
+   *          completed.
+   */
+  public LatencyHistogramSnapshot getTLSHandshakeTimeHistogram()
+  {
+    return tlsHandshakeHistogram.getSnapshot();
+  }
+
+
+
+  /**
+   * Records the completion of a TLS handshake on a connection in the pool.
+   *
+   * @param  handshakeTimeNanos  The length of time in nanoseconds required to
+   *                             complete the handshake.
+   * @param  resumed             Indicates whether the handshake resumed a
+   *                             previously-established session.
+   */
+  void recordTLSHandshake(final long handshakeTimeNanos,
+                          final boolean resumed)
+  {
+    numTLSHandshakes.incrementAndGet();
+    if (resumed)
+    {
+      numResumedTLSHandshakes.incrementAndGet();
+    }
+
+    tlsHandshakeHistogram.record(handshakeTimeNanos);
+  }
+
+
+
+  /**
+   * Retrieves the number of search and compare requests that have been hedged
+   * by sending them to a second server because no response was received from
+   * the first server within the hedge delay.
+   *
+   * @return  The number of search and compare requests that have been hedged.
+   */
+  public long getNumHedgedRequests()
+  {
+    return numHedgedRequests.get();
+  }
+
+
+
+  /**
+   * Increments the number of search and compare requests that have been
+   * hedged.
+   */
+  void incrementNumHedgedRequests()
+  {
+    numHedgedRequests.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of hedged requests for which the response from the
+   * second server was used because it was received before a usable response
+   * from the first server.
+   *
+   * @return  The number of hedged requests for which the response from the
+   *          second server was used.
+   */
+  public long getNumHedgedRequestsWon()
+  {
+    return numHedgedRequestsWon.get();
+  }
+
+
+
+  /**
+   * Increments the number of hedged requests for which the response from the
+   * second server was used.
+   */
+  void incrementNumHedgedRequestsWon()
+  {
+    numHedgedRequestsWon.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of times that a request would have been hedged, but
+   * was not because the hedging budget had been exhausted.
+   *
+   * @return  The number of hedges that were not sent because the hedging
+   *          budget had been exhausted.
+   */
+  public long getNumHedgesSuppressedByBudget()
+  {
+    return numHedgesSuppressedByBudget.get();
+  }
+
+
+
+  /**
+   * Increments the number of hedges that were not sent because the hedging
+   * budget had been exhausted.
+   */
+  void incrementNumHedgesSuppressedByBudget()
+  {
+    numHedgesSuppressedByBudget.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of times that a request would have been hedged, but
+   * was not because there was no available connection established to a server
+   * other than the one to which the request was originally sent.
+   *
+   * @return  The number of hedges that were not sent because no connection to
+   *          another server was available.
+   */
+  public long getNumHedgesSuppressedNoServer()
+  {
+    return numHedgesSuppressedNoServer.get();
+  }
+
+
+
+  /**
+   * Increments the number of hedges that were not sent because no connection
+   * to another server was available.
+   */
+  void incrementNumHedgesSuppressedNoServer()
+  {
+    numHedgesSuppressedNoServer.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves the number of connections that adaptive sizing most recently
+   * selected as the target size for the pool, including both available
+   * connections and those that are checked out.
+   *
+   * @return  The number of connections that adaptive sizing most recently
+   *          selected as the target size for the pool, or -1 if adaptive
+   *          sizing is not enabled for the pool or has not yet selected a
+   *          target size.
+   */
+  public int getAdaptiveTargetPoolSize()
+  {
+    if (pool instanceof LDAPConnectionPool)
+    {
+      return ((LDAPConnectionPool) pool).getAdaptiveTargetPoolSize();
+    }
+    else
+    {
+      return -1;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections currently available for use in the
+   * pool, broken down by the server to which they are established.
+   *
+   * @return  A map of the number of connections currently available for use in
+   *          the pool, keyed by the host and port (in the form "host:port") of
+   *          the server to which they are established.  It will be empty if
+   *          that information is not available for the associated connection
+   *          pool implementation.
+   */
+  public Map<String,Integer> getNumAvailableConnectionsByServer()
+  {
+    if (pool instanceof LDAPConnectionPool)
+    {
+      return ((LDAPConnectionPool) pool).
+           getCurrentAvailableConnectionsByServer();
+    }
+    else
+    {
+      return Collections.emptyMap();
+    }
+  }
+
+
+
+  /**
+   * Increments the counter for the specified server in the provided map,
+   * creating it if necessary.
+   *
+   * @param  counters   The map of counters to update.
+   * @param  serverKey  The host and port of the server for which to increment
+   *                    the counter.
+   */
+  private static void increment(
+                           final ConcurrentHashMap<String,AtomicLong> counters,
+                           final String serverKey)
+  {
+    AtomicLong counter = counters.get(serverKey);
+    if (counter == null)
+    {
+      counter = new AtomicLong(0L);
+      final AtomicLong existingCounter =
+           counters.putIfAbsent(serverKey, counter);
+      if (existingCounter != null)
+      {
+        counter = existingCounter;
+      }
+    }
+
+    counter.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves a sorted snapshot of the values of the counters in the provided
+   * map.
+   *
+   * @param  counters  The map of counters for which to retrieve the values.
+   *
+   * @return  A sorted snapshot of the values of the counters in the provided
+   *          map.
+   */
+  private static Map<String,Long> getCounts(
+                       final ConcurrentHashMap<String,AtomicLong> counters)
+  {
+    final TreeMap<String,Long> m = new TreeMap<>();
+    for (final Map.Entry<String,AtomicLong> e : counters.entrySet())
+    {
+      m.put(e.getKey(), e.getValue().get());
+    }
+
+    return Collections.unmodifiableMap(m);
+  }
+
+
+
   /**
    * Retrieves the number of connections currently available for use in the
    * pool, if that information is available.
@@ -481,6 +1201,103 @@ public final class LDAPConnectionPoolStatistics
 
 
 
+  /**
+   * Records the provided response time in the histogram for the specified
+   * operation type.
+   *
+   * @param  operationType  The operation type for the response.
+   * @param  responseTime   The length of time in nanoseconds between sending
+   *                        the request and receiving the response.
+   */
+  void recordResponseTime(final OperationType operationType,
+                          final long responseTime)
+  {
+    final int index = operationType.ordinal();
+    LatencyHistogram histogram = responseTimeHistograms.get(index);
+    if (histogram == null)
+    {
+      // Responses for connections in the pool may be processed by many threads
+      // at once, so use a striped histogram to reduce contention.
+      histogram = new LatencyHistogram();
+      if (! responseTimeHistograms.compareAndSet(index, null, histogram))
+      {
+        histogram = responseTimeHistograms.get(index);
+      }
+    }
+
+    histogram.record(responseTime);
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the response time histogram for operations of the
+   * specified type processed on connections in the pool.  The snapshot may be
+   * used to obtain estimates of percentile response times, like the median or
+   * the 99th percentile.  Response time histograms are not maintained for
+   * abandon or unbind operations, since the server does not send responses to
+   * them.
+   *
+   * @param  operationType  The operation type for which to retrieve the
+   *                        response time histogram.  It must not be
+   *                        {@code null}.
+   *
+   * @return  A snapshot of the response time histogram for operations of the
+   *          specified type.  It will not be {@code null}, but it will be empty
+   *          if no response times have been recorded for operations of that
+   *          type.
+   */
+  public LatencyHistogramSnapshot getResponseTimeHistogram(
+              final OperationType operationType)
+  {
+    final LatencyHistogram histogram =
+         responseTimeHistograms.get(operationType.ordinal());
+    if (histogram == null)
+    {
+      return new LatencyHistogram(1).getSnapshot();
+    }
+    else
+    {
+      return histogram.getSnapshot();
+    }
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the response time histogram for operations of the
+   * specified type processed on connections in the pool, and resets that
+   * histogram.  Any response times recorded while the snapshot is being
+   * obtained will be included either in the snapshot or in the histogram after
+   * it has been reset, so this method may be called periodically to obtain
+   * response time percentiles for each interval.
+   *
+   * @param  operationType  The operation type for which to retrieve the
+   *                        response time histogram.  It must not be
+   *                        {@code null}.
+   *
+   * @return  A snapshot of the response time histogram for operations of the
+   *          specified type before it was reset.  It will not be
+   *          {@code null}, but it will be empty if no response times have been
+   *          recorded for operations of that type.
+   */
+  public LatencyHistogramSnapshot getAndResetResponseTimeHistogram(
+              final OperationType operationType)
+  {
+    final LatencyHistogram histogram =
+         responseTimeHistograms.get(operationType.ordinal());
+    if (histogram == null)
+    {
+      return new LatencyHistogram(1).getSnapshot();
+    }
+    else
+    {
+      return histogram.getSnapshotAndReset();
+    }
+  }
+
+
+
   /**
    * Retrieves a string representation of this LDAP connection pool statistics
    * object.
@@ -538,6 +1355,14 @@ public final class LDAPConnectionPoolStatistics
     buffer.append(failedCheckouts);
     buffer.append(", numReleasedValid=");
     buffer.append(releasedValid);
+    buffer.append(", numTLSHandshakes=");
+    buffer.append(numTLSHandshakes.get());
+    buffer.append(", numResumedTLSHandshakes=");
+    buffer.append(numResumedTLSHandshakes.get());
+    buffer.append(", numHedgedRequests=");
+    buffer.append(numHedgedRequests.get());
+    buffer.append(", numHedgedRequestsWon=");
+    buffer.append(numHedgedRequestsWon.get());
     buffer.append(')');
   }
 }
@@ -95,6 +95,11 @@ final class LDAPConnectionReader
   // response acceptors.
   private final ConcurrentHashMap<Integer,ResponseAcceptor> acceptorMap;
 
+  // The map that will be used to associate message IDs with the time that the
+  // corresponding request was sent.  It will only be used if an operation
+  // tracer is configured.
+  private final ConcurrentHashMap<Integer,Long> requestSentTimes;
+
   // The exception encountered during StartTLS processing.
   private volatile Exception startTLSException;
 
@@ -153,6 +158,8 @@ final class LDAPConnectionReader
          connection.getConnectionOptions().getMaxMessageSize());
 
     acceptorMap = new ConcurrentHashMap<>(StaticUtils.computeMapCapacity(10));
+    requestSentTimes =
+         new ConcurrentHashMap<>(StaticUtils.computeMapCapacity(10));
     closeRequested = false;
     sslSocketFactory = null;
     startTLSException = null;
@@ -199,6 +206,36 @@ final class LDAPConnectionReader
   void deregisterResponseAcceptor(final int messageID)
   {
     acceptorMap.remove(messageID);
+    requestSentTimes.remove(messageID);
+  }
+
+
+
+  /**
+   * Records the time that the request with the specified message ID was sent,
+   * so that the time spent waiting for the response can be provided to the
+   * operation tracer.  This should only be called if an operation tracer is
+   * configured.
+   *
+   * @param  messageID    The message ID for the request.
+   * @param  sentNanos    The {@code System.nanoTime} value at the time the
+   *                      request was sent.
+   * @param  replaceOnly  Indicates whether to only update an existing sent
+   *                      time for the request.  If this is {@code true} and
+   *                      a response has already been read for the request,
+   *                      then no sent time will be recorded.
+   */
+  void setRequestSentTime(final int messageID, final long sentNanos,
+                          final boolean replaceOnly)
+  {
+    if (replaceOnly)
+    {
+      requestSentTimes.replace(messageID, sentNanos);
+    }
+    else
+    {
+      requestSentTimes.put(messageID, sentNanos);
+    }
   }
 
 
@@ -234,9 +271,19 @@ final class LDAPConnectionReader
     {
       try
       {
+        final LDAPOperationTracer tracer =
+             connection.getConnectionOptions().getOperationTracer();
+        long decodeStartNanos = 0L;
+
         final LDAPResponse response;
         try
         {
+          if (tracer != null)
+          {
+            waitForResponseData(true);
+            decodeStartNanos = System.nanoTime();
+          }
+
           response = LDAPMessage.readLDAPResponseFrom(asn1StreamReader, true,
                connection.getCachedSchema());
         }
@@ -267,14 +314,8 @@ final class LDAPConnectionReader
                   InternalSDKHelper.setSoTimeout(connection, 0);
                 }
 
-                final SSLSocket sslSocket;
-                synchronized (sslSocketFactory)
-                {
-                  sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket,
-                       connection.getConnectedAddress(), socket.getPort(),
-                       true);
-                  sslSocket.startHandshake();
-                }
+                final SSLSocket sslSocket =
+                     createStartTLSSocket(sslSocketFactory, connectionOptions);
                 connectionOptions.getSSLSocketVerifier().verifySSLSocket(
                      connection.getConnectedAddress(), socket.getPort(),
                      sslSocket);
@@ -422,6 +463,11 @@ final class LDAPConnectionReader
         }
 
         connection.setLastCommunicationTime();
+        if (tracer != null)
+        {
+          traceResponse(tracer, response, decodeStartNanos);
+        }
+
         Debug.debugLDAPResult(response, connection);
         logResponse(response);
 
@@ -643,6 +689,15 @@ final class LDAPConnectionReader
     {
       try
       {
+        final LDAPOperationTracer tracer =
+             connection.getConnectionOptions().getOperationTracer();
+        long decodeStartNanos = 0L;
+        if (tracer != null)
+        {
+          waitForResponseData(false);
+          decodeStartNanos = System.nanoTime();
+        }
+
         final LDAPResponse response = LDAPMessage.readLDAPResponseFrom(
              asn1StreamReader, false, connection.getCachedSchema());
         if (response == null)
@@ -651,6 +706,10 @@ final class LDAPConnectionReader
         }
 
         connection.setLastCommunicationTime();
+        if (tracer != null)
+        {
+          traceResponse(tracer, response, decodeStartNanos);
+        }
         if (response.getMessageID() == messageID)
         {
           return response;
@@ -812,6 +871,112 @@ final class LDAPConnectionReader
 
 
 
+  /**
+   * Waits until data is available to be read from the server, so that the
+   * time spent waiting for a response can be distinguished from the time
+   * spent reading and decoding it.  This should only be called if an
+   * operation tracer is configured.
+   *
+   * @param  ignoreSocketTimeout  Indicates whether to ignore socket timeout
+   *                              exceptions encountered while waiting for
+   *                              data.
+   *
+   * @throws  LDAPException  If a problem occurs while waiting for data.  Any
+   *                         {@code IOException} will be wrapped in the same
+   *                         way as when reading the response.
+   */
+  private void waitForResponseData(final boolean ignoreSocketTimeout)
+          throws LDAPException
+  {
+    try
+    {
+      asn1StreamReader.setIgnoreSocketTimeout(false, ignoreSocketTimeout);
+      asn1StreamReader.peek();
+    }
+    catch (final IOException ioe)
+    {
+      if (! ((ioe instanceof SocketTimeoutException) ||
+             (ioe instanceof InterruptedIOException)))
+      {
+        Debug.debugException(ioe);
+      }
+
+      throw new LDAPException(ResultCode.SERVER_DOWN,
+           StaticUtils.getExceptionMessage(ioe), ioe);
+    }
+  }
+
+
+
+  /**
+   * Provides information about the time spent waiting for and decoding the
+   * provided response to the given operation tracer.
+   *
+   * @param  tracer            The operation tracer to notify.  It must not be
+   *                           {@code null}.
+   * @param  response          The response that was read.  It must not be
+   *                           {@code null}.
+   * @param  decodeStartNanos  The {@code System.nanoTime} value at the time
+   *                           that data for the response became available.
+   */
+  private void traceResponse(final LDAPOperationTracer tracer,
+                             final LDAPResponse response,
+                             final long decodeStartNanos)
+  {
+    final long decodeEndNanos = System.nanoTime();
+    final int messageID = response.getMessageID();
+    final OperationType operationType = getOperationType(response);
+
+    final Long sentNanos = requestSentTimes.remove(messageID);
+    if (sentNanos != null)
+    {
+      tracer.phaseCompleted(connection, operationType, messageID,
+           OperationTracePhase.RESPONSE_WAIT, sentNanos, decodeStartNanos);
+    }
+
+    tracer.phaseCompleted(connection, operationType, messageID,
+         OperationTracePhase.RESPONSE_DECODE, decodeStartNanos,
+         decodeEndNanos);
+  }
+
+
+
+  /**
+   * Retrieves the operation type for the provided response.
+   *
+   * @param  response  The response for which to retrieve the operation type.
+   *
+   * @return  The operation type for the provided response, or {@code null} if
+   *          it cannot be determined.
+   */
+  private static OperationType getOperationType(final LDAPResponse response)
+  {
+    if ((response instanceof SearchResultEntry) ||
+        (response instanceof SearchResultReference) ||
+        (response instanceof SearchResult))
+    {
+      return OperationType.SEARCH;
+    }
+    else if (response instanceof BindResult)
+    {
+      return OperationType.BIND;
+    }
+    else if (response instanceof ExtendedResult)
+    {
+      return OperationType.EXTENDED;
+    }
+    else if (response instanceof LDAPResult)
+    {
+      return ((LDAPResult) response).getOperationType();
+    }
+    else
+    {
+      return null;
+    }
+  }
+
+
+
   /**
    * Logs the provided response, if appropriate.
    *
@@ -918,13 +1083,8 @@ final class LDAPConnectionReader
           InternalSDKHelper.setSoTimeout(connection, 0);
         }
 
-        final SSLSocket sslSocket;
-        synchronized (sslSocketFactory)
-        {
-          sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket,
-               connection.getConnectedAddress(), socket.getPort(), true);
-          sslSocket.startHandshake();
-        }
+        final SSLSocket sslSocket =
+             createStartTLSSocket(sslSocketFactory, connectionOptions);
         connectionOptions.getSSLSocketVerifier().verifySSLSocket(
              connection.getConnectedAddress(), socket.getPort(), sslSocket);
         inputStream =
@@ -1005,6 +1165,54 @@ final class LDAPConnectionReader
 
 
 
+  /**
+   * Creates an SSL socket layered over the existing clear-text socket and
+   * performs the TLS handshake on it.  The socket factory will only be
+   * synchronized while creating the socket, and only if the connection options
+   * do not allow concurrent socket factory use, so that StartTLS handshakes on
+   * other connections using the same socket factory will not be blocked while
+   * the handshake is in progress.
+   *
+   * @param  sslSocketFactory   The SSL socket factory to use to create the
+   *                            socket.
+   * @param  connectionOptions  The connection options for the associated
+   *                            connection.
+   *
+   * @return  The SSL socket on which the handshake has been completed.
+   *
+   * @throws  IOException  If a problem occurs while creating the socket or
+   *                       performing the handshake.
+   */
+  private SSLSocket createStartTLSSocket(
+                         final SSLSocketFactory sslSocketFactory,
+                         final LDAPConnectionOptions connectionOptions)
+          throws IOException
+  {
+    final SSLSocket sslSocket;
+    if (connectionOptions.allowConcurrentSocketFactoryUse())
+    {
+      sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket,
+           connection.getConnectedAddress(), socket.getPort(), true);
+    }
+    else
+    {
+      synchronized (sslSocketFactory)
+      {
+        sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket,
+             connection.getConnectedAddress(), socket.getPort(), true);
+      }
+    }
+
+    final long startTimeMillis = System.currentTimeMillis();
+    final long startTimeNanos = System.nanoTime();
+    sslSocket.startHandshake();
+    connection.getConnectionStatistics().recordTLSHandshake(sslSocket,
+         startTimeMillis, System.nanoTime() - startTimeNanos);
+    return sslSocket;
+  }
+
+
+
   /**
    * Updates this connection reader to ensure that any subsequent data read
    * over this connection will be decoded using the provided SASL client.
@@ -1019,6 +1227,20 @@ final class LDAPConnectionReader
 
 
 
+  /**
+   * Indicates whether the current thread is the thread used to read responses
+   * for the associated connection.
+   *
+   * @return  {@code true} if the current thread is the reader thread for the
+   *          associated connection, or {@code false} if not.
+   */
+  boolean isReaderThread()
+  {
+    return (Thread.currentThread() == this);
+  }
+
+
+
   /**
    * Closes the connection and interrupts the reader thread.
    *
@@ -40,7 +40,13 @@ package com.unboundid.ldap.sdk;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
 
+import com.unboundid.util.Debug;
+import com.unboundid.util.LatencyHistogram;
+import com.unboundid.util.LatencyHistogramSnapshot;
 import com.unboundid.util.Mutable;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
@@ -64,7 +70,14 @@ import com.unboundid.util.ThreadSafetyLevel;
  *       connection.</LI>
  *   <LI>The average response time (in milliseconds or nanoseconds) for each
  *       type of operation processed on the connection.</LI>
+ *   <LI>A histogram of the response times for each type of operation
+ *       processed on the connection, which may be used to obtain estimates of
+ *       percentile response times (for example, the 99th percentile search
+ *       response time).</LI>
  * </UL>
+ * If the connection is part of a connection pool, then response times will
+ * also be recorded in histograms maintained by the
+ * {@link LDAPConnectionPoolStatistics} for that pool.
  */
 @Mutable()
 @ThreadSafety(level=ThreadSafetyLevel.MOSTLY_THREADSAFE)
@@ -146,6 +159,14 @@ public final class LDAPConnectionStatistics
   // connection.
   private final AtomicLong numSearchDoneResponses;
 
+  // The number of TLS handshakes completed on the associated connection.
+  private final AtomicLong numTLSHandshakes;
+
+  // The number of TLS handshakes completed on the associated connection that
+  // resumed a previously-established session rather than negotiating a new
+  // one.
+  private final AtomicLong numResumedTLSHandshakes;
+
   // The number of unbind requests sent over the associated connection.
   private final AtomicLong numUnbindRequests;
 
@@ -173,6 +194,36 @@ public final class LDAPConnectionStatistics
   // The total length of time spent waiting for search done responses.
   private final AtomicLong totalSearchResponseTime;
 
+  // The total length of time spent performing TLS handshakes.
+  private final AtomicLong totalTLSHandshakeTime;
+
+  // The length of time in nanoseconds for the most recent TLS handshake that
+  // was completed before the associated connection became part of a
+  // connection pool, or -1 if there is no such handshake that has not yet been
+  // reported to the pool statistics.
+  private final AtomicLong unreportedTLSHandshakeTime;
+
+  // Indicates whether the unreported TLS handshake resumed an existing
+  // session.
+  private volatile boolean unreportedTLSHandshakeResumed;
+
+  // The response time histograms for each type of operation, indexed by the
+  // ordinal of the operation type.  Histograms will be created the first time
+  // a response time is recorded for the associated operation type.
+  private final AtomicReferenceArray<LatencyHistogram> responseTimeHistograms;
+
+  // The statistics for the connection pool with which the associated
+  // connection is associated, if any.
+  private transient volatile LDAPConnectionPoolStatistics poolStatistics;
+
+  // The number of operations sent on the associated connection that have been
+  // reported to the server latency tracker but have not yet completed.
+  private final AtomicLong numTrackedOutstandingOperations;
+
+  // The tracker for the server to which the associated connection is
+  // established, if any.
+  private transient volatile ServerLatencyTracker serverLatencyTracker;
+
 
 
   /**
@@ -203,6 +254,8 @@ public final class LDAPConnectionStatistics
     numSearchReferenceResponses = new AtomicLong(0L);
     numSearchDoneResponses      = new AtomicLong(0L);
     numUnbindRequests           = new AtomicLong(0L);
+    numTLSHandshakes            = new AtomicLong(0L);
+    numResumedTLSHandshakes     = new AtomicLong(0L);
     totalAddResponseTime        = new AtomicLong(0L);
     totalBindResponseTime       = new AtomicLong(0L);
     totalCompareResponseTime    = new AtomicLong(0L);
@@ -211,6 +264,14 @@ public final class LDAPConnectionStatistics
     totalModifyResponseTime     = new AtomicLong(0L);
     totalModifyDNResponseTime   = new AtomicLong(0L);
     totalSearchResponseTime     = new AtomicLong(0L);
+    totalTLSHandshakeTime       = new AtomicLong(0L);
+    unreportedTLSHandshakeTime  = new AtomicLong(-1L);
+    unreportedTLSHandshakeResumed = false;
+    responseTimeHistograms      =
+         new AtomicReferenceArray<>(OperationType.values().length);
+    poolStatistics              = null;
+    numTrackedOutstandingOperations = new AtomicLong(0L);
+    serverLatencyTracker        = null;
   }
 
 
@@ -250,6 +311,78 @@ public final class LDAPConnectionStatistics
     totalModifyResponseTime.set(0L);
     totalModifyDNResponseTime.set(0L);
     totalSearchResponseTime.set(0L);
+    numTLSHandshakes.set(0L);
+    numResumedTLSHandshakes.set(0L);
+    totalTLSHandshakeTime.set(0L);
+
+    for (int i=0; i < responseTimeHistograms.length(); i++)
+    {
+      responseTimeHistograms.set(i, null);
+    }
+  }
+
+
+
+  /**
+   * Specifies the statistics for the connection pool with which the associated
+   * connection is associated.  Response times and TLS handshakes recorded for
+   * the connection will also be recorded in the pool statistics, including the
+   * handshake performed while the connection was being established.
+   *
+   * @param  poolStatistics  The statistics for the connection pool with which
+   *                         the associated connection is associated.  It may
+   *                         be {@code null} if the connection is not part of a
+   *                         connection pool.
+   */
+  void setConnectionPoolStatistics(
+            final LDAPConnectionPoolStatistics poolStatistics)
+  {
+    this.poolStatistics = poolStatistics;
+
+    if (poolStatistics != null)
+    {
+      final long handshakeTime = unreportedTLSHandshakeTime.getAndSet(-1L);
+      if (handshakeTime >= 0L)
+      {
+        poolStatistics.recordTLSHandshake(handshakeTime,
+             unreportedTLSHandshakeResumed);
+      }
+    }
+  }
+
+
+
+  /**
+   * Specifies the tracker for the server to which the associated connection
+   * is established.  Operations sent on the connection and the response times
+   * for those operations will be reported to the tracker.  Any operations that
+   * were reported to a previous tracker but have not yet completed will be
+   * considered abandoned.
+   *
+   * @param  serverLatencyTracker  The tracker for the server to which the
+   *                               associated connection is established.  It
+   *                               may be {@code null} if operations should not
+   *                               be tracked.
+   */
+  void setServerLatencyTracker(
+            final ServerLatencyTracker serverLatencyTracker)
+  {
+    releaseTrackedOutstandingOperations();
+    this.serverLatencyTracker = serverLatencyTracker;
+  }
+
+
+
+  /**
+   * Retrieves the tracker for the server to which the associated connection is
+   * established.
+   *
+   * @return  The tracker for the server to which the associated connection is
+   *          established, or {@code null} if operations are not being tracked.
+   */
+  ServerLatencyTracker getServerLatencyTracker()
+  {
+    return serverLatencyTracker;
   }
 
 
@@ -279,6 +412,117 @@ public final class LDAPConnectionStatistics
 
 
 
+  /**
+   * Retrieves the number of TLS handshakes that have been completed on the
+   * associated connection, either while establishing a connection that uses
+   * SSL or while processing a StartTLS extended operation.
+   *
+   * @return  The number of TLS handshakes that have been completed on the
+   *          associated connection.
+   */
+  public long getNumTLSHandshakes()
+  {
+    return numTLSHandshakes.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of TLS handshakes completed on the associated
+   * connection that resumed a session that had previously been established
+   * with the server, which avoids the cost of a full handshake.  Sessions can
+   * only be resumed for connections created with SSL socket factories that
+   * share the same client session cache, like those provided by an
+   * {@link com.unboundid.util.ssl.SSLClientSessionContext}.
+   *
+   * @return  The number of TLS handshakes completed on the associated
+   *          connection that resumed an existing session.
+   */
+  public long getNumResumedTLSHandshakes()
+  {
+    return numResumedTLSHandshakes.get();
+  }
+
+
+
+  /**
+   * Retrieves the total length of time in nanoseconds spent performing TLS
+   * handshakes on the associated connection.
+   *
+   * @return  The total length of time in nanoseconds spent performing TLS
+   *          handshakes on the associated connection.
+   */
+  public long getTotalTLSHandshakeTimeNanos()
+  {
+    return totalTLSHandshakeTime.get();
+  }
+
+
+
+  /**
+   * Retrieves the total length of time in milliseconds spent performing TLS
+   * handshakes on the associated connection.
+   *
+   * @return  The total length of time in milliseconds spent performing TLS
+   *          handshakes on the associated connection.
+   */
+  public long getTotalTLSHandshakeTimeMillis()
+  {
+    return Math.round(totalTLSHandshakeTime.get() / 1_000_000.0d);
+  }
+
+
+
+  /**
+   * Records the completion of a TLS handshake on the associated connection.
+   * The handshake will be considered to have resumed an existing session if
+   * the negotiated session was created before the handshake started.
+   *
+   * @param  sslSocket           The socket on which the handshake was
+   *                             completed.
+   * @param  startTimeMillis     The time, as reported by
+   *                             {@code System.currentTimeMillis}, that the
+   *                             handshake was started.
+   * @param  handshakeTimeNanos  The length of time in nanoseconds required to
+   *                             complete the handshake.
+   */
+  void recordTLSHandshake(final SSLSocket sslSocket,
+                          final long startTimeMillis,
+                          final long handshakeTimeNanos)
+  {
+    boolean resumed = false;
+    try
+    {
+      final SSLSession session = sslSocket.getSession();
+      resumed = ((session != null) &&
+           (session.getCreationTime() < startTimeMillis));
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+    }
+
+    numTLSHandshakes.incrementAndGet();
+    totalTLSHandshakeTime.addAndGet(handshakeTimeNanos);
+    if (resumed)
+    {
+      numResumedTLSHandshakes.incrementAndGet();
+    }
+
+    final LDAPConnectionPoolStatistics ps = poolStatistics;
+    if (ps == null)
+    {
+      unreportedTLSHandshakeResumed = resumed;
+      unreportedTLSHandshakeTime.set(handshakeTimeNanos);
+    }
+    else
+    {
+      ps.recordTLSHandshake(handshakeTimeNanos, resumed);
+    }
+  }
+
+
+
   /**
    * Retrieves the number of times the associated connection has been
    * terminated.  Note that this may exceed the number of connection attempts
@@ -301,6 +545,10 @@ public final class LDAPConnectionStatistics
   void incrementNumDisconnects()
   {
     numDisconnects.incrementAndGet();
+
+    // Responses will never be received for any operations that were still in
+    // progress when the connection was closed.
+    releaseTrackedOutstandingOperations();
   }
 
 
@@ -346,6 +594,7 @@ public final class LDAPConnectionStatistics
   void incrementNumAddRequests()
   {
     numAddRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -371,10 +620,12 @@ public final class LDAPConnectionStatistics
   void incrementNumAddResponses(final long responseTime)
   {
     numAddResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalAddResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.ADD, responseTime);
     }
   }
 
@@ -476,6 +727,7 @@ public final class LDAPConnectionStatistics
   void incrementNumBindRequests()
   {
     numBindRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -501,10 +753,12 @@ public final class LDAPConnectionStatistics
   void incrementNumBindResponses(final long responseTime)
   {
     numBindResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalBindResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.BIND, responseTime);
     }
   }
 
@@ -607,6 +861,7 @@ public final class LDAPConnectionStatistics
   void incrementNumCompareRequests()
   {
     numCompareRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -634,10 +889,12 @@ public final class LDAPConnectionStatistics
   void incrementNumCompareResponses(final long responseTime)
   {
     numCompareResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalCompareResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.COMPARE, responseTime);
     }
   }
 
@@ -741,6 +998,7 @@ public final class LDAPConnectionStatistics
   void incrementNumDeleteRequests()
   {
     numDeleteRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -767,10 +1025,12 @@ public final class LDAPConnectionStatistics
   void incrementNumDeleteResponses(final long responseTime)
   {
     numDeleteResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalDeleteResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.DELETE, responseTime);
     }
   }
 
@@ -876,6 +1136,7 @@ public final class LDAPConnectionStatistics
   void incrementNumExtendedRequests()
   {
     numExtendedRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -904,10 +1165,12 @@ public final class LDAPConnectionStatistics
   void incrementNumExtendedResponses(final long responseTime)
   {
     numExtendedResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalExtendedResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.EXTENDED, responseTime);
     }
   }
 
@@ -1011,6 +1274,7 @@ public final class LDAPConnectionStatistics
   void incrementNumModifyRequests()
   {
     numModifyRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -1037,10 +1301,12 @@ public final class LDAPConnectionStatistics
   void incrementNumModifyResponses(final long responseTime)
   {
     numModifyResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalModifyResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.MODIFY, responseTime);
     }
   }
 
@@ -1147,6 +1413,7 @@ public final class LDAPConnectionStatistics
   void incrementNumModifyDNRequests()
   {
     numModifyDNRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -1175,10 +1442,12 @@ public final class LDAPConnectionStatistics
   void incrementNumModifyDNResponses(final long responseTime)
   {
     numModifyDNResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalModifyDNResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.MODIFY_DN, responseTime);
     }
   }
 
@@ -1283,6 +1552,7 @@ public final class LDAPConnectionStatistics
   void incrementNumSearchRequests()
   {
     numSearchRequests.incrementAndGet();
+    trackedOperationStarted();
   }
 
 
@@ -1348,10 +1618,12 @@ public final class LDAPConnectionStatistics
     numSearchEntryResponses.addAndGet(numEntries);
     numSearchReferenceResponses.addAndGet(numReferences);
     numSearchDoneResponses.incrementAndGet();
+    trackedOperationCompleted(responseTime);
 
     if (responseTime > 0)
     {
       totalSearchResponseTime.addAndGet(responseTime);
+      recordResponseTime(OperationType.SEARCH, responseTime);
     }
   }
 
@@ -1460,6 +1732,165 @@ public final class LDAPConnectionStatistics
 
 
 
+  /**
+   * Reports that an operation has been sent on the associated connection to
+   * the server latency tracker, if there is one.
+   */
+  private void trackedOperationStarted()
+  {
+    final ServerLatencyTracker tracker = serverLatencyTracker;
+    if (tracker != null)
+    {
+      numTrackedOutstandingOperations.incrementAndGet();
+      tracker.operationStarted();
+    }
+  }
+
+
+
+  /**
+   * Reports that an operation sent on the associated connection has completed
+   * to the server latency tracker, if there is one.
+   *
+   * @param  responseTime  The length of time in nanoseconds between sending
+   *                       the request and receiving the response.
+   */
+  private void trackedOperationCompleted(final long responseTime)
+  {
+    final ServerLatencyTracker tracker = serverLatencyTracker;
+    if ((tracker != null) &&
+         (numTrackedOutstandingOperations.getAndDecrement() > 0L))
+    {
+      tracker.operationCompleted(responseTime);
+    }
+    else
+    {
+      numTrackedOutstandingOperations.compareAndSet(-1L, 0L);
+    }
+  }
+
+
+
+  /**
+   * Reports to the server latency tracker, if there is one, that all
+   * operations sent on the associated connection that have not yet completed
+   * will never complete.
+   */
+  private void releaseTrackedOutstandingOperations()
+  {
+    final long count = numTrackedOutstandingOperations.getAndSet(0L);
+    final ServerLatencyTracker tracker = serverLatencyTracker;
+    if ((tracker != null) && (count > 0L))
+    {
+      tracker.operationsAbandoned(count);
+    }
+  }
+
+
+
+  /**
+   * Records the provided response time in the histogram for the specified
+   * operation type, and in the associated connection pool statistics if
+   * appropriate.
+   *
+   * @param  operationType  The operation type for the response.
+   * @param  responseTime   The length of time in nanoseconds between sending
+   *                        the request and receiving the response.
+   */
+  private void recordResponseTime(final OperationType operationType,
+                                  final long responseTime)
+  {
+    final int index = operationType.ordinal();
+    LatencyHistogram histogram = responseTimeHistograms.get(index);
+    if (histogram == null)
+    {
+      // Responses for a single connection will rarely be processed by multiple
+      // threads at the same time, so a single stripe is sufficient.
+      histogram = new LatencyHistogram(1);
+      if (! responseTimeHistograms.compareAndSet(index, null, histogram))
+      {
+        histogram = responseTimeHistograms.get(index);
+      }
+    }
+
+    histogram.record(responseTime);
+
+    final LDAPConnectionPoolStatistics ps = poolStatistics;
+    if (ps != null)
+    {
+      ps.recordResponseTime(operationType, responseTime);
+    }
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the response time histogram for operations of the
+   * specified type processed on the associated connection.  The snapshot may
+   * be used to obtain estimates of percentile response times, like the median
+   * or the 99th percentile.  Response time histograms are not maintained for
+   * abandon or unbind operations, since the server does not send responses to
+   * them.
+   *
+   * @param  operationType  The operation type for which to retrieve the
+   *                        response time histogram.  It must not be
+   *                        {@code null}.
+   *
+   * @return  A snapshot of the response time histogram for operations of the
+   *          specified type.  It will not be {@code null}, but it will be empty
+   *          if no response times have been recorded for operations of that
+   *          type.
+   */
+  public LatencyHistogramSnapshot getResponseTimeHistogram(
+              final OperationType operationType)
+  {
+    final LatencyHistogram histogram =
+         responseTimeHistograms.get(operationType.ordinal());
+    if (histogram == null)
+    {
+      return new LatencyHistogram(1).getSnapshot();
+    }
+    else
+    {
+      return histogram.getSnapshot();
+    }
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the response time histogram for operations of the
+   * specified type processed on the associated connection, and resets that
+   * histogram.  Any response times recorded while the snapshot is being
+   * obtained will be included either in the snapshot or in the histogram after
+   * it has been reset.
+   *
+   * @param  operationType  The operation type for which to retrieve the
+   *                        response time histogram.  It must not be
+   *                        {@code null}.
+   *
+   * @return  A snapshot of the response time histogram for operations of the
+   *          specified type before it was reset.  It will not be
+   *          {@code null}, but it will be empty if no response times have been
+   *          recorded for operations of that type.
+   */
+  public LatencyHistogramSnapshot getAndResetResponseTimeHistogram(
+              final OperationType operationType)
+  {
+    final LatencyHistogram histogram =
+         responseTimeHistograms.get(operationType.ordinal());
+    if (histogram == null)
+    {
+      return new LatencyHistogram(1).getSnapshot();
+    }
+    else
+    {
+      return histogram.getSnapshotAndReset();
+    }
+  }
+
+
+
   /**
    * Retrieves a string representation of this LDAP connection statistics
    * object.
@@ -1629,6 +2060,13 @@ public final class LDAPConnectionStatistics
     buffer.append(", numUnbindRequests=");
     buffer.append(unbindRequests);
 
+    buffer.append(", numTLSHandshakes=");
+    buffer.append(numTLSHandshakes.get());
+    buffer.append(", numResumedTLSHandshakes=");
+    buffer.append(numResumedTLSHandshakes.get());
+    buffer.append(", totalTLSHandshakeTimeNanos=");
+    buffer.append(totalTLSHandshakeTime.get());
+
     buffer.append(')');
   }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import com.unboundid.util.Extensible;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class defines an API that may be used to obtain fine-grained timing
+ * information about the phases involved in processing operations on an LDAP
+ * connection, which can help identify where the time for an operation is
+ * being spent.  An operation tracer may be configured through the
+ * {@link LDAPConnectionOptions#setOperationTracer} method, and it will be
+ * notified each time that one of the phases defined in the
+ * {@link OperationTracePhase} enum has completed.
+ * <BR><BR>
+ * All timestamps provided to an operation tracer are obtained from
+ * {@code System.nanoTime} and are therefore only meaningful when compared with
+ * other timestamps obtained in the same JVM.  If no operation tracer is
+ * configured (which is the default), then the LDAP SDK will not capture any
+ * of these timestamps.
+ * <BR><BR>
+ * Operation tracer methods will be invoked by threads that are processing
+ * operations (including the background thread used to read responses from
+ * the server), so implementations must be threadsafe and should return as
+ * quickly as possible.  Any exception thrown by an operation tracer may
+ * interfere with operation processing.
+ *
+ * @see  InMemoryLDAPOperationTracer
+ */
+@Extensible()
+@ThreadSafety(level=ThreadSafetyLevel.INTERFACE_THREADSAFE)
+public abstract class LDAPOperationTracer
+{
+  /**
+   * Indicates that the specified phase of operation processing has completed.
+   *
+   * @param  connectionInfo  Information about the connection on which the
+   *                         phase was processed.  It will not be
+   *                         {@code null}.
+   * @param  operationType   The type of operation with which the phase is
+   *                         associated.  It may be {@code null} if the phase
+   *                         is not associated with a specific operation (for
+   *                         example, a connection checkout), or if the
+   *                         operation type could not be determined (for
+   *                         example, for an intermediate response).
+   * @param  messageID       The message ID of the request or response with
+   *                         which the phase is associated.  It will be -1 if
+   *                         the phase is not associated with a specific
+   *                         operation.
+   * @param  phase           The phase that has completed.  It will not be
+   *                         {@code null}.
+   * @param  startNanos      The {@code System.nanoTime} value at the time
+   *                         that the phase started.
+   * @param  endNanos        The {@code System.nanoTime} value at the time
+   *                         that the phase completed.
+   */
+  public abstract void phaseCompleted(
+                            final LDAPConnectionInfo connectionInfo,
+                            final OperationType operationType,
+                            final int messageID,
+                            final OperationTracePhase phase,
+                            final long startNanos, final long endNanos);
+}
@@ -0,0 +1,850 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import javax.net.SocketFactory;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadLocalRandom;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a server set implementation that will establish
+ * connections to the servers that are currently providing the best response
+ * times.  For each server, it keeps track of an exponentially weighted moving
+ * average (EWMA) of the response times for operations processed on
+ * connections created by this server set, along with the number of operations
+ * that are currently outstanding on those connections.  The expected cost of
+ * sending another operation to a server is the product of its average response
+ * time and the number of operations that would then be outstanding.
+ * <BR><BR>
+ * Each new response time is given a fixed weight in the average, and the
+ * average decays toward zero as time passes without any new response times.
+ * <BR><BR>
+ * When a new connection is needed, this server set uses the "power of two
+ * choices" technique:  it randomly selects two of the available servers and
+ * attempts to connect to the one with the lower expected cost.  This sends
+ * most new connections to the fastest and least-loaded servers without
+ * causing all clients to pile onto the same server at once.  If that server is
+ * unavailable, then the remaining servers will be tried in order of increasing
+ * expected cost.  Servers for which no response times have been recorded are
+ * considered to have no cost, so that they will be tried quickly, and the
+ * decay ensures that a server that was previously slow will eventually be
+ * tried again.
+ * <BR><BR>
+ * When this server set is used to create an {@link LDAPConnectionPool}, then
+ * the pool will also use the response time information when checking out
+ * connections.  It will examine two of the available connections and will
+ * return the one established to the server with the lower expected cost.  See
+ * the {@link LDAPConnectionPool#setLatencyAwareCheckout} method for details.
+ * <BR><BR>
+ * This server set implementation has the ability to maintain a temporary
+ * blacklist of servers that have been recently found to be unavailable or
+ * unsuitable for use.  If an attempt to establish or authenticate a
+ * connection fails, if post-connect processing fails for that connection, or if
+ * health checking indicates that the connection is not suitable, then that
+ * server may be placed on the blacklist so that it will only be tried as a last
+ * resort after all non-blacklisted servers have been attempted.  The blacklist
+ * will be checked at regular intervals to determine whether a server should be
+ * re-instated to availability.
+ * <BR><BR>
+ * Note that this server set implementation is primarily intended for use with
+ * connection pools, but is also suitable for cases in which standalone
+ * connections are created as long as there will not be any attempt to close the
+ * connections when they are re-established.  It is not suitable for use in
+ * connections that may be re-established one or more times after being closed.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for creating a latency-aware
+ * server set that may be used to establish connections to any of three
+ * servers.
+ * <PRE>
+ * // Create arrays with the addresses and ports of the directory server
+ * // instances.
+ * String[] addresses =
+ * {
+ *   server1Address,
+ *   server2Address,
+ *   server3Address
+ * };
+ * int[] ports =
+ * {
+ *   server1Port,
+ *   server2Port,
+ *   server3Port
+ * };
+ *
+ * // Create the server set using the address and port arrays.
+ * LatencyAwareServerSet latencyAwareSet =
+ *      new LatencyAwareServerSet(addresses, ports);
+ *
+ * // Verify that we can establish a single connection using the server set.
+ * LDAPConnection connection = latencyAwareSet.getConnection();
+ * RootDSE rootDSEFromConnection = connection.getRootDSE();
+ * connection.close();
+ *
+ * // Verify that we can establish a connection pool using the server set.
+ * SimpleBindRequest bindRequest =
+ *      new SimpleBindRequest("uid=pool.user,dc=example,dc=com", "password");
+ * LDAPConnectionPool pool =
+ *      new LDAPConnectionPool(latencyAwareSet, bindRequest, 10);
+ * RootDSE rootDSEFromPool = pool.getRootDSE();
+ * pool.close();
+ * </PRE>
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LatencyAwareServerSet
+       extends ServerSet
+{
+  /**
+   * The name of a system property that can be used to override the default
+   * blacklist check interval, in milliseconds.
+   */
+  static final String PROPERTY_DEFAULT_BLACKLIST_CHECK_INTERVAL_MILLIS =
+       LatencyAwareServerSet.class.getName() +
+            ".defaultBlacklistCheckIntervalMillis";
+
+
+
+  /**
+   * The default length of time in milliseconds that controls how quickly the
+   * average response time for a server decays while no response times are
+   * being recorded for it.
+   */
+  public static final long DEFAULT_DECAY_WINDOW_MILLIS = 10_000L;
+
+
+
+  // The bind request to use to authenticate connections created by this
+  // server set.
+  private final BindRequest bindRequest;
+
+  // The set of connection options to use for new connections.
+  private final LDAPConnectionOptions connectionOptions;
+
+  // The length of time in milliseconds that controls how quickly the average
+  // response time for a server decays while it is idle.
+  private final long decayWindowMillis;
+
+  // A map with the latency tracker for each server.
+  private final Map<ObjectPair<String,Integer>,ServerLatencyTracker>
+       trackersByServer;
+
+  // The post-connect processor to invoke against connections created by this
+  // server set.
+  private final PostConnectProcessor postConnectProcessor;
+
+  // The blacklist manager for this server set.
+  private final ServerSetBlacklistManager blacklistManager;
+
+  // The socket factory to use to establish connections.
+  private final SocketFactory socketFactory;
+
+
+
+  /**
+   * Creates a new latency-aware server set with the specified set of directory
+   * server addresses and port numbers.  It will use the default socket factory
+   * provided by the JVM to create the underlying sockets.
+   *
+   * @param  addresses  The addresses of the directory servers to which the
+   *                    connections should be established.  It must not be
+   *                    {@code null} or empty.
+   * @param  ports      The ports of the directory servers to which the
+   *                    connections should be established.  It must not be
+   *                    {@code null}, and it must have the same number of
+   *                    elements as the {@code addresses} array.  The order of
+   *                    elements in the {@code addresses} array must correspond
+   *                    to the order of elements in the {@code ports} array.
+   */
+  public LatencyAwareServerSet(final String[] addresses, final int[] ports)
+  {
+    this(addresses, ports, null, null);
+  }
+
+
+
+  /**
+   * Creates a new latency-aware server set with the specified set of directory
+   * server addresses and port numbers.  It will use the provided socket
+   * factory to create the underlying sockets.
+   *
+   * @param  addresses          The addresses of the directory servers to which
+   *                            the connections should be established.  It must
+   *                            not be {@code null} or empty.
+   * @param  ports              The ports of the directory servers to which the
+   *                            connections should be established.  It must not
+   *                            be {@code null}, and it must have the same
+   *                            number of elements as the {@code addresses}
+   *                            array.  The order of elements in the
+   *                            {@code addresses} array must correspond to the
+   *                            order of elements in the {@code ports} array.
+   * @param  socketFactory      The socket factory to use to create the
+   *                            underlying connections.
+   * @param  connectionOptions  The set of connection options to use for the
+   *                            underlying connections.
+   */
+  public LatencyAwareServerSet(final String[] addresses, final int[] ports,
+              final SocketFactory socketFactory,
+              final LDAPConnectionOptions connectionOptions)
+  {
+    this(addresses, ports, socketFactory, connectionOptions, null, null);
+  }
+
+
+
+  /**
+   * Creates a new latency-aware server set with the specified set of directory
+   * server addresses and port numbers.  It will use the provided socket
+   * factory to create the underlying sockets.
+   *
+   * @param  addresses             The addresses of the directory servers to
+   *                               which the connections should be established.
+   *                               It must not be {@code null} or empty.
+   * @param  ports                 The ports of the directory servers to which
+   *                               the connections should be established.  It
+   *                               must not be {@code null}, and it must have
+   *                               the same number of elements as the
+   *                               {@code addresses} array.  The order of
+   *                               elements in the {@code addresses} array must
+   *                               correspond to the order of elements in the
+   *                               {@code ports} array.
+   * @param  socketFactory         The socket factory to use to create the
+   *                               underlying connections.
+   * @param  connectionOptions     The set of connection options to use for the
+   *                               underlying connections.
+   * @param  bindRequest           The bind request that should be used to
+   *                               authenticate newly established connections.
+   *                               It may be {@code null} if this server set
+   *                               should not perform any authentication.
+   * @param  postConnectProcessor  The post-connect processor that should be
+   *                               invoked on newly established connections.  It
+   *                               may be {@code null} if this server set should
+   *                               not perform any post-connect processing.
+   */
+  public LatencyAwareServerSet(final String[] addresses, final int[] ports,
+              final SocketFactory socketFactory,
+              final LDAPConnectionOptions connectionOptions,
+              final BindRequest bindRequest,
+              final PostConnectProcessor postConnectProcessor)
+  {
+    this(addresses, ports, socketFactory, connectionOptions, bindRequest,
+         postConnectProcessor, getDefaultBlacklistCheckIntervalMillis(),
+         DEFAULT_DECAY_WINDOW_MILLIS);
+  }
+
+
+
+  /**
+   * Creates a new latency-aware server set with the specified set of directory
+   * server addresses and port numbers.  It will use the provided socket
+   * factory to create the underlying sockets.
+   *
+   * @param  addresses                     The addresses of the directory
+   *                                       servers to which the connections
+   *                                       should be established.  It must not
+   *                                       be {@code null} or empty.
+   * @param  ports                         The ports of the directory servers to
+   *                                       which the connections should be
+   *                                       established.  It must not be
+   *                                       {@code null}, and it must have the
+   *                                       same number of elements as the
+   *                                       {@code addresses} array.  The order
+   *                                       of elements in the {@code addresses}
+   *                                       array must correspond to the order of
+   *                                       elements in the {@code ports} array.
+   * @param  socketFactory                 The socket factory to use to create
+   *                                       the underlying connections.
+   * @param  connectionOptions             The set of connection options to use
+   *                                       for the underlying connections.
+   * @param  bindRequest                   The bind request that should be used
+   *                                       to authenticate newly established
+   *                                       connections. It may be {@code null}
+   *                                       if this server set should not perform
+   *                                       any authentication.
+   * @param  postConnectProcessor          The post-connect processor that
+   *                                       should be invoked on newly
+   *                                       established connections.  It may be
+   *                                       {@code null} if this server set
+   *                                       should not perform any post-connect
+   *                                       processing.
+   * @param  blacklistCheckIntervalMillis  The length of time in milliseconds
+   *                                       between checks of servers on the
+   *                                       blacklist to determine whether they
+   *                                       are once again suitable for use.  A
+   *                                       value that is less than or equal to
+   *                                       zero indicates that no blacklist
+   *                                       should be maintained.
+   * @param  decayWindowMillis             The length of time in milliseconds
+   *                                       that controls how quickly the
+   *                                       average response time for a server
+   *                                       decays while no response times are
+   *                                       being recorded for it.  It must be
+   *                                       greater than zero.
+   */
+  public LatencyAwareServerSet(final String[] addresses, final int[] ports,
+              final SocketFactory socketFactory,
+              final LDAPConnectionOptions connectionOptions,
+              final BindRequest bindRequest,
+              final PostConnectProcessor postConnectProcessor,
+              final long blacklistCheckIntervalMillis,
+              final long decayWindowMillis)
+  {
+    Validator.ensureNotNull(addresses, ports);
+    Validator.ensureTrue(addresses.length > 0,
+         "LatencyAwareServerSet.addresses must not be empty.");
+    Validator.ensureTrue(addresses.length == ports.length,
+         "LatencyAwareServerSet addresses and ports arrays must be the same " +
+              "size.");
+    Validator.ensureTrue(decayWindowMillis > 0L,
+         "LatencyAwareServerSet.decayWindowMillis must be greater than zero.");
+
+    this.decayWindowMillis = decayWindowMillis;
+
+    final LinkedHashMap<ObjectPair<String,Integer>,ServerLatencyTracker> m =
+         new LinkedHashMap<>(StaticUtils.computeMapCapacity(ports.length));
+    for (int i=0; i < addresses.length; i++)
+    {
+      m.put(new ObjectPair<>(addresses[i], ports[i]),
+           new ServerLatencyTracker(addresses[i], ports[i],
+                decayWindowMillis));
+    }
+
+    trackersByServer = Collections.unmodifiableMap(m);
+
+    this.bindRequest = bindRequest;
+    this.postConnectProcessor = postConnectProcessor;
+
+    if (socketFactory == null)
+    {
+      this.socketFactory = SocketFactory.getDefault();
+    }
+    else
+    {
+      this.socketFactory = socketFactory;
+    }
+
+    if (connectionOptions == null)
+    {
+      this.connectionOptions = new LDAPConnectionOptions();
+    }
+    else
+    {
+      this.connectionOptions = connectionOptions;
+    }
+
+    if (blacklistCheckIntervalMillis > 0L)
+    {
+      blacklistManager = new ServerSetBlacklistManager(this, socketFactory,
+           connectionOptions, bindRequest, postConnectProcessor,
+           blacklistCheckIntervalMillis);
+    }
+    else
+    {
+      blacklistManager = null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the default blacklist check interval (in milliseconds that should
+   * be used if it is not specified.
+   *
+   * @return  The default blacklist check interval (in milliseconds that should
+   *          be used if it is not specified.
+   */
+  private static long getDefaultBlacklistCheckIntervalMillis()
+  {
+    final String propertyValue = StaticUtils.getSystemProperty(
+         PROPERTY_DEFAULT_BLACKLIST_CHECK_INTERVAL_MILLIS);
+    if (propertyValue != null)
+    {
+      try
+      {
+        return Long.parseLong(propertyValue);
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    return 30_000L;
+  }
+
+
+
+  /**
+   * Retrieves the addresses of the directory servers to which the connections
+   * should be established.
+   *
+   * @return  The addresses of the directory servers to which the connections
+   *          should be established.
+   */
+  public String[] getAddresses()
+  {
+    int i = 0;
+    final String[] addresses = new String[trackersByServer.size()];
+    for (final ObjectPair<String,Integer> hostPort : trackersByServer.keySet())
+    {
+      addresses[i++] = hostPort.getFirst();
+    }
+
+    return addresses;
+  }
+
+
+
+  /**
+   * Retrieves the ports of the directory servers to which the connections
+   * should be established.
+   *
+   * @return  The ports of the directory servers to which the connections should
+   *          be established.
+   */
+  public int[] getPorts()
+  {
+    int i = 0;
+    final int[] ports = new int[trackersByServer.size()];
+    for (final ObjectPair<String,Integer> hostPort : trackersByServer.keySet())
+    {
+      ports[i++] = hostPort.getSecond();
+    }
+
+    return ports;
+  }
+
+
+
+  /**
+   * Retrieves the socket factory that will be used to establish connections.
+   *
+   * @return  The socket factory that will be used to establish connections.
+   */
+  public SocketFactory getSocketFactory()
+  {
+    return socketFactory;
+  }
+
+
+
+  /**
+   * Retrieves the set of connection options that will be used for underlying
+   * connections.
+   *
+   * @return  The set of connection options that will be used for underlying
+   *          connections.
+   */
+  public LDAPConnectionOptions getConnectionOptions()
+  {
+    return connectionOptions;
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds that controls how quickly the
+   * average response time for a server decays while no response times are
+   * being recorded for it.  After this length of time without any new
+   * response times, the average will have decayed to about 37 percent of its
+   * previous value.
+   *
+   * @return  The length of time in milliseconds that controls how quickly the
+   *          average response time for a server decays while no response
+   *          times are being recorded for it.
+   */
+  public long getDecayWindowMillis()
+  {
+    return decayWindowMillis;
+  }
+
+
+
+  /**
+   * Retrieves the current exponentially weighted moving average of the
+   * response times for operations processed by the specified server on
+   * connections created by this server set.
+   *
+   * @param  host  The address of the server for which to retrieve the average
+   *               response time.
+   * @param  port  The port of the server for which to retrieve the average
+   *               response time.
+   *
+   * @return  The current average response time for the specified server in
+   *          milliseconds, zero if no response times have been recorded for
+   *          that server, or -1 if the specified server is not included in
+   *          this server set.
+   */
+  public double getAverageResponseTimeMillis(final String host, final int port)
+  {
+    final ServerLatencyTracker tracker =
+         trackersByServer.get(new ObjectPair<>(host, port));
+    if (tracker == null)
+    {
+      return -1.0d;
+    }
+
+    return tracker.getEWMAResponseTimeNanos() / 1_000_000.0d;
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that are currently outstanding on the
+   * specified server on connections created by this server set.
+   *
+   * @param  host  The address of the server for which to retrieve the number
+   *               of outstanding operations.
+   * @param  port  The port of the server for which to retrieve the number of
+   *               outstanding operations.
+   *
+   * @return  The number of operations that are currently outstanding on the
+   *          specified server, or -1 if the specified server is not included
+   *          in this server set.
+   */
+  public long getNumOutstandingOperations(final String host, final int port)
+  {
+    final ServerLatencyTracker tracker =
+         trackersByServer.get(new ObjectPair<>(host, port));
+    if (tracker == null)
+    {
+      return -1L;
+    }
+
+    return tracker.getNumOutstandingOperations();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public boolean includesAuthentication()
+  {
+    return (bindRequest != null);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public boolean includesPostConnectProcessing()
+  {
+    return (postConnectProcessor != null);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPConnection getConnection()
+         throws LDAPException
+  {
+    return getConnection(null);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public LDAPConnection getConnection(
+                             final LDAPConnectionPoolHealthCheck healthCheck)
+         throws LDAPException
+  {
+    // Separate the blacklisted servers from the rest.
+    final List<ServerLatencyTracker> candidates =
+         new ArrayList<>(trackersByServer.size());
+    List<ServerLatencyTracker> blacklistedServers = null;
+    for (final Map.Entry<ObjectPair<String,Integer>,ServerLatencyTracker> e :
+         trackersByServer.entrySet())
+    {
+      if ((blacklistManager != null) &&
+           blacklistManager.isBlacklisted(e.getKey()))
+      {
+        if (blacklistedServers == null)
+        {
+          blacklistedServers = new ArrayList<>(trackersByServer.size());
+        }
+        blacklistedServers.add(e.getValue());
+      }
+      else
+      {
+        candidates.add(e.getValue());
+      }
+    }
+
+
+    // Try the non-blacklisted servers, starting with the better of two
+    // randomly selected servers and then continuing with the rest in order
+    // of increasing expected cost.
+    LDAPException lastException = null;
+    for (final ServerLatencyTracker tracker : orderCandidates(candidates))
+    {
+      final ObjectPair<String,Integer> hostPort =
+           new ObjectPair<>(tracker.getHost(), tracker.getPort());
+      try
+      {
+        final LDAPConnection conn = new LDAPConnection(socketFactory,
+             connectionOptions, tracker.getHost(), tracker.getPort());
+        doBindPostConnectAndHealthCheckProcessing(conn, bindRequest,
+             postConnectProcessor, healthCheck);
+        conn.getConnectionStatistics().setServerLatencyTracker(tracker);
+        associateConnectionWithThisServerSet(conn);
+        return conn;
+      }
+      catch (final LDAPException le)
+      {
+        Debug.debugException(le);
+        lastException = le;
+        if (blacklistManager != null)
+        {
+          blacklistManager.addToBlacklist(hostPort, healthCheck);
+        }
+      }
+    }
+
+
+    // If we've gotten here, then we couldn't get a connection from a
+    // non-blacklisted server.  If there were any blacklisted servers, then try
+    // them as a last resort.
+    if (blacklistedServers != null)
+    {
+      for (final ServerLatencyTracker tracker : blacklistedServers)
+      {
+        try
+        {
+          final LDAPConnection c = new LDAPConnection(socketFactory,
+               connectionOptions, tracker.getHost(), tracker.getPort());
+          doBindPostConnectAndHealthCheckProcessing(c, bindRequest,
+               postConnectProcessor, healthCheck);
+          c.getConnectionStatistics().setServerLatencyTracker(tracker);
+          associateConnectionWithThisServerSet(c);
+          blacklistManager.removeFromBlacklist(tracker.getHost(),
+               tracker.getPort());
+          return c;
+        }
+        catch (final LDAPException e)
+        {
+          Debug.debugException(e);
+          lastException = e;
+        }
+      }
+    }
+
+
+    // If we've gotten here, then we've tried all servers without any success,
+    // so throw the last exception that was encountered.
+    throw lastException;
+  }
+
+
+
+  /**
+   * Orders the provided list of candidate servers so that the better of two
+   * randomly selected servers comes first, followed by the remaining servers
+   * in order of increasing expected cost.
+   *
+   * @param  candidates  The list of candidate servers to order.  It will be
+   *                     updated in place.
+   *
+   * @return  The provided list, after it has been ordered.
+   */
+  static List<ServerLatencyTracker> orderCandidates(
+                                         final List<ServerLatencyTracker>
+                                              candidates)
+  {
+    final int size = candidates.size();
+    if (size <= 1)
+    {
+      return candidates;
+    }
+
+    // Capture the scores up front, since they may change while the servers
+    // are being ordered.  A simple insertion sort is fine for the small
+    // number of servers in a server set.
+    final double[] scores = new double[size];
+    for (int i=0; i < size; i++)
+    {
+      scores[i] = candidates.get(i).getScore();
+    }
+
+    final Random random = ThreadLocalRandom.get();
+    final int first = random.nextInt(size);
+    int second = random.nextInt(size - 1);
+    if (second >= first)
+    {
+      second++;
+    }
+
+    // If the scores are the same, then prefer the first selection.  Since it
+    // was chosen at random, this will spread connections across servers for
+    // which no response times have been recorded yet.
+    if (scores[second] < scores[first])
+    {
+      swap(candidates, scores, 0, second);
+    }
+    else
+    {
+      swap(candidates, scores, 0, first);
+    }
+
+    for (int i=2; i < size; i++)
+    {
+      for (int j=i; (j > 1) && (scores[j] < scores[j-1]); j--)
+      {
+        swap(candidates, scores, j, j-1);
+      }
+    }
+
+    return candidates;
+  }
+
+
+
+  /**
+   * Swaps the elements at the specified positions in the provided list and
+   * array of scores.
+   *
+   * @param  candidates  The list of candidate servers.
+   * @param  scores      The scores for the candidate servers.
+   * @param  i           The position of the first element to swap.
+   * @param  j           The position of the second element to swap.
+   */
+  private static void swap(final List<ServerLatencyTracker> candidates,
+                           final double[] scores, final int i, final int j)
+  {
+    if (i != j)
+    {
+      Collections.swap(candidates, i, j);
+
+      final double score = scores[i];
+      scores[i] = scores[j];
+      scores[j] = score;
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  protected void handleConnectionClosed(final LDAPConnection connection,
+                                        final String host, final int port,
+                                        final DisconnectType disconnectType,
+                                        final String message,
+                                        final Throwable cause)
+  {
+    connection.getConnectionStatistics().setServerLatencyTracker(null);
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public ServerSetBlacklistManager getBlacklistManager()
+  {
+    return blacklistManager;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LatencyAwareServerSet(servers={");
+
+    boolean first = true;
+    for (final ServerLatencyTracker tracker : trackersByServer.values())
+    {
+      if (first)
+      {
+        first = false;
+      }
+      else
+      {
+        buffer.append(", ");
+      }
+
+      buffer.append('\'');
+      buffer.append(tracker.getHost());
+      buffer.append(':');
+      buffer.append(tracker.getPort());
+      buffer.append("':{ewmaResponseTimeMillis=");
+      buffer.append(tracker.getEWMAResponseTimeNanos() / 1_000_000.0d);
+      buffer.append(", outstandingOperations=");
+      buffer.append(tracker.getNumOutstandingOperations());
+      buffer.append('}');
+    }
+
+    buffer.append("}, decayWindowMillis=");
+    buffer.append(decayWindowMillis);
+    buffer.append(", includesAuthentication=");
+    buffer.append(bindRequest != null);
+    buffer.append(", includesPostConnectProcessing=");
+    buffer.append(postConnectProcessor != null);
+    buffer.append(')');
+  }
+}
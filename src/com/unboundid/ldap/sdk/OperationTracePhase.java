@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This enum defines the phases of operation processing for which timing
+ * information may be provided to an {@link LDAPOperationTracer}.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public enum OperationTracePhase
+{
+  /**
+   * The phase in which a connection is checked out of a connection pool.  It
+   * covers the time from the start of the call to
+   * {@link LDAPConnectionPool#getConnection()} until a connection has been
+   * obtained, including any time spent waiting for a connection to become
+   * available, creating a new connection, or performing checkout health
+   * checks.
+   */
+  CONNECTION_CHECKOUT("connection-checkout"),
+
+
+
+  /**
+   * The phase in which a request is encoded into its ASN.1 representation so
+   * that it can be sent to the server.
+   */
+  REQUEST_ENCODE("request-encode"),
+
+
+
+  /**
+   * The phase in which an encoded request is written to the socket, including
+   * any time spent in SASL wrapping and waiting for the data to be flushed.
+   */
+  REQUEST_WRITE("request-write"),
+
+
+
+  /**
+   * The phase from the time that a request has been written until the first
+   * byte of its first response is available to be read.  It includes network
+   * latency in both directions, the time required for the server to process
+   * the request, and any time that the response spends waiting for the
+   * client to finish reading earlier responses on the same connection.
+   */
+  RESPONSE_WAIT("response-wait"),
+
+
+
+  /**
+   * The phase in which a response message is read and decoded, starting when
+   * the first byte of the message is available.  This phase will be reported
+   * for each response message, including search result entries and
+   * references.
+   */
+  RESPONSE_DECODE("response-decode");
+
+
+
+  // The name for this operation trace phase.
+  private final String name;
+
+
+
+  /**
+   * Creates a new operation trace phase with the provided name.
+   *
+   * @param  name  The name for this operation trace phase.
+   */
+  OperationTracePhase(final String name)
+  {
+    this.name = name;
+  }
+
+
+
+  /**
+   * Retrieves the name for this operation trace phase.
+   *
+   * @return  The name for this operation trace phase.
+   */
+  public String getName()
+  {
+    return name;
+  }
+
+
+
+  /**
+   * Retrieves the operation trace phase with the specified name.
+   *
+   * @param  name  The name of the operation trace phase to retrieve.  It must
+   *               not be {@code null}.
+   *
+   * @return  The requested operation trace phase, or {@code null} if no such
+   *          phase is defined.
+   */
+  public static OperationTracePhase forName(final String name)
+  {
+    switch (StaticUtils.toLowerCase(name))
+    {
+      case "connection-checkout":
+      case "connection_checkout":
+      case "connectioncheckout":
+        return CONNECTION_CHECKOUT;
+      case "request-encode":
+      case "request_encode":
+      case "requestencode":
+        return REQUEST_ENCODE;
+      case "request-write":
+      case "request_write":
+      case "requestwrite":
+        return REQUEST_WRITE;
+      case "response-wait":
+      case "response_wait":
+      case "responsewait":
+        return RESPONSE_WAIT;
+      case "response-decode":
+      case "response_decode":
+      case "responsedecode":
+        return RESPONSE_DECODE;
+      default:
+        return null;
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this operation trace phase.
+   *
+   * @return  A string representation of this operation trace phase.
+   */
+  @Override()
+  public String toString()
+  {
+    return name;
+  }
+}
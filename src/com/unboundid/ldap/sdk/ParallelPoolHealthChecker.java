@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.FixedRateBarrier;
+
+
+
+/**
+ * This class provides a mechanism for performing a single health check pass
+ * against the available connections in a connection pool, optionally using
+ * multiple threads to examine connections in parallel and limiting the rate at
+ * which connections are taken out of the pool to be examined.
+ */
+final class ParallelPoolHealthChecker
+      implements Runnable
+{
+  // The number of connections that have been examined.
+  private final AtomicInteger numExamined;
+
+  // The number of defunct connections that have been found.
+  private final AtomicInteger numDefunct;
+
+  // The number of expired connections that have been found.
+  private final AtomicInteger numExpired;
+
+  // The maximum number of connections that remain to be taken from the pool
+  // during this pass.
+  private final AtomicInteger remainingChecks;
+
+  // Indicates whether to check for expired connections.
+  private final boolean checkForExpiration;
+
+  // The barrier used to limit the rate at which connections are examined, if
+  // any.
+  private final FixedRateBarrier rateBarrier;
+
+  // The number of threads to use to examine connections in parallel.
+  private final int numThreads;
+
+  // The health check to use.
+  private final LDAPConnectionPoolHealthCheck healthCheck;
+
+  // The connection pool whose connections will be examined.
+  private final LDAPConnectionPool pool;
+
+  // The set of connections that have already been examined, or that were
+  // created to replace a connection that was examined.  If we encounter one of
+  // them again, then we know that we have worked all the way through the pool.
+  private final Set<LDAPConnection> examinedConnections;
+
+
+
+  /**
+   * Creates a new parallel pool health checker with the provided settings.
+   *
+   * @param  pool                The connection pool whose connections will be
+   *                             examined.
+   * @param  healthCheck         The health check to use.
+   * @param  checkForExpiration  Indicates whether to check to see if any
+   *                             connections have been established for longer
+   *                             than the maximum connection age.
+   * @param  maxConnections      The maximum number of connections to take
+   *                             from the pool during this pass.
+   * @param  numThreads          The number of threads to use to examine
+   *                             connections in parallel.
+   * @param  maxChecksPerSecond  The maximum number of connections that should
+   *                             be taken from the pool to be examined per
+   *                             second.  A value less than or equal to zero
+   *                             indicates that no limit should be imposed.
+   */
+  ParallelPoolHealthChecker(final LDAPConnectionPool pool,
+                            final LDAPConnectionPoolHealthCheck healthCheck,
+                            final boolean checkForExpiration,
+                            final int maxConnections, final int numThreads,
+                            final int maxChecksPerSecond)
+  {
+    this.pool               = pool;
+    this.healthCheck        = healthCheck;
+    this.checkForExpiration = checkForExpiration;
+    this.numThreads         = Math.max(1, Math.min(numThreads, maxConnections));
+
+    if (maxChecksPerSecond > 0)
+    {
+      rateBarrier = new FixedRateBarrier(1000L, maxChecksPerSecond);
+    }
+    else
+    {
+      rateBarrier = null;
+    }
+
+    numExamined = new AtomicInteger(0);
+    numDefunct = new AtomicInteger(0);
+    numExpired = new AtomicInteger(0);
+    remainingChecks = new AtomicInteger(maxConnections);
+    examinedConnections = Collections.newSetFromMap(
+         new ConcurrentHashMap<LDAPConnection,Boolean>(maxConnections));
+  }
+
+
+
+  /**
+   * Examines the available connections in the pool.  If multiple threads are
+   * to be used, then they will be taken from the executor maintained by the
+   * pool.  This method will not return until all of the available connections
+   * have been examined.
+   *
+   * @return  An object with information about the result of the health check
+   *          processing.
+   */
+  LDAPConnectionPoolHealthCheckResult checkConnections()
+  {
+    ThreadPoolExecutor executor = null;
+    if (numThreads > 1)
+    {
+      executor = pool.getHealthCheckExecutor(numThreads);
+    }
+
+    if (executor == null)
+    {
+      run();
+    }
+    else
+    {
+      final List<Future<?>> results = new ArrayList<>(numThreads);
+      try
+      {
+        for (int i=0; i < numThreads; i++)
+        {
+          results.add(executor.submit(this));
+        }
+      }
+      catch (final RejectedExecutionException e)
+      {
+        // This will happen if the pool is closed while the tasks are being
+        // submitted.  Finish the pass in this thread.
+        Debug.debugException(e);
+        run();
+      }
+
+      for (final Future<?> f : results)
+      {
+        try
+        {
+          f.get();
+        }
+        catch (final InterruptedException e)
+        {
+          Debug.debugException(e);
+          Thread.currentThread().interrupt();
+          break;
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+        }
+      }
+    }
+
+    return new LDAPConnectionPoolHealthCheckResult(numExamined.get(),
+         numExpired.get(), numDefunct.get());
+  }
+
+
+
+  /**
+   * Repeatedly takes connections from the pool and examines them until there
+   * are no more connections to examine.
+   */
+  @Override()
+  public void run()
+  {
+    while (remainingChecks.getAndDecrement() > 0)
+    {
+      if ((rateBarrier != null) && rateBarrier.await())
+      {
+        return;
+      }
+
+      final LDAPConnection conn = pool.pollAvailableConnection();
+      if (conn == null)
+      {
+        remainingChecks.set(0);
+        return;
+      }
+
+      if (! examinedConnections.add(conn))
+      {
+        remainingChecks.set(0);
+        pool.returnExaminedConnection(conn);
+        return;
+      }
+
+      numExamined.incrementAndGet();
+      pool.healthCheckConnection(conn, healthCheck, checkForExpiration, this);
+    }
+  }
+
+
+
+  /**
+   * Indicates that the provided connection was created or returned to the
+   * pool during this pass, so that it will not be examined again.
+   *
+   * @param  connection  The connection that has been examined.  It may be
+   *                     {@code null} if no connection was created to replace
+   *                     a defunct connection.
+   */
+  void connectionExamined(final LDAPConnection connection)
+  {
+    if (connection != null)
+    {
+      examinedConnections.add(connection);
+    }
+  }
+
+
+
+  /**
+   * Indicates that a defunct connection was found during this pass.
+   *
+   * @param  connection  The defunct connection that was found.
+   */
+  void defunctConnectionFound(final LDAPConnection connection)
+  {
+    numDefunct.incrementAndGet();
+    pool.getConnectionPoolStatistics().incrementNumHealthCheckFailures(
+         ServerPartitionedConnectionQueue.getServerKey(connection));
+  }
+
+
+
+  /**
+   * Indicates that an expired connection was found during this pass.
+   */
+  void expiredConnectionFound()
+  {
+    numExpired.incrementAndGet();
+  }
+}
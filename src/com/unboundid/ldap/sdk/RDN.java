@@ -1792,81 +1792,121 @@ valueLoop:
            new ASN1OctetString(StaticUtils.toLowerCase(value.stringValue()));
     }
 
+    // If the normalized value only contains ASCII characters, then process its
+    // bytes directly rather than converting them to a string.
+    final byte[] normValueBytes = rawNormValue.getValue();
+    if (StaticUtils.isASCIIString(normValueBytes))
+    {
+      final int length = normValueBytes.length;
+      for (int i=0; i < length; i++)
+      {
+        appendNormalizedASCIICharacter(buffer, (char) normValueBytes[i], i,
+             length);
+      }
+      return;
+    }
+
     final String valueString = rawNormValue.stringValue();
     final int length = valueString.length();
     for (int i=0; i < length; i++)
     {
       final char c = valueString.charAt(i);
-
-      switch (c)
+      if (c <= '~')
       {
-        case '\\':
-        case '=':
-        case '"':
-        case '+':
-        case ',':
-        case ';':
-        case '<':
-        case '>':
-          buffer.append('\\');
-          buffer.append(c);
-          break;
+        appendNormalizedASCIICharacter(buffer, c, i, length);
+      }
+      else if (Character.isHighSurrogate(c))
+      {
+        // Hex-encode all bytes that comprise the UTF-8 representation of the
+        // Unicode character, which requires two Java characters to encode.
+        if (((i+1) < length) &&
+             Character.isLowSurrogate(valueString.charAt(i+1)))
+        {
+          final char c2 = valueString.charAt(++i);
+          final int codePoint = Character.toCodePoint(c, c2);
+          StaticUtils.hexEncode(codePoint, buffer);
+        }
+        else
+        {
+          // This should never happen.
+          StaticUtils.hexEncode(c, buffer);
+        }
+      }
+      else
+      {
+        // Hex-encode all bytes that comprise the UTF-8 representation of the
+        // character.
+        StaticUtils.hexEncode(c, buffer);
+      }
+    }
+  }
 
-        case '#':
-          // Escape the octothorpe only if it's the first character.
-          if (i == 0)
-          {
-            buffer.append("\\#");
-          }
-          else
-          {
-            buffer.append('#');
-          }
-          break;
 
-        case ' ':
-          // Escape this space only if it's the first or last character.
-          if ((i == 0) || ((i+1) == length))
-          {
-            buffer.append("\\ ");
-          }
-          else
-          {
-            buffer.append(' ');
-          }
-          break;
 
-        default:
-          // If it's a printable ASCII character that isn't covered by one of
-          // the above options, then just append it to the buffer.  Otherwise,
-          // hex-encode all bytes that comprise its UTF-8 representation, which
-          // might require special handling if it requires two Java characters
-          // to encode the Unicode character.
-          if ((c >= ' ') && (c <= '~'))
-          {
-            buffer.append(c);
-          }
-          else if (Character.isHighSurrogate(c))
-          {
-            if (((i+1) < length) &&
-                 Character.isLowSurrogate(valueString.charAt(i+1)))
-            {
-              final char c2 = valueString.charAt(++i);
-              final int codePoint = Character.toCodePoint(c, c2);
-              StaticUtils.hexEncode(codePoint, buffer);
-            }
-            else
-            {
-              // This should never happen.
-              StaticUtils.hexEncode(c, buffer);
-            }
-          }
-          else
-          {
-            StaticUtils.hexEncode(c, buffer);
-          }
-          break;
-      }
+  /**
+   * Appends an appropriately escaped representation of the provided ASCII
+   * character from a normalized attribute value to the given buffer.
+   *
+   * @param  buffer  The buffer to which the character should be appended.
+   * @param  c       The ASCII character to append.
+   * @param  pos     The position of the character in the normalized value.
+   * @param  length  The length of the normalized value.
+   */
+  private static void appendNormalizedASCIICharacter(
+                           final StringBuilder buffer, final char c,
+                           final int pos, final int length)
+  {
+    switch (c)
+    {
+      case '\\':
+      case '=':
+      case '"':
+      case '+':
+      case ',':
+      case ';':
+      case '<':
+      case '>':
+        buffer.append('\\');
+        buffer.append(c);
+        break;
+
+      case '#':
+        // Escape the octothorpe only if it's the first character.
+        if (pos == 0)
+        {
+          buffer.append("\\#");
+        }
+        else
+        {
+          buffer.append('#');
+        }
+        break;
+
+      case ' ':
+        // Escape this space only if it's the first or last character.
+        if ((pos == 0) || ((pos+1) == length))
+        {
+          buffer.append("\\ ");
+        }
+        else
+        {
+          buffer.append(' ');
+        }
+        break;
+
+      default:
+        // If it's a printable ASCII character that isn't covered by one of the
+        // above options, then just append it to the buffer.  Otherwise,
+        // hex-encode it.
+        if ((c >= ' ') && (c <= '~'))
+        {
+          buffer.append(c);
+        }
+        else
+        {
+          StaticUtils.hexEncode(c, buffer);
+        }
+        break;
     }
   }
 
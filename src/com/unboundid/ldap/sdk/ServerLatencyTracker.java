@@ -0,0 +1,348 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a data structure that keeps track of the load on a
+ * single directory server for use by the {@link LatencyAwareServerSet}.  It
+ * maintains an exponentially weighted moving average (EWMA) of the response
+ * times for operations processed by that server, along with the number of
+ * operations that have been sent to that server but have not yet completed.
+ * <BR><BR>
+ * Each new response time is given a fixed weight in the average.  In
+ * addition, the average decays toward zero as time passes without any new
+ * response times, so that a server that was previously slow (and therefore
+ * has not been sent any operations) will eventually be tried again.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class ServerLatencyTracker
+      implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -3177456290814752637L;
+
+
+
+  /**
+   * The weight given to each new response time in the average.
+   */
+  static final double SMOOTHING_FACTOR = 0.2d;
+
+
+
+  // The number of operations that are currently outstanding on the server.
+  private final AtomicLong numOutstandingOperations;
+
+  // The total number of operations that have completed on the server.
+  private final AtomicLong numCompletedOperations;
+
+  // The bits of the double value that holds the current average response
+  // time, in nanoseconds.
+  private final AtomicLong ewmaResponseTimeNanosBits;
+
+  // The time, as reported by System.nanoTime, that the average was last
+  // updated.
+  private final AtomicLong lastUpdateTimeNanos;
+
+  // The port of the server.
+  private final int port;
+
+  // The length of time in nanoseconds that controls how quickly the average
+  // decays while no response times are being recorded.
+  private final long decayWindowNanos;
+
+  // The address of the server.
+  private final String host;
+
+
+
+  /**
+   * Creates a new server latency tracker for the specified server.
+   *
+   * @param  host               The address of the server.
+   * @param  port               The port of the server.
+   * @param  decayWindowMillis  The length of time in milliseconds that
+   *                            controls how quickly the average decays while
+   *                            no response times are being recorded.  It must
+   *                            be greater than zero.
+   */
+  ServerLatencyTracker(final String host, final int port,
+                       final long decayWindowMillis)
+  {
+    this.host = host;
+    this.port = port;
+
+    decayWindowNanos = decayWindowMillis * 1_000_000L;
+    numOutstandingOperations = new AtomicLong(0L);
+    numCompletedOperations = new AtomicLong(0L);
+    ewmaResponseTimeNanosBits =
+         new AtomicLong(Double.doubleToLongBits(0.0d));
+    lastUpdateTimeNanos = new AtomicLong(System.nanoTime());
+  }
+
+
+
+  /**
+   * Retrieves the address of the server.
+   *
+   * @return  The address of the server.
+   */
+  String getHost()
+  {
+    return host;
+  }
+
+
+
+  /**
+   * Retrieves the port of the server.
+   *
+   * @return  The port of the server.
+   */
+  int getPort()
+  {
+    return port;
+  }
+
+
+
+  /**
+   * Indicates that an operation has been sent to the server.
+   */
+  void operationStarted()
+  {
+    numOutstandingOperations.incrementAndGet();
+  }
+
+
+
+  /**
+   * Indicates that an operation sent to the server has completed.
+   *
+   * @param  responseTimeNanos  The response time for the operation, in
+   *                            nanoseconds.  If this is less than or equal to
+   *                            zero, then the operation will be considered
+   *                            complete but the average response time will not
+   *                            be updated.
+   */
+  void operationCompleted(final long responseTimeNanos)
+  {
+    operationsAbandoned(1L);
+
+    if (responseTimeNanos <= 0L)
+    {
+      return;
+    }
+
+    numCompletedOperations.incrementAndGet();
+
+    final long now = System.nanoTime();
+    while (true)
+    {
+      final long oldBits = ewmaResponseTimeNanosBits.get();
+      final double oldAverage = Double.longBitsToDouble(oldBits);
+      final double newAverage;
+      if (oldAverage <= 0.0d)
+      {
+        newAverage = responseTimeNanos;
+      }
+      else
+      {
+        newAverage = (oldAverage * getDecayWeight(now) *
+             (1.0d - SMOOTHING_FACTOR)) +
+             (responseTimeNanos * SMOOTHING_FACTOR);
+      }
+
+      if (ewmaResponseTimeNanosBits.compareAndSet(oldBits,
+           Double.doubleToLongBits(newAverage)))
+      {
+        lastUpdateTimeNanos.set(now);
+        return;
+      }
+    }
+  }
+
+
+
+  /**
+   * Indicates that the specified number of outstanding operations will not
+   * complete, for example because the connection on which they were sent has
+   * been closed.
+   *
+   * @param  count  The number of outstanding operations that will not
+   *                complete.
+   */
+  void operationsAbandoned(final long count)
+  {
+    final long remaining = numOutstandingOperations.addAndGet(-count);
+    if (remaining < 0L)
+    {
+      // This shouldn't happen.  If it does, reset it back to zero.
+      numOutstandingOperations.compareAndSet(remaining, 0L);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that are currently outstanding on the
+   * server.
+   *
+   * @return  The number of operations that are currently outstanding on the
+   *          server.
+   */
+  long getNumOutstandingOperations()
+  {
+    return Math.max(0L, numOutstandingOperations.get());
+  }
+
+
+
+  /**
+   * Retrieves the number of operations that have completed on the server with
+   * a known response time.
+   *
+   * @return  The number of operations that have completed on the server with
+   *          a known response time.
+   */
+  long getNumCompletedOperations()
+  {
+    return numCompletedOperations.get();
+  }
+
+
+
+  /**
+   * Retrieves the current average response time for the server, decayed to
+   * account for any time that has passed since the last response time was
+   * recorded.
+   *
+   * @return  The current average response time for the server, in
+   *          nanoseconds, or zero if no response times have been recorded.
+   */
+  double getEWMAResponseTimeNanos()
+  {
+    final double average =
+         Double.longBitsToDouble(ewmaResponseTimeNanosBits.get());
+    return average * getDecayWeight(System.nanoTime());
+  }
+
+
+
+  /**
+   * Retrieves a score that reflects the expected cost of sending another
+   * operation to the server.  It is the product of the average response time
+   * and the number of operations that would be outstanding if another one
+   * were sent, so servers with lower scores are preferred.
+   *
+   * @return  The score for the server.
+   */
+  double getScore()
+  {
+    return getEWMAResponseTimeNanos() * (getNumOutstandingOperations() + 1L);
+  }
+
+
+
+  /**
+   * Retrieves the factor by which the current average should be reduced to
+   * account for the time that has passed since it was last updated.
+   *
+   * @param  now  The time, as reported by System.nanoTime, for which to
+   *              compute the weight.
+   *
+   * @return  The factor by which the current average should be reduced, which
+   *          will be between zero and one.
+   */
+  private double getDecayWeight(final long now)
+  {
+    final long elapsed = now - lastUpdateTimeNanos.get();
+    if (elapsed <= 0L)
+    {
+      return 1.0d;
+    }
+
+    return Math.exp(-((double) elapsed) / decayWindowNanos);
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this server latency tracker.
+   *
+   * @return  A string representation of this server latency tracker.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this server latency tracker to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  void toString(final StringBuilder buffer)
+  {
+    buffer.append("ServerLatencyTracker(host='");
+    buffer.append(host);
+    buffer.append("', port=");
+    buffer.append(port);
+    buffer.append(", ewmaResponseTimeMillis=");
+    buffer.append(getEWMAResponseTimeNanos() / 1_000_000.0d);
+    buffer.append(", outstandingOperations=");
+    buffer.append(getNumOutstandingOperations());
+    buffer.append(')');
+  }
+}
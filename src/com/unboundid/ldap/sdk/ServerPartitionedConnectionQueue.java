@@ -0,0 +1,881 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a bounded blocking queue of the connections that are
+ * available for use in an {@link LDAPConnectionPool}.  Connections are held in
+ * a separate sub-pool for each server, keyed by the address and port returned
+ * by {@link LDAPConnection#getHostPort}.
+ * <BR><BR>
+ * The {@link #poll()} and {@link #poll(long,TimeUnit)} methods return the
+ * connection that has been available for the longest time, regardless of the
+ * server to which it is established, so they behave like a single FIFO queue.
+ * The {@link #pollWeighted()} method instead selects the sub-pool from which
+ * to take a connection using smooth weighted round-robin, so that over time
+ * each server with available connections receives a share of the checkouts
+ * that is proportional to its weight.
+ * <BR><BR>
+ * In addition to the sub-pools, the queue keeps all of its connections in a
+ * single list in the order that they were added, so that the connection that
+ * has been available for the longest time can be found without examining
+ * every sub-pool.  Connections taken directly from a sub-pool are only marked
+ * as removed in that list, and are discarded when they reach the head of the
+ * list or when the list is compacted.  Sub-pools are discarded by the
+ * {@link #removeEmptySubPools()} method once they are empty and do not have a
+ * configured weight, so that servers that are no longer in use do not
+ * accumulate.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class ServerPartitionedConnectionQueue
+      implements Iterable<LDAPConnection>
+{
+  // The condition used to wait for a connection to become available.
+  private final Condition notEmpty;
+
+  // The maximum number of connections that may be held in this queue.
+  private final int capacity;
+
+  // All of the connections in this queue, in the order they were added.  This
+  // may also include connections that have already been removed from their
+  // sub-pool.
+  private final ArrayDeque<QueuedConnection> addOrder;
+
+  // The sub-pools for each server, keyed by host and port.
+  private final LinkedHashMap<String,SubPool> subPools;
+
+  // The lock used to protect access to the sub-pools.
+  private final ReentrantLock lock;
+
+  // The weights that have been explicitly configured for servers, keyed by
+  // host and port.
+  private final Map<String,Integer> configuredWeights;
+
+  // The number of connections in the addOrder list that have already been
+  // removed from their sub-pool.
+  private int numRemovedInAddOrder;
+
+  // The total number of connections held in this queue.
+  private int size;
+
+
+
+  /**
+   * Creates a new empty queue with the specified capacity.
+   *
+   * @param  capacity  The maximum number of connections that may be held in
+   *                   the queue.
+   */
+  ServerPartitionedConnectionQueue(final int capacity)
+  {
+    this.capacity = capacity;
+
+    lock = new ReentrantLock();
+    notEmpty = lock.newCondition();
+    addOrder = new ArrayDeque<>(10);
+    subPools = new LinkedHashMap<>(10);
+    configuredWeights = new LinkedHashMap<>(10);
+    numRemovedInAddOrder = 0;
+    size = 0;
+  }
+
+
+
+  /**
+   * Retrieves the key for the sub-pool that should hold the provided
+   * connection.
+   *
+   * @param  connection  The connection for which to retrieve the key.
+   *
+   * @return  The key for the sub-pool that should hold the provided
+   *          connection.
+   */
+  static String getServerKey(final LDAPConnection connection)
+  {
+    return connection.getHostPort();
+  }
+
+
+
+  /**
+   * Retrieves the key for the sub-pool for the specified server.
+   *
+   * @param  host  The address of the server.
+   * @param  port  The port of the server.
+   *
+   * @return  The key for the sub-pool for the specified server.
+   */
+  static String getServerKey(final String host, final int port)
+  {
+    return host + ':' + port;
+  }
+
+
+
+  /**
+   * Adds the provided connection to this queue if there is room for it.
+   *
+   * @param  connection  The connection to add.  It must not be {@code null}.
+   *
+   * @return  {@code true} if the connection was added, or {@code false} if the
+   *          queue is already full.
+   */
+  boolean offer(final LDAPConnection connection)
+  {
+    final String key = getServerKey(connection);
+
+    lock.lock();
+    try
+    {
+      if (size >= capacity)
+      {
+        return false;
+      }
+
+      final SubPool p = getSubPool(key);
+      final QueuedConnection qc = new QueuedConnection(connection, p);
+      p.connections.addLast(qc);
+      addOrder.addLast(qc);
+      size++;
+      notEmpty.signal();
+      return true;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Adds all of the provided connections to this queue, as long as there is
+   * room for them.
+   *
+   * @param  connections  The connections to add.
+   *
+   * @return  The number of connections that were added.
+   */
+  int addAll(final Collection<LDAPConnection> connections)
+  {
+    int numAdded = 0;
+    for (final LDAPConnection c : connections)
+    {
+      if (! offer(c))
+      {
+        break;
+      }
+
+      numAdded++;
+    }
+
+    return numAdded;
+  }
+
+
+
+  /**
+   * Retrieves and removes the connection that has been in this queue for the
+   * longest time, if there is one.
+   *
+   * @return  The connection that has been in this queue for the longest time,
+   *          or {@code null} if the queue is empty.
+   */
+  LDAPConnection poll()
+  {
+    lock.lock();
+    try
+    {
+      return removeOldest();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves and removes the connection that has been in this queue for the
+   * longest time, waiting up to the specified length of time for one to become
+   * available if the queue is empty.
+   *
+   * @param  timeout   The maximum length of time to wait.
+   * @param  timeUnit  The time unit for the provided timeout.
+   *
+   * @return  The connection that has been in this queue for the longest time,
+   *          or {@code null} if no connection became available before the
+   *          timeout elapsed.
+   *
+   * @throws  InterruptedException  If the thread is interrupted while
+   *                                waiting.
+   */
+  LDAPConnection poll(final long timeout, final TimeUnit timeUnit)
+                 throws InterruptedException
+  {
+    long remainingNanos = timeUnit.toNanos(timeout);
+
+    lock.lockInterruptibly();
+    try
+    {
+      while (size == 0)
+      {
+        if (remainingNanos <= 0L)
+        {
+          return null;
+        }
+
+        remainingNanos = notEmpty.awaitNanos(remainingNanos);
+      }
+
+      return removeOldest();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves and removes a connection from this queue, using the configured
+   * server weights to select the sub-pool from which it is taken.  If no
+   * weights have been configured, then this behaves like {@link #poll()}.
+   * Servers that do not have an explicitly configured weight are given a
+   * weight of one, and servers with a weight of zero will only be used if
+   * none of the servers with a nonzero weight have any available connections.
+   *
+   * @return  The selected connection, or {@code null} if the queue is empty.
+   */
+  LDAPConnection pollWeighted()
+  {
+    lock.lock();
+    try
+    {
+      if (size == 0)
+      {
+        return null;
+      }
+
+      if (configuredWeights.isEmpty())
+      {
+        return removeOldest();
+      }
+
+      // Use smooth weighted round-robin across the sub-pools that currently
+      // have available connections.  This interleaves the selections rather
+      // than sending runs of checkouts to the same server.
+      SubPool selected = null;
+      long totalWeight = 0L;
+      for (final SubPool p : subPools.values())
+      {
+        if (p.connections.isEmpty() || (p.weight <= 0))
+        {
+          continue;
+        }
+
+        p.currentWeight += p.weight;
+        totalWeight += p.weight;
+        if ((selected == null) || (p.currentWeight > selected.currentWeight))
+        {
+          selected = p;
+        }
+      }
+
+      if (selected == null)
+      {
+        return removeOldest();
+      }
+
+      selected.currentWeight -= totalWeight;
+      return removeFirst(selected);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves and removes the connection established to the specified server
+   * that has been in this queue for the longest time, if there is one.
+   *
+   * @param  serverKey  The key for the server from which to take the
+   *                    connection.
+   *
+   * @return  The connection that was removed, or {@code null} if there are no
+   *          available connections established to the specified server.
+   */
+  LDAPConnection pollFromServer(final String serverKey)
+  {
+    lock.lock();
+    try
+    {
+      final SubPool p = subPools.get(serverKey);
+      if ((p == null) || p.connections.isEmpty())
+      {
+        return null;
+      }
+
+      return removeFirst(p);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves and removes the connection that has been in this queue for the
+   * longest time from the sub-pool with the most available connections,
+   * excluding the sub-pool for the specified server.
+   *
+   * @param  excludedServerKey  The key for the server whose connections should
+   *                            not be considered.
+   *
+   * @return  The connection that was removed, or {@code null} if there are no
+   *          available connections established to any other server.
+   */
+  LDAPConnection pollFromOtherServer(final String excludedServerKey)
+  {
+    lock.lock();
+    try
+    {
+      SubPool selectedPool = null;
+      for (final Map.Entry<String,SubPool> e : subPools.entrySet())
+      {
+        if (e.getKey().equals(excludedServerKey))
+        {
+          continue;
+        }
+
+        final SubPool p = e.getValue();
+        if ((! p.connections.isEmpty()) && ((selectedPool == null) ||
+             (p.connections.size() > selectedPool.connections.size())))
+        {
+          selectedPool = p;
+        }
+      }
+
+      if (selectedPool == null)
+      {
+        return null;
+      }
+
+      return removeFirst(selectedPool);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Removes all of the connections from this queue and adds them to the
+   * provided collection.
+   *
+   * @param  c  The collection to which the connections should be added.
+   *
+   * @return  The number of connections that were removed.
+   */
+  int drainTo(final Collection<LDAPConnection> c)
+  {
+    lock.lock();
+    try
+    {
+      int numDrained = 0;
+      while (true)
+      {
+        final LDAPConnection conn = removeOldest();
+        if (conn == null)
+        {
+          return numDrained;
+        }
+
+        c.add(conn);
+        numDrained++;
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections currently held in this queue.
+   *
+   * @return  The number of connections currently held in this queue.
+   */
+  int size()
+  {
+    lock.lock();
+    try
+    {
+      return size;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of additional connections that may be added to this
+   * queue.
+   *
+   * @return  The number of additional connections that may be added to this
+   *          queue.
+   */
+  int remainingCapacity()
+  {
+    lock.lock();
+    try
+    {
+      return capacity - size;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of connections currently held in this queue for each
+   * server.  The map will include an entry for each server that has a
+   * sub-pool, which includes each server that has a configured weight and each
+   * server that has had a connection in this queue since the last time that
+   * empty sub-pools were removed, even if it does not currently have any
+   * available connections.
+   *
+   * @return  A map of the number of connections currently held in this queue
+   *          for each server, keyed by host and port.
+   */
+  Map<String,Integer> getSizeByServer()
+  {
+    lock.lock();
+    try
+    {
+      final TreeMap<String,Integer> m = new TreeMap<>();
+      for (final Map.Entry<String,SubPool> e : subPools.entrySet())
+      {
+        m.put(e.getKey(), e.getValue().connections.size());
+      }
+
+      return Collections.unmodifiableMap(m);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Specifies the weight for the specified server.
+   *
+   * @param  serverKey  The key for the server.
+   * @param  weight     The weight for the server.  A negative value indicates
+   *                    that any configured weight should be removed.
+   */
+  void setWeight(final String serverKey, final int weight)
+  {
+    lock.lock();
+    try
+    {
+      if (weight < 0)
+      {
+        configuredWeights.remove(serverKey);
+        final SubPool p = subPools.get(serverKey);
+        if (p != null)
+        {
+          p.weight = 1;
+        }
+      }
+      else
+      {
+        configuredWeights.put(serverKey, weight);
+        getSubPool(serverKey).weight = weight;
+      }
+
+      for (final SubPool p : subPools.values())
+      {
+        p.currentWeight = 0L;
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Removes all configured server weights.
+   */
+  void clearWeights()
+  {
+    lock.lock();
+    try
+    {
+      configuredWeights.clear();
+      for (final SubPool p : subPools.values())
+      {
+        p.weight = 1;
+        p.currentWeight = 0L;
+      }
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Removes the sub-pools that do not have any available connections and that
+   * do not have a configured weight.  This should be invoked periodically so
+   * that the sub-pools for servers that are no longer in use (for example,
+   * because they have been removed from the pool's server set) are discarded.
+   * A sub-pool that is removed will be created again if a connection to that
+   * server is added to the queue.
+   *
+   * @return  The number of sub-pools that were removed.
+   */
+  int removeEmptySubPools()
+  {
+    lock.lock();
+    try
+    {
+      int numRemoved = 0;
+      final Iterator<Map.Entry<String,SubPool>> iterator =
+           subPools.entrySet().iterator();
+      while (iterator.hasNext())
+      {
+        final Map.Entry<String,SubPool> e = iterator.next();
+        if (e.getValue().connections.isEmpty() &&
+             (! configuredWeights.containsKey(e.getKey())))
+        {
+          iterator.remove();
+          numRemoved++;
+        }
+      }
+
+      return numRemoved;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the weights that have been explicitly configured for servers.
+   *
+   * @return  A map of the weights that have been explicitly configured for
+   *          servers, keyed by host and port.  It will be empty if no weights
+   *          have been configured.
+   */
+  Map<String,Integer> getConfiguredWeights()
+  {
+    lock.lock();
+    try
+    {
+      return Collections.unmodifiableMap(
+           new TreeMap<String,Integer>(configuredWeights));
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the effective weight for each server known to this queue.
+   *
+   * @return  A map of the effective weight for each server known to this
+   *          queue, keyed by host and port.
+   */
+  Map<String,Integer> getEffectiveWeights()
+  {
+    lock.lock();
+    try
+    {
+      final TreeMap<String,Integer> m = new TreeMap<>();
+      for (final Map.Entry<String,SubPool> e : subPools.entrySet())
+      {
+        m.put(e.getKey(), e.getValue().weight);
+      }
+
+      return Collections.unmodifiableMap(m);
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves an iterator over a snapshot of the connections currently held
+   * in this queue.  The iterator does not support removal.
+   *
+   * @return  An iterator over a snapshot of the connections currently held in
+   *          this queue.
+   */
+  @Override()
+  public Iterator<LDAPConnection> iterator()
+  {
+    lock.lock();
+    try
+    {
+      final List<LDAPConnection> l = new ArrayList<>(size);
+      for (final SubPool p : subPools.values())
+      {
+        for (final QueuedConnection qc : p.connections)
+        {
+          l.add(qc.connection);
+        }
+      }
+
+      return Collections.unmodifiableList(l).iterator();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the sub-pool with the specified key, creating it if necessary.
+   * The caller must hold the lock.
+   *
+   * @param  key  The key for the sub-pool to retrieve.
+   *
+   * @return  The sub-pool with the specified key.
+   */
+  private SubPool getSubPool(final String key)
+  {
+    SubPool p = subPools.get(key);
+    if (p == null)
+    {
+      final Integer weight = configuredWeights.get(key);
+      p = new SubPool((weight == null) ? 1 : weight);
+      subPools.put(key, p);
+    }
+
+    return p;
+  }
+
+
+
+  /**
+   * Removes and returns the connection that has been in this queue for the
+   * longest time.  The caller must hold the lock.
+   *
+   * @return  The connection that has been in this queue for the longest time,
+   *          or {@code null} if the queue is empty.
+   */
+  private LDAPConnection removeOldest()
+  {
+    if (size == 0)
+    {
+      return null;
+    }
+
+    // Connections are only ever taken from the head of a sub-pool, so the
+    // oldest connection that has not yet been removed must also be at the
+    // head of its sub-pool.
+    QueuedConnection qc = addOrder.removeFirst();
+    while (qc.removed)
+    {
+      numRemovedInAddOrder--;
+      qc = addOrder.removeFirst();
+    }
+
+    qc.subPool.connections.removeFirst();
+    qc.removed = true;
+    size--;
+    return qc.connection;
+  }
+
+
+
+  /**
+   * Removes and returns the connection at the head of the provided sub-pool,
+   * which must not be empty.  The connection will only be marked as removed in
+   * the list of connections in the order they were added, and that list will
+   * be compacted if it holds too many removed connections.  The caller must
+   * hold the lock.
+   *
+   * @param  p  The sub-pool from which to remove the connection.
+   *
+   * @return  The connection that was removed.
+   */
+  private LDAPConnection removeFirst(final SubPool p)
+  {
+    final QueuedConnection qc = p.connections.removeFirst();
+    qc.removed = true;
+    size--;
+
+    numRemovedInAddOrder++;
+    if (numRemovedInAddOrder > Math.max(size, 16))
+    {
+      final Iterator<QueuedConnection> iterator = addOrder.iterator();
+      while (iterator.hasNext())
+      {
+        if (iterator.next().removed)
+        {
+          iterator.remove();
+        }
+      }
+
+      numRemovedInAddOrder = 0;
+    }
+
+    return qc.connection;
+  }
+
+
+
+  /**
+   * This class holds the available connections for a single server.
+   */
+  private static final class SubPool
+  {
+    // The available connections for the server, in the order they were added.
+    private final ArrayDeque<QueuedConnection> connections;
+
+    // The running weight used by smooth weighted round-robin selection.
+    private long currentWeight;
+
+    // The weight for the server.
+    private int weight;
+
+
+
+    /**
+     * Creates a new empty sub-pool with the provided weight.
+     *
+     * @param  weight  The weight for the server.
+     */
+    private SubPool(final int weight)
+    {
+      this.weight = weight;
+
+      connections = new ArrayDeque<>(10);
+      currentWeight = 0L;
+    }
+  }
+
+
+
+  /**
+   * This class holds a connection along with the sub-pool that holds it.
+   */
+  private static final class QueuedConnection
+  {
+    // Indicates whether the connection has been removed from its sub-pool.
+    private boolean removed;
+
+    // The connection.
+    private final LDAPConnection connection;
+
+    // The sub-pool that holds the connection.
+    private final SubPool subPool;
+
+
+
+    /**
+     * Creates a new queued connection.
+     *
+     * @param  connection  The connection.
+     * @param  subPool     The sub-pool that holds the connection.
+     */
+    private QueuedConnection(final LDAPConnection connection,
+                             final SubPool subPool)
+    {
+      this.connection = connection;
+      this.subPool = subPool;
+
+      removed = false;
+    }
+  }
+}
@@ -97,6 +97,23 @@ public abstract class ServerSet
 
 
 
+  /**
+   * Retrieves the blacklist manager for this server set, if it maintains a
+   * blacklist of servers that have recently been found to be unacceptable for
+   * use.  Connection pools that use this server set may add servers to or
+   * remove servers from this blacklist based on the results of their health
+   * check processing.
+   *
+   * @return  The blacklist manager for this server set, or {@code null} if no
+   *          blacklist will be maintained.
+   */
+  public ServerSetBlacklistManager getBlacklistManager()
+  {
+    return null;
+  }
+
+
+
   /**
    * Attempts to establish a connection to one of the directory servers in this
    * server set.  The connection that is returned must be established.  The
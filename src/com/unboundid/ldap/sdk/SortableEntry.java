@@ -0,0 +1,357 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.MatchingRule;
+import com.unboundid.ldap.sdk.controls.SortKey;
+import com.unboundid.util.Debug;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a data structure that pairs an entry with the
+ * information needed to order it with an {@link EntrySorter}.  The DN of the
+ * entry is parsed, and the value to use for each sort key is selected and
+ * normalized, only once when the sortable entry is created rather than for
+ * each comparison.
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class SortableEntry
+      implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 2846612097154637128L;
+
+
+
+  // The normalized representation of the value selected for each sort key, if
+  // the associated matching rule compares normalized values byte-for-byte.
+  // An element will be null if the entry does not have a value for the
+  // corresponding sort key, or if the values must be compared with the
+  // matching rule.
+  private final byte[][] normalizedKeyValues;
+
+  // Indicates whether the value selected for each sort key could not be
+  // normalized with the associated matching rule.
+  private final boolean[] invalidKeyValues;
+
+  // The parsed DN for the entry, or null if the DN cannot be parsed.
+  private final DN parsedDN;
+
+  // The entry to be sorted.
+  private final Entry entry;
+
+  // The value selected for each sort key.  An element will be null if the
+  // entry does not have a value for the corresponding sort key.
+  private final ASN1OctetString[] keyValues;
+
+  // The lowercase representation of the entry DN, used if the DN cannot be
+  // parsed.
+  private final String lowerDN;
+
+
+
+  /**
+   * Creates a new sortable entry with the provided information.
+   *
+   * @param  entry          The entry to be sorted.  It must not be
+   *                        {@code null}.
+   * @param  sortKeys       The sort keys to use to order the entry.  It must
+   *                        not be {@code null}, but may be empty.
+   * @param  matchingRules  The ordering matching rule to use for each sort
+   *                        key.  It must not be {@code null}, and it must have
+   *                        the same number of elements as the list of sort
+   *                        keys.
+   */
+  SortableEntry(final Entry entry, final List<SortKey> sortKeys,
+                final MatchingRule[] matchingRules)
+  {
+    this.entry = entry;
+
+    DN dn;
+    String lowerDNString;
+    try
+    {
+      dn = entry.getParsedDN();
+      lowerDNString = null;
+    }
+    catch (final LDAPException le)
+    {
+      Debug.debugException(le);
+      dn = null;
+      lowerDNString = StaticUtils.toLowerCase(entry.getDN());
+    }
+    parsedDN = dn;
+    lowerDN = lowerDNString;
+
+    keyValues = new ASN1OctetString[matchingRules.length];
+    normalizedKeyValues = new byte[matchingRules.length][];
+    invalidKeyValues = new boolean[matchingRules.length];
+    for (int i=0; i < matchingRules.length; i++)
+    {
+      final SortKey k = sortKeys.get(i);
+      final Attribute a = entry.getAttribute(k.getAttributeName());
+      if ((a != null) && a.hasValue())
+      {
+        selectValue(i, a, matchingRules[i], k.reverseOrder());
+      }
+    }
+  }
+
+
+
+  /**
+   * Selects the value of the provided attribute to use for the specified sort
+   * key.  This will be the largest value when sorting in reverse order, or the
+   * smallest value otherwise.
+   *
+   * @param  index         The index of the sort key for which to select the
+   *                       value.
+   * @param  attribute     The attribute from which to select the value.
+   * @param  matchingRule  The ordering matching rule for the sort key.
+   * @param  largest       Indicates whether to select the largest value rather
+   *                       than the smallest.
+   */
+  private void selectValue(final int index, final Attribute attribute,
+                           final MatchingRule matchingRule,
+                           final boolean largest)
+  {
+    final ASN1OctetString[] rawValues = attribute.getRawValues();
+    if (CompiledFilter.supportsNormalizedBytes(matchingRule,
+         Filter.FILTER_TYPE_GREATER_OR_EQUAL))
+    {
+      ASN1OctetString[] normalizedValues =
+           attribute.getNormalizedValues(matchingRule);
+      if (normalizedValues == null)
+      {
+        normalizedValues = new ASN1OctetString[rawValues.length];
+        for (int i=0; i < rawValues.length; i++)
+        {
+          final byte[] b = CompiledFilter.normalize(matchingRule, rawValues[i]);
+          if (b != null)
+          {
+            normalizedValues[i] = new ASN1OctetString(b);
+          }
+        }
+      }
+
+      int selectedIndex = -1;
+      byte[] selectedValue = null;
+      for (int i=0; i < normalizedValues.length; i++)
+      {
+        if (normalizedValues[i] == null)
+        {
+          // At least one value could not be normalized, so fall back to
+          // selecting the value with the matching rule.
+          selectedIndex = -1;
+          break;
+        }
+
+        final byte[] b = normalizedValues[i].getValue();
+        if (selectedValue == null)
+        {
+          selectedIndex = i;
+          selectedValue = b;
+        }
+        else
+        {
+          final int c =
+               CompiledFilter.compareNormalizedValues(b, selectedValue);
+          if ((largest && (c > 0)) || ((! largest) && (c < 0)))
+          {
+            selectedIndex = i;
+            selectedValue = b;
+          }
+        }
+      }
+
+      if (selectedIndex >= 0)
+      {
+        keyValues[index] = rawValues[selectedIndex];
+        normalizedKeyValues[index] = selectedValue;
+        return;
+      }
+    }
+
+    // Values that cannot be normalized cannot be reliably compared with other
+    // values, so only consider them if none of the values can be normalized.
+    ASN1OctetString selectedValue = null;
+    for (final ASN1OctetString s : rawValues)
+    {
+      if (CompiledFilter.normalize(matchingRule, s) == null)
+      {
+        continue;
+      }
+
+      if (selectedValue == null)
+      {
+        selectedValue = s;
+      }
+      else
+      {
+        try
+        {
+          final int c = matchingRule.compareValues(s, selectedValue);
+          if ((largest && (c > 0)) || ((! largest) && (c < 0)))
+          {
+            selectedValue = s;
+          }
+        }
+        catch (final LDAPException le)
+        {
+          Debug.debugException(le);
+        }
+      }
+    }
+
+    if (selectedValue == null)
+    {
+      keyValues[index] = rawValues[0];
+      invalidKeyValues[index] = true;
+    }
+    else
+    {
+      keyValues[index] = selectedValue;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the entry to be sorted.
+   *
+   * @return  The entry to be sorted.
+   */
+  Entry getEntry()
+  {
+    return entry;
+  }
+
+
+
+  /**
+   * Retrieves the parsed DN for the entry.
+   *
+   * @return  The parsed DN for the entry, or {@code null} if the DN could not
+   *          be parsed.
+   */
+  DN getParsedDN()
+  {
+    return parsedDN;
+  }
+
+
+
+  /**
+   * Retrieves the lowercase representation of the entry DN.
+   *
+   * @return  The lowercase representation of the entry DN.
+   */
+  String getLowerDN()
+  {
+    if (lowerDN == null)
+    {
+      return StaticUtils.toLowerCase(entry.getDN());
+    }
+
+    return lowerDN;
+  }
+
+
+
+  /**
+   * Retrieves the value selected for the specified sort key.
+   *
+   * @param  index  The index of the sort key for which to retrieve the value.
+   *
+   * @return  The value selected for the specified sort key, or {@code null}
+   *          if the entry does not have a value for that sort key.
+   */
+  ASN1OctetString getKeyValue(final int index)
+  {
+    return keyValues[index];
+  }
+
+
+
+  /**
+   * Retrieves the normalized representation of the value selected for the
+   * specified sort key.
+   *
+   * @param  index  The index of the sort key for which to retrieve the value.
+   *
+   * @return  The normalized representation of the value selected for the
+   *          specified sort key, or {@code null} if the entry does not have a
+   *          value for that sort key or if the value must be compared using
+   *          the matching rule.
+   */
+  byte[] getNormalizedKeyValue(final int index)
+  {
+    return normalizedKeyValues[index];
+  }
+
+
+
+  /**
+   * Indicates whether none of the entry's values for the specified sort key
+   * could be normalized with the associated matching rule.
+   *
+   * @param  index  The index of the sort key for which to make the
+   *                determination.
+   *
+   * @return  {@code true} if none of the entry's values for the specified sort
+   *          key could be normalized, or {@code false} if the selected value
+   *          could be normalized or the entry does not have a value for that
+   *          sort key.
+   */
+  boolean isInvalidKeyValue(final int index)
+  {
+    return invalidKeyValues[index];
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.matchingrules.MatchingRule;
+import com.unboundid.ldap.sdk.controls.SortKey;
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.Debug;
+import com.unboundid.util.NotMutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides a comparator that orders {@link SortableEntry} objects
+ * in the same way that an {@link EntrySorter} orders the entries that they
+ * contain, but using the DNs and sort key values that were computed when the
+ * sortable entries were created.
+ * <BR><BR>
+ * The only difference from the {@code EntrySorter.compare} method is in the
+ * handling of sort key values that cannot be normalized with the associated
+ * ordering matching rule (for example, a value that is not an integer when
+ * using integer ordering).  Rather than considering those values equivalent
+ * to every other value, which would make the ordering inconsistent, they will
+ * be ordered after all other values.
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+final class SortableEntryComparator
+       implements Comparator<SortableEntry>
+{
+  // Indicates whether entries should be sorted based on hierarchy.
+  private final boolean sortByHierarchy;
+
+  // Indicates whether each sort key should be ordered in reverse.
+  private final boolean[] reverseOrder;
+
+  // The set of sort keys for attribute-level sorting.
+  private final List<SortKey> sortKeys;
+
+  // The ordering matching rule to use for each sort key.
+  private final MatchingRule[] matchingRules;
+
+
+
+  /**
+   * Creates a new sortable entry comparator with the provided information.
+   *
+   * @param  sortByHierarchy  Indicates whether entries should be sorted
+   *                          hierarchically, such that superior entries will
+   *                          be ordered before subordinate entries.
+   * @param  schema           The schema to use to select matching rules.  It
+   *                          may be {@code null} if no schema is available.
+   * @param  sortKeys         The set of sort keys for attribute-level sorting.
+   *                          It must not be {@code null}, but may be empty.
+   */
+  SortableEntryComparator(final boolean sortByHierarchy, final Schema schema,
+                          final List<SortKey> sortKeys)
+  {
+    this.sortByHierarchy = sortByHierarchy;
+    this.sortKeys = sortKeys;
+
+    reverseOrder = new boolean[sortKeys.size()];
+    matchingRules = new MatchingRule[sortKeys.size()];
+    for (int i=0; i < matchingRules.length; i++)
+    {
+      final SortKey k = sortKeys.get(i);
+      reverseOrder[i] = k.reverseOrder();
+      matchingRules[i] = MatchingRule.selectOrderingMatchingRule(
+           k.getAttributeName(), k.getMatchingRuleID(), schema);
+    }
+  }
+
+
+
+  /**
+   * Creates a sortable entry for the provided entry that may be ordered with
+   * this comparator.
+   *
+   * @param  entry  The entry for which to create the sortable entry.  It must
+   *                not be {@code null}.
+   *
+   * @return  The sortable entry that was created.
+   */
+  SortableEntry createSortableEntry(final Entry entry)
+  {
+    return new SortableEntry(entry, sortKeys, matchingRules);
+  }
+
+
+
+  /**
+   * Compares the provided sortable entries to determine the order in which
+   * they should be placed in a sorted list.
+   *
+   * @param  e1  The first entry to be compared.
+   * @param  e2  The second entry to be compared.
+   *
+   * @return  A negative value if the first entry should be ordered before the
+   *          second, a positive value if the first entry should be ordered
+   *          after the second, or zero if the entries should have an equivalent
+   *          order.
+   */
+  @Override()
+  public int compare(final SortableEntry e1, final SortableEntry e2)
+  {
+    final DN parsedDN1 = e1.getParsedDN();
+    final DN parsedDN2 = e2.getParsedDN();
+
+    if (sortByHierarchy && (parsedDN1 != null) && (parsedDN2 != null))
+    {
+      if (parsedDN1.isAncestorOf(parsedDN2, false))
+      {
+        return -1;
+      }
+      else if (parsedDN2.isAncestorOf(parsedDN1, false))
+      {
+        return 1;
+      }
+    }
+
+    for (int i=0; i < matchingRules.length; i++)
+    {
+      final ASN1OctetString v1 = e1.getKeyValue(i);
+      final ASN1OctetString v2 = e2.getKeyValue(i);
+      if (v1 == null)
+      {
+        if (v2 == null)
+        {
+          // Neither entry has the attribute.  Continue on with the next
+          // attribute.
+          continue;
+        }
+        else
+        {
+          // The first entry does not have the attribute but the second does.
+          // The first entry should be ordered after the second.
+          return 1;
+        }
+      }
+      else if (v2 == null)
+      {
+        // The first entry has the attribute but the second does not.  The
+        // first entry should be ordered before the second.
+        return -1;
+      }
+
+      // Values that could not be normalized are ordered after all other
+      // values, and are compared byte-for-byte with each other, so that the
+      // ordering remains consistent.
+      final boolean invalid1 = e1.isInvalidKeyValue(i);
+      final boolean invalid2 = e2.isInvalidKeyValue(i);
+      if (invalid1 || invalid2)
+      {
+        if (! invalid2)
+        {
+          return 1;
+        }
+        else if (! invalid1)
+        {
+          return -1;
+        }
+
+        final int value = CompiledFilter.compareNormalizedValues(
+             v1.getValue(), v2.getValue());
+        if (value != 0)
+        {
+          return value;
+        }
+
+        continue;
+      }
+
+      // When sorting in reverse order, swap the values so that the larger one
+      // will be ordered first.
+      final SortableEntry first = (reverseOrder[i] ? e2 : e1);
+      final SortableEntry second = (reverseOrder[i] ? e1 : e2);
+      final byte[] n1 = first.getNormalizedKeyValue(i);
+      final byte[] n2 = second.getNormalizedKeyValue(i);
+
+      int value;
+      if ((n1 != null) && (n2 != null))
+      {
+        value = CompiledFilter.compareNormalizedValues(n1, n2);
+      }
+      else
+      {
+        try
+        {
+          value = matchingRules[i].compareValues(first.getKeyValue(i),
+               second.getKeyValue(i));
+        }
+        catch (final LDAPException le)
+        {
+          Debug.debugException(le);
+          value = 0;
+        }
+      }
+
+      if (value != 0)
+      {
+        return value;
+      }
+    }
+
+
+    // If we've gotten here, then there is no difference in hierarchy or
+    // sort attributes.  Compare the DNs as a last resort.
+    if ((parsedDN1 != null) && (parsedDN2 != null))
+    {
+      return parsedDN1.compareTo(parsedDN2);
+    }
+    else
+    {
+      return e1.getLowerDN().compareTo(e2.getLowerDN());
+    }
+  }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.ldif.LDIFException;
+import com.unboundid.ldif.LDIFReader;
+import com.unboundid.util.Debug;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+
+
+
+/**
+ * This class provides an {@link EntrySource} that merges one or more sorted
+ * runs of entries created by an {@link EntrySorter}.  The most recently read
+ * run may be held in memory, while any earlier runs will have been written to
+ * temporary LDIF files, which will be deleted when the entry source is closed.
+ * When entries from different runs have an equivalent order, the entry from
+ * the earlier run will be returned first, so that the relative order of those
+ * entries in the original entry source is preserved.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+final class SortedEntrySource
+       extends EntrySource
+{
+  // Indicates whether this entry source has been closed.
+  private boolean closed;
+
+  // The runs from which entries will be read.
+  private final List<SortedRun> runs;
+
+  // The queue used to identify the run with the next entry to return.
+  private final PriorityQueue<SortedRun> queue;
+
+
+
+  /**
+   * Creates a new sorted entry source with the provided information.
+   *
+   * @param  comparator  The comparator to use to order entries.  It must not
+   *                     be {@code null}.
+   * @param  schema      The schema to use when reading entries from the run
+   *                     files.  It may be {@code null} if no schema is
+   *                     available.
+   * @param  runFiles    The files containing the runs that have been written
+   *                     to disk, in the order in which they were created.  It
+   *                     must not be {@code null}, but may be empty.  The files
+   *                     will be deleted when the entry source is closed.
+   * @param  memoryRun   The sorted run held in memory, which contains entries
+   *                     read after those in all of the run files.  It must
+   *                     not be {@code null}, but may be empty.
+   *
+   * @throws  IOException  If a problem occurs while opening any of the run
+   *                       files.
+   *
+   * @throws  LDIFException  If a problem occurs while reading the first entry
+   *                         from any of the run files.
+   */
+  SortedEntrySource(final SortableEntryComparator comparator,
+                    final Schema schema, final List<File> runFiles,
+                    final SortableEntry[] memoryRun)
+       throws IOException, LDIFException
+  {
+    closed = false;
+    runs = new ArrayList<>(runFiles.size() + 1);
+    queue = new PriorityQueue<>(runFiles.size() + 1,
+         new SortedRunComparator(comparator));
+
+    try
+    {
+      for (final File f : runFiles)
+      {
+        final SortedRun run = new SortedRun(runs.size(), comparator, f, schema);
+        runs.add(run);
+        if (run.advance())
+        {
+          queue.add(run);
+        }
+      }
+    }
+    catch (final IOException | LDIFException e)
+    {
+      Debug.debugException(e);
+      close();
+      throw e;
+    }
+
+    final SortedRun run = new SortedRun(runs.size(), memoryRun);
+    runs.add(run);
+    if (run.advance())
+    {
+      queue.add(run);
+    }
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public Entry nextEntry()
+         throws EntrySourceException
+  {
+    if (closed)
+    {
+      return null;
+    }
+
+    final SortedRun run = queue.poll();
+    if (run == null)
+    {
+      close();
+      return null;
+    }
+
+    final Entry entry = run.getCurrent().getEntry();
+    try
+    {
+      if (run.advance())
+      {
+        queue.add(run);
+      }
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      close();
+      throw new EntrySourceException(false, e);
+    }
+
+    return entry;
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public void close()
+  {
+    if (! closed)
+    {
+      closed = true;
+      queue.clear();
+      for (final SortedRun run : runs)
+      {
+        run.close();
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a data structure that holds information about a
+   * sorted run of entries, which may either be held in memory or read from a
+   * temporary LDIF file.
+   */
+  private static final class SortedRun
+  {
+    // The position of this run in the original entry source.
+    private final int runIndex;
+
+    // The file from which entries are read, if the run is not held in memory.
+    private final File file;
+
+    // The reader used to read entries from the file, if the run is not held
+    // in memory.
+    private final LDIFReader ldifReader;
+
+    // The position of the next entry to return from the in-memory run.
+    private int memoryRunPosition;
+
+    // The comparator used to create sortable entries for entries read from
+    // the file, if the run is not held in memory.
+    private final SortableEntryComparator comparator;
+
+    // The current entry for this run.
+    private SortableEntry current;
+
+    // The entries in the run, if it is held in memory.
+    private final SortableEntry[] memoryRun;
+
+
+
+    /**
+     * Creates a new sorted run that will read entries from the provided file.
+     *
+     * @param  runIndex    The position of this run in the original entry
+     *                     source.
+     * @param  comparator  The comparator used to create sortable entries.
+     * @param  file        The file from which entries will be read.
+     * @param  schema      The schema to use when reading entries.  It may be
+     *                     {@code null} if no schema is available.
+     *
+     * @throws  IOException  If a problem occurs while opening the file.
+     */
+    private SortedRun(final int runIndex,
+                      final SortableEntryComparator comparator,
+                      final File file, final Schema schema)
+            throws IOException
+    {
+      this.runIndex = runIndex;
+      this.comparator = comparator;
+      this.file = file;
+
+      ldifReader = new LDIFReader(file);
+      ldifReader.setSchema(schema);
+      memoryRun = null;
+      memoryRunPosition = 0;
+      current = null;
+    }
+
+
+
+    /**
+     * Creates a new sorted run that will return entries held in memory.
+     *
+     * @param  runIndex   The position of this run in the original entry
+     *                    source.
+     * @param  memoryRun  The sorted entries in the run.
+     */
+    private SortedRun(final int runIndex, final SortableEntry[] memoryRun)
+    {
+      this.runIndex = runIndex;
+      this.memoryRun = memoryRun;
+
+      comparator = null;
+      file = null;
+      ldifReader = null;
+      memoryRunPosition = 0;
+      current = null;
+    }
+
+
+
+    /**
+     * Advances to the next entry in this run.
+     *
+     * @return  {@code true} if there is a current entry after advancing, or
+     *          {@code false} if the end of the run has been reached.
+     *
+     * @throws  IOException  If a problem occurs while reading from the file.
+     *
+     * @throws  LDIFException  If a problem occurs while parsing an entry read
+     *                         from the file.
+     */
+    private boolean advance()
+            throws IOException, LDIFException
+    {
+      if (memoryRun != null)
+      {
+        if (memoryRunPosition < memoryRun.length)
+        {
+          current = memoryRun[memoryRunPosition];
+          memoryRun[memoryRunPosition++] = null;
+        }
+        else
+        {
+          current = null;
+        }
+      }
+      else
+      {
+        final Entry entry = ldifReader.readEntry();
+        if (entry == null)
+        {
+          current = null;
+          close();
+        }
+        else
+        {
+          current = comparator.createSortableEntry(entry);
+        }
+      }
+
+      return (current != null);
+    }
+
+
+
+    /**
+     * Retrieves the current entry for this run.
+     *
+     * @return  The current entry for this run, or {@code null} if the end of
+     *          the run has been reached.
+     */
+    private SortableEntry getCurrent()
+    {
+      return current;
+    }
+
+
+
+    /**
+     * Retrieves the position of this run in the original entry source.
+     *
+     * @return  The position of this run in the original entry source.
+     */
+    private int getRunIndex()
+    {
+      return runIndex;
+    }
+
+
+
+    /**
+     * Closes this run and deletes the associated file, if any.
+     */
+    private void close()
+    {
+      if (ldifReader != null)
+      {
+        try
+        {
+          ldifReader.close();
+        }
+        catch (final Exception e)
+        {
+          Debug.debugException(e);
+        }
+
+        if (file.exists() && (! file.delete()))
+        {
+          file.deleteOnExit();
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a comparator that orders sorted runs by their current
+   * entries, using the position of the run to break ties.
+   */
+  private static final class SortedRunComparator
+          implements Comparator<SortedRun>
+  {
+    // The comparator to use for the current entries.
+    private final SortableEntryComparator entryComparator;
+
+
+
+    /**
+     * Creates a new sorted run comparator.
+     *
+     * @param  entryComparator  The comparator to use for the current entries.
+     */
+    private SortedRunComparator(final SortableEntryComparator entryComparator)
+    {
+      this.entryComparator = entryComparator;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public int compare(final SortedRun r1, final SortedRun r2)
+    {
+      final int c = entryComparator.compare(r1.getCurrent(), r2.getCurrent());
+      if (c != 0)
+      {
+        return c;
+      }
+
+      return Integer.compare(r1.getRunIndex(), r2.getRunIndex());
+    }
+  }
+}
@@ -39,6 +39,7 @@ package com.unboundid.ldap.sdk.schema;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -59,6 +60,7 @@ import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.RDN;
 import com.unboundid.util.Debug;
+import com.unboundid.util.NotMutable;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.ThreadSafety;
 import com.unboundid.util.ThreadSafetyLevel;
@@ -126,6 +128,14 @@ public final class EntryValidator
 
 
 
+  /**
+   * The maximum number of distinct object class combinations for which
+   * validation plans will be cached.
+   */
+  private static final int MAX_CACHED_VALIDATION_PLANS = 10_000;
+
+
+
   // A count of the total number of entries examined.
   private final AtomicLong entriesExamined;
 
@@ -240,6 +250,17 @@ public final class EntryValidator
   // The attribute types for which to ignore syntax violations.
   private Set<AttributeTypeDefinition> ignoreSyntaxViolationTypes;
 
+  // The syntax plans compiled for the attribute types that have been
+  // encountered, indexed by attribute type definition.
+  private transient volatile
+       ConcurrentHashMap<AttributeTypeDefinition,AttributeSyntaxPlan>
+       syntaxPlans;
+
+  // The validation plans compiled for the distinct sets of object class values
+  // that have been encountered, indexed by those values.
+  private transient volatile ConcurrentHashMap<List<String>,ValidationPlan>
+       validationPlans;
+
 
 
   /**
@@ -358,6 +379,7 @@ public final class EntryValidator
                    final boolean checkMissingSuperiorObjectClasses)
   {
     this.checkMissingSuperiorObjectClasses = checkMissingSuperiorObjectClasses;
+    validationPlans = null;
   }
 
 
@@ -521,6 +543,7 @@ public final class EntryValidator
                    final boolean checkProhibitedObjectClasses)
   {
     this.checkProhibitedObjectClasses = checkProhibitedObjectClasses;
+    validationPlans = null;
   }
 
 
@@ -589,6 +612,7 @@ public final class EntryValidator
                    final boolean checkStructuralObjectClasses)
   {
     this.checkStructuralObjectClasses = checkStructuralObjectClasses;
+    validationPlans = null;
   }
 
 
@@ -780,6 +804,7 @@ public final class EntryValidator
                    final boolean checkUndefinedObjectClasses)
   {
     this.checkUndefinedObjectClasses = checkUndefinedObjectClasses;
+    validationPlans = null;
   }
 
 
@@ -827,57 +852,30 @@ public final class EntryValidator
       }
     }
 
-    // Get the object class descriptions for the object classes in the entry.
-    final HashSet<ObjectClassDefinition> ocSet =
-         new HashSet<>(StaticUtils.computeMapCapacity(10));
-    final boolean missingOC =
-         (! getObjectClasses(entry, ocSet, invalidReasons));
-    if (missingOC)
-    {
-      entryValid = false;
-    }
-
-    // If the entry was not missing any object classes, then get the structural
-    // class for the entry and use it to get the associated DIT content rule and
-    // name form.
-    DITContentRuleDefinition ditContentRule = null;
-    NameFormDefinition nameForm = null;
-    if (! missingOC)
-    {
-      final AtomicReference<ObjectClassDefinition> ref =
-           new AtomicReference<>(null);
-      entryValid &= getStructuralClass(ocSet, ref, invalidReasons);
-      final ObjectClassDefinition structuralClass = ref.get();
-      if (structuralClass != null)
-      {
-        ditContentRule = schema.getDITContentRule(structuralClass.getOID());
-        nameForm =
-             schema.getNameFormByObjectClass(structuralClass.getNameOrOID());
-      }
-    }
+    // Get the validation plan for the entry's object classes.  It holds the
+    // object class definitions, the DIT content rule, the name form, and the
+    // allowed attribute types for the entry, along with any object class
+    // violations, so they only need to be resolved once per distinct set of
+    // object classes.
+    final ValidationPlan plan =
+         getValidationPlan(entry.getObjectClassValues());
+    entryValid &= plan.applyObjectClassViolations(invalidReasons);
 
     // If we should check for missing required attributes, then do so.
-    HashSet<AttributeTypeDefinition> requiredAttrs = null;
-    if (checkMissingAttributes || checkProhibitedAttributes)
+    final Set<AttributeTypeDefinition> requiredAttrs =
+         plan.getRequiredAttributes();
+    if (checkMissingAttributes)
     {
-      requiredAttrs = getRequiredAttributes(ocSet, ditContentRule);
-      if (checkMissingAttributes)
-      {
-        entryValid &= checkForMissingAttributes(entry, rdn, requiredAttrs,
-                                                invalidReasons);
-      }
+      entryValid &= checkForMissingAttributes(entry, rdn, requiredAttrs,
+                                              invalidReasons);
     }
 
     // Iterate through all of the attributes in the entry.  Make sure that they
     // are all defined in the schema, that they are allowed to be present in the
     // entry, that their values conform to the associated syntax, and that any
     // single-valued attributes have only one value.
-    HashSet<AttributeTypeDefinition> optionalAttrs = null;
-    if (checkProhibitedAttributes)
-    {
-      optionalAttrs =
-           getOptionalAttributes(ocSet, ditContentRule, requiredAttrs);
-    }
+    final Set<AttributeTypeDefinition> optionalAttrs =
+         plan.getOptionalAttributes();
     for (final Attribute a : entry.getAttributes())
     {
       entryValid &=
@@ -886,18 +884,16 @@ public final class EntryValidator
 
     // If there is a DIT content rule, then check to ensure that all of the
     // auxiliary object classes are allowed.
-    if (checkProhibitedObjectClasses && (ditContentRule != null))
+    if (checkProhibitedObjectClasses && (plan.getDITContentRule() != null))
     {
-      entryValid &=
-           checkAuxiliaryClasses(ocSet, ditContentRule, invalidReasons);
+      entryValid &= plan.applyAuxiliaryClassViolations(invalidReasons);
     }
 
     // Check the entry's RDN to ensure that all attributes are defined in the
     // schema, allowed to be present, and comply with the name form.
     if (rdn != null)
     {
-      entryValid &= checkRDN(rdn, entry, requiredAttrs, optionalAttrs, nameForm,
-                             invalidReasons);
+      entryValid &= checkRDN(rdn, entry, plan, invalidReasons);
     }
 
     if (! entryValid)
@@ -910,41 +906,175 @@ public final class EntryValidator
 
 
 
+  /**
+   * Retrieves the validation plan for entries with the provided set of object
+   * class values, compiling and caching it if necessary.
+   *
+   * @param  ocValues  The object class values for the entry.  It may be
+   *                   {@code null} or empty if the entry does not have any
+   *                   object classes.
+   *
+   * @return  The validation plan for entries with the provided set of object
+   *          class values.
+   */
+  private ValidationPlan getValidationPlan(final String[] ocValues)
+  {
+    final List<String> key;
+    if (ocValues == null)
+    {
+      key = Collections.emptyList();
+    }
+    else
+    {
+      key = Arrays.asList(ocValues);
+    }
+
+    ConcurrentHashMap<List<String>,ValidationPlan> plans = validationPlans;
+    if (plans == null)
+    {
+      plans = new ConcurrentHashMap<>(StaticUtils.computeMapCapacity(20));
+      validationPlans = plans;
+    }
+
+    ValidationPlan plan = plans.get(key);
+    if (plan == null)
+    {
+      plan = compileValidationPlan(ocValues);
+      if (plans.size() < MAX_CACHED_VALIDATION_PLANS)
+      {
+        final ValidationPlan existingPlan = plans.putIfAbsent(key, plan);
+        if (existingPlan != null)
+        {
+          plan = existingPlan;
+        }
+      }
+    }
+
+    return plan;
+  }
+
+
+
+  /**
+   * Compiles a validation plan for entries with the provided set of object
+   * class values.
+   *
+   * @param  ocValues  The object class values for the entry.  It may be
+   *                   {@code null} or empty if the entry does not have any
+   *                   object classes.
+   *
+   * @return  The validation plan that was compiled.
+   */
+  private ValidationPlan compileValidationPlan(final String[] ocValues)
+  {
+    // Get the object class descriptions for the object classes in the entry.
+    final ArrayList<Violation> ocViolations = new ArrayList<>(5);
+    final HashSet<ObjectClassDefinition> ocSet =
+         new HashSet<>(StaticUtils.computeMapCapacity(10));
+    final boolean missingOC =
+         (! getObjectClasses(ocValues, ocSet, ocViolations));
+    boolean ocValid = (! missingOC);
+
+    // If the entry was not missing any object classes, then get the structural
+    // class for the entry and use it to get the associated DIT content rule and
+    // name form.
+    DITContentRuleDefinition ditContentRule = null;
+    NameFormDefinition nameForm = null;
+    if (! missingOC)
+    {
+      final AtomicReference<ObjectClassDefinition> ref =
+           new AtomicReference<>(null);
+      ocValid &= getStructuralClass(ocSet, ref, ocViolations);
+      final ObjectClassDefinition structuralClass = ref.get();
+      if (structuralClass != null)
+      {
+        ditContentRule = schema.getDITContentRule(structuralClass.getOID());
+        nameForm =
+             schema.getNameFormByObjectClass(structuralClass.getNameOrOID());
+      }
+    }
+
+    final HashSet<AttributeTypeDefinition> requiredAttrs =
+         getRequiredAttributes(ocSet, ditContentRule);
+    final HashSet<AttributeTypeDefinition> optionalAttrs =
+         getOptionalAttributes(ocSet, ditContentRule, requiredAttrs);
+
+    // Determine whether any of the auxiliary classes are not allowed by the DIT
+    // content rule.  Those violations will only be reported if the DIT content
+    // rule is defined and prohibited object classes are to be checked.
+    final ArrayList<Violation> auxViolations = new ArrayList<>(1);
+    boolean auxValid = true;
+    if (ditContentRule != null)
+    {
+      auxValid = checkAuxiliaryClasses(ocSet, ditContentRule, auxViolations);
+    }
+
+    // Get the sets of attribute types that are required and allowed by the
+    // name form.
+    final HashSet<AttributeTypeDefinition> nfReqAttrs =
+         new HashSet<>(StaticUtils.computeMapCapacity(5));
+    final HashSet<AttributeTypeDefinition> nfAllowedAttrs =
+         new HashSet<>(StaticUtils.computeMapCapacity(5));
+    if (nameForm != null)
+    {
+      for (final String s : nameForm.getRequiredAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if (d != null)
+        {
+          nfReqAttrs.add(d);
+        }
+      }
+
+      nfAllowedAttrs.addAll(nfReqAttrs);
+      for (final String s : nameForm.getOptionalAttributes())
+      {
+        final AttributeTypeDefinition d = schema.getAttributeType(s);
+        if (d != null)
+        {
+          nfAllowedAttrs.add(d);
+        }
+      }
+    }
+
+    return new ValidationPlan(ocValid, ocViolations, auxValid, auxViolations,
+         ditContentRule, nameForm, requiredAttrs, optionalAttrs, nfReqAttrs,
+         nfAllowedAttrs);
+  }
+
+
+
   /**
    * Gets the object classes for the entry, including any that weren't
    * explicitly included but should be because they were superior to classes
    * that were included.
    *
-   * @param  entry           The entry to examine.
+   * @param  ocValues        The object class values for the entry.  It may be
+   *                         {@code null} or empty if the entry does not have
+   *                         any object classes.
    * @param  ocSet           The set into which the object class definitions
    *                         should be placed.
-   * @param  invalidReasons  A list to which messages may be added which provide
-   *                         information about why the entry is invalid.  It may
-   *                         be {@code null} if this information is not needed.
+   * @param  violations      The list to which any violations identified by
+   *                         this method should be added.
    *
    * @return  {@code true} if the entry passed all validation processing
    *          performed by this method, or {@code false} if there were any
    *          failures.
    */
-  private boolean getObjectClasses(final Entry entry,
+  private boolean getObjectClasses(final String[] ocValues,
                                    final HashSet<ObjectClassDefinition> ocSet,
-                                   final List<String> invalidReasons)
+                                   final List<Violation> violations)
   {
-    final String[] ocValues = entry.getObjectClassValues();
     if ((ocValues == null) || (ocValues.length == 0))
     {
-      noObjectClasses.incrementAndGet();
-      if (invalidReasons != null)
-      {
-        invalidReasons.add(ERR_ENTRY_NO_OCS.get());
-      }
+      violations.add(new Violation(noObjectClasses, ERR_ENTRY_NO_OCS.get()));
       return false;
     }
 
     boolean entryValid = true;
     final HashSet<String> missingOCs =
          new HashSet<>(StaticUtils.computeMapCapacity(ocValues.length));
-    for (final String ocName : entry.getObjectClassValues())
+    for (final String ocName : ocValues)
     {
       final ObjectClassDefinition d = schema.getObjectClass(ocName);
       if (d == null)
@@ -953,11 +1083,8 @@ public final class EntryValidator
         {
           entryValid = false;
           missingOCs.add(StaticUtils.toLowerCase(ocName));
-          updateCount(ocName, undefinedObjectClasses);
-          if (invalidReasons != null)
-          {
-            invalidReasons.add(ERR_ENTRY_UNDEFINED_OC.get(ocName));
-          }
+          violations.add(new Violation(undefinedObjectClasses, ocName,
+               ERR_ENTRY_UNDEFINED_OC.get(ocName)));
         }
       }
       else
@@ -968,7 +1095,7 @@ public final class EntryValidator
 
     for (final ObjectClassDefinition d : new HashSet<>(ocSet))
     {
-      entryValid &= addSuperiorClasses(d, ocSet, missingOCs, invalidReasons);
+      entryValid &= addSuperiorClasses(d, ocSet, missingOCs, violations);
     }
 
     return entryValid;
@@ -985,9 +1112,8 @@ public final class EntryValidator
    *                         should be placed.
    * @param  missingOCNames  The names of the object classes we already know are
    *                         missing and therefore shouldn't be flagged again.
-   * @param  invalidReasons  A list to which messages may be added which provide
-   *                         information about why the entry is invalid.  It may
-   *                         be {@code null} if this information is not needed.
+   * @param  violations      The list to which any violations identified by
+   *                         this method should be added.
    *
    * @return  {@code true} if the entry passed all validation processing
    *          performed by this method, or {@code false} if there were any
@@ -996,7 +1122,7 @@ public final class EntryValidator
   private boolean addSuperiorClasses(final ObjectClassDefinition d,
                                      final HashSet<ObjectClassDefinition> ocSet,
                                      final HashSet<String> missingOCNames,
-                                     final List<String> invalidReasons)
+                                     final List<Violation> violations)
   {
     boolean entryValid = true;
 
@@ -1012,12 +1138,8 @@ public final class EntryValidator
           if (! missingOCNames.contains(lowerName))
           {
             missingOCNames.add(lowerName);
-            updateCount(ocName, undefinedObjectClasses);
-            if (invalidReasons != null)
-            {
-              invalidReasons.add(ERR_ENTRY_UNDEFINED_SUP_OC.get(
-                   d.getNameOrOID(), ocName));
-            }
+            violations.add(new Violation(undefinedObjectClasses, ocName,
+                 ERR_ENTRY_UNDEFINED_SUP_OC.get(d.getNameOrOID(), ocName)));
           }
         }
       }
@@ -1029,17 +1151,14 @@ public final class EntryValidator
           if (checkMissingSuperiorObjectClasses)
           {
             entryValid = false;
-            missingSuperiorClasses.incrementAndGet();
-            if (invalidReasons != null)
-            {
-              invalidReasons.add(ERR_ENTRY_MISSING_SUP_OC.get(
-                   supOC.getNameOrOID(), d.getNameOrOID()));
-            }
+            violations.add(new Violation(missingSuperiorClasses,
+                 ERR_ENTRY_MISSING_SUP_OC.get(supOC.getNameOrOID(),
+                      d.getNameOrOID())));
           }
         }
 
         entryValid &=
-             addSuperiorClasses(supOC, ocSet, missingOCNames, invalidReasons);
+             addSuperiorClasses(supOC, ocSet, missingOCNames, violations);
       }
     }
 
@@ -1055,17 +1174,15 @@ public final class EntryValidator
    * @param  ocSet            The set of object class definitions for the entry.
    * @param  structuralClass  The reference that will be updated with the
    *                          entry's structural object class.
-   * @param  invalidReasons   A list to which messages may be added which
-   *                          provide provide information about why the entry is
-   *                          invalid.  It may be {@code null} if this
-   *                          information is not needed.
+   * @param  violations       The list to which any violations identified by
+   *                          this method should be added.
    *
    * @return  {@code true} if the entry passes all validation checks performed
    *          by this method, or {@code false} if not.
    */
   private boolean getStructuralClass(final HashSet<ObjectClassDefinition> ocSet,
                final AtomicReference<ObjectClassDefinition> structuralClass,
-               final List<String> invalidReasons)
+               final List<Violation> violations)
   {
     final HashSet<ObjectClassDefinition> ocCopy = new HashSet<>(ocSet);
     for (final ObjectClassDefinition d : ocSet)
@@ -1094,12 +1211,9 @@ public final class EntryValidator
         if (checkProhibitedObjectClasses)
         {
           entryValid = false;
-          updateCount(d.getNameOrOID(), prohibitedObjectClasses);
-          if (invalidReasons != null)
-          {
-            invalidReasons.add(ERR_ENTRY_INVALID_ABSTRACT_CLASS.get(
-                 d.getNameOrOID()));
-          }
+          violations.add(new Violation(prohibitedObjectClasses,
+               d.getNameOrOID(),
+               ERR_ENTRY_INVALID_ABSTRACT_CLASS.get(d.getNameOrOID())));
         }
         iterator.remove();
       }
@@ -1111,11 +1225,8 @@ public final class EntryValidator
         if (checkStructuralObjectClasses)
         {
           entryValid = false;
-          noStructuralClass.incrementAndGet();
-          if (invalidReasons != null)
-          {
-            invalidReasons.add(ERR_ENTRY_NO_STRUCTURAL_CLASS.get());
-          }
+          violations.add(new Violation(noStructuralClass,
+               ERR_ENTRY_NO_STRUCTURAL_CLASS.get()));
         }
         break;
 
@@ -1127,22 +1238,18 @@ public final class EntryValidator
         if (checkStructuralObjectClasses)
         {
           entryValid = false;
-          multipleStructuralClasses.incrementAndGet();
-          if (invalidReasons != null)
+          final StringBuilder ocList = new StringBuilder();
+          iterator = ocCopy.iterator();
+          while (iterator.hasNext())
           {
-            final StringBuilder ocList = new StringBuilder();
-            iterator = ocCopy.iterator();
-            while (iterator.hasNext())
+            ocList.append(iterator.next().getNameOrOID());
+            if (iterator.hasNext())
             {
-              ocList.append(iterator.next().getNameOrOID());
-              if (iterator.hasNext())
-              {
-                ocList.append(", ");
-              }
+              ocList.append(", ");
             }
-            invalidReasons.add(
-                 ERR_ENTRY_MULTIPLE_STRUCTURAL_CLASSES.get(ocList));
           }
+          violations.add(new Violation(multipleStructuralClasses,
+               ERR_ENTRY_MULTIPLE_STRUCTURAL_CLASSES.get(ocList)));
         }
         break;
     }
@@ -1269,7 +1376,7 @@ public final class EntryValidator
    *          {@code false} if not.
    */
   private boolean checkForMissingAttributes(final Entry entry, final RDN rdn,
-                       final HashSet<AttributeTypeDefinition> requiredAttrs,
+                       final Set<AttributeTypeDefinition> requiredAttrs,
                        final List<String> invalidReasons)
   {
     boolean entryValid = true;
@@ -1323,8 +1430,8 @@ public final class EntryValidator
    *          to be valid, or {@code false} if it failed any of the checks.
    */
   private boolean checkAttribute(final Attribute attr,
-                       final HashSet<AttributeTypeDefinition> requiredAttrs,
-                       final HashSet<AttributeTypeDefinition> optionalAttrs,
+                       final Set<AttributeTypeDefinition> requiredAttrs,
+                       final Set<AttributeTypeDefinition> optionalAttrs,
                        final List<String> invalidReasons)
   {
     boolean entryValid = true;
@@ -1376,9 +1483,8 @@ public final class EntryValidator
     {
       if (! ignoreSyntaxViolationTypes.contains(d))
       {
-        final MatchingRule r =
-             MatchingRule.selectEqualityMatchingRule(d.getNameOrOID(), schema);
-        final Map<String, String[]> extensions = d.getExtensions();
+        final AttributeSyntaxPlan p = getAttributeSyntaxPlan(d);
+        final MatchingRule r = p.getMatchingRule();
         for (final ASN1OctetString v : rawValues)
         {
           try
@@ -1401,15 +1507,15 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-ALLOWED-VALUE
           // extension, then make sure the value is in that set.
-          final String[] allowedValues = extensions.get("X-ALLOWED-VALUE");
+          final ASN1OctetString[] allowedValues = p.getAllowedValues();
           if (allowedValues != null)
           {
             boolean isAllowed = false;
-            for (final String allowedValue : allowedValues)
+            for (final ASN1OctetString allowedValue : allowedValues)
             {
               try
               {
-                if (r.valuesMatch(v, new ASN1OctetString(allowedValue)))
+                if (r.valuesMatch(v, allowedValue))
                 {
                   isAllowed = true;
                   break;
@@ -1436,24 +1542,16 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-VALUE-REGEX
           // extension, then make sure the value matches one of those regexes.
-          final String[] valueRegexes = extensions.get("X-VALUE-REGEX");
-          if (valueRegexes != null)
+          final Pattern[] valuePatterns = p.getValuePatterns();
+          if (valuePatterns != null)
           {
             boolean matchesRegex = false;
-            for (final String regex : valueRegexes)
+            for (final Pattern pattern : valuePatterns)
             {
-              try
-              {
-                final Pattern pattern = Pattern.compile(regex);
-                if (pattern.matcher(v.stringValue()).matches())
-                {
-                  matchesRegex = true;
-                  break;
-                }
-              }
-              catch (final Exception e)
+              if (pattern.matcher(v.stringValue()).matches())
               {
-                Debug.debugException(e);
+                matchesRegex = true;
+                break;
               }
             }
 
@@ -1473,91 +1571,45 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-MIN-VALUE-LENGTH
           // extension, then make sure the value is long enough.
-          final String[] minValueLengths = extensions.get("X-MIN-VALUE-LENGTH");
-          if (minValueLengths != null)
+          final int minLength = p.getMinValueLength();
+          if ((minLength > 0) && (v.stringValue().length() < minLength))
           {
-            int minLength = 0;
-            for (final String s : minValueLengths)
-            {
-              try
-              {
-                minLength = Math.max(minLength, Integer.parseInt(s));
-              }
-              catch (final Exception e)
-              {
-                Debug.debugException(e);
-              }
-            }
-
-            if (v.stringValue().length() < minLength)
+            entryValid = false;
+            updateCount(d.getNameOrOID(), attributesViolatingSyntax);
+            if (invalidReasons != null)
             {
-              entryValid = false;
-              updateCount(d.getNameOrOID(), attributesViolatingSyntax);
-              if (invalidReasons != null)
-              {
-                invalidReasons.add(
-                     ERR_ENTRY_ATTR_VALUE_SHORTER_THAN_MIN_LENGTH.get(
-                          v.stringValue(), d.getNameOrOID(), minLength));
-              }
+              invalidReasons.add(
+                   ERR_ENTRY_ATTR_VALUE_SHORTER_THAN_MIN_LENGTH.get(
+                        v.stringValue(), d.getNameOrOID(), minLength));
             }
           }
 
 
           // If the attribute type definition includes an X-MAX-VALUE-LENGTH
           // extension, then make sure the value is short enough.
-          final String[] maxValueLengths = extensions.get("X-MAX-VALUE-LENGTH");
-          if (maxValueLengths != null)
+          final int maxLength = p.getMaxValueLength();
+          if ((maxLength < Integer.MAX_VALUE) &&
+              (v.stringValue().length() > maxLength))
           {
-            int maxLength = Integer.MAX_VALUE;
-            for (final String s : maxValueLengths)
-            {
-              try
-              {
-                maxLength = Math.min(maxLength, Integer.parseInt(s));
-              }
-              catch (final Exception e)
-              {
-                Debug.debugException(e);
-              }
-            }
-
-            if (v.stringValue().length() > maxLength)
+            entryValid = false;
+            updateCount(d.getNameOrOID(), attributesViolatingSyntax);
+            if (invalidReasons != null)
             {
-              entryValid = false;
-              updateCount(d.getNameOrOID(), attributesViolatingSyntax);
-              if (invalidReasons != null)
-              {
-                invalidReasons.add(
-                     ERR_ENTRY_ATTR_VALUE_LONGER_THAN_MAX_LENGTH.get(
-                          v.stringValue(), d.getNameOrOID(), maxLength));
-              }
+              invalidReasons.add(
+                   ERR_ENTRY_ATTR_VALUE_LONGER_THAN_MAX_LENGTH.get(
+                        v.stringValue(), d.getNameOrOID(), maxLength));
             }
           }
 
 
           // If the attribute type definition includes an X-MIN-INT-VALUE
           // extension, then make sure the value is large enough.
-          final String[] minIntValues = extensions.get("X-MIN-INT-VALUE");
-          if (minIntValues != null)
+          final Long minAllowedValue = p.getMinIntValue();
+          if (minAllowedValue != null)
           {
             try
             {
               final long longValue = Long.parseLong(v.stringValue());
-
-              long minAllowedValue = 0L;
-              for (final String s : minIntValues)
-              {
-                try
-                {
-                  minAllowedValue =
-                       Math.max(minAllowedValue, Long.parseLong(s));
-                }
-                catch (final Exception e)
-                {
-                  Debug.debugException(e);
-                }
-              }
-
               if (longValue < minAllowedValue)
               {
                 entryValid = false;
@@ -1585,27 +1637,12 @@ public final class EntryValidator
 
           // If the attribute type definition includes an X-MAX-INT-VALUE
           // extension, then make sure the value is large enough.
-          final String[] maxIntValues = extensions.get("X-MAX-INT-VALUE");
-          if (maxIntValues != null)
+          final Long maxAllowedValue = p.getMaxIntValue();
+          if (maxAllowedValue != null)
           {
             try
             {
               final long longValue = Long.parseLong(v.stringValue());
-
-              long maxAllowedValue = Long.MAX_VALUE;
-              for (final String s : maxIntValues)
-              {
-                try
-                {
-                  maxAllowedValue =
-                       Math.min(maxAllowedValue, Long.parseLong(s));
-                }
-                catch (final Exception e)
-                {
-                  Debug.debugException(e);
-                }
-              }
-
               if (longValue > maxAllowedValue)
               {
                 entryValid = false;
@@ -1634,62 +1671,30 @@ public final class EntryValidator
 
         // If the attribute type definition includes an X-MIN-VALUE-COUNT
         // extension, then make sure the value has enough values.
-        final String[] minValueCounts = extensions.get("X-MIN-VALUE-COUNT");
-        if (minValueCounts != null)
+        final int minValueCount = p.getMinValueCount();
+        if (rawValues.length < minValueCount)
         {
-          int minValueCount = 0;
-          for (final String s : minValueCounts)
-          {
-            try
-            {
-              minValueCount = Math.max(minValueCount, Integer.parseInt(s));
-            }
-            catch (final Exception e)
-            {
-              Debug.debugException(e);
-            }
-          }
-
-          if (rawValues.length < minValueCount)
+          entryValid = false;
+          updateCount(d.getNameOrOID(), attributesViolatingSyntax);
+          if (invalidReasons != null)
           {
-            entryValid = false;
-            updateCount(d.getNameOrOID(), attributesViolatingSyntax);
-            if (invalidReasons != null)
-            {
-              invalidReasons.add(ERR_ENTRY_TOO_FEW_VALUES.get(rawValues.length,
-                   d.getNameOrOID(), minValueCount));
-            }
+            invalidReasons.add(ERR_ENTRY_TOO_FEW_VALUES.get(rawValues.length,
+                 d.getNameOrOID(), minValueCount));
           }
         }
 
 
         // If the attribute type definition includes an X-MAX-VALUE-COUNT
         // extension, then make sure the value has enough values.
-        final String[] maxValueCounts = extensions.get("X-MAX-VALUE-COUNT");
-        if (maxValueCounts != null)
+        final int maxValueCount = p.getMaxValueCount();
+        if (rawValues.length > maxValueCount)
         {
-          int maxValueCount = Integer.MAX_VALUE;
-          for (final String s : maxValueCounts)
-          {
-            try
-            {
-              maxValueCount = Math.min(maxValueCount, Integer.parseInt(s));
-            }
-            catch (final Exception e)
-            {
-              Debug.debugException(e);
-            }
-          }
-
-          if (rawValues.length > maxValueCount)
+          entryValid = false;
+          updateCount(d.getNameOrOID(), attributesViolatingSyntax);
+          if (invalidReasons != null)
           {
-            entryValid = false;
-            updateCount(d.getNameOrOID(), attributesViolatingSyntax);
-            if (invalidReasons != null)
-            {
-              invalidReasons.add(ERR_ENTRY_TOO_MANY_VALUES.get(rawValues.length,
-                   d.getNameOrOID(), maxValueCount));
-            }
+            invalidReasons.add(ERR_ENTRY_TOO_MANY_VALUES.get(rawValues.length,
+                 d.getNameOrOID(), maxValueCount));
           }
         }
       }
@@ -1701,15 +1706,51 @@ public final class EntryValidator
 
 
   /**
-   * Ensures that all of the auxiliary object classes contained in the object
-   * class set are allowed by the provided DIT content rule.
+   * Retrieves the syntax plan for the provided attribute type, compiling and
+   * caching it if necessary.
    *
-   * @param  ocSet           The set of object classes contained in the entry.
-   * @param  ditContentRule  The DIT content rule to use to make the
-   *                         determination.
-   * @param  invalidReasons  A list to which messages may be added which provide
-   *                         information about why the entry is invalid.  It may
-   *                         be {@code null} if this information is not needed.
+   * @param  d  The attribute type definition for which to retrieve the syntax
+   *            plan.
+   *
+   * @return  The syntax plan for the provided attribute type.
+   */
+  private AttributeSyntaxPlan getAttributeSyntaxPlan(
+               final AttributeTypeDefinition d)
+  {
+    ConcurrentHashMap<AttributeTypeDefinition,AttributeSyntaxPlan> plans =
+         syntaxPlans;
+    if (plans == null)
+    {
+      plans = new ConcurrentHashMap<>(StaticUtils.computeMapCapacity(50));
+      syntaxPlans = plans;
+    }
+
+    AttributeSyntaxPlan plan = plans.get(d);
+    if (plan == null)
+    {
+      plan = new AttributeSyntaxPlan(d,
+           MatchingRule.selectEqualityMatchingRule(d.getNameOrOID(), schema));
+      final AttributeSyntaxPlan existingPlan = plans.putIfAbsent(d, plan);
+      if (existingPlan != null)
+      {
+        plan = existingPlan;
+      }
+    }
+
+    return plan;
+  }
+
+
+
+  /**
+   * Ensures that all of the auxiliary object classes contained in the object
+   * class set are allowed by the provided DIT content rule.
+   *
+   * @param  ocSet           The set of object classes contained in the entry.
+   * @param  ditContentRule  The DIT content rule to use to make the
+   *                         determination.
+   * @param  violations      The list to which any violations identified by
+   *                         this method should be added.
    *
    * @return  {@code true} if the entry passes all checks performed by this
    *          method, or {@code false} if not.
@@ -1717,7 +1758,7 @@ public final class EntryValidator
   private boolean checkAuxiliaryClasses(
                        final HashSet<ObjectClassDefinition> ocSet,
                        final DITContentRuleDefinition ditContentRule,
-                       final List<String> invalidReasons)
+                       final List<Violation> violations)
   {
     final HashSet<ObjectClassDefinition> auxSet =
          new HashSet<>(StaticUtils.computeMapCapacity(20));
@@ -1737,12 +1778,8 @@ public final class EntryValidator
       if ((t == ObjectClassType.AUXILIARY) && (! auxSet.contains(d)))
       {
         entryValid = false;
-        updateCount(d.getNameOrOID(), prohibitedObjectClasses);
-        if (invalidReasons != null)
-        {
-          invalidReasons.add(
-               ERR_ENTRY_AUX_CLASS_NOT_ALLOWED.get(d.getNameOrOID()));
-        }
+        violations.add(new Violation(prohibitedObjectClasses, d.getNameOrOID(),
+             ERR_ENTRY_AUX_CLASS_NOT_ALLOWED.get(d.getNameOrOID())));
       }
     }
 
@@ -1758,12 +1795,8 @@ public final class EntryValidator
    *
    * @param  rdn             The RDN to examine.
    * @param  entry           The entry to examine.
-   * @param  requiredAttrs   The set of attribute types which are required to be
-   *                         included in the entry.
-   * @param  optionalAttrs   The set of attribute types which may optionally be
-   *                         included in the entry.
-   * @param  nameForm        The name for to use to make the determination, if
-   *                         defined.
+   * @param  plan            The validation plan for the entry, which provides
+   *                         the allowed attribute types and the name form.
    * @param  invalidReasons  A list to which messages may be added which provide
    *                         information about why the entry is invalid.  It may
    *                         be {@code null} if this information is not needed.
@@ -1772,36 +1805,18 @@ public final class EntryValidator
    *          method, or {@code false} if not.
    */
   private boolean checkRDN(final RDN rdn, final Entry entry,
-                           final HashSet<AttributeTypeDefinition> requiredAttrs,
-                           final HashSet<AttributeTypeDefinition> optionalAttrs,
-                           final NameFormDefinition nameForm,
+                           final ValidationPlan plan,
                            final List<String> invalidReasons)
   {
+    final Set<AttributeTypeDefinition> requiredAttrs =
+         plan.getRequiredAttributes();
+    final Set<AttributeTypeDefinition> optionalAttrs =
+         plan.getOptionalAttributes();
+    final NameFormDefinition nameForm = plan.getNameForm();
     final HashSet<AttributeTypeDefinition> nfReqAttrs =
-         new HashSet<>(StaticUtils.computeMapCapacity(5));
-    final HashSet<AttributeTypeDefinition> nfAllowedAttrs =
-         new HashSet<>(StaticUtils.computeMapCapacity(5));
-    if (nameForm != null)
-    {
-      for (final String s : nameForm.getRequiredAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if (d != null)
-        {
-          nfReqAttrs.add(d);
-        }
-      }
-
-      nfAllowedAttrs.addAll(nfReqAttrs);
-      for (final String s : nameForm.getOptionalAttributes())
-      {
-        final AttributeTypeDefinition d = schema.getAttributeType(s);
-        if (d != null)
-        {
-          nfAllowedAttrs.add(d);
-        }
-      }
-    }
+         new HashSet<>(plan.getNameFormRequiredAttributes());
+    final Set<AttributeTypeDefinition> nfAllowedAttrs =
+         plan.getNameFormAllowedAttributes();
 
     boolean entryValid = true;
     final String[] attributeNames = rdn.getAttributeNames();
@@ -2519,4 +2534,638 @@ public final class EntryValidator
 
     return Collections.unmodifiableList(messages);
   }
+
+
+
+  /**
+   * This class provides a data structure that holds information about a single
+   * object class violation identified while compiling a validation plan, so
+   * that it can be reported for each entry to which the plan applies.
+   */
+  @NotMutable()
+  @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+  private static final class Violation
+  {
+    // The counter to increment for the violation, if it is not tracked by
+    // name.
+    private final AtomicLong counter;
+
+    // The map in which to update the count for the violation, if it is tracked
+    // by name.
+    private final ConcurrentHashMap<String,AtomicLong> countMap;
+
+    // The message that explains the violation.
+    private final String message;
+
+    // The name with which the violation is tracked in the count map.
+    private final String name;
+
+
+
+    /**
+     * Creates a new violation that is tracked with the provided counter.
+     *
+     * @param  counter  The counter to increment for the violation.
+     * @param  message  The message that explains the violation.
+     */
+    private Violation(final AtomicLong counter, final String message)
+    {
+      this.counter = counter;
+      this.message = message;
+
+      countMap = null;
+      name = null;
+    }
+
+
+
+    /**
+     * Creates a new violation that is tracked by name in the provided map.
+     *
+     * @param  countMap  The map in which to update the count for the
+     *                   violation.
+     * @param  name      The name with which the violation is tracked.
+     * @param  message   The message that explains the violation.
+     */
+    private Violation(final ConcurrentHashMap<String,AtomicLong> countMap,
+                      final String name, final String message)
+    {
+      this.countMap = countMap;
+      this.name = name;
+      this.message = message;
+
+      counter = null;
+    }
+
+
+
+    /**
+     * Records this violation for an entry.
+     *
+     * @param  invalidReasons  A list to which the message for the violation
+     *                         should be added.  It may be {@code null} if this
+     *                         information is not needed.
+     */
+    private void report(final List<String> invalidReasons)
+    {
+      if (counter == null)
+      {
+        updateCount(name, countMap);
+      }
+      else
+      {
+        counter.incrementAndGet();
+      }
+
+      if (invalidReasons != null)
+      {
+        invalidReasons.add(message);
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a data structure that holds the information needed to
+   * validate entries with a given set of object classes.  It is compiled once
+   * for each distinct set of object class values so that the associated schema
+   * elements do not need to be resolved again for every entry.
+   */
+  @NotMutable()
+  @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+  private static final class ValidationPlan
+  {
+    // Indicates whether the auxiliary classes are allowed by the DIT content
+    // rule.
+    private final boolean auxiliaryClassesValid;
+
+    // Indicates whether the object classes passed all validation.
+    private final boolean objectClassesValid;
+
+    // The DIT content rule for the structural class, if any.
+    private final DITContentRuleDefinition ditContentRule;
+
+    // The violations for auxiliary classes not allowed by the DIT content rule.
+    private final List<Violation> auxiliaryClassViolations;
+
+    // The violations identified while resolving the object classes.
+    private final List<Violation> objectClassViolations;
+
+    // The name form for the structural class, if any.
+    private final NameFormDefinition nameForm;
+
+    // The attribute types allowed by the name form.
+    private final Set<AttributeTypeDefinition> nameFormAllowedAttributes;
+
+    // The attribute types required by the name form.
+    private final Set<AttributeTypeDefinition> nameFormRequiredAttributes;
+
+    // The attribute types that may optionally be present in the entry.
+    private final Set<AttributeTypeDefinition> optionalAttributes;
+
+    // The attribute types that must be present in the entry.
+    private final Set<AttributeTypeDefinition> requiredAttributes;
+
+
+
+    /**
+     * Creates a new validation plan with the provided information.
+     *
+     * @param  objectClassesValid          Indicates whether the object classes
+     *                                     passed all validation.
+     * @param  objectClassViolations       The violations identified while
+     *                                     resolving the object classes.
+     * @param  auxiliaryClassesValid       Indicates whether the auxiliary
+     *                                     classes are allowed by the DIT
+     *                                     content rule.
+     * @param  auxiliaryClassViolations    The violations for auxiliary classes
+     *                                     not allowed by the DIT content rule.
+     * @param  ditContentRule              The DIT content rule for the
+     *                                     structural class, if any.
+     * @param  nameForm                    The name form for the structural
+     *                                     class, if any.
+     * @param  requiredAttributes          The attribute types that must be
+     *                                     present in the entry.
+     * @param  optionalAttributes          The attribute types that may
+     *                                     optionally be present in the entry.
+     * @param  nameFormRequiredAttributes  The attribute types required by the
+     *                                     name form.
+     * @param  nameFormAllowedAttributes   The attribute types allowed by the
+     *                                     name form.
+     */
+    private ValidationPlan(final boolean objectClassesValid,
+                 final List<Violation> objectClassViolations,
+                 final boolean auxiliaryClassesValid,
+                 final List<Violation> auxiliaryClassViolations,
+                 final DITContentRuleDefinition ditContentRule,
+                 final NameFormDefinition nameForm,
+                 final Set<AttributeTypeDefinition> requiredAttributes,
+                 final Set<AttributeTypeDefinition> optionalAttributes,
+                 final Set<AttributeTypeDefinition> nameFormRequiredAttributes,
+                 final Set<AttributeTypeDefinition> nameFormAllowedAttributes)
+    {
+      this.objectClassesValid = objectClassesValid;
+      this.objectClassViolations = objectClassViolations;
+      this.auxiliaryClassesValid = auxiliaryClassesValid;
+      this.auxiliaryClassViolations = auxiliaryClassViolations;
+      this.ditContentRule = ditContentRule;
+      this.nameForm = nameForm;
+      this.requiredAttributes = requiredAttributes;
+      this.optionalAttributes = optionalAttributes;
+      this.nameFormRequiredAttributes = nameFormRequiredAttributes;
+      this.nameFormAllowedAttributes = nameFormAllowedAttributes;
+    }
+
+
+
+    /**
+     * Reports any violations identified while resolving the object classes.
+     *
+     * @param  invalidReasons  A list to which messages may be added which
+     *                         provide information about why the entry is
+     *                         invalid.  It may be {@code null} if this
+     *                         information is not needed.
+     *
+     * @return  {@code true} if the object classes passed all validation, or
+     *          {@code false} if not.
+     */
+    private boolean applyObjectClassViolations(
+                         final List<String> invalidReasons)
+    {
+      for (final Violation v : objectClassViolations)
+      {
+        v.report(invalidReasons);
+      }
+
+      return objectClassesValid;
+    }
+
+
+
+    /**
+     * Reports any auxiliary classes that are not allowed by the DIT content
+     * rule.
+     *
+     * @param  invalidReasons  A list to which messages may be added which
+     *                         provide information about why the entry is
+     *                         invalid.  It may be {@code null} if this
+     *                         information is not needed.
+     *
+     * @return  {@code true} if all auxiliary classes are allowed, or
+     *          {@code false} if not.
+     */
+    private boolean applyAuxiliaryClassViolations(
+                         final List<String> invalidReasons)
+    {
+      for (final Violation v : auxiliaryClassViolations)
+      {
+        v.report(invalidReasons);
+      }
+
+      return auxiliaryClassesValid;
+    }
+
+
+
+    /**
+     * Retrieves the DIT content rule for the structural class.
+     *
+     * @return  The DIT content rule for the structural class, or {@code null}
+     *          if there is none.
+     */
+    private DITContentRuleDefinition getDITContentRule()
+    {
+      return ditContentRule;
+    }
+
+
+
+    /**
+     * Retrieves the name form for the structural class.
+     *
+     * @return  The name form for the structural class, or {@code null} if
+     *          there is none.
+     */
+    private NameFormDefinition getNameForm()
+    {
+      return nameForm;
+    }
+
+
+
+    /**
+     * Retrieves the attribute types that must be present in the entry.
+     *
+     * @return  The attribute types that must be present in the entry.
+     */
+    private Set<AttributeTypeDefinition> getRequiredAttributes()
+    {
+      return requiredAttributes;
+    }
+
+
+
+    /**
+     * Retrieves the attribute types that may optionally be present in the
+     * entry.
+     *
+     * @return  The attribute types that may optionally be present in the entry.
+     */
+    private Set<AttributeTypeDefinition> getOptionalAttributes()
+    {
+      return optionalAttributes;
+    }
+
+
+
+    /**
+     * Retrieves the attribute types required by the name form.
+     *
+     * @return  The attribute types required by the name form.
+     */
+    private Set<AttributeTypeDefinition> getNameFormRequiredAttributes()
+    {
+      return nameFormRequiredAttributes;
+    }
+
+
+
+    /**
+     * Retrieves the attribute types allowed by the name form.
+     *
+     * @return  The attribute types allowed by the name form.
+     */
+    private Set<AttributeTypeDefinition> getNameFormAllowedAttributes()
+    {
+      return nameFormAllowedAttributes;
+    }
+  }
+
+
+
+  /**
+   * This class provides a data structure that holds the matching rule and
+   * the parsed value constraint extensions for an attribute type, so that they
+   * do not need to be resolved again for every value that is validated.
+   */
+  @NotMutable()
+  @ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+  private static final class AttributeSyntaxPlan
+  {
+    // The values allowed by the X-ALLOWED-VALUE extension, if any.
+    private final ASN1OctetString[] allowedValues;
+
+    // The maximum number of values from the X-MAX-VALUE-COUNT extension.
+    private final int maxValueCount;
+
+    // The maximum value length from the X-MAX-VALUE-LENGTH extension.
+    private final int maxValueLength;
+
+    // The minimum number of values from the X-MIN-VALUE-COUNT extension.
+    private final int minValueCount;
+
+    // The minimum value length from the X-MIN-VALUE-LENGTH extension.
+    private final int minValueLength;
+
+    // The maximum integer value from the X-MAX-INT-VALUE extension, if any.
+    private final Long maxIntValue;
+
+    // The minimum integer value from the X-MIN-INT-VALUE extension, if any.
+    private final Long minIntValue;
+
+    // The equality matching rule for the attribute type.
+    private final MatchingRule matchingRule;
+
+    // The patterns from the X-VALUE-REGEX extension, if any.
+    private final Pattern[] valuePatterns;
+
+
+
+    /**
+     * Creates a new syntax plan for the provided attribute type.
+     *
+     * @param  d             The attribute type definition for which to create
+     *                       the plan.
+     * @param  matchingRule  The equality matching rule for the attribute type.
+     */
+    private AttributeSyntaxPlan(final AttributeTypeDefinition d,
+                                final MatchingRule matchingRule)
+    {
+      this.matchingRule = matchingRule;
+
+      final Map<String,String[]> extensions = d.getExtensions();
+
+      final String[] allowedStrings = extensions.get("X-ALLOWED-VALUE");
+      if (allowedStrings == null)
+      {
+        allowedValues = null;
+      }
+      else
+      {
+        allowedValues = new ASN1OctetString[allowedStrings.length];
+        for (int i=0; i < allowedStrings.length; i++)
+        {
+          allowedValues[i] = new ASN1OctetString(allowedStrings[i]);
+        }
+      }
+
+      // Any regular expressions that cannot be compiled will never be matched.
+      final String[] regexes = extensions.get("X-VALUE-REGEX");
+      if (regexes == null)
+      {
+        valuePatterns = null;
+      }
+      else
+      {
+        final ArrayList<Pattern> patterns = new ArrayList<>(regexes.length);
+        for (final String regex : regexes)
+        {
+          try
+          {
+            patterns.add(Pattern.compile(regex));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+        valuePatterns = patterns.toArray(new Pattern[patterns.size()]);
+      }
+
+      int minLength = 0;
+      final String[] minValueLengths = extensions.get("X-MIN-VALUE-LENGTH");
+      if (minValueLengths != null)
+      {
+        for (final String s : minValueLengths)
+        {
+          try
+          {
+            minLength = Math.max(minLength, Integer.parseInt(s));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+      }
+      minValueLength = minLength;
+
+      int maxLength = Integer.MAX_VALUE;
+      final String[] maxValueLengths = extensions.get("X-MAX-VALUE-LENGTH");
+      if (maxValueLengths != null)
+      {
+        for (final String s : maxValueLengths)
+        {
+          try
+          {
+            maxLength = Math.min(maxLength, Integer.parseInt(s));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+      }
+      maxValueLength = maxLength;
+
+      final String[] minIntValues = extensions.get("X-MIN-INT-VALUE");
+      if (minIntValues == null)
+      {
+        minIntValue = null;
+      }
+      else
+      {
+        long minAllowedValue = 0L;
+        for (final String s : minIntValues)
+        {
+          try
+          {
+            minAllowedValue = Math.max(minAllowedValue, Long.parseLong(s));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+        minIntValue = minAllowedValue;
+      }
+
+      final String[] maxIntValues = extensions.get("X-MAX-INT-VALUE");
+      if (maxIntValues == null)
+      {
+        maxIntValue = null;
+      }
+      else
+      {
+        long maxAllowedValue = Long.MAX_VALUE;
+        for (final String s : maxIntValues)
+        {
+          try
+          {
+            maxAllowedValue = Math.min(maxAllowedValue, Long.parseLong(s));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+        maxIntValue = maxAllowedValue;
+      }
+
+      int minCount = 0;
+      final String[] minValueCounts = extensions.get("X-MIN-VALUE-COUNT");
+      if (minValueCounts != null)
+      {
+        for (final String s : minValueCounts)
+        {
+          try
+          {
+            minCount = Math.max(minCount, Integer.parseInt(s));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+      }
+      minValueCount = minCount;
+
+      int maxCount = Integer.MAX_VALUE;
+      final String[] maxValueCounts = extensions.get("X-MAX-VALUE-COUNT");
+      if (maxValueCounts != null)
+      {
+        for (final String s : maxValueCounts)
+        {
+          try
+          {
+            maxCount = Math.min(maxCount, Integer.parseInt(s));
+          }
+          catch (final Exception e)
+          {
+            Debug.debugException(e);
+          }
+        }
+      }
+      maxValueCount = maxCount;
+    }
+
+
+
+    /**
+     * Retrieves the equality matching rule for the attribute type.
+     *
+     * @return  The equality matching rule for the attribute type.
+     */
+    private MatchingRule getMatchingRule()
+    {
+      return matchingRule;
+    }
+
+
+
+    /**
+     * Retrieves the values allowed by the X-ALLOWED-VALUE extension.
+     *
+     * @return  The values allowed by the X-ALLOWED-VALUE extension, or
+     *          {@code null} if the extension is not present.
+     */
+    private ASN1OctetString[] getAllowedValues()
+    {
+      return allowedValues;
+    }
+
+
+
+    /**
+     * Retrieves the compiled patterns from the X-VALUE-REGEX extension.
+     *
+     * @return  The compiled patterns from the X-VALUE-REGEX extension, or
+     *          {@code null} if the extension is not present.
+     */
+    private Pattern[] getValuePatterns()
+    {
+      return valuePatterns;
+    }
+
+
+
+    /**
+     * Retrieves the minimum value length from the X-MIN-VALUE-LENGTH
+     * extension.
+     *
+     * @return  The minimum value length, or zero if there is no minimum.
+     */
+    private int getMinValueLength()
+    {
+      return minValueLength;
+    }
+
+
+
+    /**
+     * Retrieves the maximum value length from the X-MAX-VALUE-LENGTH
+     * extension.
+     *
+     * @return  The maximum value length, or {@code Integer.MAX_VALUE} if there
+     *          is no maximum.
+     */
+    private int getMaxValueLength()
+    {
+      return maxValueLength;
+    }
+
+
+
+    /**
+     * Retrieves the minimum integer value from the X-MIN-INT-VALUE extension.
+     *
+     * @return  The minimum integer value, or {@code null} if the extension is
+     *          not present.
+     */
+    private Long getMinIntValue()
+    {
+      return minIntValue;
+    }
+
+
+
+    /**
+     * Retrieves the maximum integer value from the X-MAX-INT-VALUE extension.
+     *
+     * @return  The maximum integer value, or {@code null} if the extension is
+     *          not present.
+     */
+    private Long getMaxIntValue()
+    {
+      return maxIntValue;
+    }
+
+
+
+    /**
+     * Retrieves the minimum number of values from the X-MIN-VALUE-COUNT
+     * extension.
+     *
+     * @return  The minimum number of values, or zero if there is no minimum.
+     */
+    private int getMinValueCount()
+    {
+      return minValueCount;
+    }
+
+
+
+    /**
+     * Retrieves the maximum number of values from the X-MAX-VALUE-COUNT
+     * extension.
+     *
+     * @return  The maximum number of values, or {@code Integer.MAX_VALUE} if
+     *          there is no maximum.
+     */
+    private int getMaxValueCount()
+    {
+      return maxValueCount;
+    }
+  }
 }
@@ -819,6 +819,32 @@ public final class ObjectClassDefinition
    */
   public Set<ObjectClassDefinition> getSuperiorClasses(final Schema schema,
                                                        final boolean recursive)
+  {
+    if (recursive)
+    {
+      return schema.getSuperiorClassClosure(this);
+    }
+    else
+    {
+      return computeSuperiorClasses(schema, false);
+    }
+  }
+
+
+
+  /**
+   * Computes the object class definitions for the superior object classes
+   * without using any previously computed results from the schema.
+   *
+   * @param  schema     The schema to use to retrieve the object class
+   *                    definitions.
+   * @param  recursive  Indicates whether to recursively include all of the
+   *                    superior object class definitions from superior classes.
+   *
+   * @return  The object class definitions for the superior object classes.
+   */
+  Set<ObjectClassDefinition> computeSuperiorClasses(final Schema schema,
+                                                    final boolean recursive)
   {
     final LinkedHashSet<ObjectClassDefinition> ocSet =
          new LinkedHashSet<>(StaticUtils.computeMapCapacity(10));
@@ -953,6 +979,35 @@ public final class ObjectClassDefinition
    */
   public Set<AttributeTypeDefinition> getRequiredAttributes(final Schema schema,
                                            final boolean includeSuperiorClasses)
+  {
+    if (includeSuperiorClasses)
+    {
+      return schema.getRequiredAttributeClosure(this);
+    }
+    else
+    {
+      return computeRequiredAttributes(schema, false);
+    }
+  }
+
+
+
+  /**
+   * Computes the attribute type definitions for the attributes that are
+   * required to be present in entries containing this object class without
+   * using any previously computed results from the schema.
+   *
+   * @param  schema                  The schema to use to retrieve the
+   *                                 attribute type definitions.
+   * @param  includeSuperiorClasses  Indicates whether to include definitions
+   *                                 for required attribute types in superior
+   *                                 object classes.
+   *
+   * @return  The attribute type definitions for the attributes that are
+   *          required to be present in entries containing this object class.
+   */
+  Set<AttributeTypeDefinition> computeRequiredAttributes(final Schema schema,
+                                    final boolean includeSuperiorClasses)
   {
     final HashSet<AttributeTypeDefinition> attrSet =
          new HashSet<>(StaticUtils.computeMapCapacity(20));
@@ -1049,6 +1104,35 @@ public final class ObjectClassDefinition
    */
   public Set<AttributeTypeDefinition> getOptionalAttributes(final Schema schema,
                                            final boolean includeSuperiorClasses)
+  {
+    if (includeSuperiorClasses)
+    {
+      return schema.getOptionalAttributeClosure(this);
+    }
+    else
+    {
+      return computeOptionalAttributes(schema, false);
+    }
+  }
+
+
+
+  /**
+   * Computes the attribute type definitions for the attributes that may
+   * optionally be present in entries containing this object class without
+   * using any previously computed results from the schema.
+   *
+   * @param  schema                  The schema to use to retrieve the
+   *                                 attribute type definitions.
+   * @param  includeSuperiorClasses  Indicates whether to include definitions
+   *                                 for optional attribute types in superior
+   *                                 object classes.
+   *
+   * @return  The attribute type definitions for the attributes that may
+   *          optionally be present in entries containing this object class.
+   */
+  Set<AttributeTypeDefinition> computeOptionalAttributes(final Schema schema,
+                                    final boolean includeSuperiorClasses)
   {
     final HashSet<AttributeTypeDefinition> attrSet =
          new HashSet<>(StaticUtils.computeMapCapacity(20));
@@ -40,6 +40,7 @@ package com.unboundid.ldap.sdk.schema;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -49,8 +50,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.unboundid.asn1.ASN1Element;
+import com.unboundid.asn1.ASN1Integer;
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.asn1.ASN1Sequence;
 import com.unboundid.ldap.sdk.Attribute;
 import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.Filter;
@@ -203,6 +209,14 @@ public final class Schema
 
 
 
+  /**
+   * The version number for the schema snapshot format written by the
+   * {@link #writeSnapshot} method.
+   */
+  private static final int SNAPSHOT_VERSION = 1;
+
+
+
   // A map of all subordinate attribute type definitions for each attribute
   // type definition.
   private final Map<AttributeTypeDefinition,List<AttributeTypeDefinition>>
@@ -283,6 +297,21 @@ public final class Schema
   // The set of structural object classes defined in the schema.
   private final Set<ObjectClassDefinition> structuralOCSet;
 
+  // The optional attribute types for each object class, including those
+  // inherited from superior classes, computed as they are needed.
+  private transient volatile ConcurrentHashMap<ObjectClassDefinition,
+       Set<AttributeTypeDefinition>> optionalAttributeClosures;
+
+  // The required attribute types for each object class, including those
+  // inherited from superior classes, computed as they are needed.
+  private transient volatile ConcurrentHashMap<ObjectClassDefinition,
+       Set<AttributeTypeDefinition>> requiredAttributeClosures;
+
+  // All of the superior classes for each object class, computed as they are
+  // needed.
+  private transient volatile ConcurrentHashMap<ObjectClassDefinition,
+       Set<ObjectClassDefinition>> superiorClassClosures;
+
 
 
   /**
@@ -986,6 +1015,43 @@ public final class Schema
 
 
 
+  /**
+   * Retrieves the schema that governs the specified entry, using the global
+   * schema cache if one has been configured with the
+   * {@link SchemaCache#setGlobalCache} method.
+   *
+   * @param  connection  The connection to use in order to retrieve the server
+   *                     schema.  It must not be {@code null}.
+   * @param  entryDN     The DN of the entry for which to retrieve the governing
+   *                     schema.  It may be {@code null} or an empty string in
+   *                     order to retrieve the schema that governs the server's
+   *                     root DSE.
+   *
+   * @return  The schema that governs the specified entry, or {@code null} if it
+   *          is not available for some reason (e.g., the client does not have
+   *          permission to read the server schema).
+   *
+   * @throws  LDAPException  If a problem occurs while obtaining the server
+   *                         schema.
+   */
+  public static Schema getSchemaUsingGlobalCache(
+                          final LDAPConnection connection,
+                          final String entryDN)
+         throws LDAPException
+  {
+    final SchemaCache cache = SchemaCache.getGlobalCache();
+    if (cache == null)
+    {
+      return getSchema(connection, entryDN);
+    }
+    else
+    {
+      return cache.getSchema(connection, entryDN);
+    }
+  }
+
+
+
   /**
    * Retrieves the directory server schema that governs the specified entry.
    * In some servers, different portions of the DIT may be served by different
@@ -1347,6 +1413,114 @@ public final class Schema
 
 
 
+  /**
+   * Reads a schema from a snapshot written by the {@link #writeSnapshot}
+   * method.  The snapshot is a compact binary representation of the schema
+   * entry, which can be read more efficiently than the LDIF representation
+   * and without the need to communicate with a directory server.  Only a
+   * single snapshot will be read from the input stream, and it will not be
+   * closed by this method.
+   *
+   * @param  inputStream  The input stream from which the snapshot will be
+   *                      read.  It must not be {@code null}.
+   *
+   * @return  The schema read from the snapshot, or {@code null} if the end of
+   *          the input stream is reached without reading any data.
+   *
+   * @throws  IOException  If a problem is encountered while attempting to read
+   *                       from the provided input stream.
+   *
+   * @throws  LDAPException  If the data read cannot be decoded as a schema
+   *                         snapshot.
+   */
+  public static Schema readSnapshot(final InputStream inputStream)
+         throws IOException, LDAPException
+  {
+    Validator.ensureNotNull(inputStream);
+
+    final Entry schemaEntry;
+    try
+    {
+      final ASN1Element element = ASN1Element.readFrom(inputStream);
+      if (element == null)
+      {
+        return null;
+      }
+
+      final ASN1Element[] elements =
+           ASN1Sequence.decodeAsSequence(element).elements();
+      final int version =
+           ASN1Integer.decodeAsInteger(elements[0]).intValue();
+      if (version != SNAPSHOT_VERSION)
+      {
+        throw new LDAPException(ResultCode.DECODING_ERROR,
+             ERR_SCHEMA_SNAPSHOT_UNSUPPORTED_VERSION.get(version));
+      }
+
+      final String dn =
+           ASN1OctetString.decodeAsOctetString(elements[1]).stringValue();
+      final ASN1Element[] attrElements =
+           ASN1Sequence.decodeAsSequence(elements[2]).elements();
+      final ArrayList<Attribute> attrs = new ArrayList<>(attrElements.length);
+      for (final ASN1Element attrElement : attrElements)
+      {
+        attrs.add(Attribute.decode(
+             ASN1Sequence.decodeAsSequence(attrElement)));
+      }
+
+      schemaEntry = new Entry(dn, attrs);
+    }
+    catch (final IOException | LDAPException e)
+    {
+      Debug.debugException(e);
+      throw e;
+    }
+    catch (final Exception e)
+    {
+      Debug.debugException(e);
+      throw new LDAPException(ResultCode.DECODING_ERROR,
+           ERR_SCHEMA_SNAPSHOT_CANNOT_DECODE.get(
+                StaticUtils.getExceptionMessage(e)),
+           e);
+    }
+
+    return new Schema(schemaEntry);
+  }
+
+
+
+  /**
+   * Writes a snapshot of this schema to the provided output stream in a
+   * compact binary form that may be read by the {@link #readSnapshot} method.
+   * The output stream will not be flushed or closed by this method.
+   *
+   * @param  outputStream  The output stream to which the snapshot will be
+   *                       written.  It must not be {@code null}.
+   *
+   * @throws  IOException  If a problem is encountered while attempting to
+   *                       write to the provided output stream.
+   */
+  public void writeSnapshot(final OutputStream outputStream)
+         throws IOException
+  {
+    Validator.ensureNotNull(outputStream);
+
+    final ArrayList<ASN1Element> attrElements =
+         new ArrayList<>(schemaEntry.getAttributes().size());
+    for (final Attribute a : schemaEntry.getAttributes())
+    {
+      attrElements.add(a.encode());
+    }
+
+    final ASN1Sequence snapshotSequence = new ASN1Sequence(
+         new ASN1Integer(SNAPSHOT_VERSION),
+         new ASN1OctetString(schemaEntry.getDN()),
+         new ASN1Sequence(attrElements));
+    snapshotSequence.writeTo(outputStream);
+  }
+
+
+
   /**
    * Retrieves a schema containing all of the elements of each of the provided
    * schemas.
@@ -1505,6 +1679,21 @@ public final class Schema
 
 
 
+  /**
+   * Retrieves the set of attributes that should be requested when retrieving
+   * the server subschema subentry in order to obtain all of the schema
+   * elements.
+   *
+   * @return  The set of attributes that should be requested when retrieving
+   *          the server subschema subentry.
+   */
+  static String[] getSchemaRequestAttributes()
+  {
+    return SCHEMA_REQUEST_ATTRS.clone();
+  }
+
+
+
   /**
    * Retrieves the value of the subschemaSubentry attribute from the specified
    * entry using the provided connection.
@@ -1654,7 +1843,7 @@ public final class Schema
   {
     Validator.ensureNotNull(name);
 
-    return atMap.get(StaticUtils.toLowerCase(name));
+    return getElement(atMap, name);
   }
 
 
@@ -1717,7 +1906,7 @@ public final class Schema
   {
     Validator.ensureNotNull(name);
 
-    return dcrMap.get(StaticUtils.toLowerCase(name));
+    return getElement(dcrMap, name);
   }
 
 
@@ -1767,7 +1956,7 @@ public final class Schema
   {
     Validator.ensureNotNull(ruleName);
 
-    return dsrMapByName.get(StaticUtils.toLowerCase(ruleName));
+    return getElement(dsrMapByName, ruleName);
   }
 
 
@@ -1787,7 +1976,7 @@ public final class Schema
   {
     Validator.ensureNotNull(nameForm);
 
-    return dsrMapByNameForm.get(StaticUtils.toLowerCase(nameForm));
+    return getElement(dsrMapByNameForm, nameForm);
   }
 
 
@@ -1820,7 +2009,7 @@ public final class Schema
   {
     Validator.ensureNotNull(name);
 
-    return mrMap.get(StaticUtils.toLowerCase(name));
+    return getElement(mrMap, name);
   }
 
 
@@ -1853,7 +2042,7 @@ public final class Schema
   {
     Validator.ensureNotNull(name);
 
-    return mruMap.get(StaticUtils.toLowerCase(name));
+    return getElement(mruMap, name);
   }
 
 
@@ -1884,7 +2073,7 @@ public final class Schema
   {
     Validator.ensureNotNull(name);
 
-    return nfMapByName.get(StaticUtils.toLowerCase(name));
+    return getElement(nfMapByName, name);
   }
 
 
@@ -1904,7 +2093,7 @@ public final class Schema
   {
     Validator.ensureNotNull(objectClass);
 
-    return nfMapByOC.get(StaticUtils.toLowerCase(objectClass));
+    return getElement(nfMapByOC, objectClass);
   }
 
 
@@ -1979,7 +2168,137 @@ public final class Schema
   {
     Validator.ensureNotNull(name);
 
-    return ocMap.get(StaticUtils.toLowerCase(name));
+    return getElement(ocMap, name);
+  }
+
+
+
+  /**
+   * Retrieves the schema element with the provided name or OID from the given
+   * map, which must be keyed by lowercase names and OIDs.  Names that are
+   * already all lowercase can be found without creating a lowercase copy.
+   *
+   * @param  <T>   The type of schema element to retrieve.
+   * @param  map   The map from which to retrieve the element.
+   * @param  name  The name or OID of the element to retrieve.
+   *
+   * @return  The requested element, or {@code null} if it is not present in
+   *          the map.
+   */
+  private static <T> T getElement(final Map<String,T> map, final String name)
+  {
+    final T element = map.get(name);
+    if (element == null)
+    {
+      return map.get(StaticUtils.toLowerCase(name));
+    }
+    else
+    {
+      return element;
+    }
+  }
+
+
+
+  /**
+   * Retrieves all of the superior classes for the provided object class,
+   * including those inherited from its superior classes, using a previously
+   * computed set if one is available.
+   *
+   * @param  oc  The object class for which to retrieve the superior classes.
+   *
+   * @return  All of the superior classes for the provided object class.
+   */
+  Set<ObjectClassDefinition> getSuperiorClassClosure(
+                                  final ObjectClassDefinition oc)
+  {
+    ConcurrentHashMap<ObjectClassDefinition,Set<ObjectClassDefinition>> m =
+         superiorClassClosures;
+    if (m == null)
+    {
+      m = new ConcurrentHashMap<>(
+           StaticUtils.computeMapCapacity(ocSet.size()));
+      superiorClassClosures = m;
+    }
+
+    Set<ObjectClassDefinition> closure = m.get(oc);
+    if (closure == null)
+    {
+      closure = oc.computeSuperiorClasses(this, true);
+      m.putIfAbsent(oc, closure);
+    }
+
+    return closure;
+  }
+
+
+
+  /**
+   * Retrieves all of the required attribute types for the provided object
+   * class, including those inherited from its superior classes, using a
+   * previously computed set if one is available.
+   *
+   * @param  oc  The object class for which to retrieve the required attribute
+   *             types.
+   *
+   * @return  All of the required attribute types for the provided object
+   *          class.
+   */
+  Set<AttributeTypeDefinition> getRequiredAttributeClosure(
+                                    final ObjectClassDefinition oc)
+  {
+    ConcurrentHashMap<ObjectClassDefinition,Set<AttributeTypeDefinition>> m =
+         requiredAttributeClosures;
+    if (m == null)
+    {
+      m = new ConcurrentHashMap<>(
+           StaticUtils.computeMapCapacity(ocSet.size()));
+      requiredAttributeClosures = m;
+    }
+
+    Set<AttributeTypeDefinition> closure = m.get(oc);
+    if (closure == null)
+    {
+      closure = oc.computeRequiredAttributes(this, true);
+      m.putIfAbsent(oc, closure);
+    }
+
+    return closure;
+  }
+
+
+
+  /**
+   * Retrieves all of the optional attribute types for the provided object
+   * class, including those inherited from its superior classes, using a
+   * previously computed set if one is available.
+   *
+   * @param  oc  The object class for which to retrieve the optional attribute
+   *             types.
+   *
+   * @return  All of the optional attribute types for the provided object
+   *          class.
+   */
+  Set<AttributeTypeDefinition> getOptionalAttributeClosure(
+                                    final ObjectClassDefinition oc)
+  {
+    ConcurrentHashMap<ObjectClassDefinition,Set<AttributeTypeDefinition>> m =
+         optionalAttributeClosures;
+    if (m == null)
+    {
+      m = new ConcurrentHashMap<>(
+           StaticUtils.computeMapCapacity(ocSet.size()));
+      optionalAttributeClosures = m;
+    }
+
+    Set<AttributeTypeDefinition> closure = m.get(oc);
+    if (closure == null)
+    {
+      closure = oc.computeOptionalAttributes(this, true);
+      m.putIfAbsent(oc, closure);
+    }
+
+    return closure;
   }
 
 
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.schema;
+
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.Filter;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.util.Debug;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a thread-safe cache of directory server schemas that may
+ * be shared across all of the connections and connection pools in a process.
+ * Schemas are cached by the address and port of the server from which they
+ * were retrieved and the DN of the subschema subentry, along with the value of
+ * the subschema subentry's modifyTimestamp attribute.  When a schema is
+ * requested, only the modifyTimestamp attribute is retrieved from the server,
+ * and the full set of schema definitions is only retrieved and parsed if the
+ * schema is not already cached or if it has been modified since it was cached.
+ * Schemas from servers that do not expose a modifyTimestamp value for the
+ * subschema subentry will not be cached.
+ * <BR><BR>
+ * Each cache has a maximum number of schemas that it will hold.  When that
+ * limit is reached, the least recently used schema will be discarded.
+ * <BR><BR>
+ * A global cache may be configured with the {@link #setGlobalCache} method, or
+ * by setting the {@link #PROPERTY_GLOBAL_CACHE_MAX_SIZE} system property to a
+ * positive value.  If a global cache is configured, then it will be used by
+ * the {@link Schema#getSchemaUsingGlobalCache} method, which is in turn used
+ * when retrieving the schema for an {@link LDAPConnection} (including
+ * connections that are part of a connection pool).  By default, no global
+ * cache is configured.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class SchemaCache
+{
+  /**
+   * The name of a system property that can be used to specify the maximum
+   * number of schemas to hold in a global schema cache.  If this is set to a
+   * positive value, then a global cache with that maximum size will be
+   * created when this class is loaded.
+   */
+  public static final String PROPERTY_GLOBAL_CACHE_MAX_SIZE =
+       SchemaCache.class.getName() + ".globalCacheMaxSize";
+
+
+
+  /**
+   * The name of the attribute that holds the time the subschema subentry was
+   * last modified.
+   */
+  private static final String ATTR_MODIFY_TIMESTAMP = "modifyTimestamp";
+
+
+
+  // The global schema cache, if one has been configured.
+  private static volatile SchemaCache globalCache = createDefaultGlobalCache();
+
+
+
+  // The number of times that a requested schema was found in the cache.
+  private final AtomicLong numHits;
+
+  // The number of times that a requested schema was not found in the cache.
+  private final AtomicLong numMisses;
+
+  // The maximum number of schemas to hold in the cache.
+  private final int maxSize;
+
+  // The cached modifyTimestamp values and schemas, indexed by server address,
+  // port, and subschema subentry DN.  All access must be synchronized on the
+  // map.
+  private final LinkedHashMap<String,ObjectPair<String,Schema>> schemas;
+
+
+
+  /**
+   * Creates a new schema cache with the specified maximum size.
+   *
+   * @param  maxSize  The maximum number of schemas to hold in the cache.  It
+   *                  must be greater than zero.
+   */
+  public SchemaCache(final int maxSize)
+  {
+    Validator.ensureTrue((maxSize > 0),
+         "SchemaCache.maxSize must be greater than zero.");
+
+    this.maxSize = maxSize;
+
+    numHits = new AtomicLong(0L);
+    numMisses = new AtomicLong(0L);
+    schemas = new LinkedHashMap<String,ObjectPair<String,Schema>>(
+         StaticUtils.computeMapCapacity(maxSize), 0.75f, true)
+    {
+      private static final long serialVersionUID = 4528409851377024616L;
+
+      @Override()
+      protected boolean removeEldestEntry(
+           final Map.Entry<String,ObjectPair<String,Schema>> eldest)
+      {
+        return (size() > SchemaCache.this.maxSize);
+      }
+    };
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of schemas to hold in the cache.
+   *
+   * @return  The maximum number of schemas to hold in the cache.
+   */
+  public int getMaxSize()
+  {
+    return maxSize;
+  }
+
+
+
+  /**
+   * Retrieves the number of schemas currently held in the cache.
+   *
+   * @return  The number of schemas currently held in the cache.
+   */
+  public int size()
+  {
+    synchronized (schemas)
+    {
+      return schemas.size();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the number of times that a requested schema was found in the
+   * cache and was not modified since it was cached.
+   *
+   * @return  The number of cache hits.
+   */
+  public long getNumHits()
+  {
+    return numHits.get();
+  }
+
+
+
+  /**
+   * Retrieves the number of times that a requested schema was not found in the
+   * cache, or had been modified since it was cached, and had to be retrieved
+   * from the server.
+   *
+   * @return  The number of cache misses.
+   */
+  public long getNumMisses()
+  {
+    return numMisses.get();
+  }
+
+
+
+  /**
+   * Retrieves the schema that governs the specified entry, using a cached
+   * schema if one is available and the schema has not been modified since it
+   * was cached.
+   *
+   * @param  connection  The connection to use in order to retrieve the server
+   *                     schema.  It must not be {@code null}.
+   * @param  entryDN     The DN of the entry for which to retrieve the governing
+   *                     schema.  It may be {@code null} or an empty string in
+   *                     order to retrieve the schema that governs the server's
+   *                     root DSE.
+   *
+   * @return  The schema that governs the specified entry, or {@code null} if it
+   *          is not available for some reason (e.g., the client does not have
+   *          permission to read the server schema).
+   *
+   * @throws  LDAPException  If a problem occurs while obtaining the server
+   *                         schema.
+   */
+  public Schema getSchema(final LDAPConnection connection,
+                          final String entryDN)
+         throws LDAPException
+  {
+    Validator.ensureNotNull(connection);
+
+    final String subschemaSubentryDN =
+         Schema.getSubschemaSubentryDN(connection, entryDN);
+    if (subschemaSubentryDN == null)
+    {
+      return null;
+    }
+
+    final String key = connection.getConnectedAddress() + ':' +
+         connection.getConnectedPort() + ':' +
+         StaticUtils.toLowerCase(subschemaSubentryDN);
+    final Filter filter =
+         Filter.createEqualityFilter("objectClass", "subschema");
+
+    final ObjectPair<String,Schema> cachedPair;
+    synchronized (schemas)
+    {
+      cachedPair = schemas.get(key);
+    }
+
+    if (cachedPair != null)
+    {
+      final Entry timestampEntry = connection.searchForEntry(
+           subschemaSubentryDN, SearchScope.BASE, filter,
+           ATTR_MODIFY_TIMESTAMP);
+      if (timestampEntry == null)
+      {
+        return null;
+      }
+
+      if (cachedPair.getFirst().equals(
+           timestampEntry.getAttributeValue(ATTR_MODIFY_TIMESTAMP)))
+      {
+        numHits.incrementAndGet();
+        return cachedPair.getSecond();
+      }
+    }
+
+    numMisses.incrementAndGet();
+
+    final String[] schemaAttrs = Schema.getSchemaRequestAttributes();
+    final String[] requestAttrs = new String[schemaAttrs.length + 1];
+    System.arraycopy(schemaAttrs, 0, requestAttrs, 0, schemaAttrs.length);
+    requestAttrs[schemaAttrs.length] = ATTR_MODIFY_TIMESTAMP;
+
+    final Entry retrievedEntry = connection.searchForEntry(
+         subschemaSubentryDN, SearchScope.BASE, filter, requestAttrs);
+    if (retrievedEntry == null)
+    {
+      return null;
+    }
+
+    // The modifyTimestamp attribute is not included in the schema entry that
+    // would be retrieved without the cache, so remove it.
+    final String modifyTimestamp =
+         retrievedEntry.getAttributeValue(ATTR_MODIFY_TIMESTAMP);
+    final Schema schema;
+    if (modifyTimestamp == null)
+    {
+      schema = new Schema(retrievedEntry);
+    }
+    else
+    {
+      final Entry schemaEntry = retrievedEntry.duplicate();
+      schemaEntry.removeAttribute(ATTR_MODIFY_TIMESTAMP);
+      schema = new Schema(schemaEntry);
+    }
+
+    synchronized (schemas)
+    {
+      if (modifyTimestamp == null)
+      {
+        schemas.remove(key);
+      }
+      else
+      {
+        schemas.put(key, new ObjectPair<>(modifyTimestamp, schema));
+      }
+    }
+
+    return schema;
+  }
+
+
+
+  /**
+   * Removes all schemas from the cache.
+   */
+  public void clear()
+  {
+    synchronized (schemas)
+    {
+      schemas.clear();
+    }
+  }
+
+
+
+  /**
+   * Retrieves the global schema cache, if one has been configured.
+   *
+   * @return  The global schema cache, or {@code null} if no global cache has
+   *          been configured.
+   */
+  public static SchemaCache getGlobalCache()
+  {
+    return globalCache;
+  }
+
+
+
+  /**
+   * Specifies the global schema cache to use.
+   *
+   * @param  cache  The global schema cache to use.  It may be {@code null} if
+   *                no global cache should be used.
+   */
+  public static void setGlobalCache(final SchemaCache cache)
+  {
+    globalCache = cache;
+  }
+
+
+
+  /**
+   * Creates the global schema cache that should be used by default, based on
+   * the value of the {@link #PROPERTY_GLOBAL_CACHE_MAX_SIZE} system property.
+   *
+   * @return  The global schema cache that should be used by default, or
+   *          {@code null} if no global cache should be used by default.
+   */
+  private static SchemaCache createDefaultGlobalCache()
+  {
+    final String propertyValue =
+         StaticUtils.getSystemProperty(PROPERTY_GLOBAL_CACHE_MAX_SIZE);
+    if (propertyValue != null)
+    {
+      try
+      {
+        final int maxSize = Integer.parseInt(propertyValue);
+        if (maxSize > 0)
+        {
+          return new SchemaCache(maxSize);
+        }
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+
+    return null;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this schema cache.
+   *
+   * @return  A string representation of this schema cache.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this schema cache to the provided
+   * buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("SchemaCache(maxSize=");
+    buffer.append(maxSize);
+    buffer.append(", size=");
+    buffer.append(size());
+    buffer.append(", numHits=");
+    buffer.append(numHits.get());
+    buffer.append(", numMisses=");
+    buffer.append(numMisses.get());
+    buffer.append(')');
+  }
+}
@@ -53,6 +53,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -62,6 +68,7 @@ import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldif.LDIFException;
 import com.unboundid.ldif.LDIFReader;
 import com.unboundid.util.Debug;
+import com.unboundid.util.LDAPSDKThreadFactory;
 import com.unboundid.util.Mutable;
 import com.unboundid.util.OID;
 import com.unboundid.util.StaticUtils;
@@ -97,6 +104,16 @@ import static com.unboundid.ldap.sdk.schema.SchemaMessages.*;
  *       expected pattern.</LI>
  *   <LI>It can optionally validate extensions used in schema elements.</LI>
  * </UL>
+ * <BR><BR>
+ * When validating a large amount of schema, the validator can be configured
+ * to use multiple threads with the {@link #setNumThreads} method.  Those
+ * threads will be used to read and parse the files in a schema directory in
+ * parallel, and to parse and evaluate the rules for attribute type and object
+ * class definitions concurrently.  Files are still validated in lexicographic
+ * order by name against the schema read from all previous files, and
+ * references between definitions are resolved in the order that the
+ * definitions appear, so the resulting schema and the order of any error
+ * messages will be the same as when a single thread is used.
  *
  * It ensures that all definitions can be parsed, contain valid
  * content, do not reference any undefined schema elements, etc.
@@ -121,6 +138,14 @@ public final class SchemaValidator
 
 
 
+  /**
+   * The minimum number of definitions that each thread should process when
+   * definitions are processed concurrently.
+   */
+  private static final int MIN_DEFINITIONS_PER_THREAD = 250;
+
+
+
   static
   {
     boolean pingIdentityDSAvailable = false;
@@ -233,6 +258,13 @@ public final class SchemaValidator
   // Indicates whether to use strict validation when examining numeric OIDs.
   private boolean useStrictOIDValidation;
 
+  // The number of threads to use to process schema files and definitions.
+  private int numThreads;
+
+  // The executor used to process schema files and definitions while schema
+  // is being validated with multiple threads.
+  private ThreadPoolExecutor workerExecutor;
+
   // A list of attribute syntax definitions to use when validating attribute
   // type definitions.
   private List<AttributeSyntaxDefinition> attributeSyntaxList;
@@ -289,6 +321,8 @@ public final class SchemaValidator
     ignoreSchemaFilesNotMatchingFileNamePattern =
          (! PING_IDENTITY_DIRECTORY_SERVER_AVAILABLE);
     useStrictOIDValidation = true;
+    numThreads = 1;
+    workerExecutor = null;
     attributeSyntaxMap = new LinkedHashMap<>();
     attributeSyntaxList = new ArrayList<>();
     matchingRuleMap = new LinkedHashMap<>();
@@ -1469,6 +1503,40 @@ public final class SchemaValidator
 
 
 
+  /**
+   * Retrieves the number of threads that will be used to validate schema.  By
+   * default, a single thread will be used.
+   *
+   * @return  The number of threads that will be used to validate schema.
+   */
+  public int getNumThreads()
+  {
+    return numThreads;
+  }
+
+
+
+  /**
+   * Specifies the number of threads that will be used to validate schema.  If
+   * multiple threads are used, then the files in a schema directory will be
+   * read and parsed in parallel, and the attribute type and object class
+   * definitions in each schema entry will be parsed and checked concurrently.
+   * The schema that is returned and the order of any error messages are not
+   * affected by this setting.
+   *
+   * @param  numThreads  The number of threads that will be used to validate
+   *                     schema.  A value that is less than or equal to one
+   *                     indicates that all processing should be performed in
+   *                     the thread that invokes the {@code validateSchema}
+   *                     method.
+   */
+  public void setNumThreads(final int numThreads)
+  {
+    this.numThreads = Math.max(1, numThreads);
+  }
+
+
+
   /**
    * Validates the schema definitions in the file or set of files at the given
    * path.
@@ -1505,6 +1573,13 @@ public final class SchemaValidator
     final boolean originalAllowEmptyDescription =
          SchemaElement.allowEmptyDescription();
 
+    if (numThreads > 1)
+    {
+      workerExecutor = new ThreadPoolExecutor(numThreads, numThreads, 0L,
+           TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+           new LDAPSDKThreadFactory("SchemaValidator Worker", true));
+    }
+
     try
     {
       SchemaElement.setAllowEmptyDescription(true);
@@ -1563,6 +1638,12 @@ public final class SchemaValidator
     finally
     {
       SchemaElement.setAllowEmptyDescription(originalAllowEmptyDescription);
+
+      if (workerExecutor != null)
+      {
+        workerExecutor.shutdown();
+        workerExecutor = null;
+      }
     }
   }
 
@@ -1623,8 +1704,8 @@ public final class SchemaValidator
     }
     else
     {
-      return validateSchemaFile(schemaPath, errorMessages, existingSchema,
-           schemaFilesProcessed, nonSchemaFilesIgnored);
+      return validateSchemaFile(schemaPath, null, errorMessages,
+           existingSchema, schemaFilesProcessed, nonSchemaFilesIgnored);
     }
   }
 
@@ -1692,11 +1773,14 @@ public final class SchemaValidator
     }
 
 
+    final Map<File,Future<ParsedSchemaFile>> parsedFiles =
+         parseSchemaFilesInParallel(schemaFiles.values());
+
     Schema schema = existingSchema;
     for (final File f : schemaFiles.values())
     {
-      final Schema newSchema = validateSchemaFile(f, errorMessages,
-           schema, schemaFilesProcessed, nonSchemaFilesIgnored);
+      final Schema newSchema = validateSchemaFile(f, parsedFiles.get(f),
+           errorMessages, schema, schemaFilesProcessed, nonSchemaFilesIgnored);
       if (schema == null)
       {
         schema = newSchema;
@@ -1734,6 +1818,11 @@ public final class SchemaValidator
    *              The file containing the schema definitions to validate.  It
    *              must not be {@code null}, it must exist, and it must be a
    *              file.
+   * @param  parsedFile
+   *              A future that may be used to obtain the result of reading
+   *              and parsing the file in a separate thread.  It may be
+   *              {@code null} if the file should be read and parsed by the
+   *              calling thread.
    * @param  errorMessages
    *              A list that will be updated with error messages about any
    *              problems identified during processing.  It must not be
@@ -1759,10 +1848,11 @@ public final class SchemaValidator
    *          existing schema was provided.
    */
   private Schema validateSchemaFile(final File schemaFile,
-                                    final List<String> errorMessages,
-                                    final Schema existingSchema,
-                                    final AtomicInteger schemaFilesProcessed,
-                                    final List<File> nonSchemaFilesIgnored)
+                     final Future<ParsedSchemaFile> parsedFile,
+                     final List<String> errorMessages,
+                     final Schema existingSchema,
+                     final AtomicInteger schemaFilesProcessed,
+                     final List<File> nonSchemaFilesIgnored)
   {
     if (schemaFileNamePattern != null)
     {
@@ -1788,53 +1878,273 @@ public final class SchemaValidator
 
     schemaFilesProcessed.incrementAndGet();
 
+    ParsedSchemaFile parsedSchemaFile = null;
+    if (parsedFile != null)
+    {
+      try
+      {
+        parsedSchemaFile = parsedFile.get();
+      }
+      catch (final Exception e)
+      {
+        // This should only happen if an unexpected error occurred while
+        // parsing the file.  Fall back to parsing it in this thread.
+        Debug.debugException(e);
+        if (e instanceof InterruptedException)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    if (parsedSchemaFile == null)
+    {
+      parsedSchemaFile = readSchemaFile(schemaFile, false);
+    }
+
     Schema newSchema = existingSchema;
-    try (LDIFReader ldifReader = new LDIFReader(schemaFile))
+    final List<ParsedSchemaEntry> entries = parsedSchemaFile.getEntries();
+    for (int i=0; i < entries.size(); i++)
     {
-      Entry schemaEntry = ldifReader.readEntry();
-      if (schemaEntry == null)
+      if ((i > 0) && (! allowMultipleEntriesPerFile))
       {
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_NO_ENTRY_IN_FILE.get(
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_MULTIPLE_ENTRIES_IN_FILE.get(
              schemaFile.getAbsolutePath()));
-        return existingSchema;
+        return newSchema;
+      }
+
+      newSchema = validateSchemaEntry(entries.get(i), schemaFile,
+           errorMessages, newSchema);
+    }
+
+    if (parsedSchemaFile.getIOException() != null)
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_ERROR_READING_FILE.get(
+           schemaFile.getAbsolutePath(),
+           StaticUtils.getExceptionMessage(
+                parsedSchemaFile.getIOException())));
+    }
+    else if (parsedSchemaFile.getLDIFException() != null)
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_MALFORMED_LDIF_ENTRY.get(
+           schemaFile.getAbsolutePath(),
+           parsedSchemaFile.getLDIFException().getMessage()));
+    }
+    else if (entries.isEmpty())
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_NO_ENTRY_IN_FILE.get(
+           schemaFile.getAbsolutePath()));
+    }
+
+    return newSchema;
+  }
+
+
+
+  /**
+   * Starts reading and parsing the provided schema files in parallel, if the
+   * validator is configured to use multiple threads.
+   *
+   * @param  schemaFiles
+   *              The schema files to be read and parsed.  It must not be
+   *              {@code null}.
+   *
+   * @return  A map of the futures that may be used to obtain the parsed
+   *          representation of each file, or an empty map if the files should
+   *          be parsed serially as they are validated.
+   */
+  private Map<File,Future<ParsedSchemaFile>> parseSchemaFilesInParallel(
+               final Collection<File> schemaFiles)
+  {
+    final List<File> filesToParse = new ArrayList<>(schemaFiles.size());
+    for (final File f : schemaFiles)
+    {
+      if ((schemaFileNamePattern == null) ||
+           schemaFileNamePattern.matcher(f.getName()).matches())
+      {
+        filesToParse.add(f);
+      }
+    }
+
+    final ThreadPoolExecutor executor = workerExecutor;
+    if ((executor == null) || (filesToParse.size() <= 1))
+    {
+      return Collections.emptyMap();
+    }
+
+    final Map<File,Future<ParsedSchemaFile>> futures =
+         new HashMap<>(StaticUtils.computeMapCapacity(filesToParse.size()));
+    for (final File f : filesToParse)
+    {
+      futures.put(f, executor.submit(new Callable<ParsedSchemaFile>()
+      {
+        @Override()
+        public ParsedSchemaFile call()
+        {
+          return readSchemaFile(f, true);
+        }
+      }));
+    }
+
+    return futures;
+  }
+
+
+
+  /**
+   * Invokes the provided processor for each of the definitions with an index
+   * from zero up to, but not including, the given number of definitions.  If
+   * the validator is configured to use multiple threads and there are enough
+   * definitions to make it worthwhile, then the definitions will be split into
+   * ranges that are processed concurrently, with one of them processed by the
+   * calling thread.  This method will not return until all of the definitions
+   * have been processed.
+   *
+   * @param  numDefinitions  The number of definitions to process.
+   * @param  processor       The processor to invoke for each definition.  It
+   *                         must be safe to invoke concurrently for different
+   *                         definitions.
+   */
+  private void processDefinitions(final int numDefinitions,
+                                  final DefinitionProcessor processor)
+  {
+    final ThreadPoolExecutor executor = workerExecutor;
+    final int numRanges = Math.min(numThreads,
+         numDefinitions / MIN_DEFINITIONS_PER_THREAD);
+    if ((executor == null) || (numRanges <= 1))
+    {
+      for (int i=0; i < numDefinitions; i++)
+      {
+        processor.process(i);
       }
 
-      newSchema = validateSchemaEntry(schemaEntry, schemaFile, errorMessages,
-           newSchema);
+      return;
+    }
+
+    final List<Future<?>> futures = new ArrayList<>(numRanges - 1);
+    for (int r=1; r < numRanges; r++)
+    {
+      final int startIndex = (int) (((long) numDefinitions) * r / numRanges);
+      final int endIndex =
+           (int) (((long) numDefinitions) * (r + 1) / numRanges);
+      futures.add(executor.submit(new Runnable()
+      {
+        @Override()
+        public void run()
+        {
+          for (int i=startIndex; i < endIndex; i++)
+          {
+            processor.process(i);
+          }
+        }
+      }));
+    }
+
+    final int firstRangeEndIndex = numDefinitions / numRanges;
+    for (int i=0; i < firstRangeEndIndex; i++)
+    {
+      processor.process(i);
+    }
 
+    boolean interrupted = false;
+    for (final Future<?> f : futures)
+    {
       while (true)
       {
-        schemaEntry = ldifReader.readEntry();
+        try
+        {
+          f.get();
+          break;
+        }
+        catch (final InterruptedException e)
+        {
+          // The results of all of the definitions are needed, so keep
+          // waiting, but preserve the interrupt.
+          Debug.debugException(e);
+          interrupted = true;
+        }
+        catch (final ExecutionException e)
+        {
+          Debug.debugException(e);
+          final Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException)
+          {
+            throw (RuntimeException) cause;
+          }
+          else if (cause instanceof Error)
+          {
+            throw (Error) cause;
+          }
+          else
+          {
+            throw new RuntimeException(cause);
+          }
+        }
+      }
+    }
+
+    if (interrupted)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+
+
+  /**
+   * Reads the entries from the specified schema file.  If the file may only
+   * contain a single entry, then no more than two entries will be read, which
+   * is enough to determine whether the file contains multiple entries.
+   *
+   * @param  schemaFile
+   *              The file to be read.  It must not be {@code null}.
+   * @param  parseDefinitions
+   *              Indicates whether to parse the schema definitions in each
+   *              entry that will be validated before returning.  If this is
+   *              {@code false}, then the definitions will be parsed as they
+   *              are needed.
+   *
+   * @return  The parsed representation of the schema file.
+   */
+  private ParsedSchemaFile readSchemaFile(final File schemaFile,
+                                          final boolean parseDefinitions)
+  {
+    final List<ParsedSchemaEntry> entries = new ArrayList<>(1);
+    IOException ioException = null;
+    LDIFException ldifException = null;
+    try (LDIFReader ldifReader = new LDIFReader(schemaFile))
+    {
+      while (allowMultipleEntriesPerFile || (entries.size() < 2))
+      {
+        final Entry schemaEntry = ldifReader.readEntry();
         if (schemaEntry == null)
         {
           break;
         }
 
-        if (! allowMultipleEntriesPerFile)
+        final ParsedSchemaEntry parsedEntry =
+             new ParsedSchemaEntry(schemaEntry);
+        if (parseDefinitions &&
+             (allowMultipleEntriesPerFile || entries.isEmpty()))
         {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_MULTIPLE_ENTRIES_IN_FILE.get(
-               schemaFile.getAbsolutePath()));
-          return newSchema;
+          parsedEntry.parseDefinitions();
         }
 
-        newSchema = validateSchemaEntry(schemaEntry, schemaFile, errorMessages,
-             newSchema);
+        entries.add(parsedEntry);
       }
     }
     catch (final IOException e)
     {
       Debug.debugException(e);
-      errorMessages.add(ERR_SCHEMA_VALIDATOR_ERROR_READING_FILE.get(
-           schemaFile.getAbsolutePath(), StaticUtils.getExceptionMessage(e)));
+      ioException = e;
     }
     catch (final LDIFException e)
     {
       Debug.debugException(e);
-      errorMessages.add(ERR_SCHEMA_VALIDATOR_MALFORMED_LDIF_ENTRY.get(
-           schemaFile.getAbsolutePath(), e.getMessage()));
+      ldifException = e;
     }
 
-    return newSchema;
+    return new ParsedSchemaFile(entries, ioException, ldifException);
   }
 
 
@@ -1842,7 +2152,7 @@ public final class SchemaValidator
   /**
    * Validates the schema definitions in the provided entry.
    *
-   * @param  schemaEntry
+   * @param  parsedEntry
    *              The entry containing the schema definitions to validate.  It
    *              must not be {@code null}.
    * @param  schemaFile
@@ -1863,11 +2173,12 @@ public final class SchemaValidator
    *          schema that is returned will be a merged representation of the
    *          existing schema and the newly loaded schema.
    */
-  private Schema validateSchemaEntry(final Entry schemaEntry,
+  private Schema validateSchemaEntry(final ParsedSchemaEntry parsedEntry,
                                      final File schemaFile,
                                      final List<String> errorMessages,
                                      final Schema existingSchema)
   {
+    final Entry schemaEntry = parsedEntry.getEntry();
     if (schemaEntry.hasAttribute(Schema.ATTR_ATTRIBUTE_SYNTAX))
     {
       validateAttributeSyntaxes(schemaEntry, schemaFile, errorMessages);
@@ -1896,32 +2207,25 @@ public final class SchemaValidator
         configureLDAPSDKDefaultMatchingRules();
       }
 
-      final Map<String,AttributeTypeDefinition> attributeTypeMap =
-           new HashMap<>();
-      validateAttributeTypes(schemaEntry, schemaFile, attributeTypeMap,
-           existingSchema, errorMessages);
+      validateAttributeTypes(schemaEntry, schemaFile, existingSchema,
+           errorMessages);
     }
 
     if (schemaEntry.hasAttribute(Schema.ATTR_OBJECT_CLASS))
     {
-      final Entry schemaEntryWithoutObjectClasses = schemaEntry.duplicate();
-      schemaEntryWithoutObjectClasses.removeAttribute(Schema.ATTR_OBJECT_CLASS);
-      Schema s = new Schema(schemaEntryWithoutObjectClasses);
+      Schema s =
+           parsedEntry.getSchemaWithoutAttribute(Schema.ATTR_OBJECT_CLASS);
       if (existingSchema != null)
       {
         s = Schema.mergeSchemas(existingSchema, s);
       }
 
-      final Map<String,ObjectClassDefinition> objectClassMap = new HashMap<>();
-      validateObjectClasses(schemaEntry, schemaFile, objectClassMap, s,
-           errorMessages);
+      validateObjectClasses(schemaEntry, schemaFile, s, errorMessages);
     }
 
     if (schemaEntry.hasAttribute(Schema.ATTR_NAME_FORM))
     {
-      final Entry schemaEntryWithoutNameForms = schemaEntry.duplicate();
-      schemaEntryWithoutNameForms.removeAttribute(Schema.ATTR_NAME_FORM);
-      Schema s = new Schema(schemaEntryWithoutNameForms);
+      Schema s = parsedEntry.getSchemaWithoutAttribute(Schema.ATTR_NAME_FORM);
       if (existingSchema != null)
       {
         s = Schema.mergeSchemas(existingSchema, s);
@@ -1937,10 +2241,8 @@ public final class SchemaValidator
 
     if (schemaEntry.hasAttribute(Schema.ATTR_DIT_CONTENT_RULE))
     {
-      final Entry schemaEntryWithoutDITContentRules = schemaEntry.duplicate();
-      schemaEntryWithoutDITContentRules.removeAttribute(
+      Schema s = parsedEntry.getSchemaWithoutAttribute(
            Schema.ATTR_DIT_CONTENT_RULE);
-      Schema s = new Schema(schemaEntryWithoutDITContentRules);
       if (existingSchema != null)
       {
         s = Schema.mergeSchemas(existingSchema, s);
@@ -1953,10 +2255,8 @@ public final class SchemaValidator
 
     if (schemaEntry.hasAttribute(Schema.ATTR_DIT_STRUCTURE_RULE))
     {
-      final Entry schemaEntryWithoutDITStructureRules = schemaEntry.duplicate();
-      schemaEntryWithoutDITStructureRules.removeAttribute(
+      Schema s = parsedEntry.getSchemaWithoutAttribute(
            Schema.ATTR_DIT_STRUCTURE_RULE);
-      Schema s = new Schema(schemaEntryWithoutDITStructureRules);
       if (existingSchema != null)
       {
         s = Schema.mergeSchemas(existingSchema, s);
@@ -1972,10 +2272,8 @@ public final class SchemaValidator
 
     if (schemaEntry.hasAttribute(Schema.ATTR_MATCHING_RULE_USE))
     {
-      final Entry schemaEntryWithoutMatchingRuleUses = schemaEntry.duplicate();
-      schemaEntryWithoutMatchingRuleUses.removeAttribute(
+      Schema s = parsedEntry.getSchemaWithoutAttribute(
            Schema.ATTR_MATCHING_RULE_USE);
-      Schema s = new Schema(schemaEntryWithoutMatchingRuleUses);
       if (existingSchema != null)
       {
         s = Schema.mergeSchemas(existingSchema, s);
@@ -1986,7 +2284,7 @@ public final class SchemaValidator
            errorMessages);
     }
 
-    Schema s = new Schema(schemaEntry);
+    Schema s = parsedEntry.getSchema();
     if (existingSchema != null)
     {
       s = Schema.mergeSchemas(existingSchema, s);
@@ -2292,7 +2590,12 @@ public final class SchemaValidator
 
   /**
    * Validates any attribute type definitions contained in the provided schema
-   * entry.
+   * entry.  The definitions are parsed, and then a single pass through them in
+   * order resolves each superior type reference and identifies any duplicate
+   * definitions.  The remaining rules only depend on the results of that pass,
+   * so they are evaluated for each definition independently, and possibly
+   * concurrently.  Error messages are reported in the order of the
+   * definitions, just as if the definitions had been validated one at a time.
    *
    * @param  schemaEntry
    *              The entry containing the schema definitions to validate.  It
@@ -2300,10 +2603,6 @@ public final class SchemaValidator
    * @param  schemaFile
    *              The file from which the schema entry was read.  It must not be
    *              {@code null}.
-   * @param  attributeTypeMap
-   *              A map of the attribute type definitions that have already been
-   *              parsed from the same file.  It must not be {@code null} (but
-   *              may be empty), and it must be updatable.
    * @param  existingSchema
    *              An existing schema that has already been read (e.g., from
    *              earlier schema files).  It may be {@code null} if only the
@@ -2314,330 +2613,431 @@ public final class SchemaValidator
    *              {@code null}, and it must be updatable.
    */
   private void validateAttributeTypes(final Entry schemaEntry,
-                    final File schemaFile,
-                    final Map<String,AttributeTypeDefinition> attributeTypeMap,
-                    final Schema existingSchema,
-                    final List<String> errorMessages)
+                                      final File schemaFile,
+                                      final Schema existingSchema,
+                                      final List<String> errorMessages)
   {
-    for (final String attributeTypeString :
-         schemaEntry.getAttributeValues(Schema.ATTR_ATTRIBUTE_TYPE))
+    final String[] attributeTypeStrings =
+         schemaEntry.getAttributeValues(Schema.ATTR_ATTRIBUTE_TYPE);
+
+    // If attribute types aren't allowed, then report an error for each of them
+    // without doing anything else.
+    if (! allowedSchemaElementTypes.contains(SchemaElementType.ATTRIBUTE_TYPE))
     {
-      // If attribute types aren't allowed, then report an error without doing
-      // anything else.
-      if (! allowedSchemaElementTypes.contains(
-           SchemaElementType.ATTRIBUTE_TYPE))
+      for (final String attributeTypeString : attributeTypeStrings)
       {
         errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NOT_ALLOWED.get(
              schemaFile.getAbsolutePath(), attributeTypeString));
-        continue;
-      }
-
-
-      // Make sure that we can parse the attribute type definition.
-      final AttributeTypeDefinition attributeType;
-      try
-      {
-        attributeType = new AttributeTypeDefinition(attributeTypeString);
-      }
-      catch (final LDAPException e)
-      {
-        Debug.debugException(e);
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_CANNOT_PARSE_AT.get(
-             attributeTypeString, schemaFile.getAbsolutePath(),
-             e.getMessage()));
-        continue;
-      }
-
-
-      // Make sure that the attribute type has a valid numeric OID.
-      try
-      {
-        validateOID(attributeType.getOID(), attributeType.getNames());
-      }
-      catch (final ParseException e)
-      {
-        Debug.debugException(e);
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_INVALID_OID.get(
-             attributeTypeString, schemaFile.getAbsolutePath(),
-             e.getMessage()));
       }
 
+      return;
+    }
 
-      // Make sure that all of the names are valid.
-      if ((attributeType.getNames().length == 0) &&
-           (! allowElementsWithoutNames))
-      {
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NO_NAME.get(
-             attributeTypeString, schemaFile.getAbsolutePath()));
-      }
 
-      for (final String name : attributeType.getNames())
+    // Make sure that we can parse each of the attribute type definitions.
+    final int numDefinitions = attributeTypeStrings.length;
+    final AttributeTypeDefinition[] attributeTypes =
+         new AttributeTypeDefinition[numDefinitions];
+    final String[] parseErrors = new String[numDefinitions];
+    processDefinitions(numDefinitions, new DefinitionProcessor()
+    {
+      @Override()
+      public void process(final int i)
       {
         try
         {
-          validateName(name);
+          attributeTypes[i] =
+               new AttributeTypeDefinition(attributeTypeStrings[i]);
         }
-        catch (final ParseException e)
+        catch (final LDAPException e)
         {
           Debug.debugException(e);
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_INVALID_NAME.get(
-               attributeTypeString, schemaFile.getAbsolutePath(), name,
-               e.getMessage()));
+          parseErrors[i] = ERR_SCHEMA_VALIDATOR_CANNOT_PARSE_AT.get(
+               attributeTypeStrings[i], schemaFile.getAbsolutePath(),
+               e.getMessage());
         }
       }
+    });
 
 
-      // If the attribute type has a description, then make sure it's not empty.
-      if (! allowEmptyDescription)
-      {
-        final String description = attributeType.getDescription();
-        if ((description != null) && description.isEmpty())
-        {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_EMPTY_DESCRIPTION.get(
-               attributeTypeString, schemaFile.getAbsolutePath()));
-        }
-      }
-
-
-      // If the attribute type is declared obsolete, then make sure that's
-      // allowed.
-      if (attributeType.isObsolete() && (! allowObsoleteElements))
+    // Resolve the superior type for each definition against the definitions
+    // that precede it, and identify any definitions that are duplicates.
+    final Map<String,AttributeTypeDefinition> attributeTypeMap =
+         new HashMap<>(StaticUtils.computeMapCapacity(numDefinitions * 2));
+    final AttributeTypeDefinition[] superiorTypes =
+         new AttributeTypeDefinition[numDefinitions];
+    final String[] duplicateErrors = new String[numDefinitions];
+    for (int i=0; i < numDefinitions; i++)
+    {
+      final AttributeTypeDefinition attributeType = attributeTypes[i];
+      if (attributeType == null)
       {
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_OBSOLETE.get(
-             attributeTypeString, schemaFile.getAbsolutePath()));
+        continue;
       }
 
-
-      // Check to see if there is a superior type, and if so, whether it's
-      // defined.
-      AttributeTypeDefinition superiorType;
       final String superiorTypeNameOrOID = attributeType.getSuperiorType();
-      if (superiorTypeNameOrOID == null)
-      {
-        superiorType = null;
-      }
-      else
+      if (superiorTypeNameOrOID != null)
       {
         final String lowerSuperiorTypeNameOrOID =
              StaticUtils.toLowerCase(superiorTypeNameOrOID);
-        superiorType = attributeTypeMap.get(lowerSuperiorTypeNameOrOID);
+        AttributeTypeDefinition superiorType =
+             attributeTypeMap.get(lowerSuperiorTypeNameOrOID);
         if ((superiorType == null) && (existingSchema != null))
         {
           superiorType =
                existingSchema.getAttributeType(lowerSuperiorTypeNameOrOID);
         }
 
-        if ((superiorType == null) &&
-             (! allowReferencesToUndefinedElementTypes.contains(
-                  SchemaElementType.ATTRIBUTE_TYPE)))
-        {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_SUPERIOR.get(
-               attributeTypeString, schemaFile.getAbsolutePath(),
-               superiorTypeNameOrOID));
-        }
+        superiorTypes[i] = superiorType;
       }
 
 
-      // Check to see if there is an equality matching rule.  If not, then we
-      // may want to check to make sure that there is a superior type because
-      // an attribute type without an equality matching rule can be problematic.
-      final String equalityMRNameOrOID =
-           attributeType.getEqualityMatchingRule();
-      if (equalityMRNameOrOID == null)
+      // Make sure that the attribute type isn't already defined.
+      boolean isDuplicate = false;
+      if (! allowRedefiningElements)
       {
-        if ((superiorTypeNameOrOID == null) &&
-             (! allowAttributeTypesWithoutEqualityMatchingRule))
+        final String lowerOID = StaticUtils.toLowerCase(attributeType.getOID());
+        AttributeTypeDefinition existingDefinition =
+             attributeTypeMap.get(lowerOID);
+        if ((existingDefinition == null) && (existingSchema != null))
         {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NO_EQ_MR.get(
-               attributeTypeString, schemaFile.getAbsolutePath()));
+          existingDefinition = existingSchema.getAttributeType(lowerOID);
         }
-      }
 
-
-      // Check to make sure that any declared matching rules are defined in the
-      // schema.
-      if (! allowReferencesToUndefinedElementTypes.contains(
-           SchemaElementType.MATCHING_RULE))
-      {
-        if (equalityMRNameOrOID != null)
+        if (existingDefinition != null)
         {
-          if (! matchingRuleMap.containsKey(
-               StaticUtils.toLowerCase(equalityMRNameOrOID)))
-          {
-            if ((existingSchema == null) ||
-                 (existingSchema.getMatchingRule(equalityMRNameOrOID) == null))
-            {
-              errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_EQ_MR.get(
-                   attributeTypeString, schemaFile.getAbsolutePath(),
-                   equalityMRNameOrOID));
-            }
-          }
+          duplicateErrors[i] =
+               ERR_SCHEMA_VALIDATOR_AT_ALREADY_DEFINED_WITH_OID.get(
+                    attributeTypeStrings[i], schemaFile.getAbsolutePath(),
+                    existingDefinition.toString());
+          isDuplicate = true;
         }
 
-        final String orderingMRNameOrOID =
-             attributeType.getOrderingMatchingRule();
-        if (orderingMRNameOrOID != null)
+        if (! isDuplicate)
         {
-          if (! matchingRuleMap.containsKey(
-               StaticUtils.toLowerCase(orderingMRNameOrOID)))
+          for (final String name : attributeType.getNames())
           {
-            if ((existingSchema == null) ||
-                 (existingSchema.getMatchingRule(orderingMRNameOrOID) == null))
+            final String lowerName = StaticUtils.toLowerCase(name);
+            existingDefinition = attributeTypeMap.get(lowerName);
+            if ((existingDefinition == null) && (existingSchema != null))
             {
-              errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_ORD_MR.get(
-                   attributeTypeString, schemaFile.getAbsolutePath(),
-                   orderingMRNameOrOID));
+              existingDefinition = existingSchema.getAttributeType(lowerName);
             }
-          }
-        }
 
-        final String substringMRNameOrOID =
-             attributeType.getSubstringMatchingRule();
-        if (substringMRNameOrOID != null)
-        {
-          if (! matchingRuleMap.containsKey(
-               StaticUtils.toLowerCase(substringMRNameOrOID)))
-          {
-            if ((existingSchema == null) ||
-                 (existingSchema.getMatchingRule(substringMRNameOrOID) == null))
+            if (existingDefinition != null)
             {
-              errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_SUB_MR.get(
-                   attributeTypeString, schemaFile.getAbsolutePath(),
-                   substringMRNameOrOID));
+              duplicateErrors[i] =
+                   ERR_SCHEMA_VALIDATOR_AT_ALREADY_DEFINED_WITH_NAME.get(
+                        attributeTypeStrings[i], schemaFile.getAbsolutePath(),
+                        name, existingDefinition.toString());
+              isDuplicate = true;
+              break;
             }
           }
         }
       }
 
 
-      // Check to see if there's a syntax.  If not, make sure there's a
-      // superior type.  Otherwise, make sure the syntax OID is valid and
-      // references a known syntax.
-      final String syntaxOID = attributeType.getSyntaxOID();
-      if (syntaxOID == null)
+      // Add the attribute type to the map so it can be referenced by
+      // subordinate types.
+      if (! isDuplicate)
       {
-        if ((superiorTypeNameOrOID == null) &&
-             (! allowAttributeTypesWithoutSyntax))
+        attributeTypeMap.put(StaticUtils.toLowerCase(attributeType.getOID()),
+             attributeType);
+        for (final String name : attributeType.getNames())
         {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NO_SYNTAX.get(
-               attributeTypeString, schemaFile.getAbsolutePath()));
+          attributeTypeMap.put(StaticUtils.toLowerCase(name), attributeType);
         }
       }
-      else if (! allowReferencesToUndefinedElementTypes.contains(
-           SchemaElementType.ATTRIBUTE_SYNTAX))
-      {
-        final String baseOID =
-             AttributeTypeDefinition.getBaseSyntaxOID(syntaxOID);
-        try
-        {
-          validateOID(baseOID, StaticUtils.NO_STRINGS);
-        }
-        catch (final ParseException e)
-        {
-          Debug.debugException(e);
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_INVALID_SYNTAX_OID.get(
-               attributeTypeString, schemaFile.getAbsolutePath(), baseOID,
-               e.getMessage()));
-        }
+    }
 
-        final String lowerSyntaxOID = StaticUtils.toLowerCase(baseOID);
-        if (! attributeSyntaxMap.containsKey(lowerSyntaxOID))
+
+    // Evaluate the rest of the rules for each of the definitions.
+    final List<List<String>> ruleErrors =
+         new ArrayList<>(Collections.<List<String>>nCopies(numDefinitions,
+              null));
+    processDefinitions(numDefinitions, new DefinitionProcessor()
+    {
+      @Override()
+      public void process(final int i)
+      {
+        if (attributeTypes[i] != null)
         {
-          if ((existingSchema == null) ||
-               (existingSchema.getAttributeSyntax(lowerSyntaxOID) == null))
-          {
-            errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_SYNTAX.get(
-                 attributeTypeString, schemaFile.getAbsolutePath(), baseOID));
-          }
+          final List<String> messages = new ArrayList<>(5);
+          validateAttributeType(attributeTypeStrings[i], attributeTypes[i],
+               superiorTypes[i], schemaFile, existingSchema, messages);
+          ruleErrors.set(i, messages);
         }
       }
+    });
+
+    for (int i=0; i < numDefinitions; i++)
+    {
+      if (parseErrors[i] != null)
+      {
+        errorMessages.add(parseErrors[i]);
+        continue;
+      }
+
+      errorMessages.addAll(ruleErrors.get(i));
+      if (duplicateErrors[i] != null)
+      {
+        errorMessages.add(duplicateErrors[i]);
+      }
+    }
+  }
+
+
+
+  /**
+   * Evaluates the rules for a single attribute type definition that do not
+   * depend on any other definitions in the same entry, aside from its
+   * superior type.  This method may be invoked concurrently for different
+   * definitions.
+   *
+   * @param  attributeTypeString
+   *              The string representation of the attribute type definition.
+   *              It must not be {@code null}.
+   * @param  attributeType
+   *              The parsed attribute type definition.  It must not be
+   *              {@code null}.
+   * @param  superiorType
+   *              The definition of the superior type for the attribute type.
+   *              It may be {@code null} if the attribute type does not have a
+   *              superior type or if it is not defined.
+   * @param  schemaFile
+   *              The file from which the definition was read.  It must not be
+   *              {@code null}.
+   * @param  existingSchema
+   *              An existing schema that has already been read (e.g., from
+   *              earlier schema files).  It may be {@code null} if only the
+   *              elements from the current file should be used.
+   * @param  errorMessages
+   *              A list that will be updated with error messages about any
+   *              problems identified during processing.  It must not be
+   *              {@code null}, and it must be updatable.
+   */
+  private void validateAttributeType(final String attributeTypeString,
+                    final AttributeTypeDefinition attributeType,
+                    final AttributeTypeDefinition superiorType,
+                    final File schemaFile, final Schema existingSchema,
+                    final List<String> errorMessages)
+  {
+    // Make sure that the attribute type has a valid numeric OID.
+    try
+    {
+      validateOID(attributeType.getOID(), attributeType.getNames());
+    }
+    catch (final ParseException e)
+    {
+      Debug.debugException(e);
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_INVALID_OID.get(
+           attributeTypeString, schemaFile.getAbsolutePath(),
+           e.getMessage()));
+    }
+
+
+    // Make sure that all of the names are valid.
+    if ((attributeType.getNames().length == 0) &&
+         (! allowElementsWithoutNames))
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NO_NAME.get(
+           attributeTypeString, schemaFile.getAbsolutePath()));
+    }
+
+    for (final String name : attributeType.getNames())
+    {
+      try
+      {
+        validateName(name);
+      }
+      catch (final ParseException e)
+      {
+        Debug.debugException(e);
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_INVALID_NAME.get(
+             attributeTypeString, schemaFile.getAbsolutePath(), name,
+             e.getMessage()));
+      }
+    }
 
 
-      // Check to see if the attribute type is collective, and if so whether
-      // that is allowed.
-      if (attributeType.isCollective() && (! allowCollectiveAttributes))
+    // If the attribute type has a description, then make sure it's not empty.
+    if (! allowEmptyDescription)
+    {
+      final String description = attributeType.getDescription();
+      if ((description != null) && description.isEmpty())
       {
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_COLLECTIVE.get(
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_EMPTY_DESCRIPTION.get(
              attributeTypeString, schemaFile.getAbsolutePath()));
       }
+    }
 
 
-      // Check to see if the attribute type is declared as NO-USER-MODIFICATION,
-      // and if so, then make sure it has an operational usage.
-      if (attributeType.isNoUserModification() &&
-           (! attributeType.isOperational()))
+    // If the attribute type is declared obsolete, then make sure that's
+    // allowed.
+    if (attributeType.isObsolete() && (! allowObsoleteElements))
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_OBSOLETE.get(
+           attributeTypeString, schemaFile.getAbsolutePath()));
+    }
+
+
+    // If the attribute type has a superior type, then make sure that it's
+    // defined.
+    final String superiorTypeNameOrOID = attributeType.getSuperiorType();
+    if ((superiorTypeNameOrOID != null) && (superiorType == null) &&
+         (! allowReferencesToUndefinedElementTypes.contains(
+              SchemaElementType.ATTRIBUTE_TYPE)))
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_SUPERIOR.get(
+           attributeTypeString, schemaFile.getAbsolutePath(),
+           superiorTypeNameOrOID));
+    }
+
+
+    // Check to see if there is an equality matching rule.  If not, then we
+    // may want to check to make sure that there is a superior type because
+    // an attribute type without an equality matching rule can be problematic.
+    final String equalityMRNameOrOID =
+         attributeType.getEqualityMatchingRule();
+    if (equalityMRNameOrOID == null)
+    {
+      if ((superiorTypeNameOrOID == null) &&
+           (! allowAttributeTypesWithoutEqualityMatchingRule))
       {
-        errorMessages.add(
-             ERR_SCHEMA_VALIDATOR_AT_NO_USER_MOD_WITHOUT_OP_USAGE.get(
-                  attributeTypeString, schemaFile.getAbsolutePath()));
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NO_EQ_MR.get(
+             attributeTypeString, schemaFile.getAbsolutePath()));
       }
+    }
 
 
-      // Make sure that the attribute type isn't already defined.
-      boolean isDuplicate = false;
-      if (! allowRedefiningElements)
+    // Check to make sure that any declared matching rules are defined in the
+    // schema.
+    if (! allowReferencesToUndefinedElementTypes.contains(
+         SchemaElementType.MATCHING_RULE))
+    {
+      if (equalityMRNameOrOID != null)
       {
-        final String lowerOID = StaticUtils.toLowerCase(attributeType.getOID());
-        AttributeTypeDefinition existingDefinition =
-             attributeTypeMap.get(lowerOID);
-        if ((existingDefinition == null) && (existingSchema != null))
+        if (! matchingRuleMap.containsKey(
+             StaticUtils.toLowerCase(equalityMRNameOrOID)))
         {
-          existingDefinition = existingSchema.getAttributeType(lowerOID);
+          if ((existingSchema == null) ||
+               (existingSchema.getMatchingRule(equalityMRNameOrOID) == null))
+          {
+            errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_EQ_MR.get(
+                 attributeTypeString, schemaFile.getAbsolutePath(),
+                 equalityMRNameOrOID));
+          }
         }
+      }
 
-        if (existingDefinition != null)
+      final String orderingMRNameOrOID =
+           attributeType.getOrderingMatchingRule();
+      if (orderingMRNameOrOID != null)
+      {
+        if (! matchingRuleMap.containsKey(
+             StaticUtils.toLowerCase(orderingMRNameOrOID)))
         {
-          errorMessages.add(
-               ERR_SCHEMA_VALIDATOR_AT_ALREADY_DEFINED_WITH_OID.get(
-                    attributeTypeString, schemaFile.getAbsolutePath(),
-                    existingDefinition.toString()));
-          isDuplicate = true;
+          if ((existingSchema == null) ||
+               (existingSchema.getMatchingRule(orderingMRNameOrOID) == null))
+          {
+            errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_ORD_MR.get(
+                 attributeTypeString, schemaFile.getAbsolutePath(),
+                 orderingMRNameOrOID));
+          }
         }
+      }
 
-        if (! isDuplicate)
+      final String substringMRNameOrOID =
+           attributeType.getSubstringMatchingRule();
+      if (substringMRNameOrOID != null)
+      {
+        if (! matchingRuleMap.containsKey(
+             StaticUtils.toLowerCase(substringMRNameOrOID)))
         {
-          for (final String name : attributeType.getNames())
+          if ((existingSchema == null) ||
+               (existingSchema.getMatchingRule(substringMRNameOrOID) == null))
           {
-            final String lowerName = StaticUtils.toLowerCase(name);
-            existingDefinition = attributeTypeMap.get(lowerName);
-            if ((existingDefinition == null) && (existingSchema != null))
-            {
-              existingDefinition = existingSchema.getAttributeType(lowerName);
-            }
-
-            if (existingDefinition != null)
-            {
-              errorMessages.add(
-                   ERR_SCHEMA_VALIDATOR_AT_ALREADY_DEFINED_WITH_NAME.get(
-                        attributeTypeString, schemaFile.getAbsolutePath(),
-                        name, existingDefinition.toString()));
-              isDuplicate = true;
-              break;
-            }
+            errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_SUB_MR.get(
+                 attributeTypeString, schemaFile.getAbsolutePath(),
+                 substringMRNameOrOID));
           }
         }
       }
+    }
 
 
-      // Add the attribute type to the map so it can be referenced by
-      // subordinate types.
-      if (! isDuplicate)
+    // Check to see if there's a syntax.  If not, make sure there's a
+    // superior type.  Otherwise, make sure the syntax OID is valid and
+    // references a known syntax.
+    final String syntaxOID = attributeType.getSyntaxOID();
+    if (syntaxOID == null)
+    {
+      if ((superiorTypeNameOrOID == null) &&
+           (! allowAttributeTypesWithoutSyntax))
       {
-        attributeTypeMap.put(StaticUtils.toLowerCase(attributeType.getOID()),
-             attributeType);
-        for (final String name : attributeType.getNames())
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_NO_SYNTAX.get(
+             attributeTypeString, schemaFile.getAbsolutePath()));
+      }
+    }
+    else if (! allowReferencesToUndefinedElementTypes.contains(
+         SchemaElementType.ATTRIBUTE_SYNTAX))
+    {
+      final String baseOID =
+           AttributeTypeDefinition.getBaseSyntaxOID(syntaxOID);
+      try
+      {
+        validateOID(baseOID, StaticUtils.NO_STRINGS);
+      }
+      catch (final ParseException e)
+      {
+        Debug.debugException(e);
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_INVALID_SYNTAX_OID.get(
+             attributeTypeString, schemaFile.getAbsolutePath(), baseOID,
+             e.getMessage()));
+      }
+
+      final String lowerSyntaxOID = StaticUtils.toLowerCase(baseOID);
+      if (! attributeSyntaxMap.containsKey(lowerSyntaxOID))
+      {
+        if ((existingSchema == null) ||
+             (existingSchema.getAttributeSyntax(lowerSyntaxOID) == null))
         {
-          attributeTypeMap.put(StaticUtils.toLowerCase(name), attributeType);
+          errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_UNDEFINED_SYNTAX.get(
+               attributeTypeString, schemaFile.getAbsolutePath(), baseOID));
         }
       }
     }
+
+
+    // Check to see if the attribute type is collective, and if so whether
+    // that is allowed.
+    if (attributeType.isCollective() && (! allowCollectiveAttributes))
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_AT_COLLECTIVE.get(
+           attributeTypeString, schemaFile.getAbsolutePath()));
+    }
+
+
+    // Check to see if the attribute type is declared as NO-USER-MODIFICATION,
+    // and if so, then make sure it has an operational usage.
+    if (attributeType.isNoUserModification() &&
+         (! attributeType.isOperational()))
+    {
+      errorMessages.add(
+           ERR_SCHEMA_VALIDATOR_AT_NO_USER_MOD_WITHOUT_OP_USAGE.get(
+                attributeTypeString, schemaFile.getAbsolutePath()));
+    }
   }
 
 
 
   /**
    * Validates any object class definitions contained in the provided schema
-   * entry.
+   * entry.  As with attribute types, the superior classes for each definition
+   * are resolved and duplicate definitions are identified in a single pass
+   * through the definitions in order, and the remaining rules are evaluated for
+   * each definition independently, and possibly concurrently.
    *
    * @param  schemaEntry
    *              The entry containing the schema definitions to validate.  It
@@ -2645,10 +3045,6 @@ public final class SchemaValidator
    * @param  schemaFile
    *              The file from which the schema entry was read.  It must not be
    *              {@code null}.
-   * @param  objectClassMap
-   *              A map of the object class definitions that have already been
-   *              parsed from the same file.  It must not be {@code null} (but
-   *              may be empty), and it must be updatable.
    * @param  existingSchema
    *              An existing schema that has already been read (e.g., from
    *              earlier schema files).  It must not be {@code null}.
@@ -2658,151 +3054,84 @@ public final class SchemaValidator
    *              {@code null}, and it must be updatable.
    */
   private void validateObjectClasses(final Entry schemaEntry,
-                    final File schemaFile,
-                    final Map<String,ObjectClassDefinition> objectClassMap,
-                    final Schema existingSchema,
-                    final List<String> errorMessages)
+                                     final File schemaFile,
+                                     final Schema existingSchema,
+                                     final List<String> errorMessages)
   {
-    for (final String objectClassString :
-         schemaEntry.getAttributeValues(Schema.ATTR_OBJECT_CLASS))
+    final String[] objectClassStrings =
+         schemaEntry.getAttributeValues(Schema.ATTR_OBJECT_CLASS);
+
+    // If object classes aren't allowed, then report an error for each of them
+    // without doing anything else.
+    if (! allowedSchemaElementTypes.contains(SchemaElementType.OBJECT_CLASS))
     {
-      // If object classes aren't allowed, then report an error without doing
-      // anything else.
-      if (! allowedSchemaElementTypes.contains(SchemaElementType.OBJECT_CLASS))
+      for (final String objectClassString : objectClassStrings)
       {
         errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_NOT_ALLOWED.get(
              schemaFile.getAbsolutePath(), objectClassString));
-        continue;
       }
 
-
-      // Make sure that we can parse the object class definition.
-      final ObjectClassDefinition objectClass;
-      try
-      {
-        objectClass = new ObjectClassDefinition(objectClassString);
-      }
-      catch (final LDAPException e)
-      {
-        Debug.debugException(e);
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_CANNOT_PARSE_OC.get(
-             objectClassString, schemaFile.getAbsolutePath(), e.getMessage()));
-        continue;
-      }
-
-
-      // Make sure that the object class has a valid numeric OID.
-      try
-      {
-        validateOID(objectClass.getOID(), objectClass.getNames());
-      }
-      catch (final ParseException e)
-      {
-        Debug.debugException(e);
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_INVALID_OID.get(
-             objectClassString, schemaFile.getAbsolutePath(), e.getMessage()));
-      }
+      return;
+    }
 
 
-      // Make sure that all of the names are valid.
-      if ((objectClass.getNames().length == 0) &&
-           (! allowElementsWithoutNames))
-      {
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_NO_NAME.get(
-             objectClassString, schemaFile.getAbsolutePath()));
-      }
-
-      for (final String name : objectClass.getNames())
+    // Make sure that we can parse each of the object class definitions.
+    final int numDefinitions = objectClassStrings.length;
+    final ObjectClassDefinition[] objectClasses =
+         new ObjectClassDefinition[numDefinitions];
+    final String[] parseErrors = new String[numDefinitions];
+    processDefinitions(numDefinitions, new DefinitionProcessor()
+    {
+      @Override()
+      public void process(final int i)
       {
         try
         {
-          validateName(name);
+          objectClasses[i] = new ObjectClassDefinition(objectClassStrings[i]);
         }
-        catch (final ParseException e)
+        catch (final LDAPException e)
         {
           Debug.debugException(e);
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_INVALID_NAME.get(
-               objectClassString, schemaFile.getAbsolutePath(), name,
-               e.getMessage()));
-        }
-      }
-
-
-      // If the object class has a description, then make sure it's not empty.
-      if (! allowEmptyDescription)
-      {
-        final String description = objectClass.getDescription();
-        if ((description != null) && description.isEmpty())
-        {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_EMPTY_DESCRIPTION.get(
-               objectClassString, schemaFile.getAbsolutePath()));
+          parseErrors[i] = ERR_SCHEMA_VALIDATOR_CANNOT_PARSE_OC.get(
+               objectClassStrings[i], schemaFile.getAbsolutePath(),
+               e.getMessage());
         }
       }
+    });
 
 
-      // If the object class is declared obsolete, then make sure that's
-      // allowed.
-      if (objectClass.isObsolete() && (! allowObsoleteElements))
-      {
-        errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_OBSOLETE.get(
-             objectClassString, schemaFile.getAbsolutePath()));
-      }
-
-
-      // Validate all of the superior object classes.
-      validateSuperiorObjectClasses(schemaFile, objectClass, objectClassMap,
-           existingSchema, errorMessages);
-
-
-      // Validate all of the required and optional attribute types.
-      final Set<String> requiredAttrNamesAndOIDs = new HashSet<>();
-      for (final String attrNameOrOID : objectClass.getRequiredAttributes())
+    // Resolve the superior classes for each definition against the
+    // definitions that precede it, and identify any definitions that are
+    // duplicates.
+    final Map<String,ObjectClassDefinition> objectClassMap =
+         new HashMap<>(StaticUtils.computeMapCapacity(numDefinitions * 2));
+    final ObjectClassDefinition[][] superiorClasses =
+         new ObjectClassDefinition[numDefinitions][];
+    final String[] duplicateErrors = new String[numDefinitions];
+    for (int i=0; i < numDefinitions; i++)
+    {
+      final ObjectClassDefinition objectClass = objectClasses[i];
+      if (objectClass == null)
       {
-        requiredAttrNamesAndOIDs.add(StaticUtils.toLowerCase(attrNameOrOID));
-        final AttributeTypeDefinition at =
-             existingSchema.getAttributeType(attrNameOrOID);
-        if (at == null)
-        {
-          if (! allowReferencesToUndefinedElementTypes.contains(
-               SchemaElementType.ATTRIBUTE_TYPE))
-          {
-            errorMessages.add(
-                 ERR_SCHEMA_VALIDATOR_OC_UNDEFINED_REQUIRED_ATTR.get(
-                      objectClassString, schemaFile.getAbsolutePath(),
-                      attrNameOrOID));
-          }
-        }
-        else
-        {
-          requiredAttrNamesAndOIDs.add(StaticUtils.toLowerCase(at.getOID()));
-          for (final String name : at.getNames())
-          {
-            requiredAttrNamesAndOIDs.add(StaticUtils.toLowerCase(name));
-          }
-        }
+        continue;
       }
 
-      for (final String attrNameOrOID : objectClass.getOptionalAttributes())
+      final String[] superiorClassNamesOrOIDs =
+           objectClass.getSuperiorClasses();
+      superiorClasses[i] =
+           new ObjectClassDefinition[superiorClassNamesOrOIDs.length];
+      for (int j=0; j < superiorClassNamesOrOIDs.length; j++)
       {
-        if (requiredAttrNamesAndOIDs.contains(
-             StaticUtils.toLowerCase(attrNameOrOID)))
+        final String lowerNameOrOID =
+             StaticUtils.toLowerCase(superiorClassNamesOrOIDs[j]);
+        ObjectClassDefinition superiorClass =
+             objectClassMap.get(lowerNameOrOID);
+        if (superiorClass == null)
         {
-          errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_AT_REQ_AND_OPT.get(
-               objectClassString, schemaFile.getAbsolutePath(),
-               attrNameOrOID));
+          superiorClass = existingSchema.getObjectClass(lowerNameOrOID);
         }
 
-        final AttributeTypeDefinition at =
-             existingSchema.getAttributeType(attrNameOrOID);
-        if ((at == null) &&
-             (! allowReferencesToUndefinedElementTypes.contains(
-                  SchemaElementType.ATTRIBUTE_TYPE)))
-        {
-          errorMessages.add(
-               ERR_SCHEMA_VALIDATOR_OC_UNDEFINED_OPTIONAL_ATTR.get(
-                    objectClassString, schemaFile.getAbsolutePath(),
-                    attrNameOrOID));
-        }
+        superiorClasses[i][j] = superiorClass;
       }
 
 
@@ -2820,10 +3149,10 @@ public final class SchemaValidator
 
         if (existingDefinition != null)
         {
-          errorMessages.add(
+          duplicateErrors[i] =
                ERR_SCHEMA_VALIDATOR_OC_ALREADY_DEFINED_WITH_OID.get(
-                    objectClassString, schemaFile.getAbsolutePath(),
-                    existingDefinition.toString()));
+                    objectClassStrings[i], schemaFile.getAbsolutePath(),
+                    existingDefinition.toString());
           isDuplicate = true;
         }
 
@@ -2840,10 +3169,10 @@ public final class SchemaValidator
 
             if (existingDefinition != null)
             {
-              errorMessages.add(
+              duplicateErrors[i] =
                    ERR_SCHEMA_VALIDATOR_OC_ALREADY_DEFINED_WITH_NAME.get(
-                        objectClassString, schemaFile.getAbsolutePath(),
-                        name, existingDefinition.toString()));
+                        objectClassStrings[i], schemaFile.getAbsolutePath(),
+                        name, existingDefinition.toString());
               isDuplicate = true;
               break;
             }
@@ -2864,6 +3193,192 @@ public final class SchemaValidator
         }
       }
     }
+
+
+    // Evaluate the rest of the rules for each of the definitions.
+    final List<List<String>> ruleErrors =
+         new ArrayList<>(Collections.<List<String>>nCopies(numDefinitions,
+              null));
+    processDefinitions(numDefinitions, new DefinitionProcessor()
+    {
+      @Override()
+      public void process(final int i)
+      {
+        if (objectClasses[i] != null)
+        {
+          final List<String> messages = new ArrayList<>(5);
+          validateObjectClass(objectClassStrings[i], objectClasses[i],
+               superiorClasses[i], schemaFile, existingSchema, messages);
+          ruleErrors.set(i, messages);
+        }
+      }
+    });
+
+    for (int i=0; i < numDefinitions; i++)
+    {
+      if (parseErrors[i] != null)
+      {
+        errorMessages.add(parseErrors[i]);
+        continue;
+      }
+
+      errorMessages.addAll(ruleErrors.get(i));
+      if (duplicateErrors[i] != null)
+      {
+        errorMessages.add(duplicateErrors[i]);
+      }
+    }
+  }
+
+
+
+  /**
+   * Evaluates the rules for a single object class definition that do not
+   * depend on any other definitions in the same entry, aside from its
+   * superior classes.  This method may be invoked concurrently for different
+   * definitions.
+   *
+   * @param  objectClassString
+   *              The string representation of the object class definition.
+   *              It must not be {@code null}.
+   * @param  objectClass
+   *              The parsed object class definition.  It must not be
+   *              {@code null}.
+   * @param  superiorClasses
+   *              The definitions of the superior classes for the object class,
+   *              in the same order as they are listed in the definition, with
+   *              a {@code null} element for any class that is not defined.
+   *              It must not be {@code null}.
+   * @param  schemaFile
+   *              The file from which the definition was read.  It must not be
+   *              {@code null}.
+   * @param  existingSchema
+   *              An existing schema that has already been read (e.g., from
+   *              earlier schema files).  It must not be {@code null}.
+   * @param  errorMessages
+   *              A list that will be updated with error messages about any
+   *              problems identified during processing.  It must not be
+   *              {@code null}, and it must be updatable.
+   */
+  private void validateObjectClass(final String objectClassString,
+                    final ObjectClassDefinition objectClass,
+                    final ObjectClassDefinition[] superiorClasses,
+                    final File schemaFile, final Schema existingSchema,
+                    final List<String> errorMessages)
+  {
+    // Make sure that the object class has a valid numeric OID.
+    try
+    {
+      validateOID(objectClass.getOID(), objectClass.getNames());
+    }
+    catch (final ParseException e)
+    {
+      Debug.debugException(e);
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_INVALID_OID.get(
+           objectClassString, schemaFile.getAbsolutePath(), e.getMessage()));
+    }
+
+
+    // Make sure that all of the names are valid.
+    if ((objectClass.getNames().length == 0) &&
+         (! allowElementsWithoutNames))
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_NO_NAME.get(
+           objectClassString, schemaFile.getAbsolutePath()));
+    }
+
+    for (final String name : objectClass.getNames())
+    {
+      try
+      {
+        validateName(name);
+      }
+      catch (final ParseException e)
+      {
+        Debug.debugException(e);
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_INVALID_NAME.get(
+             objectClassString, schemaFile.getAbsolutePath(), name,
+             e.getMessage()));
+      }
+    }
+
+
+    // If the object class has a description, then make sure it's not empty.
+    if (! allowEmptyDescription)
+    {
+      final String description = objectClass.getDescription();
+      if ((description != null) && description.isEmpty())
+      {
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_EMPTY_DESCRIPTION.get(
+             objectClassString, schemaFile.getAbsolutePath()));
+      }
+    }
+
+
+    // If the object class is declared obsolete, then make sure that's
+    // allowed.
+    if (objectClass.isObsolete() && (! allowObsoleteElements))
+    {
+      errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_OBSOLETE.get(
+           objectClassString, schemaFile.getAbsolutePath()));
+    }
+
+
+    // Validate all of the superior object classes.
+    validateSuperiorObjectClasses(schemaFile, objectClass, superiorClasses,
+         errorMessages);
+
+
+    // Validate all of the required and optional attribute types.
+    final Set<String> requiredAttrNamesAndOIDs = new HashSet<>();
+    for (final String attrNameOrOID : objectClass.getRequiredAttributes())
+    {
+      requiredAttrNamesAndOIDs.add(StaticUtils.toLowerCase(attrNameOrOID));
+      final AttributeTypeDefinition at =
+           existingSchema.getAttributeType(attrNameOrOID);
+      if (at == null)
+      {
+        if (! allowReferencesToUndefinedElementTypes.contains(
+             SchemaElementType.ATTRIBUTE_TYPE))
+        {
+          errorMessages.add(
+               ERR_SCHEMA_VALIDATOR_OC_UNDEFINED_REQUIRED_ATTR.get(
+                    objectClassString, schemaFile.getAbsolutePath(),
+                    attrNameOrOID));
+        }
+      }
+      else
+      {
+        requiredAttrNamesAndOIDs.add(StaticUtils.toLowerCase(at.getOID()));
+        for (final String name : at.getNames())
+        {
+          requiredAttrNamesAndOIDs.add(StaticUtils.toLowerCase(name));
+        }
+      }
+    }
+
+    for (final String attrNameOrOID : objectClass.getOptionalAttributes())
+    {
+      if (requiredAttrNamesAndOIDs.contains(
+           StaticUtils.toLowerCase(attrNameOrOID)))
+      {
+        errorMessages.add(ERR_SCHEMA_VALIDATOR_OC_AT_REQ_AND_OPT.get(
+             objectClassString, schemaFile.getAbsolutePath(),
+             attrNameOrOID));
+      }
+
+      final AttributeTypeDefinition at =
+           existingSchema.getAttributeType(attrNameOrOID);
+      if ((at == null) &&
+           (! allowReferencesToUndefinedElementTypes.contains(
+                SchemaElementType.ATTRIBUTE_TYPE)))
+      {
+        errorMessages.add(
+             ERR_SCHEMA_VALIDATOR_OC_UNDEFINED_OPTIONAL_ATTR.get(
+                  objectClassString, schemaFile.getAbsolutePath(),
+                  attrNameOrOID));
+      }
+    }
   }
 
 
@@ -2878,13 +3393,11 @@ public final class SchemaValidator
    * @param  objectClass
    *              The object class for which to retrieve the superior classes.
    *              It must not be {@code null}.
-   * @param  objectClassMap
-   *              A map of the object class definitions that have already been
-   *              parsed from the same file.  It must not be {@code null} (but
-   *              may be empty), and it must be updatable.
-   * @param  existingSchema
-   *              An existing schema that has already been read (e.g., from
-   *              earlier schema files).  It must not be {@code null} .
+   * @param  resolvedSuperiorClasses
+   *              The definitions of the superior classes for the object class,
+   *              in the same order as they are listed in the definition, with
+   *              a {@code null} element for any class that is not defined.
+   *              It must not be {@code null}.
    * @param  errorMessages
    *              A list that will be updated with error messages about any
    *              problems identified during processing.  It must not be
@@ -2892,8 +3405,8 @@ public final class SchemaValidator
    */
   private void validateSuperiorObjectClasses(final File schemaFile,
        final ObjectClassDefinition objectClass,
-       final Map<String,ObjectClassDefinition> objectClassMap,
-       final Schema existingSchema, final List<String> errorMessages)
+       final ObjectClassDefinition[] resolvedSuperiorClasses,
+       final List<String> errorMessages)
   {
     // If the object class does not define any superior classes, then determine
     // if that's okay.
@@ -2933,15 +3446,10 @@ public final class SchemaValidator
     // Make sure that we can retrieve all of the superior classes.
     final Map<String,ObjectClassDefinition> superiorClasses =
          new LinkedHashMap<>();
-    for (final String nameOrOID : superiorClassNamesOrOIDs)
+    for (int i=0; i < superiorClassNamesOrOIDs.length; i++)
     {
-      final String lowerNameOrOID = StaticUtils.toLowerCase(nameOrOID);
-      ObjectClassDefinition superiorClass = objectClassMap.get(lowerNameOrOID);
-      if (superiorClass == null)
-      {
-        superiorClass = existingSchema.getObjectClass(lowerNameOrOID);
-      }
-
+      final String nameOrOID = superiorClassNamesOrOIDs[i];
+      final ObjectClassDefinition superiorClass = resolvedSuperiorClasses[i];
       if (superiorClass == null)
       {
         if (! allowReferencesToUndefinedElementTypes.contains(
@@ -4327,4 +4835,232 @@ public final class SchemaValidator
       }
     }
   }
+
+
+
+  /**
+   * This class provides a data structure that holds the entries read from a
+   * schema file, along with any exception that prevented the rest of the file
+   * from being read.
+   */
+  private static final class ParsedSchemaFile
+  {
+    // The exception caught while reading the file, if any.
+    private final IOException ioException;
+
+    // The exception caught while parsing an entry from the file, if any.
+    private final LDIFException ldifException;
+
+    // The entries read from the file.
+    private final List<ParsedSchemaEntry> entries;
+
+
+
+    /**
+     * Creates a new parsed schema file with the provided information.
+     *
+     * @param  entries        The entries read from the file.  It must not be
+     *                        {@code null}.
+     * @param  ioException    The exception caught while reading the file.  It
+     *                        may be {@code null} if there was no such
+     *                        exception.
+     * @param  ldifException  The exception caught while parsing an entry from
+     *                        the file.  It may be {@code null} if there was
+     *                        no such exception.
+     */
+    private ParsedSchemaFile(final List<ParsedSchemaEntry> entries,
+                             final IOException ioException,
+                             final LDIFException ldifException)
+    {
+      this.entries = entries;
+      this.ioException = ioException;
+      this.ldifException = ldifException;
+    }
+
+
+
+    /**
+     * Retrieves the entries that were read from the file.
+     *
+     * @return  The entries that were read from the file.
+     */
+    private List<ParsedSchemaEntry> getEntries()
+    {
+      return entries;
+    }
+
+
+
+    /**
+     * Retrieves the exception caught while reading the file, if any.
+     *
+     * @return  The exception caught while reading the file, or {@code null} if
+     *          there was no such exception.
+     */
+    private IOException getIOException()
+    {
+      return ioException;
+    }
+
+
+
+    /**
+     * Retrieves the exception caught while parsing an entry from the file, if
+     * any.
+     *
+     * @return  The exception caught while parsing an entry from the file, or
+     *          {@code null} if there was no such exception.
+     */
+    private LDIFException getLDIFException()
+    {
+      return ldifException;
+    }
+  }
+
+
+
+  /**
+   * This class provides a data structure that holds an entry read from a
+   * schema file, along with the schemas parsed from it.  The schemas are
+   * parsed when they are first needed, unless the {@code parseDefinitions}
+   * method has been called to parse them in advance.  An instance of this
+   * class may be created and populated by one thread and used by another, as
+   * long as there is a happens-before relationship between them (as provided
+   * by {@code Future.get}).
+   */
+  private static final class ParsedSchemaEntry
+  {
+    /**
+     * The names of the attributes whose definitions are validated against a
+     * schema that excludes those definitions.
+     */
+    private static final String[] EXCLUDED_ATTRIBUTE_NAMES =
+    {
+      Schema.ATTR_OBJECT_CLASS,
+      Schema.ATTR_NAME_FORM,
+      Schema.ATTR_DIT_CONTENT_RULE,
+      Schema.ATTR_DIT_STRUCTURE_RULE,
+      Schema.ATTR_MATCHING_RULE_USE
+    };
+
+
+
+    // The entry read from the schema file.
+    private final Entry entry;
+
+    // The schemas parsed from the entry without the definitions of a given
+    // attribute, indexed by attribute name.
+    private final Map<String,Schema> schemasWithoutAttribute;
+
+    // The schema parsed from the complete entry.
+    private Schema schema;
+
+
+
+    /**
+     * Creates a new parsed schema entry for the provided entry.
+     *
+     * @param  entry  The entry read from the schema file.  It must not be
+     *                {@code null}.
+     */
+    private ParsedSchemaEntry(final Entry entry)
+    {
+      this.entry = entry;
+
+      schemasWithoutAttribute = new HashMap<>(
+           StaticUtils.computeMapCapacity(EXCLUDED_ATTRIBUTE_NAMES.length));
+      schema = null;
+    }
+
+
+
+    /**
+     * Parses all of the schemas that will be needed to validate the entry.
+     */
+    private void parseDefinitions()
+    {
+      getSchema();
+
+      for (final String attributeName : EXCLUDED_ATTRIBUTE_NAMES)
+      {
+        if (entry.hasAttribute(attributeName))
+        {
+          getSchemaWithoutAttribute(attributeName);
+        }
+      }
+    }
+
+
+
+    /**
+     * Retrieves the entry read from the schema file.
+     *
+     * @return  The entry read from the schema file.
+     */
+    private Entry getEntry()
+    {
+      return entry;
+    }
+
+
+
+    /**
+     * Retrieves the schema parsed from the complete entry.
+     *
+     * @return  The schema parsed from the complete entry.
+     */
+    private Schema getSchema()
+    {
+      if (schema == null)
+      {
+        schema = new Schema(entry);
+      }
+
+      return schema;
+    }
+
+
+
+    /**
+     * Retrieves the schema parsed from the entry without the definitions
+     * contained in the specified attribute.
+     *
+     * @param  attributeName  The name of the attribute whose definitions
+     *                        should be excluded.  It must not be
+     *                        {@code null}.
+     *
+     * @return  The schema parsed from the entry without the definitions
+     *          contained in the specified attribute.
+     */
+    private Schema getSchemaWithoutAttribute(final String attributeName)
+    {
+      Schema s = schemasWithoutAttribute.get(attributeName);
+      if (s == null)
+      {
+        final Entry entryWithoutAttribute = entry.duplicate();
+        entryWithoutAttribute.removeAttribute(attributeName);
+        s = new Schema(entryWithoutAttribute);
+        schemasWithoutAttribute.put(attributeName, s);
+      }
+
+      return s;
+    }
+  }
+
+
+
+  /**
+   * This interface is used to process a single definition, identified by its
+   * index, as part of a set of definitions that may be processed
+   * concurrently.
+   */
+  private interface DefinitionProcessor
+  {
+    /**
+     * Processes the definition with the given index.
+     *
+     * @param  index  The index of the definition to process.
+     */
+    void process(int index);
+  }
 }
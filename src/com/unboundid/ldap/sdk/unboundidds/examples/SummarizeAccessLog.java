@@ -53,6 +53,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 import javax.crypto.BadPaddingException;
@@ -75,6 +76,7 @@ import com.unboundid.ldap.sdk.unboundidds.logs.DeleteResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.DisconnectAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.ExtendedRequestAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.ExtendedResultAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.FollowingLogFileReader;
 import com.unboundid.ldap.sdk.unboundidds.logs.LogException;
 import com.unboundid.ldap.sdk.unboundidds.logs.ModifyDNResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.ModifyResultAccessLogMessage;
@@ -83,6 +85,8 @@ import com.unboundid.ldap.sdk.unboundidds.logs.SearchRequestAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.SearchResultAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.logs.
             SecurityNegotiationAccessLogMessage;
+import com.unboundid.ldap.sdk.unboundidds.logs.
+            SlidingWindowAccessLogAggregator;
 import com.unboundid.ldap.sdk.unboundidds.logs.UnbindRequestAccessLogMessage;
 import com.unboundid.ldap.sdk.unboundidds.tools.ToolUtils;
 import com.unboundid.util.CommandLineTool;
@@ -146,6 +150,15 @@ import com.unboundid.util.args.IntegerArgument;
  * line.  The log files to be processed should be provided as command-line
  * arguments.
  * <BR><BR>
+ * Alternately, the tool may be run in a follow mode, in which it will tail
+ * the provided log files as they are written by the server (including across
+ * log rotation) and will periodically write a single-line JSON object with
+ * statistics about the operations processed within a sliding window of
+ * recent activity.  This mode only provides a subset of the information
+ * described above, including operation rates, result code counts, a histogram
+ * of operation processing times, and the addresses of the most active
+ * clients.
+ * <BR><BR>
  * The APIs demonstrated by this example include:
  * <UL>
  *   <LI>Access log parsing (from the
@@ -180,6 +193,16 @@ public final class SummarizeAccessLog
   // An argument used to specify the encryption passphrase.
   private FileArgument encryptionPassphraseFile;
 
+  // An argument that may be used to indicate that the tool should follow the
+  // log files and periodically report statistics for recent activity.
+  private BooleanArgument follow;
+
+  // An argument used to specify the interval between reports in follow mode.
+  private DurationArgument reportInterval;
+
+  // An argument used to specify the sliding window duration in follow mode.
+  private DurationArgument windowDuration;
+
   // An argument used to specify the maximum number of values to report for each
   // item.
   private IntegerArgument reportCount;
@@ -331,7 +354,10 @@ public final class SummarizeAccessLog
     doNotAnonymize = null;
     isCompressed = null;
     encryptionPassphraseFile = null;
+    follow = null;
     reportCount = null;
+    reportInterval = null;
+    windowDuration = null;
 
     decimalFormat = new DecimalFormat("0.000");
 
@@ -672,6 +698,48 @@ public final class SummarizeAccessLog
     doNotAnonymize.addLongIdentifier("deAnonymize", true);
     doNotAnonymize.addLongIdentifier("de-anonymize", true);
     parser.addArgument(doNotAnonymize);
+
+
+    // Add an argument that indicates that the tool should follow the log files
+    // rather than summarizing their existing content.
+    description = "Follow the provided log files as they are written by the " +
+         "server (including across log rotation) rather than summarizing " +
+         "their existing content, and periodically write a single-line JSON " +
+         "object with statistics about operations processed within a " +
+         "sliding window of recent activity.  The tool will continue to run " +
+         "until it is interrupted.  This cannot be used with compressed or " +
+         "encrypted log files.";
+    follow = new BooleanArgument(null, "follow", 1, description);
+    follow.addLongIdentifier("tail", true);
+    parser.addArgument(follow);
+
+
+    // Add an argument that specifies how often to report statistics in follow
+    // mode.
+    description = "The length of time between reports when running in " +
+         "follow mode.  If this is not provided, a default of ten seconds " +
+         "will be used.";
+    reportInterval = new DurationArgument(null, "reportInterval", false, null,
+         description, 10L, TimeUnit.SECONDS, 1L, TimeUnit.SECONDS, null, null);
+    reportInterval.addLongIdentifier("report-interval", true);
+    parser.addArgument(reportInterval);
+
+
+    // Add an argument that specifies the sliding window duration for follow
+    // mode.
+    description = "The duration of the sliding window of recent activity " +
+         "covered by each report when running in follow mode.  If this is " +
+         "not provided, a default of one minute will be used.";
+    windowDuration = new DurationArgument(null, "windowDuration", false, null,
+         description, 60L, TimeUnit.SECONDS, 1L, TimeUnit.SECONDS, null, null);
+    windowDuration.addLongIdentifier("window-duration", true);
+    parser.addArgument(windowDuration);
+
+
+    parser.addExclusiveArgumentSet(follow, isCompressed);
+    parser.addExclusiveArgumentSet(follow, encryptionPassphraseFile);
+    parser.addDependentArgumentSet(reportInterval, follow);
+    parser.addDependentArgumentSet(windowDuration, follow);
   }
 
 
@@ -709,6 +777,11 @@ public final class SummarizeAccessLog
   @Override()
   public ResultCode doToolProcessing()
   {
+    if (follow.isPresent())
+    {
+      return doFollowProcessing();
+    }
+
     int displayCount = reportCount.getValue();
     if (displayCount <= 0)
     {
@@ -1420,11 +1493,210 @@ public final class SummarizeAccessLog
          "Analyze the contents of the /ds/logs/access access log file.";
     examples.put(args, description);
 
+    final String[] followArgs =
+    {
+      "--follow",
+      "--reportInterval", "10s",
+      "--windowDuration", "1m",
+      "/ds/logs/access"
+    };
+    final String followDescription =
+         "Follow the /ds/logs/access access log file as it is written, " +
+         "reporting statistics about the last minute of activity every ten " +
+         "seconds.";
+    examples.put(followArgs, followDescription);
+
     return examples;
   }
 
 
 
+  /**
+   * Performs the processing for this tool when it is running in follow mode.
+   * The provided log files will be followed until the tool is interrupted, and
+   * the statistics for the most recent window will be written at regular
+   * intervals.
+   *
+   * @return  A result code that indicates whether the processing completed
+   *          successfully.
+   */
+  private ResultCode doFollowProcessing()
+  {
+    // Divide the window into at most 60 intervals, each of which covers at
+    // least one second.
+    final long windowMillis = windowDuration.getValue(TimeUnit.MILLISECONDS);
+    final long intervalMillis = Math.max(1000L, (windowMillis / 60L));
+    final int numIntervals =
+         (int) Math.max(1L, (windowMillis / intervalMillis));
+    final SlidingWindowAccessLogAggregator aggregator =
+         new SlidingWindowAccessLogAggregator((intervalMillis * numIntervals),
+              numIntervals);
+
+    final List<FollowAccessLogThread> threads = new ArrayList<>(
+         argumentParser.getTrailingArguments().size());
+    for (final String path : argumentParser.getTrailingArguments())
+    {
+      final File f = new File(path);
+      try
+      {
+        threads.add(new FollowAccessLogThread(f, aggregator));
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+        err("Unable to open access log file ", f.getAbsolutePath(), ":  ",
+            StaticUtils.getExceptionMessage(e));
+        for (final FollowAccessLogThread t : threads)
+        {
+          t.shutDown();
+        }
+        return ResultCode.LOCAL_ERROR;
+      }
+    }
+
+    for (final FollowAccessLogThread t : threads)
+    {
+      t.start();
+    }
+
+    final long reportIntervalMillis =
+         reportInterval.getValue(TimeUnit.MILLISECONDS);
+    try
+    {
+      while (true)
+      {
+        Thread.sleep(reportIntervalMillis);
+        out(aggregator.toJSONObject().toSingleLineString());
+
+        boolean anyAlive = false;
+        for (final FollowAccessLogThread t : threads)
+        {
+          if (t.isAlive())
+          {
+            anyAlive = true;
+            break;
+          }
+        }
+
+        if (! anyAlive)
+        {
+          return ResultCode.LOCAL_ERROR;
+        }
+      }
+    }
+    catch (final InterruptedException e)
+    {
+      Debug.debugException(e);
+      Thread.currentThread().interrupt();
+    }
+    finally
+    {
+      for (final FollowAccessLogThread t : threads)
+      {
+        t.shutDown();
+      }
+    }
+
+    return ResultCode.SUCCESS;
+  }
+
+
+
+  /**
+   * This class provides a thread that will follow an access log file and
+   * provide each message that is read to a sliding window aggregator.
+   */
+  private final class FollowAccessLogThread
+          extends Thread
+  {
+    // The reader used to follow the log file.
+    private final FollowingLogFileReader followingReader;
+
+    // The aggregator to which messages should be provided.
+    private final SlidingWindowAccessLogAggregator aggregator;
+
+
+
+    /**
+     * Creates a new thread that will follow the specified log file.
+     *
+     * @param  file        The log file to follow.
+     * @param  aggregator  The aggregator to which messages should be
+     *                     provided.
+     *
+     * @throws  IOException  If a problem occurs while opening the file.
+     */
+    private FollowAccessLogThread(final File file,
+                 final SlidingWindowAccessLogAggregator aggregator)
+            throws IOException
+    {
+      setName("summarize-access-log Follower for " + file.getAbsolutePath());
+      setDaemon(true);
+
+      this.aggregator = aggregator;
+      followingReader = new FollowingLogFileReader(file, true, 250L);
+    }
+
+
+
+    /**
+     * Reads messages from the log file until this thread is shut down or an
+     * unrecoverable error occurs.
+     */
+    @Override()
+    public void run()
+    {
+      final AccessLogReader reader = new AccessLogReader(followingReader);
+      while (true)
+      {
+        final AccessLogMessage msg;
+        try
+        {
+          msg = reader.read();
+        }
+        catch (final LogException le)
+        {
+          Debug.debugException(le);
+          continue;
+        }
+        catch (final IOException ioe)
+        {
+          Debug.debugException(ioe);
+          err("Error reading from access log file ",
+              followingReader.getFile().getAbsolutePath(), ":  ",
+              StaticUtils.getExceptionMessage(ioe));
+          break;
+        }
+
+        if (msg == null)
+        {
+          break;
+        }
+
+        aggregator.processMessage(msg);
+      }
+    }
+
+
+
+    /**
+     * Closes the log file, which will cause this thread to exit.
+     */
+    private void shutDown()
+    {
+      try
+      {
+        followingReader.close();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+  }
+
+
+
   /**
    * Populates the provided processing time map with an initial set of values.
    *
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.logs;
+
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+import com.unboundid.util.WakeableSleeper;
+
+
+
+/**
+ * This class provides a {@code Reader} implementation that can be used to
+ * follow a log file that is still being written, in a manner similar to the
+ * "{@code tail -F}" command.  Rather than reporting the end of the input when
+ * it reaches the end of the file, it will wait for additional data to be
+ * appended.  It will also detect when the log file has been rotated (so that
+ * the path now refers to a different file) or truncated, and will continue
+ * reading from the beginning of the new file after it has consumed all of the
+ * data in the old one.  Reads will only report the end of the input after the
+ * reader has been closed.
+ * <BR><BR>
+ * Because it is a {@code Reader}, it may be used in conjunction with the
+ * {@link AccessLogReader}, {@link AuditLogReader}, or {@link ErrorLogReader}
+ * classes.  For example, the following code will follow the server access log
+ * and invoke a method for each message as it is written:
+ * <PRE>
+ *   FollowingLogFileReader followingReader = new FollowingLogFileReader(
+ *        new File("/ds/logs/access"), true, 250L);
+ *   AccessLogReader accessLogReader = new AccessLogReader(followingReader);
+ *
+ *   AccessLogMessage message;
+ *   while ((message = accessLogReader.read()) != null)
+ *   {
+ *     processMessage(message);
+ *   }
+ * </PRE>
+ * Calling the {@link #close} method from another thread will cause a thread
+ * blocked in a read to return, so that the log reader will report the end of
+ * the input.
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and
+ *   Nokia/Alcatel-Lucent 8661 server products.  These classes provide support
+ *   for proprietary functionality or for external specifications that are not
+ *   considered stable or mature enough to be guaranteed to work in an
+ *   interoperable way with other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.NOT_THREADSAFE)
+public final class FollowingLogFileReader
+       extends Reader
+{
+  /**
+   * The size to use for the byte and character buffers.
+   */
+  private static final int BUFFER_SIZE = 8192;
+
+
+
+  // Indicates whether this reader has been closed.
+  private volatile boolean closed;
+
+  // The buffer used to hold bytes read from the file that have not yet been
+  // decoded.
+  private final ByteBuffer byteBuffer;
+
+  // The buffer used to hold decoded characters that have not yet been returned.
+  private final CharBuffer charBuffer;
+
+  // The decoder used to convert bytes to characters.
+  private final CharsetDecoder decoder;
+
+  // The channel used to read from the file that is currently being followed.
+  private FileChannel channel;
+
+  // The file being followed.
+  private final File file;
+
+  // The length of time in milliseconds to wait before checking for new data
+  // after reaching the end of the file.
+  private final long pollIntervalMillis;
+
+  // The number of times that the file has been reopened as a result of a
+  // rotation or truncation.
+  private volatile long rotationCount;
+
+  // The key that uniquely identifies the file currently being read, if the
+  // underlying file system provides one.
+  private Object fileKey;
+
+  // The sleeper used to wait for new data to become available.
+  private final WakeableSleeper sleeper;
+
+
+
+  /**
+   * Creates a new following log file reader for the specified file.
+   *
+   * @param  file                The log file to follow.  It must not be
+   *                             {@code null}, and it must exist.
+   * @param  startAtEnd          Indicates whether to start reading at the
+   *                             current end of the file (so that only data
+   *                             written after the reader has been created
+   *                             will be returned), or at the beginning of the
+   *                             file.
+   * @param  pollIntervalMillis  The length of time in milliseconds to wait
+   *                             before checking for new data after reaching
+   *                             the end of the file.  It must be greater than
+   *                             zero.
+   *
+   * @throws  IOException  If a problem occurs while opening the file.
+   */
+  public FollowingLogFileReader(final File file, final boolean startAtEnd,
+                                final long pollIntervalMillis)
+         throws IOException
+  {
+    Validator.ensureNotNull(file);
+    Validator.ensureTrue(pollIntervalMillis > 0L,
+         "FollowingLogFileReader.pollIntervalMillis must be greater than " +
+              "zero.");
+
+    this.file = file;
+    this.pollIntervalMillis = pollIntervalMillis;
+
+    closed = false;
+    rotationCount = 0L;
+    sleeper = new WakeableSleeper();
+
+    byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    charBuffer = CharBuffer.allocate(BUFFER_SIZE);
+    charBuffer.flip();
+
+    decoder = StandardCharsets.UTF_8.newDecoder();
+    decoder.onMalformedInput(CodingErrorAction.REPLACE);
+    decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    openFile();
+    if (startAtEnd)
+    {
+      channel.position(channel.size());
+    }
+  }
+
+
+
+  /**
+   * Retrieves the log file being followed.
+   *
+   * @return  The log file being followed.
+   */
+  public File getFile()
+  {
+    return file;
+  }
+
+
+
+  /**
+   * Retrieves the length of time in milliseconds that the reader will wait
+   * before checking for new data after reaching the end of the file.
+   *
+   * @return  The length of time in milliseconds that the reader will wait
+   *          before checking for new data after reaching the end of the file.
+   */
+  public long getPollIntervalMillis()
+  {
+    return pollIntervalMillis;
+  }
+
+
+
+  /**
+   * Retrieves the number of times that this reader has started reading from
+   * the beginning of the file as a result of a log rotation or truncation.
+   *
+   * @return  The number of times that this reader has started reading from the
+   *          beginning of the file as a result of a log rotation or
+   *          truncation.
+   */
+  public long getRotationCount()
+  {
+    return rotationCount;
+  }
+
+
+
+  /**
+   * Opens the file at the configured path and records its file key.
+   *
+   * @throws  IOException  If a problem occurs while opening the file.
+   */
+  private void openFile()
+          throws IOException
+  {
+    final Path path = file.toPath();
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    byteBuffer.clear();
+    decoder.reset();
+  }
+
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override()
+  public int read(final char[] cbuf, final int off, final int len)
+         throws IOException
+  {
+    if (len == 0)
+    {
+      return 0;
+    }
+
+    while (true)
+    {
+      synchronized (lock)
+      {
+        if (closed)
+        {
+          return -1;
+        }
+
+        if (charBuffer.hasRemaining())
+        {
+          final int charsToCopy = Math.min(len, charBuffer.remaining());
+          charBuffer.get(cbuf, off, charsToCopy);
+          return charsToCopy;
+        }
+
+        if (fillCharBuffer() || checkForRotation())
+        {
+          continue;
+        }
+      }
+
+      // There is no more data available at the moment, so wait before trying
+      // again.
+      sleeper.sleep(pollIntervalMillis);
+    }
+  }
+
+
+
+  /**
+   * Attempts to read and decode more data from the current file.
+   *
+   * @return  {@code true} if any data was read from the file, or {@code false}
+   *          if the reader is at the end of the file.
+   *
+   * @throws  IOException  If a problem occurs while reading from the file.
+   */
+  private boolean fillCharBuffer()
+          throws IOException
+  {
+    final int bytesRead = channel.read(byteBuffer);
+    if (bytesRead <= 0)
+    {
+      return false;
+    }
+
+    byteBuffer.flip();
+    charBuffer.clear();
+    decoder.decode(byteBuffer, charBuffer, false);
+    charBuffer.flip();
+    byteBuffer.compact();
+    return true;
+  }
+
+
+
+  /**
+   * Determines whether the file has been rotated or truncated since it was
+   * opened and, if so, prepares to read from the beginning of the new file.
+   * This should only be called after all data has been read from the current
+   * file.
+   *
+   * @return  {@code true} if the file was rotated or truncated and more data
+   *          may be available, or {@code false} if not.
+   *
+   * @throws  IOException  If a problem occurs while opening the new file.
+   */
+  private boolean checkForRotation()
+          throws IOException
+  {
+    final BasicFileAttributes attributes;
+    try
+    {
+      attributes = Files.readAttributes(file.toPath(),
+           BasicFileAttributes.class);
+    }
+    catch (final NoSuchFileException e)
+    {
+      // The file has been moved out of the way but a new one has not yet been
+      // created.  Keep waiting on the current file.
+      Debug.debugException(e);
+      return false;
+    }
+
+    final Object newFileKey = attributes.fileKey();
+    if ((fileKey != null) && (newFileKey != null) &&
+        (! fileKey.equals(newFileKey)))
+    {
+      // Make sure that nothing was written to the old file between the time we
+      // hit the end of it and the time that it was rotated.
+      if (channel.size() > channel.position())
+      {
+        return true;
+      }
+
+      try
+      {
+        channel.close();
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+
+      openFile();
+      rotationCount++;
+      return true;
+    }
+
+    if (attributes.size() < channel.position())
+    {
+      channel.position(0L);
+      byteBuffer.clear();
+      decoder.reset();
+      rotationCount++;
+      return true;
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Closes this reader.  If another thread is blocked waiting for data, then
+   * it will be awakened and will report the end of the input.
+   *
+   * @throws  IOException  If a problem occurs while closing the file.
+   */
+  @Override()
+  public void close()
+         throws IOException
+  {
+    closed = true;
+    sleeper.wakeup();
+
+    synchronized (lock)
+    {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,936 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.logs;
+
+
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.util.Debug;
+import com.unboundid.util.ObjectPair;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+import com.unboundid.util.json.JSONBuffer;
+import com.unboundid.util.json.JSONException;
+import com.unboundid.util.json.JSONObject;
+
+
+
+/**
+ * This class provides a mechanism for maintaining a set of aggregate
+ * statistics about the most recent access log messages that have been
+ * processed, so that they can be periodically reported while a log file is
+ * being followed (for example, with a {@link FollowingLogFileReader}).  The
+ * statistics cover a sliding window of a fixed duration, which is divided into
+ * a number of equally-sized intervals.  Each message is accounted for in the
+ * interval that contains its timestamp, and intervals that fall outside of the
+ * window are discarded and reused, so the amount of memory used by the
+ * aggregator does not depend on the amount of data that has been processed.
+ * <BR><BR>
+ * The statistics that are maintained include:
+ * <UL>
+ *   <LI>The number of connections established and closed.</LI>
+ *   <LI>The number of operations completed, in total and for each operation
+ *       type, as well as the overall operation rate.</LI>
+ *   <LI>The number of operations completed with each result code.</LI>
+ *   <LI>A histogram of operation processing times (etimes).</LI>
+ *   <LI>The client addresses that have requested the most operations.  The
+ *       client address for an operation is determined from the connect
+ *       message for the associated connection, so operations on connections
+ *       established before the aggregator started will not be attributed to a
+ *       client.</LI>
+ * </UL>
+ * <BR>
+ * <BLOCKQUOTE>
+ *   <B>NOTE:</B>  This class, and other classes within the
+ *   {@code com.unboundid.ldap.sdk.unboundidds} package structure, are only
+ *   supported for use against Ping Identity, UnboundID, and
+ *   Nokia/Alcatel-Lucent 8661 server products.  These classes provide support
+ *   for proprietary functionality or for external specifications that are not
+ *   considered stable or mature enough to be guaranteed to work in an
+ *   interoperable way with other types of LDAP servers.
+ * </BLOCKQUOTE>
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class SlidingWindowAccessLogAggregator
+{
+  /**
+   * The default maximum number of client connections for which the aggregator
+   * will remember the client address.
+   */
+  public static final int DEFAULT_MAX_TRACKED_CONNECTIONS = 100_000;
+
+
+
+  /**
+   * The default maximum number of distinct client addresses for which
+   * operation counts will be maintained in each interval.
+   */
+  public static final int DEFAULT_MAX_CLIENTS_PER_INTERVAL = 1_000;
+
+
+
+  /**
+   * The default maximum number of client addresses to include in the list of
+   * top clients.
+   */
+  public static final int DEFAULT_MAX_TOP_CLIENTS = 10;
+
+
+
+  /**
+   * The maximum number of distinct result codes for which counts will be
+   * maintained in each interval.
+   */
+  private static final int MAX_RESULT_CODES_PER_INTERVAL = 100;
+
+
+
+  /**
+   * The upper bounds, in milliseconds, for each of the buckets in the
+   * processing time histogram.
+   */
+  private static final long[] PROCESSING_TIME_UPPER_BOUNDS_MILLIS =
+  {
+    1L, 2L, 3L, 5L, 10L, 20L, 30L, 50L, 100L, 1_000L, 2_000L, 3_000L, 5_000L,
+    10_000L, 20_000L, 30_000L, 60_000L, Long.MAX_VALUE
+  };
+
+
+
+  // The set of intervals that make up the window.
+  private final Interval[] intervals;
+
+  // The maximum number of distinct client addresses for which operation
+  // counts will be maintained in each interval.
+  private final int maxClientsPerInterval;
+
+  // The maximum number of client addresses to include in the list of top
+  // clients.
+  private final int maxTopClients;
+
+  // The duration of each interval, in milliseconds.
+  private final long intervalDurationMillis;
+
+  // The total number of messages that have been processed.
+  private long totalMessagesProcessed;
+
+  // The total number of messages that have been ignored because they were
+  // older than the oldest interval in the window.
+  private long totalMessagesIgnored;
+
+  // A map of connection IDs to client addresses.
+  private final ConnectionAddressMap connectionAddresses;
+
+
+
+  /**
+   * Creates a new sliding window access log aggregator with the provided
+   * window configuration and default limits.
+   *
+   * @param  windowDurationMillis  The duration of the sliding window, in
+   *                               milliseconds.  It must be greater than zero.
+   * @param  numIntervals          The number of intervals into which the
+   *                               window should be divided.  It must be
+   *                               greater than zero, and the window duration
+   *                               must be a multiple of it.
+   */
+  public SlidingWindowAccessLogAggregator(final long windowDurationMillis,
+                                          final int numIntervals)
+  {
+    this(windowDurationMillis, numIntervals, DEFAULT_MAX_TRACKED_CONNECTIONS,
+         DEFAULT_MAX_CLIENTS_PER_INTERVAL, DEFAULT_MAX_TOP_CLIENTS);
+  }
+
+
+
+  /**
+   * Creates a new sliding window access log aggregator with the provided
+   * settings.
+   *
+   * @param  windowDurationMillis   The duration of the sliding window, in
+   *                                milliseconds.  It must be greater than
+   *                                zero.
+   * @param  numIntervals           The number of intervals into which the
+   *                                window should be divided.  It must be
+   *                                greater than zero, and the window duration
+   *                                must be a multiple of it.
+   * @param  maxTrackedConnections  The maximum number of client connections
+   *                                for which the client address should be
+   *                                remembered.  If this is exceeded, then the
+   *                                least recently used connections will be
+   *                                forgotten.  It must be greater than zero.
+   * @param  maxClientsPerInterval  The maximum number of distinct client
+   *                                addresses for which operation counts should
+   *                                be maintained in each interval.  Operations
+   *                                from additional clients will only be
+   *                                included in an aggregate count.  It must be
+   *                                greater than zero.
+   * @param  maxTopClients          The maximum number of client addresses to
+   *                                include in the list of top clients.  It
+   *                                must be greater than or equal to zero.
+   */
+  public SlidingWindowAccessLogAggregator(final long windowDurationMillis,
+                                          final int numIntervals,
+                                          final int maxTrackedConnections,
+                                          final int maxClientsPerInterval,
+                                          final int maxTopClients)
+  {
+    Validator.ensureTrue((numIntervals > 0),
+         "SlidingWindowAccessLogAggregator.numIntervals must be greater " +
+              "than zero.");
+    Validator.ensureTrue(((windowDurationMillis >= numIntervals) &&
+         ((windowDurationMillis % numIntervals) == 0L)),
+         "SlidingWindowAccessLogAggregator.windowDurationMillis must be a " +
+              "positive multiple of numIntervals.");
+    Validator.ensureTrue((maxTrackedConnections > 0),
+         "SlidingWindowAccessLogAggregator.maxTrackedConnections must be " +
+              "greater than zero.");
+    Validator.ensureTrue((maxClientsPerInterval > 0),
+         "SlidingWindowAccessLogAggregator.maxClientsPerInterval must be " +
+              "greater than zero.");
+    Validator.ensureTrue((maxTopClients >= 0),
+         "SlidingWindowAccessLogAggregator.maxTopClients must be greater " +
+              "than or equal to zero.");
+
+    this.maxClientsPerInterval = maxClientsPerInterval;
+    this.maxTopClients = maxTopClients;
+
+    intervalDurationMillis = windowDurationMillis / numIntervals;
+    intervals = new Interval[numIntervals];
+    for (int i=0; i < numIntervals; i++)
+    {
+      intervals[i] = new Interval();
+    }
+
+    connectionAddresses = new ConnectionAddressMap(maxTrackedConnections);
+    totalMessagesProcessed = 0L;
+    totalMessagesIgnored = 0L;
+  }
+
+
+
+  /**
+   * Retrieves the duration of the sliding window, in milliseconds.
+   *
+   * @return  The duration of the sliding window, in milliseconds.
+   */
+  public long getWindowDurationMillis()
+  {
+    return intervalDurationMillis * intervals.length;
+  }
+
+
+
+  /**
+   * Retrieves the number of intervals into which the window is divided.
+   *
+   * @return  The number of intervals into which the window is divided.
+   */
+  public int getNumIntervals()
+  {
+    return intervals.length;
+  }
+
+
+
+  /**
+   * Retrieves the total number of messages that have been processed by this
+   * aggregator.
+   *
+   * @return  The total number of messages that have been processed by this
+   *          aggregator.
+   */
+  public synchronized long getTotalMessagesProcessed()
+  {
+    return totalMessagesProcessed;
+  }
+
+
+
+  /**
+   * Retrieves the total number of messages that were ignored because their
+   * timestamps fell before the start of the current window.
+   *
+   * @return  The total number of messages that were ignored because their
+   *          timestamps fell before the start of the current window.
+   */
+  public synchronized long getTotalMessagesIgnored()
+  {
+    return totalMessagesIgnored;
+  }
+
+
+
+  /**
+   * Updates the aggregate statistics with information from the provided
+   * access log message.
+   *
+   * @param  message  The access log message to process.  It must not be
+   *                  {@code null}.
+   */
+  public synchronized void processMessage(final AccessLogMessage message)
+  {
+    final Date timestamp = message.getTimestamp();
+    final long time;
+    if (timestamp == null)
+    {
+      time = System.currentTimeMillis();
+    }
+    else
+    {
+      time = timestamp.getTime();
+    }
+
+    final Interval interval = getInterval(time);
+    if (interval == null)
+    {
+      totalMessagesIgnored++;
+      return;
+    }
+
+    totalMessagesProcessed++;
+    switch (message.getMessageType())
+    {
+      case CONNECT:
+        interval.connects++;
+        final String sourceAddress =
+             ((ConnectAccessLogMessage) message).getSourceAddress();
+        final Long connectID = message.getConnectionID();
+        if ((sourceAddress != null) && (connectID != null))
+        {
+          connectionAddresses.put(connectID, sourceAddress);
+        }
+        break;
+
+      case DISCONNECT:
+        interval.disconnects++;
+        final Long disconnectID = message.getConnectionID();
+        if (disconnectID != null)
+        {
+          connectionAddresses.remove(disconnectID);
+        }
+        break;
+
+      case REQUEST:
+        // Unbind requests do not have a corresponding result, so count them
+        // as operations when the request is logged.
+        if (((OperationAccessLogMessage) message).getOperationType() ==
+             AccessLogOperationType.UNBIND)
+        {
+          countOperation(interval, message, AccessLogOperationType.UNBIND);
+        }
+        break;
+
+      case RESULT:
+        countOperation(interval, message,
+             ((OperationAccessLogMessage) message).getOperationType());
+
+        final MinimalOperationResultAccessLogMessage resultMessage =
+             (MinimalOperationResultAccessLogMessage) message;
+        final ResultCode resultCode = resultMessage.getResultCode();
+        if (resultCode != null)
+        {
+          final long[] count = interval.resultCodeCounts.get(resultCode);
+          if (count != null)
+          {
+            count[0]++;
+          }
+          else if (interval.resultCodeCounts.size() <
+               MAX_RESULT_CODES_PER_INTERVAL)
+          {
+            interval.resultCodeCounts.put(resultCode, new long[] { 1L });
+          }
+        }
+
+        final Double processingTime = resultMessage.getProcessingTimeMillis();
+        if (processingTime != null)
+        {
+          final double etime = processingTime;
+          interval.processingTimeCount++;
+          interval.totalProcessingTimeMillis += etime;
+          if (etime > interval.maxProcessingTimeMillis)
+          {
+            interval.maxProcessingTimeMillis = etime;
+          }
+
+          for (int i=0; i < PROCESSING_TIME_UPPER_BOUNDS_MILLIS.length; i++)
+          {
+            if (etime < PROCESSING_TIME_UPPER_BOUNDS_MILLIS[i])
+            {
+              interval.processingTimeCounts[i]++;
+              break;
+            }
+          }
+        }
+        break;
+
+      default:
+        // No processing is required for other types of messages.
+        break;
+    }
+  }
+
+
+
+  /**
+   * Updates the provided interval to account for an operation.
+   *
+   * @param  interval       The interval to update.
+   * @param  message        The message for the operation.
+   * @param  operationType  The operation type for the message.
+   */
+  private void countOperation(final Interval interval,
+                              final AccessLogMessage message,
+                              final AccessLogOperationType operationType)
+  {
+    interval.operationCounts[operationType.ordinal()]++;
+
+    final Long connectionID = message.getConnectionID();
+    if (connectionID == null)
+    {
+      return;
+    }
+
+    final String clientAddress = connectionAddresses.get(connectionID);
+    if (clientAddress == null)
+    {
+      return;
+    }
+
+    final long[] count = interval.clientOperationCounts.get(clientAddress);
+    if (count != null)
+    {
+      count[0]++;
+    }
+    else if (interval.clientOperationCounts.size() < maxClientsPerInterval)
+    {
+      interval.clientOperationCounts.put(clientAddress, new long[] { 1L });
+    }
+    else
+    {
+      interval.untrackedClientOperations++;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the interval that should be used for a message with the given
+   * timestamp, resetting it if it was previously used for an older period of
+   * time.
+   *
+   * @param  time  The timestamp for the message.
+   *
+   * @return  The interval that should be used for the message, or {@code null}
+   *          if the message is too old to be included in the window.
+   */
+  private Interval getInterval(final long time)
+  {
+    final long intervalStartTime = time - (time % intervalDurationMillis);
+    final int slot = (int)
+         ((intervalStartTime / intervalDurationMillis) % intervals.length);
+    final Interval interval = intervals[slot];
+    if (interval.startTime == intervalStartTime)
+    {
+      return interval;
+    }
+    else if (interval.startTime > intervalStartTime)
+    {
+      return null;
+    }
+
+    interval.reset(intervalStartTime);
+    return interval;
+  }
+
+
+
+  /**
+   * Retrieves a JSON object with a summary of the statistics for the window
+   * that ends at the current time.
+   *
+   * @return  A JSON object with a summary of the statistics for the window
+   *          that ends at the current time.
+   */
+  public JSONObject toJSONObject()
+  {
+    return toJSONObject(System.currentTimeMillis());
+  }
+
+
+
+  /**
+   * Retrieves a JSON object with a summary of the statistics for the window
+   * that ends at the specified time.
+   *
+   * @param  windowEndTime  The time that should be used as the end of the
+   *                        window.  Any intervals that fall entirely outside
+   *                        of the window ending at this time will be ignored.
+   *
+   * @return  A JSON object with a summary of the statistics for the window
+   *          that ends at the specified time.
+   */
+  public JSONObject toJSONObject(final long windowEndTime)
+  {
+    final JSONBuffer buffer = new JSONBuffer();
+    appendToJSONBuffer(buffer, null, windowEndTime);
+
+    try
+    {
+      return buffer.toJSONObject();
+    }
+    catch (final JSONException e)
+    {
+      // This should never happen, since the buffer will always contain a
+      // valid JSON object.
+      Debug.debugException(e);
+      throw new RuntimeException(e.getMessage(), e);
+    }
+  }
+
+
+
+  /**
+   * Appends a JSON object with a summary of the statistics for the window that
+   * ends at the specified time to the provided buffer.
+   *
+   * @param  buffer         The buffer to which the object should be appended.
+   * @param  fieldName      The name of the field to use for the object.  It
+   *                        may be {@code null} if the object should not be a
+   *                        named field of an enclosing object.
+   * @param  windowEndTime  The time that should be used as the end of the
+   *                        window.  Any intervals that fall entirely outside
+   *                        of the window ending at this time will be ignored.
+   */
+  public synchronized void appendToJSONBuffer(final JSONBuffer buffer,
+                                              final String fieldName,
+                                              final long windowEndTime)
+  {
+    final long windowDurationMillis = getWindowDurationMillis();
+    final long windowStartTime = windowEndTime - windowDurationMillis;
+
+    long connects = 0L;
+    long disconnects = 0L;
+    long processingTimeCount = 0L;
+    long untrackedClientOperations = 0L;
+    double totalProcessingTimeMillis = 0.0d;
+    double maxProcessingTimeMillis = 0.0d;
+    final long[] operationCounts =
+         new long[AccessLogOperationType.values().length];
+    final long[] processingTimeCounts =
+         new long[PROCESSING_TIME_UPPER_BOUNDS_MILLIS.length];
+    final Map<ResultCode,long[]> resultCodeCounts = new HashMap<>(
+         StaticUtils.computeMapCapacity(MAX_RESULT_CODES_PER_INTERVAL));
+    final Map<String,long[]> clientOperationCounts = new HashMap<>(
+         StaticUtils.computeMapCapacity(maxClientsPerInterval));
+
+    for (final Interval interval : intervals)
+    {
+      if ((interval.startTime < 0L) ||
+          ((interval.startTime + intervalDurationMillis) <= windowStartTime) ||
+          (interval.startTime > windowEndTime))
+      {
+        continue;
+      }
+
+      connects += interval.connects;
+      disconnects += interval.disconnects;
+      processingTimeCount += interval.processingTimeCount;
+      untrackedClientOperations += interval.untrackedClientOperations;
+      totalProcessingTimeMillis += interval.totalProcessingTimeMillis;
+      maxProcessingTimeMillis =
+           Math.max(maxProcessingTimeMillis, interval.maxProcessingTimeMillis);
+
+      for (int i=0; i < operationCounts.length; i++)
+      {
+        operationCounts[i] += interval.operationCounts[i];
+      }
+
+      for (int i=0; i < processingTimeCounts.length; i++)
+      {
+        processingTimeCounts[i] += interval.processingTimeCounts[i];
+      }
+
+      mergeCounts(interval.resultCodeCounts, resultCodeCounts);
+      mergeCounts(interval.clientOperationCounts, clientOperationCounts);
+    }
+
+    long totalOperations = 0L;
+    for (final long count : operationCounts)
+    {
+      totalOperations += count;
+    }
+
+
+    if (fieldName == null)
+    {
+      buffer.beginObject();
+    }
+    else
+    {
+      buffer.beginObject(fieldName);
+    }
+
+    buffer.appendString("windowStartTime",
+         StaticUtils.encodeRFC3339Time(windowStartTime));
+    buffer.appendString("windowEndTime",
+         StaticUtils.encodeRFC3339Time(windowEndTime));
+    buffer.appendNumber("windowDurationMillis", windowDurationMillis);
+    buffer.appendNumber("connectsEstablished", connects);
+    buffer.appendNumber("connectionsClosed", disconnects);
+
+    buffer.beginObject("operations");
+    buffer.appendNumber("total", totalOperations);
+    buffer.appendNumber("perSecond",
+         toDecimal((totalOperations * 1000.0d) / windowDurationMillis));
+    for (final AccessLogOperationType t : AccessLogOperationType.values())
+    {
+      buffer.appendNumber(StaticUtils.toLowerCase(t.name()),
+           operationCounts[t.ordinal()]);
+    }
+    buffer.endObject();
+
+    buffer.beginArray("resultCodes");
+    for (final ObjectPair<ResultCode,Long> p :
+         getSortedCounts(resultCodeCounts, Integer.MAX_VALUE))
+    {
+      buffer.beginObject();
+      buffer.appendNumber("resultCode", p.getFirst().intValue());
+      buffer.appendString("name", p.getFirst().getName());
+      buffer.appendNumber("count", p.getSecond());
+      buffer.endObject();
+    }
+    buffer.endArray();
+
+    buffer.beginObject("processingTimeMillis");
+    buffer.appendNumber("count", processingTimeCount);
+    if (processingTimeCount > 0L)
+    {
+      buffer.appendNumber("average",
+           toDecimal(totalProcessingTimeMillis / processingTimeCount));
+      buffer.appendNumber("maximum", toDecimal(maxProcessingTimeMillis));
+    }
+    buffer.beginArray("histogram");
+    long lowerBound = 0L;
+    for (int i=0; i < processingTimeCounts.length; i++)
+    {
+      buffer.beginObject();
+      buffer.appendNumber("lowerBoundMillis", lowerBound);
+      final long upperBound = PROCESSING_TIME_UPPER_BOUNDS_MILLIS[i];
+      if (upperBound != Long.MAX_VALUE)
+      {
+        buffer.appendNumber("upperBoundMillis", upperBound);
+      }
+      buffer.appendNumber("count", processingTimeCounts[i]);
+      buffer.endObject();
+      lowerBound = upperBound;
+    }
+    buffer.endArray();
+    buffer.endObject();
+
+    buffer.beginArray("topClients");
+    for (final ObjectPair<String,Long> p :
+         getSortedCounts(clientOperationCounts, maxTopClients))
+    {
+      buffer.beginObject();
+      buffer.appendString("address", p.getFirst());
+      buffer.appendNumber("operations", p.getSecond());
+      buffer.endObject();
+    }
+    buffer.endArray();
+    buffer.appendNumber("untrackedClientOperations",
+         untrackedClientOperations);
+
+    buffer.endObject();
+  }
+
+
+
+  /**
+   * Merges the counts from the provided source map into the target map.
+   *
+   * @param  <K>     The type of key used in the maps.
+   * @param  source  The map containing the counts to merge.
+   * @param  target  The map into which the counts should be merged.
+   */
+  private static <K> void mergeCounts(final Map<K,long[]> source,
+                                      final Map<K,long[]> target)
+  {
+    for (final Map.Entry<K,long[]> e : source.entrySet())
+    {
+      final long[] count = target.get(e.getKey());
+      if (count == null)
+      {
+        target.put(e.getKey(), new long[] { e.getValue()[0] });
+      }
+      else
+      {
+        count[0] += e.getValue()[0];
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves a list of the elements of the provided map with the highest
+   * counts, in descending order of count.
+   *
+   * @param  <K>          The type of key used in the map.
+   * @param  counts       The map containing the counts.
+   * @param  maxElements  The maximum number of elements to return.
+   *
+   * @return  A list of the elements with the highest counts.
+   */
+  private static <K> List<ObjectPair<K,Long>> getSortedCounts(
+                                                   final Map<K,long[]> counts,
+                                                   final int maxElements)
+  {
+    final ArrayList<ObjectPair<K,Long>> list = new ArrayList<>(counts.size());
+    for (final Map.Entry<K,long[]> e : counts.entrySet())
+    {
+      list.add(new ObjectPair<>(e.getKey(), e.getValue()[0]));
+    }
+
+    Collections.sort(list, new CountComparator<K>());
+    if (list.size() > maxElements)
+    {
+      return list.subList(0, maxElements);
+    }
+
+    return list;
+  }
+
+
+
+  /**
+   * Converts the provided value to a decimal with three digits after the
+   * decimal point.
+   *
+   * @param  d  The value to convert.
+   *
+   * @return  The decimal representation of the provided value.
+   */
+  private static BigDecimal toDecimal(final double d)
+  {
+    return new BigDecimal(d).setScale(3, RoundingMode.HALF_UP);
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this aggregator, which will be the
+   * JSON representation of the statistics for the window ending at the current
+   * time.
+   *
+   * @return  A string representation of this aggregator.
+   */
+  @Override()
+  public String toString()
+  {
+    return toJSONObject().toSingleLineString();
+  }
+
+
+
+  /**
+   * This class holds the statistics for a single interval in the window.
+   */
+  private static final class Interval
+  {
+    // The number of connections established during the interval.
+    private long connects;
+
+    // The number of connections closed during the interval.
+    private long disconnects;
+
+    // The number of operation results with a processing time.
+    private long processingTimeCount;
+
+    // The start time for the interval, or -1 if it has not been used.
+    private long startTime;
+
+    // The number of operations from clients that could not be tracked
+    // individually because the limit had been reached.
+    private long untrackedClientOperations;
+
+    // The largest processing time for any operation in the interval.
+    private double maxProcessingTimeMillis;
+
+    // The total processing time for all operations in the interval.
+    private double totalProcessingTimeMillis;
+
+    // The number of operations of each type, indexed by operation type
+    // ordinal.
+    private final long[] operationCounts;
+
+    // The number of operations in each processing time histogram bucket.
+    private final long[] processingTimeCounts;
+
+    // The number of operations for each client address.
+    private final HashMap<String,long[]> clientOperationCounts;
+
+    // The number of operations with each result code.
+    private final HashMap<ResultCode,long[]> resultCodeCounts;
+
+
+
+    /**
+     * Creates a new, unused interval.
+     */
+    private Interval()
+    {
+      operationCounts = new long[AccessLogOperationType.values().length];
+      processingTimeCounts =
+           new long[PROCESSING_TIME_UPPER_BOUNDS_MILLIS.length];
+      clientOperationCounts = new HashMap<>(StaticUtils.computeMapCapacity(10));
+      resultCodeCounts = new HashMap<>(StaticUtils.computeMapCapacity(10));
+      reset(-1L);
+    }
+
+
+
+    /**
+     * Clears all of the statistics for this interval and sets a new start
+     * time.
+     *
+     * @param  startTime  The new start time for the interval.
+     */
+    private void reset(final long startTime)
+    {
+      this.startTime = startTime;
+      connects = 0L;
+      disconnects = 0L;
+      processingTimeCount = 0L;
+      untrackedClientOperations = 0L;
+      maxProcessingTimeMillis = 0.0d;
+      totalProcessingTimeMillis = 0.0d;
+
+      for (int i=0; i < operationCounts.length; i++)
+      {
+        operationCounts[i] = 0L;
+      }
+
+      for (int i=0; i < processingTimeCounts.length; i++)
+      {
+        processingTimeCounts[i] = 0L;
+      }
+
+      clientOperationCounts.clear();
+      resultCodeCounts.clear();
+    }
+  }
+
+
+
+  /**
+   * This class provides a map of connection IDs to client addresses that will
+   * discard the least recently used mapping when a size limit is reached.
+   */
+  private static final class ConnectionAddressMap
+          extends LinkedHashMap<Long,String>
+  {
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = -3861950862148409387L;
+
+
+
+    // The maximum number of mappings to retain.
+    private final int maxSize;
+
+
+
+    /**
+     * Creates a new connection address map with the specified maximum size.
+     *
+     * @param  maxSize  The maximum number of mappings to retain.
+     */
+    private ConnectionAddressMap(final int maxSize)
+    {
+      super(StaticUtils.computeMapCapacity(Math.min(maxSize, 1_000)), 0.75f,
+           true);
+      this.maxSize = maxSize;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    protected boolean removeEldestEntry(final Map.Entry<Long,String> eldest)
+    {
+      return (size() > maxSize);
+    }
+  }
+
+
+
+  /**
+   * This class provides a comparator that will order object pairs in
+   * descending order of their count.
+   *
+   * @param  <K>  The type of the first element in the object pairs.
+   */
+  private static final class CountComparator<K>
+          implements Comparator<ObjectPair<K,Long>>
+  {
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public int compare(final ObjectPair<K,Long> p1,
+                       final ObjectPair<K,Long> p2)
+    {
+      return p2.getSecond().compareTo(p1.getSecond());
+    }
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * This class provides a handle for a task that has been scheduled with a
+ * {@link HashedWheelTimer}.  It may be used to cancel the task before it is
+ * run, and to determine whether the task has been cancelled or run.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class HashedWheelTimeout
+{
+  /**
+   * The state for a timeout that has not been cancelled or expired.
+   */
+  private static final int STATE_PENDING = 0;
+
+
+
+  /**
+   * The state for a timeout that has been cancelled.
+   */
+  private static final int STATE_CANCELLED = 1;
+
+
+
+  /**
+   * The state for a timeout that has expired.
+   */
+  private static final int STATE_EXPIRED = 2;
+
+
+
+  // The state of this timeout.
+  private final AtomicInteger state;
+
+  // The timer with which this timeout is associated.
+  private final HashedWheelTimer timer;
+
+  // The time, relative to the start of the timer, at which this timeout
+  // should expire.
+  private final long deadlineNanos;
+
+  // The task to run when this timeout expires.
+  private final Runnable task;
+
+  // The bucket that currently holds this timeout.  It is only accessed by
+  // the timer's worker thread.
+  private HashedWheelTimer.Bucket bucket;
+
+  // The next timeout in the same bucket.  It is only accessed by the timer's
+  // worker thread.
+  private HashedWheelTimeout next;
+
+  // The previous timeout in the same bucket.  It is only accessed by the
+  // timer's worker thread.
+  private HashedWheelTimeout previous;
+
+  // The number of complete revolutions of the wheel remaining before this
+  // timeout expires.  It is only accessed by the timer's worker thread.
+  private long remainingRounds;
+
+
+
+  /**
+   * Creates a new timeout with the provided information.
+   *
+   * @param  timer          The timer with which this timeout is associated.
+   * @param  task           The task to run when this timeout expires.
+   * @param  deadlineNanos  The time, relative to the start of the timer, at
+   *                        which this timeout should expire.
+   */
+  HashedWheelTimeout(final HashedWheelTimer timer, final Runnable task,
+                     final long deadlineNanos)
+  {
+    this.timer = timer;
+    this.task = task;
+    this.deadlineNanos = deadlineNanos;
+
+    state = new AtomicInteger(STATE_PENDING);
+    bucket = null;
+    next = null;
+    previous = null;
+    remainingRounds = 0L;
+  }
+
+
+
+  /**
+   * Retrieves the timer with which this timeout is associated.
+   *
+   * @return  The timer with which this timeout is associated.
+   */
+  public HashedWheelTimer getTimer()
+  {
+    return timer;
+  }
+
+
+
+  /**
+   * Retrieves the task that will be run when this timeout expires.
+   *
+   * @return  The task that will be run when this timeout expires.
+   */
+  public Runnable getTask()
+  {
+    return task;
+  }
+
+
+
+  /**
+   * Attempts to cancel this timeout so that the associated task will not be
+   * run.  This is a constant-time operation.
+   *
+   * @return  {@code true} if this timeout was cancelled, or {@code false} if
+   *          it had already been cancelled or had already expired.
+   */
+  public boolean cancel()
+  {
+    if (state.compareAndSet(STATE_PENDING, STATE_CANCELLED))
+    {
+      timer.timeoutCancelled(this);
+      return true;
+    }
+
+    return false;
+  }
+
+
+
+  /**
+   * Indicates whether this timeout has been cancelled.
+   *
+   * @return  {@code true} if this timeout has been cancelled, or {@code false}
+   *          if not.
+   */
+  public boolean isCancelled()
+  {
+    return (state.get() == STATE_CANCELLED);
+  }
+
+
+
+  /**
+   * Indicates whether this timeout has expired, meaning that the associated
+   * task has been or is being run.
+   *
+   * @return  {@code true} if this timeout has expired, or {@code false} if
+   *          not.
+   */
+  public boolean isExpired()
+  {
+    return (state.get() == STATE_EXPIRED);
+  }
+
+
+
+  /**
+   * Retrieves the time, relative to the start of the timer, at which this
+   * timeout should expire.
+   *
+   * @return  The time, relative to the start of the timer, at which this
+   *          timeout should expire.
+   */
+  long getDeadlineNanos()
+  {
+    return deadlineNanos;
+  }
+
+
+
+  /**
+   * Retrieves the bucket that currently holds this timeout.
+   *
+   * @return  The bucket that currently holds this timeout, or {@code null} if
+   *          it is not in any bucket.
+   */
+  HashedWheelTimer.Bucket getBucket()
+  {
+    return bucket;
+  }
+
+
+
+  /**
+   * Specifies the bucket that currently holds this timeout.
+   *
+   * @param  bucket  The bucket that currently holds this timeout.  It may be
+   *                 {@code null} if it is not in any bucket.
+   */
+  void setBucket(final HashedWheelTimer.Bucket bucket)
+  {
+    this.bucket = bucket;
+  }
+
+
+
+  /**
+   * Retrieves the next timeout in the same bucket.
+   *
+   * @return  The next timeout in the same bucket, or {@code null} if this is
+   *          the last timeout in the bucket.
+   */
+  HashedWheelTimeout getNext()
+  {
+    return next;
+  }
+
+
+
+  /**
+   * Specifies the next timeout in the same bucket.
+   *
+   * @param  next  The next timeout in the same bucket.  It may be
+   *               {@code null} if this is the last timeout in the bucket.
+   */
+  void setNext(final HashedWheelTimeout next)
+  {
+    this.next = next;
+  }
+
+
+
+  /**
+   * Retrieves the previous timeout in the same bucket.
+   *
+   * @return  The previous timeout in the same bucket, or {@code null} if this
+   *          is the first timeout in the bucket.
+   */
+  HashedWheelTimeout getPrevious()
+  {
+    return previous;
+  }
+
+
+
+  /**
+   * Specifies the previous timeout in the same bucket.
+   *
+   * @param  previous  The previous timeout in the same bucket.  It may be
+   *                   {@code null} if this is the first timeout in the bucket.
+   */
+  void setPrevious(final HashedWheelTimeout previous)
+  {
+    this.previous = previous;
+  }
+
+
+
+  /**
+   * Retrieves the number of complete revolutions of the wheel remaining
+   * before this timeout expires.
+   *
+   * @return  The number of complete revolutions of the wheel remaining before
+   *          this timeout expires.
+   */
+  long getRemainingRounds()
+  {
+    return remainingRounds;
+  }
+
+
+
+  /**
+   * Specifies the number of complete revolutions of the wheel remaining
+   * before this timeout expires.
+   *
+   * @param  remainingRounds  The number of complete revolutions of the wheel
+   *                          remaining before this timeout expires.
+   */
+  void setRemainingRounds(final long remainingRounds)
+  {
+    this.remainingRounds = remainingRounds;
+  }
+
+
+
+  /**
+   * Marks this timeout as expired and runs the associated task, unless the
+   * timeout has already been cancelled.
+   *
+   * @return  {@code true} if the task was run, or {@code false} if the timeout
+   *          had already been cancelled.
+   */
+  boolean expire()
+  {
+    if (! state.compareAndSet(STATE_PENDING, STATE_EXPIRED))
+    {
+      return false;
+    }
+
+    timer.timeoutExpired();
+    try
+    {
+      task.run();
+    }
+    catch (final Throwable t)
+    {
+      Debug.debugException(t);
+    }
+
+    return true;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this timeout.
+   *
+   * @return  A string representation of this timeout.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this timeout to the provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("HashedWheelTimeout(state=");
+    switch (state.get())
+    {
+      case STATE_CANCELLED:
+        buffer.append("cancelled");
+        break;
+      case STATE_EXPIRED:
+        buffer.append("expired");
+        break;
+      default:
+        buffer.append("pending");
+        break;
+    }
+
+    buffer.append(", task=");
+    buffer.append(String.valueOf(task));
+    buffer.append(')');
+  }
+}
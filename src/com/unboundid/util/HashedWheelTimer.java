@@ -0,0 +1,649 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * This class provides a timer that uses a hashed timing wheel to run tasks
+ * after a delay.  It is intended for use in cases in which a large number of
+ * timeouts may be scheduled and most of them will be cancelled before they
+ * expire (for example, timeouts for asynchronous operations), so scheduling
+ * and cancelling a timeout are both constant-time operations that do not
+ * require any locking, and the timer does not need to be purged of cancelled
+ * tasks.  In exchange, tasks will be run no earlier than requested, but may be
+ * run up to one tick later than requested.
+ * <BR><BR>
+ * A single worker thread is used to manage the wheel and to run expired tasks,
+ * so tasks should complete quickly.  The worker thread is a daemon thread that
+ * will be started when the first task is scheduled, and that will run until
+ * the timer is shut down.
+ */
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class HashedWheelTimer
+{
+  /**
+   * The maximum number of newly scheduled timeouts that will be added to the
+   * wheel on each tick, so that a burst of scheduling activity cannot delay
+   * the expiration of other timeouts for too long.
+   */
+  private static final int MAX_ADDITIONS_PER_TICK = 100_000;
+
+
+
+  // The number of timeouts that have been cancelled.
+  private final AtomicLong numCancelled;
+
+  // The number of timeouts that have expired.
+  private final AtomicLong numExpired;
+
+  // The number of timeouts that have been scheduled but have not yet been
+  // cancelled or expired.
+  private final AtomicLong numPending;
+
+  // The number of timeouts that have been scheduled.
+  private final AtomicLong numScheduled;
+
+  // The buckets that make up the wheel.
+  private final Bucket[] wheel;
+
+  // Timeouts that have been cancelled but may still need to be removed from
+  // the wheel.
+  private final ConcurrentLinkedQueue<HashedWheelTimeout> cancelledTimeouts;
+
+  // Timeouts that have been scheduled but not yet added to the wheel.
+  private final ConcurrentLinkedQueue<HashedWheelTimeout> newTimeouts;
+
+  // Indicates whether this timer has been shut down.
+  private volatile boolean shutDown;
+
+  // The mask to use to map a tick to a bucket in the wheel.
+  private final int wheelMask;
+
+  // The duration of each tick, in nanoseconds.
+  private final long tickDurationNanos;
+
+  // The time that the worker thread was started.
+  private volatile long startTimeNanos;
+
+  // The name to use for the worker thread.
+  private final String threadName;
+
+  // The worker thread for this timer.
+  private volatile Thread workerThread;
+
+
+
+  /**
+   * Creates a new hashed wheel timer with the provided settings.
+   *
+   * @param  threadName          The name to use for the worker thread.  It
+   *                             must not be {@code null}.
+   * @param  tickDurationMillis  The duration of each tick, in milliseconds.
+   *                             This is the precision with which tasks will be
+   *                             run.  It must be greater than zero.
+   * @param  ticksPerWheel       The number of buckets in the wheel.  It must be
+   *                             greater than zero, and it will be rounded up
+   *                             to the nearest power of two.  Timeouts that are
+   *                             longer than one revolution of the wheel are
+   *                             supported, but will be examined once per
+   *                             revolution.
+   */
+  public HashedWheelTimer(final String threadName,
+                          final long tickDurationMillis,
+                          final int ticksPerWheel)
+  {
+    Validator.ensureNotNull(threadName);
+    Validator.ensureTrue((tickDurationMillis > 0L),
+         "HashedWheelTimer.tickDurationMillis must be greater than zero.");
+    Validator.ensureTrue(((ticksPerWheel > 0) && (ticksPerWheel <= (1 << 30))),
+         "HashedWheelTimer.ticksPerWheel must be between 1 and 2^30.");
+
+    this.threadName = threadName;
+
+    tickDurationNanos = TimeUnit.MILLISECONDS.toNanos(tickDurationMillis);
+
+    int wheelSize = 1;
+    while (wheelSize < ticksPerWheel)
+    {
+      wheelSize <<= 1;
+    }
+
+    wheel = new Bucket[wheelSize];
+    for (int i=0; i < wheelSize; i++)
+    {
+      wheel[i] = new Bucket();
+    }
+    wheelMask = wheelSize - 1;
+
+    newTimeouts = new ConcurrentLinkedQueue<>();
+    cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    numScheduled = new AtomicLong(0L);
+    numCancelled = new AtomicLong(0L);
+    numExpired = new AtomicLong(0L);
+    numPending = new AtomicLong(0L);
+    shutDown = false;
+    startTimeNanos = 0L;
+    workerThread = null;
+  }
+
+
+
+  /**
+   * Schedules the provided task to be run after the specified delay.
+   *
+   * @param  task         The task to run.  It must not be {@code null}.
+   * @param  delayMillis  The length of time in milliseconds to wait before
+   *                      running the task.  A value that is less than or
+   *                      equal to zero indicates that the task should be run
+   *                      on the next tick.
+   *
+   * @return  A handle that may be used to cancel the task before it is run.
+   */
+  public HashedWheelTimeout schedule(final Runnable task,
+                                     final long delayMillis)
+  {
+    Validator.ensureNotNull(task);
+    Validator.ensureFalse(shutDown,
+         "HashedWheelTimer.schedule called after the timer was shut down.");
+
+    startIfNecessary();
+
+    final long deadlineNanos = System.nanoTime() +
+         TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMillis)) -
+         startTimeNanos;
+    final HashedWheelTimeout timeout =
+         new HashedWheelTimeout(this, task, deadlineNanos);
+
+    numScheduled.incrementAndGet();
+    numPending.incrementAndGet();
+    newTimeouts.add(timeout);
+    return timeout;
+  }
+
+
+
+  /**
+   * Starts the worker thread if it has not already been started.
+   */
+  private void startIfNecessary()
+  {
+    if (workerThread != null)
+    {
+      return;
+    }
+
+    synchronized (this)
+    {
+      if (workerThread == null)
+      {
+        startTimeNanos = System.nanoTime();
+
+        final Thread t = new Thread(new Worker(), threadName);
+        t.setDaemon(true);
+        t.start();
+        workerThread = t;
+      }
+    }
+  }
+
+
+
+  /**
+   * Shuts down this timer.  Any timeouts that have not yet expired will be
+   * discarded without running their tasks, and no more timeouts may be
+   * scheduled.
+   */
+  public void shutDown()
+  {
+    shutDown = true;
+
+    final Thread t;
+    synchronized (this)
+    {
+      t = workerThread;
+    }
+
+    if (t != null)
+    {
+      t.interrupt();
+    }
+  }
+
+
+
+  /**
+   * Indicates whether this timer has been shut down.
+   *
+   * @return  {@code true} if this timer has been shut down, or {@code false}
+   *          if not.
+   */
+  public boolean isShutDown()
+  {
+    return shutDown;
+  }
+
+
+
+  /**
+   * Retrieves the duration of each tick for this timer.
+   *
+   * @return  The duration of each tick for this timer, in milliseconds.
+   */
+  public long getTickDurationMillis()
+  {
+    return TimeUnit.NANOSECONDS.toMillis(tickDurationNanos);
+  }
+
+
+
+  /**
+   * Retrieves the number of buckets in the wheel for this timer.
+   *
+   * @return  The number of buckets in the wheel for this timer.
+   */
+  public int getTicksPerWheel()
+  {
+    return wheel.length;
+  }
+
+
+
+  /**
+   * Retrieves the number of timeouts that are currently pending, meaning that
+   * they have been scheduled but have not yet been cancelled or expired.
+   *
+   * @return  The number of timeouts that are currently pending.
+   */
+  public long getNumPendingTimeouts()
+  {
+    return numPending.get();
+  }
+
+
+
+  /**
+   * Retrieves the total number of timeouts that have been scheduled with this
+   * timer.
+   *
+   * @return  The total number of timeouts that have been scheduled with this
+   *          timer.
+   */
+  public long getNumScheduledTimeouts()
+  {
+    return numScheduled.get();
+  }
+
+
+
+  /**
+   * Retrieves the total number of timeouts that have been cancelled before
+   * they expired.
+   *
+   * @return  The total number of timeouts that have been cancelled before they
+   *          expired.
+   */
+  public long getNumCancelledTimeouts()
+  {
+    return numCancelled.get();
+  }
+
+
+
+  /**
+   * Retrieves the total number of timeouts that have expired, and whose tasks
+   * have been or are being run.
+   *
+   * @return  The total number of timeouts that have expired.
+   */
+  public long getNumExpiredTimeouts()
+  {
+    return numExpired.get();
+  }
+
+
+
+  /**
+   * Updates the timer to reflect that the provided timeout has been
+   * cancelled.
+   *
+   * @param  timeout  The timeout that has been cancelled.
+   */
+  void timeoutCancelled(final HashedWheelTimeout timeout)
+  {
+    numPending.decrementAndGet();
+    numCancelled.incrementAndGet();
+    cancelledTimeouts.add(timeout);
+  }
+
+
+
+  /**
+   * Updates the timer to reflect that a timeout has expired.
+   */
+  void timeoutExpired()
+  {
+    numPending.decrementAndGet();
+    numExpired.incrementAndGet();
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this timer.
+   *
+   * @return  A string representation of this timer.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this timer to the provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("HashedWheelTimer(threadName='");
+    buffer.append(threadName);
+    buffer.append("', tickDurationMillis=");
+    buffer.append(getTickDurationMillis());
+    buffer.append(", ticksPerWheel=");
+    buffer.append(wheel.length);
+    buffer.append(", numPendingTimeouts=");
+    buffer.append(numPending.get());
+    buffer.append(", numScheduledTimeouts=");
+    buffer.append(numScheduled.get());
+    buffer.append(", numCancelledTimeouts=");
+    buffer.append(numCancelled.get());
+    buffer.append(", numExpiredTimeouts=");
+    buffer.append(numExpired.get());
+    buffer.append(", shutDown=");
+    buffer.append(shutDown);
+    buffer.append(')');
+  }
+
+
+
+  /**
+   * This class provides the worker that advances the wheel and runs expired
+   * tasks.
+   */
+  private final class Worker
+          implements Runnable
+  {
+    // The number of ticks that have been processed.
+    private long tick = 0L;
+
+
+
+    /**
+     * Advances the wheel once per tick until the timer is shut down.
+     */
+    @Override()
+    public void run()
+    {
+      while (! shutDown)
+      {
+        final long deadlineNanos = waitForNextTick();
+        if (deadlineNanos < 0L)
+        {
+          break;
+        }
+
+        removeCancelledTimeouts();
+        addNewTimeouts();
+        expireTimeouts(wheel[(int) (tick & wheelMask)], deadlineNanos);
+        tick++;
+      }
+
+      newTimeouts.clear();
+      cancelledTimeouts.clear();
+    }
+
+
+
+    /**
+     * Waits until the end of the current tick.
+     *
+     * @return  The time, relative to the start of the timer, at which the
+     *          current tick ends, or -1 if the timer was shut down while
+     *          waiting.
+     */
+    private long waitForNextTick()
+    {
+      final long deadlineNanos = tickDurationNanos * (tick + 1L);
+      while (true)
+      {
+        final long currentNanos = System.nanoTime() - startTimeNanos;
+        final long sleepMillis = TimeUnit.NANOSECONDS.toMillis(
+             deadlineNanos - currentNanos + 999_999L);
+        if (sleepMillis <= 0L)
+        {
+          return deadlineNanos;
+        }
+
+        try
+        {
+          Thread.sleep(sleepMillis);
+        }
+        catch (final InterruptedException e)
+        {
+          Debug.debugException(e);
+          if (shutDown)
+          {
+            return -1L;
+          }
+        }
+      }
+    }
+
+
+
+    /**
+     * Removes any cancelled timeouts from the wheel.
+     */
+    private void removeCancelledTimeouts()
+    {
+      while (true)
+      {
+        final HashedWheelTimeout timeout = cancelledTimeouts.poll();
+        if (timeout == null)
+        {
+          return;
+        }
+
+        final Bucket bucket = timeout.getBucket();
+        if (bucket != null)
+        {
+          bucket.remove(timeout);
+        }
+      }
+    }
+
+
+
+    /**
+     * Adds newly scheduled timeouts to the appropriate buckets in the wheel.
+     */
+    private void addNewTimeouts()
+    {
+      for (int i=0; i < MAX_ADDITIONS_PER_TICK; i++)
+      {
+        final HashedWheelTimeout timeout = newTimeouts.poll();
+        if (timeout == null)
+        {
+          return;
+        }
+
+        if (timeout.isCancelled())
+        {
+          continue;
+        }
+
+        final long expirationTick =
+             Math.max(timeout.getDeadlineNanos() / tickDurationNanos, tick);
+        timeout.setRemainingRounds((expirationTick - tick) / wheel.length);
+        wheel[(int) (expirationTick & wheelMask)].add(timeout);
+      }
+    }
+
+
+
+    /**
+     * Expires any timeouts in the provided bucket that are due, and decrements
+     * the remaining rounds for the others.
+     *
+     * @param  bucket         The bucket to examine.
+     * @param  deadlineNanos  The time, relative to the start of the timer, at
+     *                        which the current tick ends.
+     */
+    private void expireTimeouts(final Bucket bucket, final long deadlineNanos)
+    {
+      HashedWheelTimeout timeout = bucket.head;
+      while (timeout != null)
+      {
+        final HashedWheelTimeout next = timeout.getNext();
+        if (timeout.isCancelled())
+        {
+          bucket.remove(timeout);
+        }
+        else if ((timeout.getRemainingRounds() <= 0L) &&
+             (timeout.getDeadlineNanos() <= deadlineNanos))
+        {
+          bucket.remove(timeout);
+          timeout.expire();
+        }
+        else
+        {
+          timeout.setRemainingRounds(timeout.getRemainingRounds() - 1L);
+        }
+
+        timeout = next;
+      }
+    }
+  }
+
+
+
+  /**
+   * This class provides a doubly-linked list of the timeouts that map to the
+   * same bucket in the wheel.  It is only accessed by the worker thread.
+   */
+  static final class Bucket
+  {
+    // The first timeout in this bucket.
+    private HashedWheelTimeout head;
+
+    // The last timeout in this bucket.
+    private HashedWheelTimeout tail;
+
+
+
+    /**
+     * Adds the provided timeout to the end of this bucket.
+     *
+     * @param  timeout  The timeout to add.
+     */
+    private void add(final HashedWheelTimeout timeout)
+    {
+      timeout.setBucket(this);
+      timeout.setPrevious(tail);
+      timeout.setNext(null);
+      if (tail == null)
+      {
+        head = timeout;
+      }
+      else
+      {
+        tail.setNext(timeout);
+      }
+      tail = timeout;
+    }
+
+
+
+    /**
+     * Removes the provided timeout from this bucket.
+     *
+     * @param  timeout  The timeout to remove.
+     */
+    private void remove(final HashedWheelTimeout timeout)
+    {
+      if (timeout.getBucket() != this)
+      {
+        return;
+      }
+
+      final HashedWheelTimeout previous = timeout.getPrevious();
+      final HashedWheelTimeout next = timeout.getNext();
+      if (previous == null)
+      {
+        head = next;
+      }
+      else
+      {
+        previous.setNext(next);
+      }
+
+      if (next == null)
+      {
+        tail = previous;
+      }
+      else
+      {
+        next.setPrevious(previous);
+      }
+
+      timeout.setBucket(null);
+      timeout.setNext(null);
+      timeout.setPrevious(null);
+    }
+  }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+
+/**
+ * This class provides a data structure that may be used to keep track of the
+ * distribution of a set of latency values (for example, operation response
+ * times) in a manner that is efficient enough to be updated for every
+ * operation.  Values are expected to be expressed in nanoseconds, and are
+ * sorted into a fixed set of buckets using a log-linear scheme in which each
+ * power of two is divided into eight equally-sized buckets, so the bucket
+ * containing any value will not be more than 12.5% wider than that value.
+ * Values of 2^42 nanoseconds (a little over 73 minutes) or more are all
+ * grouped into the same bucket, although the exact maximum value will still be
+ * tracked.
+ * <BR><BR>
+ * Recording a value does not require any memory allocation or locking.  To
+ * reduce contention when many threads record values at the same time, the
+ * histogram may be divided into multiple stripes, with each thread updating
+ * a stripe selected based on its thread ID.  The stripes are combined when a
+ * {@link LatencyHistogramSnapshot} is created.
+ * <BR><BR>
+ * Calls to record values are threadsafe, but a snapshot obtained while values
+ * are being recorded may not reflect a single point in time.  The
+ * {@link #getSnapshotAndReset} method may be used to obtain a snapshot and
+ * reset the histogram without losing any values recorded concurrently.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LatencyHistogram
+       implements Serializable
+{
+  /**
+   * The number of bits used to divide each power of two into sub-buckets.
+   */
+  private static final int SUB_BUCKET_BITS = 3;
+
+
+
+  /**
+   * The number of sub-buckets into which each power of two is divided.
+   */
+  private static final int SUB_BUCKETS_PER_POWER = 1 << SUB_BUCKET_BITS;
+
+
+
+  /**
+   * The exponent of the smallest power of two (in nanoseconds) that will be
+   * placed in the overflow bucket.  All values at least this large will be
+   * placed in that bucket.
+   */
+  private static final int MAX_EXPONENT = 42;
+
+
+
+  /**
+   * The total number of buckets, including the overflow bucket.
+   */
+  static final int NUM_BUCKETS =
+       ((MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS_PER_POWER) + 1;
+
+
+
+  /**
+   * The offset within a stripe of the element used to hold the total of all
+   * recorded values.
+   */
+  private static final int TOTAL_OFFSET = NUM_BUCKETS;
+
+
+
+  /**
+   * The offset within a stripe of the element used to hold the maximum
+   * recorded value.
+   */
+  private static final int MAX_OFFSET = NUM_BUCKETS + 1;
+
+
+
+  /**
+   * The number of array elements reserved for each stripe.  It is rounded up
+   * to a multiple of sixteen so that different stripes do not share cache
+   * lines.
+   */
+  private static final int STRIPE_SIZE = ((MAX_OFFSET + 16) / 16) * 16;
+
+
+
+  /**
+   * The maximum number of stripes that will be used by default.
+   */
+  private static final int MAX_DEFAULT_STRIPES = 16;
+
+
+
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 3870493062183347316L;
+
+
+
+  // The array that holds the bucket counts, totals, and maximums for all of the
+  // stripes.
+  private final AtomicLongArray values;
+
+  // The mask used to select a stripe from a thread ID.
+  private final int stripeMask;
+
+
+
+  /**
+   * Creates a new latency histogram with a number of stripes selected based on
+   * the number of CPUs available to the JVM.
+   */
+  public LatencyHistogram()
+  {
+    this(Math.min(MAX_DEFAULT_STRIPES,
+         Runtime.getRuntime().availableProcessors()));
+  }
+
+
+
+  /**
+   * Creates a new latency histogram with the specified number of stripes.
+   *
+   * @param  numStripes  The number of stripes to use for the histogram.  It
+   *                     must be greater than zero, and if it is not a power of
+   *                     two, then it will be rounded up to the next power of
+   *                     two.  A value of one should be used for histograms
+   *                     that are not expected to be updated by multiple
+   *                     threads at the same time.
+   */
+  public LatencyHistogram(final int numStripes)
+  {
+    Validator.ensureTrue((numStripes > 0),
+         "LatencyHistogram.numStripes must be greater than zero.");
+
+    int stripes = 1;
+    while (stripes < numStripes)
+    {
+      stripes <<= 1;
+    }
+
+    stripeMask = stripes - 1;
+    values = new AtomicLongArray(stripes * STRIPE_SIZE);
+  }
+
+
+
+  /**
+   * Retrieves the number of stripes used by this histogram.
+   *
+   * @return  The number of stripes used by this histogram.
+   */
+  public int getNumStripes()
+  {
+    return stripeMask + 1;
+  }
+
+
+
+  /**
+   * Records the provided value in this histogram.  Negative values will be
+   * ignored.
+   *
+   * @param  nanos  The value to record, in nanoseconds.
+   */
+  public void record(final long nanos)
+  {
+    if (nanos < 0L)
+    {
+      return;
+    }
+
+    final int offset;
+    if (stripeMask == 0)
+    {
+      offset = 0;
+    }
+    else
+    {
+      final long threadID = Thread.currentThread().getId();
+      final int hash = (int) (threadID ^ (threadID >>> 32)) * 0x9E3779B9;
+      offset = ((hash >>> 16) & stripeMask) * STRIPE_SIZE;
+    }
+
+    values.incrementAndGet(offset + getBucketIndex(nanos));
+    values.addAndGet(offset + TOTAL_OFFSET, nanos);
+
+    final int maxIndex = offset + MAX_OFFSET;
+    long currentMax = values.get(maxIndex);
+    while (nanos > currentMax)
+    {
+      if (values.compareAndSet(maxIndex, currentMax, nanos))
+      {
+        break;
+      }
+
+      currentMax = values.get(maxIndex);
+    }
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the values recorded in this histogram.
+   *
+   * @return  A snapshot of the values recorded in this histogram.
+   */
+  public LatencyHistogramSnapshot getSnapshot()
+  {
+    return createSnapshot(false);
+  }
+
+
+
+  /**
+   * Retrieves a snapshot of the values recorded in this histogram and resets
+   * the histogram.  Each value recorded by a concurrent thread will be
+   * reflected either in the snapshot that is returned or in the histogram
+   * after it has been reset.
+   *
+   * @return  A snapshot of the values recorded in this histogram before it
+   *          was reset.
+   */
+  public LatencyHistogramSnapshot getSnapshotAndReset()
+  {
+    return createSnapshot(true);
+  }
+
+
+
+  /**
+   * Resets this histogram so that it does not contain any values.
+   */
+  public void reset()
+  {
+    for (int i=0; i < values.length(); i++)
+    {
+      values.set(i, 0L);
+    }
+  }
+
+
+
+  /**
+   * Creates a snapshot of the values recorded in this histogram, optionally
+   * resetting it in the process.
+   *
+   * @param  reset  Indicates whether to reset the histogram.
+   *
+   * @return  The snapshot that was created.
+   */
+  private LatencyHistogramSnapshot createSnapshot(final boolean reset)
+  {
+    final long[] bucketCounts = new long[NUM_BUCKETS];
+    long total = 0L;
+    long max = 0L;
+
+    for (int offset=0; offset < values.length(); offset += STRIPE_SIZE)
+    {
+      for (int i=0; i < NUM_BUCKETS; i++)
+      {
+        bucketCounts[i] += getValue(offset + i, reset);
+      }
+
+      total += getValue(offset + TOTAL_OFFSET, reset);
+      max = Math.max(max, getValue(offset + MAX_OFFSET, reset));
+    }
+
+    return new LatencyHistogramSnapshot(bucketCounts, total, max);
+  }
+
+
+
+  /**
+   * Retrieves the value of the specified array element, optionally resetting
+   * it to zero.
+   *
+   * @param  index  The index of the element to retrieve.
+   * @param  reset  Indicates whether to reset the element to zero.
+   *
+   * @return  The value of the specified array element.
+   */
+  private long getValue(final int index, final boolean reset)
+  {
+    if (reset)
+    {
+      return values.getAndSet(index, 0L);
+    }
+    else
+    {
+      return values.get(index);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the index of the bucket that should hold the provided value.
+   *
+   * @param  nanos  The value for which to retrieve the bucket index.  It must
+   *                not be negative.
+   *
+   * @return  The index of the bucket that should hold the provided value.
+   */
+  static int getBucketIndex(final long nanos)
+  {
+    if (nanos < SUB_BUCKETS_PER_POWER)
+    {
+      return (int) nanos;
+    }
+
+    final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    if (exponent >= MAX_EXPONENT)
+    {
+      return NUM_BUCKETS - 1;
+    }
+
+    final int subBucket = (int) ((nanos >>> (exponent - SUB_BUCKET_BITS)) &
+         (SUB_BUCKETS_PER_POWER - 1));
+    return ((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS_PER_POWER) +
+         subBucket;
+  }
+
+
+
+  /**
+   * Retrieves the smallest value that may be held in the specified bucket.
+   *
+   * @param  bucketIndex  The index of the bucket for which to retrieve the
+   *                      lower bound.
+   *
+   * @return  The smallest value that may be held in the specified bucket.
+   */
+  static long getBucketLowerBound(final int bucketIndex)
+  {
+    if (bucketIndex < SUB_BUCKETS_PER_POWER)
+    {
+      return bucketIndex;
+    }
+
+    if (bucketIndex >= (NUM_BUCKETS - 1))
+    {
+      return 1L << MAX_EXPONENT;
+    }
+
+    final int exponent =
+         (bucketIndex / SUB_BUCKETS_PER_POWER) + SUB_BUCKET_BITS - 1;
+    final long subBucket = bucketIndex % SUB_BUCKETS_PER_POWER;
+    return (SUB_BUCKETS_PER_POWER + subBucket) <<
+         (exponent - SUB_BUCKET_BITS);
+  }
+
+
+
+  /**
+   * Retrieves the largest value that may be held in the specified bucket.
+   *
+   * @param  bucketIndex  The index of the bucket for which to retrieve the
+   *                      upper bound.
+   *
+   * @return  The largest value that may be held in the specified bucket.
+   */
+  static long getBucketUpperBound(final int bucketIndex)
+  {
+    if (bucketIndex >= (NUM_BUCKETS - 1))
+    {
+      return Long.MAX_VALUE;
+    }
+
+    return getBucketLowerBound(bucketIndex + 1) - 1L;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this latency histogram.
+   *
+   * @return  A string representation of this latency histogram.
+   */
+  @Override()
+  public String toString()
+  {
+    return getSnapshot().toString();
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.io.Serializable;
+import java.text.DecimalFormat;
+
+
+
+/**
+ * This class provides a point-in-time snapshot of the values recorded in a
+ * {@link LatencyHistogram}.  It may be used to obtain the number of values,
+ * the average and maximum values, and estimates of percentile values.  All
+ * values are expressed in nanoseconds unless otherwise noted.
+ * <BR><BR>
+ * Percentile values are computed from the histogram buckets, so they are
+ * estimates rather than exact values.  The value returned for a percentile
+ * will be the upper bound of the bucket that contains it (or the maximum
+ * recorded value, if that is smaller), so it will not be more than 12.5%
+ * larger than the actual value.
+ */
+@NotMutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class LatencyHistogramSnapshot
+       implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = -6514962427925213180L;
+
+
+
+  // The number of values contained in each of the buckets.
+  private final long[] bucketCounts;
+
+  // The total number of values in the snapshot.
+  private final long count;
+
+  // The largest value in the snapshot.
+  private final long maximumNanos;
+
+  // The sum of all values in the snapshot.
+  private final long totalNanos;
+
+
+
+  /**
+   * Creates a new latency histogram snapshot with the provided information.
+   *
+   * @param  bucketCounts  The number of values contained in each of the
+   *                       buckets.
+   * @param  totalNanos    The sum of all values in the snapshot.
+   * @param  maximumNanos  The largest value in the snapshot.
+   */
+  LatencyHistogramSnapshot(final long[] bucketCounts, final long totalNanos,
+                           final long maximumNanos)
+  {
+    this.bucketCounts = bucketCounts;
+    this.totalNanos   = totalNanos;
+    this.maximumNanos = maximumNanos;
+
+    long c = 0L;
+    for (final long bucketCount : bucketCounts)
+    {
+      c += bucketCount;
+    }
+    count = c;
+  }
+
+
+
+  /**
+   * Retrieves the number of values contained in this snapshot.
+   *
+   * @return  The number of values contained in this snapshot.
+   */
+  public long getCount()
+  {
+    return count;
+  }
+
+
+
+  /**
+   * Retrieves the sum of all values contained in this snapshot.
+   *
+   * @return  The sum of all values contained in this snapshot.
+   */
+  public long getTotalNanos()
+  {
+    return totalNanos;
+  }
+
+
+
+  /**
+   * Retrieves the average of all values contained in this snapshot.
+   *
+   * @return  The average of all values contained in this snapshot, or
+   *          {@code Double.NaN} if the snapshot does not contain any values.
+   */
+  public double getAverageNanos()
+  {
+    if (count > 0L)
+    {
+      return (1.0d * totalNanos / count);
+    }
+    else
+    {
+      return Double.NaN;
+    }
+  }
+
+
+
+  /**
+   * Retrieves the largest value contained in this snapshot.
+   *
+   * @return  The largest value contained in this snapshot, or zero if the
+   *          snapshot does not contain any values.
+   */
+  public long getMaximumNanos()
+  {
+    return maximumNanos;
+  }
+
+
+
+  /**
+   * Retrieves an estimate of the specified percentile value for this snapshot.
+   *
+   * @param  percentile  The percentile for which to retrieve the value.  It
+   *                     must be greater than zero and less than or equal to
+   *                     100.
+   *
+   * @return  An estimate of the specified percentile value for this snapshot,
+   *          or -1 if the snapshot does not contain any values.
+   */
+  public long getPercentileNanos(final double percentile)
+  {
+    Validator.ensureTrue(((percentile > 0.0d) && (percentile <= 100.0d)),
+         "LatencyHistogramSnapshot.percentile must be greater than zero and " +
+              "less than or equal to 100.");
+
+    if (count == 0L)
+    {
+      return -1L;
+    }
+
+    final long rank =
+         Math.max(1L, (long) Math.ceil(count * percentile / 100.0d));
+    long cumulativeCount = 0L;
+    for (int i=0; i < bucketCounts.length; i++)
+    {
+      cumulativeCount += bucketCounts[i];
+      if (cumulativeCount >= rank)
+      {
+        return Math.min(LatencyHistogram.getBucketUpperBound(i), maximumNanos);
+      }
+    }
+
+    return maximumNanos;
+  }
+
+
+
+  /**
+   * Retrieves an estimate of the median (50th percentile) value for this
+   * snapshot.
+   *
+   * @return  An estimate of the median value for this snapshot, or -1 if the
+   *          snapshot does not contain any values.
+   */
+  public long get50thPercentileNanos()
+  {
+    return getPercentileNanos(50.0d);
+  }
+
+
+
+  /**
+   * Retrieves an estimate of the 95th percentile value for this snapshot.
+   *
+   * @return  An estimate of the 95th percentile value for this snapshot, or -1
+   *          if the snapshot does not contain any values.
+   */
+  public long get95thPercentileNanos()
+  {
+    return getPercentileNanos(95.0d);
+  }
+
+
+
+  /**
+   * Retrieves an estimate of the 99th percentile value for this snapshot.
+   *
+   * @return  An estimate of the 99th percentile value for this snapshot, or -1
+   *          if the snapshot does not contain any values.
+   */
+  public long get99thPercentileNanos()
+  {
+    return getPercentileNanos(99.0d);
+  }
+
+
+
+  /**
+   * Retrieves the number of buckets in this snapshot.
+   *
+   * @return  The number of buckets in this snapshot.
+   */
+  public int getNumBuckets()
+  {
+    return bucketCounts.length;
+  }
+
+
+
+  /**
+   * Retrieves the number of values contained in the specified bucket.
+   *
+   * @param  bucketIndex  The index of the bucket for which to retrieve the
+   *                      count.  It must be greater than or equal to zero and
+   *                      less than the value returned by
+   *                      {@link #getNumBuckets}.
+   *
+   * @return  The number of values contained in the specified bucket.
+   */
+  public long getBucketCount(final int bucketIndex)
+  {
+    return bucketCounts[bucketIndex];
+  }
+
+
+
+  /**
+   * Retrieves the smallest value that may be contained in the specified bucket.
+   *
+   * @param  bucketIndex  The index of the bucket for which to retrieve the
+   *                      lower bound.  It must be greater than or equal to zero
+   *                      and less than the value returned by
+   *                      {@link #getNumBuckets}.
+   *
+   * @return  The smallest value that may be contained in the specified bucket.
+   */
+  public long getBucketLowerBoundNanos(final int bucketIndex)
+  {
+    return LatencyHistogram.getBucketLowerBound(bucketIndex);
+  }
+
+
+
+  /**
+   * Retrieves the largest value that may be contained in the specified bucket.
+   *
+   * @param  bucketIndex  The index of the bucket for which to retrieve the
+   *                      upper bound.  It must be greater than or equal to zero
+   *                      and less than the value returned by
+   *                      {@link #getNumBuckets}.
+   *
+   * @return  The largest value that may be contained in the specified bucket.
+   */
+  public long getBucketUpperBoundNanos(final int bucketIndex)
+  {
+    return LatencyHistogram.getBucketUpperBound(bucketIndex);
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this latency histogram snapshot.
+   *
+   * @return  A string representation of this latency histogram snapshot.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this latency histogram snapshot to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the string representation should be
+   *                 appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("LatencyHistogramSnapshot(count=");
+    buffer.append(count);
+
+    if (count > 0L)
+    {
+      final DecimalFormat f = new DecimalFormat("0.000");
+      buffer.append(", averageNanos=");
+      buffer.append(f.format(getAverageNanos()));
+      buffer.append(", p50Nanos=");
+      buffer.append(get50thPercentileNanos());
+      buffer.append(", p95Nanos=");
+      buffer.append(get95thPercentileNanos());
+      buffer.append(", p99Nanos=");
+      buffer.append(get99thPercentileNanos());
+      buffer.append(", maximumNanos=");
+      buffer.append(maximumNanos);
+    }
+
+    buffer.append(')');
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+
+/**
+ * This class provides a counter that can be efficiently updated by many
+ * threads at the same time.  The counter is divided into multiple stripes,
+ * each of which is held in a separate cache line, and each thread updates a
+ * stripe selected based on its thread ID.  The stripes are combined when the
+ * value of the counter is retrieved.  Updating the counter does not require
+ * any memory allocation or locking.
+ * <BR><BR>
+ * Calls to update the counter are threadsafe, but a value retrieved while the
+ * counter is being updated may not reflect a single point in time.
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class StripedCounter
+       implements Serializable
+{
+  /**
+   * The serial version UID for this serializable class.
+   */
+  private static final long serialVersionUID = 4012567903382178165L;
+
+
+
+  /**
+   * The number of array elements reserved for each stripe.  Only the first
+   * element of each stripe is used, and the rest are padding so that
+   * different stripes do not share cache lines.
+   */
+  private static final int STRIPE_SIZE = 16;
+
+
+
+  /**
+   * The maximum number of stripes that will be used by default.
+   */
+  private static final int MAX_DEFAULT_STRIPES = 16;
+
+
+
+  // The array that holds the values for all of the stripes.
+  private final AtomicLongArray values;
+
+  // The mask used to select a stripe from a thread ID.
+  private final int stripeMask;
+
+
+
+  /**
+   * Creates a new striped counter with a number of stripes selected based on
+   * the number of CPUs available to the JVM.
+   */
+  public StripedCounter()
+  {
+    this(Math.min(MAX_DEFAULT_STRIPES,
+         Runtime.getRuntime().availableProcessors()));
+  }
+
+
+
+  /**
+   * Creates a new striped counter with the specified number of stripes.
+   *
+   * @param  numStripes  The number of stripes to use for the counter.  It must
+   *                     be greater than zero, and if it is not a power of two,
+   *                     then it will be rounded up to the next power of two.
+   */
+  public StripedCounter(final int numStripes)
+  {
+    Validator.ensureTrue((numStripes > 0),
+         "StripedCounter.numStripes must be greater than zero.");
+
+    int stripes = 1;
+    while (stripes < numStripes)
+    {
+      stripes <<= 1;
+    }
+
+    stripeMask = stripes - 1;
+    values = new AtomicLongArray(stripes * STRIPE_SIZE);
+  }
+
+
+
+  /**
+   * Retrieves the number of stripes used by this counter.
+   *
+   * @return  The number of stripes used by this counter.
+   */
+  public int getNumStripes()
+  {
+    return stripeMask + 1;
+  }
+
+
+
+  /**
+   * Increments the value of this counter by one.
+   */
+  public void increment()
+  {
+    values.incrementAndGet(getStripeOffset());
+  }
+
+
+
+  /**
+   * Decrements the value of this counter by one.
+   */
+  public void decrement()
+  {
+    values.decrementAndGet(getStripeOffset());
+  }
+
+
+
+  /**
+   * Adds the provided value to this counter.
+   *
+   * @param  delta  The value to add.  It may be negative.
+   */
+  public void add(final long delta)
+  {
+    values.addAndGet(getStripeOffset(), delta);
+  }
+
+
+
+  /**
+   * Retrieves the current value of this counter.
+   *
+   * @return  The current value of this counter.
+   */
+  public long get()
+  {
+    long sum = 0L;
+    for (int i=0; i < values.length(); i += STRIPE_SIZE)
+    {
+      sum += values.get(i);
+    }
+
+    return sum;
+  }
+
+
+
+  /**
+   * Retrieves the current value of this counter and resets it to zero.  Each
+   * update made by a concurrent thread will be reflected either in the value
+   * that is returned or in the counter after it has been reset.
+   *
+   * @return  The value of this counter before it was reset.
+   */
+  public long getAndReset()
+  {
+    long sum = 0L;
+    for (int i=0; i < values.length(); i += STRIPE_SIZE)
+    {
+      sum += values.getAndSet(i, 0L);
+    }
+
+    return sum;
+  }
+
+
+
+  /**
+   * Resets this counter to zero.
+   */
+  public void reset()
+  {
+    for (int i=0; i < values.length(); i += STRIPE_SIZE)
+    {
+      values.set(i, 0L);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the offset of the stripe that should be updated by the current
+   * thread.
+   *
+   * @return  The offset of the stripe that should be updated by the current
+   *          thread.
+   */
+  private int getStripeOffset()
+  {
+    if (stripeMask == 0)
+    {
+      return 0;
+    }
+
+    final long threadID = Thread.currentThread().getId();
+    final int hash = (int) (threadID ^ (threadID >>> 32)) * 0x9E3779B9;
+    return ((hash >>> 16) & stripeMask) * STRIPE_SIZE;
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this counter.
+   *
+   * @return  A string representation of this counter.
+   */
+  @Override()
+  public String toString()
+  {
+    return String.valueOf(get());
+  }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.ssl;
+
+
+
+import java.security.GeneralSecurityException;
+import java.util.Enumeration;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import com.unboundid.util.Debug;
+import com.unboundid.util.Mutable;
+import com.unboundid.util.ThreadSafety;
+import com.unboundid.util.ThreadSafetyLevel;
+import com.unboundid.util.Validator;
+
+
+
+/**
+ * This class provides a client-side SSL context whose session cache can be
+ * shared by any number of connections, so that connections established to a
+ * server with which a session has recently been negotiated can resume that
+ * session rather than performing a full TLS handshake.  Each call to a method
+ * like {@link SSLUtil#createSSLSocketFactory()} creates a new SSL context with
+ * its own empty session cache, so connections created with different socket
+ * factories can never resume each other's sessions.  Connection pools that
+ * frequently replace connections (for example, because they have a maximum
+ * connection age) can significantly reduce the CPU cost of establishing
+ * connections on both the client and the server by sharing a single instance
+ * of this class.
+ * <BR><BR>
+ * The socket factory provided by this class creates sockets without any
+ * synchronization, so it may be used by any number of threads at once.  The
+ * same socket factory may be used for connections that use SSL, and in a
+ * {@code StartTLSPostConnectProcessor} for connections that use StartTLS.
+ * Sessions are cached by the address and port of the server, so the
+ * {@code LDAPConnectionPoolStatistics.getNumResumedTLSHandshakes} method may be
+ * used to determine how effective the cache is.
+ * <BR><BR>
+ * <H2>Example</H2>
+ * The following example demonstrates the process for creating a connection
+ * pool whose connections share a session cache that can hold up to 500
+ * sessions for up to one hour:
+ * <PRE>
+ * SSLUtil sslUtil = new SSLUtil(new TrustStoreTrustManager(trustStorePath));
+ * SSLClientSessionContext sessionContext =
+ *      new SSLClientSessionContext(sslUtil, 500, 3600);
+ *
+ * LDAPConnection connection = new LDAPConnection(
+ *      sessionContext.getSSLSocketFactory(), serverAddress, serverPort);
+ * LDAPConnectionPool pool = new LDAPConnectionPool(connection, 10);
+ * </PRE>
+ */
+@Mutable()
+@ThreadSafety(level=ThreadSafetyLevel.COMPLETELY_THREADSAFE)
+public final class SSLClientSessionContext
+{
+  /**
+   * The default maximum number of sessions that will be held in the session
+   * cache.
+   */
+  public static final int DEFAULT_SESSION_CACHE_SIZE = 1000;
+
+
+
+  /**
+   * The default maximum length of time in seconds that a session will be held
+   * in the session cache.
+   */
+  public static final int DEFAULT_SESSION_TIMEOUT_SECONDS = 3600;
+
+
+
+  // The SSL context whose client session cache is being shared.
+  private final SSLContext sslContext;
+
+  // The socket factory that will be used to create sockets.
+  private final SSLSocketFactory socketFactory;
+
+
+
+  /**
+   * Creates a new SSL client session context that uses the key and trust
+   * managers from the provided {@code SSLUtil} instance, along with the default
+   * session cache size and timeout.
+   *
+   * @param  sslUtil  The {@code SSLUtil} instance that will be used to create
+   *                  the SSL context.  It must not be {@code null}.
+   *
+   * @throws  GeneralSecurityException  If a problem occurs while creating or
+   *                                    initializing the SSL context.
+   */
+  public SSLClientSessionContext(final SSLUtil sslUtil)
+         throws GeneralSecurityException
+  {
+    this(sslUtil, DEFAULT_SESSION_CACHE_SIZE, DEFAULT_SESSION_TIMEOUT_SECONDS);
+  }
+
+
+
+  /**
+   * Creates a new SSL client session context that uses the key and trust
+   * managers from the provided {@code SSLUtil} instance, along with the
+   * specified session cache size and timeout.
+   *
+   * @param  sslUtil                The {@code SSLUtil} instance that will be
+   *                                used to create the SSL context.  It must not
+   *                                be {@code null}.
+   * @param  sessionCacheSize       The maximum number of sessions that may be
+   *                                held in the session cache.  A value of zero
+   *                                indicates that there should be no limit.  It
+   *                                must not be negative.
+   * @param  sessionTimeoutSeconds  The maximum length of time in seconds that
+   *                                a session may be held in the session cache
+   *                                and resumed by new connections.  A value of
+   *                                zero indicates that there should be no
+   *                                limit.  It must not be negative.
+   *
+   * @throws  GeneralSecurityException  If a problem occurs while creating or
+   *                                    initializing the SSL context.
+   */
+  public SSLClientSessionContext(final SSLUtil sslUtil,
+                                 final int sessionCacheSize,
+                                 final int sessionTimeoutSeconds)
+         throws GeneralSecurityException
+  {
+    Validator.ensureNotNull(sslUtil);
+    Validator.ensureTrue((sessionCacheSize >= 0),
+         "SSLClientSessionContext.sessionCacheSize must not be negative.");
+    Validator.ensureTrue((sessionTimeoutSeconds >= 0),
+         "SSLClientSessionContext.sessionTimeoutSeconds must not be negative.");
+
+    sslContext = sslUtil.createSSLContext();
+
+    final SSLSessionContext sessionContext =
+         sslContext.getClientSessionContext();
+    sessionContext.setSessionCacheSize(sessionCacheSize);
+    sessionContext.setSessionTimeout(sessionTimeoutSeconds);
+
+    socketFactory = new SetEnabledProtocolsAndCipherSuitesSSLSocketFactory(
+         sslContext.getSocketFactory(), SSLUtil.getEnabledSSLProtocols(),
+         SSLUtil.getEnabledSSLCipherSuites());
+  }
+
+
+
+  /**
+   * Retrieves the SSL context whose client session cache is shared by the
+   * sockets created by this session context.
+   *
+   * @return  The SSL context whose client session cache is shared by the
+   *          sockets created by this session context.
+   */
+  public SSLContext getSSLContext()
+  {
+    return sslContext;
+  }
+
+
+
+  /**
+   * Retrieves the SSL socket factory that should be used to create sockets
+   * that share this session context.  The same socket factory instance will be
+   * returned for every call, and it may be used concurrently by any number of
+   * threads.
+   *
+   * @return  The SSL socket factory that should be used to create sockets that
+   *          share this session context.
+   */
+  public SSLSocketFactory getSSLSocketFactory()
+  {
+    return socketFactory;
+  }
+
+
+
+  /**
+   * Retrieves the maximum number of sessions that may be held in the session
+   * cache.
+   *
+   * @return  The maximum number of sessions that may be held in the session
+   *          cache, or zero if there is no limit.
+   */
+  public int getSessionCacheSize()
+  {
+    return sslContext.getClientSessionContext().getSessionCacheSize();
+  }
+
+
+
+  /**
+   * Specifies the maximum number of sessions that may be held in the session
+   * cache.  If the cache currently holds more sessions than the new limit,
+   * then the least recently used sessions will be removed.
+   *
+   * @param  sessionCacheSize  The maximum number of sessions that may be held
+   *                           in the session cache.  A value of zero indicates
+   *                           that there should be no limit.  It must not be
+   *                           negative.
+   */
+  public void setSessionCacheSize(final int sessionCacheSize)
+  {
+    Validator.ensureTrue((sessionCacheSize >= 0),
+         "SSLClientSessionContext.sessionCacheSize must not be negative.");
+    sslContext.getClientSessionContext().setSessionCacheSize(sessionCacheSize);
+  }
+
+
+
+  /**
+   * Retrieves the maximum length of time in seconds that a session may be held
+   * in the session cache and resumed by new connections.
+   *
+   * @return  The maximum length of time in seconds that a session may be held
+   *          in the session cache, or zero if there is no limit.
+   */
+  public int getSessionTimeoutSeconds()
+  {
+    return sslContext.getClientSessionContext().getSessionTimeout();
+  }
+
+
+
+  /**
+   * Specifies the maximum length of time in seconds that a session may be held
+   * in the session cache and resumed by new connections.
+   *
+   * @param  sessionTimeoutSeconds  The maximum length of time in seconds that
+   *                                a session may be held in the session cache.
+   *                                A value of zero indicates that there should
+   *                                be no limit.  It must not be negative.
+   */
+  public void setSessionTimeoutSeconds(final int sessionTimeoutSeconds)
+  {
+    Validator.ensureTrue((sessionTimeoutSeconds >= 0),
+         "SSLClientSessionContext.sessionTimeoutSeconds must not be negative.");
+    sslContext.getClientSessionContext().setSessionTimeout(
+         sessionTimeoutSeconds);
+  }
+
+
+
+  /**
+   * Retrieves the number of sessions currently held in the session cache.
+   *
+   * @return  The number of sessions currently held in the session cache.
+   */
+  public int getNumCachedSessions()
+  {
+    int numSessions = 0;
+    final Enumeration<byte[]> ids =
+         sslContext.getClientSessionContext().getIds();
+    while (ids.hasMoreElements())
+    {
+      ids.nextElement();
+      numSessions++;
+    }
+
+    return numSessions;
+  }
+
+
+
+  /**
+   * Invalidates all sessions currently held in the session cache, so that
+   * subsequent connections will be required to perform a full handshake.  This
+   * may be useful if the trust or key material used by the server has changed.
+   */
+  public void invalidateCachedSessions()
+  {
+    final SSLSessionContext sessionContext =
+         sslContext.getClientSessionContext();
+    final Enumeration<byte[]> ids = sessionContext.getIds();
+    while (ids.hasMoreElements())
+    {
+      try
+      {
+        final SSLSession session = sessionContext.getSession(ids.nextElement());
+        if (session != null)
+        {
+          session.invalidate();
+        }
+      }
+      catch (final Exception e)
+      {
+        Debug.debugException(e);
+      }
+    }
+  }
+
+
+
+  /**
+   * Retrieves a string representation of this SSL client session context.
+   *
+   * @return  A string representation of this SSL client session context.
+   */
+  @Override()
+  public String toString()
+  {
+    final StringBuilder buffer = new StringBuilder();
+    toString(buffer);
+    return buffer.toString();
+  }
+
+
+
+  /**
+   * Appends a string representation of this SSL client session context to the
+   * provided buffer.
+   *
+   * @param  buffer  The buffer to which the information should be appended.
+   */
+  public void toString(final StringBuilder buffer)
+  {
+    buffer.append("SSLClientSessionContext(protocol='");
+    buffer.append(sslContext.getProtocol());
+    buffer.append("', sessionCacheSize=");
+    buffer.append(getSessionCacheSize());
+    buffer.append(", sessionTimeoutSeconds=");
+    buffer.append(getSessionTimeoutSeconds());
+    buffer.append(", numCachedSessions=");
+    buffer.append(getNumCachedSessions());
+    buffer.append(')');
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.listener;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.OperationType;
+import com.unboundid.util.LDAPSDKUsageException;
+import com.unboundid.util.TestLogHandler;
+import com.unboundid.util.json.JSONObject;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code LDAPListenerMetrics}
+ * and {@code LDAPListenerMetricsSnapshot} classes.
+ */
+public final class LDAPListenerMetricsTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of a newly-created metrics object.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEmpty()
+         throws Exception
+  {
+    final LDAPListenerMetrics metrics = new LDAPListenerMetrics();
+    assertNotNull(metrics.toString());
+
+    final LDAPListenerMetricsSnapshot snapshot = metrics.getSnapshot();
+    assertNotNull(snapshot.getResetTime());
+    assertNotNull(snapshot.getSnapshotTime());
+    assertEquals(snapshot.getActiveConnections(), 0L);
+    assertEquals(snapshot.getTotalConnections(), 0L);
+    assertEquals(snapshot.getOperationsInProgress(), 0L);
+    assertEquals(snapshot.getBytesRead(), 0L);
+    assertEquals(snapshot.getBytesWritten(), 0L);
+    assertEquals(snapshot.getTotalRequestCount(), 0L);
+
+    for (final OperationType t : OperationType.values())
+    {
+      assertEquals(snapshot.getRequestCount(t), 0L);
+      assertEquals(snapshot.getProcessingTimeHistogram(t).getCount(), 0L);
+    }
+
+    final JSONObject o = snapshot.toJSONObject();
+    assertEquals(o.getFieldAsInteger("activeConnections").intValue(), 0);
+    assertNotNull(o.getFieldAsObject("operations").getFieldAsObject(
+         "modify-dn"));
+    assertNotNull(snapshot.toString());
+  }
+
+
+
+  /**
+   * Tests the behavior when updating the metrics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testUpdates()
+         throws Exception
+  {
+    final LDAPListenerMetrics metrics = new LDAPListenerMetrics();
+
+    metrics.connectionEstablished();
+    metrics.connectionEstablished();
+    metrics.connectionClosed();
+
+    metrics.operationStarted(OperationType.SEARCH);
+    metrics.operationStarted(OperationType.SEARCH);
+    metrics.operationStarted(OperationType.ABANDON);
+    metrics.operationCompleted(OperationType.SEARCH, 1_000L);
+    metrics.operationCompleted(OperationType.ABANDON, 1_000L);
+
+    metrics.addBytes(100L, 200L);
+    metrics.addBytes(10L, 0L);
+
+    LDAPListenerMetricsSnapshot snapshot = metrics.getSnapshot();
+    assertEquals(snapshot.getActiveConnections(), 1L);
+    assertEquals(snapshot.getTotalConnections(), 2L);
+    assertEquals(snapshot.getOperationsInProgress(), 1L);
+    assertEquals(snapshot.getBytesRead(), 110L);
+    assertEquals(snapshot.getBytesWritten(), 200L);
+    assertEquals(snapshot.getRequestCount(OperationType.SEARCH), 2L);
+    assertEquals(snapshot.getRequestCount(OperationType.ABANDON), 1L);
+    assertEquals(snapshot.getTotalRequestCount(), 3L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.SEARCH).getCount(), 1L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.SEARCH).getMaximumNanos(), 1_000L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.ABANDON).getCount(), 0L);
+
+    final JSONObject o = snapshot.toJSONObject();
+    assertEquals(o.getFieldAsInteger("totalConnections").intValue(), 2);
+    assertEquals(o.getFieldAsInteger("bytesRead").intValue(), 110);
+    final JSONObject search =
+         o.getFieldAsObject("operations").getFieldAsObject("search");
+    assertEquals(search.getFieldAsInteger("requests").intValue(), 2);
+    assertEquals(search.getFieldAsInteger("maximumNanos").intValue(), 1_000);
+    assertNull(o.getFieldAsObject("operations").getFieldAsObject(
+         "abandon").getField("maximumNanos"));
+
+    // Resetting the metrics should clear the cumulative values, but not the
+    // gauges.
+    metrics.reset();
+    snapshot = metrics.getSnapshot();
+    assertEquals(snapshot.getActiveConnections(), 1L);
+    assertEquals(snapshot.getOperationsInProgress(), 1L);
+    assertEquals(snapshot.getTotalConnections(), 0L);
+    assertEquals(snapshot.getBytesRead(), 0L);
+    assertEquals(snapshot.getBytesWritten(), 0L);
+    assertEquals(snapshot.getTotalRequestCount(), 0L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.SEARCH).getCount(), 0L);
+  }
+
+
+
+  /**
+   * Tests the ability to periodically write metrics to a log handler.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testPeriodicJSONDump()
+         throws Exception
+  {
+    final LDAPListenerMetrics metrics = new LDAPListenerMetrics();
+    metrics.operationStarted(OperationType.ADD);
+    metrics.operationCompleted(OperationType.ADD, 5_000L);
+
+    final TestLogHandler logHandler = new TestLogHandler();
+
+    // Stopping when not started should not have any effect.
+    metrics.stopPeriodicJSONDump();
+
+    metrics.startPeriodicJSONDump(logHandler, 10L);
+
+    final long stopWaitingTime = System.currentTimeMillis() + 10_000L;
+    while ((logHandler.getMessageCount() < 2) &&
+         (System.currentTimeMillis() < stopWaitingTime))
+    {
+      Thread.sleep(10L);
+    }
+
+    metrics.stopPeriodicJSONDump();
+    assertTrue(logHandler.getMessageCount() >= 2);
+
+    final String message = logHandler.getMessagesString();
+    assertTrue(message.contains("\"totalRequests\":1"), message);
+
+    // A snapshot that was already being written when the dump was stopped
+    // may still be published, but no more should be written after that.
+    Thread.sleep(50L);
+    final int count = logHandler.getMessageCount();
+    Thread.sleep(100L);
+    assertEquals(logHandler.getMessageCount(), count);
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to start a periodic dump with an invalid
+   * interval.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testPeriodicJSONDumpInvalidInterval()
+         throws Exception
+  {
+    new LDAPListenerMetrics().startPeriodicJSONDump(new TestLogHandler(), 0L);
+  }
+}
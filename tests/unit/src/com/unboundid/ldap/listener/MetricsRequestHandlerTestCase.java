@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.listener;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.InternalSDKHelper;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.OperationType;
+import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.ldap.sdk.extensions.WhoAmIExtendedRequest;
+
+
+
+/**
+ * This class provides a set of test cases for the metrics request handler.
+ */
+public final class MetricsRequestHandlerTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of the metrics request handler when used with an LDAP
+   * listener to process all types of operations.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAllOperationTypes()
+         throws Exception
+  {
+    final InMemoryDirectoryServerConfig inMemoryConfig =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    inMemoryConfig.addAdditionalBindCredentials("cn=Directory Manager",
+         "password");
+    final InMemoryRequestHandler inMemoryRequestHandler =
+         new InMemoryRequestHandler(inMemoryConfig);
+
+    final LDAPListenerMetrics metrics = new LDAPListenerMetrics();
+    final MetricsRequestHandler metricsRequestHandler =
+         new MetricsRequestHandler(inMemoryRequestHandler, metrics);
+    assertSame(metricsRequestHandler.getMetrics(), metrics);
+
+    final LDAPListenerConfig listenerConfig =
+         new LDAPListenerConfig(0, metricsRequestHandler);
+
+    final LDAPListener listener = new LDAPListener(listenerConfig);
+    listener.startListening();
+
+    final LDAPConnection conn = new LDAPConnection("127.0.0.1",
+         listener.getListenPort());
+    assertEquals(waitForActiveConnections(metrics, 1L), 1L);
+
+    conn.bind("cn=Directory Manager", "password");
+
+    conn.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+    conn.add(
+         "dn: ou=People,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: People");
+
+    conn.search("dc=example,dc=com", SearchScope.SUB, "(objectClass=*)");
+    conn.compare("dc=example,dc=com", "dc" ,"example");
+    conn.modify(
+         "dn: dc=example,dc=com",
+         "changetype: modify",
+         "replace: description",
+         "description: foo");
+    conn.modifyDN("ou=People,dc=example,dc=com", "ou=Users", true);
+    conn.delete("ou=Users,dc=example,dc=com");
+    conn.delete("dc=example,dc=com");
+    conn.processExtendedOperation(new WhoAmIExtendedRequest());
+    conn.abandon(InternalSDKHelper.createAsyncRequestID(1, conn));
+
+    LDAPListenerMetricsSnapshot snapshot = metrics.getSnapshot();
+    assertEquals(snapshot.getActiveConnections(), 1L);
+    assertEquals(snapshot.getTotalConnections(), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.BIND), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.ADD), 2L);
+    assertEquals(snapshot.getRequestCount(OperationType.SEARCH), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.COMPARE), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.MODIFY), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.MODIFY_DN), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.DELETE), 2L);
+    assertEquals(snapshot.getRequestCount(OperationType.EXTENDED), 1L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.ADD).getCount(), 2L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.SEARCH).getCount(), 1L);
+    assertEquals(snapshot.getProcessingTimeHistogram(
+         OperationType.ABANDON).getCount(), 0L);
+    assertTrue(snapshot.getBytesRead() > 0L);
+    assertTrue(snapshot.getBytesWritten() > 0L);
+
+    conn.close();
+    assertEquals(waitForActiveConnections(metrics, 0L), 0L);
+
+    snapshot = metrics.getSnapshot();
+    assertEquals(snapshot.getRequestCount(OperationType.ABANDON), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.UNBIND), 1L);
+    assertEquals(snapshot.getTotalRequestCount(), 12L);
+    assertEquals(snapshot.getOperationsInProgress(), 0L);
+    assertEquals(snapshot.getTotalConnections(), 1L);
+
+    listener.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the behavior when metrics are enabled through the in-memory
+   * directory server configuration.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testInMemoryDirectoryServer()
+         throws Exception
+  {
+    final LDAPListenerMetrics metrics = new LDAPListenerMetrics();
+
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    assertNull(cfg.getMetrics());
+    cfg.setMetrics(metrics);
+    assertSame(cfg.getMetrics(), metrics);
+    assertTrue(cfg.toString().contains("metricsEnabled=true"));
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.startListening();
+
+    final LDAPConnection conn = ds.getConnection();
+    conn.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+    assertNotNull(conn.getEntry("dc=example,dc=com"));
+    conn.close();
+    assertEquals(waitForActiveConnections(metrics, 0L), 0L);
+
+    final LDAPListenerMetricsSnapshot snapshot = metrics.getSnapshot();
+    assertEquals(snapshot.getTotalConnections(), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.ADD), 1L);
+    assertEquals(snapshot.getRequestCount(OperationType.SEARCH), 1L);
+
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Waits for the number of active connections in the provided metrics to
+   * reach the expected value, for up to ten seconds.
+   *
+   * @param  metrics   The metrics to examine.
+   * @param  expected  The expected number of active connections.
+   *
+   * @return  The number of active connections at the time this method
+   *          returns.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static long waitForActiveConnections(
+                           final LDAPListenerMetrics metrics,
+                           final long expected)
+          throws Exception
+  {
+    final long stopWaitingTime = System.currentTimeMillis() + 10_000L;
+    while (System.currentTimeMillis() < stopWaitingTime)
+    {
+      final long activeConnections =
+           metrics.getSnapshot().getActiveConnections();
+      if (activeConnections == expected)
+      {
+        return activeConnections;
+      }
+
+      Thread.sleep(10L);
+    }
+
+    return metrics.getSnapshot().getActiveConnections();
+  }
+}
@@ -41,6 +41,7 @@ import org.testng.annotations.Test;
 
 import com.unboundid.ldap.listener.InMemoryDirectoryServer;
 import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.util.HashedWheelTimer;
 
 
 
@@ -200,4 +201,51 @@ public final class AsyncTimeoutTestCase
     conn.close();
     ds.shutDown(true);
   }
+
+
+
+  /**
+   * Tests to ensure that the timeouts for asynchronous operations that
+   * complete before the timeout expires are cancelled.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAsyncTimeoutCancelledOnResponse()
+         throws Exception
+  {
+    final InMemoryDirectoryServerConfig cfg = new InMemoryDirectoryServerConfig(
+         "dc=example,dc=com");
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+    ds.startListening();
+
+    final LDAPConnection conn = ds.getConnection();
+    final HashedWheelTimer timer = conn.getAsyncTimeoutTimer();
+    final long initialScheduled = timer.getNumScheduledTimeouts();
+    final long initialCancelled = timer.getNumCancelledTimeouts();
+
+    final TestAsyncListener asyncListener = new TestAsyncListener();
+    for (int i=0; i < 100; i++)
+    {
+      final CompareRequest compareRequest =
+           new CompareRequest("dc=example,dc=com", "objectClass", "top");
+      compareRequest.setResponseTimeoutMillis(60_000L);
+
+      final AsyncRequestID asyncID =
+           conn.asyncCompare(compareRequest, asyncListener);
+      assertResultCodeEquals(asyncID.get(), ResultCode.COMPARE_TRUE);
+    }
+
+    assertTrue((timer.getNumScheduledTimeouts() - initialScheduled) >= 100L);
+    assertTrue((timer.getNumCancelledTimeouts() - initialCancelled) >= 100L);
+    assertTrue(LDAPConnection.getNumPendingAsyncTimeouts() >= 0L);
+
+    conn.close();
+    ds.shutDown(true);
+  }
 }
@@ -53,6 +53,9 @@ import com.unboundid.ldap.matchingrules.IntegerMatchingRule;
 import com.unboundid.ldap.matchingrules.CaseExactStringMatchingRule;
 import com.unboundid.ldap.matchingrules.CaseIgnoreStringMatchingRule;
 import com.unboundid.ldap.matchingrules.DistinguishedNameMatchingRule;
+import com.unboundid.ldap.matchingrules.MatchingRule;
+import com.unboundid.ldap.matchingrules.NumericStringMatchingRule;
+import com.unboundid.ldap.sdk.controls.SortKey;
 import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.util.LDAPSDKUsageException;
 
@@ -2117,4 +2120,349 @@ public class AttributeTestCase
       new Object[] { "a\r\nb", true },
     };
   }
+
+
+
+  /**
+   * Tests the behavior of attributes when normalized value caching is
+   * enabled, making sure that the results are the same as when it is
+   * disabled.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNormalizedValueCaching()
+         throws Exception
+  {
+    assertFalse(Attribute.cacheNormalizedValues());
+    assertEquals(Attribute.getMaxNormalizedValueCacheBytes(),
+         Attribute.DEFAULT_MAX_NORMALIZED_VALUE_CACHE_BYTES);
+
+    final String[] memberValues = new String[100];
+    final String[] upperMemberValues = new String[100];
+    for (int i=0; i < memberValues.length; i++)
+    {
+      memberValues[i] = "uid=user." + i + ",ou=People,dc=example,dc=com";
+      upperMemberValues[i] = "UID=User." + i + ",OU=People,DC=Example,DC=Com";
+    }
+
+    try
+    {
+      Attribute.setCacheNormalizedValues(true);
+      assertTrue(Attribute.cacheNormalizedValues());
+
+      final Attribute cnAttr =
+           new Attribute("cn", CaseIgnoreStringMatchingRule.getInstance(),
+                "John Doe", "Johnny");
+      assertTrue(cnAttr.hasValue("john  doe"));
+      assertTrue(cnAttr.hasValue("JOHNNY"));
+      assertFalse(cnAttr.hasValue("John"));
+      assertTrue(cnAttr.hasValue("Johnny".getBytes("UTF-8")));
+      assertFalse(cnAttr.hasValue("johnny",
+           CaseExactStringMatchingRule.getInstance()));
+      assertNotNull(cnAttr.getNormalizedValues(
+           CaseIgnoreStringMatchingRule.getInstance()));
+      assertNull(cnAttr.getNormalizedValues(
+           CaseExactStringMatchingRule.getInstance()));
+
+      final Attribute largeAttr = new Attribute("description",
+           CaseIgnoreStringMatchingRule.getInstance(), memberValues);
+      final Attribute largeUpperAttr = new Attribute("description",
+           CaseIgnoreStringMatchingRule.getInstance(), upperMemberValues);
+      for (final String s : upperMemberValues)
+      {
+        assertTrue(largeAttr.hasValue(s));
+      }
+      assertFalse(
+           largeAttr.hasValue("uid=user.100,ou=People,dc=example,dc=com"));
+      assertEquals(largeAttr, largeUpperAttr);
+      assertEquals(largeAttr.hashCode(), largeUpperAttr.hashCode());
+
+      final Attribute largeOtherAttr = new Attribute("description",
+           CaseIgnoreStringMatchingRule.getInstance(),
+           Arrays.copyOf(memberValues, 99));
+      assertFalse(largeAttr.equals(largeOtherAttr));
+      assertFalse(largeAttr.equals(
+           Attribute.mergeAttributes(largeOtherAttr,
+                new Attribute("description", "something else"))));
+
+      // Make sure that values that cannot be normalized are handled properly.
+      final Attribute numericAttr = new Attribute("numericAttr",
+           NumericStringMatchingRule.getInstance(), "1", "0 2", "foo");
+      assertTrue(numericAttr.hasValue("02"));
+      assertTrue(numericAttr.hasValue("foo"));
+      assertFalse(numericAttr.hasValue("3"));
+      assertNull(numericAttr.getNormalizedValues(
+           NumericStringMatchingRule.getInstance())[2]);
+
+      // Make sure that the size limit is honored.
+      Attribute.setMaxNormalizedValueCacheBytes(100L);
+      final Attribute uncachedAttr = new Attribute("description",
+           CaseIgnoreStringMatchingRule.getInstance(), memberValues);
+      assertTrue(uncachedAttr.hasValue(upperMemberValues[50]));
+      assertNull(uncachedAttr.getNormalizedValues(
+           CaseIgnoreStringMatchingRule.getInstance()));
+      assertEquals(uncachedAttr, largeAttr);
+    }
+    finally
+    {
+      Attribute.setCacheNormalizedValues(false);
+      Attribute.setMaxNormalizedValueCacheBytes(
+           Attribute.DEFAULT_MAX_NORMALIZED_VALUE_CACHE_BYTES);
+    }
+
+    final Attribute disabledAttr = new Attribute("cn", "John Doe");
+    assertTrue(disabledAttr.hasValue("JOHN DOE"));
+    assertNull(disabledAttr.getNormalizedValues(
+         CaseIgnoreStringMatchingRule.getInstance()));
+  }
+
+
+
+  /**
+   * Tests to ensure that filter evaluation and entry sorting yield the same
+   * results with and without normalized value caching.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNormalizedValueCachingWithFiltersAndSorting()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final Filter[] filters =
+    {
+      Filter.create("(cn=USER 5)"),
+      Filter.create("(cn=user*)"),
+      Filter.create("(cn=*9)"),
+      Filter.create("(sn>=m)"),
+      Filter.create("(sn<=M)"),
+      Filter.create("(employeeNumber>=5)"),
+      Filter.create("(member=UID=User.3,OU=People,DC=Example,DC=Com)"),
+    };
+
+    final LinkedList<Entry> entries = new LinkedList<>();
+    for (int i=0; i < 20; i++)
+    {
+      final Entry e = new Entry(
+           "dn: uid=user." + i + ",ou=People,dc=example,dc=com",
+           "objectClass: top",
+           "objectClass: groupOfNames",
+           "cn: User " + i,
+           "cn: Other " + (20 - i),
+           "sn: " + (char) ('a' + i),
+           "employeeNumber: " + i);
+      for (int j=0; j < 20; j++)
+      {
+        e.addAttribute("member",
+             "uid=user." + (i + j) + ",ou=People,dc=example,dc=com");
+      }
+      entries.add(e);
+    }
+
+    final EntrySorter sorter = new EntrySorter(false, schema,
+         new SortKey("sn", true), new SortKey("cn"));
+
+    final LinkedList<Boolean> uncachedResults = new LinkedList<>();
+    for (final Filter f : filters)
+    {
+      for (final Entry e : entries)
+      {
+        uncachedResults.add(f.matchesEntry(e, schema));
+        uncachedResults.add(f.compile(schema).matchesEntry(e));
+      }
+    }
+    final Object[] uncachedOrder = sorter.sort(entries).toArray();
+
+    try
+    {
+      Attribute.setCacheNormalizedValues(true);
+
+      final LinkedList<Entry> cachedEntries = new LinkedList<>();
+      for (final Entry e : entries)
+      {
+        cachedEntries.add(e.duplicate());
+      }
+
+      final LinkedList<Boolean> cachedResults = new LinkedList<>();
+      for (final Filter f : filters)
+      {
+        for (final Entry e : cachedEntries)
+        {
+          cachedResults.add(f.matchesEntry(e, schema));
+          cachedResults.add(f.compile(schema).matchesEntry(e));
+        }
+      }
+
+      assertEquals(cachedResults, uncachedResults);
+      assertTrue(cachedResults.contains(Boolean.TRUE));
+      assertTrue(cachedResults.contains(Boolean.FALSE));
+      assertEquals(sorter.sort(cachedEntries).toArray(), uncachedOrder);
+    }
+    finally
+    {
+      Attribute.setCacheNormalizedValues(false);
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior of attributes whose values are indexed because they
+   * have at least the value index threshold number of values, making sure
+   * that the results are the same as when the values are not indexed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testValueIndexForLargeAttributes()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final int originalThreshold = Attribute.getValueIndexThreshold();
+    assertEquals(originalThreshold, Attribute.DEFAULT_VALUE_INDEX_THRESHOLD);
+
+    final String[] memberValues = new String[200];
+    for (int i=0; i < (memberValues.length - 1); i++)
+    {
+      memberValues[i] = "uid=user." + i + ",ou=People,dc=example,dc=com";
+    }
+    memberValues[memberValues.length - 1] = "not a valid dn";
+
+    final Attribute toAdd = new Attribute("member", schema,
+         "UID=User.500,OU=People,DC=Example,DC=Com",
+         "uid=user.5, ou=people, dc=example, dc=com",
+         "also not a valid dn");
+    final Attribute toRemove = new Attribute("member", schema,
+         "UID=User.0,OU=People,DC=Example,DC=Com",
+         "uid=user.1,ou=people,dc=example,dc=com",
+         "uid=user.1000,ou=people,dc=example,dc=com",
+         "not a valid dn");
+
+    try
+    {
+      Attribute.setValueIndexThreshold(0);
+      assertEquals(Attribute.getValueIndexThreshold(), Integer.MAX_VALUE);
+
+      final Attribute unindexed = new Attribute("member", schema, memberValues);
+      final Attribute unindexedMerged =
+           Attribute.mergeAttributes(unindexed, toAdd);
+      final Attribute unindexedRemoved =
+           Attribute.removeValues(unindexedMerged, toRemove);
+
+      Attribute.setValueIndexThreshold(100);
+      assertEquals(Attribute.getValueIndexThreshold(), 100);
+
+      final Attribute indexed = new Attribute("member", schema, memberValues);
+      final MatchingRule mr = indexed.getMatchingRule();
+      assertTrue(mr instanceof DistinguishedNameMatchingRule);
+
+      assertTrue(indexed.hasValue("UID=User.150,OU=People,DC=Example,DC=Com"));
+      assertFalse(indexed.hasValue(
+           "uid=user.500,ou=People,dc=example,dc=com"));
+      assertNotNull(indexed.getNormalizedValues(mr));
+      assertEquals(indexed, unindexed);
+      assertEquals(indexed.hashCode(), unindexed.hashCode());
+
+      final Attribute indexedMerged =
+           Attribute.mergeAttributes(indexed, toAdd);
+      assertEquals(indexedMerged.size(), 202);
+      assertEquals(indexedMerged.getValues(), unindexedMerged.getValues());
+      assertNotNull(indexedMerged.getNormalizedValues(mr));
+      assertEquals(indexedMerged.getNormalizedValues(mr).length, 202);
+      assertTrue(indexedMerged.hasValue(
+           "uid=user.500,ou=people,dc=example,dc=com"));
+      assertTrue(indexedMerged.hasValue("also not a valid dn"));
+
+      final Attribute indexedRemoved =
+           Attribute.removeValues(indexedMerged, toRemove);
+      assertEquals(indexedRemoved.getValues(), unindexedRemoved.getValues());
+      assertNotNull(indexedRemoved.getNormalizedValues(mr));
+      assertEquals(indexedRemoved.getNormalizedValues(mr).length,
+           indexedRemoved.size());
+      assertFalse(indexedRemoved.hasValue(
+           "uid=user.0,ou=people,dc=example,dc=com"));
+      assertFalse(indexedRemoved.hasValue(
+           "uid=user.1,ou=people,dc=example,dc=com"));
+      assertTrue(indexedRemoved.hasValue(
+           "uid=user.2,ou=people,dc=example,dc=com"));
+      assertEquals(indexedRemoved,
+           new Attribute("member", schema, indexedRemoved.getValues()));
+
+      final Attribute small = new Attribute("member", schema,
+           memberValues[0], memberValues[1]);
+      if (! Attribute.cacheNormalizedValues())
+      {
+        assertNull(small.getNormalizedValues(mr));
+      }
+    }
+    finally
+    {
+      Attribute.setValueIndexThreshold(originalThreshold);
+    }
+  }
+
+
+
+  /**
+   * Tests a long sequence of modifications to an indexed attribute, making
+   * sure that the hash set carried from one attribute to the next always
+   * gives the same results as a set built from scratch.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testValueIndexCarriedThroughModifications()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final int originalThreshold = Attribute.getValueIndexThreshold();
+
+    final String[] memberValues = new String[100];
+    for (int i=0; i < memberValues.length; i++)
+    {
+      memberValues[i] = "uid=user." + i + ",ou=People,dc=example,dc=com";
+    }
+
+    try
+    {
+      Attribute.setValueIndexThreshold(50);
+
+      Attribute a = new Attribute("member", schema, memberValues);
+      assertTrue(a.hasValue(memberValues[0]));
+
+      for (int i=0; i < 30; i++)
+      {
+        final String added =
+             "UID=User." + (1000 + i) + ",OU=People,DC=Example,DC=Com";
+        final String removed = memberValues[i];
+
+        a = Attribute.mergeAttributes(a, new Attribute("member", schema,
+             added, memberValues[50]));
+        assertTrue(a.hasValue("uid=user." + (1000 + i) +
+             ",ou=people,dc=example,dc=com"));
+        assertEquals(a.size(), memberValues.length + 1);
+
+        a = Attribute.removeValues(a, new Attribute("member", schema,
+             removed, "uid=user.5000,ou=People,dc=example,dc=com"));
+        assertFalse(a.hasValue(removed));
+        assertTrue(a.hasValue(memberValues[i + 1]));
+        assertTrue(a.hasValue(added));
+        assertEquals(a.size(), memberValues.length);
+
+        final Attribute rebuilt = new Attribute("member", schema,
+             a.getValues());
+        assertEquals(a, rebuilt);
+        assertEquals(rebuilt, a);
+        for (final String v : rebuilt.getValues())
+        {
+          assertTrue(a.hasValue(v));
+        }
+      }
+    }
+    finally
+    {
+      Attribute.setValueIndexThreshold(originalThreshold);
+    }
+  }
 }
@@ -39,10 +39,13 @@ package com.unboundid.ldap.sdk;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
 
-import com.unboundid.util.ObjectPair;
+import com.unboundid.util.LDAPSDKUsageException;
 import com.unboundid.util.args.IPAddressArgumentValueValidator;
 
 
@@ -386,7 +389,8 @@ public final class CachingNameResolverTestCase
     assertEquals(nameResolver.getAddressToNameMap().size() ,1);
 
     final long initialCachedAddressExpirationTime =
-         nameResolver.getAddressToNameMap().get(getByNameAddress).getFirst();
+         nameResolver.getAddressToNameMap().get(getByNameAddress).
+              getExpirationTime();
     assertTrue(initialCachedAddressExpirationTime >=
          earliestInitialExpirationTime);
     assertTrue(initialCachedAddressExpirationTime <=
@@ -397,7 +401,8 @@ public final class CachingNameResolverTestCase
     assertEquals(nameResolver.getNameToAddressMap().size(), 1);
 
     final long initialCachedNameExpirationTime = nameResolver.
-         getNameToAddressMap().get("www.pingidentity.com").getFirst();
+         getNameToAddressMap().get("www.pingidentity.com").
+              getExpirationTime();
     assertTrue(initialCachedNameExpirationTime >=
          earliestInitialExpirationTime);
     assertTrue(initialCachedNameExpirationTime <= latestInitialExpirationTime);
@@ -442,7 +447,8 @@ public final class CachingNameResolverTestCase
     assertEquals(nameResolver.getAddressToNameMap().size() ,1);
 
     final long secondCachedAddressExpirationTime =
-         nameResolver.getAddressToNameMap().get(getByNameAddress).getFirst();
+         nameResolver.getAddressToNameMap().get(getByNameAddress).
+              getExpirationTime();
     assertFalse(secondCachedAddressExpirationTime ==
          initialCachedAddressExpirationTime);
     assertTrue(secondCachedAddressExpirationTime >=
@@ -454,7 +460,8 @@ public final class CachingNameResolverTestCase
     assertEquals(nameResolver.getNameToAddressMap().size(), 1);
 
     final long secondCachedNameExpirationTime = nameResolver.
-         getNameToAddressMap().get("www.pingidentity.com").getFirst();
+         getNameToAddressMap().get("www.pingidentity.com").
+              getExpirationTime();
     assertFalse(secondCachedNameExpirationTime ==
          initialCachedNameExpirationTime);
     assertTrue(secondCachedNameExpirationTime >= earliestSecondExpirationTime);
@@ -501,7 +508,7 @@ public final class CachingNameResolverTestCase
          InetAddress.getByAddress(new byte[] { 1, 2, 3, 4 });
 
     nameResolver.getNameToAddressMap().put("dummy.example.com",
-         new ObjectPair<Long,InetAddress[]>(
+         new CachingNameResolver.CacheRecord<InetAddress[]>(
               (System.currentTimeMillis() + 3_600_000L),
               new InetAddress[] { dummyAddress }));
 
@@ -536,7 +543,7 @@ public final class CachingNameResolverTestCase
          InetAddress.getByAddress(new byte[] { 1, 2, 3, 6 });
 
     nameResolver.getNameToAddressMap().put("dummy.example.com",
-         new ObjectPair<Long,InetAddress[]>(
+         new CachingNameResolver.CacheRecord<InetAddress[]>(
               (System.currentTimeMillis() + 3_600_000L),
               new InetAddress[]
               {
@@ -669,7 +676,7 @@ public final class CachingNameResolverTestCase
     final InetAddress dummyAddress =
          InetAddress.getByAddress(new byte[] { 1, 2, 3, 4 });
     nameResolver.getNameToAddressMap().put(lowerCaseName,
-         new ObjectPair<Long,InetAddress[]>(
+         new CachingNameResolver.CacheRecord<InetAddress[]>(
               (System.currentTimeMillis() + 3_600_000L),
               new InetAddress[] { dummyAddress }));
 
@@ -686,7 +693,7 @@ public final class CachingNameResolverTestCase
     // Put the address in the cache with an expired timestamp and make sure that
     // we still get the cached version because the lookup attempts fail.
     nameResolver.getNameToAddressMap().put(lowerCaseName,
-         new ObjectPair<Long,InetAddress[]>(
+         new CachingNameResolver.CacheRecord<InetAddress[]>(
               (System.currentTimeMillis() - 3_600_000L),
               new InetAddress[] { dummyAddress }));
 
@@ -818,7 +825,7 @@ public final class CachingNameResolverTestCase
     // Put a non-expired mapping in the cache and make sure we get it back when
     // re-trying the lookups.
     nameResolver.getAddressToNameMap().put(address,
-         new ObjectPair<Long,String>(
+         new CachingNameResolver.CacheRecord<String>(
               (System.currentTimeMillis() + 3_600_000), "dummy.example.com"));
 
     assertEquals(nameResolver.getHostName(address), "dummy.example.com");
@@ -830,7 +837,7 @@ public final class CachingNameResolverTestCase
     // Put an expired mapping in the cache and make sure that we still get it
     // back even though it's expired because the name can't be resolved.
     nameResolver.getAddressToNameMap().put(address,
-         new ObjectPair<Long,String>(
+         new CachingNameResolver.CacheRecord<String>(
               (System.currentTimeMillis() - 3_600_000), "dummy.example.com"));
 
     assertEquals(nameResolver.getHostName(address), "dummy.example.com");
@@ -838,4 +845,500 @@ public final class CachingNameResolverTestCase
     assertEquals(nameResolver.getCanonicalHostName(address),
          "dummy.example.com");
   }
+
+
+
+  /**
+   * Tests the cache hit and miss counters when using a stub resolver.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testHitsAndMissesWithStubResolver()
+         throws Exception
+  {
+    final InetAddress address =
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 4 });
+
+    final StubNameResolver stub = new StubNameResolver();
+    stub.addMapping("server.example.com", address);
+
+    final CachingNameResolver nameResolver =
+         new CachingNameResolver(stub, 3_600_000, 10_000, 0, 100);
+    assertSame(nameResolver.getResolver(), stub);
+    assertEquals(nameResolver.getTimeoutMillis(), 3_600_000);
+    assertEquals(nameResolver.getNegativeTimeoutMillis(), 10_000);
+    assertEquals(nameResolver.getRefreshAheadMillis(), 0);
+    assertEquals(nameResolver.getMaxCacheSize(), 100);
+    assertTrue(nameResolver.toString().contains("StubNameResolver"));
+
+    assertEquals(nameResolver.getByName("Server.Example.Com"), address);
+    assertEquals(nameResolver.getByName("server.example.com"), address);
+    assertEquals(nameResolver.getAllByName("server.example.com").length, 1);
+    assertEquals(stub.getNumForwardLookups(), 1);
+
+    assertEquals(nameResolver.getCanonicalHostName(address),
+         "server.example.com");
+    assertEquals(nameResolver.getCanonicalHostName(address),
+         "server.example.com");
+    assertEquals(stub.getNumReverseLookups(), 1);
+
+    assertEquals(nameResolver.getNumCacheHits(), 3L);
+    assertEquals(nameResolver.getNumCacheMisses(), 2L);
+    assertEquals(nameResolver.getNumNegativeCacheHits(), 0L);
+    assertEquals(nameResolver.getNumEvictions(), 0L);
+    assertEquals(nameResolver.getNumBackgroundRefreshes(), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior when caching failed lookups.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNegativeCaching()
+         throws Exception
+  {
+    final InetAddress address =
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 4 });
+
+    final StubNameResolver stub = new StubNameResolver();
+    final CachingNameResolver nameResolver =
+         new CachingNameResolver(stub, 3_600_000, 3_600_000, 0, 100);
+
+    for (int i=0; i < 2; i++)
+    {
+      try
+      {
+        nameResolver.getByName("missing.example.com");
+        fail("Expected an exception for an unresolvable name");
+      }
+      catch (final UnknownHostException e)
+      {
+        // This was expected.
+      }
+    }
+
+    assertEquals(stub.getNumForwardLookups(), 1);
+    assertEquals(nameResolver.getUnresolvableNameMap().size(), 1);
+
+    assertEquals(nameResolver.getCanonicalHostName(address), "1.2.3.4");
+    assertEquals(nameResolver.getCanonicalHostName(address), "1.2.3.4");
+    assertEquals(stub.getNumReverseLookups(), 1);
+    assertEquals(nameResolver.getUnresolvableAddressMap().size(), 1);
+    assertTrue(nameResolver.getAddressToNameMap().isEmpty());
+
+    assertEquals(nameResolver.getNumNegativeCacheHits(), 2L);
+    assertEquals(nameResolver.getNumCacheMisses(), 2L);
+
+
+    // Make sure that clearing the cache also clears cached failures, and that
+    // the name can be resolved once it is available.
+    nameResolver.clearCache();
+    assertTrue(nameResolver.getUnresolvableNameMap().isEmpty());
+    assertTrue(nameResolver.getUnresolvableAddressMap().isEmpty());
+
+    stub.addMapping("missing.example.com", address);
+    assertEquals(nameResolver.getByName("missing.example.com"), address);
+    assertEquals(stub.getNumForwardLookups(), 2);
+  }
+
+
+
+  /**
+   * Tests the behavior when failed lookups are not cached, and when a cached
+   * failure has expired.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testNegativeCachingDisabledAndExpired()
+         throws Exception
+  {
+    final StubNameResolver stub = new StubNameResolver();
+    final CachingNameResolver disabledResolver =
+         new CachingNameResolver(stub, 3_600_000, 0, 0, 100);
+
+    for (int i=0; i < 2; i++)
+    {
+      try
+      {
+        disabledResolver.getByName("missing.example.com");
+        fail("Expected an exception for an unresolvable name");
+      }
+      catch (final UnknownHostException e)
+      {
+        // This was expected.
+      }
+    }
+
+    assertEquals(stub.getNumForwardLookups(), 2);
+    assertTrue(disabledResolver.getUnresolvableNameMap().isEmpty());
+
+
+    final CachingNameResolver expiringResolver =
+         new CachingNameResolver(stub, 3_600_000, 1, 0, 100);
+    try
+    {
+      expiringResolver.getByName("missing.example.com");
+      fail("Expected an exception for an unresolvable name");
+    }
+    catch (final UnknownHostException e)
+    {
+      // This was expected.
+    }
+
+    assertEquals(stub.getNumForwardLookups(), 3);
+
+    Thread.sleep(10L);
+
+    final InetAddress address =
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 4 });
+    stub.addMapping("missing.example.com", address);
+    assertEquals(expiringResolver.getByName("missing.example.com"), address);
+    assertEquals(stub.getNumForwardLookups(), 4);
+    assertTrue(expiringResolver.getUnresolvableNameMap().isEmpty());
+  }
+
+
+
+  /**
+   * Tests the behavior when records are refreshed in the background shortly
+   * before they expire.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRefreshAhead()
+         throws Exception
+  {
+    final InetAddress address =
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 4 });
+
+    final StubNameResolver stub = new StubNameResolver();
+    stub.addMapping("server.example.com", address);
+
+    // Use a refresh window that covers nearly the entire lifetime of a record,
+    // so that any access after the first will trigger a refresh.
+    final CachingNameResolver nameResolver =
+         new CachingNameResolver(stub, 60_000, 0, 59_999, 100);
+
+    assertEquals(nameResolver.getByName("server.example.com"), address);
+    assertEquals(nameResolver.getCanonicalHostName(address),
+         "server.example.com");
+    final CachingNameResolver.CacheRecord<InetAddress[]> initialNameRecord =
+         nameResolver.getNameToAddressMap().get("server.example.com");
+    final CachingNameResolver.CacheRecord<String> initialAddressRecord =
+         nameResolver.getAddressToNameMap().get(address);
+
+    Thread.sleep(10L);
+
+    assertEquals(nameResolver.getByName("server.example.com"), address);
+    assertEquals(nameResolver.getCanonicalHostName(address),
+         "server.example.com");
+    assertEquals(nameResolver.getNumCacheHits(), 2L);
+
+    final long stopWaitingTime = System.currentTimeMillis() + 10_000L;
+    while ((nameResolver.getNumBackgroundRefreshes() < 2L) &&
+         (System.currentTimeMillis() < stopWaitingTime))
+    {
+      Thread.sleep(1L);
+    }
+
+    assertEquals(nameResolver.getNumBackgroundRefreshes(), 2L);
+    assertEquals(stub.getNumForwardLookups(), 2);
+    assertEquals(stub.getNumReverseLookups(), 2);
+    assertNotSame(nameResolver.getNameToAddressMap().get("server.example.com"),
+         initialNameRecord);
+    assertNotSame(nameResolver.getAddressToNameMap().get(address),
+         initialAddressRecord);
+
+
+    // Accessing the original records again must not trigger another refresh.
+    assertEquals(nameResolver.getByName("server.example.com"), address);
+    assertEquals(nameResolver.getNumCacheMisses(), 2L);
+  }
+
+
+
+  /**
+   * Tests the behavior when the cache reaches its maximum size.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testLeastRecentlyUsedEviction()
+         throws Exception
+  {
+    final StubNameResolver stub = new StubNameResolver();
+    stub.addMapping("a.example.com",
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 1 }));
+    stub.addMapping("b.example.com",
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 2 }));
+    stub.addMapping("c.example.com",
+         InetAddress.getByAddress(new byte[] { 1, 2, 3, 3 }));
+
+    final CachingNameResolver nameResolver =
+         new CachingNameResolver(stub, 3_600_000, 0, 0, 2);
+
+    nameResolver.getByName("a.example.com");
+    nameResolver.getByName("b.example.com");
+    nameResolver.getByName("a.example.com");
+    nameResolver.getByName("c.example.com");
+
+    assertEquals(nameResolver.getNumEvictions(), 1L);
+    assertEquals(nameResolver.getNameToAddressMap().size(), 2);
+    assertTrue(nameResolver.getNameToAddressMap().containsKey(
+         "a.example.com"));
+    assertFalse(nameResolver.getNameToAddressMap().containsKey(
+         "b.example.com"));
+    assertTrue(nameResolver.getNameToAddressMap().containsKey(
+         "c.example.com"));
+    assertEquals(stub.getNumForwardLookups(), 3);
+
+    nameResolver.getByName("b.example.com");
+    assertEquals(stub.getNumForwardLookups(), 4);
+    assertEquals(nameResolver.getNumEvictions(), 2L);
+    assertFalse(nameResolver.getNameToAddressMap().containsKey(
+         "a.example.com"));
+
+
+    // Make sure that a non-positive maximum size means there is no limit.
+    final CachingNameResolver unboundedResolver =
+         new CachingNameResolver(stub, 3_600_000, 0, 0, 0);
+    assertEquals(unboundedResolver.getMaxCacheSize(), Integer.MAX_VALUE);
+  }
+
+
+
+  /**
+   * Tests to ensure that a cache that holds many more records than are
+   * sampled for eviction stays within its maximum size and retains a record
+   * that is in active use.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEvictionWithLargerCache()
+         throws Exception
+  {
+    final StubNameResolver stub = new StubNameResolver();
+    for (int i=0; i < 200; i++)
+    {
+      stub.addMapping("host" + i + ".example.com",
+           InetAddress.getByAddress(new byte[] { 10, 0, (byte) (i / 256),
+                (byte) (i % 256) }));
+    }
+
+    final CachingNameResolver nameResolver =
+         new CachingNameResolver(stub, 3_600_000, 0, 0, 50);
+
+    for (int i=0; i < 200; i++)
+    {
+      nameResolver.getByName("host" + i + ".example.com");
+      nameResolver.getByName("host0.example.com");
+    }
+
+    assertEquals(nameResolver.getNameToAddressMap().size(), 50);
+    assertEquals(nameResolver.getNumEvictions(), 150L);
+    assertTrue(nameResolver.getNameToAddressMap().containsKey(
+         "host0.example.com"));
+    assertTrue(nameResolver.getNameToAddressMap().containsKey(
+         "host199.example.com"));
+
+    nameResolver.clearCache();
+    assertTrue(nameResolver.getNameToAddressMap().isEmpty());
+    nameResolver.getByName("host1.example.com");
+    assertEquals(nameResolver.getNameToAddressMap().size(), 1);
+  }
+
+
+
+  /**
+   * Tests to ensure that a resolver created with only a timeout does not
+   * cache failures, refresh records in the background, or limit the number
+   * of cached records.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testTimeoutOnlyConstructorSettings()
+         throws Exception
+  {
+    final CachingNameResolver nameResolver = new CachingNameResolver(60_000);
+    assertEquals(nameResolver.getTimeoutMillis(), 60_000);
+    assertEquals(nameResolver.getNegativeTimeoutMillis(), 0);
+    assertEquals(nameResolver.getRefreshAheadMillis(), 0);
+    assertEquals(nameResolver.getMaxCacheSize(), Integer.MAX_VALUE);
+    assertTrue(nameResolver.getResolver() instanceof DefaultNameResolver);
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to create a resolver with an invalid
+   * timeout.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidTimeout()
+         throws Exception
+  {
+    new CachingNameResolver(new StubNameResolver(), 0, 0, 0, 100);
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to create a resolver with an invalid
+   * negative timeout.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidNegativeTimeout()
+         throws Exception
+  {
+    new CachingNameResolver(new StubNameResolver(), 1_000, -1, 0, 100);
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to create a resolver with a refresh-ahead
+   * window that is not less than the timeout.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidRefreshAhead()
+         throws Exception
+  {
+    new CachingNameResolver(new StubNameResolver(), 1_000, 0, 1_000, 100);
+  }
+
+
+
+  /**
+   * A name resolver that resolves names and addresses from a set of predefined
+   * mappings without using the name service, and keeps track of the number of
+   * lookups performed.
+   */
+  private static final class StubNameResolver
+          extends NameResolver
+  {
+    // The number of forward lookups that have been performed.
+    private final AtomicInteger numForwardLookups;
+
+    // The number of reverse lookups that have been performed.
+    private final AtomicInteger numReverseLookups;
+
+    // The names for each address.
+    private final Map<InetAddress,String> addressToName;
+
+    // The address for each name, keyed by the lowercase name.
+    private final Map<String,InetAddress> nameToAddress;
+
+
+
+    /**
+     * Creates a new stub name resolver without any mappings.
+     */
+    private StubNameResolver()
+    {
+      numForwardLookups = new AtomicInteger(0);
+      numReverseLookups = new AtomicInteger(0);
+      addressToName = new ConcurrentHashMap<>(10);
+      nameToAddress = new ConcurrentHashMap<>(10);
+    }
+
+
+
+    /**
+     * Adds a mapping between the provided name and address.
+     *
+     * @param  name     The name to map.
+     * @param  address  The address to map.
+     */
+    private void addMapping(final String name, final InetAddress address)
+    {
+      nameToAddress.put(name.toLowerCase(), address);
+      addressToName.put(address, name);
+    }
+
+
+
+    /**
+     * Retrieves the number of forward lookups that have been performed.
+     *
+     * @return  The number of forward lookups that have been performed.
+     */
+    private int getNumForwardLookups()
+    {
+      return numForwardLookups.get();
+    }
+
+
+
+    /**
+     * Retrieves the number of reverse lookups that have been performed.
+     *
+     * @return  The number of reverse lookups that have been performed.
+     */
+    private int getNumReverseLookups()
+    {
+      return numReverseLookups.get();
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public InetAddress[] getAllByName(final String host)
+           throws UnknownHostException
+    {
+      numForwardLookups.incrementAndGet();
+      final InetAddress address = nameToAddress.get(host.toLowerCase());
+      if (address == null)
+      {
+        throw new UnknownHostException(host);
+      }
+
+      return new InetAddress[] { address };
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public String getCanonicalHostName(final InetAddress inetAddress)
+    {
+      numReverseLookups.incrementAndGet();
+      final String name = addressToName.get(inetAddress);
+      if (name == null)
+      {
+        return inetAddress.getHostAddress();
+      }
+
+      return name;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void toString(final StringBuilder buffer)
+    {
+      buffer.append("StubNameResolver()");
+    }
+  }
 }
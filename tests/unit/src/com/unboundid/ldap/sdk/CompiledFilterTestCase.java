@@ -0,0 +1,406 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code CompiledFilter}
+ * class.
+ */
+public final class CompiledFilterTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Retrieves a set of filters to use for testing.
+   *
+   * @return  A set of filters to use for testing.
+   */
+  @DataProvider(name="filters")
+  public Object[][] getFilters()
+  {
+    return new Object[][]
+    {
+      new Object[] { "(objectClass=*)" },
+      new Object[] { "(objectClass=person)" },
+      new Object[] { "(OBJECTCLASS=PERSON)" },
+      new Object[] { "(uid=user.1)" },
+      new Object[] { "(userid=USER.1)" },
+      new Object[] { "(0.9.2342.19200300.100.1.1=user.1)" },
+      new Object[] { "(cn=*)" },
+      new Object[] { "(commonName=*)" },
+      new Object[] { "(description=*)" },
+      new Object[] { "(cn=user*)" },
+      new Object[] { "(cn=*1)" },
+      new Object[] { "(cn=u*e*1)" },
+      new Object[] { "(cn=U*S*R*)" },
+      new Object[] { "(cn=*x*)" },
+      new Object[] { "(cn=  User   1  )" },
+      new Object[] { "(telephoneNumber=+1 555 555 1234)" },
+      new Object[] { "(telephoneNumber=+15555551234)" },
+      new Object[] { "(telephoneNumber=*555*)" },
+      new Object[] { "(telephoneNumber>=+1 555)" },
+      new Object[] { "(employeeNumber>=5)" },
+      new Object[] { "(employeeNumber<=5)" },
+      new Object[] { "(sn>=m)" },
+      new Object[] { "(sn<=M)" },
+      new Object[] { "(sn=Doe)" },
+      new Object[] { "(!(sn=Doe))" },
+      new Object[] { "(&)" },
+      new Object[] { "(|)" },
+      new Object[] { "(&(cn=user*)(objectClass=person)(uid=*))" },
+      new Object[] { "(|(cn=*9)(sn=Doe)(uid=user.3))" },
+      new Object[] { "(&(|(uid=user.1)(uid=user.2))(!(sn=Doe))(cn=*))" },
+      new Object[] { "(member=UID=User.1,OU=People,DC=Example,DC=Com)" },
+      new Object[] { "(member=uid=user.1, ou=People, dc=example, dc=com)" },
+      new Object[] { "(ds-boolean=true)" },
+      new Object[] { "(createTimestamp>=20200101000000Z)" },
+      new Object[] { "(createTimestamp<=20200101000000.000Z)" },
+    };
+  }
+
+
+
+  /**
+   * Tests that compiled filters yield the same results as the
+   * {@code Filter.matchesEntry} method, both with and without a schema.  If
+   * one method throws an exception, then the other must also throw an
+   * exception.
+   *
+   * @param  filterString  The string representation of the filter to test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider="filters")
+  public void testMatchesSameAsFilter(final String filterString)
+         throws Exception
+  {
+    final Filter filter = Filter.create(filterString);
+    final List<Entry> entries = createTestEntries(20);
+
+    final Schema schema = Schema.getDefaultStandardSchema();
+    for (final Schema s : new Schema[] { schema, null })
+    {
+      final CompiledFilter compiledFilter = filter.compile(s);
+      assertNotNull(compiledFilter);
+      assertEquals(compiledFilter.getFilter(), filter);
+      assertEquals(compiledFilter.getSchema(), s);
+      assertNotNull(compiledFilter.toString());
+      assertEquals(Filter.create(compiledFilter.toString()), filter);
+
+      for (final Entry e : entries)
+      {
+        Boolean filterResult;
+        try
+        {
+          filterResult = filter.matchesEntry(e, s);
+        }
+        catch (final LDAPException le)
+        {
+          filterResult = null;
+        }
+
+        Boolean compiledResult;
+        try
+        {
+          compiledResult = compiledFilter.matchesEntry(e);
+        }
+        catch (final LDAPException le)
+        {
+          compiledResult = null;
+        }
+
+        assertEquals(compiledResult, filterResult,
+             "Mismatch for filter " + filterString + " and entry " +
+                  e.toLDIFString());
+      }
+    }
+  }
+
+
+
+  /**
+   * Tests that the components of AND and OR filters are re-ordered so that
+   * the least expensive components are evaluated first.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testComponentOrdering()
+         throws Exception
+  {
+    final CompiledFilter compiledFilter = Filter.create(
+         "(&(|(sn=a)(sn=b))(cn=*c*)(employeeNumber>=5)(objectClass=person)" +
+              "(uid=user.1)(description=*))").compile(null);
+
+    final CompiledFilter[] components = compiledFilter.getComponents();
+    assertNotNull(components);
+    assertEquals(components.length, 6);
+    for (int i=1; i < components.length; i++)
+    {
+      assertTrue(components[i-1].getEstimatedCost() <=
+           components[i].getEstimatedCost());
+    }
+
+    assertEquals(compiledFilter.toString(),
+         "(&(description=*)(uid=user.1)(objectClass=person)" +
+              "(employeeNumber>=5)(cn=*c*)(|(sn=a)(sn=b)))");
+
+    assertEquals(
+         Filter.create("(!(cn=*))").compile(null).getEstimatedCost(),
+         CompiledFilter.COST_SUBSTRING + CompiledFilter.COST_PRESENCE);
+    assertNull(Filter.create("(cn=*)").compile(null).getComponents());
+  }
+
+
+
+  /**
+   * Tests that attempts to compile filters with approximate or extensible
+   * match components will be rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testUnsupportedComponents()
+         throws Exception
+  {
+    for (final String filterString :
+         new String[] { "(cn~=test)", "(cn:caseExactMatch:=test)",
+              "(&(objectClass=person)(|(cn=*)(sn~=test)))" })
+    {
+      try
+      {
+        Filter.create(filterString).compile(null);
+        fail("Expected an exception when compiling " + filterString);
+      }
+      catch (final LDAPException le)
+      {
+        assertEquals(le.getResultCode(), ResultCode.NOT_SUPPORTED);
+      }
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior when a matching rule cannot normalize an assertion
+   * value, in which case the compiled filter should fall back to using the
+   * matching rule methods.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testUnnormalizableAssertionValue()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final Entry entry = new Entry(
+         "dn: cn=test,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: device",
+         "cn: test",
+         "serialNumber: 1234");
+
+    for (final String filterString :
+         new String[] { "(x121Address=abc)", "(x121Address>=abc)",
+              "(x121Address=*abc*)", "(serialNumber=1234)" })
+    {
+      final Filter filter = Filter.create(filterString);
+      assertEquals(filter.compile(schema).matchesEntry(entry),
+           filter.matchesEntry(entry, schema));
+    }
+
+    final Entry numericEntry = new Entry(
+         "dn: cn=test,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: x121",
+         "cn: test",
+         "x121Address: 12345");
+
+    final Filter filter = Filter.create("(x121Address=abc)");
+    try
+    {
+      filter.matchesEntry(numericEntry, schema);
+      fail("Expected an exception from Filter.matchesEntry");
+    }
+    catch (final LDAPException le)
+    {
+      // This was expected.
+    }
+
+    try
+    {
+      filter.compile(schema).matchesEntry(numericEntry);
+      fail("Expected an exception from CompiledFilter.matchesEntry");
+    }
+    catch (final LDAPException le)
+    {
+      // This was expected.
+    }
+  }
+
+
+
+  /**
+   * Tests that evaluating a compiled filter is faster than using the
+   * {@code Filter.matchesEntry} method against a set of realistic entries.
+   * Both approaches are warmed up first, and the best of several timed passes
+   * is used for each so that a single pause will not cause a failure.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCompiledEvaluationIsFaster()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final List<Entry> entries = createTestEntries(1000);
+    final Filter filter = Filter.create("(&(objectClass=person)" +
+         "(|(cn=*user.9*)(sn=*9))(!(employeeNumber<=100))(uid=*))");
+    final CompiledFilter compiledFilter = filter.compile(schema);
+
+    int expectedMatches = 0;
+    for (final Entry e : entries)
+    {
+      assertEquals(compiledFilter.matchesEntry(e),
+           filter.matchesEntry(e, schema));
+      if (filter.matchesEntry(e, schema))
+      {
+        expectedMatches++;
+      }
+    }
+    assertTrue(expectedMatches > 0);
+
+    long bestFilterNanos = Long.MAX_VALUE;
+    long bestCompiledNanos = Long.MAX_VALUE;
+    for (int pass=0; pass < 10; pass++)
+    {
+      final long filterStartTime = System.nanoTime();
+      int filterMatches = 0;
+      for (final Entry e : entries)
+      {
+        if (filter.matchesEntry(e, schema))
+        {
+          filterMatches++;
+        }
+      }
+      bestFilterNanos =
+           Math.min(bestFilterNanos, System.nanoTime() - filterStartTime);
+      assertEquals(filterMatches, expectedMatches);
+
+      final long compiledStartTime = System.nanoTime();
+      int compiledMatches = 0;
+      for (final Entry e : entries)
+      {
+        if (compiledFilter.matchesEntry(e))
+        {
+          compiledMatches++;
+        }
+      }
+      bestCompiledNanos =
+           Math.min(bestCompiledNanos, System.nanoTime() - compiledStartTime);
+      assertEquals(compiledMatches, expectedMatches);
+    }
+
+    assertTrue(bestCompiledNanos < bestFilterNanos,
+         "Compiled filter evaluation took " + bestCompiledNanos +
+              "ns, but Filter.matchesEntry took " + bestFilterNanos + "ns");
+  }
+
+
+
+  /**
+   * Creates a set of entries to use for testing.  The entries are also used
+   * by the {@code FilterIndex} test cases.
+   *
+   * @param  numEntries  The number of entries to create.
+   *
+   * @return  The entries that were created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  static List<Entry> createTestEntries(final int numEntries)
+          throws Exception
+  {
+    final List<Entry> entries = new ArrayList<>(numEntries);
+    for (int i=0; i < numEntries; i++)
+    {
+      final Entry e = new Entry(
+           "dn: uid=user." + i + ",ou=People,dc=example,dc=com",
+           "objectClass: top",
+           "objectClass: person",
+           "objectClass: organizationalPerson",
+           "objectClass: inetOrgPerson",
+           "uid: user." + i,
+           "givenName: User",
+           "sn: " + ((i % 3 == 0) ? "Doe" : String.valueOf(i)),
+           "cn: User " + i,
+           "employeeNumber: " + i,
+           "telephoneNumber: +1 555 555 " + (1230 + (i % 10)),
+           "createTimestamp: 2020010" + ((i % 3) + 1) + "000000Z",
+           "ds-boolean: " + ((i % 2 == 0) ? "TRUE" : "FALSE"));
+      if ((i % 4) == 0)
+      {
+        e.addAttribute("description", "Entry " + i);
+      }
+
+      if ((i % 5) == 1)
+      {
+        e.addAttribute("member",
+             "uid=user." + i + ",ou=People,dc=example,dc=com");
+      }
+
+      if ((i % 2) == 1)
+      {
+        e.addAttribute("CN;lang-en", "User " + i);
+      }
+
+      entries.add(e);
+    }
+
+    return entries;
+  }
+}
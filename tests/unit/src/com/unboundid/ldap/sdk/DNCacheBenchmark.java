@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+ * This class provides a simple benchmark that compares the cost of parsing
+ * DNs with the {@code DN} constructor against retrieving them from a warm
+ * {@code DNCache}, for several typical DN shapes.  For each shape, it measures
+ * parsing a DN and obtaining its normalized string representation, and
+ * parsing a DN and checking whether it is below a common base DN.  Each
+ * measurement is the best average time per DN over a number of passes, after
+ * an untimed warm-up pass.
+ * <BR><BR>
+ * It may be invoked from the command line with optional arguments that
+ * specify the number of distinct DNs to generate for each shape and the
+ * number of timed passes, like:
+ * <PRE>
+ *   java com.unboundid.ldap.sdk.DNCacheBenchmark 100000 20
+ * </PRE>
+ */
+public final class DNCacheBenchmark
+{
+  /**
+   * The names of the DN shapes that will be measured.
+   */
+  private static final String[] SHAPE_NAMES =
+  {
+    "people",
+    "deep",
+    "multi-valued RDN",
+    "escaped"
+  };
+
+
+
+  /**
+   * The base DNs below which the DNs for each shape will be created.
+   */
+  private static final String[] SHAPE_BASE_DNS =
+  {
+    "dc=example,dc=com",
+    "o=Example Corp,c=US",
+    "dc=example,dc=com",
+    "dc=example,dc=com"
+  };
+
+
+
+  // A value computed from the results of each operation, so that the work
+  // cannot be optimized away.
+  private static volatile long sink = 0L;
+
+
+
+  /**
+   * Prevents this class from being instantiated.
+   */
+  private DNCacheBenchmark()
+  {
+    // No implementation is required.
+  }
+
+
+
+  /**
+   * Runs the benchmark and writes the results to standard output.
+   *
+   * @param  args  The command-line arguments.  The first argument may
+   *               specify the number of DNs to generate for each shape, and
+   *               the second may specify the number of timed passes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  public static void main(final String... args)
+         throws Exception
+  {
+    int numDNs = 100_000;
+    int numPasses = 10;
+    if (args.length > 0)
+    {
+      numDNs = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1)
+    {
+      numPasses = Integer.parseInt(args[1]);
+    }
+
+    for (final Map.Entry<String,Long> e : run(numDNs, numPasses).entrySet())
+    {
+      System.out.println(String.format("%-50s %8d ns/DN", e.getKey(),
+           e.getValue()));
+    }
+  }
+
+
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param  numDNs     The number of distinct DNs to generate for each shape.
+   * @param  numPasses  The number of timed passes for each measurement.
+   *
+   * @return  A map of the results, in which the key is a description of the
+   *          measurement and the value is the best average time per DN in
+   *          nanoseconds.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  static Map<String,Long> run(final int numDNs, final int numPasses)
+         throws Exception
+  {
+    final LinkedHashMap<String,Long> results = new LinkedHashMap<>(16);
+    for (int shape=0; shape < SHAPE_NAMES.length; shape++)
+    {
+      final String[] dnStrings = createDNStrings(shape, numDNs);
+      final DN baseDN = new DN(SHAPE_BASE_DNS[shape]);
+
+      // The cache must be large enough to hold all of the DNs along with
+      // their parents.
+      final DNCache cache = new DNCache((numDNs * 2) + 100);
+
+      final String name = SHAPE_NAMES[shape];
+      results.put(name + ": new DN + toNormalizedString",
+           measure(dnStrings, null, null, numPasses));
+      results.put(name + ": DNCache.getDN + toNormalizedString",
+           measure(dnStrings, cache, null, numPasses));
+      results.put(name + ": new DN + isDescendantOf",
+           measure(dnStrings, null, baseDN, numPasses));
+      results.put(name + ": DNCache.getDN + isDescendantOf",
+           measure(dnStrings, cache, baseDN, numPasses));
+    }
+
+    return results;
+  }
+
+
+
+  /**
+   * Measures the best average time per DN to obtain each of the provided DNs
+   * and either normalize it or check whether it is below the given base DN.
+   *
+   * @param  dnStrings  The string representations of the DNs to process.
+   * @param  cache      The cache from which to retrieve the DNs.  It may be
+   *                    {@code null} if each DN should be parsed.
+   * @param  baseDN     The base DN to use for descendant checks.  It may be
+   *                    {@code null} if each DN should be normalized instead.
+   * @param  numPasses  The number of timed passes to perform.
+   *
+   * @return  The best average time per DN, in nanoseconds.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static long measure(final String[] dnStrings, final DNCache cache,
+                              final DN baseDN, final int numPasses)
+          throws Exception
+  {
+    long bestNanos = Long.MAX_VALUE;
+    for (int pass=0; pass <= numPasses; pass++)
+    {
+      long result = 0L;
+      final long startTime = System.nanoTime();
+      for (final String s : dnStrings)
+      {
+        final DN dn;
+        if (cache == null)
+        {
+          dn = new DN(s);
+        }
+        else
+        {
+          dn = cache.getDN(s);
+        }
+
+        if (baseDN == null)
+        {
+          result += dn.toNormalizedString().length();
+        }
+        else if (dn.isDescendantOf(baseDN, false))
+        {
+          result++;
+        }
+      }
+      final long elapsedNanos = System.nanoTime() - startTime;
+      sink += result;
+
+      // The first pass is only used to warm up the JVM and the cache.
+      if (pass > 0)
+      {
+        bestNanos = Math.min(bestNanos, elapsedNanos);
+      }
+    }
+
+    return Math.max(1L, bestNanos / dnStrings.length);
+  }
+
+
+
+  /**
+   * Creates the string representations of a set of DNs with the specified
+   * shape.
+   *
+   * @param  shape   The index of the shape for the DNs to create.
+   * @param  numDNs  The number of DNs to create.
+   *
+   * @return  The string representations of the DNs that were created.
+   */
+  private static String[] createDNStrings(final int shape, final int numDNs)
+  {
+    final String[] dnStrings = new String[numDNs];
+    for (int i=0; i < numDNs; i++)
+    {
+      switch (shape)
+      {
+        case 0:
+          dnStrings[i] = "uid=user." + i + ",ou=People,dc=example,dc=com";
+          break;
+        case 1:
+          dnStrings[i] = "cn=device." + i + ",ou=Devices,ou=Site " +
+               (i % 10) + ",ou=Region " + (i % 3) + ",o=Example Corp,c=US";
+          break;
+        case 2:
+          dnStrings[i] = "cn=User " + i + "+employeeNumber=" + i +
+               ",ou=People,dc=example,dc=com";
+          break;
+        default:
+          dnStrings[i] = "cn=Doe\\, User " + i +
+               ",ou=Sales\\+Marketing,dc=example,dc=com";
+          break;
+      }
+    }
+
+    return dnStrings;
+  }
+}
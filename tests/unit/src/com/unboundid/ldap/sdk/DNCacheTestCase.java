@@ -0,0 +1,328 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code DNCache} class.
+ */
+public final class DNCacheTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the basic behavior of the cache, including the sharing of parent
+   * DNs.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGetDN()
+         throws Exception
+  {
+    final DNCache cache = new DNCache(100);
+    assertEquals(cache.getMaxSize(), 100);
+    assertEquals(cache.size(), 0);
+    assertEquals(cache.getNumHits(), 0L);
+    assertEquals(cache.getNumMisses(), 0L);
+    assertNotNull(cache.toString());
+
+    final String dnString = "uid=john.doe, ou=People,DC=Example,dc=com";
+    final DN dn = cache.getDN(dnString);
+    assertEquals(dn, new DN(dnString));
+    assertEquals(dn.toString(), dnString);
+    assertEquals(dn.toNormalizedString(),
+         "uid=john.doe,ou=people,dc=example,dc=com");
+    assertEquals(cache.getNumMisses(), 1L);
+    assertEquals(cache.getNumHits(), 0L);
+
+    // The DN and all of its ancestors should be cached.
+    assertEquals(cache.size(), 4);
+
+    assertSame(cache.getDN(dnString), dn);
+    assertEquals(cache.getNumHits(), 1L);
+
+    final DN parentDN = dn.getParent();
+    assertNotNull(parentDN);
+    assertEquals(parentDN.toString(), "ou=People,DC=Example,dc=com");
+    assertSame(dn.getParent(), parentDN);
+    assertSame(cache.getDN("ou=People,DC=Example,dc=com"), parentDN);
+
+    // A peer DN should share the same parent DN and RDN instances.
+    final DN peerDN = cache.getDN("uid=jane.doe,ou=People,DC=Example,dc=com");
+    assertSame(peerDN.getParent(), parentDN);
+    assertSame(peerDN.getRDNs()[1], dn.getRDNs()[1]);
+    assertSame(peerDN.getRDNs()[3], dn.getRDNs()[3]);
+    assertTrue(peerDN.isDescendantOf(parentDN, false));
+    assertEquals(cache.size(), 5);
+
+    // A DN with a different string representation should not be the same
+    // instance, but should be equal.
+    final DN equivalentDN =
+         cache.getDN("UID=John.Doe,ou=People,DC=Example,dc=com");
+    assertNotSame(equivalentDN, dn);
+    assertEquals(equivalentDN, dn);
+    assertSame(equivalentDN.getParent(), parentDN);
+
+    assertSame(cache.getDN(""), cache.getDN(""));
+    assertTrue(cache.getDN("").isNullDN());
+
+    cache.clear();
+    assertEquals(cache.size(), 0);
+    assertNotSame(cache.getDN(dnString), dn);
+  }
+
+
+
+  /**
+   * Tests the behavior of the cache with DNs that include escaped and quoted
+   * RDN separators.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEscapedAndQuotedSeparators()
+         throws Exception
+  {
+    final DNCache cache = new DNCache(100);
+
+    final String[] dnStrings =
+    {
+      "cn=Doe\\, John,ou=People,dc=example,dc=com",
+      "cn=\"Doe, John\",ou=People,dc=example,dc=com",
+      "cn=\"Doe\\\", John\";ou=People;dc=example;dc=com",
+      "cn=a\\\\,ou=People,dc=example,dc=com",
+      "cn=a+sn=b,ou=People,dc=example,dc=com",
+      "cn=#04024869,dc=example,dc=com",
+      "cn=foo ,dc=example , dc=com ",
+    };
+
+    for (final String dnString : dnStrings)
+    {
+      final DN expected = new DN(dnString);
+      final DN dn = cache.getDN(dnString);
+      assertEquals(dn, expected);
+      assertEquals(dn.toString(), dnString);
+      assertEquals(dn.toNormalizedString(), expected.toNormalizedString());
+      assertEquals(dn.getRDNs().length, expected.getRDNs().length);
+      assertEquals(dn.getParent(), expected.getParent());
+    }
+
+    assertEquals(DNCache.getParentStartPosition("dc=com"), -1);
+    assertEquals(DNCache.getParentStartPosition("cn=a\\,b"), -1);
+    assertEquals(DNCache.getParentStartPosition("cn=\"a,b\""), -1);
+    assertEquals(DNCache.getParentStartPosition("cn=a,  dc=com"), 7);
+  }
+
+
+
+  /**
+   * Tests the behavior of the cache with an invalid DN.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPException.class })
+  public void testInvalidDN()
+         throws Exception
+  {
+    new DNCache(10).getDN("not a valid dn");
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to create a cache with an invalid maximum
+   * size.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidMaxSize()
+         throws Exception
+  {
+    new DNCache(0);
+  }
+
+
+
+  /**
+   * Tests the behavior of the cache with DNs that are associated with
+   * different schemas.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSchema()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final DNCache cache = new DNCache(100);
+
+    final String dnString = "uid=john.doe,ou=People,dc=example,dc=com";
+    final DN dnWithoutSchema = cache.getDN(dnString);
+    final DN dnWithSchema = cache.getDN(dnString, schema);
+    assertNotSame(dnWithSchema, dnWithoutSchema);
+    assertEquals(dnWithSchema, new DN(dnString, schema));
+    assertSame(cache.getDN(dnString, schema), dnWithSchema);
+    assertEquals(dnWithSchema.getParent(), new DN(dnString).getParent());
+  }
+
+
+
+  /**
+   * Tests the behavior of the cache when the maximum size is reached.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMaxSize()
+         throws Exception
+  {
+    final DNCache cache = new DNCache(10);
+    final DN firstDN = cache.getDN("uid=user.0,dc=example,dc=com");
+
+    for (int i=1; i < 100; i++)
+    {
+      final DN dn = cache.getDN("uid=user." + i + ",dc=example,dc=com");
+      assertEquals(dn.toString(), "uid=user." + i + ",dc=example,dc=com");
+      assertTrue(cache.size() <= 10);
+
+      // Keep accessing the parent and first DNs, which should keep them from
+      // being discarded.
+      assertSame(cache.getDN("uid=user.0,dc=example,dc=com"), firstDN);
+    }
+
+    assertSame(cache.getDN("dc=example,dc=com"), firstDN.getParent());
+  }
+
+
+
+  /**
+   * Tests the behavior of the intern method.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testIntern()
+         throws Exception
+  {
+    final DNCache cache = new DNCache(100);
+
+    final DN dn1 = new DN("uid=john.doe,ou=People,dc=example,dc=com");
+    final DN dn2 = new DN("UID=John.Doe, OU=People, DC=Example, DC=Com");
+    final DN dn3 = new DN("uid=jane.doe,ou=People,dc=example,dc=com");
+
+    assertSame(cache.intern(dn1), dn1);
+    assertSame(cache.intern(dn2), dn1);
+    assertSame(cache.intern(dn3), dn3);
+    assertSame(cache.intern(dn1), dn1);
+
+    final DN dn1WithSchema = new DN(dn1.toString(),
+         Schema.getDefaultStandardSchema());
+    assertSame(cache.intern(dn1WithSchema), dn1WithSchema);
+  }
+
+
+
+  /**
+   * Tests the behavior of the global cache.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGlobalCache()
+         throws Exception
+  {
+    final DNCache originalGlobalCache = DNCache.getGlobalCache();
+    try
+    {
+      DNCache.setGlobalCache(null);
+      assertNull(DNCache.getGlobalCache());
+
+      final String dnString = "uid=john.doe,ou=People,dc=example,dc=com";
+      assertNotSame(DNCache.parse(dnString, null),
+           DNCache.parse(dnString, null));
+
+      final DNCache cache = new DNCache(100);
+      DNCache.setGlobalCache(cache);
+      assertSame(DNCache.getGlobalCache(), cache);
+
+      final DN dn = DNCache.parse(dnString, null);
+      assertSame(DNCache.parse(dnString, null), dn);
+
+      final Entry e = new Entry(dnString);
+      assertSame(e.getParsedDN(), dn);
+      assertSame(e.getParentDN(), dn.getParent());
+    }
+    finally
+    {
+      DNCache.setGlobalCache(originalGlobalCache);
+    }
+  }
+
+
+
+  /**
+   * Runs the DN cache benchmark with a small number of DNs, making sure that
+   * it produces a result for every measurement and that retrieving DNs from
+   * a warm cache is faster than parsing them.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testBenchmark()
+         throws Exception
+  {
+    final Map<String,Long> results = DNCacheBenchmark.run(1000, 5);
+    assertEquals(results.size(), 16);
+    for (final long nanosPerDN : results.values())
+    {
+      assertTrue(nanosPerDN > 0L);
+    }
+
+    assertTrue(results.get("people: DNCache.getDN + toNormalizedString") <
+         results.get("people: new DN + toNormalizedString"));
+  }
+}
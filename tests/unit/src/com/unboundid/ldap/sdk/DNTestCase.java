@@ -46,6 +46,7 @@ import org.testng.annotations.Test;
 
 import com.unboundid.ldap.sdk.schema.Schema;
 import com.unboundid.util.LDAPSDKUsageException;
+import com.unboundid.util.StaticUtils;
 
 
 
@@ -732,6 +733,156 @@ public class DNTestCase
 
 
 
+  /**
+   * Tests the {@code decode} methods with valid DN strings, making sure that
+   * the resulting DNs are the same as those created from the string
+   * representation.
+   *
+   * @param  dnString          The string representation for the DN.
+   * @param  normalizedString  The normalized string representation for the DN.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "testValidDNs")
+  public void testDecodeValid(final String dnString,
+                              final String normalizedString)
+         throws Exception
+  {
+    final byte[] dnBytes = StaticUtils.getBytes(dnString);
+    final byte[] paddedBytes = new byte[dnBytes.length + 4];
+    Arrays.fill(paddedBytes, (byte) ',');
+    System.arraycopy(dnBytes, 0, paddedBytes, 2, dnBytes.length);
+
+    for (final Schema s : new Schema[] { null, schema })
+    {
+      final DN expected = new DN(dnString, s);
+      final DN[] decodedDNs =
+      {
+        DN.decode(dnBytes, s),
+        DN.decode(paddedBytes, 2, dnBytes.length, s)
+      };
+
+      for (final DN dn : decodedDNs)
+      {
+        assertEquals(dn.toString(), dnString);
+        assertEquals(dn.toNormalizedString(), normalizedString);
+        assertEquals(dn, expected);
+        assertEquals(dn.getRDNs().length, expected.getRDNs().length);
+        for (int i=0; i < dn.getRDNs().length; i++)
+        {
+          final RDN rdn = dn.getRDNs()[i];
+          final RDN expectedRDN = expected.getRDNs()[i];
+          assertEquals(rdn.toString(), expectedRDN.toString());
+          assertEquals(rdn.getAttributeNames(),
+               expectedRDN.getAttributeNames());
+          assertEquals(rdn.getAttributeValues(),
+               expectedRDN.getAttributeValues());
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * Tests the {@code decode} method with an invalid DN string.
+   *
+   * @param  dnString  The invalid string representation for the DN.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "testInvalidDNs",
+        expectedExceptions = { LDAPSDKUsageException.class,
+                               LDAPException.class })
+  public void testDecodeInvalid(final String dnString)
+         throws Exception
+  {
+    if (dnString == null)
+    {
+      DN.decode(null, null);
+    }
+    else
+    {
+      DN.decode(StaticUtils.getBytes(dnString), null);
+    }
+  }
+
+
+
+  /**
+   * Tests the {@code decode} method with a number of DNs that may be decoded
+   * directly from their bytes, and with DNs that are similar but require the
+   * full DN parser.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDecodeSimpleAndComplexDNs()
+         throws Exception
+  {
+    final String[] dnStrings =
+    {
+      "dc=com",
+      "uid=john.doe,ou=People,dc=example,dc=com",
+      "cn=John Doe,ou=People,dc=example,dc=com",
+      "cn=a=b<c>d#e,dc=example,dc=com",
+      "2.5.4.3=foo,dc=example,dc=com",
+      "cn=a~b,dc=example,dc=com",
+      "cn=foo, dc=example,dc=com",
+      "cn=foo ,dc=example,dc=com",
+      "cn = foo,dc=example,dc=com",
+      "cn=#0403666f6f,dc=example,dc=com",
+      "cn=foo+sn=bar,dc=example,dc=com",
+      "cn=foo;dc=example;dc=com",
+      "cn=\"foo\",dc=example,dc=com",
+      "cn=a\\2Cb,dc=example,dc=com",
+      "cn=a\\7Fb,dc=example,dc=com",
+      "cn=jalape\u00f1o,dc=example,dc=com",
+      "cn=\u00e9,dc=example,dc=com",
+    };
+
+    for (final String dnString : dnStrings)
+    {
+      final DN dn = DN.decode(StaticUtils.getBytes(dnString), null);
+      final DN expected = new DN(dnString);
+      assertEquals(dn.toString(), dnString);
+      assertEquals(dn.toNormalizedString(), expected.toNormalizedString());
+      assertEquals(dn.getParent(), expected.getParent());
+      assertEquals(dn.getRDN().getAttributeValues(),
+           expected.getRDN().getAttributeValues());
+    }
+
+    assertEquals(new DN("cn=a\\7Fb").toNormalizedString(), "cn=a\\7fb");
+    assertEquals(new DN("cn=a\\01b").toNormalizedString(), "cn=a\\01b");
+    assertEquals(new DN("cn=a\\2Bb").toNormalizedString(), "cn=a\\+b");
+
+    for (final String invalidDNString :
+         new String[] { "", "cn=", "cn=foo,", ",cn=foo", "cn=foo,,dc=com",
+              "=foo", "cn" })
+    {
+      try
+      {
+        final DN expected = new DN(invalidDNString);
+        assertEquals(DN.decode(StaticUtils.getBytes(invalidDNString), null),
+             expected);
+      }
+      catch (final LDAPException le)
+      {
+        try
+        {
+          DN.decode(StaticUtils.getBytes(invalidDNString), null);
+          fail("Expected an exception when decoding " + invalidDNString);
+        }
+        catch (final LDAPException le2)
+        {
+          assertEquals(le2.getMessage(), le.getMessage());
+        }
+      }
+    }
+  }
+
+
+
   /**
    * Tests the {@code isValidDN} method with valid DNs.
    *
@@ -37,16 +37,24 @@ package com.unboundid.ldap.sdk;
 
 
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
 import java.util.SortedSet;
 
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.unboundid.ldap.sdk.controls.SortKey;
 import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.ldif.LDIFEntrySource;
+import com.unboundid.ldif.LDIFReader;
+import com.unboundid.ldif.LDIFWriter;
 
 
 
@@ -1799,4 +1807,257 @@ public class EntrySorterTestCase
 
     assertFalse(entrySorter.equals(new EntrySorter(true, new SortKey("cn"))));
   }
+
+
+
+  /**
+   * Tests the {@code sortToList} method to ensure that it orders entries in
+   * the same way regardless of the number of threads, and in the same way as
+   * the {@code sort} method when all sort key values can be normalized.
+   *
+   * @param  entrySorter  The entry sorter to test.
+   * @param  matchesSort  Indicates whether the order should match that of the
+   *                      {@code sort} method.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "largeSortSorters")
+  public void testSortToList(final EntrySorter entrySorter,
+                             final boolean matchesSort)
+         throws Exception
+  {
+    final List<Entry> entries = createLargeEntryList(20_000);
+    final List<Entry> expected = entrySorter.sortToList(entries, 1);
+    assertEquals(expected.size(), entries.size());
+    if (matchesSort)
+    {
+      assertEquals(expected, new ArrayList<>(entrySorter.sort(entries)));
+    }
+
+    for (final int numThreads : new int[] { 1, 2, 4, 7 })
+    {
+      final List<Entry> sorted = entrySorter.sortToList(entries, numThreads);
+      assertEquals(sorted, expected);
+    }
+
+    assertEquals(entrySorter.sortToList(entryList, 4).size(), 4);
+    assertEquals(entrySorter.sortToList(new ArrayList<Entry>(0), 4).size(),
+         0);
+  }
+
+
+
+  /**
+   * Tests the {@code sort} method that takes an entry source, with enough
+   * entries that they must be spilled to temporary files.
+   *
+   * @param  entrySorter  The entry sorter to test.
+   * @param  matchesSort  Indicates whether the order should match that of the
+   *                      {@code sort} method.  It is not used by this test.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(dataProvider = "largeSortSorters")
+  public void testSortEntrySource(final EntrySorter entrySorter,
+                                  final boolean matchesSort)
+         throws Exception
+  {
+    final List<Entry> entries = createLargeEntryList(5_000);
+    final File ldifFile = createTempFile();
+    try (LDIFWriter ldifWriter = new LDIFWriter(ldifFile))
+    {
+      for (final Entry e : entries)
+      {
+        ldifWriter.writeEntry(e);
+      }
+    }
+
+    final List<Entry> expected = entrySorter.sortToList(entries, 1);
+
+    for (final int maxEntriesInMemory : new int[] { 10_000, 5_000, 1_000, 7 })
+    {
+      final File tempDir = createTempDir();
+      final EntrySource sortedSource = entrySorter.sort(
+           new LDIFEntrySource(new LDIFReader(ldifFile)), maxEntriesInMemory,
+           tempDir, 2);
+
+      final List<Entry> sorted = new ArrayList<>(entries.size());
+      while (true)
+      {
+        final Entry e = sortedSource.nextEntry();
+        if (e == null)
+        {
+          break;
+        }
+
+        sorted.add(e);
+      }
+
+      assertEquals(sorted, expected);
+      assertEquals(tempDir.list().length, 0);
+      assertNull(sortedSource.nextEntry());
+    }
+  }
+
+
+
+  /**
+   * Tests that closing the entry source returned by the {@code sort} method
+   * before all entries have been read will remove its temporary files.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSortEntrySourceClosedEarly()
+         throws Exception
+  {
+    final File ldifFile = createTempFile();
+    try (LDIFWriter ldifWriter = new LDIFWriter(ldifFile))
+    {
+      for (final Entry e : createLargeEntryList(100))
+      {
+        ldifWriter.writeEntry(e);
+      }
+    }
+
+    final File tempDir = createTempDir();
+    final EntrySource sortedSource = new EntrySorter().sort(
+         new LDIFEntrySource(new LDIFReader(ldifFile)), 10, tempDir, 1);
+    assertTrue(tempDir.list().length > 0);
+
+    final Entry firstEntry = sortedSource.nextEntry();
+    assertNotNull(firstEntry);
+    assertEquals(firstEntry.getParsedDN(), new DN("dc=example,dc=com"));
+
+    sortedSource.close();
+    assertEquals(tempDir.list().length, 0);
+    assertNull(sortedSource.nextEntry());
+  }
+
+
+
+  /**
+   * Retrieves a set of entry sorters to use when testing with a large number
+   * of entries, along with a flag that indicates whether the {@code sort}
+   * method should order entries in the same way as the other sort methods.
+   * That will not be the case when sorting with integer ordering, since some
+   * of the test entries have values that are not integers.  Sorting by
+   * hierarchy is not combined with attribute-level sorting, since the result
+   * of that combination may depend on the order in which entries are
+   * compared.
+   *
+   * @return  A set of entry sorters to use when testing with a large number
+   *          of entries.
+   */
+  @DataProvider(name = "largeSortSorters")
+  public Object[][] getLargeSortSorters()
+  {
+    return new Object[][]
+    {
+      new Object[]
+      {
+        new EntrySorter(),
+        true
+      },
+
+      new Object[]
+      {
+        new EntrySorter(false, new SortKey("sn"), new SortKey("givenName")),
+        true
+      },
+
+      new Object[]
+      {
+        new EntrySorter(false, new SortKey("sn", true),
+             new SortKey("givenName", true)),
+        true
+      },
+
+      new Object[]
+      {
+        new EntrySorter(false,
+             new SortKey("employeeNumber", "integerOrderingMatch", false),
+             new SortKey("cn")),
+        false
+      },
+
+      new Object[]
+      {
+        new EntrySorter(false,
+             new SortKey("employeeNumber", "integerOrderingMatch", true)),
+        false
+      },
+    };
+  }
+
+
+
+  /**
+   * Creates a list of entries with pseudorandom attribute values, including
+   * some entries that are missing sort attributes and some with values that
+   * cannot be parsed as integers.
+   *
+   * @param  numUsers  The number of user entries to create.
+   *
+   * @return  The list of entries that was created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static List<Entry> createLargeEntryList(final int numUsers)
+          throws Exception
+  {
+    final Random random = new Random(numUsers);
+    final List<Entry> entries = new ArrayList<>(numUsers + 2);
+    for (int i=0; i < numUsers; i++)
+    {
+      final Entry e =
+           new Entry("uid=user." + i + ",ou=People,dc=example,dc=com");
+      e.addAttribute("objectClass", "top", "person", "organizationalPerson",
+           "inetOrgPerson");
+      e.addAttribute("uid", "user." + i);
+      e.addAttribute("cn", "User " + i);
+
+      if ((i % 11) != 0)
+      {
+        e.addAttribute("sn", "Surname " + random.nextInt(500),
+             "Alternate " + random.nextInt(500));
+      }
+
+      if ((i % 13) != 0)
+      {
+        e.addAttribute("givenName", (random.nextBoolean() ? "Given " : "GIVEN ")
+             + random.nextInt(100));
+      }
+
+      if ((i % 17) == 0)
+      {
+        e.addAttribute("employeeNumber", "not-an-integer");
+      }
+      else if ((i % 19) != 0)
+      {
+        e.addAttribute("employeeNumber",
+             String.valueOf(random.nextInt(1000) - 500),
+             String.valueOf(random.nextInt(1000) + 500));
+      }
+
+      entries.add(e);
+
+      if (i == (numUsers / 2))
+      {
+        entries.add(new Entry(
+             "dn: ou=People,dc=example,dc=com",
+             "objectClass: top",
+             "objectClass: organizationalUnit",
+             "ou: People"));
+      }
+    }
+
+    entries.add(new Entry(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example"));
+
+    return entries;
+  }
 }
@@ -4550,4 +4550,141 @@ public class EntryTestCase
          "objectClass: " + EOL +
          "dc: " + EOL);
   }
+
+
+
+  /**
+   * Tests the {@code applyModifications} method with add and delete
+   * modifications that have multiple values, making sure that the result is
+   * the same as applying each value in a separate modification.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testApplyModificationsWithMultipleValues()
+         throws Exception
+  {
+    final Modification[] mods =
+    {
+      new Modification(ModificationType.ADD, "member",
+           "uid=user.10,ou=People,dc=example,dc=com",
+           "uid=user.11,ou=People,dc=example,dc=com"),
+      new Modification(ModificationType.ADD, "member",
+           "uid=user.10,ou=People,dc=example,dc=com",
+           "UID=USER.10,OU=PEOPLE,DC=EXAMPLE,DC=COM",
+           "uid=user.0,ou=People,dc=example,dc=com",
+           "uid=user.11,ou=People,dc=example,dc=com"),
+      new Modification(ModificationType.ADD, "description",
+           "foo", "FOO", "bar"),
+      new Modification(ModificationType.ADD, "description",
+           "foo", "bar"),
+      new Modification(ModificationType.DELETE, "member",
+           "uid=user.1,ou=People,dc=example,dc=com",
+           "uid=user.2,ou=People,dc=example,dc=com"),
+      new Modification(ModificationType.DELETE, "member",
+           "uid=user.1,ou=People,dc=example,dc=com",
+           "UID=USER.1,OU=PEOPLE,DC=EXAMPLE,DC=COM",
+           "uid=user.99,ou=People,dc=example,dc=com"),
+      new Modification(ModificationType.DELETE, "description",
+           "foo", "bar"),
+    };
+
+    final int originalThreshold = Attribute.getValueIndexThreshold();
+    try
+    {
+      for (final int threshold : new int[] { 0, 5 })
+      {
+        Attribute.setValueIndexThreshold(threshold);
+
+        final Entry source = new Entry(
+             "dn: cn=group,ou=Groups,dc=example,dc=com",
+             "objectClass: top",
+             "objectClass: groupOfNames",
+             "cn: group");
+        for (int i=0; i < 10; i++)
+        {
+          source.addAttribute("member",
+               "uid=user." + i + ",ou=People,dc=example,dc=com");
+        }
+
+        for (final Modification m : mods)
+        {
+          final ArrayList<Modification> singleValueMods = new ArrayList<>(10);
+          for (final String value : m.getValues())
+          {
+            singleValueMods.add(new Modification(m.getModificationType(),
+                 m.getAttributeName(), value));
+          }
+
+          assertSameApplyModificationsResult(
+               source, false, Arrays.asList(m), singleValueMods);
+
+          // In lenient mode, values of a single add modification are not
+          // checked for duplicates among themselves, so only compare the
+          // results for delete modifications.
+          if (m.getModificationType() == ModificationType.DELETE)
+          {
+            assertSameApplyModificationsResult(
+                 source, true, Arrays.asList(m), singleValueMods);
+          }
+        }
+      }
+    }
+    finally
+    {
+      Attribute.setValueIndexThreshold(originalThreshold);
+    }
+  }
+
+
+
+  /**
+   * Ensures that applying the provided sets of modifications to the given
+   * entry yields the same result.
+   *
+   * @param  entry     The entry to which the modifications will be applied.
+   * @param  lenient   Indicates whether to use lenient modification
+   *                   processing.
+   * @param  mods1     The first set of modifications to apply.
+   * @param  mods2     The second set of modifications to apply.
+   */
+  private static void assertSameApplyModificationsResult(final Entry entry,
+                           final boolean lenient,
+                           final List<Modification> mods1,
+                           final List<Modification> mods2)
+  {
+    Entry entry1 = null;
+    LDAPException exception1 = null;
+    try
+    {
+      entry1 = Entry.applyModifications(entry, lenient, mods1);
+    }
+    catch (final LDAPException le)
+    {
+      exception1 = le;
+    }
+
+    Entry entry2 = null;
+    LDAPException exception2 = null;
+    try
+    {
+      entry2 = Entry.applyModifications(entry, lenient, mods2);
+    }
+    catch (final LDAPException le)
+    {
+      exception2 = le;
+    }
+
+    assertEquals(entry1, entry2);
+    if (exception1 == null)
+    {
+      assertNull(exception2);
+    }
+    else
+    {
+      assertNotNull(exception2);
+      assertEquals(exception1.getResultCode(), exception2.getResultCode());
+      assertEquals(exception1.getMessage(), exception2.getMessage());
+    }
+  }
 }
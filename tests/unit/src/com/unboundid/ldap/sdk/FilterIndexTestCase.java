@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.schema.Schema;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code FilterIndex} class.
+ */
+public final class FilterIndexTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * A set of filters to use for testing.
+   */
+  private static final String[] FILTER_STRINGS =
+  {
+    "(objectClass=*)",
+    "(objectClass=person)",
+    "(objectClass=groupOfNames)",
+    "(uid=user.1)",
+    "(userid=USER.2)",
+    "(0.9.2342.19200300.100.1.1=user.3)",
+    "(cn=*)",
+    "(description=*)",
+    "(cn=user*)",
+    "(cn=U*)",
+    "(cn=Us*1)",
+    "(cn=User 1*)",
+    "(cn=*1)",
+    "(cn=*x*)",
+    "(cn=x*)",
+    "(sn=Doe)",
+    "(!(sn=Doe))",
+    "(employeeNumber>=5)",
+    "(employeeNumber<=5)",
+    "(telephoneNumber=+1 555 555 1234)",
+    "(&)",
+    "(|)",
+    "(&(objectClass=person)(|))",
+    "(&(objectClass=person)(uid=user.4))",
+    "(&(cn=user*)(objectClass=person)(uid=*))",
+    "(&(!(uid=user.5))(sn=Doe))",
+    "(&(!(uid=user.5))(!(sn=Doe)))",
+    "(|(cn=*9)(sn=Doe)(uid=user.3))",
+    "(|(uid=user.6)(uid=user.7))",
+    "(|(uid=user.6)(!(uid=user.7)))",
+    "(&(|(uid=user.1)(uid=user.2))(!(sn=Doe))(cn=*))",
+    "(member=UID=User.1,OU=People,DC=Example,DC=Com)",
+    "(cn;lang-en=User 1)",
+  };
+
+
+
+  /**
+   * Tests that the filter index returns the same filters as evaluating each
+   * filter individually, both with and without a schema.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMatchingFilters()
+         throws Exception
+  {
+    for (final Schema schema :
+         new Schema[] { Schema.getDefaultStandardSchema(), null })
+    {
+      final FilterIndex filterIndex = new FilterIndex(schema);
+      assertEquals(filterIndex.getSchema(), schema);
+      assertEquals(filterIndex.size(), 0);
+
+      final List<Filter> filters = new ArrayList<>(FILTER_STRINGS.length);
+      for (final String s : FILTER_STRINGS)
+      {
+        final Filter f = Filter.create(s);
+        filters.add(f);
+        assertTrue(filterIndex.addFilter(f));
+        assertTrue(filterIndex.containsFilter(f));
+      }
+
+      assertEquals(filterIndex.size(), filters.size());
+      assertEquals(filterIndex.getFilters(), filters);
+      assertEquals(filterIndex.getNumUnindexedFilters(), 4);
+      assertNotNull(filterIndex.toString());
+
+      for (final Entry e : CompiledFilterTestCase.createTestEntries(25))
+      {
+        assertEquals(filterIndex.getMatchingFilters(e),
+             getExpectedMatches(filters, e, schema),
+             "Mismatch for entry " + e.toLDIFString());
+      }
+    }
+  }
+
+
+
+  /**
+   * Tests the ability to incrementally add and remove filters.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAddAndRemove()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final FilterIndex filterIndex = new FilterIndex(schema);
+    final Entry entry = CompiledFilterTestCase.createTestEntries(2).get(1);
+
+    final Filter uidFilter = Filter.create("(uid=user.1)");
+    final Filter cnFilter = Filter.create("(cn=user*)");
+    final Filter notFilter = Filter.create("(!(sn=Doe))");
+
+    assertTrue(filterIndex.getMatchingFilters(entry).isEmpty());
+
+    assertTrue(filterIndex.addFilter(uidFilter));
+    assertFalse(filterIndex.addFilter(Filter.create("(UID=user.1)")));
+    assertEquals(filterIndex.getMatchingFilters(entry),
+         Collections.singletonList(uidFilter));
+
+    assertTrue(filterIndex.addFilter(notFilter));
+    assertTrue(filterIndex.addFilter(cnFilter));
+    assertEquals(filterIndex.getNumUnindexedFilters(), 1);
+    assertEquals(filterIndex.getMatchingFilters(entry),
+         Arrays.asList(uidFilter, notFilter, cnFilter));
+
+    assertTrue(filterIndex.removeFilter(uidFilter));
+    assertFalse(filterIndex.removeFilter(uidFilter));
+    assertFalse(filterIndex.containsFilter(uidFilter));
+    assertEquals(filterIndex.getMatchingFilters(entry),
+         Arrays.asList(notFilter, cnFilter));
+
+    assertTrue(filterIndex.removeFilter(notFilter));
+    assertEquals(filterIndex.getNumUnindexedFilters(), 0);
+    assertEquals(filterIndex.getMatchingFilters(entry),
+         Collections.singletonList(cnFilter));
+
+    assertTrue(filterIndex.addFilter(uidFilter));
+    assertEquals(filterIndex.getMatchingFilters(entry),
+         Arrays.asList(cnFilter, uidFilter));
+
+    filterIndex.clear();
+    assertEquals(filterIndex.size(), 0);
+    assertTrue(filterIndex.getFilters().isEmpty());
+    assertTrue(filterIndex.getMatchingFilters(entry).isEmpty());
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to add a filter that cannot be compiled.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAddUnsupportedFilter()
+         throws Exception
+  {
+    final FilterIndex filterIndex = new FilterIndex(null);
+
+    try
+    {
+      filterIndex.addFilter(Filter.create("(cn~=test)"));
+      fail("Expected an exception when adding an approximate filter");
+    }
+    catch (final LDAPException le)
+    {
+      assertEquals(le.getResultCode(), ResultCode.NOT_SUPPORTED);
+    }
+
+    assertEquals(filterIndex.size(), 0);
+  }
+
+
+
+  /**
+   * Tests the behavior with a large number of filters, making sure that the
+   * results are the same as evaluating each filter individually.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testManyFilters()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    final FilterIndex filterIndex = new FilterIndex(schema);
+
+    final List<Filter> filters = new ArrayList<>(3000);
+    for (int i=0; i < 1000; i++)
+    {
+      filters.add(Filter.create("(uid=user." + i + ')'));
+      filters.add(Filter.create("(&(objectClass=person)(cn=User " + i +
+           "*))"));
+      filters.add(Filter.create("(|(sn=" + i + ")(employeeNumber=" + i +
+           "))"));
+    }
+
+    for (final Filter f : filters)
+    {
+      assertTrue(filterIndex.addFilter(f));
+    }
+
+    assertEquals(filterIndex.size(), filters.size());
+    assertEquals(filterIndex.getNumUnindexedFilters(), 0);
+
+    for (final Entry e : CompiledFilterTestCase.createTestEntries(50))
+    {
+      assertEquals(filterIndex.getMatchingFilters(e),
+           getExpectedMatches(filters, e, schema));
+    }
+  }
+
+
+
+  /**
+   * Retrieves the filters from the provided list that match the given entry,
+   * as determined by evaluating each of them individually.
+   *
+   * @param  filters  The filters to evaluate.
+   * @param  entry    The entry to evaluate.
+   * @param  schema   The schema to use.
+   *
+   * @return  The filters that match the given entry.
+   */
+  private static List<Filter> getExpectedMatches(final List<Filter> filters,
+                                                 final Entry entry,
+                                                 final Schema schema)
+  {
+    final List<Filter> matches = new ArrayList<>(filters.size());
+    for (final Filter f : filters)
+    {
+      try
+      {
+        if (f.matchesEntry(entry, schema))
+        {
+          matches.add(f);
+        }
+      }
+      catch (final LDAPException le)
+      {
+        // This filter will not be considered a match.
+      }
+    }
+
+    return matches;
+  }
+}
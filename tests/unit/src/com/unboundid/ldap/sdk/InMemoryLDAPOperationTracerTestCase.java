@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.util.LatencyHistogramSnapshot;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code InMemoryLDAPOperationTracer} class.
+ */
+public final class InMemoryLDAPOperationTracerTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior when invoking the tracer directly.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDirectUse()
+         throws Exception
+  {
+    final InMemoryLDAPOperationTracer tracer =
+         new InMemoryLDAPOperationTracer();
+    assertNotNull(tracer.toString());
+
+    for (final OperationTracePhase p : OperationTracePhase.values())
+    {
+      assertEquals(tracer.getHistogram(p).getCount(), 0L);
+      assertEquals(tracer.getHistogram(p, null).getCount(), 0L);
+      assertEquals(tracer.getHistogram(p, OperationType.SEARCH).getCount(),
+           0L);
+    }
+
+    final LDAPConnection conn = new LDAPConnection();
+    tracer.phaseCompleted(conn, OperationType.SEARCH, 1,
+         OperationTracePhase.RESPONSE_WAIT, 1_000L, 3_000L);
+    tracer.phaseCompleted(conn, OperationType.SEARCH, 2,
+         OperationTracePhase.RESPONSE_WAIT, 1_000L, 5_000L);
+    tracer.phaseCompleted(conn, OperationType.MODIFY, 3,
+         OperationTracePhase.RESPONSE_WAIT, 1_000L, 2_000L);
+    tracer.phaseCompleted(conn, null, -1,
+         OperationTracePhase.CONNECTION_CHECKOUT, 1_000L, 1_500L);
+
+    LatencyHistogramSnapshot s =
+         tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT);
+    assertEquals(s.getCount(), 3L);
+    assertEquals(s.getTotalNanos(), 7_000L);
+    assertEquals(s.getMaximumNanos(), 4_000L);
+
+    s = tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+         OperationType.SEARCH);
+    assertEquals(s.getCount(), 2L);
+    assertEquals(s.getTotalNanos(), 6_000L);
+
+    s = tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+         OperationType.MODIFY);
+    assertEquals(s.getCount(), 1L);
+    assertEquals(s.getTotalNanos(), 1_000L);
+
+    assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+         OperationType.ADD).getCount(), 0L);
+    assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+         null).getCount(), 0L);
+
+    assertEquals(tracer.getHistogram(
+         OperationTracePhase.CONNECTION_CHECKOUT).getCount(), 1L);
+    assertEquals(tracer.getHistogram(OperationTracePhase.CONNECTION_CHECKOUT,
+         null).getCount(), 1L);
+
+    assertTrue(tracer.toString().contains("response-wait="));
+
+    tracer.reset();
+    assertEquals(
+         tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT).getCount(),
+         0L);
+    assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+         OperationType.SEARCH).getCount(), 0L);
+    assertEquals(tracer.getHistogram(
+         OperationTracePhase.CONNECTION_CHECKOUT).getCount(), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior when using the tracer with connections operating in
+   * both asynchronous and synchronous modes.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testWithConnection()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    for (final boolean synchronousMode : new boolean[] { false, true })
+    {
+      final InMemoryLDAPOperationTracer tracer =
+           new InMemoryLDAPOperationTracer();
+
+      final LDAPConnectionOptions options = new LDAPConnectionOptions();
+      options.setUseSynchronousMode(synchronousMode);
+      options.setOperationTracer(tracer);
+
+      final LDAPConnection conn =
+           new LDAPConnection(options, "localhost", ds.getListenPort());
+      final SearchResult searchResult = conn.search("dc=example,dc=com",
+           SearchScope.BASE, "(objectClass=*)");
+      assertEquals(searchResult.getEntryCount(), 1);
+      assertTrue(conn.compare("dc=example,dc=com", "dc", "example").
+           compareMatched());
+      conn.close();
+
+      // Each request should be encoded and written once.  The unbind request
+      // sent when closing the connection should also be included.
+      for (final OperationTracePhase p : new OperationTracePhase[]
+           {
+             OperationTracePhase.REQUEST_ENCODE,
+             OperationTracePhase.REQUEST_WRITE
+           })
+      {
+        assertEquals(tracer.getHistogram(p).getCount(), 3L);
+        assertEquals(tracer.getHistogram(p, OperationType.SEARCH).getCount(),
+             1L);
+        assertEquals(tracer.getHistogram(p, OperationType.COMPARE).getCount(),
+             1L);
+        assertEquals(tracer.getHistogram(p, OperationType.UNBIND).getCount(),
+             1L);
+      }
+
+      // There should be a single response wait for each of the search and
+      // compare operations, but a decode for each response message.
+      assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+           OperationType.SEARCH).getCount(), 1L);
+      assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+           OperationType.COMPARE).getCount(), 1L);
+      assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_DECODE,
+           OperationType.SEARCH).getCount(), 2L);
+      assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_DECODE,
+           OperationType.COMPARE).getCount(), 1L);
+
+      assertEquals(tracer.getHistogram(
+           OperationTracePhase.CONNECTION_CHECKOUT).getCount(), 0L);
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior when using the tracer with a connection pool.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testWithConnectionPool()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final InMemoryLDAPOperationTracer tracer =
+         new InMemoryLDAPOperationTracer();
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setOperationTracer(tracer);
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new LDAPConnection(options, "localhost", ds.getListenPort()), 2);
+
+    final LDAPConnection conn = pool.getConnection();
+    pool.releaseConnection(conn);
+    assertEquals(tracer.getHistogram(
+         OperationTracePhase.CONNECTION_CHECKOUT).getCount(), 1L);
+    assertEquals(tracer.getHistogram(OperationTracePhase.CONNECTION_CHECKOUT,
+         null).getCount(), 1L);
+
+    assertNotNull(pool.getEntry("dc=example,dc=com"));
+    assertEquals(tracer.getHistogram(
+         OperationTracePhase.CONNECTION_CHECKOUT).getCount(), 2L);
+    assertEquals(tracer.getHistogram(OperationTracePhase.RESPONSE_WAIT,
+         OperationType.SEARCH).getCount(), 1L);
+
+    pool.close();
+  }
+}
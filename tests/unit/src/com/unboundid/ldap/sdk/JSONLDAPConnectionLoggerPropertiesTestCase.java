@@ -46,6 +46,7 @@ import java.util.logging.Handler;
 import org.testng.annotations.Test;
 
 import com.unboundid.ldap.sdk.schema.Schema;
+import com.unboundid.util.LDAPSDKUsageException;
 import com.unboundid.util.StaticUtils;
 import com.unboundid.util.TestLogHandler;
 
@@ -4058,4 +4059,95 @@ public final class JSONLDAPConnectionLoggerPropertiesTestCase
     assertNotNull(p.toString());
     assertFalse(p.toString().isEmpty());
   }
+
+
+
+  /**
+   * Tests the behavior of the properties used to control asynchronous logging
+   * and sampling.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAsynchronousAndSamplingSettings()
+         throws Exception
+  {
+    JSONLDAPConnectionLoggerProperties p =
+         new JSONLDAPConnectionLoggerProperties();
+    assertEquals(p.getAsynchronousQueueSize(), 0);
+    assertEquals(p.getAsynchronousBatchSize(), 100);
+    assertEquals(p.getAsynchronousQueueFullBehavior(),
+         JSONLDAPConnectionLoggerQueueFullBehavior.BLOCK);
+    for (final OperationType t : OperationType.values())
+    {
+      assertEquals(Double.compare(p.getOperationSampleRate(t), 1.0d), 0);
+    }
+
+    p.setAsynchronousQueueSize(1000);
+    p.setAsynchronousBatchSize(50);
+    p.setAsynchronousQueueFullBehavior(
+         JSONLDAPConnectionLoggerQueueFullBehavior.DROP);
+    p.setOperationSampleRate(OperationType.SEARCH, 0.25d);
+    p.setOperationSampleRate(OperationType.BIND, 0.0d);
+    p = new JSONLDAPConnectionLoggerProperties(p);
+
+    final JSONLDAPConnectionLogger logger =
+         new JSONLDAPConnectionLogger(TEST_LOG_HANDER, p);
+    try
+    {
+      p = new JSONLDAPConnectionLoggerProperties(logger);
+    }
+    finally
+    {
+      logger.close();
+    }
+
+    assertEquals(p.getAsynchronousQueueSize(), 1000);
+    assertEquals(p.getAsynchronousBatchSize(), 50);
+    assertEquals(p.getAsynchronousQueueFullBehavior(),
+         JSONLDAPConnectionLoggerQueueFullBehavior.DROP);
+    assertEquals(Double.compare(
+         p.getOperationSampleRate(OperationType.SEARCH), 0.25d), 0);
+    assertEquals(Double.compare(
+         p.getOperationSampleRate(OperationType.BIND), 0.0d), 0);
+    assertEquals(Double.compare(
+         p.getOperationSampleRate(OperationType.ADD), 1.0d), 0);
+
+    assertTrue(p.toString().contains("asynchronousQueueSize=1000"));
+    assertTrue(p.toString().contains("operationSampleRates={"));
+
+    p.setOperationSampleRate(OperationType.SEARCH, 1.0d);
+    assertEquals(Double.compare(
+         p.getOperationSampleRate(OperationType.SEARCH), 1.0d), 0);
+
+    try
+    {
+      p.setOperationSampleRate(OperationType.SEARCH, 1.5d);
+      fail("Expected an exception for an invalid sample rate");
+    }
+    catch (final LDAPSDKUsageException e)
+    {
+      // This was expected.
+    }
+
+    try
+    {
+      p.setAsynchronousQueueSize(-1);
+      fail("Expected an exception for an invalid queue size");
+    }
+    catch (final LDAPSDKUsageException e)
+    {
+      // This was expected.
+    }
+
+    try
+    {
+      p.setAsynchronousBatchSize(0);
+      fail("Expected an exception for an invalid batch size");
+    }
+    catch (final LDAPSDKUsageException e)
+    {
+      // This was expected.
+    }
+  }
 }
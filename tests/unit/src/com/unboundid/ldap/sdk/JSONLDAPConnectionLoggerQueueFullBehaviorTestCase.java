@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import org.testng.annotations.Test;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code JSONLDAPConnectionLoggerQueueFullBehavior} enum.
+ */
+public final class JSONLDAPConnectionLoggerQueueFullBehaviorTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Provides basic test coverage for queue full behavior values.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testBasics()
+         throws Exception
+  {
+    for (final JSONLDAPConnectionLoggerQueueFullBehavior b :
+         JSONLDAPConnectionLoggerQueueFullBehavior.values())
+    {
+      assertNotNull(b.getName());
+      assertEquals(b.toString(), b.getName());
+
+      assertEquals(JSONLDAPConnectionLoggerQueueFullBehavior.forName(
+           b.getName()), b);
+      assertEquals(JSONLDAPConnectionLoggerQueueFullBehavior.forName(
+           b.name()), b);
+      assertEquals(JSONLDAPConnectionLoggerQueueFullBehavior.valueOf(
+           b.name()), b);
+    }
+
+    assertNull(JSONLDAPConnectionLoggerQueueFullBehavior.forName("invalid"));
+  }
+}
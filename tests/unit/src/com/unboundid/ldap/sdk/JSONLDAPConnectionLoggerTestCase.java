@@ -42,6 +42,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.LogRecord;
 
 import org.testng.annotations.Test;
 
@@ -1424,6 +1426,308 @@ public final class JSONLDAPConnectionLoggerTestCase
 
 
 
+  /**
+   * Tests the behavior when writing messages asynchronously.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAsynchronousLogging()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final TestLogHandler logHandler = new TestLogHandler();
+
+    final JSONLDAPConnectionLoggerProperties properties =
+         new JSONLDAPConnectionLoggerProperties();
+    properties.setAsynchronousQueueSize(16);
+    properties.setAsynchronousBatchSize(4);
+    properties.setLogConnects(false);
+    properties.setLogDisconnects(false);
+    final JSONLDAPConnectionLogger logger =
+         new JSONLDAPConnectionLogger(logHandler, properties);
+    assertEquals(logger.getAsynchronousQueueSize(), 16);
+    assertEquals(logger.getAsynchronousBatchSize(), 4);
+    assertEquals(logger.getAsynchronousQueueFullBehavior(),
+         JSONLDAPConnectionLoggerQueueFullBehavior.BLOCK);
+
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setConnectionLogger(logger);
+
+    try (LDAPConnection connection = new LDAPConnection(options, "localhost",
+              ds.getListenPort()))
+    {
+      for (int i=0; i < 20; i++)
+      {
+        connection.getEntry("dc=example,dc=com");
+      }
+    }
+
+    logger.close();
+    assertEquals(logger.getNumDroppedMessages(), 0L);
+
+    // There should be a request and result for each of the searches,
+    // followed by an unbind request, in order.
+    final List<JSONObject> logMessages = parseLogMessages(logHandler);
+    assertEquals(logMessages.size(), 41, logHandler.getMessagesString());
+    for (int i=0; i < 20; i++)
+    {
+      assertMessageIs(logMessages.get(2 * i), "request",
+           OperationType.SEARCH);
+      assertMessageIs(logMessages.get((2 * i) + 1), "result",
+           OperationType.SEARCH);
+    }
+    assertMessageIs(logMessages.get(40), "request", OperationType.UNBIND);
+
+    // Messages logged after the logger has been closed should be written
+    // synchronously.
+    try (LDAPConnection connection = ds.getConnection())
+    {
+      logger.logBindResult(connection, 1,
+           new BindResult(1, ResultCode.SUCCESS, null, null, null, null));
+    }
+    assertEquals(parseLogMessages(logHandler).size(), 42);
+  }
+
+
+
+  /**
+   * Tests the behavior when writing messages asynchronously with a queue that
+   * fills up when the queue full behavior is configured to drop messages.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAsynchronousLoggingDropWhenFull()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final TestLogHandler logHandler = new TestLogHandler()
+    {
+      @Override()
+      public void publish(final LogRecord record)
+      {
+        try
+        {
+          latch.await();
+        }
+        catch (final InterruptedException e)
+        {
+          throw new RuntimeException(e);
+        }
+
+        super.publish(record);
+      }
+    };
+
+    final JSONLDAPConnectionLoggerProperties properties =
+         new JSONLDAPConnectionLoggerProperties();
+    properties.setAsynchronousQueueSize(4);
+    properties.setAsynchronousQueueFullBehavior(
+         JSONLDAPConnectionLoggerQueueFullBehavior.DROP);
+    properties.setLogConnects(false);
+    properties.setLogDisconnects(false);
+    final JSONLDAPConnectionLogger logger =
+         new JSONLDAPConnectionLogger(logHandler, properties);
+
+    try (LDAPConnection connection = ds.getConnection())
+    {
+      for (int i=1; i <= 20; i++)
+      {
+        logger.logBindResult(connection, i,
+             new BindResult(i, ResultCode.SUCCESS, null, null, null, null));
+      }
+    }
+
+    // The writer can have taken at most one message from the queue before
+    // blocking, so at least 15 of the 20 messages must have been dropped.
+    final long numDropped = logger.getNumDroppedMessages();
+    assertTrue((numDropped >= 15L), String.valueOf(numDropped));
+
+    latch.countDown();
+    logger.close();
+
+    assertEquals((parseLogMessages(logHandler).size() + numDropped), 20L);
+  }
+
+
+
+  /**
+   * Tests the behavior when the logger is closed while a thread is waiting for
+   * space in a full queue and the queue full behavior is configured to block.
+   * The waiting thread should write its messages synchronously rather than
+   * dropping them.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAsynchronousLoggingCloseWhileBlocked()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final TestLogHandler logHandler = new TestLogHandler()
+    {
+      @Override()
+      public void publish(final LogRecord record)
+      {
+        try
+        {
+          latch.await();
+        }
+        catch (final InterruptedException e)
+        {
+          throw new RuntimeException(e);
+        }
+
+        super.publish(record);
+      }
+    };
+
+    final JSONLDAPConnectionLoggerProperties properties =
+         new JSONLDAPConnectionLoggerProperties();
+    properties.setAsynchronousQueueSize(2);
+    properties.setAsynchronousQueueFullBehavior(
+         JSONLDAPConnectionLoggerQueueFullBehavior.BLOCK);
+    properties.setLogConnects(false);
+    properties.setLogDisconnects(false);
+    final JSONLDAPConnectionLogger logger =
+         new JSONLDAPConnectionLogger(logHandler, properties);
+
+    final LDAPConnection connection = ds.getConnection();
+    final Thread producer = new Thread()
+    {
+      @Override()
+      public void run()
+      {
+        for (int i=1; i <= 10; i++)
+        {
+          logger.logBindResult(connection, i,
+               new BindResult(i, ResultCode.SUCCESS, null, null, null, null));
+        }
+      }
+    };
+    producer.start();
+
+    // Wait for the producer to block on the full queue, and then close the
+    // logger.  The close cannot complete until the latch is released, but it
+    // must not wait for the blocked producer before the producer notices it.
+    final Thread closer = new Thread()
+    {
+      @Override()
+      public void run()
+      {
+        logger.close();
+      }
+    };
+
+    final long stopWaitingTime = System.currentTimeMillis() + 10_000L;
+    while ((producer.getState() != Thread.State.TIMED_WAITING) &&
+         (System.currentTimeMillis() < stopWaitingTime))
+    {
+      Thread.yield();
+    }
+    assertEquals(producer.getState(), Thread.State.TIMED_WAITING);
+
+    closer.start();
+    while ((closer.getState() != Thread.State.WAITING) &&
+         (System.currentTimeMillis() < stopWaitingTime))
+    {
+      Thread.yield();
+    }
+    assertEquals(closer.getState(), Thread.State.WAITING);
+
+    latch.countDown();
+    producer.join(10_000L);
+    closer.join(10_000L);
+    assertFalse(producer.isAlive());
+    assertFalse(closer.isAlive());
+    connection.close();
+
+    assertEquals(logger.getNumDroppedMessages(), 0L);
+    assertEquals(parseLogMessages(logHandler).size(), 10,
+         logHandler.getMessagesString());
+  }
+
+
+
+  /**
+   * Tests the behavior when sampling operations to be logged.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSampling()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final TestLogHandler logHandler = new TestLogHandler();
+
+    final JSONLDAPConnectionLoggerProperties properties =
+         new JSONLDAPConnectionLoggerProperties();
+    properties.setLogConnects(false);
+    properties.setLogDisconnects(false);
+    properties.setOperationSampleRate(OperationType.SEARCH, 0.5d);
+    properties.setOperationSampleRate(OperationType.COMPARE, 0.0d);
+    final JSONLDAPConnectionLogger logger =
+         new JSONLDAPConnectionLogger(logHandler, properties);
+    assertEquals(Double.compare(
+         logger.getOperationSampleRate(OperationType.SEARCH), 0.5d), 0);
+    assertEquals(Double.compare(
+         logger.getOperationSampleRate(OperationType.COMPARE), 0.0d), 0);
+    assertEquals(Double.compare(
+         logger.getOperationSampleRate(OperationType.ADD), 1.0d), 0);
+
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setConnectionLogger(logger);
+
+    try (LDAPConnection connection = new LDAPConnection(options, "localhost",
+              ds.getListenPort()))
+    {
+      for (int i=0; i < 40; i++)
+      {
+        connection.getEntry("dc=example,dc=com");
+        connection.compare("dc=example,dc=com", "dc", "example");
+      }
+    }
+
+    // No compare operations should have been logged, and about half of the
+    // search operations should have been logged, each with both a request and
+    // a result.
+    int numSearchRequests = 0;
+    int numSearchResults = 0;
+    for (final JSONObject o : parseLogMessages(logHandler))
+    {
+      final OperationType t = OperationType.forName(
+           o.getFieldAsString("operation-type"));
+      assertTrue(((t == OperationType.SEARCH) || (t == OperationType.UNBIND)),
+           o.toSingleLineString());
+
+      if (t == OperationType.SEARCH)
+      {
+        if (o.getFieldAsString("message-type").equals("request"))
+        {
+          numSearchRequests++;
+        }
+        else
+        {
+          numSearchResults++;
+        }
+      }
+    }
+
+    assertEquals(numSearchRequests, numSearchResults);
+    assertTrue(((numSearchRequests >= 5) && (numSearchRequests <= 35)),
+         String.valueOf(numSearchRequests));
+  }
+
+
+
   /**
    * Parses the messages logged to the provided handler as JSON objects.
    *
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.net.ServerSocket;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code LDAPConnectThrottle}
+ * class.
+ */
+public final class LDAPConnectThrottleTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of a throttle created with the default backoff
+   * settings.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDefaultSettings()
+         throws Exception
+  {
+    final LDAPConnectThrottle throttle = new LDAPConnectThrottle(100);
+    assertEquals(throttle.getMaxConnectAttemptsPerSecond(), 100);
+    assertEquals(throttle.getInitialBackoffMillis(),
+         LDAPConnectThrottle.DEFAULT_INITIAL_BACKOFF_MILLIS);
+    assertEquals(throttle.getMaxBackoffMillis(),
+         LDAPConnectThrottle.DEFAULT_MAX_BACKOFF_MILLIS);
+    assertEquals(throttle.getNumConnectAttempts(), 0L);
+    assertEquals(throttle.getNumConnectAttemptsDelayed(), 0L);
+    assertEquals(throttle.getNumConnectAttemptsRejected(), 0L);
+    assertEquals(throttle.getRemainingBackoffMillis("localhost", 389), 0L);
+    assertNotNull(throttle.toString());
+
+    final LDAPConnectThrottle unlimited = new LDAPConnectThrottle(-1, -1L, 0L);
+    assertEquals(unlimited.getMaxConnectAttemptsPerSecond(), 0);
+    assertEquals(unlimited.getInitialBackoffMillis(), 0L);
+    assertEquals(unlimited.getMaxBackoffMillis(), 0L);
+
+    unlimited.connectFailed("localhost", 389);
+    assertEquals(unlimited.getRemainingBackoffMillis("localhost", 389), 0L);
+  }
+
+
+
+  /**
+   * Tests to ensure that a maximum backoff that is less than the initial
+   * backoff is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidBackoff()
+         throws Exception
+  {
+    new LDAPConnectThrottle(0, 1000L, 100L);
+  }
+
+
+
+  /**
+   * Tests the ability to use a throttle with connection options.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConnectionOptions()
+         throws Exception
+  {
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    assertNull(options.getConnectThrottle());
+
+    final LDAPConnectThrottle throttle = new LDAPConnectThrottle(10);
+    options.setConnectThrottle(throttle);
+    assertSame(options.getConnectThrottle(), throttle);
+    assertSame(options.duplicate().getConnectThrottle(), throttle);
+    assertTrue(options.toString().contains("LDAPConnectThrottle("));
+
+    options.setConnectThrottle(null);
+    assertNull(options.getConnectThrottle());
+  }
+
+
+
+  /**
+   * Tests to ensure that the rate of connection attempts is limited.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRateLimit()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds.startListening();
+
+    final LDAPConnectThrottle throttle = new LDAPConnectThrottle(20);
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setConnectThrottle(throttle);
+
+    final long startTime = System.currentTimeMillis();
+    for (int i=0; i < 10; i++)
+    {
+      final LDAPConnection conn =
+           new LDAPConnection(options, "localhost", ds.getListenPort());
+      assertTrue(conn.isConnected());
+      conn.close();
+    }
+
+    final long elapsedMillis = System.currentTimeMillis() - startTime;
+    assertTrue(elapsedMillis >= 400L,
+         "Ten connections were established in " + elapsedMillis + "ms");
+    assertEquals(throttle.getNumConnectAttempts(), 10L);
+    assertEquals(throttle.getNumConnectAttemptsDelayed(), 0L);
+
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the backoff behavior for a server that is not accepting connections.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testBackoff()
+         throws Exception
+  {
+    final int port;
+    try (ServerSocket s = new ServerSocket(0))
+    {
+      port = s.getLocalPort();
+    }
+
+    final LDAPConnectThrottle throttle =
+         new LDAPConnectThrottle(0, 200L, 10_000L);
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setConnectThrottle(throttle);
+    options.setConnectTimeoutMillis(5_000);
+
+
+    // The first attempt should fail, and the next attempt should be delayed
+    // by between half and all of the initial backoff.
+    try
+    {
+      new LDAPConnection(options, "localhost", port);
+      fail("Expected a failure to connect to an unused port");
+    }
+    catch (final LDAPException le)
+    {
+      assertResultCodeEquals(le, ResultCode.CONNECT_ERROR);
+    }
+
+    final long remainingMillis =
+         throttle.getRemainingBackoffMillis("localhost", port);
+    assertTrue(remainingMillis > 0L);
+    assertTrue(remainingMillis <= 200L);
+
+
+    // The second attempt should be delayed before it fails.
+    try
+    {
+      new LDAPConnection(options, "localhost", port);
+      fail("Expected a failure to connect to an unused port");
+    }
+    catch (final LDAPException le)
+    {
+      assertResultCodeEquals(le, ResultCode.CONNECT_ERROR);
+    }
+
+    assertEquals(throttle.getNumConnectAttempts(), 2L);
+    assertEquals(throttle.getNumConnectAttemptsDelayed(), 1L);
+    assertTrue(throttle.getRemainingBackoffMillis("localhost", port) > 0L);
+
+
+    // An attempt with a connect timeout shorter than the remaining backoff
+    // should be rejected without trying to connect.
+    throttle.connectFailed("localhost", port);
+    throttle.connectFailed("localhost", port);
+    options.setConnectTimeoutMillis(50);
+    try
+    {
+      new LDAPConnection(options, "localhost", port);
+      fail("Expected a failure to connect to an unused port");
+    }
+    catch (final LDAPException le)
+    {
+      assertResultCodeEquals(le, ResultCode.CONNECT_ERROR);
+    }
+
+    assertEquals(throttle.getNumConnectAttempts(), 2L);
+    assertEquals(throttle.getNumConnectAttemptsRejected(), 1L);
+
+
+    // A successful attempt should reset the backoff.
+    throttle.connectSucceeded("localhost", port);
+    assertEquals(throttle.getRemainingBackoffMillis("localhost", port), 0L);
+
+    throttle.connectFailed("localhost", port);
+    assertTrue(throttle.getRemainingBackoffMillis("localhost", port) > 0L);
+    throttle.resetBackoff();
+    assertEquals(throttle.getRemainingBackoffMillis("localhost", port), 0L);
+  }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.
+            InMemoryInterceptedSearchRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code LDAPConnectionMultiplexer} class.
+ */
+public final class LDAPConnectionMultiplexerTestCase
+       extends LDAPSDKTestCase
+{
+  // The in-memory directory server used for testing.  Searches with a base DN
+  // of "ou=slow,dc=example,dc=com" will be delayed by the server.
+  private InMemoryDirectoryServer ds;
+
+
+
+  /**
+   * Creates the in-memory directory server used for testing.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @BeforeClass()
+  public void setUp()
+         throws Exception
+  {
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor()
+    {
+      @Override()
+      public void processSearchRequest(
+                       final InMemoryInterceptedSearchRequest request)
+      {
+        if (request.getRequest().getBaseDN().equalsIgnoreCase(
+             "ou=slow,dc=example,dc=com"))
+        {
+          try
+          {
+            Thread.sleep(50L);
+          }
+          catch (final InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    });
+
+    ds = new InMemoryDirectoryServer(cfg);
+    ds.startListening();
+    ds.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+    ds.add(
+         "dn: ou=slow,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: slow");
+  }
+
+
+
+  /**
+   * Shuts down the in-memory directory server.
+   */
+  @AfterClass()
+  public void cleanUp()
+  {
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the ability to process each kind of operation with a multiplexer.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOperations()
+         throws Exception
+  {
+    final LDAPConnectionMultiplexer multiplexer =
+         new LDAPConnectionMultiplexer(
+              new SingleServerSet("localhost", ds.getListenPort()),
+              new SimpleBindRequest(), 2, 5);
+    assertEquals(multiplexer.getNumConnections(), 2);
+    assertEquals(multiplexer.getMaxOperationsPerConnection(), 5);
+    assertEquals(multiplexer.getNumOutstandingOperations(), 0);
+    assertEquals(multiplexer.getMaxWaitTimeMillis(),
+         LDAPConnectionMultiplexer.DEFAULT_MAX_WAIT_TIME_MILLIS);
+    assertEquals(
+         multiplexer.getOperationTypesToRetryDueToInvalidConnections(),
+         EnumSet.of(OperationType.COMPARE, OperationType.SEARCH));
+    assertFalse(multiplexer.isClosed());
+    assertNotNull(multiplexer.toString());
+
+    assertNotNull(multiplexer.getRootDSE());
+    assertNotNull(multiplexer.getSchema());
+    assertNotNull(multiplexer.getEntry("dc=example,dc=com"));
+
+    assertResultCodeEquals(multiplexer.add(
+         "dn: ou=People,dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: organizationalUnit",
+         "ou: People"),
+         ResultCode.SUCCESS);
+    assertTrue(multiplexer.compare("ou=People,dc=example,dc=com", "ou",
+         "People").compareMatched());
+    assertResultCodeEquals(multiplexer.modify("ou=People,dc=example,dc=com",
+         new Modification(ModificationType.REPLACE, "description", "foo")),
+         ResultCode.SUCCESS);
+    assertResultCodeEquals(multiplexer.modifyDN(
+         "ou=People,dc=example,dc=com", "ou=Users", true),
+         ResultCode.SUCCESS);
+
+    final SearchResult searchResult = multiplexer.search("dc=example,dc=com",
+         SearchScope.SUB, "(ou=Users)");
+    assertEquals(searchResult.getEntryCount(), 1);
+
+    final SearchResultEntry entry = multiplexer.searchForEntry(
+         "dc=example,dc=com", SearchScope.SUB, "(description=foo)");
+    assertNotNull(entry);
+    assertDNsEqual(entry.getDN(), "ou=Users,dc=example,dc=com");
+
+    try
+    {
+      multiplexer.search("dc=example,dc=com", SearchScope.SUB,
+           "invalid filter");
+      fail("Expected an exception for an invalid filter");
+    }
+    catch (final LDAPSearchException lse)
+    {
+      assertResultCodeEquals(lse, ResultCode.FILTER_ERROR);
+    }
+
+    try
+    {
+      multiplexer.delete("ou=missing,dc=example,dc=com");
+      fail("Expected an exception for a missing entry");
+    }
+    catch (final LDAPException le)
+    {
+      assertResultCodeEquals(le, ResultCode.NO_SUCH_OBJECT);
+    }
+
+    assertResultCodeEquals(multiplexer.delete("ou=Users,dc=example,dc=com"),
+         ResultCode.SUCCESS);
+    assertEquals(multiplexer.getNumOutstandingOperations(), 0);
+    assertEquals(multiplexer.getNumConnectionsReplaced(), 0L);
+
+    multiplexer.close();
+    assertTrue(multiplexer.isClosed());
+
+    try
+    {
+      multiplexer.getRootDSE();
+      fail("Expected an exception for a closed multiplexer");
+    }
+    catch (final LDAPException le)
+    {
+      assertResultCodeEquals(le, ResultCode.CONNECT_ERROR);
+    }
+  }
+
+
+
+  /**
+   * Tests to ensure that many threads can have operations outstanding at the
+   * same time over a small number of connections.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConcurrentOperations()
+         throws Exception
+  {
+    final LDAPConnectionMultiplexer multiplexer =
+         new LDAPConnectionMultiplexer(
+              new SingleServerSet("localhost", ds.getListenPort()), null, 2,
+              4);
+
+    final int numThreads = 12;
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final AtomicInteger numSuccessful = new AtomicInteger(0);
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    final List<Thread> threads = new ArrayList<>(numThreads);
+    for (int i=0; i < numThreads; i++)
+    {
+      final Thread t = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          try
+          {
+            startLatch.await();
+            final SearchResult result = multiplexer.search(
+                 "ou=slow,dc=example,dc=com", SearchScope.BASE,
+                 "(objectClass=*)");
+            if (result.getEntryCount() == 1)
+            {
+              numSuccessful.incrementAndGet();
+            }
+          }
+          catch (final Exception e)
+          {
+            failure.compareAndSet(null, e);
+          }
+        }
+      };
+      t.start();
+      threads.add(t);
+    }
+
+    startLatch.countDown();
+
+    int maxOutstanding = 0;
+    for (final Thread t : threads)
+    {
+      while (t.isAlive())
+      {
+        final int numOutstanding = multiplexer.getNumOutstandingOperations();
+        assertTrue(numOutstanding <= 8);
+        maxOutstanding = Math.max(maxOutstanding, numOutstanding);
+        t.join(5L);
+      }
+    }
+
+    assertNull(failure.get());
+    assertEquals(numSuccessful.get(), numThreads);
+    assertTrue(maxOutstanding > 2,
+         "Expected more outstanding operations than connections, but the " +
+              "maximum was " + maxOutstanding);
+    assertEquals(multiplexer.getNumOutstandingOperations(), 0);
+
+    multiplexer.close();
+  }
+
+
+
+  /**
+   * Tests the behavior when no connection can accept another operation within
+   * the maximum wait time.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testWaitTimeout()
+         throws Exception
+  {
+    final LDAPConnectionMultiplexer multiplexer =
+         new LDAPConnectionMultiplexer(
+              new SingleServerSet("localhost", ds.getListenPort()), null, 1,
+              1);
+    multiplexer.setMaxWaitTimeMillis(0L);
+    assertEquals(multiplexer.getMaxWaitTimeMillis(), 0L);
+
+    final Thread t = new Thread()
+    {
+      @Override()
+      public void run()
+      {
+        try
+        {
+          multiplexer.search("ou=slow,dc=example,dc=com", SearchScope.BASE,
+               "(objectClass=*)");
+        }
+        catch (final Exception e)
+        {
+          // This will be detected by the main thread.
+        }
+      }
+    };
+    t.start();
+
+    while (multiplexer.getNumOutstandingOperations() == 0)
+    {
+      Thread.sleep(1L);
+    }
+
+    try
+    {
+      multiplexer.getRootDSE();
+      fail("Expected a timeout while waiting for a connection");
+    }
+    catch (final LDAPException le)
+    {
+      assertResultCodeEquals(le, ResultCode.TIMEOUT);
+    }
+
+    t.join();
+    multiplexer.setMaxWaitTimeMillis(10_000L);
+    assertNotNull(multiplexer.getRootDSE());
+    multiplexer.close();
+  }
+
+
+
+  /**
+   * Tests the behavior when connections are closed by the server.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFailover()
+         throws Exception
+  {
+    final LDAPConnectionMultiplexer multiplexer =
+         new LDAPConnectionMultiplexer(
+              new SingleServerSet("localhost", ds.getListenPort()), null, 1);
+
+    // A search should be retried on a new connection.
+    closeAllConnections(multiplexer);
+    assertNotNull(multiplexer.getEntry("dc=example,dc=com"));
+    assertEquals(multiplexer.getNumConnectionsReplaced(), 1L);
+    assertEquals(multiplexer.getNumOperationsRetried(), 1L);
+
+    // A modify should not be retried, but the connection should still be
+    // replaced so that subsequent operations can succeed.
+    closeAllConnections(multiplexer);
+    try
+    {
+      multiplexer.modify("dc=example,dc=com",
+           new Modification(ModificationType.REPLACE, "description", "foo"));
+      fail("Expected a modify on a closed connection to fail");
+    }
+    catch (final LDAPException le)
+    {
+      assertFalse(ResultCode.isConnectionUsable(le.getResultCode()));
+    }
+    assertEquals(multiplexer.getNumConnectionsReplaced(), 2L);
+    assertEquals(multiplexer.getNumOperationsRetried(), 1L);
+
+    // If modifies should be retried, then the modify should succeed.
+    multiplexer.setRetryFailedOperationsDueToInvalidConnections(
+         EnumSet.of(OperationType.MODIFY));
+    closeAllConnections(multiplexer);
+    assertResultCodeEquals(multiplexer.modify("dc=example,dc=com",
+         new Modification(ModificationType.REPLACE, "description", "bar")),
+         ResultCode.SUCCESS);
+    assertEquals(multiplexer.getNumOperationsRetried(), 2L);
+
+    // If no operations should be retried, then the search should fail.
+    multiplexer.setRetryFailedOperationsDueToInvalidConnections(null);
+    assertTrue(multiplexer.
+         getOperationTypesToRetryDueToInvalidConnections().isEmpty());
+    closeAllConnections(multiplexer);
+    try
+    {
+      multiplexer.getEntry("dc=example,dc=com");
+      fail("Expected a search on a closed connection to fail");
+    }
+    catch (final LDAPException le)
+    {
+      assertFalse(ResultCode.isConnectionUsable(le.getResultCode()));
+    }
+
+    assertNotNull(multiplexer.getEntry("dc=example,dc=com"));
+    multiplexer.close();
+  }
+
+
+
+  /**
+   * Closes all connections established to the test server and waits for the
+   * client side of each of the multiplexer's connections to notice the
+   * closure before the next operation is attempted.  An operation is processed
+   * through the provided multiplexer first to ensure that the server has
+   * finished accepting any newly-established connection.
+   *
+   * @param  multiplexer  The multiplexer whose connections will be closed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private void closeAllConnections(
+                    final LDAPConnectionMultiplexer multiplexer)
+          throws Exception
+  {
+    assertNotNull(multiplexer.getRootDSE());
+    assertTrue(multiplexer.getNumConnectedConnections() > 0);
+    ds.closeAllConnections(false);
+
+    final long stopWaitingTime = System.currentTimeMillis() + 10_000L;
+    while ((multiplexer.getNumConnectedConnections() > 0) &&
+         (System.currentTimeMillis() < stopWaitingTime))
+    {
+      Thread.sleep(1L);
+    }
+
+    assertEquals(multiplexer.getNumConnectedConnections(), 0);
+  }
+
+
+
+  /**
+   * Tests to ensure that connections operating in synchronous mode are
+   * rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPException.class })
+  public void testSynchronousModeRejected()
+         throws Exception
+  {
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setUseSynchronousMode(true);
+    new LDAPConnectionMultiplexer(
+         new SingleServerSet("localhost", ds.getListenPort(), options), null,
+         1);
+  }
+
+
+
+  /**
+   * Tests to ensure that an invalid number of connections is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidNumConnections()
+         throws Exception
+  {
+    new LDAPConnectionMultiplexer(
+         new SingleServerSet("localhost", ds.getListenPort()), null, 0);
+  }
+}
@@ -117,6 +117,7 @@ public class LDAPConnectionOptionsTestCase
     assertFalse(opts.abandonOnTimeout());
     assertEquals(opts.getMaxMessageSize(), (20 * 1024 * 1024));
     assertNull(opts.getConnectionLogger());
+    assertNull(opts.getOperationTracer());
     assertNull(opts.getDisconnectHandler());
     assertNull(opts.getUnsolicitedNotificationHandler());
     assertFalse(opts.captureConnectStackTrace());
@@ -201,6 +202,7 @@ public class LDAPConnectionOptionsTestCase
     opts.setResponseTimeoutMillis(1234L);
     opts.setAbandonOnTimeout(true);
     opts.setConnectionLogger(new TestLDAPConnectionLogger());
+    opts.setOperationTracer(new InMemoryLDAPOperationTracer());
     opts.setDisconnectHandler(new TestDisconnectHandler());
     opts.setUnsolicitedNotificationHandler(
          new TestUnsolicitedNotificationHandler());
@@ -231,6 +233,7 @@ public class LDAPConnectionOptionsTestCase
                  opts.getResponseTimeoutMillis());
     assertEquals(dup.abandonOnTimeout(), opts.abandonOnTimeout());
     assertEquals(dup.getConnectionLogger(), opts.getConnectionLogger());
+    assertEquals(dup.getOperationTracer(), opts.getOperationTracer());
     assertEquals(dup.getDisconnectHandler(), opts.getDisconnectHandler());
     assertEquals(dup.getUnsolicitedNotificationHandler(),
                  opts.getUnsolicitedNotificationHandler());
@@ -910,6 +913,28 @@ public class LDAPConnectionOptionsTestCase
 
 
 
+  /**
+   * Tests operation tracer functionality.
+   */
+  @Test()
+  public void testOperationTracer()
+  {
+    final LDAPConnectionOptions opts = new LDAPConnectionOptions();
+
+    assertNull(opts.getOperationTracer());
+    assertNotNull(opts.toString());
+
+    opts.setOperationTracer(new InMemoryLDAPOperationTracer());
+    assertNotNull(opts.getOperationTracer());
+    assertTrue(opts.toString().contains("operationTracerClass="));
+
+    opts.setOperationTracer(null);
+    assertNull(opts.getOperationTracer());
+    assertFalse(opts.toString().contains("operationTracerClass="));
+  }
+
+
+
   /**
    * Tests disconnect handler functionality.
    */
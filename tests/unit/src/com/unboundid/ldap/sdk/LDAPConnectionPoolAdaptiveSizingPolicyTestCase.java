@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the LDAP connection pool
+ * adaptive sizing policy.
+ */
+public final class LDAPConnectionPoolAdaptiveSizingPolicyTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of a policy created with the default settings.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDefaultSettings()
+         throws Exception
+  {
+    final LDAPConnectionPoolAdaptiveSizingPolicy p =
+         new LDAPConnectionPoolAdaptiveSizingPolicy();
+
+    assertEquals(p.getMinConnections(), 1);
+    assertEquals(p.getMaxConnections(), Integer.MAX_VALUE);
+    assertEquals(p.getTargetUtilization(),
+         LDAPConnectionPoolAdaptiveSizingPolicy.DEFAULT_TARGET_UTILIZATION);
+    assertEquals(p.getEvaluationIntervalMillis(),
+         LDAPConnectionPoolAdaptiveSizingPolicy.
+              DEFAULT_EVALUATION_INTERVAL_MILLIS);
+    assertEquals(p.getMaxCheckoutWaitTimeMillis(),
+         LDAPConnectionPoolAdaptiveSizingPolicy.
+              DEFAULT_MAX_CHECKOUT_WAIT_TIME_MILLIS);
+    assertEquals(p.getResponseTimeThresholdMillis(), 0L);
+    assertEquals(p.getMaxConnectThreads(),
+         LDAPConnectionPoolAdaptiveSizingPolicy.DEFAULT_MAX_CONNECT_THREADS);
+
+    assertNotNull(p.toString());
+  }
+
+
+
+  /**
+   * Tests the ability to update the settings for a policy, including the way
+   * that out-of-range values are handled.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testUpdateSettings()
+         throws Exception
+  {
+    final LDAPConnectionPoolAdaptiveSizingPolicy p =
+         new LDAPConnectionPoolAdaptiveSizingPolicy(5, 2);
+    assertEquals(p.getMinConnections(), 5);
+    assertEquals(p.getMaxConnections(), 5);
+
+    p.setConnectionBounds(-1, 20);
+    assertEquals(p.getMinConnections(), 0);
+    assertEquals(p.getMaxConnections(), 20);
+
+    p.setTargetUtilization(0.5d);
+    assertEquals(p.getTargetUtilization(), 0.5d);
+
+    p.setEvaluationIntervalMillis(0L);
+    assertEquals(p.getEvaluationIntervalMillis(), 1L);
+
+    p.setMaxCheckoutWaitTimeMillis(-1L);
+    assertEquals(p.getMaxCheckoutWaitTimeMillis(), 0L);
+
+    p.setResponseTimeThresholdMillis(50L);
+    assertEquals(p.getResponseTimeThresholdMillis(), 50L);
+
+    p.setMaxConnectThreads(0);
+    assertEquals(p.getMaxConnectThreads(), 1);
+
+    final LDAPConnectionPoolAdaptiveSizingPolicy d = p.duplicate();
+    assertEquals(d.getMinConnections(), 0);
+    assertEquals(d.getMaxConnections(), 20);
+    assertEquals(d.getTargetUtilization(), 0.5d);
+    assertEquals(d.getEvaluationIntervalMillis(), 1L);
+    assertEquals(d.getMaxCheckoutWaitTimeMillis(), 0L);
+    assertEquals(d.getResponseTimeThresholdMillis(), 50L);
+    assertEquals(d.getMaxConnectThreads(), 1);
+    assertEquals(d.toString(), p.toString());
+  }
+
+
+
+  /**
+   * Tests to ensure that an invalid target utilization is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidTargetUtilization()
+         throws Exception
+  {
+    new LDAPConnectionPoolAdaptiveSizingPolicy().setTargetUtilization(1.5d);
+  }
+}
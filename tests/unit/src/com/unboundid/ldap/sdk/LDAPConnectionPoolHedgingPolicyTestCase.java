@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the LDAP connection pool
+ * hedging policy.
+ */
+public final class LDAPConnectionPoolHedgingPolicyTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of a policy created with the default settings.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDefaultSettings()
+         throws Exception
+  {
+    final LDAPConnectionPoolHedgingPolicy p =
+         new LDAPConnectionPoolHedgingPolicy();
+
+    assertEquals(p.getLatencyPercentile(),
+         LDAPConnectionPoolHedgingPolicy.DEFAULT_LATENCY_PERCENTILE);
+    assertEquals(p.getMinHedgeDelayMillis(),
+         LDAPConnectionPoolHedgingPolicy.DEFAULT_MIN_HEDGE_DELAY_MILLIS);
+    assertEquals(p.getMaxHedgeDelayMillis(),
+         LDAPConnectionPoolHedgingPolicy.DEFAULT_MAX_HEDGE_DELAY_MILLIS);
+    assertEquals(p.getMaxHedgeRatio(),
+         LDAPConnectionPoolHedgingPolicy.DEFAULT_MAX_HEDGE_RATIO);
+    assertEquals(p.getMaxHedgeBurst(),
+         LDAPConnectionPoolHedgingPolicy.DEFAULT_MAX_HEDGE_BURST);
+
+    assertNotNull(p.toString());
+  }
+
+
+
+  /**
+   * Tests the ability to update the settings for a policy, including the way
+   * that out-of-range values are handled.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testUpdateSettings()
+         throws Exception
+  {
+    final LDAPConnectionPoolHedgingPolicy p =
+         new LDAPConnectionPoolHedgingPolicy();
+
+    p.setLatencyPercentile(99.0d);
+    assertEquals(p.getLatencyPercentile(), 99.0d);
+
+    p.setHedgeDelayBoundsMillis(-1L, 250L);
+    assertEquals(p.getMinHedgeDelayMillis(), 0L);
+    assertEquals(p.getMaxHedgeDelayMillis(), 250L);
+
+    p.setHedgeDelayBoundsMillis(100L, 50L);
+    assertEquals(p.getMinHedgeDelayMillis(), 100L);
+    assertEquals(p.getMaxHedgeDelayMillis(), 100L);
+
+    p.setMaxHedgeRatio(0.0d);
+    assertEquals(p.getMaxHedgeRatio(), 0.0d);
+
+    p.setMaxHedgeBurst(0);
+    assertEquals(p.getMaxHedgeBurst(), 1);
+
+    final LDAPConnectionPoolHedgingPolicy d = p.duplicate();
+    assertEquals(d.getLatencyPercentile(), 99.0d);
+    assertEquals(d.getMinHedgeDelayMillis(), 100L);
+    assertEquals(d.getMaxHedgeDelayMillis(), 100L);
+    assertEquals(d.getMaxHedgeRatio(), 0.0d);
+    assertEquals(d.getMaxHedgeBurst(), 1);
+    assertEquals(d.toString(), p.toString());
+  }
+
+
+
+  /**
+   * Tests to ensure that an invalid latency percentile is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidLatencyPercentile()
+         throws Exception
+  {
+    new LDAPConnectionPoolHedgingPolicy().setLatencyPercentile(100.0d);
+  }
+
+
+
+  /**
+   * Tests to ensure that an invalid maximum hedge ratio is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidMaxHedgeRatio()
+         throws Exception
+  {
+    new LDAPConnectionPoolHedgingPolicy().setMaxHedgeRatio(1.5d);
+  }
+}
@@ -41,6 +41,9 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.util.LatencyHistogramSnapshot;
+
 
 
 /**
@@ -291,4 +294,47 @@ public class LDAPConnectionPoolStatisticsTestCase
 
     assertNotNull(stats.toString());
   }
+
+
+
+  /**
+   * Tests to ensure that response times for operations processed on pooled
+   * connections are included in the pool's response time histograms.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testPoolResponseTimeHistograms()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = getTestDS(true, false);
+
+    final LDAPConnectionPool pool = ds.getConnectionPool(2);
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    stats.reset();
+
+    for (int i=0; i < 5; i++)
+    {
+      pool.getEntry("dc=example,dc=com");
+    }
+
+    pool.compare("dc=example,dc=com", "dc", "example");
+
+    final LatencyHistogramSnapshot searchSnapshot =
+         stats.getResponseTimeHistogram(OperationType.SEARCH);
+    assertEquals(searchSnapshot.getCount(), 5L);
+    assertTrue(searchSnapshot.get50thPercentileNanos() > 0L);
+    assertTrue(searchSnapshot.get99thPercentileNanos() >=
+         searchSnapshot.get50thPercentileNanos());
+    assertTrue(searchSnapshot.getMaximumNanos() >=
+         searchSnapshot.get99thPercentileNanos());
+
+    assertEquals(stats.getResponseTimeHistogram(OperationType.COMPARE).
+         getCount(), 1L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.MODIFY).
+         getCount(), 0L);
+
+    pool.close();
+  }
 }
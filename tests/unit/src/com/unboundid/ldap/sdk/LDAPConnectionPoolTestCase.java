@@ -38,8 +38,18 @@ package com.unboundid.ldap.sdk;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -47,6 +57,11 @@ import org.testng.annotations.Test;
 
 import com.unboundid.ldap.listener.InMemoryDirectoryServer;
 import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.
+            InMemoryInterceptedCompareRequest;
+import com.unboundid.ldap.listener.interceptor.
+            InMemoryInterceptedSearchRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
 import com.unboundid.ldap.sdk.controls.ManageDsaITRequestControl;
 import com.unboundid.ldap.sdk.extensions.StartTLSExtendedRequest;
 import com.unboundid.ldap.sdk.extensions.WhoAmIExtendedRequest;
@@ -3277,4 +3292,817 @@ public class LDAPConnectionPoolTestCase
     pool.close();
     ds.shutDown(true);
   }
+
+
+
+  /**
+   * Tests the behavior of a connection pool with per-server weights, including
+   * weighted checkout, rebalancing, and per-server statistics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testServerWeightsAndRebalancing()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds1 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds1.startListening();
+    final InMemoryDirectoryServer ds2 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds2.startListening();
+
+    final String key1 = "localhost:" + ds1.getListenPort();
+    final String key2 = "localhost:" + ds2.getListenPort();
+    final RoundRobinServerSet serverSet = new RoundRobinServerSet(
+         new String[] { "localhost", "localhost" },
+         new int[] { ds1.getListenPort(), ds2.getListenPort() });
+
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(serverSet, null, 4, 4);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+    assertTrue(pool.getServerWeights().isEmpty());
+
+    final Map<String,Integer> initialCounts =
+         pool.getCurrentAvailableConnectionsByServer();
+    assertEquals(initialCounts.get(key1), Integer.valueOf(2));
+    assertEquals(initialCounts.get(key2), Integer.valueOf(2));
+    assertEquals(pool.getConnectionPoolStatistics().
+         getNumAvailableConnectionsByServer(), initialCounts);
+    assertEquals(pool.getConnectionPoolStatistics().
+         getNumSuccessfulConnectionAttemptsByServer().get(key1),
+         Long.valueOf(2L));
+
+    // Without any rebalancing weights, the pool should not be rebalanced.
+    assertFalse(pool.rebalanceServerConnections());
+
+
+    // Configure weights of three to one and verify that checkouts are spread
+    // across the servers accordingly.
+    pool.setServerWeight("localhost", ds1.getListenPort(), 3);
+    pool.setServerWeight("localhost", ds2.getListenPort(), 1);
+    assertEquals(pool.getServerWeights().get(key1), Integer.valueOf(3));
+    assertEquals(pool.getServerWeights().get(key2), Integer.valueOf(1));
+
+    // Checkouts are only tracked by server if that has been enabled.
+    assertFalse(pool.getTrackCheckoutsByServer());
+    pool.releaseConnection(pool.getConnection());
+    assertTrue(pool.getConnectionPoolStatistics().
+         getNumSuccessfulCheckoutsByServer().isEmpty());
+
+    pool.setTrackCheckoutsByServer(true);
+    assertTrue(pool.getTrackCheckoutsByServer());
+    pool.getConnectionPoolStatistics().reset();
+    for (int i=0; i < 8; i++)
+    {
+      final LDAPConnection conn = pool.getConnection();
+      pool.releaseConnection(conn);
+    }
+
+    final Map<String,Long> checkouts =
+         pool.getConnectionPoolStatistics().getNumSuccessfulCheckoutsByServer();
+    assertEquals(checkouts.get(key1), Long.valueOf(6L));
+    assertEquals(checkouts.get(key2), Long.valueOf(2L));
+
+
+    // Rebalance the pool.  The server set alternates between the servers, so
+    // some replacement connections will be established to the second server.
+    // Those should be discarded without closing an existing connection, and
+    // the second server should eventually get down to its share of a single
+    // connection.
+    for (int i=0; (i < 20) &&
+         (pool.getCurrentAvailableConnectionsByServer().get(key2) > 1); i++)
+    {
+      final Map<String,Integer> before =
+           pool.getCurrentAvailableConnectionsByServer();
+      if (pool.rebalanceServerConnections())
+      {
+        final Map<String,Integer> after =
+             pool.getCurrentAvailableConnectionsByServer();
+        assertEquals(after.get(key1).intValue(), before.get(key1) + 1);
+        assertEquals(after.get(key2).intValue(), before.get(key2) - 1);
+      }
+      else
+      {
+        assertEquals(pool.getCurrentAvailableConnectionsByServer(), before);
+      }
+    }
+
+    final Map<String,Integer> rebalancedCounts =
+         pool.getCurrentAvailableConnectionsByServer();
+    assertEquals(rebalancedCounts.get(key1), Integer.valueOf(3));
+    assertEquals(rebalancedCounts.get(key2), Integer.valueOf(1));
+    assertFalse(pool.rebalanceServerConnections());
+    assertTrue(pool.getConnectionPoolStatistics().
+         getNumConnectionsClosedRebalanced() >= 1L);
+    assertTrue(pool.getConnectionPoolStatistics().
+         getNumConnectionsClosedRebalancedByServer().containsKey(key2));
+
+
+    // A server with a weight of zero should only be used when there are no
+    // other connections available.
+    pool.setServerWeight("localhost", ds2.getListenPort(), 0);
+    final LDAPConnection c1 = pool.getConnection();
+    final LDAPConnection c2 = pool.getConnection();
+    final LDAPConnection c3 = pool.getConnection();
+    final LDAPConnection c4 = pool.getConnection();
+    assertEquals(c1.getConnectedPort(), ds1.getListenPort());
+    assertEquals(c2.getConnectedPort(), ds1.getListenPort());
+    assertEquals(c3.getConnectedPort(), ds1.getListenPort());
+    assertEquals(c4.getConnectedPort(), ds2.getListenPort());
+    pool.releaseConnection(c1);
+    pool.releaseConnection(c2);
+    pool.releaseConnection(c3);
+    pool.releaseConnection(c4);
+
+    pool.clearServerWeights();
+    assertTrue(pool.getServerWeights().isEmpty());
+    assertFalse(pool.rebalanceServerConnections());
+
+    pool.close();
+    ds1.shutDown(true);
+    ds2.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the ability to adapt the size of a connection pool to the demand
+   * placed on it.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAdaptiveSizing()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds.startListening();
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new SingleServerSet("localhost", ds.getListenPort()), null, 1, 10);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertNull(pool.getAdaptiveSizingPolicy());
+    assertEquals(stats.getAdaptiveTargetPoolSize(), -1);
+    assertEquals(pool.evaluateAdaptiveSizing(), 0);
+
+    final LDAPConnectionPoolAdaptiveSizingPolicy policy =
+         new LDAPConnectionPoolAdaptiveSizingPolicy(2, 8);
+    policy.setEvaluationIntervalMillis(3_600_000L);
+    pool.setAdaptiveSizingPolicy(policy);
+    assertNotNull(pool.getAdaptiveSizingPolicy());
+    assertEquals(pool.getAdaptiveSizingPolicy().getMaxConnections(), 8);
+
+
+    // The first evaluation should grow the pool to the minimum size.
+    assertEquals(pool.evaluateAdaptiveSizing(), 1);
+    assertEquals(stats.getAdaptiveTargetPoolSize(), 2);
+    assertEquals(pool.getCurrentAvailableConnections(), 2);
+    assertEquals(stats.getNumConnectionsCreatedAdaptiveGrowth(), 1L);
+
+
+    // Check out more connections than are available, which will require new
+    // connections to be created on demand.  The pool should be grown so that
+    // the peak demand is at the target utilization.
+    final ArrayList<LDAPConnection> conns = new ArrayList<>(5);
+    for (int i=0; i < 5; i++)
+    {
+      conns.add(pool.getConnection());
+    }
+    assertEquals(pool.getNumCheckedOutConnections(), 5);
+    assertEquals(pool.getCurrentAvailableConnections(), 0);
+
+    assertEquals(pool.evaluateAdaptiveSizing(), 2);
+    assertEquals(stats.getAdaptiveTargetPoolSize(), 7);
+    assertEquals(pool.getCurrentAvailableConnections(), 2);
+    assertEquals(stats.getNumConnectionsCreatedAdaptiveGrowth(), 3L);
+
+
+    // Release the connections.
+    for (final LDAPConnection conn : conns)
+    {
+      pool.releaseConnection(conn);
+    }
+    assertEquals(pool.getNumCheckedOutConnections(), 0);
+    assertEquals(pool.getCurrentAvailableConnections(), 7);
+
+
+    // The next evaluation still reflects the connections that were checked
+    // out when it began, but after that the pool should gradually shrink back
+    // to the minimum size.
+    assertEquals(pool.evaluateAdaptiveSizing(), 0);
+    assertEquals(pool.evaluateAdaptiveSizing(), -2);
+    for (int i=0; (i < 10) && (pool.evaluateAdaptiveSizing() != 0); i++)
+    {
+      // No action is required.
+    }
+
+    assertEquals(stats.getAdaptiveTargetPoolSize(), 2);
+    assertEquals(pool.getCurrentAvailableConnections(), 2);
+    assertEquals(stats.getNumConnectionsClosedAdaptiveShrink(), 5L);
+    assertEquals(stats.getNumAdaptiveGrowthsSuppressed(), 0L);
+
+
+    // Use a short evaluation interval and make sure that the background
+    // thread evaluates the pool size, and that closing the pool stops it.
+    policy.setEvaluationIntervalMillis(10L);
+    pool.setAdaptiveSizingPolicy(policy);
+    assertEquals(stats.getAdaptiveTargetPoolSize(), -1);
+
+    final long stopWaitingTime = System.currentTimeMillis() + 10_000L;
+    while ((stats.getAdaptiveTargetPoolSize() < 0) &&
+         (System.currentTimeMillis() < stopWaitingTime))
+    {
+      Thread.sleep(10L);
+    }
+    assertEquals(stats.getAdaptiveTargetPoolSize(), 2);
+
+    pool.setAdaptiveSizingPolicy(null);
+    assertNull(pool.getAdaptiveSizingPolicy());
+    assertEquals(stats.getAdaptiveTargetPoolSize(), -1);
+
+    pool.setAdaptiveSizingPolicy(policy);
+    pool.close();
+    assertEquals(pool.growPool(1, 1), 0);
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests to ensure that adaptive sizing will not grow a connection pool when
+   * the server response times exceed the configured threshold.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAdaptiveSizingSuppressedByResponseTime()
+         throws Exception
+  {
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor()
+    {
+      @Override()
+      public void processSearchRequest(
+                       final InMemoryInterceptedSearchRequest request)
+      {
+        try
+        {
+          Thread.sleep(20L);
+        }
+        catch (final InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.startListening();
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new SingleServerSet("localhost", ds.getListenPort()), null, 1, 10);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+
+    final LDAPConnectionPoolAdaptiveSizingPolicy policy =
+         new LDAPConnectionPoolAdaptiveSizingPolicy(1, 10);
+    policy.setEvaluationIntervalMillis(3_600_000L);
+    policy.setResponseTimeThresholdMillis(5L);
+    pool.setAdaptiveSizingPolicy(policy);
+
+    final LDAPConnection conn1 = pool.getConnection();
+    conn1.search("", SearchScope.BASE, "(objectClass=*)");
+    final LDAPConnection conn2 = pool.getConnection();
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(pool.evaluateAdaptiveSizing(), 0);
+    assertEquals(stats.getAdaptiveTargetPoolSize(), 2);
+    assertEquals(stats.getNumAdaptiveGrowthsSuppressed(), 1L);
+    assertEquals(stats.getNumConnectionsCreatedAdaptiveGrowth(), 0L);
+
+    pool.releaseConnection(conn1);
+    pool.releaseConnection(conn2);
+    pool.close();
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the ability to examine available connections in parallel and to
+   * limit the rate at which they are examined during health check processing.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testParallelHealthCheck()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds.startListening();
+
+    final AtomicInteger numActive = new AtomicInteger(0);
+    final AtomicInteger maxActive = new AtomicInteger(0);
+    final Set<Thread> workerThreads = Collections.newSetFromMap(
+         new ConcurrentHashMap<Thread,Boolean>(10));
+    final LDAPConnectionPoolHealthCheck healthCheck =
+         new LDAPConnectionPoolHealthCheck()
+         {
+           @Override()
+           public void ensureConnectionValidForContinuedUse(
+                            final LDAPConnection connection)
+                  throws LDAPException
+           {
+             workerThreads.add(Thread.currentThread());
+             final int active = numActive.incrementAndGet();
+             while (true)
+             {
+               final int max = maxActive.get();
+               if ((active <= max) || maxActive.compareAndSet(max, active))
+               {
+                 break;
+               }
+             }
+
+             try
+             {
+               Thread.sleep(50L);
+             }
+             catch (final InterruptedException e)
+             {
+               Thread.currentThread().interrupt();
+             }
+             finally
+             {
+               numActive.decrementAndGet();
+             }
+           }
+         };
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new SingleServerSet("localhost", ds.getListenPort()), null, 8, 8);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+    pool.setHealthCheck(healthCheck);
+    assertEquals(pool.getHealthCheckParallelism(), 1);
+    assertEquals(pool.getMaxHealthChecksPerSecond(), 0);
+
+    pool.setHealthCheckParallelism(0);
+    assertEquals(pool.getHealthCheckParallelism(), 1);
+    pool.setMaxHealthChecksPerSecond(-1);
+    assertEquals(pool.getMaxHealthChecksPerSecond(), 0);
+
+
+    // With a parallelism of four, all connections should be examined, with
+    // more than one but no more than four examined at the same time.
+    pool.setHealthCheckParallelism(4);
+    assertEquals(pool.getHealthCheckParallelism(), 4);
+
+    LDAPConnectionPoolHealthCheckResult result =
+         pool.invokeHealthCheck(null, false);
+    assertEquals(result.getNumExamined(), 8);
+    assertEquals(result.getNumDefunct(), 0);
+    assertTrue(maxActive.get() > 1);
+    assertTrue(maxActive.get() <= 4);
+    assertEquals(pool.getCurrentAvailableConnections(), 8);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumHealthCheckPasses(), 1L);
+    assertTrue(stats.getLastHealthCheckDurationMillis() >= 50L);
+    assertTrue(stats.getLastHealthCheckDurationMillis() < 400L);
+    assertEquals(stats.getTotalHealthCheckDurationMillis(),
+         stats.getLastHealthCheckDurationMillis());
+    assertEquals(stats.getNumHealthCheckFailures(), 0L);
+    assertTrue(stats.getNumHealthCheckFailuresByServer().isEmpty());
+
+    // The connections should have been examined by daemon threads from an
+    // executor that the pool keeps for subsequent passes.
+    assertTrue(workerThreads.size() > 1);
+    for (final Thread t : workerThreads)
+    {
+      assertTrue(t.isDaemon());
+      assertTrue(t.getName().startsWith(
+           "LDAPConnectionPool Health Check Worker "), t.getName());
+    }
+
+    final ThreadPoolExecutor executor = pool.getHealthCheckExecutor(4);
+    assertNotNull(executor);
+    assertEquals(executor.getMaximumPoolSize(), 4);
+
+
+    // With a limit of ten checks per second, it should take close to a second
+    // to examine all of the connections.
+    pool.setMaxHealthChecksPerSecond(10);
+    assertEquals(pool.getMaxHealthChecksPerSecond(), 10);
+
+    maxActive.set(0);
+    result = pool.invokeHealthCheck(null, false);
+    assertEquals(result.getNumExamined(), 8);
+    assertTrue(maxActive.get() <= 4);
+    assertEquals(stats.getNumHealthCheckPasses(), 2L);
+    assertTrue(stats.getLastHealthCheckDurationMillis() >= 500L,
+         "Health check duration " + stats.getLastHealthCheckDurationMillis());
+
+    stats.reset();
+    assertEquals(stats.getNumHealthCheckPasses(), 0L);
+    assertEquals(stats.getLastHealthCheckDurationMillis(), 0L);
+    assertEquals(stats.getTotalHealthCheckDurationMillis(), 0L);
+
+    assertSame(pool.getHealthCheckExecutor(4), executor);
+    assertTrue(workerThreads.size() <= 4);
+
+    pool.close();
+    assertTrue(executor.isShutdown());
+    assertNull(pool.getHealthCheckExecutor(4));
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests to ensure that health check failures are reflected in the pool
+   * statistics and in the server set blacklist.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testHealthCheckFailureUpdatesBlacklist()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds1 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds1.startListening();
+    final InMemoryDirectoryServer ds2 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds2.startListening();
+
+    final int badPort = ds1.getListenPort();
+    final String badKey = "localhost:" + badPort;
+    final AtomicBoolean failBadServer = new AtomicBoolean(false);
+    final LDAPConnectionPoolHealthCheck healthCheck =
+         new LDAPConnectionPoolHealthCheck()
+         {
+           @Override()
+           public void ensureConnectionValidForContinuedUse(
+                            final LDAPConnection connection)
+                  throws LDAPException
+           {
+             if (failBadServer.get() &&
+                  (connection.getConnectedPort() == badPort))
+             {
+               throw new LDAPException(ResultCode.UNAVAILABLE);
+             }
+           }
+         };
+
+    final RoundRobinServerSet serverSet = new RoundRobinServerSet(
+         new String[] { "localhost", "localhost" },
+         new int[] { badPort, ds2.getListenPort() }, null, null, null, null,
+         3_600_000L);
+    final ServerSetBlacklistManager blacklistManager =
+         serverSet.getBlacklistManager();
+    assertNotNull(blacklistManager);
+    assertNull(new SingleServerSet("localhost", badPort).
+         getBlacklistManager());
+
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(serverSet, null, 4, 4);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+    pool.setHealthCheck(healthCheck);
+    pool.setHealthCheckParallelism(2);
+    assertEquals(pool.getCurrentAvailableConnectionsByServer().get(badKey),
+         Integer.valueOf(2));
+
+
+    // Connections to the bad server should fail the health check, and that
+    // server should be blacklisted so that all of the replacement connections
+    // are established to the other server.
+    failBadServer.set(true);
+    final LDAPConnectionPoolHealthCheckResult result =
+         pool.invokeHealthCheck(null, false);
+    assertEquals(result.getNumExamined(), 4);
+    assertEquals(result.getNumDefunct(), 2);
+    assertTrue(blacklistManager.isBlacklisted("localhost", badPort));
+    assertEquals(pool.getCurrentAvailableConnectionsByServer().get(
+         "localhost:" + ds2.getListenPort()), Integer.valueOf(4));
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumHealthCheckFailures(), 2L);
+    assertEquals(stats.getNumHealthCheckFailuresByServer().get(badKey),
+         Long.valueOf(2L));
+    assertNull(stats.getNumHealthCheckFailuresByServer().get(
+         "localhost:" + ds2.getListenPort()));
+
+
+    // If a connection to a blacklisted server passes the health check, then
+    // the server should be removed from the blacklist.
+    failBadServer.set(false);
+    pool.discardConnection(pool.getConnection());
+    pool.releaseConnection(new LDAPConnection("localhost", badPort));
+    assertEquals(pool.getCurrentAvailableConnectionsByServer().get(badKey),
+         Integer.valueOf(1));
+    pool.invokeHealthCheck(null, false);
+    assertFalse(blacklistManager.isBlacklisted("localhost", badPort));
+
+    pool.close();
+    ds1.shutDown(true);
+    ds2.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the ability to hedge search and compare requests across servers.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRequestHedging()
+         throws Exception
+  {
+    final SlowFirstRequestInterceptor interceptor =
+         new SlowFirstRequestInterceptor();
+    final InMemoryDirectoryServer ds1 = createHedgingServer(interceptor);
+    final InMemoryDirectoryServer ds2 = createHedgingServer(interceptor);
+
+    final RoundRobinServerSet serverSet = new RoundRobinServerSet(
+         new String[] { "localhost", "localhost" },
+         new int[] { ds1.getListenPort(), ds2.getListenPort() });
+    final LDAPConnectionPool pool =
+         new LDAPConnectionPool(serverSet, null, 2, 2);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+    assertNull(pool.getHedgingPolicy());
+
+    final LDAPConnectionPoolHedgingPolicy policy =
+         new LDAPConnectionPoolHedgingPolicy();
+    policy.setHedgeDelayBoundsMillis(50L, 50L);
+    pool.setHedgingPolicy(policy);
+    assertNotNull(pool.getHedgingPolicy());
+    assertEquals(pool.getHedgingPolicy().getMaxHedgeDelayMillis(), 50L);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+
+
+    // A slow search should be hedged to the other server, and the hedge
+    // should win.
+    interceptor.reset(10_000L);
+    final SearchResult searchResult =
+         pool.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(searchResult.getResultCode(), ResultCode.SUCCESS);
+    assertEquals(searchResult.getEntryCount(), 1);
+    assertEquals(searchResult.getSearchEntries().size(), 1);
+    assertEquals(stats.getNumHedgedRequests(), 1L);
+    assertEquals(stats.getNumHedgedRequestsWon(), 1L);
+    interceptor.release();
+
+
+    // The same should be true for a slow compare.
+    interceptor.reset(10_000L);
+    final CompareResult compareResult =
+         pool.compare("dc=example,dc=com", "dc", "example");
+    assertTrue(compareResult.compareMatched());
+    assertEquals(stats.getNumHedgedRequests(), 2L);
+    assertEquals(stats.getNumHedgedRequestsWon(), 2L);
+    interceptor.release();
+
+
+    // Requests that complete quickly should not be hedged, and unsuccessful
+    // results should still be reported in the usual way.
+    interceptor.reset(0L);
+    assertEquals(pool.search("dc=example,dc=com", SearchScope.BASE,
+         "(objectClass=*)").getEntryCount(), 1);
+    assertFalse(pool.compare("dc=example,dc=com", "dc", "other").
+         compareMatched());
+    try
+    {
+      pool.search("ou=missing,dc=example,dc=com", SearchScope.BASE,
+           "(objectClass=*)");
+      fail("Expected an exception when searching for a missing entry");
+    }
+    catch (final LDAPSearchException lse)
+    {
+      assertEquals(lse.getResultCode(), ResultCode.NO_SUCH_OBJECT);
+    }
+    assertEquals(stats.getNumHedgedRequests(), 2L);
+
+
+    // With no budget earned per request and a burst of one, only the first
+    // slow request should be hedged.
+    policy.setMaxHedgeRatio(0.0d);
+    policy.setMaxHedgeBurst(1);
+    pool.setHedgingPolicy(policy);
+
+    interceptor.reset(10_000L);
+    pool.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(stats.getNumHedgedRequests(), 3L);
+    interceptor.release();
+
+    interceptor.reset(200L);
+    pool.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(stats.getNumHedgedRequests(), 3L);
+    assertEquals(stats.getNumHedgesSuppressedByBudget(), 1L);
+    interceptor.release();
+
+
+    // Disabling hedging should cause slow requests to be processed normally.
+    pool.setHedgingPolicy(null);
+    assertNull(pool.getHedgingPolicy());
+
+    interceptor.reset(200L);
+    pool.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(stats.getNumHedgedRequests(), 3L);
+    interceptor.release();
+
+    pool.close();
+    ds1.shutDown(true);
+    ds2.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests to ensure that a request will not be hedged when there are no
+   * connections to another server available.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRequestHedgingWithoutOtherServer()
+         throws Exception
+  {
+    final SlowFirstRequestInterceptor interceptor =
+         new SlowFirstRequestInterceptor();
+    final InMemoryDirectoryServer ds = createHedgingServer(interceptor);
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new SingleServerSet("localhost", ds.getListenPort()), null, 2, 2);
+    pool.setHealthCheckIntervalMillis(3_600_000L);
+
+    final LDAPConnectionPoolHedgingPolicy policy =
+         new LDAPConnectionPoolHedgingPolicy();
+    policy.setHedgeDelayBoundsMillis(20L, 20L);
+    pool.setHedgingPolicy(policy);
+
+    interceptor.reset(200L);
+    final SearchResult searchResult =
+         pool.search("dc=example,dc=com", SearchScope.BASE, "(objectClass=*)");
+    assertEquals(searchResult.getEntryCount(), 1);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumHedgedRequests(), 0L);
+    assertEquals(stats.getNumHedgesSuppressedNoServer(), 1L);
+    interceptor.release();
+
+    pool.close();
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Creates and starts an in-memory directory server with a base entry and the
+   * provided interceptor for use in request hedging tests.
+   *
+   * @param  interceptor  The interceptor to use for the server.
+   *
+   * @return  The in-memory directory server that was created.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static InMemoryDirectoryServer createHedgingServer(
+                      final SlowFirstRequestInterceptor interceptor)
+          throws Exception
+  {
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.addInMemoryOperationInterceptor(interceptor);
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(cfg);
+    ds.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+    ds.startListening();
+    return ds;
+  }
+
+
+
+  /**
+   * An in-memory operation interceptor that delays the first search or
+   * compare request that it receives after being reset.
+   */
+  private static final class SlowFirstRequestInterceptor
+          extends InMemoryOperationInterceptor
+  {
+    /**
+     * The serial version UID for this serializable class.
+     */
+    private static final long serialVersionUID = 2918675413254016832L;
+
+
+
+    // The number of requests received since the interceptor was reset.
+    private final AtomicInteger numRequests;
+
+    // The maximum length of time in milliseconds to delay the first request.
+    private final AtomicLong delayMillis;
+
+    // The latch that may be used to release the delayed request early.
+    private final AtomicReference<CountDownLatch> latch;
+
+
+
+    /**
+     * Creates a new instance of this interceptor.
+     */
+    private SlowFirstRequestInterceptor()
+    {
+      numRequests = new AtomicInteger(0);
+      delayMillis = new AtomicLong(0L);
+      latch = new AtomicReference<>(new CountDownLatch(1));
+    }
+
+
+
+    /**
+     * Resets this interceptor so that the next request will be delayed.
+     *
+     * @param  delayMillis  The maximum length of time in milliseconds to delay
+     *                      the next request.
+     */
+    private void reset(final long delayMillis)
+    {
+      latch.set(new CountDownLatch(1));
+      this.delayMillis.set(delayMillis);
+      numRequests.set(0);
+    }
+
+
+
+    /**
+     * Releases the delayed request, if it is still waiting.
+     */
+    private void release()
+    {
+      latch.get().countDown();
+    }
+
+
+
+    /**
+     * Delays the current request if it is the first since the last reset.
+     */
+    private void delayIfFirst()
+    {
+      if (numRequests.getAndIncrement() != 0)
+      {
+        return;
+      }
+
+      try
+      {
+        latch.get().await(delayMillis.get(), TimeUnit.MILLISECONDS);
+      }
+      catch (final InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void processSearchRequest(
+                     final InMemoryInterceptedSearchRequest request)
+    {
+      delayIfFirst();
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override()
+    public void processCompareRequest(
+                     final InMemoryInterceptedCompareRequest request)
+    {
+      delayIfFirst();
+    }
+  }
 }
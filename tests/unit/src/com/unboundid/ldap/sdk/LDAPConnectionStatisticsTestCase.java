@@ -41,6 +41,8 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.unboundid.util.LatencyHistogramSnapshot;
+
 
 
 /**
@@ -845,4 +847,91 @@ public class LDAPConnectionStatisticsTestCase
 
     conn.close();
   }
+
+
+
+  /**
+   * Tests the behavior of the response time histograms for a standalone
+   * statistics object and their aggregation into connection pool statistics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testResponseTimeHistograms()
+         throws Exception
+  {
+    final LDAPConnectionStatistics stats = new LDAPConnectionStatistics();
+    final LDAPConnectionPoolStatistics poolStats =
+         new LDAPConnectionPoolStatistics(null);
+    stats.setConnectionPoolStatistics(poolStats);
+
+    for (final OperationType t : OperationType.values())
+    {
+      assertEquals(stats.getResponseTimeHistogram(t).getCount(), 0L);
+      assertEquals(poolStats.getResponseTimeHistogram(t).getCount(), 0L);
+    }
+
+    stats.incrementNumAddResponses(1_000_000L);
+    stats.incrementNumBindResponses(2_000_000L);
+    stats.incrementNumCompareResponses(3_000_000L);
+    stats.incrementNumDeleteResponses(4_000_000L);
+    stats.incrementNumExtendedResponses(5_000_000L);
+    stats.incrementNumModifyResponses(6_000_000L);
+    stats.incrementNumModifyDNResponses(7_000_000L);
+    stats.incrementNumSearchResponses(1, 0, 8_000_000L);
+    stats.incrementNumSearchResponses(1, 0, 10_000_000L);
+
+    assertEquals(stats.getResponseTimeHistogram(OperationType.ABANDON).
+         getCount(), 0L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.ADD).
+         getMaximumNanos(), 1_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.BIND).
+         getMaximumNanos(), 2_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.COMPARE).
+         getMaximumNanos(), 3_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.DELETE).
+         getMaximumNanos(), 4_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.EXTENDED).
+         getMaximumNanos(), 5_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.MODIFY).
+         getMaximumNanos(), 6_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.MODIFY_DN).
+         getMaximumNanos(), 7_000_000L);
+
+    final LatencyHistogramSnapshot searchSnapshot =
+         stats.getResponseTimeHistogram(OperationType.SEARCH);
+    assertEquals(searchSnapshot.getCount(), 2L);
+    assertEquals(searchSnapshot.getTotalNanos(), 18_000_000L);
+    assertEquals(searchSnapshot.get99thPercentileNanos(), 10_000_000L);
+
+    assertEquals(poolStats.getResponseTimeHistogram(OperationType.SEARCH).
+         getCount(), 2L);
+    assertEquals(poolStats.getResponseTimeHistogram(OperationType.ADD).
+         getCount(), 1L);
+
+    assertEquals(stats.getAndResetResponseTimeHistogram(OperationType.SEARCH).
+         getCount(), 2L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.SEARCH).
+         getCount(), 0L);
+    assertEquals(poolStats.getAndResetResponseTimeHistogram(
+         OperationType.SEARCH).getCount(), 2L);
+    assertEquals(poolStats.getResponseTimeHistogram(OperationType.SEARCH).
+         getCount(), 0L);
+
+    stats.reset();
+    poolStats.reset();
+    assertEquals(stats.getResponseTimeHistogram(OperationType.ADD).getCount(),
+         0L);
+    assertEquals(poolStats.getResponseTimeHistogram(OperationType.ADD).
+         getCount(), 0L);
+
+    // Once the statistics are no longer associated with a pool, response
+    // times should not be recorded in the pool statistics.
+    stats.setConnectionPoolStatistics(null);
+    stats.incrementNumAddResponses(1_000_000L);
+    assertEquals(stats.getResponseTimeHistogram(OperationType.ADD).getCount(),
+         1L);
+    assertEquals(poolStats.getResponseTimeHistogram(OperationType.ADD).
+         getCount(), 0L);
+  }
 }
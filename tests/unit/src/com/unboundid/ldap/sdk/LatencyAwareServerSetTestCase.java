@@ -0,0 +1,412 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.
+            InMemoryInterceptedSearchRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import com.unboundid.util.LDAPSDKUsageException;
+
+
+
+/**
+ * This class provides a set of test cases for the latency-aware server set.
+ */
+public final class LatencyAwareServerSetTestCase
+       extends LDAPSDKTestCase
+{
+  // The fast directory server instance that will be used for testing.
+  private InMemoryDirectoryServer ds1 = null;
+
+  // The slow directory server instance that will be used for testing.
+  private InMemoryDirectoryServer ds2 = null;
+
+  // The ports of the directory server instances.
+  private final int[] ports = new int[2];
+
+  // The addresses of the directory server instances.
+  private final String[] addresses = new String[2];
+
+
+
+  /**
+   * Prepares a couple of directory server instances to use in the testing.
+   * Searches processed by the second instance will be delayed.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @BeforeClass()
+  public void setUp()
+       throws Exception
+  {
+    ds1 = new InMemoryDirectoryServer("dc=example,dc=com");
+    ds1.startListening();
+
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor()
+    {
+      @Override()
+      public void processSearchRequest(
+                       final InMemoryInterceptedSearchRequest request)
+      {
+        try
+        {
+          Thread.sleep(20L);
+        }
+        catch (final InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    ds2 = new InMemoryDirectoryServer(cfg);
+    ds2.startListening();
+
+    addresses[0] = "localhost";
+    addresses[1] = "localhost";
+
+    ports[0] = ds1.getListenPort();
+    ports[1] = ds2.getListenPort();
+  }
+
+
+
+  /**
+   * Cleans up after testing has completed.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @AfterClass()
+  public void cleanUp()
+       throws Exception
+  {
+    ds1.shutDown(true);
+    ds2.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the basic properties of a latency-aware server set.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @Test()
+  public void testProperties()
+       throws Exception
+  {
+    final LatencyAwareServerSet set =
+         new LatencyAwareServerSet(addresses, ports);
+    assertNotNull(set.getBlacklistManager());
+
+    assertTrue(Arrays.equals(set.getAddresses(), addresses));
+    assertTrue(Arrays.equals(set.getPorts(), ports));
+    assertNotNull(set.getSocketFactory());
+    assertNotNull(set.getConnectionOptions());
+    assertFalse(set.includesAuthentication());
+    assertFalse(set.includesPostConnectProcessing());
+    assertEquals(set.getDecayWindowMillis(),
+         LatencyAwareServerSet.DEFAULT_DECAY_WINDOW_MILLIS);
+
+    assertEquals(set.getAverageResponseTimeMillis("localhost", ports[0]),
+         0.0d);
+    assertEquals(set.getNumOutstandingOperations("localhost", ports[0]), 0L);
+    assertEquals(set.getAverageResponseTimeMillis("localhost", 1), -1.0d);
+    assertEquals(set.getNumOutstandingOperations("localhost", 1), -1L);
+
+    assertNotNull(set.toString());
+
+    final LDAPConnection conn = set.getConnection();
+    assertNotNull(conn.getRootDSE());
+    conn.close();
+  }
+
+
+
+  /**
+   * Tests the behavior when an invalid decay window is provided.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidDecayWindow()
+         throws Exception
+  {
+    new LatencyAwareServerSet(addresses, ports, null, null, null, null,
+         0L, 0L);
+  }
+
+
+
+  /**
+   * Tests that response times are tracked for each server, and that new
+   * connections are created to the faster server once response times are
+   * known.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @Test()
+  public void testPrefersFasterServer()
+         throws Exception
+  {
+    final LatencyAwareServerSet set = new LatencyAwareServerSet(addresses,
+         ports, null, null, null, null, 3_600_000L, 60_000L);
+
+    final LDAPConnection conn1 = getConnection(set, 1);
+    final LDAPConnection conn2 = getConnection(set, 2);
+    for (int i=0; i < 20; i++)
+    {
+      assertNotNull(conn1.getEntry(""));
+      assertNotNull(conn2.getEntry(""));
+    }
+
+    final double ds1Average =
+         set.getAverageResponseTimeMillis("localhost", ports[0]);
+    final double ds2Average =
+         set.getAverageResponseTimeMillis("localhost", ports[1]);
+    assertTrue(ds1Average > 0.0d);
+    assertTrue(ds2Average >= 15.0d);
+    assertTrue(ds2Average > ds1Average);
+    assertEquals(set.getNumOutstandingOperations("localhost", ports[0]), 0L);
+    assertEquals(set.getNumOutstandingOperations("localhost", ports[1]), 0L);
+
+    for (int i=0; i < 10; i++)
+    {
+      final LDAPConnection conn = set.getConnection();
+      assertEquals(getServerNumber(conn), 1);
+      conn.close();
+    }
+
+    conn1.close();
+    conn2.close();
+  }
+
+
+
+  /**
+   * Tests the behavior of a connection pool that uses latency-aware checkout.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @Test()
+  public void testLatencyAwarePoolCheckout()
+         throws Exception
+  {
+    final LatencyAwareServerSet set = new LatencyAwareServerSet(addresses,
+         ports, null, null, null, null, 3_600_000L, 60_000L);
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(set, null, 0, 2);
+    assertTrue(pool.getLatencyAwareCheckout());
+
+    // Create one pooled connection to each server.
+    final ServerSetBlacklistManager blacklist = set.getBlacklistManager();
+    blacklist.addToBlacklist("localhost", ports[1], null);
+    final LDAPConnection conn1 = pool.getConnection();
+    blacklist.clear();
+    blacklist.addToBlacklist("localhost", ports[0], null);
+    final LDAPConnection conn2 = pool.getConnection();
+    blacklist.clear();
+    assertEquals(getServerNumber(conn1), 1);
+    assertEquals(getServerNumber(conn2), 2);
+
+    for (int i=0; i < 20; i++)
+    {
+      assertNotNull(conn1.getEntry(""));
+      assertNotNull(conn2.getEntry(""));
+    }
+
+    pool.releaseConnection(conn1);
+    pool.releaseConnection(conn2);
+    assertEquals(pool.getCurrentAvailableConnections(), 2);
+
+
+    // With latency-aware checkout, the connection to the faster server should
+    // always be selected when both are available.
+    for (int i=0; i < 10; i++)
+    {
+      final LDAPConnection conn = pool.getConnection();
+      assertEquals(getServerNumber(conn), 1);
+      pool.releaseConnection(conn);
+    }
+
+    assertEquals(pool.getCurrentAvailableConnections(), 2);
+
+
+    // Without it, connections should be used in turn.
+    pool.setLatencyAwareCheckout(false);
+    assertFalse(pool.getLatencyAwareCheckout());
+
+    final List<Integer> serverNumbers = new ArrayList<>(4);
+    for (int i=0; i < 4; i++)
+    {
+      final LDAPConnection conn = pool.getConnection();
+      serverNumbers.add(getServerNumber(conn));
+      pool.releaseConnection(conn);
+    }
+
+    assertTrue(serverNumbers.contains(1));
+    assertTrue(serverNumbers.contains(2));
+
+    pool.close();
+  }
+
+
+
+  /**
+   * Tests the ordering of candidate servers.
+   *
+   * @throws Exception If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOrderCandidates()
+         throws Exception
+  {
+    final ServerLatencyTracker fast =
+         new ServerLatencyTracker("fast", 389, 60_000L);
+    fast.operationStarted();
+    fast.operationCompleted(1_000_000L);
+
+    final ServerLatencyTracker medium =
+         new ServerLatencyTracker("medium", 389, 60_000L);
+    medium.operationStarted();
+    medium.operationCompleted(10_000_000L);
+
+    final ServerLatencyTracker slow =
+         new ServerLatencyTracker("slow", 389, 60_000L);
+    slow.operationStarted();
+    slow.operationCompleted(100_000_000L);
+    slow.operationStarted();
+
+    assertEquals(fast.getNumOutstandingOperations(), 0L);
+    assertEquals(fast.getNumCompletedOperations(), 1L);
+    assertEquals(slow.getNumOutstandingOperations(), 1L);
+    assertTrue(slow.getScore() > medium.getScore());
+    assertTrue(medium.getScore() > fast.getScore());
+
+    for (int i=0; i < 20; i++)
+    {
+      final List<ServerLatencyTracker> candidates =
+           new ArrayList<>(Arrays.asList(slow, medium, fast));
+      LatencyAwareServerSet.orderCandidates(candidates);
+
+      // The slowest server can never win a comparison, so it must be last.
+      assertEquals(candidates.size(), 3);
+      assertFalse(candidates.get(0) == slow);
+      assertTrue(candidates.get(2) == slow);
+    }
+
+    slow.operationsAbandoned(5L);
+    assertEquals(slow.getNumOutstandingOperations(), 0L);
+  }
+
+
+
+  /**
+   * Retrieves a connection from the provided server set that is established
+   * to the specified server.
+   *
+   * @param  set           The server set to use.
+   * @param  serverNumber  The number of the server to which the connection
+   *                       should be established.
+   *
+   * @return  The connection that was established.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private LDAPConnection getConnection(final LatencyAwareServerSet set,
+                                       final int serverNumber)
+          throws Exception
+  {
+    final int otherPort = ports[2 - serverNumber];
+    set.getBlacklistManager().addToBlacklist("localhost", otherPort, null);
+    try
+    {
+      final LDAPConnection conn = set.getConnection();
+      assertEquals(getServerNumber(conn), serverNumber);
+      return conn;
+    }
+    finally
+    {
+      set.getBlacklistManager().clear();
+    }
+  }
+
+
+
+  /**
+   * Determines the server to which the connection is established.
+   *
+   * @param  conn  The connection for which to make the determination.
+   *
+   * @return  1 to indicate that the connection is established to ds1, or 2 to
+   *          indicate that the connection is established to ds2.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private int getServerNumber(final LDAPConnection conn)
+          throws Exception
+  {
+    final int port = conn.getConnectedPort();
+    if (port == ds1.getListenPort())
+    {
+      return 1;
+    }
+    else if (port == ds2.getListenPort())
+    {
+      return 2;
+    }
+    else
+    {
+      throw new AssertionError("Connected port of '" + port +
+           "' does not match either ds1 port of " + ds1.getListenPort() +
+           "' or ds2 port of '" + ds2.getListenPort() + "'.");
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code ServerPartitionedConnectionQueue} class.
+ */
+public final class ServerPartitionedConnectionQueueTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the basic queue behavior, including FIFO ordering across servers,
+   * capacity limits, and weighted polling.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testQueueBehavior()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds1 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds1.startListening();
+    final InMemoryDirectoryServer ds2 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds2.startListening();
+
+    final LDAPConnection a1 = ds1.getConnection();
+    final LDAPConnection a2 = ds1.getConnection();
+    final LDAPConnection b1 = ds2.getConnection();
+    final LDAPConnection b2 = ds2.getConnection();
+
+    final String keyA = ServerPartitionedConnectionQueue.getServerKey(a1);
+    final String keyB = ServerPartitionedConnectionQueue.getServerKey(b1);
+    assertEquals(keyA, ServerPartitionedConnectionQueue.getServerKey(
+         a1.getConnectedAddress(), a1.getConnectedPort()));
+    assertFalse(keyA.equals(keyB));
+
+    final ServerPartitionedConnectionQueue queue =
+         new ServerPartitionedConnectionQueue(3);
+    assertEquals(queue.size(), 0);
+    assertEquals(queue.remainingCapacity(), 3);
+    assertNull(queue.poll());
+    assertNull(queue.pollWeighted());
+    assertNull(queue.poll(10L, TimeUnit.MILLISECONDS));
+
+    assertEquals(queue.addAll(Arrays.asList(a1, b1, a2, b2)), 3);
+    assertEquals(queue.size(), 3);
+    assertEquals(queue.remainingCapacity(), 0);
+    assertFalse(queue.offer(b2));
+    assertEquals(queue.getSizeByServer().get(keyA), Integer.valueOf(2));
+    assertEquals(queue.getSizeByServer().get(keyB), Integer.valueOf(1));
+
+    final List<LDAPConnection> iterated = new ArrayList<>(3);
+    final Iterator<LDAPConnection> iterator = queue.iterator();
+    while (iterator.hasNext())
+    {
+      iterated.add(iterator.next());
+    }
+    assertEquals(iterated.size(), 3);
+
+    // Without weights, connections should come out in the order they went in.
+    assertSame(queue.pollWeighted(), a1);
+    assertSame(queue.poll(), b1);
+    assertSame(queue.poll(10L, TimeUnit.MILLISECONDS), a2);
+    assertNull(queue.poll());
+
+    // With weights, the weighted server should be preferred.
+    queue.setWeight(keyB, 2);
+    assertEquals(queue.getConfiguredWeights().get(keyB), Integer.valueOf(2));
+    assertEquals(queue.getEffectiveWeights().get(keyA), Integer.valueOf(1));
+    assertTrue(queue.offer(a1));
+    assertTrue(queue.offer(a2));
+    assertTrue(queue.offer(b1));
+    assertSame(queue.pollWeighted(), b1);
+    assertSame(queue.pollWeighted(), a1);
+    assertSame(queue.pollFromServer(keyA), a2);
+    assertNull(queue.pollFromServer(keyA));
+    assertNull(queue.pollFromServer("unknown:389"));
+
+    // A weight of zero should only be used if nothing else is available.
+    queue.setWeight(keyB, 0);
+    assertTrue(queue.offer(b1));
+    assertTrue(queue.offer(a1));
+    assertSame(queue.pollWeighted(), a1);
+    assertSame(queue.pollWeighted(), b1);
+
+    queue.setWeight(keyB, -1);
+    assertTrue(queue.getConfiguredWeights().isEmpty());
+    assertEquals(queue.getEffectiveWeights().get(keyB), Integer.valueOf(1));
+
+    queue.setWeight(keyA, 5);
+    queue.clearWeights();
+    assertTrue(queue.getConfiguredWeights().isEmpty());
+
+    assertTrue(queue.offer(a1));
+    assertTrue(queue.offer(b1));
+    final List<LDAPConnection> drained = new ArrayList<>(2);
+    assertEquals(queue.drainTo(drained), 2);
+    assertEquals(drained, Arrays.asList(a1, b1));
+    assertEquals(queue.size(), 0);
+
+    a1.close();
+    a2.close();
+    b1.close();
+    b2.close();
+    ds1.shutDown(true);
+    ds2.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests that connections taken directly from a sub-pool do not affect the
+   * order in which the remaining connections are returned, and that empty
+   * sub-pools can be removed.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testOrderingAndSubPoolRemoval()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds1 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds1.startListening();
+    final InMemoryDirectoryServer ds2 =
+         new InMemoryDirectoryServer("dc=example,dc=com");
+    ds2.startListening();
+
+    final LDAPConnection a = ds1.getConnection();
+    final LDAPConnection b = ds2.getConnection();
+    final String keyA = ServerPartitionedConnectionQueue.getServerKey(a);
+    final String keyB = ServerPartitionedConnectionQueue.getServerKey(b);
+
+    final ServerPartitionedConnectionQueue queue =
+         new ServerPartitionedConnectionQueue(2);
+
+    // Repeatedly take connections from a specific server so that the list of
+    // connections in the order they were added will need to be compacted, and
+    // make sure that the oldest connection is still the one returned.
+    for (int i=0; i < 100; i++)
+    {
+      assertTrue(queue.offer(a));
+      assertTrue(queue.offer(b));
+      if ((i % 2) == 0)
+      {
+        assertSame(queue.pollFromServer(keyA), a);
+        assertSame(queue.poll(), b);
+      }
+      else
+      {
+        assertSame(queue.pollFromOtherServer(keyA), b);
+        assertSame(queue.poll(), a);
+      }
+
+      assertNull(queue.poll());
+      assertEquals(queue.size(), 0);
+    }
+
+    assertTrue(queue.offer(b));
+    assertTrue(queue.offer(a));
+    assertSame(queue.pollFromServer(keyB), b);
+    assertTrue(queue.offer(b));
+    assertSame(queue.poll(), a);
+    assertSame(queue.poll(), b);
+
+    // Sub-pools that are empty and that do not have a configured weight should
+    // be removed.
+    queue.setWeight(keyB, 2);
+    assertTrue(queue.offer(a));
+    assertEquals(new TreeSet<String>(queue.getSizeByServer().keySet()),
+         new TreeSet<String>(Arrays.asList(keyA, keyB)));
+    assertEquals(queue.removeEmptySubPools(), 0);
+
+    assertSame(queue.poll(), a);
+    assertEquals(queue.removeEmptySubPools(), 1);
+    assertEquals(queue.getSizeByServer().keySet(),
+         Collections.singleton(keyB));
+
+    queue.setWeight(keyB, -1);
+    assertEquals(queue.getSizeByServer().keySet(),
+         Collections.singleton(keyB));
+    assertEquals(queue.removeEmptySubPools(), 1);
+    assertTrue(queue.getSizeByServer().isEmpty());
+
+    assertTrue(queue.offer(a));
+    assertEquals(queue.getSizeByServer().get(keyA), Integer.valueOf(1));
+    assertSame(queue.poll(), a);
+
+    a.close();
+    b.close();
+    ds1.shutDown(true);
+    ds2.shutDown(true);
+  }
+}
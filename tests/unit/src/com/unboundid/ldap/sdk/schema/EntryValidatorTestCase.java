@@ -37,7 +37,10 @@ package com.unboundid.ldap.sdk.schema;
 
 
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -1787,6 +1790,123 @@ public class EntryValidatorTestCase
 
 
 
+  /**
+   * Tests that validating entries repeatedly and from multiple threads with a
+   * single validator, which reuses the validation plans compiled for each set
+   * of object classes, yields the same results as validating each entry once
+   * with a new validator.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRepeatedAndConcurrentValidation()
+         throws Exception
+  {
+    final Entry[] entries =
+    {
+      new Entry(
+           "dn: a1=foo",
+           "objectClass: top",
+           "objectClass: o1",
+           "a1: foo",
+           "a5: foo"),
+      new Entry(
+           "dn: a1=foo",
+           "objectClass: top",
+           "objectClass: o1",
+           "objectClass: o5",
+           "objectClass: undefined",
+           "a1: foo",
+           "a3: bar",
+           "a5: baz",
+           "a6: abc",
+           "a9: 20"),
+      new Entry(
+           "dn: a2=foo",
+           "objectClass: top",
+           "objectClass: o1",
+           "objectClass: o2",
+           "objectClass: o3",
+           "a2: bar",
+           "a7: abc"),
+      new Entry(
+           "dn: a1=foo",
+           "a1: foo"),
+      new Entry(
+           "dn: a1=foo",
+           "objectClass: o4",
+           "a1: foo")
+    };
+
+    final List<List<String>> expectedReasons = new ArrayList<>(entries.length);
+    final boolean[] expectedValid = new boolean[entries.length];
+    long expectedInvalid = 0L;
+    long expectedProhibitedOCs = 0L;
+    long expectedSyntaxViolations = 0L;
+    for (int i=0; i < entries.length; i++)
+    {
+      final EntryValidator v = new EntryValidator(testSchema);
+      final List<String> reasons = new ArrayList<>(10);
+      expectedValid[i] = v.entryIsValid(entries[i], reasons);
+      expectedReasons.add(reasons);
+      expectedInvalid += v.getInvalidEntries();
+      expectedProhibitedOCs += v.getTotalProhibitedObjectClasses();
+      expectedSyntaxViolations += v.getTotalAttributesViolatingSyntax();
+    }
+
+    assertTrue(expectedValid[0]);
+    assertFalse(expectedValid[1]);
+    assertFalse(expectedReasons.get(1).isEmpty());
+
+    final EntryValidator validator = new EntryValidator(testSchema);
+    final int numThreads = 4;
+    final int numIterations = 50;
+    final AtomicReference<String> failure = new AtomicReference<>();
+    final Thread[] threads = new Thread[numThreads];
+    for (int t=0; t < numThreads; t++)
+    {
+      threads[t] = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          for (int i=0; i < numIterations; i++)
+          {
+            for (int j=0; j < entries.length; j++)
+            {
+              final List<String> reasons = new ArrayList<>(10);
+              final boolean valid = validator.entryIsValid(entries[j], reasons);
+              if ((valid != expectedValid[j]) ||
+                   (! reasons.equals(expectedReasons.get(j))))
+              {
+                failure.compareAndSet(null,
+                     "Unexpected result for entry " + j + ":  " + reasons);
+              }
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+
+    for (final Thread t : threads)
+    {
+      t.join();
+    }
+
+    assertNull(failure.get(), failure.get());
+
+    final long multiplier = numThreads * numIterations;
+    assertEquals(validator.getEntriesExamined(), multiplier * entries.length);
+    assertEquals(validator.getInvalidEntries(), multiplier * expectedInvalid);
+    assertEquals(validator.getTotalProhibitedObjectClasses(),
+         multiplier * expectedProhibitedOCs);
+    assertEquals(validator.getTotalAttributesViolatingSyntax(),
+         multiplier * expectedSyntaxViolations);
+  }
+
+
+
   /**
    * Creates a single string from the provided list of strings.
    *
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.schema;
+
+
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code SchemaCache} class.
+ */
+public final class SchemaCacheTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior of the schema cache with a server whose subschema
+   * subentry has a modifyTimestamp value that changes when the schema is
+   * modified.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCacheWithModifiedSchema()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(
+         new InMemoryDirectoryServerConfig("dc=example,dc=com"));
+    ds.startListening();
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      // Modify the schema so that the subschema subentry gets a
+      // modifyTimestamp value.
+      addAttributeType(conn, "( 1.2.3.4 NAME 'cacheTestAttr1' )");
+
+      final SchemaCache cache = new SchemaCache(10);
+      assertEquals(cache.getMaxSize(), 10);
+      assertEquals(cache.size(), 0);
+
+      final Schema schema1 = cache.getSchema(conn, null);
+      assertNotNull(schema1);
+      assertNotNull(schema1.getAttributeType("cacheTestAttr1"));
+      assertNull(schema1.getSchemaEntry().getAttribute("modifyTimestamp"));
+      assertEquals(cache.size(), 1);
+      assertEquals(cache.getNumHits(), 0L);
+      assertEquals(cache.getNumMisses(), 1L);
+
+      assertSame(cache.getSchema(conn, ""), schema1);
+      assertEquals(cache.getNumHits(), 1L);
+      assertEquals(cache.getNumMisses(), 1L);
+
+      // Make sure that the modifyTimestamp value changes.
+      Thread.sleep(10L);
+      addAttributeType(conn, "( 1.2.3.5 NAME 'cacheTestAttr2' )");
+
+      final Schema schema2 = cache.getSchema(conn, null);
+      assertNotNull(schema2);
+      assertNotSame(schema2, schema1);
+      assertNotNull(schema2.getAttributeType("cacheTestAttr2"));
+      assertEquals(cache.size(), 1);
+      assertEquals(cache.getNumMisses(), 2L);
+
+      assertNotNull(cache.toString());
+
+      cache.clear();
+      assertEquals(cache.size(), 0);
+    }
+    finally
+    {
+      conn.close();
+      ds.shutDown(true);
+    }
+  }
+
+
+
+  /**
+   * Tests the behavior of the schema cache with a server whose subschema
+   * subentry does not have a modifyTimestamp value.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCacheWithoutModifyTimestamp()
+         throws Exception
+  {
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(
+         new InMemoryDirectoryServerConfig("dc=example,dc=com"));
+    ds.startListening();
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      final SchemaCache cache = new SchemaCache(10);
+
+      final Schema schema1 = cache.getSchema(conn, null);
+      assertNotNull(schema1);
+      assertEquals(cache.size(), 0);
+
+      final Schema schema2 = cache.getSchema(conn, null);
+      assertNotNull(schema2);
+      assertNotSame(schema2, schema1);
+      assertEquals(schema2, schema1);
+      assertEquals(cache.getNumHits(), 0L);
+      assertEquals(cache.getNumMisses(), 2L);
+    }
+    finally
+    {
+      conn.close();
+      ds.shutDown(true);
+    }
+  }
+
+
+
+  /**
+   * Tests the use of a global schema cache when retrieving the schema through
+   * a connection.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testGlobalCache()
+         throws Exception
+  {
+    final SchemaCache originalCache = SchemaCache.getGlobalCache();
+
+    final InMemoryDirectoryServer ds = new InMemoryDirectoryServer(
+         new InMemoryDirectoryServerConfig("dc=example,dc=com"));
+    ds.startListening();
+
+    final LDAPConnection conn = ds.getConnection();
+    try
+    {
+      addAttributeType(conn, "( 1.2.3.4 NAME 'cacheTestAttr1' )");
+
+      final SchemaCache cache = new SchemaCache(1);
+      SchemaCache.setGlobalCache(cache);
+      assertSame(SchemaCache.getGlobalCache(), cache);
+
+      final Schema schema = conn.getSchema();
+      assertNotNull(schema);
+      assertSame(conn.getSchema(), schema);
+      assertSame(Schema.getSchemaUsingGlobalCache(conn, ""), schema);
+      assertEquals(cache.getNumHits(), 2L);
+      assertEquals(cache.getNumMisses(), 1L);
+
+      SchemaCache.setGlobalCache(null);
+      assertNull(SchemaCache.getGlobalCache());
+      assertNotSame(conn.getSchema(), schema);
+    }
+    finally
+    {
+      SchemaCache.setGlobalCache(originalCache);
+      conn.close();
+      ds.shutDown(true);
+    }
+  }
+
+
+
+  /**
+   * Adds the provided attribute type definition to the server schema.
+   *
+   * @param  conn        The connection to use to update the schema.
+   * @param  definition  The attribute type definition to add.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static void addAttributeType(final LDAPConnection conn,
+                                       final String definition)
+          throws Exception
+  {
+    conn.modify("cn=schema",
+         new Modification(ModificationType.ADD, "attributeTypes", definition));
+  }
+}
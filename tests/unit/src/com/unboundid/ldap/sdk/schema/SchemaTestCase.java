@@ -38,12 +38,14 @@ package com.unboundid.ldap.sdk.schema;
 
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.testng.annotations.Test;
 
@@ -52,6 +54,9 @@ import com.unboundid.ldap.sdk.Entry;
 import com.unboundid.ldap.sdk.LDAPConnection;
 import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.asn1.ASN1Integer;
+import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.asn1.ASN1Sequence;
 import com.unboundid.ldap.sdk.persist.PersistUtils;
 import com.unboundid.ldif.LDIFException;
 import com.unboundid.ldif.LDIFWriter;
@@ -1635,4 +1640,113 @@ public class SchemaTestCase
     emptySchemaEntryWithMalformedDN.hashCode();
     emptySchemaEntryWithDifferentMalformedDN.hashCode();
   }
+
+
+
+  /**
+   * Tests the ability to write a schema snapshot and read it back.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSnapshotRoundTrip()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    schema.writeSnapshot(outputStream);
+    schema.writeSnapshot(outputStream);
+
+    final ByteArrayInputStream inputStream =
+         new ByteArrayInputStream(outputStream.toByteArray());
+
+    Schema decodedSchema = Schema.readSnapshot(inputStream);
+    assertNotNull(decodedSchema);
+    assertEquals(decodedSchema, schema);
+    assertEquals(decodedSchema.getSchemaEntry(), schema.getSchemaEntry());
+    assertEquals(decodedSchema.getAttributeTypes(), schema.getAttributeTypes());
+    assertEquals(decodedSchema.getObjectClasses(), schema.getObjectClasses());
+
+    decodedSchema = Schema.readSnapshot(inputStream);
+    assertNotNull(decodedSchema);
+    assertEquals(decodedSchema, schema);
+
+    assertNull(Schema.readSnapshot(inputStream));
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to read a schema snapshot from data that
+   * cannot be decoded.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReadMalformedSnapshot()
+         throws Exception
+  {
+    try
+    {
+      Schema.readSnapshot(new ByteArrayInputStream(
+           new ASN1OctetString("not a snapshot").encode()));
+      fail("Expected an exception for a malformed snapshot");
+    }
+    catch (final LDAPException le)
+    {
+      // This was expected.
+    }
+
+    try
+    {
+      Schema.readSnapshot(new ByteArrayInputStream(new ASN1Sequence(
+           new ASN1Integer(12345),
+           new ASN1OctetString("cn=schema"),
+           new ASN1Sequence()).encode()));
+      fail("Expected an exception for an unsupported snapshot version");
+    }
+    catch (final LDAPException le)
+    {
+      // This was expected.
+    }
+  }
+
+
+
+  /**
+   * Tests that the object class superior class and attribute type sets that
+   * the schema caches are the same as the sets computed directly.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testObjectClassClosures()
+         throws Exception
+  {
+    final Schema schema = Schema.getDefaultStandardSchema();
+    for (final ObjectClassDefinition d : schema.getObjectClasses())
+    {
+      for (int i=0; i < 2; i++)
+      {
+        final Set<ObjectClassDefinition> superiorClasses =
+             d.getSuperiorClasses(schema, true);
+        assertEquals(superiorClasses, d.computeSuperiorClasses(schema, true));
+        assertSame(d.getSuperiorClasses(schema, true), superiorClasses);
+
+        assertEquals(d.getRequiredAttributes(schema, true),
+             d.computeRequiredAttributes(schema, true));
+        assertEquals(d.getOptionalAttributes(schema, true),
+             d.computeOptionalAttributes(schema, true));
+      }
+    }
+
+    final ObjectClassDefinition person = schema.getObjectClass("PERSON");
+    assertNotNull(person);
+    assertSame(person, schema.getObjectClass("person"));
+    assertTrue(person.getSuperiorClasses(schema, true).contains(
+         schema.getObjectClass("top")));
+    assertTrue(person.getRequiredAttributes(schema, true).contains(
+         schema.getAttributeType("objectClass")));
+  }
 }
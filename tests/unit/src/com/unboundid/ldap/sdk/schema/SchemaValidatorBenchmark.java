@@ -0,0 +1,350 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.schema;
+
+
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.unboundid.util.StaticUtils;
+
+
+
+/**
+ * This class provides a simple benchmark for the {@code SchemaValidator}
+ * class.  It generates a synthetic schema directory with a configurable
+ * number of attribute type and object class definitions spread across a
+ * number of files, and then measures the time required to validate that
+ * directory with different numbers of threads.  The generated definitions
+ * include superior chains within and across files, along with a small number
+ * of invalid names, undefined superiors, and duplicate definitions, so that
+ * the validator also reports some errors.  Each measurement is the best time
+ * over a number of passes, after an untimed warm-up pass.
+ * <BR><BR>
+ * It may be invoked from the command line with optional arguments that
+ * specify the total number of definitions, the number of files, the number of
+ * timed passes, and the thread counts to measure, like:
+ * <PRE>
+ *   java com.unboundid.ldap.sdk.schema.SchemaValidatorBenchmark \
+ *        50000 50 5 1 2 4 8
+ * </PRE>
+ */
+public final class SchemaValidatorBenchmark
+{
+  /**
+   * Prevents this class from being instantiated.
+   */
+  private SchemaValidatorBenchmark()
+  {
+    // No implementation is required.
+  }
+
+
+
+  /**
+   * Runs the benchmark and writes the results to standard output.
+   *
+   * @param  args  The command-line arguments.  The first argument may
+   *               specify the total number of definitions, the second the
+   *               number of files, the third the number of timed passes, and
+   *               any remaining arguments the thread counts to measure.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  public static void main(final String... args)
+         throws Exception
+  {
+    int numDefinitions = 50_000;
+    int numFiles = 50;
+    int numPasses = 5;
+    final List<Integer> threadCounts = new ArrayList<>(5);
+    if (args.length > 0)
+    {
+      numDefinitions = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1)
+    {
+      numFiles = Integer.parseInt(args[1]);
+    }
+    if (args.length > 2)
+    {
+      numPasses = Integer.parseInt(args[2]);
+    }
+    for (int i=3; i < args.length; i++)
+    {
+      threadCounts.add(Integer.parseInt(args[i]));
+    }
+    if (threadCounts.isEmpty())
+    {
+      threadCounts.add(1);
+      threadCounts.add(Runtime.getRuntime().availableProcessors());
+    }
+
+    final File schemaDirectory = File.createTempFile("schema-benchmark-", "");
+    if (! (schemaDirectory.delete() && schemaDirectory.mkdir()))
+    {
+      throw new Exception("Unable to create directory " +
+           schemaDirectory.getAbsolutePath());
+    }
+
+    try
+    {
+      createSchemaDirectory(schemaDirectory, numDefinitions, numFiles);
+      System.out.println("Validating " + numDefinitions +
+           " definitions in " + numFiles + " files");
+
+      final List<String> expectedErrorMessages = new ArrayList<>(100);
+      validate(schemaDirectory, 1, expectedErrorMessages);
+      System.out.println(expectedErrorMessages.size() +
+           " error messages reported");
+
+      for (final int numThreads : threadCounts)
+      {
+        long bestMillis = Long.MAX_VALUE;
+        for (int pass=0; pass <= numPasses; pass++)
+        {
+          final List<String> errorMessages = new ArrayList<>(100);
+          final long startTime = System.nanoTime();
+          validate(schemaDirectory, numThreads, errorMessages);
+          final long elapsedMillis =
+               (System.nanoTime() - startTime) / 1_000_000L;
+          if (! errorMessages.equals(expectedErrorMessages))
+          {
+            throw new Exception("Validating with " + numThreads +
+                 " threads yielded different error messages");
+          }
+
+          // The first pass is only used to warm up the JVM.
+          if (pass > 0)
+          {
+            bestMillis = Math.min(bestMillis, elapsedMillis);
+          }
+        }
+
+        System.out.println(String.format("%3d thread(s):  %6d ms",
+             numThreads, bestMillis));
+      }
+    }
+    finally
+    {
+      for (final File f : schemaDirectory.listFiles())
+      {
+        f.delete();
+      }
+      schemaDirectory.delete();
+    }
+  }
+
+
+
+  /**
+   * Validates the schema in the provided directory.
+   *
+   * @param  schemaDirectory  The directory containing the schema files.
+   * @param  numThreads       The number of threads to use.
+   * @param  errorMessages    A list to be updated with any error messages.
+   *
+   * @return  The schema that was validated.
+   */
+  static Schema validate(final File schemaDirectory, final int numThreads,
+                         final List<String> errorMessages)
+  {
+    final SchemaValidator validator = new SchemaValidator();
+    validator.setEnsureSchemaEntryIsValid(false);
+    validator.setNumThreads(numThreads);
+    return validator.validateSchema(schemaDirectory, null, errorMessages);
+  }
+
+
+
+  /**
+   * Populates the provided directory with schema files containing synthetic
+   * attribute type and object class definitions.  About sixty percent of the
+   * definitions will be attribute types and the rest will be object classes.
+   *
+   * @param  schemaDirectory  The directory in which to write the files.  It
+   *                          must exist and should be empty.
+   * @param  numDefinitions   The total number of definitions to generate.
+   * @param  numFiles         The number of files over which to spread the
+   *                          definitions, in addition to a file with the
+   *                          definitions they all depend on.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  static void createSchemaDirectory(final File schemaDirectory,
+                                    final int numDefinitions,
+                                    final int numFiles)
+         throws Exception
+  {
+    StaticUtils.writeFile(new File(schemaDirectory, "00-core.ldif"),
+         "dn: cn=schema",
+         "objectClass: top",
+         "objectClass: ldapSubEntry",
+         "objectClass: subschema",
+         "cn: schema",
+         "attributeTypes: ( 2.5.4.0 NAME 'objectClass' " +
+              "EQUALITY objectIdentifierMatch " +
+              "SYNTAX 1.3.6.1.4.1.1466.115.121.1.38 )",
+         "objectClasses: ( 2.5.6.0 NAME 'top' ABSTRACT MUST objectClass )");
+
+    final int definitionsPerFile = Math.max(1, numDefinitions / numFiles);
+    final int attributeTypesPerFile = Math.max(1,
+         (definitionsPerFile * 3) / 5);
+    final int objectClassesPerFile =
+         Math.max(1, definitionsPerFile - attributeTypesPerFile);
+    for (int f=1; f <= numFiles; f++)
+    {
+      final List<String> lines = new ArrayList<>(definitionsPerFile + 5);
+      lines.add("dn: cn=schema");
+      lines.add("objectClass: top");
+      lines.add("objectClass: ldapSubEntry");
+      lines.add("objectClass: subschema");
+      lines.add("cn: schema");
+
+      for (int a=0; a < attributeTypesPerFile; a++)
+      {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("attributeTypes: ( 1.3.6.1.4.1.32473.1.");
+        buffer.append(f);
+        buffer.append('.');
+        buffer.append(a);
+        buffer.append(" NAME '");
+        buffer.append(getAttributeTypeName(f, a));
+        if ((a % 97) == 96)
+        {
+          buffer.append("_invalid");
+        }
+        buffer.append('\'');
+
+        if ((a % 10) == 0)
+        {
+          buffer.append(" EQUALITY caseIgnoreMatch");
+          buffer.append(" SYNTAX 1.3.6.1.4.1.1466.115.121.1.15");
+        }
+        else
+        {
+          buffer.append(" SUP ");
+          buffer.append(getAttributeTypeName(f, (a - 1)));
+        }
+
+        buffer.append(" )");
+        lines.add(buffer.toString());
+      }
+
+      for (int o=0; o < objectClassesPerFile; o++)
+      {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("objectClasses: ( 1.3.6.1.4.1.32473.2.");
+        buffer.append(f);
+        buffer.append('.');
+        buffer.append(o);
+        buffer.append(" NAME '");
+        if ((o % 499) == 498)
+        {
+          // This is a duplicate of the first class in the file.
+          buffer.append(getObjectClassName(f, 0));
+        }
+        else
+        {
+          buffer.append(getObjectClassName(f, o));
+        }
+        buffer.append("' SUP ");
+
+        if ((o % 101) == 100)
+        {
+          buffer.append("undefined-class");
+        }
+        else if ((o == 0) && (f > 1))
+        {
+          buffer.append(getObjectClassName((f - 1), 0));
+        }
+        else if ((o % 10) == 0)
+        {
+          buffer.append("top");
+        }
+        else
+        {
+          buffer.append(getObjectClassName(f, (o - 1)));
+        }
+
+        buffer.append(" STRUCTURAL MAY ( ");
+        buffer.append(getAttributeTypeName(f, (o % attributeTypesPerFile)));
+        buffer.append(" $ ");
+        buffer.append(getAttributeTypeName(f,
+             ((o + 1) % attributeTypesPerFile)));
+        buffer.append(" ) )");
+        lines.add(buffer.toString());
+      }
+
+      StaticUtils.writeFile(new File(schemaDirectory,
+           String.format("50-bench-%05d.ldif", f)), lines);
+    }
+  }
+
+
+
+  /**
+   * Retrieves the name of a generated attribute type.
+   *
+   * @param  fileNumber  The number of the file containing the definition.
+   * @param  index       The index of the definition within the file.
+   *
+   * @return  The name of the generated attribute type.
+   */
+  private static String getAttributeTypeName(final int fileNumber,
+                                             final int index)
+  {
+    return "bench-at-" + fileNumber + '-' + index;
+  }
+
+
+
+  /**
+   * Retrieves the name of a generated object class.
+   *
+   * @param  fileNumber  The number of the file containing the definition.
+   * @param  index       The index of the definition within the file.
+   *
+   * @return  The name of the generated object class.
+   */
+  private static String getObjectClassName(final int fileNumber,
+                                           final int index)
+  {
+    return "bench-oc-" + fileNumber + '-' + index;
+  }
+}
@@ -246,6 +246,8 @@ public class SchemaValidatorTestCase
     assertTrue(schemaValidator.allowCollectiveAttributes());
 
     assertTrue(schemaValidator.allowObsoleteElements());
+
+    assertEquals(schemaValidator.getNumThreads(), 1);
   }
 
 
@@ -407,6 +409,154 @@ public class SchemaValidatorTestCase
 
 
 
+  /**
+   * Tests to ensure that reading and parsing the files in a schema directory
+   * in parallel yields the same schema and the same error messages, in the
+   * same order, as processing the files serially.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testParallelParsing()
+         throws Exception
+  {
+    final File schemaDir = createTempDir();
+    StaticUtils.writeFile(new File(schemaDir, "00-core.ldif"),
+         minimalSchemaLines);
+
+    for (int i=1; i <= 20; i++)
+    {
+      // Each file defines an attribute type and an object class that extends
+      // the object class defined in the previous file.  Every fifth file
+      // references an object class that is only defined in a later file.
+      final String superiorClass;
+      if (i == 1)
+      {
+        superiorClass = "top";
+      }
+      else if ((i % 5) == 0)
+      {
+        superiorClass = "test-oc-" + (i + 1);
+      }
+      else
+      {
+        superiorClass = "test-oc-" + (i - 1);
+      }
+
+      StaticUtils.writeFile(
+           new File(schemaDir, String.format("%02d-test.ldif", i)),
+           "dn: cn=schema",
+           "objectClass: top",
+           "objectClass: ldapSubEntry",
+           "objectClass: subschema",
+           "cn: schema",
+           "attributeTypes: ( 1.2.3." + i + " NAME 'test-at-" + i + "' " +
+                "EQUALITY caseIgnoreMatch " +
+                "SYNTAX 1.3.6.1.4.1.1466.115.121.1.15 )",
+           "objectClasses: ( 1.2.4." + i + " NAME 'test-oc-" + i + "' " +
+                "SUP " + superiorClass + " STRUCTURAL MAY test-at-" + i +
+                " )");
+    }
+
+    StaticUtils.writeFile(new File(schemaDir, "21-empty.ldif"));
+    StaticUtils.writeFile(new File(schemaDir, "22-malformed.ldif"),
+         "this is not a valid LDIF entry");
+    try (LDIFWriter writer =
+              new LDIFWriter(new File(schemaDir, "23-multiple.ldif")))
+    {
+      writer.writeEntry(minimalSchemaEntry);
+      writer.writeEntry(minimalSchemaEntry);
+    }
+
+    final SchemaValidator serialValidator = new SchemaValidator();
+    final List<String> serialErrorMessages = new ArrayList<>(10);
+    final Schema serialSchema = serialValidator.validateSchema(schemaDir,
+         null, serialErrorMessages);
+
+    assertNotNull(serialSchema);
+    assertNotNull(serialSchema.getObjectClass("test-oc-20"));
+    assertFalse(serialErrorMessages.isEmpty());
+
+    for (final int numThreads : new int[] { 2, 4, 32 })
+    {
+      final SchemaValidator parallelValidator = new SchemaValidator();
+      parallelValidator.setNumThreads(numThreads);
+      assertEquals(parallelValidator.getNumThreads(), numThreads);
+
+      final List<String> parallelErrorMessages = new ArrayList<>(10);
+      final Schema parallelSchema = parallelValidator.validateSchema(
+           schemaDir, null, parallelErrorMessages);
+
+      assertEquals(parallelSchema, serialSchema);
+      assertEquals(parallelErrorMessages, serialErrorMessages);
+    }
+
+    final SchemaValidator schemaValidator = new SchemaValidator();
+    schemaValidator.setNumThreads(0);
+    assertEquals(schemaValidator.getNumThreads(), 1);
+  }
+
+
+
+  /**
+   * Tests to ensure that parsing and checking the attribute type and object
+   * class definitions in a large schema concurrently yields the same schema
+   * and the same error messages, in the same order, as using a single thread.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConcurrentDefinitionValidation()
+         throws Exception
+  {
+    final File schemaDir = createTempDir();
+    SchemaValidatorBenchmark.createSchemaDirectory(schemaDir, 6000, 3);
+
+    final List<String> serialErrorMessages = new ArrayList<>(100);
+    final Schema serialSchema = SchemaValidatorBenchmark.validate(schemaDir, 1,
+         serialErrorMessages);
+
+    assertNotNull(serialSchema);
+    assertEquals(serialSchema.getAttributeTypes().size(), 3601);
+    assertNotNull(serialSchema.getObjectClass("bench-oc-3-0"));
+    assertFalse(serialErrorMessages.isEmpty());
+
+    boolean foundUndefinedSuperior = false;
+    for (final String message : serialErrorMessages)
+    {
+      if (message.contains("undefined-class"))
+      {
+        foundUndefinedSuperior = true;
+        break;
+      }
+    }
+    assertTrue(foundUndefinedSuperior);
+
+    for (final int numThreads : new int[] { 2, 3, 8 })
+    {
+      final List<String> errorMessages = new ArrayList<>(100);
+      final Schema schema = SchemaValidatorBenchmark.validate(schemaDir,
+           numThreads, errorMessages);
+
+      assertEquals(schema, serialSchema);
+      assertEquals(errorMessages, serialErrorMessages);
+    }
+
+    final File schemaFile = new File(schemaDir, "50-bench-00001.ldif");
+    final List<String> serialFileErrorMessages = new ArrayList<>(100);
+    final Schema serialFileSchema = SchemaValidatorBenchmark.validate(
+         schemaFile, 1, serialFileErrorMessages);
+    assertFalse(serialFileErrorMessages.isEmpty());
+
+    final List<String> fileErrorMessages = new ArrayList<>(100);
+    assertEquals(
+         SchemaValidatorBenchmark.validate(schemaFile, 4, fileErrorMessages),
+         serialFileSchema);
+    assertEquals(fileErrorMessages, serialFileErrorMessages);
+  }
+
+
+
   /**
    * Tests with a nonexistent path.
    *
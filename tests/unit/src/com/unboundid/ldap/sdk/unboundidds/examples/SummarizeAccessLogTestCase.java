@@ -39,14 +39,17 @@ package com.unboundid.ldap.sdk.unboundidds.examples;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPOutputStream;
 
 import org.testng.annotations.BeforeClass;
@@ -993,6 +996,114 @@ public class SummarizeAccessLogTestCase
 
 
 
+  /**
+   * Tests the behavior of the tool when running in follow mode.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFollow()
+         throws Exception
+  {
+    final File logFile = createTempFile();
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    final SummarizeAccessLog tool = new SummarizeAccessLog(outputStream, null);
+    final AtomicReference<ResultCode> resultCode = new AtomicReference<>();
+    final Thread toolThread = new Thread()
+    {
+      @Override()
+      public void run()
+      {
+        resultCode.set(tool.runTool(
+             "--follow",
+             "--reportInterval", "1s",
+             "--windowDuration", "1m",
+             logFile.getAbsolutePath()));
+      }
+    };
+    toolThread.start();
+
+    // Give the tool a chance to start following the file before appending to
+    // it.
+    Thread.sleep(500L);
+    final PrintWriter w = new PrintWriter(new FileOutputStream(logFile, true));
+    w.println(ts() + " CONNECT conn=1 from=\"1.2.3.4\" to=\"5.6.7.8\" " +
+         "protocol=\"LDAP\"");
+    w.println(ts() + " SEARCH RESULT conn=1 op=1 msgID=2 resultCode=0 " +
+         "etime=0.5");
+    w.close();
+
+    final long stopWaitingTime = System.currentTimeMillis() + 30_000L;
+    while (System.currentTimeMillis() < stopWaitingTime)
+    {
+      if (StaticUtils.toUTF8String(outputStream.toByteArray()).contains(
+           "\"search\":1,"))
+      {
+        break;
+      }
+
+      Thread.sleep(100L);
+    }
+
+    toolThread.interrupt();
+    toolThread.join(10_000L);
+    assertFalse(toolThread.isAlive());
+    assertEquals(resultCode.get(), ResultCode.SUCCESS);
+
+    final String output = StaticUtils.toUTF8String(outputStream.toByteArray());
+    assertTrue(output.contains(
+         "\"topClients\":[ { \"address\":\"1.2.3.4\""),
+         output);
+  }
+
+
+
+  /**
+   * Tests the behavior of the tool when trying to use follow mode with a
+   * compressed log file.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFollowCompressed()
+         throws Exception
+  {
+    final ResultCode rc = SummarizeAccessLog.main(
+         new String[]
+         {
+           "--follow",
+           "--isCompressed",
+           compressedFile.getAbsolutePath()
+         },
+         null, null);
+    assertEquals(rc, ResultCode.PARAM_ERROR);
+  }
+
+
+
+  /**
+   * Tests the behavior of the tool when trying to use follow mode with a
+   * file that does not exist.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testFollowNoSuchFile()
+         throws Exception
+  {
+    final ResultCode rc = SummarizeAccessLog.main(
+         new String[]
+         {
+           "--follow",
+           dataFile1.getAbsolutePath() + ".missing"
+         },
+         null, null);
+    assertEquals(rc, ResultCode.LOCAL_ERROR);
+  }
+
+
+
   /**
    * Provides test coverage for the {@code getExampleUsages} method.
    *
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.logs;
+
+
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code FollowingLogFileReader} class.
+ */
+public final class FollowingLogFileReaderTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior when reading from the beginning of a file that already
+   * has data and then has more data appended to it.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testReadFromBeginningWithAppend()
+         throws Exception
+  {
+    final File file = createTempFile("line 1", "line 2");
+
+    final FollowingLogFileReader followingReader =
+         new FollowingLogFileReader(file, false, 10L);
+    assertEquals(followingReader.getFile(), file);
+    assertEquals(followingReader.getPollIntervalMillis(), 10L);
+    assertEquals(followingReader.getRotationCount(), 0L);
+
+    final LineReaderThread t = new LineReaderThread(followingReader);
+    t.start();
+
+    assertEquals(t.nextLine(), "line 1");
+    assertEquals(t.nextLine(), "line 2");
+
+    append(file, "line 3");
+    assertEquals(t.nextLine(), "line 3");
+
+    followingReader.close();
+    t.join(10_000L);
+    assertFalse(t.isAlive());
+    assertEquals(followingReader.getRotationCount(), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior when starting to read at the end of a file.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testStartAtEnd()
+         throws Exception
+  {
+    final File file = createTempFile("line 1", "line 2");
+
+    final FollowingLogFileReader followingReader =
+         new FollowingLogFileReader(file, true, 10L);
+    final LineReaderThread t = new LineReaderThread(followingReader);
+    t.start();
+
+    append(file, "line 3");
+    assertEquals(t.nextLine(), "line 3");
+
+    followingReader.close();
+    t.join(10_000L);
+    assertFalse(t.isAlive());
+  }
+
+
+
+  /**
+   * Tests the behavior when the file is rotated by renaming it and creating a
+   * new file with the original name.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testRotation()
+         throws Exception
+  {
+    final File dir = createTempDir();
+    final File file = new File(dir, "access");
+    append(file, "line 1");
+
+    final FollowingLogFileReader followingReader =
+         new FollowingLogFileReader(file, false, 10L);
+    final LineReaderThread t = new LineReaderThread(followingReader);
+    t.start();
+
+    assertEquals(t.nextLine(), "line 1");
+
+    assertTrue(file.renameTo(new File(dir, "access.1")));
+    append(file, "line 2");
+    assertEquals(t.nextLine(), "line 2");
+    assertEquals(followingReader.getRotationCount(), 1L);
+
+    followingReader.close();
+    t.join(10_000L);
+    assertFalse(t.isAlive());
+    delete(dir);
+  }
+
+
+
+  /**
+   * Tests the behavior when the file is truncated.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testTruncation()
+         throws Exception
+  {
+    final File file = createTempFile("this is a long first line");
+
+    final FollowingLogFileReader followingReader =
+         new FollowingLogFileReader(file, false, 10L);
+    final LineReaderThread t = new LineReaderThread(followingReader);
+    t.start();
+
+    assertEquals(t.nextLine(), "this is a long first line");
+
+    final PrintWriter w = new PrintWriter(new FileOutputStream(file, false));
+    w.println("short");
+    w.close();
+
+    assertEquals(t.nextLine(), "short");
+    assertEquals(followingReader.getRotationCount(), 1L);
+
+    followingReader.close();
+    t.join(10_000L);
+    assertFalse(t.isAlive());
+  }
+
+
+
+  /**
+   * Tests the ability to use a following reader with an access log reader.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testWithAccessLogReader()
+         throws Exception
+  {
+    final File file = createTempFile(
+         "# This is a comment",
+         "[01/Jan/2020:00:00:00 -0600] CONNECT conn=1 from=\"1.2.3.4\" " +
+              "to=\"5.6.7.8\" protocol=\"LDAP\"");
+
+    final FollowingLogFileReader followingReader =
+         new FollowingLogFileReader(file, false, 10L);
+    final AccessLogReader reader = new AccessLogReader(followingReader);
+
+    final AccessLogMessage m = reader.read();
+    assertNotNull(m);
+    assertTrue(m instanceof ConnectAccessLogMessage);
+    assertEquals(((ConnectAccessLogMessage) m).getSourceAddress(), "1.2.3.4");
+
+    followingReader.close();
+    assertNull(reader.read());
+  }
+
+
+
+  /**
+   * Appends the provided line to the specified file.
+   *
+   * @param  file  The file to which the line should be appended.
+   * @param  line  The line to append.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static void append(final File file, final String line)
+          throws Exception
+  {
+    final PrintWriter w = new PrintWriter(new FileOutputStream(file, true));
+    w.println(line);
+    w.close();
+  }
+
+
+
+  /**
+   * A thread that reads lines from a following reader and makes them available
+   * through a queue.
+   */
+  private static final class LineReaderThread
+          extends Thread
+  {
+    // The queue of lines that have been read.
+    private final ArrayBlockingQueue<String> queue;
+
+    // The reader to use.
+    private final BufferedReader reader;
+
+
+
+    /**
+     * Creates a new thread that will read from the provided reader.
+     *
+     * @param  followingReader  The reader to use.
+     */
+    private LineReaderThread(final FollowingLogFileReader followingReader)
+    {
+      setDaemon(true);
+      reader = new BufferedReader(followingReader);
+      queue = new ArrayBlockingQueue<>(100);
+    }
+
+
+
+    /**
+     * Reads lines until the end of the input is reached.
+     */
+    @Override()
+    public void run()
+    {
+      try
+      {
+        while (true)
+        {
+          final String line = reader.readLine();
+          if (line == null)
+          {
+            return;
+          }
+
+          queue.put(line);
+        }
+      }
+      catch (final Exception e)
+      {
+        // This will happen if the reader is closed while a read is in
+        // progress.
+      }
+    }
+
+
+
+    /**
+     * Retrieves the next line read by this thread, waiting up to ten seconds
+     * for it to become available.
+     *
+     * @return  The next line read by this thread, or {@code null} if none
+     *          was available within the timeout.
+     *
+     * @throws  Exception  If an unexpected problem occurs.
+     */
+    private String nextLine()
+            throws Exception
+    {
+      return queue.poll(10L, TimeUnit.SECONDS);
+    }
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.ldap.sdk.unboundidds.logs;
+
+
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+import com.unboundid.util.LDAPSDKUsageException;
+import com.unboundid.util.json.JSONArray;
+import com.unboundid.util.json.JSONNumber;
+import com.unboundid.util.json.JSONObject;
+import com.unboundid.util.json.JSONString;
+import com.unboundid.util.json.JSONValue;
+
+
+
+/**
+ * This class provides a set of test cases for the
+ * {@code SlidingWindowAccessLogAggregator} class.
+ */
+public final class SlidingWindowAccessLogAggregatorTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * A base timestamp that is aligned on a minute boundary.
+   */
+  private static final long BASE_TIME = 1_577_836_800_000L;
+
+
+
+  /**
+   * Tests the behavior of an aggregator that has not processed any messages.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testEmpty()
+         throws Exception
+  {
+    final SlidingWindowAccessLogAggregator aggregator =
+         new SlidingWindowAccessLogAggregator(60_000L, 6);
+    assertEquals(aggregator.getWindowDurationMillis(), 60_000L);
+    assertEquals(aggregator.getNumIntervals(), 6);
+    assertEquals(aggregator.getTotalMessagesProcessed(), 0L);
+    assertEquals(aggregator.getTotalMessagesIgnored(), 0L);
+
+    final JSONObject o = aggregator.toJSONObject(BASE_TIME);
+    assertEquals(o.getFieldAsLong("windowDurationMillis").longValue(),
+         60_000L);
+    assertEquals(getOperations(o).getFieldAsLong("total").longValue(), 0L);
+    assertTrue(o.getFieldAsArray("resultCodes").isEmpty());
+    assertTrue(o.getFieldAsArray("topClients").isEmpty());
+    assertEquals(
+         o.getFieldAsObject("processingTimeMillis").getFieldAsLong("count").
+              longValue(),
+         0L);
+    assertNull(o.getFieldAsObject("processingTimeMillis").getField("average"));
+
+    assertNotNull(aggregator.toString());
+  }
+
+
+
+  /**
+   * Tests the aggregate statistics generated for a set of messages.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testAggregateStatistics()
+         throws Exception
+  {
+    final SlidingWindowAccessLogAggregator aggregator =
+         new SlidingWindowAccessLogAggregator(60_000L, 6, 100, 100, 1);
+
+    aggregator.processMessage(connect(BASE_TIME, 1L, "1.2.3.4"));
+    aggregator.processMessage(connect(BASE_TIME, 2L, "5.6.7.8"));
+    aggregator.processMessage(result(BASE_TIME + 1_000L, 1L, "SEARCH", 0,
+         "0.5"));
+    aggregator.processMessage(result(BASE_TIME + 2_000L, 1L, "SEARCH", 32,
+         "4.5"));
+    aggregator.processMessage(result(BASE_TIME + 15_000L, 2L, "MODIFY", 0,
+         "150"));
+    aggregator.processMessage(unbind(BASE_TIME + 20_000L, 1L));
+    aggregator.processMessage(disconnect(BASE_TIME + 20_000L, 1L));
+
+    assertEquals(aggregator.getTotalMessagesProcessed(), 7L);
+    assertEquals(aggregator.getTotalMessagesIgnored(), 0L);
+
+    final JSONObject o = aggregator.toJSONObject(BASE_TIME + 30_000L);
+    assertEquals(o.getFieldAsLong("connectsEstablished").longValue(), 2L);
+    assertEquals(o.getFieldAsLong("connectionsClosed").longValue(), 1L);
+
+    final JSONObject operations = getOperations(o);
+    assertEquals(operations.getFieldAsLong("total").longValue(), 4L);
+    assertEquals(operations.getFieldAsLong("search").longValue(), 2L);
+    assertEquals(operations.getFieldAsLong("modify").longValue(), 1L);
+    assertEquals(operations.getFieldAsLong("unbind").longValue(), 1L);
+    assertEquals(operations.getFieldAsLong("add").longValue(), 0L);
+
+    final List<JSONValue> resultCodes =
+         o.getFieldAsArray("resultCodes");
+    assertEquals(resultCodes.size(), 2);
+    final JSONObject firstResultCode = (JSONObject) resultCodes.get(0);
+    assertEquals(firstResultCode.getFieldAsInteger("resultCode").intValue(),
+         0);
+    assertEquals(firstResultCode.getFieldAsLong("count").longValue(), 2L);
+
+    final JSONObject processingTime =
+         o.getFieldAsObject("processingTimeMillis");
+    assertEquals(processingTime.getFieldAsLong("count").longValue(), 3L);
+    assertEquals(
+         ((JSONNumber) processingTime.getField("maximum")).getValue().
+              intValue(),
+         150);
+
+    long histogramTotal = 0L;
+    long firstBucketCount = -1L;
+    for (final JSONValue v :
+         ((JSONArray) processingTime.getField("histogram")).getValues())
+    {
+      final long count = ((JSONObject) v).getFieldAsLong("count");
+      if (firstBucketCount < 0L)
+      {
+        firstBucketCount = count;
+      }
+      histogramTotal += count;
+    }
+    assertEquals(histogramTotal, 3L);
+    assertEquals(firstBucketCount, 1L);
+
+    // Only the top client should be included.
+    final List<JSONValue> topClients = o.getFieldAsArray("topClients");
+    assertEquals(topClients.size(), 1);
+    assertEquals(
+         ((JSONObject) topClients.get(0)).getField("address"),
+         new JSONString("1.2.3.4"));
+    assertEquals(
+         ((JSONObject) topClients.get(0)).getFieldAsLong("operations").
+              longValue(),
+         3L);
+  }
+
+
+
+  /**
+   * Tests the behavior as the window slides past older intervals.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testWindowSlides()
+         throws Exception
+  {
+    final SlidingWindowAccessLogAggregator aggregator =
+         new SlidingWindowAccessLogAggregator(60_000L, 6);
+
+    aggregator.processMessage(result(BASE_TIME, 1L, "ADD", 0, "1"));
+    aggregator.processMessage(result(BASE_TIME + 30_000L, 1L, "ADD", 0, "1"));
+
+    assertEquals(getOperations(aggregator.toJSONObject(BASE_TIME + 50_000L)).
+         getFieldAsLong("total").longValue(), 2L);
+
+    // The first interval is no longer in the window.
+    assertEquals(getOperations(aggregator.toJSONObject(BASE_TIME + 70_000L)).
+         getFieldAsLong("total").longValue(), 1L);
+
+    // A message in a new interval that maps to the same slot as the first
+    // interval should cause it to be reused.
+    aggregator.processMessage(result(BASE_TIME + 60_000L, 1L, "ADD", 0, "1"));
+    assertEquals(getOperations(aggregator.toJSONObject(BASE_TIME + 70_000L)).
+         getFieldAsLong("total").longValue(), 2L);
+
+    // A message that is older than the oldest interval should be ignored.
+    aggregator.processMessage(result(BASE_TIME + 1_000L, 1L, "ADD", 0, "1"));
+    assertEquals(aggregator.getTotalMessagesIgnored(), 1L);
+
+    // Nothing should be in the window if it ends well after the last message.
+    assertEquals(getOperations(aggregator.toJSONObject(BASE_TIME + 600_000L)).
+         getFieldAsLong("total").longValue(), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior when the maximum number of tracked clients per interval
+   * is reached.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testClientLimit()
+         throws Exception
+  {
+    final SlidingWindowAccessLogAggregator aggregator =
+         new SlidingWindowAccessLogAggregator(60_000L, 1, 2, 1, 10);
+
+    aggregator.processMessage(connect(BASE_TIME, 1L, "1.1.1.1"));
+    aggregator.processMessage(connect(BASE_TIME, 2L, "2.2.2.2"));
+    aggregator.processMessage(connect(BASE_TIME, 3L, "3.3.3.3"));
+
+    // Connection 1 should have been forgotten because only two connections
+    // can be tracked.
+    aggregator.processMessage(result(BASE_TIME, 1L, "BIND", 0, "1"));
+    aggregator.processMessage(result(BASE_TIME, 2L, "BIND", 0, "1"));
+    aggregator.processMessage(result(BASE_TIME, 3L, "BIND", 49, "1"));
+
+    final JSONObject o = aggregator.toJSONObject(BASE_TIME + 1_000L);
+    assertEquals(getOperations(o).getFieldAsLong("bind").longValue(), 3L);
+    assertEquals(o.getFieldAsArray("topClients").size(), 1);
+    assertEquals(o.getFieldAsLong("untrackedClientOperations").longValue(),
+         1L);
+  }
+
+
+
+  /**
+   * Tests the behavior with invalid constructor arguments.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidWindow()
+         throws Exception
+  {
+    new SlidingWindowAccessLogAggregator(1_000L, 7);
+  }
+
+
+
+  /**
+   * Retrieves the operations object from the provided summary.
+   *
+   * @param  o  The summary object.
+   *
+   * @return  The operations object.
+   */
+  private static JSONObject getOperations(final JSONObject o)
+  {
+    return o.getFieldAsObject("operations");
+  }
+
+
+
+  /**
+   * Creates a connect access log message.
+   *
+   * @param  time     The timestamp for the message.
+   * @param  connID   The connection ID.
+   * @param  address  The client address.
+   *
+   * @return  The access log message.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static AccessLogMessage connect(final long time, final long connID,
+                                          final String address)
+          throws Exception
+  {
+    return AccessLogReader.parse(timestamp(time) + " CONNECT conn=" +
+         connID + " from=\"" + address + "\" to=\"5.6.7.8\" protocol=\"LDAP\"");
+  }
+
+
+
+  /**
+   * Creates a disconnect access log message.
+   *
+   * @param  time    The timestamp for the message.
+   * @param  connID  The connection ID.
+   *
+   * @return  The access log message.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static AccessLogMessage disconnect(final long time,
+                                             final long connID)
+          throws Exception
+  {
+    return AccessLogReader.parse(timestamp(time) + " DISCONNECT conn=" +
+         connID + " reason=\"Client Unbind\"");
+  }
+
+
+
+  /**
+   * Creates an unbind request access log message.
+   *
+   * @param  time    The timestamp for the message.
+   * @param  connID  The connection ID.
+   *
+   * @return  The access log message.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static AccessLogMessage unbind(final long time, final long connID)
+          throws Exception
+  {
+    return AccessLogReader.parse(timestamp(time) + " UNBIND REQUEST conn=" +
+         connID + " op=99 msgID=100");
+  }
+
+
+
+  /**
+   * Creates an operation result access log message.
+   *
+   * @param  time        The timestamp for the message.
+   * @param  connID      The connection ID.
+   * @param  opType      The operation type.
+   * @param  resultCode  The result code.
+   * @param  etime       The processing time.
+   *
+   * @return  The access log message.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private static AccessLogMessage result(final long time, final long connID,
+                                         final String opType,
+                                         final int resultCode,
+                                         final String etime)
+          throws Exception
+  {
+    return AccessLogReader.parse(timestamp(time) + ' ' + opType +
+         " RESULT conn=" + connID + " op=1 msgID=2 resultCode=" + resultCode +
+         " etime=" + etime);
+  }
+
+
+
+  /**
+   * Formats the provided time as an access log timestamp.
+   *
+   * @param  time  The time to format.
+   *
+   * @return  The formatted timestamp.
+   */
+  private static String timestamp(final long time)
+  {
+    return new SimpleDateFormat("'['dd/MMM/yyyy:HH:mm:ss.SSS Z']'").format(
+         new Date(time));
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.sdk.LDAPSDKTestCase;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code HashedWheelTimer}
+ * class.
+ */
+public final class HashedWheelTimerTestCase
+       extends LDAPSDKTestCase
+{
+  /**
+   * Tests the behavior when scheduling tasks that are allowed to expire.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testExpiration()
+         throws Exception
+  {
+    final HashedWheelTimer timer =
+         new HashedWheelTimer("testExpiration", 5L, 100);
+    assertEquals(timer.getTickDurationMillis(), 5L);
+    assertEquals(timer.getTicksPerWheel(), 128);
+    assertFalse(timer.isShutDown());
+    assertNotNull(timer.toString());
+
+    final CountDownLatch latch = new CountDownLatch(3);
+    final CountingTask task = new CountingTask(latch);
+
+    final long startTime = System.nanoTime();
+    final HashedWheelTimeout t1 = timer.schedule(task, 0L);
+    final HashedWheelTimeout t2 = timer.schedule(task, 50L);
+    final HashedWheelTimeout t3 = timer.schedule(task, 100L);
+    assertEquals(t1.getTimer(), timer);
+    assertEquals(t1.getTask(), task);
+    assertNotNull(t1.toString());
+
+    assertTrue(latch.await(10L, TimeUnit.SECONDS));
+    assertTrue((System.nanoTime() - startTime) >=
+         TimeUnit.MILLISECONDS.toNanos(100L));
+
+    assertEquals(task.count.get(), 3);
+    assertTrue(t1.isExpired());
+    assertTrue(t2.isExpired());
+    assertTrue(t3.isExpired());
+    assertFalse(t3.isCancelled());
+    assertFalse(t3.cancel());
+
+    assertEquals(timer.getNumScheduledTimeouts(), 3L);
+    assertEquals(timer.getNumExpiredTimeouts(), 3L);
+    assertEquals(timer.getNumCancelledTimeouts(), 0L);
+    assertEquals(timer.getNumPendingTimeouts(), 0L);
+
+    timer.shutDown();
+    assertTrue(timer.isShutDown());
+  }
+
+
+
+  /**
+   * Tests the behavior when cancelling tasks before they expire.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testCancel()
+         throws Exception
+  {
+    final HashedWheelTimer timer = new HashedWheelTimer("testCancel", 1L, 8);
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final CountingTask task = new CountingTask(latch);
+
+    final HashedWheelTimeout[] timeouts = new HashedWheelTimeout[1000];
+    for (int i=0; i < timeouts.length; i++)
+    {
+      timeouts[i] = timer.schedule(task, 20L + (i % 50));
+    }
+
+    final HashedWheelTimeout lastTimeout = timer.schedule(task, 100L);
+    assertEquals(timer.getNumPendingTimeouts(), 1001L);
+
+    for (final HashedWheelTimeout t : timeouts)
+    {
+      assertTrue(t.cancel());
+      assertTrue(t.isCancelled());
+      assertFalse(t.cancel());
+    }
+
+    assertEquals(timer.getNumPendingTimeouts(), 1L);
+    assertEquals(timer.getNumCancelledTimeouts(), 1000L);
+
+    assertTrue(latch.await(10L, TimeUnit.SECONDS));
+    Thread.sleep(100L);
+
+    assertEquals(task.count.get(), 1);
+    assertTrue(lastTimeout.isExpired());
+    assertEquals(timer.getNumExpiredTimeouts(), 1L);
+    assertEquals(timer.getNumPendingTimeouts(), 0L);
+
+    timer.shutDown();
+  }
+
+
+
+  /**
+   * Tests the behavior with timeouts that require multiple revolutions of the
+   * wheel, and with a task that throws an exception.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testMultipleRounds()
+         throws Exception
+  {
+    final HashedWheelTimer timer =
+         new HashedWheelTimer("testMultipleRounds", 1L, 4);
+    assertEquals(timer.getTicksPerWheel(), 4);
+
+    final CountDownLatch latch = new CountDownLatch(10);
+    final CountingTask task = new CountingTask(latch);
+    timer.schedule(new Runnable()
+    {
+      @Override()
+      public void run()
+      {
+        throw new RuntimeException("Intentional exception");
+      }
+    }, 1L);
+
+    final long startTime = System.nanoTime();
+    for (int i=0; i < 10; i++)
+    {
+      timer.schedule(task, 10L * (i + 1));
+    }
+
+    assertTrue(latch.await(10L, TimeUnit.SECONDS));
+    assertTrue((System.nanoTime() - startTime) >=
+         TimeUnit.MILLISECONDS.toNanos(100L));
+    assertEquals(timer.getNumExpiredTimeouts(), 11L);
+
+    timer.shutDown();
+  }
+
+
+
+  /**
+   * Tests to ensure that it is not possible to schedule a task after the
+   * timer has been shut down.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testScheduleAfterShutDown()
+         throws Exception
+  {
+    final HashedWheelTimer timer =
+         new HashedWheelTimer("testScheduleAfterShutDown", 10L, 16);
+    timer.schedule(new CountingTask(new CountDownLatch(1)), 60_000L);
+    timer.shutDown();
+
+    timer.schedule(new CountingTask(new CountDownLatch(1)), 1L);
+  }
+
+
+
+  /**
+   * A task that counts the number of times it has been run.
+   */
+  private static final class CountingTask
+          implements Runnable
+  {
+    // The number of times the task has been run.
+    private final AtomicInteger count;
+
+    // A latch that will be counted down each time the task is run.
+    private final CountDownLatch latch;
+
+
+
+    /**
+     * Creates a new counting task.
+     *
+     * @param  latch  A latch that will be counted down each time the task is
+     *                run.
+     */
+    private CountingTask(final CountDownLatch latch)
+    {
+      this.latch = latch;
+      count = new AtomicInteger(0);
+    }
+
+
+
+    /**
+     * Increments the count and counts down the latch.
+     */
+    @Override()
+    public void run()
+    {
+      count.incrementAndGet();
+      latch.countDown();
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code LatencyHistogram}
+ * and {@code LatencyHistogramSnapshot} classes.
+ */
+public class LatencyHistogramTestCase
+       extends UtilTestCase
+{
+  /**
+   * Tests the behavior of a histogram that does not have any values.
+   */
+  @Test()
+  public void testEmpty()
+  {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    assertTrue(histogram.getNumStripes() >= 1);
+    assertNotNull(histogram.toString());
+
+    final LatencyHistogramSnapshot snapshot = histogram.getSnapshot();
+    assertEquals(snapshot.getCount(), 0L);
+    assertEquals(snapshot.getTotalNanos(), 0L);
+    assertEquals(snapshot.getMaximumNanos(), 0L);
+    assertTrue(Double.isNaN(snapshot.getAverageNanos()));
+    assertEquals(snapshot.get50thPercentileNanos(), -1L);
+    assertEquals(snapshot.get95thPercentileNanos(), -1L);
+    assertEquals(snapshot.get99thPercentileNanos(), -1L);
+    assertEquals(snapshot.toString(), "LatencyHistogramSnapshot(count=0)");
+  }
+
+
+
+  /**
+   * Tests the behavior when recording values in a histogram.
+   */
+  @Test()
+  public void testRecordValues()
+  {
+    final LatencyHistogram histogram = new LatencyHistogram(1);
+    assertEquals(histogram.getNumStripes(), 1);
+
+    // Record the values 1 through 100 milliseconds.
+    for (long i=1L; i <= 100L; i++)
+    {
+      histogram.record(i * 1_000_000L);
+    }
+
+    // Negative values should be ignored.
+    histogram.record(-1L);
+
+    final LatencyHistogramSnapshot snapshot = histogram.getSnapshot();
+    assertEquals(snapshot.getCount(), 100L);
+    assertEquals(snapshot.getTotalNanos(), 5050L * 1_000_000L);
+    assertEquals(snapshot.getMaximumNanos(), 100_000_000L);
+    assertEquals(Math.round(snapshot.getAverageNanos()), 50_500_000L);
+
+    assertWithinPrecision(snapshot.get50thPercentileNanos(), 50_000_000L);
+    assertWithinPrecision(snapshot.get95thPercentileNanos(), 95_000_000L);
+    assertWithinPrecision(snapshot.get99thPercentileNanos(), 99_000_000L);
+    assertEquals(snapshot.getPercentileNanos(100.0d), 100_000_000L);
+
+    assertTrue(snapshot.toString().contains("p99Nanos="));
+
+    // The snapshot should not have altered the histogram.
+    assertEquals(histogram.getSnapshot().getCount(), 100L);
+
+    histogram.reset();
+    assertEquals(histogram.getSnapshot().getCount(), 0L);
+    assertEquals(histogram.getSnapshot().getMaximumNanos(), 0L);
+  }
+
+
+
+  /**
+   * Tests the behavior when obtaining a snapshot and resetting the histogram.
+   */
+  @Test()
+  public void testSnapshotAndReset()
+  {
+    final LatencyHistogram histogram = new LatencyHistogram(4);
+    histogram.record(1000L);
+    histogram.record(2000L);
+
+    final LatencyHistogramSnapshot snapshot = histogram.getSnapshotAndReset();
+    assertEquals(snapshot.getCount(), 2L);
+    assertEquals(snapshot.getTotalNanos(), 3000L);
+    assertEquals(snapshot.getMaximumNanos(), 2000L);
+
+    assertEquals(histogram.getSnapshot().getCount(), 0L);
+
+    histogram.record(500L);
+    assertEquals(histogram.getSnapshot().getCount(), 1L);
+    assertEquals(histogram.getSnapshot().getMaximumNanos(), 500L);
+  }
+
+
+
+  /**
+   * Tests to ensure that the bucket boundaries are consistent with the bucket
+   * selected for a number of values.
+   */
+  @Test()
+  public void testBuckets()
+  {
+    long previousUpperBound = -1L;
+    for (int i=0; i < LatencyHistogram.NUM_BUCKETS; i++)
+    {
+      final long lowerBound = LatencyHistogram.getBucketLowerBound(i);
+      final long upperBound = LatencyHistogram.getBucketUpperBound(i);
+      assertEquals(lowerBound, previousUpperBound + 1L);
+      assertTrue(upperBound >= lowerBound);
+      assertEquals(LatencyHistogram.getBucketIndex(lowerBound), i);
+      assertEquals(LatencyHistogram.getBucketIndex(upperBound), i);
+      previousUpperBound = upperBound;
+    }
+
+    assertEquals(previousUpperBound, Long.MAX_VALUE);
+
+    final LatencyHistogram histogram = new LatencyHistogram(1);
+    histogram.record(Long.MAX_VALUE);
+    histogram.record(0L);
+
+    final LatencyHistogramSnapshot snapshot = histogram.getSnapshot();
+    assertEquals(snapshot.getNumBuckets(), LatencyHistogram.NUM_BUCKETS);
+    assertEquals(snapshot.getBucketCount(0), 1L);
+    assertEquals(snapshot.getBucketLowerBoundNanos(0), 0L);
+    assertEquals(snapshot.getBucketUpperBoundNanos(0), 0L);
+    assertEquals(snapshot.getBucketCount(snapshot.getNumBuckets() - 1), 1L);
+    assertEquals(snapshot.getMaximumNanos(), Long.MAX_VALUE);
+    assertEquals(snapshot.getPercentileNanos(50.0d), 0L);
+    assertEquals(snapshot.getPercentileNanos(100.0d), Long.MAX_VALUE);
+  }
+
+
+
+  /**
+   * Tests the behavior when recording values from multiple threads at the same
+   * time.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConcurrentRecording()
+         throws Exception
+  {
+    final LatencyHistogram histogram = new LatencyHistogram(8);
+    assertEquals(histogram.getNumStripes(), 8);
+
+    final List<Thread> threads = new ArrayList<>(10);
+    for (int i=0; i < 10; i++)
+    {
+      final Thread t = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          for (int j=1; j <= 1000; j++)
+          {
+            histogram.record(j);
+          }
+        }
+      };
+      threads.add(t);
+      t.start();
+    }
+
+    for (final Thread t : threads)
+    {
+      t.join();
+    }
+
+    final LatencyHistogramSnapshot snapshot = histogram.getSnapshot();
+    assertEquals(snapshot.getCount(), 10_000L);
+    assertEquals(snapshot.getTotalNanos(), 10L * 500_500L);
+    assertEquals(snapshot.getMaximumNanos(), 1000L);
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to create a histogram with an invalid number
+   * of stripes.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidNumStripes()
+  {
+    new LatencyHistogram(0);
+  }
+
+
+
+  /**
+   * Tests the behavior when trying to retrieve an invalid percentile.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidPercentile()
+  {
+    new LatencyHistogram(1).getSnapshot().getPercentileNanos(101.0d);
+  }
+
+
+
+  /**
+   * Ensures that the provided percentile estimate is at least the expected
+   * value and is within the precision provided by the histogram.
+   *
+   * @param  estimate  The estimated value obtained from the histogram.
+   * @param  expected  The expected value.
+   */
+  private static void assertWithinPrecision(final long estimate,
+                                            final long expected)
+  {
+    assertTrue((estimate >= expected), "Estimate " + estimate +
+         " is smaller than the expected value " + expected);
+    assertTrue((estimate <= (expected + (expected / 8L))), "Estimate " +
+         estimate + " is too much larger than the expected value " + expected);
+  }
+}
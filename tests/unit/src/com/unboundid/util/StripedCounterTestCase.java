@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+
+
+/**
+ * This class provides a set of test cases for the {@code StripedCounter}
+ * class.
+ */
+public class StripedCounterTestCase
+       extends UtilTestCase
+{
+  /**
+   * Tests the basic behavior of a counter with a single stripe.
+   */
+  @Test()
+  public void testSingleStripe()
+  {
+    final StripedCounter counter = new StripedCounter(1);
+    assertEquals(counter.getNumStripes(), 1);
+    assertEquals(counter.get(), 0L);
+    assertEquals(counter.toString(), "0");
+
+    counter.increment();
+    counter.increment();
+    counter.decrement();
+    counter.add(10L);
+    counter.add(-3L);
+    assertEquals(counter.get(), 8L);
+    assertEquals(counter.toString(), "8");
+
+    assertEquals(counter.getAndReset(), 8L);
+    assertEquals(counter.get(), 0L);
+
+    counter.add(5L);
+    counter.reset();
+    assertEquals(counter.get(), 0L);
+  }
+
+
+
+  /**
+   * Tests that the number of stripes is rounded up to a power of two.
+   */
+  @Test()
+  public void testNumStripes()
+  {
+    assertEquals(new StripedCounter(3).getNumStripes(), 4);
+    assertEquals(new StripedCounter(8).getNumStripes(), 8);
+    assertTrue(new StripedCounter().getNumStripes() >= 1);
+  }
+
+
+
+  /**
+   * Tests the behavior when attempting to create a counter with an invalid
+   * number of stripes.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testInvalidNumStripes()
+  {
+    new StripedCounter(0);
+  }
+
+
+
+  /**
+   * Tests the behavior when a counter is updated by multiple threads at the
+   * same time.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testConcurrentUpdates()
+         throws Exception
+  {
+    final StripedCounter counter = new StripedCounter(4);
+
+    final List<Thread> threads = new ArrayList<>(8);
+    for (int i=0; i < 8; i++)
+    {
+      final Thread t = new Thread()
+      {
+        @Override()
+        public void run()
+        {
+          for (int j=0; j < 10_000; j++)
+          {
+            counter.increment();
+          }
+        }
+      };
+      threads.add(t);
+      t.start();
+    }
+
+    for (final Thread t : threads)
+    {
+      t.join();
+    }
+
+    assertEquals(counter.get(), 80_000L);
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2020 Ping Identity Corporation
+ * All Rights Reserved.
+ */
+/*
+ * Copyright 2020 Ping Identity Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * Copyright (C) 2020 Ping Identity Corporation
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License (GPLv2 only)
+ * or the terms of the GNU Lesser General Public License (LGPLv2.1 only)
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package com.unboundid.util.ssl;
+
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
+import com.unboundid.ldap.sdk.LDAPConnectionPoolStatistics;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.SingleServerSet;
+import com.unboundid.ldap.sdk.StartTLSPostConnectProcessor;
+import com.unboundid.ldap.sdk.extensions.StartTLSExtendedRequest;
+import com.unboundid.util.LDAPSDKUsageException;
+import com.unboundid.util.StaticUtils;
+import com.unboundid.util.ssl.cert.ManageCertificates;
+
+
+
+/**
+ * This class provides test coverage for the SSLClientSessionContext class.
+ */
+public final class SSLClientSessionContextTestCase
+       extends SSLTestCase
+{
+  // The in-memory directory server instance to use for testing.
+  private InMemoryDirectoryServer ds;
+
+
+
+  /**
+   * Creates an in-memory directory server instance with a listener that uses
+   * SSL and a listener that supports StartTLS.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @BeforeClass()
+  public void setUp()
+         throws Exception
+  {
+    final File keyStoreFile = createTempFile();
+    assertTrue(keyStoreFile.delete());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(
+         ManageCertificates.main(null, out, out,
+              "generate-self-signed-certificate",
+              "--keystore", keyStoreFile.getAbsolutePath(),
+              "--keystore-password", "password",
+              "--keystore-type", "JKS",
+              "--alias", "server-cert",
+              "--subject-dn", "CN=ds.example.com,O=Example Corp,C=US"),
+         ResultCode.SUCCESS,
+         StaticUtils.toUTF8String(out.toByteArray()));
+
+    final SSLUtil serverSSLUtil = new SSLUtil(
+         new KeyStoreKeyManager(keyStoreFile, "password".toCharArray(),
+              "JKS", "server-cert"),
+         new TrustAllTrustManager());
+
+    final InMemoryDirectoryServerConfig cfg =
+         new InMemoryDirectoryServerConfig("dc=example,dc=com");
+    cfg.setListenerConfigs(
+         InMemoryListenerConfig.createLDAPSConfig("LDAPS",
+              serverSSLUtil.createSSLServerSocketFactory()),
+         InMemoryListenerConfig.createLDAPConfig("LDAP", null, 0,
+              serverSSLUtil.createSSLSocketFactory()));
+
+    ds = new InMemoryDirectoryServer(cfg);
+    ds.add(
+         "dn: dc=example,dc=com",
+         "objectClass: top",
+         "objectClass: domain",
+         "dc: example");
+    ds.startListening();
+  }
+
+
+
+  /**
+   * Shuts down the in-memory directory server.
+   */
+  @AfterClass()
+  public void tearDown()
+  {
+    ds.shutDown(true);
+  }
+
+
+
+  /**
+   * Tests the behavior of the session context with the default settings.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testDefaultSettings()
+         throws Exception
+  {
+    final SSLClientSessionContext sessionContext =
+         new SSLClientSessionContext(new SSLUtil(new TrustAllTrustManager()));
+
+    assertNotNull(sessionContext.getSSLContext());
+    assertNotNull(sessionContext.getSSLSocketFactory());
+    assertSame(sessionContext.getSSLSocketFactory(),
+         sessionContext.getSSLSocketFactory());
+
+    assertEquals(sessionContext.getSessionCacheSize(),
+         SSLClientSessionContext.DEFAULT_SESSION_CACHE_SIZE);
+    assertEquals(sessionContext.getSessionTimeoutSeconds(),
+         SSLClientSessionContext.DEFAULT_SESSION_TIMEOUT_SECONDS);
+    assertEquals(sessionContext.getNumCachedSessions(), 0);
+
+    sessionContext.setSessionCacheSize(10);
+    assertEquals(sessionContext.getSessionCacheSize(), 10);
+
+    sessionContext.setSessionTimeoutSeconds(60);
+    assertEquals(sessionContext.getSessionTimeoutSeconds(), 60);
+
+    sessionContext.invalidateCachedSessions();
+    assertNotNull(sessionContext.toString());
+  }
+
+
+
+  /**
+   * Tests to ensure that a negative session cache size is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testNegativeSessionCacheSize()
+         throws Exception
+  {
+    new SSLClientSessionContext(new SSLUtil(new TrustAllTrustManager()), -1,
+         60);
+  }
+
+
+
+  /**
+   * Tests to ensure that a negative session timeout is rejected.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test(expectedExceptions = { LDAPSDKUsageException.class })
+  public void testNegativeSessionTimeout()
+         throws Exception
+  {
+    new SSLClientSessionContext(new SSLUtil(new TrustAllTrustManager()), 10,
+         -1);
+  }
+
+
+
+  /**
+   * Tests to ensure that connections in a pool that use SSL will resume the
+   * session established by the first connection, and that the handshakes
+   * will be reflected in the pool statistics.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSessionResumptionWithSSL()
+         throws Exception
+  {
+    final SSLClientSessionContext sessionContext = new SSLClientSessionContext(
+         new SSLUtil(new TrustAllTrustManager()), 10, 60);
+    establishSession(sessionContext, false);
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new SingleServerSet("localhost", ds.getListenPort("LDAPS"),
+              sessionContext.getSSLSocketFactory()),
+         null, 3, 3, null);
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumTLSHandshakes(), 3L);
+    assertTrue(stats.getNumResumedTLSHandshakes() >= 1L,
+         String.valueOf(stats));
+    assertEquals(stats.getTLSHandshakeTimeHistogram().getCount(), 3L);
+    assertTrue(sessionContext.getNumCachedSessions() >= 1);
+
+    final LDAPConnection conn = pool.getConnection();
+    assertEquals(conn.getConnectionStatistics().getNumTLSHandshakes(), 1L);
+    assertNotNull(conn.getEntry("dc=example,dc=com"));
+    pool.releaseConnection(conn);
+
+    pool.close();
+
+    stats.reset();
+    assertEquals(stats.getNumTLSHandshakes(), 0L);
+    assertEquals(stats.getTLSHandshakeTimeHistogram().getCount(), 0L);
+  }
+
+
+
+  /**
+   * Tests to ensure that connections in a pool that use StartTLS will resume
+   * the session established by the first connection.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test()
+  public void testSessionResumptionWithStartTLS()
+         throws Exception
+  {
+    final SSLClientSessionContext sessionContext = new SSLClientSessionContext(
+         new SSLUtil(new TrustAllTrustManager()));
+    establishSession(sessionContext, true);
+
+    final LDAPConnectionPool pool = new LDAPConnectionPool(
+         new SingleServerSet("localhost", ds.getListenPort("LDAP")), null, 3,
+         3, new StartTLSPostConnectProcessor(
+              sessionContext.getSSLSocketFactory()));
+
+    final LDAPConnectionPoolStatistics stats =
+         pool.getConnectionPoolStatistics();
+    assertEquals(stats.getNumTLSHandshakes(), 3L);
+    assertTrue(stats.getNumResumedTLSHandshakes() >= 1L,
+         String.valueOf(stats));
+
+    assertNotNull(pool.getEntry("dc=example,dc=com"));
+    pool.close();
+  }
+
+
+
+  /**
+   * Establishes a connection that uses the provided session context, processes
+   * an operation on it, and closes it.  With TLS 1.3, the server provides the
+   * information needed to resume a session only after the handshake has
+   * completed, so processing an operation ensures that the client has received
+   * it before any further connections are established.
+   *
+   * @param  sessionContext  The session context to use.
+   * @param  useStartTLS     Indicates whether to use StartTLS rather than SSL.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  private void establishSession(final SSLClientSessionContext sessionContext,
+                                final boolean useStartTLS)
+          throws Exception
+  {
+    final LDAPConnection conn;
+    if (useStartTLS)
+    {
+      conn = new LDAPConnection("localhost", ds.getListenPort("LDAP"));
+      assertEquals(
+           conn.processExtendedOperation(new StartTLSExtendedRequest(
+                sessionContext.getSSLSocketFactory())).getResultCode(),
+           ResultCode.SUCCESS);
+    }
+    else
+    {
+      conn = new LDAPConnection(sessionContext.getSSLSocketFactory(),
+           "localhost", ds.getListenPort("LDAPS"));
+    }
+
+    try
+    {
+      assertNotNull(conn.getEntry("dc=example,dc=com"));
+    }
+    finally
+    {
+      conn.close();
+    }
+
+    assertTrue(sessionContext.getNumCachedSessions() >= 1);
+  }
+}